@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.client.map;
+
+import com.hazelcast.aggregation.Aggregators;
+import com.hazelcast.client.test.TestHazelcastFactory;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.projection.Projections;
+import com.hazelcast.query.Predicates;
+import com.hazelcast.query.SampleObjects.Employee;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.Collection;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class ClientMapAggregatorTest extends HazelcastTestSupport {
+
+    private static final int ENTRY_COUNT = 100;
+
+    private final TestHazelcastFactory hazelcastFactory = new TestHazelcastFactory();
+
+    private IMap<Integer, Employee> map;
+
+    @Before
+    public void setup() {
+        hazelcastFactory.newHazelcastInstance();
+        hazelcastFactory.newHazelcastInstance();
+        HazelcastInstance client = hazelcastFactory.newHazelcastClient();
+        map = client.getMap(randomMapName());
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            map.put(i, new Employee("name" + i, i, i % 2 == 0, i));
+        }
+    }
+
+    @After
+    public void tearDown() {
+        hazelcastFactory.terminateAll();
+    }
+
+    @Test
+    public void aggregate() {
+        assertEquals(Long.valueOf(ENTRY_COUNT), map.aggregate(Aggregators.<Map.Entry<Integer, Employee>>count()));
+        assertEquals(Long.valueOf(ENTRY_COUNT * (ENTRY_COUNT - 1) / 2),
+                map.aggregate(Aggregators.<Map.Entry<Integer, Employee>>longSum("age")));
+    }
+
+    @Test
+    public void aggregate_withPredicate() {
+        Long count = map.aggregate(Aggregators.<Map.Entry<Integer, Employee>>count(), Predicates.equal("active", true));
+
+        assertEquals(Long.valueOf(ENTRY_COUNT / 2), count);
+    }
+
+    @Test
+    public void project_withPredicate() {
+        Collection<String> names = map.project(Projections.<Map.Entry<Integer, Employee>, String>singleAttribute("name"),
+                Predicates.lessThan("age", 10));
+
+        assertEquals(10, names.size());
+        assertTrue(names.contains("name9"));
+    }
+}
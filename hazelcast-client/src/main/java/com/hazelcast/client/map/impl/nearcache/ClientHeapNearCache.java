@@ -22,6 +22,8 @@ import com.hazelcast.client.spi.impl.ClientExecutionServiceImpl;
 import com.hazelcast.config.EvictionPolicy;
 import com.hazelcast.config.InMemoryFormat;
 import com.hazelcast.config.NearCacheConfig;
+import com.hazelcast.internal.eviction.Evictable;
+import com.hazelcast.internal.eviction.impl.evaluator.TinyLFUEvictionPolicyEvaluator;
 import com.hazelcast.internal.serialization.SerializationService;
 import com.hazelcast.map.impl.nearcache.NearCacheRecord;
 import com.hazelcast.monitor.impl.NearCacheStatsImpl;
@@ -71,6 +73,7 @@ public class ClientHeapNearCache<K>
     private final ConcurrentMap<K, NearCacheRecord> cache;
     private final NearCacheStatsImpl stats;
     private final Comparator<NearCacheRecord> selectedComparator;
+    private final TinyLFUEvictionPolicyEvaluator<Object, Evictable> tinyLfuEvaluator;
 
     private volatile long lastCleanup;
 
@@ -87,7 +90,13 @@ public class ClientHeapNearCache<K>
         timeToLiveMillis = TimeUnit.SECONDS.toMillis(nearCacheConfig.getTimeToLiveSeconds());
         invalidateOnChange = nearCacheConfig.isInvalidateOnChange();
         evictionPolicy = EvictionPolicy.valueOf(nearCacheConfig.getEvictionPolicy());
-        selectedComparator = NearCacheRecord.getComparator(evictionPolicy);
+        if (evictionPolicy == EvictionPolicy.TINY_LFU) {
+            tinyLfuEvaluator = new TinyLFUEvictionPolicyEvaluator<Object, Evictable>();
+            selectedComparator = NearCacheRecord.getTinyLFUComparator(tinyLfuEvaluator);
+        } else {
+            tinyLfuEvaluator = null;
+            selectedComparator = NearCacheRecord.getComparator(evictionPolicy);
+        }
         cache = new ConcurrentHashMap<K, NearCacheRecord>();
         canCleanUp = new AtomicBoolean(true);
         canEvict = new AtomicBoolean(true);
@@ -118,6 +127,10 @@ public class ClientHeapNearCache<K>
             }
         }
         cache.put(key, new NearCacheRecord(key, value));
+        if (tinyLfuEvaluator != null) {
+            tinyLfuEvaluator.ensureCapacity(cache.size());
+            tinyLfuEvaluator.onAccess(key);
+        }
     }
 
     private void fireEvictCache() {
@@ -195,6 +208,7 @@ public class ClientHeapNearCache<K>
     @Override
     public Object get(K key) {
         fireTtlCleanup();
+        onKeyAccess(key);
         NearCacheRecord record = cache.get(key);
         if (record != null) {
             record.access();
@@ -216,6 +230,12 @@ public class ClientHeapNearCache<K>
         }
     }
 
+    private void onKeyAccess(K key) {
+        if (tinyLfuEvaluator != null) {
+            tinyLfuEvaluator.onAccess(key);
+        }
+    }
+
     @Override
     public boolean remove(K key) {
         return null != cache.remove(key);
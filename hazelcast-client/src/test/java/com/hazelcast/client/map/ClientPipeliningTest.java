@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.client.map;
+
+import com.hazelcast.client.test.TestHazelcastFactory;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.core.Pipelining;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class ClientPipeliningTest extends HazelcastTestSupport {
+
+    private final TestHazelcastFactory hazelcastFactory = new TestHazelcastFactory();
+
+    private HazelcastInstance client;
+
+    @Before
+    public void setup() {
+        hazelcastFactory.newHazelcastInstance();
+        hazelcastFactory.newHazelcastInstance();
+        client = hazelcastFactory.newHazelcastClient();
+    }
+
+    @After
+    public void tearDown() {
+        hazelcastFactory.terminateAll();
+    }
+
+    @Test
+    public void results_inOrderOfTheCalls() throws Exception {
+        final IMap<Integer, Integer> map = client.getMap(randomMapName());
+        Pipelining<Integer> putPipelining = new Pipelining<Integer>(10, false);
+        for (int i = 0; i < 1000; i++) {
+            final int key = i;
+            putPipelining.add(new Callable<Future<Integer>>() {
+                @Override
+                public Future<Integer> call() {
+                    return map.putAsync(key, key * 2);
+                }
+            });
+            assertTrue(putPipelining.pending() <= 10);
+        }
+        assertNull(putPipelining.done().get());
+        assertEquals(1000, map.size());
+
+        Pipelining<Integer> getPipelining = new Pipelining<Integer>(10);
+        for (int i = 0; i < 1000; i++) {
+            final int key = i;
+            getPipelining.add(new Callable<Future<Integer>>() {
+                @Override
+                public Future<Integer> call() {
+                    return map.getAsync(key);
+                }
+            });
+        }
+        List<Integer> results = getPipelining.done().get();
+
+        assertEquals(1000, results.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(Integer.valueOf(i * 2), results.get(i));
+        }
+        assertEquals(0, getPipelining.pending());
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.aggregation;
+
+import java.io.Serializable;
+
+/**
+ * Accumulates the entries of a map into a result, for example a sum or a count.
+ * <p/>
+ * An aggregation runs as follows: the aggregator is sent to all members, where a copy of it accumulates the matching
+ * local entries of each partition using {@link #accumulate(Object)}. The copies are merged per member and then at the
+ * caller using {@link #combine(Aggregator)}, and finally the caller calls {@link #aggregate()} to get the result.
+ * Only the aggregator itself, i.e. its accumulated state, is sent between the members.
+ * <p/>
+ * The input of the {@link com.hazelcast.core.IMap} aggregations is a {@link java.util.Map.Entry}. On the members it
+ * is a {@link com.hazelcast.query.impl.QueryableEntry}, so attribute paths and extractors can be used the same way as
+ * in predicates.
+ * <p/>
+ * Custom aggregators can extend this class; they must be serializable by Hazelcast, e.g. by being
+ * {@link java.io.Serializable} or {@link com.hazelcast.nio.serialization.IdentifiedDataSerializable}. Predefined
+ * aggregators can be found in {@link Aggregators}.
+ *
+ * @param <I> the input type
+ * @param <R> the result type
+ * @since 3.6
+ */
+public abstract class Aggregator<I, R> implements Serializable {
+
+    /**
+     * Accumulates the given input.
+     *
+     * @param input the input to accumulate
+     */
+    public abstract void accumulate(I input);
+
+    /**
+     * Merges the state of another aggregator of the same type into this one.
+     *
+     * @param aggregator the aggregator to merge
+     */
+    public abstract void combine(Aggregator aggregator);
+
+    /**
+     * Returns the result of the aggregation.
+     *
+     * @return the result
+     */
+    public abstract R aggregate();
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.aggregation;
+
+import com.hazelcast.aggregation.impl.AverageAggregator;
+import com.hazelcast.aggregation.impl.CountAggregator;
+import com.hazelcast.aggregation.impl.DistinctValuesAggregator;
+import com.hazelcast.aggregation.impl.DoubleSumAggregator;
+import com.hazelcast.aggregation.impl.LongSumAggregator;
+import com.hazelcast.aggregation.impl.MaxAggregator;
+import com.hazelcast.aggregation.impl.MinAggregator;
+
+import java.util.Set;
+
+/**
+ * Factory methods for the predefined {@link Aggregator}s.
+ * <p/>
+ * The methods without an attribute path aggregate the values of the entries, the other ones the given attribute of
+ * the entries, e.g. <code>"age"</code> or <code>"address.city"</code>. Entries whose value or attribute is
+ * <code>null</code> are skipped.
+ * <pre>
+ * IMap&lt;String, Employee&gt; map = hazelcastInstance.getMap("employees");
+ * Double avgSalary = map.aggregate(Aggregators.&lt;Map.Entry&lt;String, Employee&gt;&gt;average("salary"),
+ *         new SqlPredicate("active = true"));
+ * </pre>
+ *
+ * @since 3.6
+ */
+public final class Aggregators {
+
+    private Aggregators() {
+    }
+
+    /**
+     * @return an aggregator counting the entries
+     */
+    public static <I> Aggregator<I, Long> count() {
+        return new CountAggregator<I>();
+    }
+
+    /**
+     * @param attributePath the attribute to check
+     * @return an aggregator counting the entries with a non-null attribute
+     */
+    public static <I> Aggregator<I, Long> count(String attributePath) {
+        return new CountAggregator<I>(attributePath);
+    }
+
+    /**
+     * @return an aggregator summing the numeric values as longs
+     */
+    public static <I> Aggregator<I, Long> longSum() {
+        return new LongSumAggregator<I>();
+    }
+
+    /**
+     * @param attributePath the numeric attribute to sum
+     * @return an aggregator summing the attribute as longs
+     */
+    public static <I> Aggregator<I, Long> longSum(String attributePath) {
+        return new LongSumAggregator<I>(attributePath);
+    }
+
+    /**
+     * @return an aggregator summing the numeric values as doubles
+     */
+    public static <I> Aggregator<I, Double> doubleSum() {
+        return new DoubleSumAggregator<I>();
+    }
+
+    /**
+     * @param attributePath the numeric attribute to sum
+     * @return an aggregator summing the attribute as doubles
+     */
+    public static <I> Aggregator<I, Double> doubleSum(String attributePath) {
+        return new DoubleSumAggregator<I>(attributePath);
+    }
+
+    /**
+     * @return an aggregator calculating the average of the numeric values
+     */
+    public static <I> Aggregator<I, Double> average() {
+        return new AverageAggregator<I>();
+    }
+
+    /**
+     * @param attributePath the numeric attribute to average
+     * @return an aggregator calculating the average of the attribute
+     */
+    public static <I> Aggregator<I, Double> average(String attributePath) {
+        return new AverageAggregator<I>(attributePath);
+    }
+
+    /**
+     * @return an aggregator finding the smallest of the comparable values
+     */
+    public static <I, R extends Comparable> Aggregator<I, R> min() {
+        return new MinAggregator<I, R>();
+    }
+
+    /**
+     * @param attributePath the comparable attribute
+     * @return an aggregator finding the smallest attribute
+     */
+    public static <I, R extends Comparable> Aggregator<I, R> min(String attributePath) {
+        return new MinAggregator<I, R>(attributePath);
+    }
+
+    /**
+     * @return an aggregator finding the largest of the comparable values
+     */
+    public static <I, R extends Comparable> Aggregator<I, R> max() {
+        return new MaxAggregator<I, R>();
+    }
+
+    /**
+     * @param attributePath the comparable attribute
+     * @return an aggregator finding the largest attribute
+     */
+    public static <I, R extends Comparable> Aggregator<I, R> max(String attributePath) {
+        return new MaxAggregator<I, R>(attributePath);
+    }
+
+    /**
+     * @return an aggregator collecting the distinct values
+     */
+    public static <I, R> Aggregator<I, Set<R>> distinct() {
+        return new DistinctValuesAggregator<I, R>();
+    }
+
+    /**
+     * @param attributePath the attribute to collect
+     * @return an aggregator collecting the distinct attributes
+     */
+    public static <I, R> Aggregator<I, Set<R>> distinct(String attributePath) {
+        return new DistinctValuesAggregator<I, R>(attributePath);
+    }
+}
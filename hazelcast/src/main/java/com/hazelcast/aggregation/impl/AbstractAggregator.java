@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.aggregation.impl;
+
+import com.hazelcast.aggregation.Aggregator;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
+import com.hazelcast.query.impl.QueryableEntry;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Base class of the built-in aggregators. It extracts the value to aggregate from the input: the value of the entry
+ * if no attribute path is given, otherwise the attribute of the entry, in the same way as predicates do.
+ *
+ * @param <I> the input type
+ * @param <R> the result type
+ */
+public abstract class AbstractAggregator<I, R> extends Aggregator<I, R> implements IdentifiedDataSerializable {
+
+    protected String attributePath;
+
+    protected AbstractAggregator() {
+    }
+
+    protected AbstractAggregator(String attributePath) {
+        this.attributePath = attributePath;
+    }
+
+    @Override
+    public final void accumulate(I input) {
+        Object value = extract(input);
+        if (value != null) {
+            accumulateExtracted(value);
+        }
+    }
+
+    /**
+     * Accumulates a value extracted from the input. <code>null</code> values are skipped.
+     *
+     * @param value the extracted value
+     */
+    protected abstract void accumulateExtracted(Object value);
+
+    private Object extract(I input) {
+        if (attributePath == null) {
+            return input instanceof Map.Entry ? ((Map.Entry) input).getValue() : input;
+        }
+        if (input instanceof QueryableEntry) {
+            return ((QueryableEntry) input).getAttributeValue(attributePath);
+        }
+        throw new IllegalArgumentException("Cannot extract attribute '" + attributePath + "' from " + input);
+    }
+
+    @Override
+    public int getFactoryId() {
+        return AggregatorDataSerializerHook.F_ID;
+    }
+
+    @Override
+    public void writeData(ObjectDataOutput out) throws IOException {
+        out.writeUTF(attributePath);
+    }
+
+    @Override
+    public void readData(ObjectDataInput in) throws IOException {
+        attributePath = in.readUTF();
+    }
+}
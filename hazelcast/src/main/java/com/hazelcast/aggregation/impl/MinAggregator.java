@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.aggregation.impl;
+
+import com.hazelcast.aggregation.Aggregator;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+
+import java.io.IOException;
+
+/**
+ * Finds the smallest value. The values must be mutually {@link Comparable}. The result is <code>null</code> if there
+ * are no values.
+ *
+ * @param <I> the input type
+ * @param <R> the result type
+ */
+public final class MinAggregator<I, R extends Comparable> extends AbstractAggregator<I, R> {
+
+    private R min;
+
+    public MinAggregator() {
+    }
+
+    public MinAggregator(String attributePath) {
+        super(attributePath);
+    }
+
+    @Override
+    protected void accumulateExtracted(Object value) {
+        accumulateComparable((R) value);
+    }
+
+    @Override
+    public void combine(Aggregator aggregator) {
+        R other = ((MinAggregator<I, R>) aggregator).min;
+        if (other != null) {
+            accumulateComparable(other);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void accumulateComparable(R value) {
+        if (min == null || value.compareTo(min) < 0) {
+            min = value;
+        }
+    }
+
+    @Override
+    public R aggregate() {
+        return min;
+    }
+
+    @Override
+    public int getId() {
+        return AggregatorDataSerializerHook.MIN;
+    }
+
+    @Override
+    public void writeData(ObjectDataOutput out) throws IOException {
+        super.writeData(out);
+        out.writeObject(min);
+    }
+
+    @Override
+    public void readData(ObjectDataInput in) throws IOException {
+        super.readData(in);
+        min = in.readObject();
+    }
+}
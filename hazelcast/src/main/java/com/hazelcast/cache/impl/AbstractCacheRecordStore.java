@@ -26,6 +26,9 @@ import com.hazelcast.config.EvictionConfig;
 import com.hazelcast.config.EvictionPolicy;
 import com.hazelcast.config.InMemoryFormat;
 import com.hazelcast.core.HazelcastInstanceAware;
+import com.hazelcast.instance.Node;
+import com.hazelcast.internal.hotrestart.HotRestartService;
+import com.hazelcast.internal.eviction.AccessAwareEvictionPolicyEvaluator;
 import com.hazelcast.internal.eviction.EvictionChecker;
 import com.hazelcast.internal.eviction.EvictionListener;
 import com.hazelcast.internal.eviction.EvictionPolicyEvaluator;
@@ -39,6 +42,7 @@ import com.hazelcast.partition.InternalPartition;
 import com.hazelcast.partition.InternalPartitionService;
 import com.hazelcast.spi.EventRegistration;
 import com.hazelcast.spi.NodeEngine;
+import com.hazelcast.spi.impl.NodeEngineImpl;
 import com.hazelcast.spi.impl.eventservice.InternalEventService;
 import com.hazelcast.util.Clock;
 import com.hazelcast.util.EmptyStatement;
@@ -96,9 +100,12 @@ public abstract class AbstractCacheRecordStore<R extends CacheRecord, CRM extend
     protected final Map<CacheEventType, Set<CacheEventData>> batchEvent = new HashMap<CacheEventType, Set<CacheEventData>>();
     protected final MaxSizeChecker maxSizeChecker;
     protected final EvictionPolicyEvaluator<Data, R> evictionPolicyEvaluator;
+    protected final AccessAwareEvictionPolicyEvaluator<Data, R> accessAwareEvictionPolicyEvaluator;
     protected final EvictionChecker evictionChecker;
     protected final EvictionStrategy<Data, R, CRM> evictionStrategy;
     protected final boolean wanReplicationEnabled;
+    protected final HotRestartService hotRestartService;
+    protected final boolean hotRestartFsync;
     protected boolean primary;
 
     //CHECKSTYLE:OFF
@@ -143,8 +150,16 @@ public abstract class AbstractCacheRecordStore<R extends CacheRecord, CRM extend
         this.records = createRecordCacheMap();
         this.maxSizeChecker = createCacheMaxSizeChecker(evictionConfig.getSize(), evictionConfig.getMaximumSizePolicy());
         this.evictionPolicyEvaluator = createEvictionPolicyEvaluator(evictionConfig);
+        this.accessAwareEvictionPolicyEvaluator = evictionPolicyEvaluator instanceof AccessAwareEvictionPolicyEvaluator
+                ? (AccessAwareEvictionPolicyEvaluator<Data, R>) evictionPolicyEvaluator : null;
         this.evictionChecker = createEvictionChecker(evictionConfig);
         this.evictionStrategy = createEvictionStrategy(evictionConfig);
+        this.hotRestartService = getHotRestartService(nodeEngine, cacheConfig);
+        this.hotRestartFsync = cacheConfig.getHotRestartConfig().isFsync();
+        if (hotRestartService != null) {
+            hotRestartService.persistMetadata(ICacheService.SERVICE_NAME, name,
+                    nodeEngine.getSerializationService().toData(cacheConfig));
+        }
 
         // Register "cacheWriter" if it is "Closable" to be closed while cache is being destroyed
         if (cacheWriter instanceof Closeable) {
@@ -163,6 +178,28 @@ public abstract class AbstractCacheRecordStore<R extends CacheRecord, CRM extend
     }
     //CHECKSTYLE:ON
 
+    private static HotRestartService getHotRestartService(NodeEngine nodeEngine, CacheConfig cacheConfig) {
+        if (!cacheConfig.getHotRestartConfig().isEnabled()) {
+            return null;
+        }
+        Node node = ((NodeEngineImpl) nodeEngine).getNode();
+        return node.getNodeExtension().getHotRestartService();
+    }
+
+    protected void persistPut(Data key, R record) {
+        if (hotRestartService != null) {
+            long expirationTime = record.getExpirationTime();
+            hotRestartService.put(ICacheService.SERVICE_NAME, name, partitionId, key, toData(record),
+                    expirationTime < 0 ? Long.MAX_VALUE : expirationTime, hotRestartFsync);
+        }
+    }
+
+    protected void persistRemove(Data key) {
+        if (hotRestartService != null) {
+            hotRestartService.remove(ICacheService.SERVICE_NAME, name, partitionId, key, hotRestartFsync);
+        }
+    }
+
     private boolean isPrimary() {
         InternalPartitionService partitionService = nodeEngine.getPartitionService();
         InternalPartition partition = partitionService.getPartition(partitionId, false);
@@ -351,6 +388,7 @@ public abstract class AbstractCacheRecordStore<R extends CacheRecord, CRM extend
 
     @Override
     public void onEvict(Data key, R record) {
+        persistRemove(key);
         invalidateEntry(key);
     }
 
@@ -413,9 +451,19 @@ public abstract class AbstractCacheRecordStore<R extends CacheRecord, CRM extend
     protected long onRecordAccess(Data key, R record, ExpiryPolicy expiryPolicy, long now) {
         record.setAccessTime(now);
         record.incrementAccessHit();
+        onKeyAccess(key);
         return updateAccessDuration(key, record, expiryPolicy, now);
     }
 
+    /**
+     * Notifies the eviction policy evaluator about a read or a write of the given key, if it keeps an access history.
+     */
+    protected void onKeyAccess(Data key) {
+        if (accessAwareEvictionPolicyEvaluator != null) {
+            accessAwareEvictionPolicyEvaluator.onAccess(key);
+        }
+    }
+
     protected void updateReplaceStat(boolean result, boolean isHit, long start) {
         if (isStatisticsEnabled()) {
             if (result) {
@@ -512,6 +560,7 @@ public abstract class AbstractCacheRecordStore<R extends CacheRecord, CRM extend
         } catch (Throwable error) {
             // Writing to `CacheWriter` failed, so we should revert entry (remove added record).
             records.remove(key);
+            persistRemove(key);
             // Disposing key/value/record should be handled inside `onCreateRecordWithExpiryError`.
             onCreateRecordError(key, value, expiryTime, now, disableWriteThrough,
                                 completionId, origin, record, error);
@@ -617,6 +666,7 @@ public abstract class AbstractCacheRecordStore<R extends CacheRecord, CRM extend
                 Data eventDataOldValue = toEventData(dataOldValue);
 
                 updateRecordValue(record, recordValue);
+                persistPut(key, record);
                 onUpdateRecord(key, record, value, dataOldValue);
                 invalidateEntry(key, source);
 
@@ -639,6 +689,7 @@ public abstract class AbstractCacheRecordStore<R extends CacheRecord, CRM extend
     protected boolean updateRecordWithExpiry(Data key, Object value, R record, long expiryTime, long now,
                                              boolean disableWriteThrough, int completionId,
                                              String source, String origin) {
+        onKeyAccess(key);
         updateRecord(key, record, value, expiryTime, now, disableWriteThrough, completionId, source, origin);
 
         return processExpiredEntry(key, record, expiryTime, now, source) != null;
@@ -857,12 +908,25 @@ public abstract class AbstractCacheRecordStore<R extends CacheRecord, CRM extend
         doPutRecord(key, (R) record);
     }
 
+    @Override
+    public void restoreRecord(Data key, Data value, long expirationTime) {
+        if (records.get(key) == null) {
+            long expiryTime = expirationTime == Long.MAX_VALUE ? CacheRecord.EXPIRATION_TIME_NOT_AVAILABLE : expirationTime;
+            doPutRecord(key, createRecord(toStorageValue(value), Clock.currentTimeMillis(), expiryTime));
+        }
+    }
+
     public final R doPutRecord(Data key, R record) {
         return doPutRecord(key, record, SOURCE_NOT_AVAILABLE);
     }
 
     protected R doPutRecord(Data key, R record, String source) {
         R oldRecord = records.put(key, record);
+        if (accessAwareEvictionPolicyEvaluator != null) {
+            accessAwareEvictionPolicyEvaluator.ensureCapacity(records.size());
+            accessAwareEvictionPolicyEvaluator.onAccess(key);
+        }
+        persistPut(key, record);
         if (oldRecord != null) {
             invalidateEntry(key, source);
         }
@@ -881,6 +945,7 @@ public abstract class AbstractCacheRecordStore<R extends CacheRecord, CRM extend
     protected R doRemoveRecord(Data key, String source) {
         R removedRecord = records.remove(key);
         if (removedRecord != null) {
+            persistRemove(key);
             invalidateEntry(key, source);
         }
         return removedRecord;
@@ -1452,6 +1517,9 @@ public abstract class AbstractCacheRecordStore<R extends CacheRecord, CRM extend
     @Override
     public void clear() {
         records.clear();
+        if (hotRestartService != null) {
+            hotRestartService.clear(ICacheService.SERVICE_NAME, name, partitionId, hotRestartFsync);
+        }
         onClear();
     }
 
@@ -17,6 +17,7 @@
 package com.hazelcast.cache.impl;
 
 import com.hazelcast.cache.impl.event.CachePartitionLostEventFilter;
+import com.hazelcast.cache.impl.operation.CacheCreateConfigOperation;
 import com.hazelcast.cache.impl.operation.CacheDestroyOperation;
 import com.hazelcast.cache.impl.operation.PostJoinCacheOperation;
 import com.hazelcast.config.CacheConfig;
@@ -24,6 +25,7 @@ import com.hazelcast.config.CacheSimpleConfig;
 import com.hazelcast.config.InMemoryFormat;
 import com.hazelcast.core.DistributedObject;
 import com.hazelcast.core.Member;
+import com.hazelcast.internal.hotrestart.HotRestartSupportingService;
 import com.hazelcast.nio.IOUtil;
 import com.hazelcast.nio.serialization.Data;
 import com.hazelcast.partition.InternalPartitionLostEvent;
@@ -61,7 +63,8 @@ public abstract class AbstractCacheService
                     PostJoinAwareService,
                     PartitionAwareService,
                     QuorumAwareService,
-                    SplitBrainHandlerService {
+                    SplitBrainHandlerService,
+                    HotRestartSupportingService {
 
     protected final ConcurrentMap<String, CacheConfig> configs = new ConcurrentHashMap<String, CacheConfig>();
     protected final ConcurrentMap<String, CacheContext> cacheContexts = new ConcurrentHashMap<String, CacheContext>();
@@ -304,6 +307,29 @@ public abstract class AbstractCacheService
         }
     }
 
+    @Override
+    public void prepareRestore(String name, Data metadata) {
+        CacheConfig config = nodeEngine.getSerializationService().toObject(metadata);
+        OperationService operationService = nodeEngine.getOperationService();
+        CacheCreateConfigOperation op = new CacheCreateConfigOperation(config, true);
+        operationService.invokeOnTarget(SERVICE_NAME, op, nodeEngine.getThisAddress()).getSafely();
+    }
+
+    @Override
+    public int getBackupCount(String name) {
+        return getCacheConfig(name).getBackupCount();
+    }
+
+    @Override
+    public int getAsyncBackupCount(String name) {
+        return getCacheConfig(name).getAsyncBackupCount();
+    }
+
+    @Override
+    public void restoreEntry(String name, int partitionId, Data key, Data value, long expirationTime, boolean backup) {
+        getOrCreateRecordStore(name, partitionId).restoreRecord(key, value, expirationTime);
+    }
+
     @Override
     public CacheConfig getCacheConfig(String name) {
         return configs.get(name);
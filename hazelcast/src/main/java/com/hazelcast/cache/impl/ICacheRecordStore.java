@@ -371,6 +371,16 @@ public interface ICacheRecordStore {
      */
     void putRecord(Data key, CacheRecord record);
 
+    /**
+     * Associates the value restored by hot restart with the key, unless the key is already mapped.
+     * Neither triggers eviction nor calls the {@link javax.cache.integration.CacheWriter}.
+     *
+     * @param key            the key to the entry.
+     * @param value          the restored value.
+     * @param expirationTime the time the entry expires at, {@code Long.MAX_VALUE} if it never expires.
+     */
+    void restoreRecord(Data key, Data value, long expirationTime);
+
     /**
      * Removes the record for a key.
      * @param key the key to the entry.
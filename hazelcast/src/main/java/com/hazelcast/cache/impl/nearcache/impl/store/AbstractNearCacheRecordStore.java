@@ -16,6 +16,7 @@
 
 package com.hazelcast.cache.impl.nearcache.impl.store;
 
+import com.hazelcast.internal.eviction.AccessAwareEvictionPolicyEvaluator;
 import com.hazelcast.internal.eviction.EvictionChecker;
 import com.hazelcast.internal.eviction.EvictionListener;
 import com.hazelcast.internal.eviction.EvictionPolicyEvaluator;
@@ -67,6 +68,7 @@ public abstract class AbstractNearCacheRecordStore<
 
     protected final MaxSizeChecker maxSizeChecker;
     protected final EvictionPolicyEvaluator<KS, R> evictionPolicyEvaluator;
+    protected final AccessAwareEvictionPolicyEvaluator<KS, R> accessAwareEvictionPolicyEvaluator;
     protected final EvictionChecker evictionChecker;
     protected final EvictionStrategy<KS, R, NCRM> evictionStrategy;
 
@@ -95,6 +97,8 @@ public abstract class AbstractNearCacheRecordStore<
             this.evictionChecker = null;
             this.evictionStrategy = null;
         }
+        this.accessAwareEvictionPolicyEvaluator = evictionPolicyEvaluator instanceof AccessAwareEvictionPolicyEvaluator
+                ? (AccessAwareEvictionPolicyEvaluator<KS, R>) evictionPolicyEvaluator : null;
     }
 
     protected abstract MaxSizeChecker createNearCacheMaxSizeChecker(EvictionConfig evictionConfig,
@@ -202,6 +206,15 @@ public abstract class AbstractNearCacheRecordStore<
         record.incrementAccessHit();
     }
 
+    /**
+     * Notifies the eviction policy evaluator about a read or a write of the given key, if it keeps an access history.
+     */
+    protected void onKeyAccess(KS key) {
+        if (accessAwareEvictionPolicyEvaluator != null) {
+            accessAwareEvictionPolicyEvaluator.onAccess(key);
+        }
+    }
+
     protected void onGet(K key, V value, R record) {
 
     }
@@ -275,6 +288,9 @@ public abstract class AbstractNearCacheRecordStore<
             oldRecord = putRecord(key, record);
             if (oldRecord == null) {
                 nearCacheStats.incrementOwnedEntryCount();
+                if (accessAwareEvictionPolicyEvaluator != null) {
+                    accessAwareEvictionPolicyEvaluator.ensureCapacity(records.size());
+                }
             } else {
                 long oldRecordMemoryCost = getRecordStorageMemoryCost(oldRecord);
                 nearCacheStats.decrementOwnedEntryMemoryCost(oldRecordMemoryCost);
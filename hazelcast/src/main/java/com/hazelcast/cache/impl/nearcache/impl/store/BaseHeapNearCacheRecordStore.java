@@ -57,12 +57,14 @@ public abstract class BaseHeapNearCacheRecordStore<K, V, R extends NearCacheReco
 
     @Override
     protected R getRecord(K key) {
+        onKeyAccess(key);
         return records.get(key);
     }
 
     @Override
     protected R putRecord(K key, R record) {
         R oldRecord = records.put(key, record);
+        onKeyAccess(key);
         nearCacheStats.incrementOwnedEntryMemoryCost(getTotalStorageMemoryCost(key, record));
         return oldRecord;
     }
@@ -718,4 +718,16 @@ public interface MapCodecTemplate {
 
     @Request(id = 59, retryable = false, response = ResponseMessageConst.VOID)
     void clearNearCache(String name, Address target);
+
+    /**
+     * Aggregates the entries of the map matching the predicate. Each member aggregates its own partitions and only the
+     * state of the aggregators is sent back, the entries never leave the members.
+     *
+     * @param name       name of map
+     * @param aggregator aggregator to run on the entries.
+     * @param predicate  specified query criteria.
+     * @return the result of the aggregation.
+     */
+    @Request(id = 60, retryable = true, response = ResponseMessageConst.DATA)
+    Object aggregate(String name, Data aggregator, Data predicate);
 }
@@ -390,8 +390,11 @@ public class ConfigXmlGenerator {
             xml.append("<read-backup-data>").append(m.isReadBackupData())
                     .append("</read-backup-data>");
             appendHotRestartConfig(xml, m.getHotRestartConfig());
+            appendTieredStoreConfig(xml, m.getTieredStoreConfig());
             xml.append("<statistics-enabled>").append(m.isStatisticsEnabled())
                     .append("</statistics-enabled>");
+            xml.append("<value-compression-threshold>").append(m.getValueCompressionThreshold())
+                    .append("</value-compression-threshold>");
 
             mapStoreConfigXmlGenerator(xml, m);
 
@@ -409,6 +412,12 @@ public class ConfigXmlGenerator {
         }
     }
 
+    private void appendTieredStoreConfig(StringBuilder xml, TieredStoreConfig m) {
+        xml.append("<tiered-store enabled=\"").append(m.isEnabled()).append("\">")
+                .append("<memory-tier-size>").append(m.getMemoryTierSize()).append("</memory-tier-size>")
+                .append("</tiered-store>");
+    }
+
     private void appendHotRestartConfig(StringBuilder xml, HotRestartConfig m) {
         xml.append("<hot-restart enabled=\"")
                 .append(m != null && m.isEnabled()).append("\">")
@@ -545,7 +554,8 @@ public class ConfigXmlGenerator {
         if (!m.getMapIndexConfigs().isEmpty()) {
             xml.append("<indexes>");
             for (MapIndexConfig indexCfg : m.getMapIndexConfigs()) {
-                xml.append("<index ordered=\"").append(indexCfg.isOrdered()).append("\">");
+                xml.append("<index ordered=\"").append(indexCfg.isOrdered())
+                        .append("\" bitmap=\"").append(indexCfg.isBitmap()).append("\">");
                 xml.append(indexCfg.getAttribute());
                 xml.append("</index>");
             }
@@ -173,6 +173,8 @@ public class EvictionConfig
             return EvictionPolicyType.LFU;
         } else if (evictionPolicy == EvictionPolicy.LRU) {
             return EvictionPolicyType.LRU;
+        } else if (evictionPolicy == EvictionPolicy.TINY_LFU) {
+            return EvictionPolicyType.TINY_LFU;
         } else {
             return null;
         }
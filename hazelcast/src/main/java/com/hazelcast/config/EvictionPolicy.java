@@ -34,5 +34,10 @@ public enum EvictionPolicy {
     /**
      * Randomly
      */
-    RANDOM
+    RANDOM,
+    /**
+     * Window TinyLFU: evicts the least frequently used entries as estimated by a frequency sketch, which also
+     * remembers evicted keys, while protecting the most recently used entries
+     */
+    TINY_LFU
 }
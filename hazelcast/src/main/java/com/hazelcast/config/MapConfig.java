@@ -25,6 +25,7 @@ import java.util.List;
 import static com.hazelcast.util.Preconditions.checkAsyncBackupCount;
 import static com.hazelcast.util.Preconditions.checkBackupCount;
 import static com.hazelcast.util.Preconditions.checkFalse;
+import static com.hazelcast.util.Preconditions.checkNotNegative;
 import static com.hazelcast.util.Preconditions.isNotNull;
 
 /**
@@ -92,6 +93,11 @@ public class MapConfig {
      */
     public static final CacheDeserializedValues DEFAULT_CACHED_DESERIALIZED_VALUES = CacheDeserializedValues.INDEX_ONLY;
 
+    /**
+     * Values are not compressed by default.
+     */
+    public static final int DEFAULT_VALUE_COMPRESSION_THRESHOLD = 0;
+
     private String name;
 
     private int backupCount = DEFAULT_BACKUP_COUNT;
@@ -118,6 +124,8 @@ public class MapConfig {
 
     private CacheDeserializedValues cacheDeserializedValues = DEFAULT_CACHED_DESERIALIZED_VALUES;
 
+    private int valueCompressionThreshold = DEFAULT_VALUE_COMPRESSION_THRESHOLD;
+
     private String mergePolicy = DEFAULT_MAP_MERGE_POLICY;
 
     private InMemoryFormat inMemoryFormat = DEFAULT_IN_MEMORY_FORMAT;
@@ -142,6 +150,8 @@ public class MapConfig {
 
     private HotRestartConfig hotRestartConfig = new HotRestartConfig();
 
+    private TieredStoreConfig tieredStoreConfig = new TieredStoreConfig();
+
     private MapConfigReadOnly readOnly;
 
     // we use these 2 flags to detect a conflict between (deprecated) #setOptimizeQueries()
@@ -172,6 +182,7 @@ public class MapConfig {
         this.nearCacheConfig = config.nearCacheConfig != null ? new NearCacheConfig(config.nearCacheConfig) : null;
         this.readBackupData = config.readBackupData;
         this.cacheDeserializedValues = config.cacheDeserializedValues;
+        this.valueCompressionThreshold = config.valueCompressionThreshold;
         this.statisticsEnabled = config.statisticsEnabled;
         this.mergePolicy = config.mergePolicy;
         this.wanReplicationRef = config.wanReplicationRef != null ? new WanReplicationRef(config.wanReplicationRef) : null;
@@ -185,6 +196,7 @@ public class MapConfig {
                 ? new PartitioningStrategyConfig(config.getPartitioningStrategyConfig()) : null;
         this.quorumName = config.quorumName;
         this.hotRestartConfig = new HotRestartConfig(config.hotRestartConfig);
+        this.tieredStoreConfig = new TieredStoreConfig(config.tieredStoreConfig);
     }
     //CHECKSTYLE:ON
 
@@ -506,6 +518,33 @@ public class MapConfig {
         return this;
     }
 
+    /**
+     * Returns the size in bytes from which serialized values are stored compressed.
+     *
+     * @return the value compression threshold in bytes, 0 if values are never compressed.
+     * @see #setValueCompressionThreshold(int)
+     */
+    public int getValueCompressionThreshold() {
+        return valueCompressionThreshold;
+    }
+
+    /**
+     * Sets the size in bytes from which serialized values are stored compressed. Only applies to maps with
+     * {@link InMemoryFormat#BINARY} in-memory format.
+     * <p/>
+     * A compressed value is decompressed when it is deserialized, for example by a predicate or an entry processor,
+     * or when it is sent to a client or to another member as a result. Backups and migrations copy the compressed form.
+     * Values which do not shrink when compressed are stored as they are.
+     *
+     * @param valueCompressionThreshold the value compression threshold in bytes, 0 to disable compression.
+     * @return the updated map configuration
+     */
+    public MapConfig setValueCompressionThreshold(int valueCompressionThreshold) {
+        this.valueCompressionThreshold = checkNotNegative(valueCompressionThreshold,
+                "valueCompressionThreshold can't be negative");
+        return this;
+    }
+
     /**
      * Checks if read-backup-data (reading local backup entires) is enabled for this map.
      *
@@ -773,6 +812,24 @@ public class MapConfig {
         return this;
     }
 
+    /**
+     * Gets the {@code TieredStoreConfig} for this {@code MapConfig}
+     * @return tiered store config
+     */
+    public TieredStoreConfig getTieredStoreConfig() {
+        return tieredStoreConfig;
+    }
+
+    /**
+     * Sets the {@code TieredStoreConfig} for this {@code MapConfig}
+     * @param tieredStoreConfig tiered store config
+     * @return this {@code MapConfig} instance
+     */
+    public MapConfig setTieredStoreConfig(TieredStoreConfig tieredStoreConfig) {
+        this.tieredStoreConfig = tieredStoreConfig;
+        return this;
+    }
+
     /**
      * Get current value cache settings
      *
@@ -839,6 +896,7 @@ public class MapConfig {
                 .hashCode());
         result = prime * result + this.timeToLiveSeconds;
         result = prime * result + cacheDeserializedValues.hashCode();
+        result = prime * result + this.valueCompressionThreshold;
         result = prime * result + (this.readBackupData ? 1231 : 1237);
         return result;
     }
@@ -863,6 +921,7 @@ public class MapConfig {
                         && this.timeToLiveSeconds == other.timeToLiveSeconds
                         && this.readBackupData == other.readBackupData
                         && (this.cacheDeserializedValues == other.cacheDeserializedValues)
+                        && this.valueCompressionThreshold == other.valueCompressionThreshold
                         && (this.mergePolicy != null ? this.mergePolicy.equals(other.mergePolicy) : other.mergePolicy == null)
                         && (this.inMemoryFormat != null ? this.inMemoryFormat.equals(other.inMemoryFormat)
                         : other.inMemoryFormat == null)
@@ -889,6 +948,7 @@ public class MapConfig {
                 + ", maxSizeConfig=" + maxSizeConfig
                 + ", readBackupData=" + readBackupData
                 + ", hotRestart=" + hotRestartConfig
+                + ", tieredStore=" + tieredStoreConfig
                 + ", nearCacheConfig=" + nearCacheConfig
                 + ", mapStoreConfig=" + mapStoreConfig
                 + ", mergePolicyConfig='" + mergePolicy + '\''
@@ -899,6 +959,7 @@ public class MapConfig {
                 + ", quorumName=" + quorumName
                 + ", queryCacheConfigs=" + queryCacheConfigs
                 + ", cacheDeserializedValues=" + cacheDeserializedValues
+                + ", valueCompressionThreshold=" + valueCompressionThreshold
                 + '}';
     }
 }
@@ -112,6 +112,11 @@ public class MapConfigReadOnly extends MapConfig {
         throw new UnsupportedOperationException("This config is read-only map: " + getName());
     }
 
+    @Override
+    public MapConfig setTieredStoreConfig(TieredStoreConfig tieredStoreConfig) {
+        throw new UnsupportedOperationException("This config is read-only map: " + getName());
+    }
+
     public MapConfig setName(String name) {
         throw new UnsupportedOperationException("This config is read-only map: " + getName());
     }
@@ -169,6 +174,10 @@ public class MapConfigReadOnly extends MapConfig {
         throw new UnsupportedOperationException("This config is read-only map: " + getName());
     }
 
+    public MapConfig setValueCompressionThreshold(int valueCompressionThreshold) {
+        throw new UnsupportedOperationException("This config is read-only map: " + getName());
+    }
+
     public MapConfig setReadBackupData(boolean readBackupData) {
         throw new UnsupportedOperationException("This config is read-only map: " + getName());
     }
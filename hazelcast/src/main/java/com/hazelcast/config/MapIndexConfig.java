@@ -27,6 +27,7 @@ public class MapIndexConfig {
 
     private String attribute;
     private boolean ordered;
+    private boolean bitmap;
     private MapIndexConfigReadOnly readOnly;
 
     /**
@@ -51,6 +52,7 @@ public class MapIndexConfig {
     public MapIndexConfig(MapIndexConfig config) {
         attribute = config.getAttribute();
         ordered = config.isOrdered();
+        bitmap = config.isBitmap();
     }
 
     public MapIndexConfigReadOnly getAsReadOnly() {
@@ -72,6 +74,11 @@ public class MapIndexConfig {
 
     /**
      * Sets the attribute that is going to be indexed.
+     * <p/>
+     * A comma separated list of attributes, e.g. {@code "tenantId,status,createdAt"}, creates a composite index
+     * over the ordered tuple of those attributes. It serves queries with equality predicates on a prefix of the
+     * attributes, optionally followed by a range predicate on the next attribute. Composite indexes are always
+     * sorted.
      *
      * @param attribute the attribute that is going to be indexed.
      * @return the updated MapIndexConfig.
@@ -105,8 +112,32 @@ public class MapIndexConfig {
         return this;
     }
 
+    /**
+     * Checks if the index should be a bitmap index.
+     *
+     * @return true if bitmap, false otherwise.
+     * @see #setBitmap(boolean)
+     */
+    public boolean isBitmap() {
+        return bitmap;
+    }
+
+    /**
+     * Configures the index to be a bitmap index or not. A bitmap index keeps a compressed bitmap of the matching
+     * entries per distinct value, which takes far less memory than a regular index for attributes with few distinct
+     * values, such as booleans or enums. Predicates combining bitmap indexes with and, or and not are evaluated as
+     * bitwise operations. A bitmap index can be neither ordered nor composite.
+     *
+     * @param bitmap if the index should be a bitmap index.
+     * @return the updated MapIndexConfig.
+     */
+    public MapIndexConfig setBitmap(boolean bitmap) {
+        this.bitmap = bitmap;
+        return this;
+    }
+
     @Override
     public String toString() {
-        return "MapIndexConfig{attribute='" + attribute + "', ordered=" + ordered + '}';
+        return "MapIndexConfig{attribute='" + attribute + "', ordered=" + ordered + ", bitmap=" + bitmap + '}';
     }
 }
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.config;
+
+import static com.hazelcast.util.Preconditions.checkPositive;
+
+/**
+ * Configures the tiered storage of a {@link com.hazelcast.config.InMemoryFormat#BINARY BINARY} map.
+ * <p/>
+ * When enabled, the values of the least recently (or, with {@link EvictionPolicy#LFU}, least frequently) used
+ * entries are moved out of the heap into memory-mapped files once a member holds more than
+ * {@link #getMemoryTierSize()} entries of the map; their keys and metadata stay on the heap. A value is moved
+ * back to the heap when its entry is accessed. The files are created under the directory set with the
+ * {@code hazelcast.map.tiered.store.dir} property and are not kept across restarts.
+ */
+public class TieredStoreConfig {
+
+    /**
+     * Default number of entries per member whose values are kept on the heap.
+     */
+    public static final int DEFAULT_MEMORY_TIER_SIZE = 100000;
+
+    private boolean enabled;
+    private int memoryTierSize = DEFAULT_MEMORY_TIER_SIZE;
+
+    public TieredStoreConfig() {
+    }
+
+    public TieredStoreConfig(TieredStoreConfig tieredStoreConfig) {
+        enabled = tieredStoreConfig.enabled;
+        memoryTierSize = tieredStoreConfig.memoryTierSize;
+    }
+
+    /**
+     * Returns whether the tiered storage is enabled on the map.
+     *
+     * @return true if the tiered storage is enabled, false otherwise
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Sets whether the tiered storage is enabled on the map.
+     *
+     * @param enabled true to enable the tiered storage
+     * @return this TieredStoreConfig
+     */
+    public TieredStoreConfig setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        return this;
+    }
+
+    /**
+     * Returns the number of entries per member whose values are kept on the heap.
+     *
+     * @return the memory tier size
+     */
+    public int getMemoryTierSize() {
+        return memoryTierSize;
+    }
+
+    /**
+     * Sets the number of entries per member whose values are kept on the heap, the values of the other entries
+     * are moved to the disk tier.
+     *
+     * @param memoryTierSize the memory tier size, must be positive
+     * @return this TieredStoreConfig
+     */
+    public TieredStoreConfig setMemoryTierSize(int memoryTierSize) {
+        this.memoryTierSize = checkPositive(memoryTierSize, "memoryTierSize must be positive");
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "TieredStoreConfig{"
+                + "enabled=" + enabled
+                + ", memoryTierSize=" + memoryTierSize
+                + '}';
+    }
+}
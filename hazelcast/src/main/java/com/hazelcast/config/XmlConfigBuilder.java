@@ -1079,6 +1079,8 @@ public class XmlConfigBuilder extends AbstractConfigBuilder implements ConfigBui
                 mapConfig.setMergePolicy(value);
             } else if ("hot-restart".equals(nodeName)) {
                 mapConfig.setHotRestartConfig(createHotRestartConfig(node));
+            } else if ("tiered-store".equals(nodeName)) {
+                mapConfig.setTieredStoreConfig(createTieredStoreConfig(node));
             } else if ("read-backup-data".equals(nodeName)) {
                 mapConfig.setReadBackupData(getBooleanValue(value));
             } else if ("statistics-enabled".equals(nodeName)) {
@@ -1088,6 +1090,8 @@ public class XmlConfigBuilder extends AbstractConfigBuilder implements ConfigBui
             } else if ("cache-deserialized-values".equals(nodeName)) {
                 CacheDeserializedValues cacheDeserializedValues = CacheDeserializedValues.parseString(value);
                 mapConfig.setCacheDeserializedValues(cacheDeserializedValues);
+            } else if ("value-compression-threshold".equals(nodeName)) {
+                mapConfig.setValueCompressionThreshold(getIntegerValue("value-compression-threshold", value));
             } else if ("wan-replication-ref".equals(nodeName)) {
                 mapWanReplicationRefHandle(node, mapConfig);
             } else if ("indexes".equals(nodeName)) {
@@ -1158,6 +1162,22 @@ public class XmlConfigBuilder extends AbstractConfigBuilder implements ConfigBui
         return hotRestartConfig;
     }
 
+    private TieredStoreConfig createTieredStoreConfig(Node node) {
+        TieredStoreConfig tieredStoreConfig = new TieredStoreConfig();
+
+        Node attrEnabled = node.getAttributes().getNamedItem("enabled");
+        tieredStoreConfig.setEnabled(getBooleanValue(getTextContent(attrEnabled)));
+
+        for (Node n : childElements(node)) {
+            final String name = cleanNodeName(n);
+            if ("memory-tier-size".equals(name)) {
+                tieredStoreConfig.setMemoryTierSize(getIntegerValue("memory-tier-size", getTextContent(n)));
+            }
+        }
+
+        return tieredStoreConfig;
+    }
+
     private void handleCache(final Node node)
             throws Exception {
         final String name = getAttribute(node, "name");
@@ -1377,8 +1397,9 @@ public class XmlConfigBuilder extends AbstractConfigBuilder implements ConfigBui
             if ("index".equals(cleanNodeName(indexNode))) {
                 final NamedNodeMap attrs = indexNode.getAttributes();
                 boolean ordered = getBooleanValue(getTextContent(attrs.getNamedItem("ordered")));
+                boolean bitmap = getBooleanValue(getTextContent(attrs.getNamedItem("bitmap")));
                 String attribute = getTextContent(indexNode);
-                mapConfig.addMapIndexConfig(new MapIndexConfig(attribute, ordered));
+                mapConfig.addMapIndexConfig(new MapIndexConfig(attribute, ordered).setBitmap(bitmap));
             }
         }
     }
@@ -16,6 +16,7 @@
 
 package com.hazelcast.core;
 
+import com.hazelcast.aggregation.Aggregator;
 import com.hazelcast.map.EntryProcessor;
 import com.hazelcast.map.MapInterceptor;
 import com.hazelcast.map.QueryResultSizeExceededException;
@@ -25,6 +26,7 @@ import com.hazelcast.mapreduce.JobTracker;
 import com.hazelcast.mapreduce.aggregation.Aggregation;
 import com.hazelcast.mapreduce.aggregation.Supplier;
 import com.hazelcast.monitor.LocalMapStats;
+import com.hazelcast.projection.Projection;
 import com.hazelcast.query.Predicate;
 
 import java.util.Collection;
@@ -1321,7 +1323,8 @@ public interface IMap<K, V> extends ConcurrentMap<K, V>, BaseMap<K, V> {
      * <p/>
      * Index attribute should either have a getter method or be public.
      * You should also make sure to add the indexes before adding
-     * entries to this map.
+     * entries to this map. A comma separated list of attributes, e.g. {@code "tenantId,status,createdAt"}, creates
+     * a composite index; it serves equality on a prefix of the attributes, optionally followed by a range on the next.
      * <p/>
      * <h3>Time to Index</h3>
      * Indexing time is executed in parallel on each partition by operation threads. The Map
@@ -1439,4 +1442,58 @@ public interface IMap<K, V> extends ConcurrentMap<K, V>, BaseMap<K, V> {
     <SuppliedValue, Result> Result aggregate(Supplier<K, V, SuppliedValue> supplier,
                                              Aggregation<K, SuppliedValue, Result> aggregation,
                                              JobTracker jobTracker);
+
+    /**
+     * Applies the aggregation to all entries of the map and returns the result.
+     * <p/>
+     * Unlike {@link #aggregate(Supplier, Aggregation)} the aggregation does not use map-reduce: copies of the
+     * aggregator accumulate the entries of each partition on the members, the partial results are combined per
+     * member and then on the caller. Only the state of the aggregators is sent over the network. A predefined set
+     * of aggregators can be found in {@link com.hazelcast.aggregation.Aggregators}.
+     *
+     * @param aggregator the aggregator to apply; it is not modified.
+     * @param <R>        the result type.
+     * @return the result of the aggregation.
+     * @since 3.6
+     */
+    <R> R aggregate(Aggregator<Map.Entry<K, V>, R> aggregator);
+
+    /**
+     * Applies the aggregation to the entries of the map which satisfy the predicate and returns the result.
+     * Indexes are used to select the entries in the same way as for {@link #entrySet(Predicate)}.
+     *
+     * @param aggregator the aggregator to apply; it is not modified.
+     * @param predicate  the predicate to select the entries, paging predicates are not supported.
+     * @param <R>        the result type.
+     * @return the result of the aggregation.
+     * @see #aggregate(Aggregator)
+     * @since 3.6
+     */
+    <R> R aggregate(Aggregator<Map.Entry<K, V>, R> aggregator, Predicate predicate);
+
+    /**
+     * Applies the projection to all entries of the map and returns the projected values.
+     * <p/>
+     * The projection is applied on the members, so only the projected values are sent to the caller, which is
+     * much cheaper than fetching the values when only a few of their attributes are needed. A predefined set of
+     * projections can be found in {@link com.hazelcast.projection.Projections}.
+     *
+     * @param projection the projection to apply.
+     * @param <R>        the projected type.
+     * @return the projected values, one per entry, in no particular order.
+     * @since 3.6
+     */
+    <R> Collection<R> project(Projection<Map.Entry<K, V>, R> projection);
+
+    /**
+     * Applies the projection to the entries of the map which satisfy the predicate and returns the projected values.
+     *
+     * @param projection the projection to apply.
+     * @param predicate  the predicate to select the entries, paging predicates are not supported.
+     * @param <R>        the projected type.
+     * @return the projected values, one per matching entry, in no particular order.
+     * @see #project(Projection)
+     * @since 3.6
+     */
+    <R> Collection<R> project(Projection<Map.Entry<K, V>, R> projection, Predicate predicate);
 }
@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.core;
+
+import java.io.Closeable;
+import java.util.Iterator;
+
+/**
+ * A {@link MapLoader} which can load the keys of a single partition, e.g. because its store is partitioned by the
+ * same function as the map. The initial load of a map backed by such a loader is not streamed by a single member:
+ * every partition loads its own keys from {@link #loadAllKeys(int)} on the member owning it, and
+ * {@link MapLoader#loadAllKeys()} is not called for the initial load.
+ * <p/>
+ * The partition of a key is the one returned by {@link PartitionService#getPartition(Object)} of the
+ * {@link HazelcastInstance} passed to {@link MapLoaderLifecycleSupport#init(HazelcastInstance, java.util.Properties, String)}.
+ * Keys of other partitions returned by {@link #loadAllKeys(int)} are still loaded into their own partitions, but they
+ * count towards the max size of the given partition.
+ *
+ * @param <K> type of the keys
+ * @param <V> type of the values
+ */
+public interface PartitionedMapLoader<K, V> extends MapLoader<K, V> {
+
+    /**
+     * Loads the keys of the given partition from the store. The returned {@link Iterable} may return the keys lazily,
+     * the {@link Iterator} of it may implement {@link Closeable} in which case it is closed once the iteration is over.
+     *
+     * @param partitionId id of the partition
+     * @return the keys of the partition, or {@code null} if it has none
+     */
+    Iterable<K> loadAllKeys(int partitionId);
+}
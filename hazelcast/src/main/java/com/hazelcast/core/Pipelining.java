@@ -0,0 +1,219 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.core;
+
+import com.hazelcast.logging.Logger;
+import com.hazelcast.spi.impl.AbstractCompletableFuture;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.hazelcast.util.ExceptionUtil.rethrow;
+import static com.hazelcast.util.Preconditions.checkNotNull;
+import static com.hazelcast.util.Preconditions.checkPositive;
+
+/**
+ * Keeps a bounded number of asynchronous calls in flight, e.g. for a bulk load with {@link IMap#putAsync(Object, Object)}.
+ * <p/>
+ * Issuing asynchronous calls in a loop is fast, but nothing bounds the number of calls in flight, so they may use a lot
+ * of memory and time out. Waiting for each call is safe but slow. A pipelining issues a call only when fewer than
+ * <code>depth</code> calls are pending, so the calls keep flowing without an unbounded backlog:
+ * <pre>
+ * Pipelining&lt;String&gt; pipelining = new Pipelining&lt;String&gt;(100);
+ * for (final Map.Entry&lt;String, String&gt; entry : entries) {
+ *     pipelining.add(new Callable&lt;Future&lt;String&gt;&gt;() {
+ *         public Future&lt;String&gt; call() {
+ *             return map.putAsync(entry.getKey(), entry.getValue());
+ *         }
+ *     });
+ * }
+ * pipelining.done().get();
+ * </pre>
+ * {@link #done()} returns a single future for all the calls. It works with the futures of the members and of the
+ * clients.
+ * <p/>
+ * The pipelining is a limit on the calls in flight, nothing more: every call is still a separate invocation with its
+ * own response.
+ * <p/>
+ * A pipelining is used by a single thread, which adds the calls and calls {@link #done()}.
+ *
+ * @param <E> the result type of the calls
+ * @since 3.6
+ */
+public class Pipelining<E> {
+
+    private static final Executor CALLER_RUNS = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+    };
+
+    private final Semaphore permits;
+    private final List<ICompletableFuture<E>> futures;
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+    private final CompletionFuture completion = new CompletionFuture();
+    private final Callback callback = new Callback();
+    private volatile boolean closed;
+
+    /**
+     * Creates a pipelining which keeps the results of the calls.
+     *
+     * @param depth the maximum number of pending calls
+     */
+    public Pipelining(int depth) {
+        this(depth, true);
+    }
+
+    /**
+     * Creates a pipelining. If the results are not kept, for example because they are not needed during a bulk load,
+     * the pipelining does not hold on to the completed calls and needs a constant amount of memory.
+     *
+     * @param depth       the maximum number of pending calls
+     * @param keepResults <code>true</code> to keep the results of the calls and return them by {@link #done()}
+     */
+    public Pipelining(int depth, boolean keepResults) {
+        this.permits = new Semaphore(checkPositive(depth, "depth must be positive"));
+        this.futures = keepResults ? new ArrayList<ICompletableFuture<E>>() : null;
+    }
+
+    /**
+     * Issues a call. If <code>depth</code> calls are pending, the method waits until one of them completes before the
+     * call is issued, so there are never more than <code>depth</code> calls in flight.
+     * <p/>
+     * The call must return an {@link ICompletableFuture}, like the asynchronous methods of Hazelcast do, e.g.
+     * {@link IMap#putAsync(Object, Object)}.
+     *
+     * @param call the call to issue
+     * @return the future of the call
+     * @throws InterruptedException     if interrupted while waiting
+     * @throws IllegalStateException    if {@link #done()} was already called
+     * @throws IllegalArgumentException if the call does not return an {@link ICompletableFuture}
+     */
+    public Future<E> add(Callable<? extends Future<E>> call) throws InterruptedException {
+        checkNotNull(call, "call can't be null");
+        if (closed) {
+            throw new IllegalStateException("Pipelining is done");
+        }
+        permits.acquire();
+        Future<E> future;
+        try {
+            future = call.call();
+        } catch (Throwable t) {
+            permits.release();
+            throw rethrow(t);
+        }
+        if (!(future instanceof ICompletableFuture)) {
+            permits.release();
+            throw new IllegalArgumentException("call must return an ICompletableFuture: " + future);
+        }
+        ICompletableFuture<E> completableFuture = (ICompletableFuture<E>) future;
+        pending.incrementAndGet();
+        if (futures != null) {
+            futures.add(completableFuture);
+        }
+        completableFuture.andThen(callback, CALLER_RUNS);
+        return future;
+    }
+
+    /**
+     * Returns the number of pending calls.
+     *
+     * @return the number of pending calls
+     */
+    public int pending() {
+        return pending.get();
+    }
+
+    /**
+     * Marks the end of the calls and returns a future which completes when all the added calls have completed.
+     * The future fails with the first failure of a call; the other calls still run to completion. Otherwise its value
+     * is the list of the results in the order the calls were added, or <code>null</code> if the results are not kept.
+     *
+     * @return the future of all calls
+     */
+    public ICompletableFuture<List<E>> done() {
+        closed = true;
+        completeIfDone();
+        return completion;
+    }
+
+    private void completeIfDone() {
+        if (!closed || pending.get() > 0) {
+            return;
+        }
+        Throwable t = failure.get();
+        if (t != null) {
+            completion.complete(t);
+        } else if (futures == null) {
+            completion.complete(null);
+        } else {
+            completion.complete(collectResults());
+        }
+    }
+
+    private List<E> collectResults() {
+        List<E> results = new ArrayList<E>(futures.size());
+        try {
+            for (ICompletableFuture<E> future : futures) {
+                results.add(future.get());
+            }
+        } catch (Exception e) {
+            // not expected, all futures are done and none failed
+            throw new HazelcastException(e);
+        }
+        return results;
+    }
+
+    private final class Callback implements ExecutionCallback<E> {
+
+        @Override
+        public void onResponse(E response) {
+            release();
+        }
+
+        @Override
+        public void onFailure(Throwable t) {
+            failure.compareAndSet(null, t);
+            release();
+        }
+
+        private void release() {
+            pending.decrementAndGet();
+            permits.release();
+            completeIfDone();
+        }
+    }
+
+    private final class CompletionFuture extends AbstractCompletableFuture<List<E>> {
+
+        private CompletionFuture() {
+            super(CALLER_RUNS, Logger.getLogger(Pipelining.class));
+        }
+
+        private void complete(Object result) {
+            setResult(result);
+        }
+    }
+}
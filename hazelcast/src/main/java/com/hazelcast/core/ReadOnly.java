@@ -0,0 +1,30 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.core;
+
+/**
+ * Marks an {@link com.hazelcast.map.EntryProcessor} that only reads the entry it is applied to.
+ * <p/>
+ * A read-only entry processor must not call {@link java.util.Map.Entry#setValue(Object)}. In return it is not
+ * backed up, even if it has an {@link com.hazelcast.map.EntryBackupProcessor}, it does not create events, and an
+ * entry processor applied to a single key runs on a separate executor against a snapshot of the entry, so the
+ * partition thread stays free for other operations.
+ *
+ * @since 3.6
+ */
+public interface ReadOnly {
+}
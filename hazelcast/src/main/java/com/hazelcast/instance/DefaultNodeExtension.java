@@ -22,15 +22,21 @@ import com.hazelcast.client.impl.protocol.MessageTaskFactory;
 import com.hazelcast.client.impl.protocol.MessageTaskFactoryImpl;
 import com.hazelcast.cluster.ClusterState;
 import com.hazelcast.config.Config;
+import com.hazelcast.config.NativeMemoryConfig;
 import com.hazelcast.config.SerializationConfig;
 import com.hazelcast.core.PartitioningStrategy;
+import com.hazelcast.internal.hotrestart.HotRestartService;
 import com.hazelcast.internal.serialization.SerializationService;
 import com.hazelcast.internal.serialization.SerializationServiceBuilder;
 import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
 import com.hazelcast.logging.ILogger;
 import com.hazelcast.map.impl.MapService;
 import com.hazelcast.memory.DefaultMemoryStats;
+import com.hazelcast.memory.MemoryManager;
+import com.hazelcast.memory.MemorySize;
 import com.hazelcast.memory.MemoryStats;
+import com.hazelcast.memory.PoolingMemoryManager;
+import com.hazelcast.memory.StandardMemoryManager;
 import com.hazelcast.nio.ClassLoaderUtil;
 import com.hazelcast.nio.IOService;
 import com.hazelcast.nio.MemberSocketInterceptor;
@@ -62,15 +68,40 @@ public class DefaultNodeExtension implements NodeExtension {
     protected final ILogger systemLogger;
 
     private final MemoryStats memoryStats = new DefaultMemoryStats();
+    private final MemoryManager nativeMemoryManager;
+    private final HotRestartService hotRestartService;
 
     public DefaultNodeExtension(Node node) {
         this.node = node;
         logger = node.getLogger(NodeExtension.class);
         systemLogger = node.getLogger("com.hazelcast.system");
+        nativeMemoryManager = createNativeMemoryManager(node.getConfig().getNativeMemoryConfig());
+        hotRestartService = node.getConfig().getHotRestartPersistenceConfig().isEnabled()
+                ? new HotRestartService(node) : null;
+    }
+
+    protected MemoryManager createNativeMemoryManager(NativeMemoryConfig nativeMemoryConfig) {
+        if (nativeMemoryConfig == null || !nativeMemoryConfig.isEnabled()) {
+            return null;
+        }
+        MemorySize size = nativeMemoryConfig.getSize();
+        logger.info("Native memory is enabled, allocator: " + nativeMemoryConfig.getAllocatorType()
+                + ", size: " + size.toPrettyString());
+        switch (nativeMemoryConfig.getAllocatorType()) {
+            case STANDARD:
+                return new StandardMemoryManager(size);
+            case POOLED:
+                return new PoolingMemoryManager(nativeMemoryConfig);
+            default:
+                throw new IllegalArgumentException("Unknown memory allocator type: " + nativeMemoryConfig.getAllocatorType());
+        }
     }
 
     @Override
     public void beforeStart() {
+        if (hotRestartService != null) {
+            hotRestartService.start();
+        }
     }
 
     @Override
@@ -94,6 +125,9 @@ public class DefaultNodeExtension implements NodeExtension {
 
     @Override
     public void afterStart() {
+        if (hotRestartService != null) {
+            hotRestartService.restore();
+        }
     }
 
     @Override
@@ -204,16 +238,32 @@ public class DefaultNodeExtension implements NodeExtension {
 
     @Override
     public MemoryStats getMemoryStats() {
-        return memoryStats;
+        return nativeMemoryManager != null ? nativeMemoryManager.getMemoryStats() : memoryStats;
+    }
+
+    @Override
+    public MemoryManager getNativeMemoryManager() {
+        return nativeMemoryManager;
+    }
+
+    @Override
+    public HotRestartService getHotRestartService() {
+        return hotRestartService;
     }
 
     @Override
     public void beforeShutdown() {
+        if (hotRestartService != null) {
+            hotRestartService.shutdown();
+        }
     }
 
     @Override
     public void shutdown() {
         logger.info("Destroying node NodeExtension.");
+        if (nativeMemoryManager != null) {
+            nativeMemoryManager.dispose();
+        }
     }
 
     @Override
@@ -231,6 +281,9 @@ public class DefaultNodeExtension implements NodeExtension {
 
     @Override
     public boolean triggerForceStart() {
+        if (hotRestartService != null) {
+            return hotRestartService.triggerForceStart();
+        }
         logger.warning("Force start is available when hot restart is active!");
         return false;
     }
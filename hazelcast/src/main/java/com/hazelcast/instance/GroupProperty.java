@@ -193,6 +193,36 @@ public enum GroupProperty implements HazelcastProperty {
 
     MAP_LOAD_CHUNK_SIZE("hazelcast.map.load.chunk.size", 1000),
 
+    /**
+     * Enables the parallel loading of the maps from their {@link com.hazelcast.core.MapLoader}: the keys are distributed
+     * to the partitions in batches of {@link #MAP_LOAD_PARALLEL_BATCH_SIZE}, the
+     * {@link com.hazelcast.core.MapLoader#loadAll(java.util.Collection)} calls of a batch, each with at most
+     * {@link #MAP_LOAD_CHUNK_SIZE} keys, run in parallel on a dedicated pool and their results are put into the
+     * partition at once.
+     */
+    MAP_LOAD_PARALLEL_ENABLED("hazelcast.map.load.parallel.enabled", false),
+
+    /**
+     * The number of threads of a member running {@link com.hazelcast.core.MapLoader#loadAll(java.util.Collection)}
+     * calls when {@link #MAP_LOAD_PARALLEL_ENABLED} is set. Twice as many calls may be pending, further batches wait
+     * until a call completes.
+     */
+    MAP_LOAD_PARALLEL_THREAD_COUNT("hazelcast.map.load.parallel.thread.count", 8),
+
+    /**
+     * The number of keys sent to a partition at once and of the loaded entries put into it at once when
+     * {@link #MAP_LOAD_PARALLEL_ENABLED} is set.
+     */
+    MAP_LOAD_PARALLEL_BATCH_SIZE("hazelcast.map.load.parallel.batch.size", 10000),
+
+    /**
+     * Loads the values missed by {@link com.hazelcast.core.IMap#get(Object)} from the
+     * {@link com.hazelcast.core.MapLoader} on the map loader executor instead of the partition thread, and lets
+     * concurrent gets of a key share one {@link com.hazelcast.core.MapLoader#load(Object)} call. Not supported by
+     * the NATIVE in-memory format.
+     */
+    MAP_LOAD_SINGLE_FLIGHT_ENABLED("hazelcast.map.load.single.flight.enabled", true),
+
     MERGE_FIRST_RUN_DELAY_SECONDS("hazelcast.merge.first.run.delay.seconds", 300, SECONDS),
     MERGE_NEXT_RUN_DELAY_SECONDS("hazelcast.merge.next.run.delay.seconds", 120, SECONDS),
 
@@ -287,6 +317,30 @@ public enum GroupProperty implements HazelcastProperty {
      */
     MAP_EXPIRY_DELAY_SECONDS("hazelcast.map.expiry.delay.seconds", 10, SECONDS),
 
+    /**
+     * When enabled, IMap.putAll sends a single operation per member carrying the entries of all partitions that member
+     * owns, instead of one operation per partition. The member runs the per partition puts on its partition threads
+     * and replies once their synchronous backups are acknowledged. When disabled, every partition is invoked
+     * separately.
+     */
+    MAP_PUT_ALL_PER_MEMBER_ENABLED("hazelcast.map.put.all.per.member.enabled", true),
+
+    /**
+     * When enabled, get and containsKey calls on maps with read-backup-data enabled are spread over the synchronous
+     * backup replicas of the key's partition, also when the calling member does not hold a replica itself. A backup
+     * replica is read only if the replica versions sent with its backups show it did not miss any, otherwise, or when
+     * the partition is migrating, the owner is read instead. Asynchronous backups are never read, since they may lag
+     * behind the owner without missing a backup. When disabled, containsKey always reads from the owner.
+     */
+    MAP_READ_BACKUP_DATA_REMOTE_ENABLED("hazelcast.map.read.backup.data.remote.enabled", false),
+
+    /**
+     * When enabled, {@link com.hazelcast.core.ReadOnly} entry processors applied to a single key run on the
+     * {@link com.hazelcast.spi.ExecutionService#MAP_READ_ONLY_ENTRY_PROCESSOR_EXECUTOR} against a snapshot of the entry,
+     * instead of on the partition thread.
+     */
+    MAP_READ_ONLY_ENTRY_PROCESSOR_OFFLOAD_ENABLED("hazelcast.map.read.only.entry.processor.offload.enabled", true),
+
     LOGGING_TYPE("hazelcast.logging.type", "jdk"),
 
     ENABLE_JMX("hazelcast.jmx", false),
@@ -303,6 +357,25 @@ public enum GroupProperty implements HazelcastProperty {
     PARTITION_MIGRATION_TIMEOUT("hazelcast.partition.migration.timeout", 300, SECONDS),
     PARTITION_MIGRATION_ZIP_ENABLED("hazelcast.partition.migration.zip.enabled", true),
 
+    /**
+     * Enables chunked migrations: the data of the services implementing
+     * {@link com.hazelcast.spi.ChunkedMigrationAwareService}, e.g. of the maps, is copied to the destination in chunks
+     * before the partition is marked as migrating, so the partition stays writable during the copy and only the data
+     * changed meanwhile is replicated by the migration itself.
+     */
+    PARTITION_MIGRATION_CHUNKED_ENABLED("hazelcast.partition.migration.chunked.enabled", false),
+
+    /**
+     * The size of a chunk of a chunked migration in bytes. A chunk contains at least one entry.
+     */
+    PARTITION_MIGRATION_CHUNK_SIZE("hazelcast.partition.migration.chunk.size", 1024 * 1024),
+
+    /**
+     * The number of chunks which are sent to a member without waiting for their responses, shared by all chunked
+     * migrations to that member.
+     */
+    PARTITION_MIGRATION_CHUNK_MAX_IN_FLIGHT("hazelcast.partition.migration.chunk.max.in.flight", 4),
+
     PARTITION_TABLE_SEND_INTERVAL("hazelcast.partition.table.send.interval", 15, SECONDS),
     PARTITION_BACKUP_SYNC_INTERVAL("hazelcast.partition.backup.sync.interval", 30, SECONDS),
     PARTITION_MAX_PARALLEL_REPLICATIONS("hazelcast.partition.max.parallel.replications", 5),
@@ -371,6 +444,53 @@ public enum GroupProperty implements HazelcastProperty {
      */
     MAP_WRITE_BEHIND_QUEUE_CAPACITY("hazelcast.map.write.behind.queue.capacity", 50000),
 
+    /**
+     * Enables journaling of the write-behind queues to local files, so the entries which are not stored yet
+     * survive a crash of the member and are written to the map stores when the member restarts.
+     */
+    MAP_WRITE_BEHIND_JOURNAL_ENABLED("hazelcast.map.write.behind.journal.enabled", false),
+
+    /**
+     * Directory of the write-behind journals. Members sharing a host must use different directories.
+     */
+    MAP_WRITE_BEHIND_JOURNAL_DIR("hazelcast.map.write.behind.journal.dir", "write-behind-journal"),
+
+    /**
+     * Interval of the {@code fsync} calls which make the journaled write-behind entries durable; the entries
+     * journaled within an interval are synced together. When set to 0, a sync is started off the partition thread
+     * as soon as an entry is journaled; the entries journaled until it runs are synced together.
+     */
+    MAP_WRITE_BEHIND_JOURNAL_FSYNC_INTERVAL_MILLIS("hazelcast.map.write.behind.journal.fsync.interval.millis", 100,
+            MILLISECONDS),
+
+    /**
+     * Number of parallel streams the due write-behind entries of a map are stored in. The entries are split by
+     * partition, so the entries of a key are stored in order by a single stream.
+     */
+    MAP_WRITE_BEHIND_STORE_CONCURRENCY("hazelcast.map.write.behind.store.concurrency", 1),
+
+    /**
+     * Target duration of a write-behind batch store call. When set, the write batch size of a map starts from
+     * {@link com.hazelcast.config.MapStoreConfig#setWriteBatchSize(int)} and is adapted to the latency of the
+     * map store: it grows while batches are stored within the target and is halved when a batch takes longer.
+     * When set to 0, the configured write batch size is used as is.
+     */
+    MAP_WRITE_BEHIND_ADAPTIVE_BATCH_TARGET_LATENCY_MILLIS("hazelcast.map.write.behind.adaptive.batch.target.latency.millis",
+            0, MILLISECONDS),
+
+    /**
+     * Upper bound of the adaptive write-behind batch size.
+     */
+    MAP_WRITE_BEHIND_ADAPTIVE_BATCH_MAX_SIZE("hazelcast.map.write.behind.adaptive.batch.max.size", 10000),
+
+    /**
+     * Estimated heap size of the write-behind queues of a map on the partitions owned by a member, in megabytes,
+     * above which the writes to the map are rejected with a {@link com.hazelcast.map.WriteBehindBackpressureException}
+     * until the queues are drained below it; the rejected writes are retried by their invocations. When set to 0,
+     * writes are never rejected.
+     */
+    MAP_WRITE_BEHIND_BACKPRESSURE_MAX_QUEUED_MB("hazelcast.map.write.behind.backpressure.max.queued.mb", 0),
+
     /**
      * Defines the event queue capacity for WAN replication.
      * <p/>
@@ -450,6 +570,37 @@ public enum GroupProperty implements HazelcastProperty {
      */
     MAP_INVALIDATION_MESSAGE_BATCH_FREQUENCY_SECONDS("hazelcast.map.invalidation.batchfrequency.seconds", 10, SECONDS),
 
+    /**
+     * Defines whether the records of BINARY and OBJECT in-memory format maps are kept in an open-addressing table
+     * specialised for single-writer partition threads instead of a {@link java.util.concurrent.ConcurrentHashMap}.
+     * <p/>
+     * The open-addressing table has a lower per-entry overhead; its iterators are weakly consistent.
+     */
+    MAP_OPEN_ADDRESSING_STORAGE_ENABLED("hazelcast.map.open.addressing.storage.enabled", false),
+
+    /**
+     * Directory under which maps with tiered storage enabled create the memory-mapped files holding the values of
+     * their cold entries, in a sub-directory per member and partition which is deleted with the partition data.
+     */
+    MAP_TIERED_STORE_DIR("hazelcast.map.tiered.store.dir", System.getProperty("java.io.tmpdir")),
+
+    /**
+     * Size in bytes of the memory-mapped files holding the values of cold entries. A file is deleted once none of
+     * its values is referenced anymore.
+     */
+    MAP_TIERED_STORE_SEGMENT_SIZE("hazelcast.map.tiered.store.segment.size", 16 * 1024 * 1024),
+
+    /**
+     * Size in bytes after which the active hot restart log segment of a partition is sealed and a new one is started.
+     */
+    HOT_RESTART_SEGMENT_SIZE("hazelcast.hot.restart.segment.size", 8 * 1024 * 1024),
+
+    /**
+     * Number of sealed hot restart log segments of a partition after which they are compacted, together with the
+     * previous snapshot, into a new snapshot holding only the live entries.
+     */
+    HOT_RESTART_COMPACTION_SEGMENT_COUNT("hazelcast.hot.restart.compaction.segment.count", 4),
+
     /**
      * Using back pressure, you can prevent an overload of pending asynchronous backups. With a map with a
      * single asynchronous backup, producing asynchronous backups could happen at a higher rate than
@@ -558,6 +709,7 @@ public enum GroupProperty implements HazelcastProperty {
      * Valid Values:
      * <ul>
      * <li>RULES - for optimizations based on static rules</li>
+     * <li>COST - for optimizations based on static rules and on the statistics of the indexes</li>
      * <li>NONE - optimization are disabled</li>
      * </ul>
      * <p/>
@@ -18,7 +18,9 @@ package com.hazelcast.instance;
 
 import com.hazelcast.client.impl.protocol.MessageTaskFactory;
 import com.hazelcast.cluster.ClusterState;
+import com.hazelcast.internal.hotrestart.HotRestartService;
 import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.memory.MemoryManager;
 import com.hazelcast.memory.MemoryStats;
 import com.hazelcast.nio.IOService;
 import com.hazelcast.nio.MemberSocketInterceptor;
@@ -155,6 +157,23 @@ public interface NodeExtension {
      */
     MemoryStats getMemoryStats();
 
+    /**
+     * Returns the manager of the native memory used by {@link com.hazelcast.config.InMemoryFormat#NATIVE}
+     * data structures.
+     *
+     * @return native memory manager or <tt>null</tt> if native memory is not enabled
+     * @see com.hazelcast.config.NativeMemoryConfig
+     */
+    MemoryManager getNativeMemoryManager();
+
+    /**
+     * Returns the service persisting the data structures with hot restart enabled to the local disk.
+     *
+     * @return hot restart service or <tt>null</tt> if hot restart persistence is not enabled
+     * @see com.hazelcast.config.HotRestartPersistenceConfig
+     */
+    HotRestartService getHotRestartService();
+
     /**
      * Called before <tt>Node.shutdown()</tt>
      */
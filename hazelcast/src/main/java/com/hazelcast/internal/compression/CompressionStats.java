@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.internal.compression;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Time counters for the values compressed by a single data structure. Updated concurrently by the partition threads
+ * compressing values and by any thread decompressing them. The compression ratio depends on the values currently
+ * stored, it is computed from the records, see {@link com.hazelcast.map.impl.LocalMapStatsProvider}.
+ */
+public class CompressionStats {
+
+    private final AtomicLong compressionNanos = new AtomicLong();
+    private final AtomicLong decompressionNanos = new AtomicLong();
+
+    public void onCompress(long nanos) {
+        compressionNanos.addAndGet(nanos);
+    }
+
+    public void onDecompress(long nanos) {
+        decompressionNanos.addAndGet(nanos);
+    }
+
+    public long getCompressionNanos() {
+        return compressionNanos.get();
+    }
+
+    public long getDecompressionNanos() {
+        return decompressionNanos.get();
+    }
+}
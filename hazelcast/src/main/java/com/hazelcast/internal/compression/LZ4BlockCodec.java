@@ -0,0 +1,224 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.internal.compression;
+
+import static com.hazelcast.nio.Bits.readIntL;
+
+/**
+ * A compressor for byte blocks producing the LZ4 block format: a sequence of literal runs and back references
+ * into the last 64 KB, found through a hash table of 4-byte sequences. It trades compression ratio for speed and
+ * needs no dictionary, framing or checksums since blocks are only exchanged within the cluster.
+ * <p/>
+ * Every sequence starts with a token whose high nibble is the literal length and whose low nibble is the match
+ * length minus {@value #MIN_MATCH}; a nibble of 15 is followed by extra length bytes of which 255 means "more
+ * follows". The literals come next, then the little-endian 2 byte offset of the match. The last sequence has
+ * literals only, and as in LZ4 the last {@value #LAST_LITERALS} bytes of a block are always literals.
+ * <p/>
+ * Instances are stateless; the methods are thread-safe.
+ */
+public final class LZ4BlockCodec {
+
+    static final int MIN_MATCH = 4;
+    static final int LAST_LITERALS = 5;
+
+    private static final int MF_LIMIT = 12;
+    private static final int MIN_LENGTH = MF_LIMIT + 1;
+    private static final int MAX_DISTANCE = 0xFFFF;
+    private static final int HASH_LOG = 12;
+    private static final int HASH_MULTIPLIER = -1640531535;
+    // after this many misses in a row, the search step grows by one
+    private static final int SKIP_STRENGTH = 6;
+
+    private static final int RUN_MASK = 0x0F;
+    private static final int ML_BITS = 4;
+    private static final int BYTE_MASK = 0xFF;
+    private static final int MAX_LENGTH_BYTE = 255;
+    private static final int BITS_PER_BYTE = 8;
+
+    private LZ4BlockCodec() {
+    }
+
+    /**
+     * Returns the size of the buffer needed to compress {@code length} bytes in the worst case.
+     */
+    public static int maxCompressedLength(int length) {
+        return length + length / MAX_LENGTH_BYTE + MIN_LENGTH + 2;
+    }
+
+    /**
+     * Compresses {@code src[srcOff, srcOff + srcLen)} into {@code dest} starting from {@code destOff}.
+     * The destination needs at least {@link #maxCompressedLength(int)} bytes of room.
+     *
+     * @return the number of bytes written to {@code dest}
+     */
+    public static int compress(byte[] src, int srcOff, int srcLen, byte[] dest, int destOff) {
+        int srcEnd = srcOff + srcLen;
+        int dOff = destOff;
+        int anchor = srcOff;
+
+        if (srcLen >= MIN_LENGTH) {
+            int[] hashTable = new int[1 << HASH_LOG];
+            int mfLimit = srcEnd - MF_LIMIT;
+            int matchLimit = srcEnd - LAST_LITERALS;
+
+            hashTable[hash(readIntL(src, srcOff))] = srcOff;
+            int sOff = srcOff + 1;
+            int searchCount = 1 << SKIP_STRENGTH;
+            while (sOff < mfLimit) {
+                int sequence = readIntL(src, sOff);
+                int h = hash(sequence);
+                int ref = hashTable[h];
+                hashTable[h] = sOff;
+                if (ref < srcOff || ref >= sOff || sOff - ref > MAX_DISTANCE || readIntL(src, ref) != sequence) {
+                    sOff += searchCount++ >>> SKIP_STRENGTH;
+                    continue;
+                }
+                searchCount = 1 << SKIP_STRENGTH;
+
+                // extend the match backwards over the pending literals
+                while (sOff > anchor && ref > srcOff && src[sOff - 1] == src[ref - 1]) {
+                    sOff--;
+                    ref--;
+                }
+                int matchLen = MIN_MATCH;
+                while (sOff + matchLen < matchLimit && src[sOff + matchLen] == src[ref + matchLen]) {
+                    matchLen++;
+                }
+
+                dOff = writeSequence(src, anchor, sOff - anchor, sOff - ref, matchLen, dest, dOff);
+                sOff += matchLen;
+                anchor = sOff;
+            }
+        }
+
+        dOff = writeLiterals(src, anchor, srcEnd - anchor, dest, dOff, 0);
+        return dOff - destOff;
+    }
+
+    /**
+     * Decompresses the block {@code src[srcOff, srcOff + srcLen)} into {@code dest[destOff, destOff + destLen)}.
+     *
+     * @throws IllegalArgumentException if the block is malformed or does not decompress to exactly {@code destLen} bytes.
+     */
+    public static void decompress(byte[] src, int srcOff, int srcLen, byte[] dest, int destOff, int destLen) {
+        int sEnd = srcOff + srcLen;
+        int dEnd = destOff + destLen;
+        int sOff = srcOff;
+        int dOff = destOff;
+        while (true) {
+            checkBlock(sOff < sEnd);
+            int token = src[sOff++] & BYTE_MASK;
+
+            int literalLen = token >>> ML_BITS;
+            if (literalLen == RUN_MASK) {
+                int b;
+                do {
+                    checkBlock(sOff < sEnd);
+                    b = src[sOff++] & BYTE_MASK;
+                    // rejecting lengths beyond the destination also rejects lengths overflowing an int
+                    checkBlock(b <= dEnd - dOff - literalLen);
+                    literalLen += b;
+                } while (b == MAX_LENGTH_BYTE);
+            }
+            checkBlock(literalLen <= sEnd - sOff && literalLen <= dEnd - dOff);
+            System.arraycopy(src, sOff, dest, dOff, literalLen);
+            sOff += literalLen;
+            dOff += literalLen;
+            if (sOff == sEnd) {
+                break;
+            }
+
+            checkBlock(sEnd - sOff >= 2);
+            int offset = (src[sOff] & BYTE_MASK) | (src[sOff + 1] & BYTE_MASK) << BITS_PER_BYTE;
+            sOff += 2;
+            checkBlock(offset > 0 && offset <= dOff - destOff);
+
+            int matchLen = token & RUN_MASK;
+            if (matchLen == RUN_MASK) {
+                int b;
+                do {
+                    checkBlock(sOff < sEnd);
+                    b = src[sOff++] & BYTE_MASK;
+                    checkBlock(b <= dEnd - dOff - MIN_MATCH - matchLen);
+                    matchLen += b;
+                } while (b == MAX_LENGTH_BYTE);
+            }
+            matchLen += MIN_MATCH;
+            checkBlock(matchLen <= dEnd - dOff);
+            copyMatch(dest, dOff - offset, dOff, matchLen);
+            dOff += matchLen;
+        }
+        checkBlock(dOff == dEnd);
+    }
+
+    private static int writeSequence(byte[] src, int literalOff, int literalLen, int offset, int matchLen,
+                                     byte[] dest, int dOff) {
+        dOff = writeLiterals(src, literalOff, literalLen, dest, dOff, matchLen - MIN_MATCH);
+        dest[dOff++] = (byte) offset;
+        dest[dOff++] = (byte) (offset >>> BITS_PER_BYTE);
+        int extraMatchLen = matchLen - MIN_MATCH;
+        if (extraMatchLen >= RUN_MASK) {
+            dOff = writeLength(extraMatchLen - RUN_MASK, dest, dOff);
+        }
+        return dOff;
+    }
+
+    /**
+     * Writes the token, the literal length and the literals. The low nibble of the token is taken from
+     * {@code extraMatchLen}, the extra bytes of the match length are written by the caller.
+     */
+    private static int writeLiterals(byte[] src, int literalOff, int literalLen, byte[] dest, int dOff, int extraMatchLen) {
+        int token = (Math.min(literalLen, RUN_MASK) << ML_BITS) | Math.min(extraMatchLen, RUN_MASK);
+        dest[dOff++] = (byte) token;
+        if (literalLen >= RUN_MASK) {
+            dOff = writeLength(literalLen - RUN_MASK, dest, dOff);
+        }
+        System.arraycopy(src, literalOff, dest, dOff, literalLen);
+        return dOff + literalLen;
+    }
+
+    private static int writeLength(int length, byte[] dest, int dOff) {
+        while (length >= MAX_LENGTH_BYTE) {
+            dest[dOff++] = (byte) MAX_LENGTH_BYTE;
+            length -= MAX_LENGTH_BYTE;
+        }
+        dest[dOff++] = (byte) length;
+        return dOff;
+    }
+
+    // a match may overlap with the bytes it produces, so it is copied forward byte by byte in that case
+    private static void copyMatch(byte[] dest, int from, int to, int length) {
+        if (to - from >= length) {
+            System.arraycopy(dest, from, dest, to, length);
+        } else {
+            for (int i = 0; i < length; i++) {
+                dest[to + i] = dest[from + i];
+            }
+        }
+    }
+
+    private static int hash(int sequence) {
+        return (sequence * HASH_MULTIPLIER) >>> (Integer.SIZE - HASH_LOG);
+    }
+
+    private static void checkBlock(boolean condition) {
+        if (!condition) {
+            throw new IllegalArgumentException("Malformed compressed block");
+        }
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.eviction;
+
+/**
+ * {@link EvictionPolicyEvaluator} which keeps its own history of the accesses to an evictable store, so it has to be
+ * notified about every read and write of an entry of that store. Such an evaluator is stateful, so every store has
+ * its own instance.
+ *
+ * @param <A> Type of the accessor (id) of the {@link com.hazelcast.internal.eviction.EvictionCandidate}
+ * @param <E> Type of the {@link com.hazelcast.internal.eviction.Evictable} value of
+ *            {@link com.hazelcast.internal.eviction.EvictionCandidate}
+ */
+public interface AccessAwareEvictionPolicyEvaluator<A, E extends Evictable> extends EvictionPolicyEvaluator<A, E> {
+
+    /**
+     * Records an access to the entry with the given accessor, either a hit, a miss or a write.
+     *
+     * @param accessor the accessor (id) of the accessed entry
+     */
+    void onAccess(A accessor);
+
+    /**
+     * Makes sure the access history is large enough to describe a store with the given number of entries. This is
+     * called as the store grows, so it should be cheap if the access history is already large enough.
+     *
+     * @param size the number of entries of the store
+     */
+    void ensureCapacity(int size);
+
+}
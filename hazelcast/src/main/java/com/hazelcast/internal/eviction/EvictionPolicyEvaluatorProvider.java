@@ -18,6 +18,7 @@ package com.hazelcast.internal.eviction;
 
 import com.hazelcast.internal.eviction.impl.evaluator.LFUEvictionPolicyEvaluator;
 import com.hazelcast.internal.eviction.impl.evaluator.LRUEvictionPolicyEvaluator;
+import com.hazelcast.internal.eviction.impl.evaluator.TinyLFUEvictionPolicyEvaluator;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -44,6 +45,7 @@ public final class EvictionPolicyEvaluatorProvider {
 
     /**
      * Gets the {@link EvictionPolicyEvaluator} implementation specified with <code>evictionPolicy</code>.
+     * Stateful evaluators, which implement {@link AccessAwareEvictionPolicyEvaluator}, are created for every call.
      *
      * @param evictionConfig {@link EvictionConfiguration} for requested {@link EvictionPolicyEvaluator} implementation
      *
@@ -57,6 +59,9 @@ public final class EvictionPolicyEvaluatorProvider {
         if (evictionPolicyType == null) {
             return null;
         }
+        if (evictionPolicyType == EvictionPolicyType.TINY_LFU) {
+            return new TinyLFUEvictionPolicyEvaluator();
+        }
         final EvictionPolicyEvaluator evictionPolicyEvaluator =
                 EVICTION_POLICY_EVALUATOR_MAP.get(evictionPolicyType);
         if (evictionPolicyEvaluator != null) {
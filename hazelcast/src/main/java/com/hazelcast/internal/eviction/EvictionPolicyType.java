@@ -29,7 +29,12 @@ public enum EvictionPolicyType {
     /**
      * Least Frequently Used
      */
-    LFU
+    LFU,
+
+    /**
+     * Window TinyLFU: least frequently used as estimated by a frequency sketch, protecting the recently used entries
+     */
+    TINY_LFU
 
     // TODO Maybe another "CUSTOM" type for user defined eviction policies
 
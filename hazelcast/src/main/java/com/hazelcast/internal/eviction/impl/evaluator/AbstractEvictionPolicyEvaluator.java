@@ -23,6 +23,7 @@ import com.hazelcast.internal.eviction.Expirable;
 import com.hazelcast.util.Clock;
 
 import java.util.Collections;
+import java.util.Comparator;
 
 /**
  * Base class for evaluation implementations of {@link com.hazelcast.config.EvictionPolicy}.
@@ -30,6 +31,14 @@ import java.util.Collections;
 public abstract class AbstractEvictionPolicyEvaluator<A, E extends Evictable>
         implements EvictionPolicyEvaluator<A, E> {
 
+    /**
+     * Returns the order of the evictables by the {@link com.hazelcast.config.EvictionPolicy} rule, the evictable
+     * to evict first comes first.
+     *
+     * @return the order of the evictables
+     */
+    public abstract Comparator<Evictable> getEvictableComparator();
+
     /**
      * Compares two evictable candidates and selects one as {@link com.hazelcast.config.EvictionPolicy} rule.
      *
@@ -38,7 +47,9 @@ public abstract class AbstractEvictionPolicyEvaluator<A, E extends Evictable>
      *
      * @return the selected evictable candidate
      */
-    protected abstract Evictable selectEvictableAsPolicy(Evictable current, Evictable candidate);
+    protected Evictable selectEvictableAsPolicy(Evictable current, Evictable candidate) {
+        return getEvictableComparator().compare(candidate, current) < 0 ? candidate : current;
+    }
 
     /**
      * The evaluate method implements the {@link com.hazelcast.config.EvictionPolicy} rule
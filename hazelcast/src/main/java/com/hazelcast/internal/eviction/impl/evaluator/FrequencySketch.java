@@ -0,0 +1,195 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.eviction.impl.evaluator;
+
+import com.hazelcast.util.QuickMath;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Count-min sketch estimating how often a key was accessed, with 4-bit counters so the estimate saturates at 15.
+ * <p/>
+ * Every key maps to one counter in each of four rows; the estimate is the minimum of these counters, which can only
+ * be too high when other keys collide on all of them. The counters of a row are spread over the words of a single
+ * {@link AtomicLongArray}, every word holding 16 counters.
+ * <p/>
+ * To follow a changing workload the sketch ages: once the number of increments reaches ten times the capacity all
+ * counters are halved, so the history of the keys which are not accessed any more fades out.
+ * <p/>
+ * The sketch is updated by concurrent readers, e.g. of a near cache: counters are incremented and halved by
+ * compare-and-set, so no increment is lost and aging happens once per sample. Only the increments done while the
+ * sketch grows may be lost, which just makes the estimates of the affected keys less accurate.
+ * <p/>
+ * The hashes passed in are expected to be spread already, see {@link #spread(int)}.
+ */
+public final class FrequencySketch {
+
+    private static final long[] SEEDS = {
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L,
+    };
+    private static final int ROW_COUNT = 4;
+    private static final int COUNTER_BITS = 4;
+    private static final long COUNTER_MASK = 0xfL;
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final long ONE_MASK = 0x1111111111111111L;
+    private static final int SPREAD_MULTIPLIER = 0x45d9f3b;
+    private static final int HALF_INT_BITS = 16;
+    private static final int HALF_LONG_BITS = 32;
+    private static final int SAMPLE_SIZE_FACTOR = 10;
+    private static final int MIN_CAPACITY = 16;
+    private static final int MAX_CAPACITY_SHIFT = 30;
+    private static final int MAX_CAPACITY = 1 << MAX_CAPACITY_SHIFT;
+
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicBoolean resetting = new AtomicBoolean();
+    private volatile AtomicLongArray table;
+    private volatile int sampleSize;
+
+    public FrequencySketch(int capacity) {
+        int length = tableLength(capacity);
+        this.table = new AtomicLongArray(length);
+        this.sampleSize = sampleSize(length);
+    }
+
+    /**
+     * Returns the number of keys this sketch is sized for.
+     */
+    public int capacity() {
+        return table.length();
+    }
+
+    /**
+     * Grows this sketch if it is smaller than the given number of keys.
+     * <p/>
+     * The counters are kept: the old table is copied into every block of the new one, so each key finds its old
+     * counters, including the collisions of the smaller table which fade out by aging.
+     *
+     * @param capacity the number of keys to size this sketch for
+     */
+    public synchronized void ensureCapacity(int capacity) {
+        AtomicLongArray table = this.table;
+        int oldLength = table.length();
+        if (capacity <= oldLength || oldLength >= MAX_CAPACITY) {
+            return;
+        }
+        int length = tableLength(capacity);
+        AtomicLongArray newTable = new AtomicLongArray(length);
+        for (int i = 0; i < length; i++) {
+            newTable.set(i, table.get(i & (oldLength - 1)));
+        }
+        sampleSize = sampleSize(length);
+        this.table = newTable;
+    }
+
+    /**
+     * Returns the estimated number of accesses to the key with the given hash, at most 15.
+     *
+     * @param hash the spread hash code of the key
+     */
+    public int frequency(int hash) {
+        AtomicLongArray table = this.table;
+        int start = (hash & (ROW_COUNT - 1)) * ROW_COUNT;
+        int frequency = Integer.MAX_VALUE;
+        for (int row = 0; row < ROW_COUNT; row++) {
+            int offset = (start + row) * COUNTER_BITS;
+            int count = (int) ((table.get(indexOf(table, hash, row)) >>> offset) & COUNTER_MASK);
+            frequency = Math.min(frequency, count);
+        }
+        return frequency;
+    }
+
+    /**
+     * Counts an access to the key with the given hash.
+     *
+     * @param hash the spread hash code of the key
+     */
+    public void increment(int hash) {
+        AtomicLongArray table = this.table;
+        int start = (hash & (ROW_COUNT - 1)) * ROW_COUNT;
+        boolean added = false;
+        for (int row = 0; row < ROW_COUNT; row++) {
+            added |= incrementAt(table, indexOf(table, hash, row), (start + row) * COUNTER_BITS);
+        }
+        if (added && size.incrementAndGet() >= sampleSize && resetting.compareAndSet(false, true)) {
+            try {
+                // another thread may have reset the sketch in the meantime
+                if (size.get() >= sampleSize) {
+                    reset(table);
+                }
+            } finally {
+                resetting.set(false);
+            }
+        }
+    }
+
+    private static int tableLength(int capacity) {
+        return QuickMath.nextPowerOfTwo(Math.min(Math.max(capacity, MIN_CAPACITY), MAX_CAPACITY));
+    }
+
+    private static int sampleSize(int length) {
+        return length < Integer.MAX_VALUE / SAMPLE_SIZE_FACTOR ? length * SAMPLE_SIZE_FACTOR : Integer.MAX_VALUE;
+    }
+
+    private static boolean incrementAt(AtomicLongArray table, int index, int offset) {
+        long mask = COUNTER_MASK << offset;
+        for (;;) {
+            long word = table.get(index);
+            if ((word & mask) == mask) {
+                return false;
+            }
+            if (table.compareAndSet(index, word, word + (1L << offset))) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Halves all counters. The counters which were odd lose half an increment each, which is taken off the size.
+     */
+    private void reset(AtomicLongArray table) {
+        int sizeBefore = size.get();
+        int oddCount = 0;
+        for (int i = 0; i < table.length(); i++) {
+            long word;
+            do {
+                word = table.get(i);
+            } while (!table.compareAndSet(i, word, (word >>> 1) & RESET_MASK));
+            oddCount += Long.bitCount(word & ONE_MASK);
+        }
+        // the increments counted while halving are kept
+        int sizeAfter = Math.max((sizeBefore >>> 1) - (oddCount >>> 2), 0);
+        size.addAndGet(sizeAfter - sizeBefore);
+    }
+
+    private static int indexOf(AtomicLongArray table, int hash, int row) {
+        long h = (hash + SEEDS[row]) * SEEDS[row];
+        h += h >>> HALF_LONG_BITS;
+        return (int) h & (table.length() - 1);
+    }
+
+    /**
+     * Applies a supplemental hash function, since the hash codes of the keys, e.g. of {@link Integer} keys, may not
+     * be spread over all bits.
+     */
+    static int spread(int hashCode) {
+        int h = ((hashCode >>> HALF_INT_BITS) ^ hashCode) * SPREAD_MULTIPLIER;
+        h = ((h >>> HALF_INT_BITS) ^ h) * SPREAD_MULTIPLIER;
+        return (h >>> HALF_INT_BITS) ^ h;
+    }
+}
@@ -18,28 +18,31 @@ package com.hazelcast.internal.eviction.impl.evaluator;
 
 import com.hazelcast.internal.eviction.Evictable;
 
+import java.util.Comparator;
+
+import static com.hazelcast.util.QuickMath.compareIntegers;
+
 /**
  * Interface for evaluation implementations of {@link com.hazelcast.config.EvictionPolicy#LFU} policy.
  */
 public class LFUEvictionPolicyEvaluator<A, E extends Evictable>
         extends AbstractEvictionPolicyEvaluator<A, E> {
 
-    @Override
-    protected Evictable selectEvictableAsPolicy(Evictable current, Evictable candidate) {
-        int candidateAccessHit = candidate.getAccessHit();
-        int currentAccessHit = current.getAccessHit();
-        if (candidateAccessHit < currentAccessHit) {
-            return candidate;
-        } else if (currentAccessHit < candidateAccessHit) {
-            return current;
-        } else {
-            // If access times are same, we select the oldest entry to evict
-            if (candidate.getCreationTime() < current.getCreationTime()) {
-                return candidate;
-            } else {
-                return current;
-            }
+    /**
+     * Orders by access hits, then like {@link LRUEvictionPolicyEvaluator#LRU_ORDER}.
+     */
+    static final Comparator<Evictable> LFU_ORDER = new Comparator<Evictable>() {
+        @Override
+        public int compare(Evictable o1, Evictable o2) {
+            int result = compareIntegers(o1.getAccessHit(), o2.getAccessHit());
+            // If access hits are same, we select the least recently used entry to evict
+            return result != 0 ? result : LRUEvictionPolicyEvaluator.LRU_ORDER.compare(o1, o2);
         }
+    };
+
+    @Override
+    public Comparator<Evictable> getEvictableComparator() {
+        return LFU_ORDER;
     }
 
 }
@@ -18,28 +18,31 @@ package com.hazelcast.internal.eviction.impl.evaluator;
 
 import com.hazelcast.internal.eviction.Evictable;
 
+import java.util.Comparator;
+
+import static com.hazelcast.util.QuickMath.compareLongs;
+
 /**
  * Interface for evaluation implementations of {@link com.hazelcast.config.EvictionPolicy#LRU} policy.
  */
 public class LRUEvictionPolicyEvaluator<A, E extends Evictable>
         extends AbstractEvictionPolicyEvaluator<A, E> {
 
-    @Override
-    protected Evictable selectEvictableAsPolicy(Evictable current, Evictable candidate) {
-        long currentAccessTime = current.getAccessTime();
-        long candidateAccessTime = candidate.getAccessTime();
-        if (candidateAccessTime < currentAccessTime) {
-            return candidate;
-        } else if (currentAccessTime < candidateAccessTime) {
-            return current;
-        } else {
+    /**
+     * Orders by access time, then by creation time.
+     */
+    static final Comparator<Evictable> LRU_ORDER = new Comparator<Evictable>() {
+        @Override
+        public int compare(Evictable o1, Evictable o2) {
+            int result = compareLongs(o1.getAccessTime(), o2.getAccessTime());
             // If access times are same, we select the oldest entry to evict
-            if (candidate.getCreationTime() < current.getCreationTime()) {
-                return candidate;
-            } else {
-                return current;
-            }
+            return result != 0 ? result : compareLongs(o1.getCreationTime(), o2.getCreationTime());
         }
+    };
+
+    @Override
+    public Comparator<Evictable> getEvictableComparator() {
+        return LRU_ORDER;
     }
 
 }
@@ -0,0 +1,212 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.eviction.impl.evaluator;
+
+import com.hazelcast.internal.eviction.AccessAwareEvictionPolicyEvaluator;
+import com.hazelcast.internal.eviction.Evictable;
+import com.hazelcast.internal.eviction.EvictionCandidate;
+import com.hazelcast.internal.eviction.Expirable;
+import com.hazelcast.util.Clock;
+import com.hazelcast.util.QuickMath;
+
+import java.util.Collections;
+
+/**
+ * Evaluation implementation of {@link com.hazelcast.config.EvictionPolicy#TINY_LFU} policy, which is W-TinyLFU
+ * adapted to sampling based eviction.
+ * <p/>
+ * The access frequencies of the keys are estimated by a {@link FrequencySketch}, which also remembers the keys
+ * which were evicted and forgets old accesses by aging. Recently accessed keys form the window, which is the last
+ * 1% (of the capacity) accesses: these are not evicted as long as there are other candidates, so new entries get a
+ * chance to build up a frequency. Among the other candidates the least frequently accessed one is evicted, so an entry
+ * accessed once during a scan is evicted before an entry which is used repeatedly. This takes the role of the
+ * admission filter of W-TinyLFU. Ties are broken by selecting the least recently used candidate.
+ * <p/>
+ * An instance keeps the access history of a single store, see {@link #onAccess(Object)}. The hash code of an
+ * accessor is spread once and used for both the sketch and the window. The {@link FrequencySketch} does not lose
+ * concurrent accesses; the window does, since its slots and access number are written without synchronization,
+ * which only means a concurrently accessed key may drop out of the window a little early.
+ *
+ * @param <A> Type of the accessor (id) of the {@link EvictionCandidate}
+ * @param <E> Type of the {@link Evictable} value of {@link EvictionCandidate}
+ */
+public class TinyLFUEvictionPolicyEvaluator<A, E extends Evictable>
+        implements AccessAwareEvictionPolicyEvaluator<A, E> {
+
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final int WINDOW_PERCENTAGE = 1;
+    private static final int ONE_HUNDRED_PERCENT = 100;
+    private static final int WINDOW_SLOTS_PER_ENTRY = 8;
+    private static final int TAG_BITS = 16;
+    private static final long TAG_MASK = (1L << TAG_BITS) - 1;
+    private static final int MAX_CAPACITY_SHIFT = 30;
+    private static final int MAX_CAPACITY = 1 << MAX_CAPACITY_SHIFT;
+
+    private final FrequencySketch sketch;
+
+    /**
+     * Access number of the last access of the keys, together with a tag of their hash, indexed by their hash.
+     */
+    private volatile long[] window;
+    private volatile int windowSize;
+    private int capacity;
+    private long accessCount;
+
+    public TinyLFUEvictionPolicyEvaluator() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public TinyLFUEvictionPolicyEvaluator(int capacity) {
+        this.capacity = capacity;
+        this.sketch = new FrequencySketch(capacity);
+        resizeWindow(capacity);
+    }
+
+    @Override
+    public void onAccess(A accessor) {
+        int hash = FrequencySketch.spread(accessor.hashCode());
+        sketch.increment(hash);
+        long[] window = this.window;
+        window[hash & (window.length - 1)] = (++accessCount << TAG_BITS) | tagOf(hash);
+    }
+
+    @Override
+    public void ensureCapacity(int size) {
+        if (size > capacity) {
+            // grow by powers of two, like the sketch, so a growing store does not resize the window on every call
+            int newCapacity = QuickMath.nextPowerOfTwo(Math.min(size, MAX_CAPACITY));
+            if (newCapacity > capacity) {
+                capacity = newCapacity;
+                sketch.ensureCapacity(newCapacity);
+                resizeWindow(newCapacity);
+            }
+        }
+    }
+
+    /**
+     * Returns the estimated number of accesses to the entry with the given accessor, at most 15.
+     */
+    public int frequency(A accessor) {
+        return sketch.frequency(FrequencySketch.spread(accessor.hashCode()));
+    }
+
+    /**
+     * Returns {@code true} if the entry with the given accessor was accessed recently enough to be in the window,
+     * so it is only evicted if all candidates are in the window.
+     */
+    public boolean isInWindow(A accessor) {
+        return isInWindow(FrequencySketch.spread(accessor.hashCode()));
+    }
+
+    @Override
+    public <C extends EvictionCandidate<A, E>> Iterable<C> evaluate(Iterable<C> evictionCandidates) {
+        long now = Clock.currentTimeMillis();
+        C windowVictim = null;
+        C mainVictim = null;
+        int mainVictimFrequency = 0;
+        for (C candidate : evictionCandidates) {
+            E evictable = candidate.getEvictable();
+            if (evictable == null) {
+                continue;
+            }
+            if (isExpired(now, evictable)) {
+                return toIterable(candidate);
+            }
+            int hash = FrequencySketch.spread(candidate.getAccessor().hashCode());
+            if (isInWindow(hash)) {
+                windowVictim = lessRecentlyUsed(windowVictim, candidate);
+            } else {
+                int frequency = sketch.frequency(hash);
+                if (isMainVictim(evictable, frequency, mainVictim, mainVictimFrequency)) {
+                    mainVictim = candidate;
+                    mainVictimFrequency = frequency;
+                }
+            }
+        }
+        return toIterable(mainVictim != null ? mainVictim : windowVictim);
+    }
+
+    private static <C extends EvictionCandidate> C lessRecentlyUsed(C current, C candidate) {
+        if (current == null || isLessRecentlyUsed(candidate.getEvictable(), current.getEvictable())) {
+            return candidate;
+        }
+        return current;
+    }
+
+    private static boolean isMainVictim(Evictable evictable, int frequency,
+                                        EvictionCandidate mainVictim, int mainVictimFrequency) {
+        if (mainVictim == null || frequency < mainVictimFrequency) {
+            return true;
+        }
+        return frequency == mainVictimFrequency && isLessRecentlyUsed(evictable, mainVictim.getEvictable());
+    }
+
+    private boolean isInWindow(int hash) {
+        long[] window = this.window;
+        long slot = window[hash & (window.length - 1)];
+        return slot != 0 && (slot & TAG_MASK) == tagOf(hash) && accessCount - (slot >>> TAG_BITS) < windowSize;
+    }
+
+    /**
+     * Sizes the window for the given capacity. Like the sketch the window is grown by copying the old slots into
+     * every block of the new ones, so the recently accessed keys are kept.
+     */
+    private void resizeWindow(int capacity) {
+        int windowSize = Math.max((int) ((long) capacity * WINDOW_PERCENTAGE / ONE_HUNDRED_PERCENT), 1);
+        int slotCount = QuickMath.nextPowerOfTwo(Math.max(windowSize * WINDOW_SLOTS_PER_ENTRY, DEFAULT_CAPACITY));
+        long[] window = this.window;
+        if (window == null) {
+            this.window = new long[slotCount];
+        } else if (slotCount > window.length) {
+            long[] newWindow = new long[slotCount];
+            for (int i = 0; i < slotCount; i += window.length) {
+                System.arraycopy(window, 0, newWindow, i, window.length);
+            }
+            this.window = newWindow;
+        }
+        this.windowSize = windowSize;
+    }
+
+    private static long tagOf(int hash) {
+        return (hash >>> TAG_BITS) & TAG_MASK;
+    }
+
+    private static boolean isLessRecentlyUsed(Evictable evictable, Evictable current) {
+        long accessTime = evictable.getAccessTime();
+        long currentAccessTime = current.getAccessTime();
+        if (accessTime != currentAccessTime) {
+            return accessTime < currentAccessTime;
+        }
+        // If access times are same, we select the oldest entry to evict
+        return evictable.getCreationTime() < current.getCreationTime();
+    }
+
+    private static boolean isExpired(long now, Evictable evictable) {
+        // If there is an expired candidate, let's evict that one immediately
+        return evictable instanceof Expirable && ((Expirable) evictable).isExpiredAt(now);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <C> Iterable<C> toIterable(C evictionCandidate) {
+        if (evictionCandidate == null) {
+            return null;
+        }
+        return evictionCandidate instanceof Iterable
+                ? (Iterable<C>) evictionCandidate
+                : Collections.singleton(evictionCandidate);
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.internal.hotrestart;
+
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.spi.AbstractOperation;
+import com.hazelcast.spi.PartitionAwareOperation;
+
+import java.io.IOException;
+
+/**
+ * Base class of the operations restoring a batch of persisted entries of a data structure into a partition.
+ */
+abstract class AbstractHotRestartLoadOperation extends AbstractOperation implements PartitionAwareOperation {
+
+    protected String name;
+    protected Data[] keys;
+    protected Data[] values;
+    protected long[] expirationTimes;
+
+    protected AbstractHotRestartLoadOperation() {
+    }
+
+    protected AbstractHotRestartLoadOperation(String serviceName, String name, Data[] keys, Data[] values,
+                                              long[] expirationTimes) {
+        setServiceName(serviceName);
+        this.name = name;
+        this.keys = keys;
+        this.values = values;
+        this.expirationTimes = expirationTimes;
+    }
+
+    @Override
+    public void run() throws Exception {
+        HotRestartSupportingService service = getService();
+        boolean backup = isBackup();
+        int partitionId = getPartitionId();
+        for (int i = 0; i < keys.length; i++) {
+            service.restoreEntry(name, partitionId, keys[i], values[i], expirationTimes[i], backup);
+        }
+    }
+
+    protected abstract boolean isBackup();
+
+    @Override
+    protected void writeInternal(ObjectDataOutput out) throws IOException {
+        out.writeUTF(name);
+        out.writeInt(keys.length);
+        for (int i = 0; i < keys.length; i++) {
+            out.writeData(keys[i]);
+            out.writeData(values[i]);
+            out.writeLong(expirationTimes[i]);
+        }
+    }
+
+    @Override
+    protected void readInternal(ObjectDataInput in) throws IOException {
+        name = in.readUTF();
+        int size = in.readInt();
+        keys = new Data[size];
+        values = new Data[size];
+        expirationTimes = new long[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = in.readData();
+            values[i] = in.readData();
+            expirationTimes[i] = in.readLong();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.internal.hotrestart;
+
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.spi.BackupOperation;
+
+/**
+ * Restores a batch of persisted entries into a backup replica of a partition.
+ */
+public class HotRestartLoadBackupOperation extends AbstractHotRestartLoadOperation implements BackupOperation {
+
+    public HotRestartLoadBackupOperation() {
+    }
+
+    public HotRestartLoadBackupOperation(String serviceName, String name, Data[] keys, Data[] values,
+                                         long[] expirationTimes) {
+        super(serviceName, name, keys, values, expirationTimes);
+    }
+
+    @Override
+    protected boolean isBackup() {
+        return true;
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.internal.hotrestart;
+
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.spi.BackupAwareOperation;
+import com.hazelcast.spi.Operation;
+import com.hazelcast.spi.impl.MutatingOperation;
+
+/**
+ * Restores a batch of persisted entries into the owner of a partition and its backups.
+ */
+public class HotRestartLoadOperation extends AbstractHotRestartLoadOperation
+        implements BackupAwareOperation, MutatingOperation {
+
+    public HotRestartLoadOperation() {
+    }
+
+    public HotRestartLoadOperation(String serviceName, String name, Data[] keys, Data[] values, long[] expirationTimes) {
+        super(serviceName, name, keys, values, expirationTimes);
+    }
+
+    @Override
+    protected boolean isBackup() {
+        return false;
+    }
+
+    @Override
+    public boolean shouldBackup() {
+        return true;
+    }
+
+    @Override
+    public int getSyncBackupCount() {
+        HotRestartSupportingService service = getService();
+        return service.getBackupCount(name);
+    }
+
+    @Override
+    public int getAsyncBackupCount() {
+        HotRestartSupportingService service = getService();
+        return service.getAsyncBackupCount(name);
+    }
+
+    @Override
+    public Operation getBackupOperation() {
+        return new HotRestartLoadBackupOperation(getServiceName(), name, keys, values, expirationTimes);
+    }
+}
@@ -0,0 +1,443 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.internal.hotrestart;
+
+import com.hazelcast.config.HotRestartPersistenceConfig;
+import com.hazelcast.core.HazelcastException;
+import com.hazelcast.instance.GroupProperties;
+import com.hazelcast.instance.GroupProperty;
+import com.hazelcast.instance.Node;
+import com.hazelcast.internal.serialization.impl.HeapData;
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.spi.ExecutionService;
+import com.hazelcast.spi.OperationService;
+import com.hazelcast.spi.impl.NodeEngineImpl;
+import com.hazelcast.util.Clock;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static com.hazelcast.nio.IOUtil.closeResource;
+import static com.hazelcast.nio.IOUtil.delete;
+
+/**
+ * Persists the mutations of the data structures with hot restart enabled to the local disk and restores them
+ * when the member restarts.
+ * <p/>
+ * Each partition has its own {@link PartitionLog} under {@code <base-dir>/data/<partition-id>}, written by the
+ * partition thread which mutates the data; sealed segments are compacted into snapshots on the
+ * {@value #EXECUTOR_NAME} executor. Whether a write is followed by an {@code fsync} is configured per data
+ * structure with {@link com.hazelcast.config.HotRestartConfig#setFsync(boolean)}.
+ * <p/>
+ * When the member starts, the data left by its previous run is moved to {@code <base-dir>/restore/<generation>}.
+ * Once the member has joined, the partitions are replayed in parallel and their live entries are sent in batches
+ * to the current owners of the partitions, which restore them on their partition threads unless the keys are
+ * already mapped, and copy them to the backups. Since partition ownership may have changed across the restart,
+ * a member does not need to own the partitions it restores. The restored entries are logged again by their new
+ * replicas, then the restore directory is deleted.
+ * <p/>
+ * If the member stops before a restore completes, the data it logged in the meantime is moved to the next
+ * generation when it starts again and the generations of a partition are replayed oldest first, so the entries
+ * written and removed during the interrupted restore win over the ones it was restoring.
+ */
+public class HotRestartService {
+
+    /**
+     * Name of the executor used for compaction and restore.
+     */
+    public static final String EXECUTOR_NAME = "hz:hot-restart";
+
+    static final String DATA_DIR = "data";
+    static final String RESTORE_DIR = "restore";
+
+    private static final String METADATA_DIR = "metadata";
+    private static final String LOCK_FILE = "lock";
+    private static final String ENCODING = "UTF-8";
+    private static final int RESTORE_BATCH_SIZE = 1000;
+
+    private final Node node;
+    private final ILogger logger;
+    private final HotRestartPersistenceConfig config;
+    private final File dataDir;
+    private final File restoreDir;
+    private final int segmentSize;
+    private final int compactionSegmentCount;
+    private final AtomicReferenceArray<PartitionLog> logs;
+    private final ConcurrentMap<String, Boolean> persistedMetadata = new ConcurrentHashMap<String, Boolean>();
+
+    private RandomAccessFile lockFile;
+    private FileLock lock;
+    private volatile boolean running;
+    private volatile boolean forceStart;
+
+    public HotRestartService(Node node) {
+        this.node = node;
+        this.logger = node.getLogger(HotRestartService.class);
+        this.config = node.getConfig().getHotRestartPersistenceConfig();
+        File baseDir = config.getBaseDir().getAbsoluteFile();
+        this.dataDir = new File(baseDir, DATA_DIR);
+        this.restoreDir = new File(baseDir, RESTORE_DIR);
+        GroupProperties groupProperties = node.getGroupProperties();
+        this.segmentSize = groupProperties.getInteger(GroupProperty.HOT_RESTART_SEGMENT_SIZE);
+        this.compactionSegmentCount = groupProperties.getInteger(GroupProperty.HOT_RESTART_COMPACTION_SEGMENT_COUNT);
+        this.logs = new AtomicReferenceArray<PartitionLog>(groupProperties.getInteger(GroupProperty.PARTITION_COUNT));
+    }
+
+    /**
+     * Locks the base directory and moves the data of the previous run aside to be restored. Called before
+     * any data structure is created.
+     */
+    public void start() {
+        File baseDir = dataDir.getParentFile();
+        if (!baseDir.exists() && !baseDir.mkdirs()) {
+            throw new HazelcastException("Could not create hot restart base directory " + baseDir);
+        }
+        lock(baseDir);
+        if (dataDir.exists()) {
+            // generations left by restores which did not complete are kept and replayed before this one
+            List<File> generations = listNumberedDirs(restoreDir);
+            long generation = generations.isEmpty() ? 0 : seqOf(generations.get(generations.size() - 1)) + 1;
+            File generationDir = new File(restoreDir, String.valueOf(generation));
+            if (!restoreDir.exists() && !restoreDir.mkdirs()) {
+                throw new HazelcastException("Could not create hot restart restore directory " + restoreDir);
+            }
+            if (!dataDir.renameTo(generationDir)) {
+                throw new HazelcastException("Could not move " + dataDir + " to " + generationDir);
+            }
+        }
+        running = true;
+        logger.info("Hot restart is enabled, base directory: " + baseDir);
+    }
+
+    /**
+     * Restores the data of the previous run, if any. Called once the member has joined the cluster.
+     *
+     * @throws HazelcastException if the data could not be restored within the configured data load timeout
+     */
+    public void restore() {
+        if (!restoreDir.exists()) {
+            return;
+        }
+        long start = Clock.currentTimeMillis();
+        long deadline = start + TimeUnit.SECONDS.toMillis(config.getDataLoadTimeoutSeconds());
+        NodeEngineImpl nodeEngine = node.getNodeEngine();
+        ExecutionService executionService = nodeEngine.getExecutionService();
+        try {
+            List<File> generations = listNumberedDirs(restoreDir);
+            Map<Integer, List<File>> partitionDirs = new TreeMap<Integer, List<File>>();
+            for (File generation : generations) {
+                restoreMetadata(nodeEngine, generation);
+                for (File dir : listNumberedDirs(generation)) {
+                    int partitionId = (int) seqOf(dir);
+                    List<File> dirs = partitionDirs.get(partitionId);
+                    if (dirs == null) {
+                        dirs = new ArrayList<File>(generations.size());
+                        partitionDirs.put(partitionId, dirs);
+                    }
+                    dirs.add(dir);
+                }
+            }
+
+            List<Future<Integer>> futures = new ArrayList<Future<Integer>>();
+            for (Map.Entry<Integer, List<File>> entry : partitionDirs.entrySet()) {
+                futures.add(executionService.submit(EXECUTOR_NAME, new RestoreTask(entry.getKey(), entry.getValue())));
+            }
+            int restoredCount = 0;
+            for (Future<Integer> future : futures) {
+                restoredCount += future.get(Math.max(0, deadline - Clock.currentTimeMillis()), TimeUnit.MILLISECONDS);
+            }
+            if (forceStart) {
+                logger.warning("Hot restart data is discarded since force start is requested");
+            } else {
+                logger.info("Restored " + restoredCount + " entries of " + futures.size() + " partitions in "
+                        + (Clock.currentTimeMillis() - start) + " ms");
+            }
+            delete(restoreDir);
+        } catch (Exception e) {
+            throw new HazelcastException("Could not restore hot restart data from " + restoreDir, e);
+        }
+    }
+
+    /**
+     * Logs that the key of a data structure is mapped to the given value.
+     *
+     * @param expirationTime the time the entry expires at in milliseconds, {@code Long.MAX_VALUE} if it never expires
+     */
+    public void put(String serviceName, String name, int partitionId, Data key, Data value, long expirationTime,
+                    boolean fsync) {
+        append(partitionId, new LogEntry(LogEntry.PUT, serviceName, name, key.toByteArray(), value.toByteArray(),
+                expirationTime), fsync);
+    }
+
+    /**
+     * Logs that the key of a data structure is removed.
+     */
+    public void remove(String serviceName, String name, int partitionId, Data key, boolean fsync) {
+        append(partitionId, new LogEntry(LogEntry.REMOVE, serviceName, name, key.toByteArray(), null, 0), fsync);
+    }
+
+    /**
+     * Logs that all entries of a data structure in the partition are removed.
+     */
+    public void clear(String serviceName, String name, int partitionId, boolean fsync) {
+        append(partitionId, new LogEntry(LogEntry.CLEAR, serviceName, name, null, null, 0), fsync);
+    }
+
+    /**
+     * Persists the metadata needed to recreate a data structure before its entries are restored, e.g. its
+     * configuration when it is not part of the static configuration. Only the first call per data structure
+     * has an effect.
+     *
+     * @see HotRestartSupportingService#prepareRestore(String, Data)
+     */
+    public void persistMetadata(String serviceName, String name, Data metadata) {
+        if (!running || persistedMetadata.putIfAbsent(serviceName + '/' + name, Boolean.TRUE) != null) {
+            return;
+        }
+        try {
+            File dir = new File(new File(dataDir, METADATA_DIR), URLEncoder.encode(serviceName, ENCODING));
+            if (!dir.exists() && !dir.mkdirs()) {
+                throw new IOException("Could not create " + dir);
+            }
+            MetadataFile.write(new File(dir, URLEncoder.encode(name, ENCODING)), serviceName, name, metadata);
+        } catch (IOException e) {
+            throw new HazelcastException("Could not persist hot restart metadata of " + name, e);
+        }
+    }
+
+    /**
+     * Stops a running restore and discards the data which is not restored yet.
+     *
+     * @return {@code true}
+     */
+    public boolean triggerForceStart() {
+        forceStart = true;
+        return true;
+    }
+
+    /**
+     * Closes the logs; mutations done afterwards, e.g. while the data structures are shut down, are not logged.
+     */
+    public void shutdown() {
+        running = false;
+        for (int i = 0; i < logs.length(); i++) {
+            PartitionLog log = logs.get(i);
+            if (log != null) {
+                log.close();
+            }
+        }
+        try {
+            if (lock != null) {
+                lock.release();
+            }
+        } catch (IOException e) {
+            logger.finest("Could not release hot restart lock", e);
+        }
+        closeResource(lockFile);
+    }
+
+    private void append(int partitionId, LogEntry entry, boolean fsync) {
+        if (!running) {
+            return;
+        }
+        PartitionLog log = getOrCreateLog(partitionId);
+        try {
+            if (log.append(entry, fsync)) {
+                scheduleCompaction(partitionId, log);
+            }
+        } catch (IOException e) {
+            throw new HazelcastException("Could not write hot restart log of partition " + partitionId, e);
+        }
+    }
+
+    private PartitionLog getOrCreateLog(int partitionId) {
+        PartitionLog log = logs.get(partitionId);
+        if (log == null) {
+            PartitionLog newLog = new PartitionLog(new File(dataDir, String.valueOf(partitionId)), segmentSize,
+                    compactionSegmentCount);
+            log = logs.compareAndSet(partitionId, null, newLog) ? newLog : logs.get(partitionId);
+        }
+        return log;
+    }
+
+    private void scheduleCompaction(final int partitionId, final PartitionLog log) {
+        ExecutionService executionService = node.getNodeEngine().getExecutionService();
+        executionService.execute(EXECUTOR_NAME, new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    log.compact(logger);
+                } catch (IOException e) {
+                    logger.warning("Could not compact hot restart log of partition " + partitionId, e);
+                }
+            }
+        });
+    }
+
+    private void lock(File baseDir) {
+        try {
+            lockFile = new RandomAccessFile(new File(baseDir, LOCK_FILE), "rw");
+            lock = lockFile.getChannel().tryLock();
+        } catch (OverlappingFileLockException e) {
+            lock = null;
+        } catch (IOException e) {
+            throw new HazelcastException("Could not lock hot restart base directory " + baseDir, e);
+        }
+        if (lock == null) {
+            closeResource(lockFile);
+            throw new HazelcastException("Hot restart base directory " + baseDir + " is used by another member");
+        }
+    }
+
+    private void restoreMetadata(NodeEngineImpl nodeEngine, File generation) throws IOException {
+        File[] serviceDirs = new File(generation, METADATA_DIR).listFiles();
+        if (serviceDirs == null) {
+            return;
+        }
+        for (File serviceDir : serviceDirs) {
+            File[] files = serviceDir.listFiles();
+            if (files == null) {
+                continue;
+            }
+            for (File file : files) {
+                MetadataFile metadataFile = MetadataFile.read(file);
+                HotRestartSupportingService service = nodeEngine.getService(metadataFile.serviceName);
+                service.prepareRestore(metadataFile.name, metadataFile.metadata);
+            }
+        }
+    }
+
+    /**
+     * Returns the subdirectories of {@code dir} named by a number, i.e. its generations or partitions, in
+     * ascending order.
+     */
+    private static List<File> listNumberedDirs(File dir) {
+        List<File> result = new ArrayList<File>();
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (file.isDirectory() && file.getName().matches("\\d+")) {
+                    result.add(file);
+                }
+            }
+        }
+        Collections.sort(result, new Comparator<File>() {
+            @Override
+            public int compare(File f1, File f2) {
+                long seq1 = seqOf(f1);
+                long seq2 = seqOf(f2);
+                return seq1 < seq2 ? -1 : (seq1 == seq2 ? 0 : 1);
+            }
+        });
+        return result;
+    }
+
+    private static long seqOf(File dir) {
+        return Long.parseLong(dir.getName());
+    }
+
+    /**
+     * Replays the logs of a partition, oldest generation first, and sends its live entries to the owner of the
+     * partition.
+     */
+    private final class RestoreTask implements Callable<Integer> {
+
+        private final int partitionId;
+        private final List<File> dirs;
+
+        RestoreTask(int partitionId, List<File> dirs) {
+            this.partitionId = partitionId;
+            this.dirs = dirs;
+        }
+
+        @Override
+        public Integer call() throws Exception {
+            LogState state = new LogState();
+            for (File dir : dirs) {
+                PartitionLog.replay(dir, state, logger);
+            }
+            OperationService operationService = node.getNodeEngine().getOperationService();
+            List<Future> futures = new ArrayList<Future>();
+            long now = Clock.currentTimeMillis();
+            int count = 0;
+            for (Map.Entry<String, Map<String, Map<ByteBuffer, LogEntry>>> service : state.getServices().entrySet()) {
+                for (Map.Entry<String, Map<ByteBuffer, LogEntry>> structure : service.getValue().entrySet()) {
+                    List<LogEntry> batch = new ArrayList<LogEntry>(RESTORE_BATCH_SIZE);
+                    for (LogEntry entry : structure.getValue().values()) {
+                        if (forceStart) {
+                            return count;
+                        }
+                        if (entry.expirationTime <= now) {
+                            continue;
+                        }
+                        batch.add(entry);
+                        count++;
+                        if (batch.size() == RESTORE_BATCH_SIZE) {
+                            futures.add(invoke(operationService, service.getKey(), structure.getKey(), batch));
+                            batch.clear();
+                        }
+                    }
+                    if (!batch.isEmpty()) {
+                        futures.add(invoke(operationService, service.getKey(), structure.getKey(), batch));
+                    }
+                }
+            }
+            for (Future future : futures) {
+                future.get();
+            }
+            return count;
+        }
+
+        private Future invoke(OperationService operationService, String serviceName, String name,
+                              Collection<LogEntry> batch) {
+            int size = batch.size();
+            Data[] keys = new Data[size];
+            Data[] values = new Data[size];
+            long[] expirationTimes = new long[size];
+            int i = 0;
+            for (LogEntry entry : batch) {
+                keys[i] = new HeapData(entry.key);
+                values[i] = new HeapData(entry.value);
+                expirationTimes[i] = entry.expirationTime;
+                i++;
+            }
+            HotRestartLoadOperation operation = new HotRestartLoadOperation(serviceName, name, keys, values,
+                    expirationTimes);
+            return operationService.invokeOnPartition(serviceName, operation, partitionId);
+        }
+    }
+}
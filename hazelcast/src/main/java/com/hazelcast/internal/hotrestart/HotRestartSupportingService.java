@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.internal.hotrestart;
+
+import com.hazelcast.nio.serialization.Data;
+
+/**
+ * An interface that can be implemented by SPI services whose data structures can be persisted by the
+ * {@link HotRestartService} and restored from it when the member restarts.
+ */
+public interface HotRestartSupportingService {
+
+    /**
+     * Called on the restoring member before any entry is restored, for each data structure whose metadata was
+     * persisted with {@link HotRestartService#persistMetadata(String, String, Data)}.
+     *
+     * @param name     name of the data structure
+     * @param metadata the persisted metadata
+     */
+    void prepareRestore(String name, Data metadata);
+
+    /**
+     * Returns the number of synchronous backups of the data structure, its restored entries are copied to them.
+     */
+    int getBackupCount(String name);
+
+    /**
+     * Returns the number of asynchronous backups of the data structure.
+     */
+    int getAsyncBackupCount(String name);
+
+    /**
+     * Restores an entry into a replica of the partition, unless the key is already mapped. Called on the
+     * partition thread of the given partition.
+     *
+     * @param expirationTime the time the entry expires at in milliseconds, {@code Long.MAX_VALUE} if it never expires
+     * @param backup         {@code true} if the replica is a backup
+     */
+    void restoreEntry(String name, int partitionId, Data key, Data value, long expirationTime, boolean backup);
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.internal.hotrestart;
+
+import com.hazelcast.nio.Bits;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+
+/**
+ * A single mutation in a hot restart log.
+ * <p/>
+ * On disk an entry is framed by its body length and the CRC32 of its body, so a partially written entry at the
+ * tail of a segment is detected and ignored on replay.
+ */
+final class LogEntry {
+
+    static final byte PUT = 1;
+    static final byte REMOVE = 2;
+    static final byte CLEAR = 3;
+
+    // the largest array size supported by all JVMs
+    private static final int MAX_BODY_SIZE = Integer.MAX_VALUE - Bits.LONG_SIZE_IN_BYTES;
+
+    final byte type;
+    final String serviceName;
+    final String name;
+    final byte[] key;
+    final byte[] value;
+    final long expirationTime;
+
+    LogEntry(byte type, String serviceName, String name, byte[] key, byte[] value, long expirationTime) {
+        this.type = type;
+        this.serviceName = serviceName;
+        this.name = name;
+        this.key = key;
+        this.value = value;
+        this.expirationTime = expirationTime;
+    }
+
+    /**
+     * Writes this entry to the given output using {@code buffer} to build the body.
+     *
+     * @return the number of bytes written
+     */
+    int writeTo(OutputStream out, ByteArrayOutputStream buffer) throws IOException {
+        buffer.reset();
+        DataOutputStream body = new DataOutputStream(buffer);
+        body.writeByte(type);
+        body.writeUTF(serviceName);
+        body.writeUTF(name);
+        if (type != CLEAR) {
+            writeBytes(body, key);
+        }
+        if (type == PUT) {
+            writeBytes(body, value);
+            body.writeLong(expirationTime);
+        }
+        body.flush();
+
+        CRC32 crc = new CRC32();
+        byte[] bytes = buffer.toByteArray();
+        crc.update(bytes, 0, bytes.length);
+        DataOutputStream dataOut = new DataOutputStream(out);
+        dataOut.writeInt(bytes.length);
+        dataOut.writeInt((int) crc.getValue());
+        dataOut.write(bytes);
+        return dataOut.size();
+    }
+
+    /**
+     * Reads the next entry.
+     *
+     * @return the entry or {@code null} at the end of the input
+     * @throws IOException if the input ends in the middle of an entry or the entry is corrupted
+     */
+    static LogEntry readFrom(DataInputStream in) throws IOException {
+        int length;
+        try {
+            length = in.readInt();
+        } catch (EOFException e) {
+            return null;
+        }
+        int expectedCrc = in.readInt();
+        if (length < 0 || length > MAX_BODY_SIZE) {
+            throw new IOException("Invalid entry length: " + length);
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, length);
+        if ((int) crc.getValue() != expectedCrc) {
+            throw new IOException("Checksum mismatch");
+        }
+
+        DataInputStream body = new DataInputStream(new ByteArrayInputStream(bytes));
+        byte type = body.readByte();
+        String serviceName = body.readUTF();
+        String name = body.readUTF();
+        byte[] key = type != CLEAR ? readBytes(body) : null;
+        byte[] value = null;
+        long expirationTime = 0;
+        if (type == PUT) {
+            value = readBytes(body);
+            expirationTime = body.readLong();
+        }
+        return new LogEntry(type, serviceName, name, key, value, expirationTime);
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static byte[] readBytes(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.internal.hotrestart;
+
+import com.hazelcast.logging.ILogger;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static com.hazelcast.nio.IOUtil.closeResource;
+
+/**
+ * The live entries of a partition, rebuilt by applying the entries of its snapshot and log segments in order.
+ * Entries are grouped by service and data structure name.
+ */
+final class LogState {
+
+    private final Map<String, Map<String, Map<ByteBuffer, LogEntry>>> services
+            = new HashMap<String, Map<String, Map<ByteBuffer, LogEntry>>>();
+
+    void apply(LogEntry entry) {
+        Map<String, Map<ByteBuffer, LogEntry>> structures = services.get(entry.serviceName);
+        if (structures == null) {
+            structures = new HashMap<String, Map<ByteBuffer, LogEntry>>();
+            services.put(entry.serviceName, structures);
+        }
+        switch (entry.type) {
+            case LogEntry.PUT:
+                Map<ByteBuffer, LogEntry> entries = structures.get(entry.name);
+                if (entries == null) {
+                    entries = new LinkedHashMap<ByteBuffer, LogEntry>();
+                    structures.put(entry.name, entries);
+                }
+                entries.put(ByteBuffer.wrap(entry.key), entry);
+                break;
+            case LogEntry.REMOVE:
+                Map<ByteBuffer, LogEntry> current = structures.get(entry.name);
+                if (current != null) {
+                    current.remove(ByteBuffer.wrap(entry.key));
+                }
+                break;
+            case LogEntry.CLEAR:
+                structures.remove(entry.name);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown log entry type: " + entry.type);
+        }
+    }
+
+    /**
+     * Applies all entries of the given file. A truncated or corrupted entry ends the file: it can only be the
+     * last entry of a segment which was being written when the member stopped.
+     */
+    void applyFile(File file, ILogger logger) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+        try {
+            while (true) {
+                LogEntry entry;
+                try {
+                    entry = LogEntry.readFrom(in);
+                } catch (IOException e) {
+                    logger.warning("Ignoring the incomplete tail of hot restart log " + file + ": " + e.getMessage());
+                    return;
+                }
+                if (entry == null) {
+                    return;
+                }
+                apply(entry);
+            }
+        } finally {
+            closeResource(in);
+        }
+    }
+
+    Map<String, Map<String, Map<ByteBuffer, LogEntry>>> getServices() {
+        return services;
+    }
+}
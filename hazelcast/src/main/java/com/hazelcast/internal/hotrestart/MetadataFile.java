@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.internal.hotrestart;
+
+import com.hazelcast.internal.serialization.impl.HeapData;
+import com.hazelcast.nio.serialization.Data;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import static com.hazelcast.nio.IOUtil.closeResource;
+
+/**
+ * The metadata of a data structure persisted by the {@link HotRestartService}, stored in its own file.
+ */
+final class MetadataFile {
+
+    final String serviceName;
+    final String name;
+    final Data metadata;
+
+    private MetadataFile(String serviceName, String name, Data metadata) {
+        this.serviceName = serviceName;
+        this.name = name;
+        this.metadata = metadata;
+    }
+
+    static void write(File file, String serviceName, String name, Data metadata) throws IOException {
+        FileOutputStream fileOut = new FileOutputStream(file);
+        DataOutputStream out = new DataOutputStream(fileOut);
+        try {
+            out.writeUTF(serviceName);
+            out.writeUTF(name);
+            byte[] bytes = metadata.toByteArray();
+            out.writeInt(bytes.length);
+            out.write(bytes);
+            out.flush();
+            fileOut.getChannel().force(false);
+        } finally {
+            closeResource(out);
+        }
+    }
+
+    static MetadataFile read(File file) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+        try {
+            String serviceName = in.readUTF();
+            String name = in.readUTF();
+            byte[] bytes = new byte[in.readInt()];
+            in.readFully(bytes);
+            return new MetadataFile(serviceName, name, new HeapData(bytes));
+        } finally {
+            closeResource(in);
+        }
+    }
+}
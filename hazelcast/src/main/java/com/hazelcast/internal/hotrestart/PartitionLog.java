@@ -0,0 +1,265 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.internal.hotrestart;
+
+import com.hazelcast.core.HazelcastException;
+import com.hazelcast.logging.ILogger;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.hazelcast.nio.IOUtil.closeResource;
+import static com.hazelcast.nio.IOUtil.delete;
+
+/**
+ * The hot restart log of a single partition: a directory of numbered, append-only segment files and at most one
+ * snapshot. Entries are appended to the active segment, which is sealed once it reaches the segment size. A
+ * snapshot numbered {@code n} holds the live entries of all segments up to {@code n}, so the state of the
+ * partition is the latest snapshot followed by the segments numbered after it.
+ * <p/>
+ * Appends are done by partition threads, compaction of the sealed segments into a new snapshot runs on another
+ * thread and never touches the active segment.
+ */
+final class PartitionLog {
+
+    static final String SEGMENT_SUFFIX = ".segment";
+    static final String SNAPSHOT_SUFFIX = ".snapshot";
+
+    private static final String TMP_SUFFIX = ".tmp";
+    private static final int BUFFER_SIZE = 8192;
+
+    private final File dir;
+    private final int segmentSize;
+    private final int compactionSegmentCount;
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    private final AtomicBoolean compacting = new AtomicBoolean();
+
+    private FileOutputStream fileOut;
+    private OutputStream out;
+    // number of the next segment to open, the active segment (if any) is nextSeq - 1
+    private long nextSeq;
+    private long activeSize;
+    private int sealedSegmentCount;
+    private boolean closed;
+
+    PartitionLog(File dir, int segmentSize, int compactionSegmentCount) {
+        if (!dir.exists() && !dir.mkdirs()) {
+            throw new HazelcastException("Could not create hot restart directory " + dir);
+        }
+        this.dir = dir;
+        this.segmentSize = segmentSize;
+        this.compactionSegmentCount = compactionSegmentCount;
+        for (File file : listFiles(dir, SEGMENT_SUFFIX)) {
+            nextSeq = Math.max(nextSeq, seqOf(file) + 1);
+            sealedSegmentCount++;
+        }
+        for (File file : listFiles(dir, SNAPSHOT_SUFFIX)) {
+            nextSeq = Math.max(nextSeq, seqOf(file) + 1);
+        }
+    }
+
+    /**
+     * Appends the entry to the active segment, sealing it when it is full.
+     *
+     * @return {@code true} if enough segments are sealed to be worth a compaction
+     */
+    synchronized boolean append(LogEntry entry, boolean fsync) throws IOException {
+        if (closed) {
+            return false;
+        }
+        if (out == null) {
+            openSegment();
+        }
+        activeSize += entry.writeTo(out, buffer);
+        out.flush();
+        if (fsync) {
+            fileOut.getChannel().force(false);
+        }
+        if (activeSize < segmentSize) {
+            return false;
+        }
+        closeSegment();
+        sealedSegmentCount++;
+        return sealedSegmentCount >= compactionSegmentCount;
+    }
+
+    /**
+     * Merges the latest snapshot and the sealed segments into a new snapshot, then deletes the merged files.
+     * Does nothing if a compaction of this partition is already running.
+     */
+    void compact(ILogger logger) throws IOException {
+        if (!compacting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long sealedBound;
+            synchronized (this) {
+                sealedBound = out == null ? nextSeq : nextSeq - 1;
+            }
+            List<File> files = filesToReplay(dir, sealedBound);
+            if (files.size() < 2) {
+                return;
+            }
+            LogState state = new LogState();
+            for (File file : files) {
+                state.applyFile(file, logger);
+            }
+            File snapshot = new File(dir, (sealedBound - 1) + SNAPSHOT_SUFFIX);
+            writeSnapshot(state, snapshot);
+            int mergedSegmentCount = deleteMerged(files, snapshot);
+            synchronized (this) {
+                sealedSegmentCount -= mergedSegmentCount;
+            }
+        } finally {
+            compacting.set(false);
+        }
+    }
+
+    private static int deleteMerged(List<File> files, File snapshot) {
+        int mergedSegmentCount = 0;
+        for (File file : files) {
+            if (!file.equals(snapshot)) {
+                mergedSegmentCount += file.getName().endsWith(SEGMENT_SUFFIX) ? 1 : 0;
+                delete(file);
+            }
+        }
+        return mergedSegmentCount;
+    }
+
+    synchronized void close() {
+        closed = true;
+        closeSegment();
+    }
+
+    /**
+     * Rebuilds the live entries of the partition logged in the given directory.
+     */
+    static LogState replay(File dir, ILogger logger) throws IOException {
+        LogState state = new LogState();
+        replay(dir, state, logger);
+        return state;
+    }
+
+    /**
+     * Applies the entries of the partition logged in the given directory on top of the given state, so that
+     * the puts, removes and clears logged there win over the entries already in the state.
+     */
+    static void replay(File dir, LogState state, ILogger logger) throws IOException {
+        for (File file : filesToReplay(dir, Long.MAX_VALUE)) {
+            state.applyFile(file, logger);
+        }
+    }
+
+    /**
+     * Returns the latest snapshot numbered below {@code bound} followed by the segments numbered after it and
+     * below {@code bound}, in order.
+     */
+    private static List<File> filesToReplay(File dir, long bound) {
+        File snapshot = null;
+        for (File file : listFiles(dir, SNAPSHOT_SUFFIX)) {
+            if (seqOf(file) < bound && (snapshot == null || seqOf(file) > seqOf(snapshot))) {
+                snapshot = file;
+            }
+        }
+        long snapshotSeq = snapshot == null ? -1 : seqOf(snapshot);
+        List<File> segments = new ArrayList<File>();
+        for (File file : listFiles(dir, SEGMENT_SUFFIX)) {
+            long seq = seqOf(file);
+            if (seq > snapshotSeq && seq < bound) {
+                segments.add(file);
+            }
+        }
+        Collections.sort(segments, new Comparator<File>() {
+            @Override
+            public int compare(File f1, File f2) {
+                long seq1 = seqOf(f1);
+                long seq2 = seqOf(f2);
+                return seq1 < seq2 ? -1 : (seq1 == seq2 ? 0 : 1);
+            }
+        });
+        if (snapshot != null) {
+            segments.add(0, snapshot);
+        }
+        return segments;
+    }
+
+    private void writeSnapshot(LogState state, File snapshot) throws IOException {
+        File tmp = new File(dir, snapshot.getName() + TMP_SUFFIX);
+        FileOutputStream fileOut = new FileOutputStream(tmp);
+        try {
+            OutputStream out = new BufferedOutputStream(fileOut, BUFFER_SIZE);
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            for (Map<String, Map<ByteBuffer, LogEntry>> structures : state.getServices().values()) {
+                for (Map<ByteBuffer, LogEntry> entries : structures.values()) {
+                    for (LogEntry entry : entries.values()) {
+                        entry.writeTo(out, buffer);
+                    }
+                }
+            }
+            out.flush();
+            fileOut.getChannel().force(true);
+        } finally {
+            closeResource(fileOut);
+        }
+        if (!tmp.renameTo(snapshot)) {
+            throw new IOException("Could not rename " + tmp + " to " + snapshot);
+        }
+    }
+
+    private void openSegment() throws IOException {
+        File segment = new File(dir, nextSeq++ + SEGMENT_SUFFIX);
+        fileOut = new FileOutputStream(segment);
+        out = new BufferedOutputStream(fileOut, BUFFER_SIZE);
+        activeSize = 0;
+    }
+
+    private void closeSegment() {
+        closeResource(out);
+        out = null;
+        fileOut = null;
+    }
+
+    private static List<File> listFiles(File dir, String suffix) {
+        List<File> result = new ArrayList<File>();
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (file.getName().endsWith(suffix)) {
+                    result.add(file);
+                }
+            }
+        }
+        return result;
+    }
+
+    private static long seqOf(File file) {
+        String name = file.getName();
+        return Long.parseLong(name.substring(0, name.indexOf('.')));
+    }
+}
@@ -0,0 +1,295 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.internal.serialization.impl;
+
+import com.hazelcast.internal.compression.CompressionStats;
+import com.hazelcast.internal.compression.LZ4BlockCodec;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.util.HashUtil;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import static com.hazelcast.internal.serialization.impl.HeapData.DATA_OFFSET;
+import static com.hazelcast.internal.serialization.impl.HeapData.HEAP_DATA_OVERHEAD;
+import static com.hazelcast.nio.Bits.INT_SIZE_IN_BYTES;
+
+/**
+ * A {@link Data} implementation keeping the payload of another {@link Data} compressed with {@link LZ4BlockCodec}.
+ * <p/>
+ * Type, sizes and hash codes are those of the original data, so a {@code CompressedData} can be looked up and
+ * compared like a {@link HeapData} without touching its content. The payload is decompressed into a new array
+ * each time {@link #toByteArray()} is called, which is what happens when it is deserialized or written to an
+ * output; callers holding on to a {@code CompressedData} therefore never need to be aware of the compression.
+ * Use {@link #writeTo(ObjectDataOutput)} and {@link #readFrom(ObjectDataInput)} to move the compressed form as is,
+ * or {@link #writeData(ObjectDataOutput, Data)} and {@link #readData(ObjectDataInput)} for data which may or may
+ * not be compressed.
+ */
+public final class CompressedData implements Data {
+
+    // object header (12) + 4 ints (16) + 2 references (8)
+    private static final int OBJECT_SIZE_IN_BYTES = 36;
+    // array (12: array header, 4: length)
+    private static final int ARRAY_HEADER_SIZE_IN_BYTES = 16;
+
+    private final byte[] compressed;
+    private final int totalSize;
+    private final int type;
+    private final int partitionHash;
+    private final int hashCode;
+    private final CompressionStats stats;
+
+    private CompressedData(byte[] compressed, int totalSize, int type, int partitionHash, int hashCode,
+                           CompressionStats stats) {
+        this.compressed = compressed;
+        this.totalSize = totalSize;
+        this.type = type;
+        this.partitionHash = partitionHash;
+        this.hashCode = hashCode;
+        this.stats = stats;
+    }
+
+    /**
+     * Compresses the given data.
+     *
+     * @param data  the data to compress
+     * @param stats the statistics to update on compression and decompression, can be {@code null}
+     * @return the compressed data, or the given data if it is empty or does not get smaller when compressed
+     */
+    public static Data compress(Data data, CompressionStats stats) {
+        if (data instanceof CompressedData) {
+            return ((CompressedData) data).withStats(stats);
+        }
+        int totalSize = data.totalSize();
+        if (totalSize <= HEAP_DATA_OVERHEAD) {
+            return data;
+        }
+        long start = System.nanoTime();
+        byte[] payload = data.toByteArray();
+        byte[] buffer = new byte[LZ4BlockCodec.maxCompressedLength(totalSize)];
+        int compressedSize = LZ4BlockCodec.compress(payload, 0, totalSize, buffer, 0);
+        if (compressedSize >= totalSize) {
+            return data;
+        }
+        int partitionHash = data.hasPartitionHash() ? data.getPartitionHash() : 0;
+        CompressedData compressedData = new CompressedData(Arrays.copyOf(buffer, compressedSize), totalSize,
+                data.getType(), partitionHash, data.hashCode(), stats);
+        if (stats != null) {
+            stats.onCompress(System.nanoTime() - start);
+        }
+        return compressedData;
+    }
+
+    /**
+     * Creates a {@code CompressedData} from a payload taken from {@link #getCompressedPayload()}, e.g. after it was
+     * moved off the heap.
+     *
+     * @param compressed the compressed payload
+     * @param original   data with the type, sizes and hash codes of the compressed data
+     * @param stats      the statistics to update on decompression, can be {@code null}
+     */
+    public static CompressedData wrap(byte[] compressed, Data original, CompressionStats stats) {
+        int partitionHash = original.hasPartitionHash() ? original.getPartitionHash() : 0;
+        return new CompressedData(compressed, original.totalSize(), original.getType(), partitionHash,
+                original.hashCode(), stats);
+    }
+
+    /**
+     * Returns a {@code CompressedData} sharing the content of this one and reporting to the given statistics.
+     */
+    public CompressedData withStats(CompressionStats stats) {
+        if (this.stats == stats) {
+            return this;
+        }
+        return new CompressedData(compressed, totalSize, type, partitionHash, hashCode, stats);
+    }
+
+    /**
+     * Writes the compressed form of this data.
+     */
+    public void writeTo(ObjectDataOutput out) throws IOException {
+        out.writeInt(totalSize);
+        out.writeInt(type);
+        out.writeInt(partitionHash);
+        out.writeInt(hashCode);
+        out.writeByteArray(compressed);
+    }
+
+    /**
+     * Reads a {@code CompressedData} written by {@link #writeTo(ObjectDataOutput)}, without decompressing it.
+     */
+    public static CompressedData readFrom(ObjectDataInput in) throws IOException {
+        int totalSize = in.readInt();
+        int type = in.readInt();
+        int partitionHash = in.readInt();
+        int hashCode = in.readInt();
+        byte[] compressed = in.readByteArray();
+        return new CompressedData(compressed, totalSize, type, partitionHash, hashCode, null);
+    }
+
+    /**
+     * Writes the data, a {@code CompressedData} in its compressed form. Unlike {@link ObjectDataOutput#writeData(Data)}
+     * this writes a flag before the data, it must be read with {@link #readData(ObjectDataInput)}.
+     */
+    public static void writeData(ObjectDataOutput out, Data data) throws IOException {
+        boolean compressed = data instanceof CompressedData;
+        out.writeBoolean(compressed);
+        if (compressed) {
+            ((CompressedData) data).writeTo(out);
+        } else {
+            out.writeData(data);
+        }
+    }
+
+    /**
+     * Reads data written by {@link #writeData(ObjectDataOutput, Data)}, without decompressing it.
+     */
+    public static Data readData(ObjectDataInput in) throws IOException {
+        boolean compressed = in.readBoolean();
+        return compressed ? readFrom(in) : in.readData();
+    }
+
+    /**
+     * Returns the compressed payload, which must not be modified.
+     */
+    @SuppressFBWarnings("EI_EXPOSE_REP")
+    public byte[] getCompressedPayload() {
+        return compressed;
+    }
+
+    /**
+     * Returns the statistics this data reports to, {@code null} if there are none.
+     */
+    public CompressionStats getStats() {
+        return stats;
+    }
+
+    /**
+     * Returns the size of the compressed payload in bytes.
+     */
+    public int compressedSize() {
+        return compressed.length;
+    }
+
+    @Override
+    public byte[] toByteArray() {
+        long start = System.nanoTime();
+        byte[] payload = new byte[totalSize];
+        LZ4BlockCodec.decompress(compressed, 0, compressed.length, payload, 0, totalSize);
+        if (stats != null) {
+            stats.onDecompress(System.nanoTime() - start);
+        }
+        return payload;
+    }
+
+    @Override
+    public int getType() {
+        return type;
+    }
+
+    @Override
+    public int totalSize() {
+        return totalSize;
+    }
+
+    @Override
+    public int dataSize() {
+        return totalSize - HEAP_DATA_OVERHEAD;
+    }
+
+    @Override
+    public int getHeapCost() {
+        // reference (assuming compressed oops)
+        int objectRef = INT_SIZE_IN_BYTES;
+        return objectRef + OBJECT_SIZE_IN_BYTES + ARRAY_HEADER_SIZE_IN_BYTES + compressed.length;
+    }
+
+    @Override
+    public int getPartitionHash() {
+        return hasPartitionHash() ? partitionHash : hashCode;
+    }
+
+    @Override
+    public boolean hasPartitionHash() {
+        return partitionHash != 0;
+    }
+
+    @Override
+    public long hash64() {
+        return HashUtil.MurmurHash3_x64_64(toByteArray(), DATA_OFFSET, dataSize());
+    }
+
+    @Override
+    public boolean isPortable() {
+        return SerializationConstants.CONSTANT_TYPE_PORTABLE == type;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Data)) {
+            return false;
+        }
+        if (o instanceof NativeMemoryData) {
+            return o.equals(this);
+        }
+
+        Data data = (Data) o;
+        if (type != data.getType() || dataSize() != data.dataSize() || hashCode != data.hashCode()) {
+            return false;
+        }
+        return contentEquals(data);
+    }
+
+    private boolean contentEquals(Data data) {
+        if (data instanceof CompressedData && Arrays.equals(compressed, ((CompressedData) data).compressed)) {
+            return true;
+        }
+        // the partition hash is not part of the equality, so the payloads are compared from the data offset
+        byte[] payload = toByteArray();
+        byte[] otherPayload = data.toByteArray();
+        for (int i = totalSize - 1; i >= DATA_OFFSET; i--) {
+            if (payload[i] != otherPayload[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    @Override
+    public String toString() {
+        return "CompressedData{"
+                + "type=" + type
+                + ", hashCode=" + hashCode
+                + ", partitionHash=" + getPartitionHash()
+                + ", totalSize=" + totalSize
+                + ", compressedSize=" + compressed.length
+                + ", heapCost=" + getHeapCost()
+                + '}';
+    }
+}
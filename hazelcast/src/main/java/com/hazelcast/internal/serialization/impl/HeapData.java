@@ -102,12 +102,13 @@ public class HeapData implements Data {
         if (this == o) {
             return true;
         }
-        if (o == null) {
-            return false;
-        }
         if (!(o instanceof Data)) {
             return false;
         }
+        if (o instanceof NativeMemoryData) {
+            // compares in place without copying the native content to the heap
+            return o.equals(this);
+        }
 
         Data data = (Data) o;
         if (getType() != data.getType()) {
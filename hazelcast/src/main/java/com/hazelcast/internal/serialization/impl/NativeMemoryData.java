@@ -0,0 +1,221 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.internal.serialization.impl;
+
+import com.hazelcast.memory.MemoryAllocator;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.util.HashUtil;
+
+import java.nio.ByteOrder;
+
+import static com.hazelcast.internal.serialization.impl.HeapData.DATA_OFFSET;
+import static com.hazelcast.internal.serialization.impl.HeapData.HEAP_DATA_OVERHEAD;
+import static com.hazelcast.internal.serialization.impl.HeapData.PARTITION_HASH_OFFSET;
+import static com.hazelcast.internal.serialization.impl.HeapData.TYPE_OFFSET;
+import static com.hazelcast.memory.MemoryAllocator.NULL_ADDRESS;
+import static com.hazelcast.nio.UnsafeHelper.BYTE_ARRAY_BASE_OFFSET;
+import static com.hazelcast.nio.UnsafeHelper.UNSAFE;
+
+/**
+ * A {@link Data} implementation where the content lives in native memory. The memory block
+ * has exactly the same layout as the payload of a {@link HeapData}, so hash codes and equality
+ * are compatible between both implementations.
+ * <p/>
+ * A {@code NativeMemoryData} is only a view over a memory block, it does not own it. The block
+ * is allocated and freed by the owner of the view; a view must not be used after its block is freed.
+ * Use {@link #toHeapData()} to get a copy which can safely leave the owner.
+ */
+public final class NativeMemoryData implements Data {
+
+    private static final boolean BIG_ENDIAN = ByteOrder.BIG_ENDIAN == ByteOrder.nativeOrder();
+
+    // object header (12) + address (8) + size (4)
+    private static final int OBJECT_SIZE_IN_BYTES = 24;
+
+    private final long address;
+    private final int size;
+
+    public NativeMemoryData(long address, int size) {
+        this.address = address;
+        this.size = size;
+    }
+
+    /**
+     * Copies the given data into a newly allocated memory block.
+     *
+     * @param data      the data to copy
+     * @param allocator allocator of the new memory block
+     * @return a view over the new memory block
+     */
+    public static NativeMemoryData copyOf(Data data, MemoryAllocator allocator) {
+        int size = data.totalSize();
+        if (size == 0) {
+            return new NativeMemoryData(NULL_ADDRESS, 0);
+        }
+        long address = allocator.allocate(size);
+        UNSAFE.copyMemory(data.toByteArray(), BYTE_ARRAY_BASE_OFFSET, null, address, size);
+        return new NativeMemoryData(address, size);
+    }
+
+    /**
+     * Frees the memory block of this view.
+     *
+     * @param allocator allocator of the memory block
+     */
+    public void free(MemoryAllocator allocator) {
+        if (address != NULL_ADDRESS) {
+            allocator.free(address, size);
+        }
+    }
+
+    /**
+     * Copies the content of this view to the heap.
+     *
+     * @return a heap copy of this data
+     */
+    public HeapData toHeapData() {
+        return new HeapData(toByteArray());
+    }
+
+    public long address() {
+        return address;
+    }
+
+    @Override
+    public byte[] toByteArray() {
+        byte[] bytes = new byte[size];
+        if (size > 0) {
+            UNSAFE.copyMemory(null, address, bytes, BYTE_ARRAY_BASE_OFFSET, size);
+        }
+        return bytes;
+    }
+
+    @Override
+    public int totalSize() {
+        return size;
+    }
+
+    @Override
+    public int dataSize() {
+        return Math.max(size - HEAP_DATA_OVERHEAD, 0);
+    }
+
+    @Override
+    public int getHeapCost() {
+        return OBJECT_SIZE_IN_BYTES;
+    }
+
+    @Override
+    public int getType() {
+        if (size == 0) {
+            return SerializationConstants.CONSTANT_TYPE_NULL;
+        }
+        return readIntB(TYPE_OFFSET);
+    }
+
+    @Override
+    public int getPartitionHash() {
+        if (hasPartitionHash()) {
+            return readIntB(PARTITION_HASH_OFFSET);
+        }
+        return hashCode();
+    }
+
+    @Override
+    public boolean hasPartitionHash() {
+        return size >= HEAP_DATA_OVERHEAD && readIntB(PARTITION_HASH_OFFSET) != 0;
+    }
+
+    @Override
+    public long hash64() {
+        return HashUtil.MurmurHash3_x64_64_direct(address, DATA_OFFSET, dataSize());
+    }
+
+    @Override
+    public boolean isPortable() {
+        return SerializationConstants.CONSTANT_TYPE_PORTABLE == getType();
+    }
+
+    @Override
+    public int hashCode() {
+        if (size == 0) {
+            return HashUtil.MurmurHash3_x86_32(null, DATA_OFFSET, 0);
+        }
+        return HashUtil.MurmurHash3_x86_32_direct(address, DATA_OFFSET, dataSize());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Data)) {
+            return false;
+        }
+        Data data = (Data) o;
+        if (getType() != data.getType()) {
+            return false;
+        }
+        int dataSize = dataSize();
+        if (dataSize != data.dataSize()) {
+            return false;
+        }
+        return dataSize == 0 || contentEquals(data);
+    }
+
+    private boolean contentEquals(Data data) {
+        if (data instanceof NativeMemoryData) {
+            return equalsNative(((NativeMemoryData) data).address);
+        }
+        return equalsHeap(data.toByteArray());
+    }
+
+    private boolean equalsNative(long otherAddress) {
+        for (int i = size - 1; i >= DATA_OFFSET; i--) {
+            if (UNSAFE.getByte(address + i) != UNSAFE.getByte(otherAddress + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean equalsHeap(byte[] bytes) {
+        for (int i = size - 1; i >= DATA_OFFSET; i--) {
+            if (UNSAFE.getByte(address + i) != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int readIntB(int offset) {
+        int value = UNSAFE.getInt(address + offset);
+        return BIG_ENDIAN ? value : Integer.reverseBytes(value);
+    }
+
+    @Override
+    public String toString() {
+        return "NativeMemoryData{"
+                + "address=" + address
+                + ", type=" + getType()
+                + ", hashCode=" + hashCode()
+                + ", totalSize=" + totalSize()
+                + ", dataSize=" + dataSize()
+                + '}';
+    }
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map;
+
+import com.hazelcast.spi.exception.RetryableHazelcastException;
+
+/**
+ * A {@link RetryableHazelcastException} that is thrown when a write to a map is rejected because the write-behind
+ * queues of the map exceed {@link com.hazelcast.instance.GroupProperty#MAP_WRITE_BEHIND_BACKPRESSURE_MAX_QUEUED_MB}
+ * on the owner of the partition. The write is retried by its invocation and only reaches the caller when the queues
+ * are not drained within the retries.
+ */
+public class WriteBehindBackpressureException extends RetryableHazelcastException {
+
+    public WriteBehindBackpressureException(String message) {
+        super(message);
+    }
+}
@@ -16,10 +16,11 @@
 
 package com.hazelcast.map.impl;
 
+import com.hazelcast.internal.hotrestart.HotRestartSupportingService;
+import com.hazelcast.spi.ChunkedMigrationAwareService;
 import com.hazelcast.spi.ClientAwareService;
 import com.hazelcast.spi.EventPublishingService;
 import com.hazelcast.spi.ManagedService;
-import com.hazelcast.spi.MigrationAwareService;
 import com.hazelcast.spi.PartitionAwareService;
 import com.hazelcast.spi.PostJoinAwareService;
 import com.hazelcast.spi.QuorumAwareService;
@@ -48,12 +49,12 @@ abstract class AbstractMapServiceFactory implements MapServiceFactory {
     abstract ManagedService createManagedService();
 
     /**
-     * Creates a new {@link MigrationAwareService} for {@link MapService}.
+     * Creates a new {@link ChunkedMigrationAwareService} for {@link MapService}.
      *
-     * @return Creates a new {@link MigrationAwareService} implementation.
-     * @see com.hazelcast.spi.MigrationAwareService
+     * @return Creates a new {@link ChunkedMigrationAwareService} implementation.
+     * @see com.hazelcast.spi.ChunkedMigrationAwareService
      */
-    abstract MigrationAwareService createMigrationAwareService();
+    abstract ChunkedMigrationAwareService createMigrationAwareService();
 
     /**
      * Creates a new {@link TransactionalService} for {@link MapService}.
@@ -136,6 +137,14 @@ abstract class AbstractMapServiceFactory implements MapServiceFactory {
      */
     abstract QuorumAwareService createQuorumAwareService();
 
+    /**
+     * Creates a new {@link HotRestartSupportingService} for {@link MapService}.
+     *
+     * @return Creates a new {@link HotRestartSupportingService} implementation.
+     * @see com.hazelcast.internal.hotrestart.HotRestartSupportingService
+     */
+    abstract HotRestartSupportingService createHotRestartSupportingService();
+
 
     /**
      * Returns a {@link MapService} object by populating it with required
@@ -147,7 +156,7 @@ abstract class AbstractMapServiceFactory implements MapServiceFactory {
     public MapService createMapService() {
         MapServiceContext mapServiceContext = getMapServiceContext();
         ManagedService managedService = createManagedService();
-        MigrationAwareService migrationAwareService = createMigrationAwareService();
+        ChunkedMigrationAwareService migrationAwareService = createMigrationAwareService();
         TransactionalService transactionalService = createTransactionalService();
         RemoteService remoteService = createRemoteService();
         EventPublishingService eventPublishingService = createEventPublishingService();
@@ -158,6 +167,7 @@ abstract class AbstractMapServiceFactory implements MapServiceFactory {
         PartitionAwareService partitionAwareService = createPartitionAwareService();
         QuorumAwareService quorumAwareService = createQuorumAwareService();
         ClientAwareService clientAwareService = createClientAwareService();
+        HotRestartSupportingService hotRestartSupportingService = createHotRestartSupportingService();
 
         checkNotNull(mapServiceContext, "mapServiceContext should not be null");
         checkNotNull(managedService, "managedService should not be null");
@@ -172,6 +182,7 @@ abstract class AbstractMapServiceFactory implements MapServiceFactory {
         checkNotNull(partitionAwareService, "partitionAwareService should not be null");
         checkNotNull(quorumAwareService, "quorumAwareService should not be null");
         checkNotNull(clientAwareService, "clientAwareService should not be null");
+        checkNotNull(hotRestartSupportingService, "hotRestartSupportingService should not be null");
 
         MapService mapService = new MapService();
         mapService.managedService = managedService;
@@ -187,6 +198,7 @@ abstract class AbstractMapServiceFactory implements MapServiceFactory {
         mapService.partitionAwareService = partitionAwareService;
         mapService.quorumAwareService = quorumAwareService;
         mapService.clientAwareService = clientAwareService;
+        mapService.hotRestartSupportingService = hotRestartSupportingService;
         mapServiceContext.setService(mapService);
         return mapService;
     }
@@ -16,11 +16,12 @@
 
 package com.hazelcast.map.impl;
 
+import com.hazelcast.internal.hotrestart.HotRestartSupportingService;
 import com.hazelcast.map.impl.event.MapEventPublishingService;
+import com.hazelcast.spi.ChunkedMigrationAwareService;
 import com.hazelcast.spi.ClientAwareService;
 import com.hazelcast.spi.EventPublishingService;
 import com.hazelcast.spi.ManagedService;
-import com.hazelcast.spi.MigrationAwareService;
 import com.hazelcast.spi.PostJoinAwareService;
 import com.hazelcast.spi.QuorumAwareService;
 import com.hazelcast.spi.RemoteService;
@@ -55,7 +56,7 @@ class DefaultMapServiceFactory extends AbstractMapServiceFactory {
     }
 
     @Override
-    MigrationAwareService createMigrationAwareService() {
+    ChunkedMigrationAwareService createMigrationAwareService() {
         return new MapMigrationAwareService(mapServiceContext);
     }
 
@@ -109,4 +110,9 @@ class DefaultMapServiceFactory extends AbstractMapServiceFactory {
         return new MapClientAwareService();
     }
 
+    @Override
+    HotRestartSupportingService createHotRestartSupportingService() {
+        return new MapHotRestartSupportingService(mapServiceContext);
+    }
+
 }
@@ -18,11 +18,15 @@ package com.hazelcast.map.impl;
 
 import com.hazelcast.cache.impl.nearcache.NearCache;
 import com.hazelcast.cluster.ClusterService;
+import com.hazelcast.internal.compression.CompressionStats;
+import com.hazelcast.internal.serialization.impl.CompressedData;
 import com.hazelcast.logging.ILogger;
 import com.hazelcast.map.impl.nearcache.NearCacheProvider;
 import com.hazelcast.map.impl.record.Record;
 import com.hazelcast.map.impl.record.RecordStatistics;
 import com.hazelcast.map.impl.recordstore.RecordStore;
+import com.hazelcast.map.impl.recordstore.Storage;
+import com.hazelcast.map.impl.recordstore.TieredStorage;
 import com.hazelcast.monitor.NearCacheStats;
 import com.hazelcast.monitor.impl.LocalMapStatsImpl;
 import com.hazelcast.nio.Address;
@@ -93,6 +97,7 @@ public class LocalMapStatsProvider {
         onDemandStats.setBackupCount(backupCount);
 
         addNearCacheStats(stats, onDemandStats, mapContainer);
+        addCompressionStats(stats, mapContainer);
 
         for (int partitionId = 0; partitionId < partitionService.getPartitionCount(); partitionId++) {
             InternalPartition partition = partitionService.getPartition(partitionId);
@@ -129,6 +134,7 @@ public class LocalMapStatsProvider {
         long lastAccessTime = 0;
         long lastUpdateTime = 0;
         long hits = 0;
+        boolean compressed = mapServiceContext.getMapContainer(mapName).getMapConfig().getValueCompressionThreshold() > 0;
 
         Iterator<Record> iterator = recordStore.iterator();
         while (iterator.hasNext()) {
@@ -139,6 +145,9 @@ public class LocalMapStatsProvider {
             lockedEntryCount += isLocked(key, recordStore);
             lastAccessTime = Math.max(lastAccessTime, record.getLastAccessTime());
             lastUpdateTime = Math.max(lastUpdateTime, record.getLastUpdateTime());
+            if (compressed) {
+                addCompressedSize(onDemandStats, record.getValue());
+            }
         }
 
         onDemandStats.incrementLockedEntryCount(lockedEntryCount);
@@ -147,11 +156,36 @@ public class LocalMapStatsProvider {
         onDemandStats.incrementOwnedEntryMemoryCost(recordStore.getHeapCost());
         onDemandStats.incrementHeapCost(recordStore.getHeapCost());
         onDemandStats.incrementOwnedEntryCount(recordStore.size());
+        addTieredStoreStats(onDemandStats, recordStore);
+        onDemandStats.incrementCoalescedLoadCount(recordStore.getCoalescedLoadCount());
 
         stats.setLastAccessTime(lastAccessTime);
         stats.setLastUpdateTime(lastUpdateTime);
     }
 
+    /**
+     * Adds the sizes of a value stored compressed.
+     */
+    protected void addCompressedSize(LocalMapOnDemandCalculatedStats onDemandStats, Object value) {
+        if (value instanceof CompressedData) {
+            CompressedData compressedData = (CompressedData) value;
+            onDemandStats.incrementCompressedValueSizes(compressedData.totalSize(), compressedData.compressedSize());
+        }
+    }
+
+    /**
+     * Adds the per tier statistics of a record store with tiered storage enabled.
+     */
+    protected void addTieredStoreStats(LocalMapOnDemandCalculatedStats onDemandStats, RecordStore recordStore) {
+        Storage storage = recordStore.getStorage();
+        if (storage instanceof TieredStorage) {
+            TieredStorage tieredStorage = (TieredStorage) storage;
+            onDemandStats.incrementMemoryTierHits(tieredStorage.getMemoryTierHits());
+            onDemandStats.incrementDiskTierHits(tieredStorage.getDiskTierHits());
+            onDemandStats.incrementDiskTierEntryCount(tieredStorage.getDiskTierEntryCount());
+        }
+    }
+
     protected long getHits(Record record) {
         RecordStatistics stats = record.getStatistics();
         return stats.getHits();
@@ -270,6 +304,15 @@ public class LocalMapStatsProvider {
         onDemandStats.incrementHeapCost(nearCacheHeapCost);
     }
 
+    /**
+     * Adds the compression times of the record stores of this member, the ratio is computed from the owned records.
+     */
+    protected void addCompressionStats(LocalMapStatsImpl stats, MapContainer mapContainer) {
+        CompressionStats compressionStats = mapContainer.getCompressionStats();
+        stats.setTotalCompressionTime(compressionStats.getCompressionNanos());
+        stats.setTotalDecompressionTime(compressionStats.getDecompressionNanos());
+    }
+
     protected static class LocalMapOnDemandCalculatedStats {
 
         protected long hits;
@@ -285,6 +328,12 @@ public class LocalMapStatsProvider {
         protected long lockedEntryCount;
         protected long dirtyEntryCount;
         protected int backupCount;
+        protected long memoryTierHits;
+        protected long diskTierHits;
+        protected long diskTierEntryCount;
+        protected long coalescedLoadCount;
+        protected long originalValueBytes;
+        protected long compressedValueBytes;
 
         public void setBackupCount(int backupCount) {
             this.backupCount = backupCount;
@@ -322,6 +371,27 @@ public class LocalMapStatsProvider {
             this.heapCost += heapCost;
         }
 
+        public void incrementMemoryTierHits(long memoryTierHits) {
+            this.memoryTierHits += memoryTierHits;
+        }
+
+        public void incrementDiskTierHits(long diskTierHits) {
+            this.diskTierHits += diskTierHits;
+        }
+
+        public void incrementDiskTierEntryCount(long diskTierEntryCount) {
+            this.diskTierEntryCount += diskTierEntryCount;
+        }
+
+        public void incrementCoalescedLoadCount(long coalescedLoadCount) {
+            this.coalescedLoadCount += coalescedLoadCount;
+        }
+
+        public void incrementCompressedValueSizes(long originalSize, long compressedSize) {
+            this.originalValueBytes += originalSize;
+            this.compressedValueBytes += compressedSize;
+        }
+
         public void copyValuesTo(LocalMapStatsImpl stats) {
             stats.setBackupCount(backupCount);
             stats.setHits(hits);
@@ -332,6 +402,11 @@ public class LocalMapStatsProvider {
             stats.setHeapCost(heapCost);
             stats.setLockedEntryCount(lockedEntryCount);
             stats.setDirtyEntryCount(dirtyEntryCount);
+            stats.setMemoryTierHits(memoryTierHits);
+            stats.setDiskTierHits(diskTierHits);
+            stats.setDiskTierEntryCount(diskTierEntryCount);
+            stats.setCoalescedLoadCount(coalescedLoadCount);
+            stats.setCompressionRatio(compressedValueBytes == 0 ? 1 : (double) originalValueBytes / compressedValueBytes);
         }
 
     }
@@ -21,6 +21,7 @@ import com.hazelcast.config.PartitioningStrategyConfig;
 import com.hazelcast.config.WanReplicationRef;
 import com.hazelcast.core.IFunction;
 import com.hazelcast.core.PartitioningStrategy;
+import com.hazelcast.internal.compression.CompressionStats;
 import com.hazelcast.internal.serialization.SerializationService;
 import com.hazelcast.map.MapInterceptor;
 import com.hazelcast.map.impl.eviction.EvictionChecker;
@@ -30,15 +31,18 @@ import com.hazelcast.map.impl.eviction.EvictorImpl;
 import com.hazelcast.map.impl.mapstore.MapStoreContext;
 import com.hazelcast.map.impl.query.QueryEntryFactory;
 import com.hazelcast.map.impl.record.DataRecordFactory;
+import com.hazelcast.map.impl.record.NativeDataRecordFactory;
 import com.hazelcast.map.impl.record.ObjectRecordFactory;
 import com.hazelcast.map.impl.record.RecordFactory;
 import com.hazelcast.map.merge.MapMergePolicy;
+import com.hazelcast.memory.MemoryManager;
 import com.hazelcast.nio.ClassLoaderUtil;
 import com.hazelcast.nio.serialization.Data;
 import com.hazelcast.query.impl.Indexes;
 import com.hazelcast.query.impl.QueryableEntry;
 import com.hazelcast.query.impl.getters.Extractors;
 import com.hazelcast.spi.NodeEngine;
+import com.hazelcast.spi.impl.NodeEngineImpl;
 import com.hazelcast.util.ConstructorFunction;
 import com.hazelcast.util.ExceptionUtil;
 import com.hazelcast.wan.WanReplicationPublisher;
@@ -78,6 +82,7 @@ public class MapContainer {
         }
     };
     protected final ConstructorFunction<Void, RecordFactory> recordFactoryConstructor;
+    protected final CompressionStats compressionStats = new CompressionStats();
     protected final boolean serverNearCacheInvalidationEnabled;
     /**
      * Holds number of registered {@link com.hazelcast.map.impl.nearcache.InvalidationListener} from clients.
@@ -115,6 +120,7 @@ public class MapContainer {
         this.extractors = new Extractors(mapConfig.getMapAttributeConfigs());
         this.indexes = new Indexes(serializationService, extractors);
         this.evictor = createEvictor(mapServiceContext);
+        ((NodeEngineImpl) nodeEngine).getMetricsRegistry().scanAndRegister(evictor, "map[" + name + "].eviction");
         this.serverNearCacheInvalidationEnabled = isNearCacheEnabled() && mapConfig.getNearCacheConfig().isInvalidateOnChange();
     }
 
@@ -132,14 +138,16 @@ public class MapContainer {
                 RecordFactory recordFactory;
                 switch (mapConfig.getInMemoryFormat()) {
                     case BINARY:
-                        recordFactory = new DataRecordFactory(mapConfig, serializationService, partitioningStrategy);
+                        recordFactory = new DataRecordFactory(mapConfig, serializationService, partitioningStrategy,
+                                compressionStats);
                         break;
                     case OBJECT:
                         recordFactory = new ObjectRecordFactory(mapConfig, serializationService);
                         break;
                     case NATIVE:
-                        throw new IllegalArgumentException("Native storage format is supported in Hazelcast Enterprise only. "
-                                + "Make sure you have Hazelcast Enterprise JARs on your classpath!");
+                        recordFactory = new NativeDataRecordFactory(mapConfig, serializationService, partitioningStrategy,
+                                getNativeMemoryManager());
+                        break;
                     default:
                         throw new IllegalArgumentException("Invalid storage format: " + mapConfig.getInMemoryFormat());
                 }
@@ -150,6 +158,16 @@ public class MapContainer {
     }
 
 
+    private MemoryManager getNativeMemoryManager() {
+        NodeEngineImpl nodeEngine = (NodeEngineImpl) mapServiceContext.getNodeEngine();
+        MemoryManager memoryManager = nodeEngine.getNode().getNodeExtension().getNativeMemoryManager();
+        if (memoryManager == null) {
+            throw new IllegalArgumentException("Native storage format of map " + name + " requires native memory. "
+                    + "Make sure native memory is enabled in NativeMemoryConfig!");
+        }
+        return memoryManager;
+    }
+
     public void initWanReplication(NodeEngine nodeEngine) {
         WanReplicationRef wanReplicationRef = mapConfig.getWanReplicationRef();
         if (wanReplicationRef == null) {
@@ -274,6 +292,13 @@ public class MapContainer {
         return recordFactoryConstructor;
     }
 
+    /**
+     * Returns the statistics of the values compressed in the record stores of this map.
+     */
+    public CompressionStats getCompressionStats() {
+        return compressionStats;
+    }
+
     public QueryableEntry newQueryEntry(Data key, Object value) {
         return queryEntryFactory.newEntry(serializationService, key, value, extractors);
     }
@@ -22,8 +22,10 @@ import com.hazelcast.internal.serialization.impl.FactoryIdHelper;
 import com.hazelcast.map.impl.operation.GetOperation;
 import com.hazelcast.map.impl.operation.PutBackupOperation;
 import com.hazelcast.map.impl.operation.PutOperation;
+import com.hazelcast.map.impl.operation.ReadBackupDataResponse;
 import com.hazelcast.map.impl.operation.RemoveBackupOperation;
 import com.hazelcast.map.impl.operation.RemoveOperation;
+import com.hazelcast.map.impl.query.AggregationResult;
 import com.hazelcast.map.impl.query.QueryResult;
 import com.hazelcast.map.impl.query.QueryResultRow;
 import com.hazelcast.nio.serialization.DataSerializableFactory;
@@ -53,8 +55,10 @@ public final class MapDataSerializerHook implements DataSerializerHook {
     public static final int QUERY_RESULT_ROW = 13;
     //public static final int QUERY_RESULT_SET = 14;
     public static final int QUERY_RESULT = 15;
+    public static final int AGGREGATION_RESULT = 16;
+    public static final int READ_BACKUP_DATA_RESPONSE = 17;
 
-    private static final int LEN = QUERY_RESULT + 1;
+    private static final int LEN = READ_BACKUP_DATA_RESPONSE + 1;
 
     @Override
     public int getFactoryId() {
@@ -126,6 +130,16 @@ public final class MapDataSerializerHook implements DataSerializerHook {
                 return new QueryResult();
             }
         };
+        constructors[AGGREGATION_RESULT] = new ConstructorFunction<Integer, IdentifiedDataSerializable>() {
+            public IdentifiedDataSerializable createNew(Integer arg) {
+                return new AggregationResult();
+            }
+        };
+        constructors[READ_BACKUP_DATA_RESPONSE] = new ConstructorFunction<Integer, IdentifiedDataSerializable>() {
+            public IdentifiedDataSerializable createNew(Integer arg) {
+                return new ReadBackupDataResponse();
+            }
+        };
 
         return new ArrayDataSerializableFactory(constructors);
     }
@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.map.impl;
+
+import com.hazelcast.internal.hotrestart.HotRestartSupportingService;
+import com.hazelcast.map.impl.recordstore.RecordStore;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.util.Clock;
+
+import static com.hazelcast.map.impl.recordstore.RecordStore.DEFAULT_TTL;
+
+class MapHotRestartSupportingService implements HotRestartSupportingService {
+
+    private final MapServiceContext mapServiceContext;
+
+    MapHotRestartSupportingService(MapServiceContext mapServiceContext) {
+        this.mapServiceContext = mapServiceContext;
+    }
+
+    @Override
+    public void prepareRestore(String name, Data metadata) {
+        // map configurations are static, no metadata is persisted
+    }
+
+    @Override
+    public int getBackupCount(String name) {
+        return mapServiceContext.getMapContainer(name).getBackupCount();
+    }
+
+    @Override
+    public int getAsyncBackupCount(String name) {
+        return mapServiceContext.getMapContainer(name).getAsyncBackupCount();
+    }
+
+    @Override
+    public void restoreEntry(String name, int partitionId, Data key, Data value, long expirationTime, boolean backup) {
+        PartitionContainer partitionContainer = mapServiceContext.getPartitionContainer(partitionId);
+        RecordStore recordStore = partitionContainer.getRecordStoreForHotRestart(name);
+        if (recordStore.getRecordOrNull(key) != null) {
+            return;
+        }
+        if (backup) {
+            // the remaining time to live is not kept on backups, as with the other backup loads
+            recordStore.putFromLoadBackup(key, value);
+        } else if (expirationTime == Long.MAX_VALUE) {
+            recordStore.putFromLoad(key, value, DEFAULT_TTL);
+        } else {
+            recordStore.putFromLoad(key, value, Math.max(1, expirationTime - Clock.currentTimeMillis()));
+        }
+    }
+}
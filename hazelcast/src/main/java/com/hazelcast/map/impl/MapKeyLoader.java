@@ -255,26 +255,18 @@ public class MapKeyLoader {
     private void sendKeysInBatches(MapStoreContext mapStoreContext, boolean replaceExistingValues) throws Exception {
 
         int clusterSize = partitionService.getMemberPartitionsMap().size();
+        boolean partitioned = mapStoreContext.isPartitionedMapLoader();
         Iterator<Object> keys = null;
         Throwable loadError = null;
 
         try {
-            Iterable<Object> allKeys = mapStoreContext.loadAllKeys();
-            keys = allKeys.iterator();
-            Iterator<Data> dataKeys = map(keys, toData);
-            int mapMaxSize = clusterSize * maxSizePerNode;
-
-            if (mapMaxSize > 0) {
-                dataKeys = limit(dataKeys, mapMaxSize);
-            }
-
-            Iterator<Entry<Integer, Data>> partitionsAndKeys = map(dataKeys, toPartition(partitionService));
-            Iterator<Map<Integer, List<Data>>> batches = toBatches(partitionsAndKeys, maxBatch);
-
-            List<Future> futures = new ArrayList<Future>();
-            while (batches.hasNext()) {
-                Map<Integer, List<Data>> batch = batches.next();
-                futures.addAll(sendBatch(batch, replaceExistingValues));
+            List<Future> futures;
+            if (partitioned) {
+                futures = sendLoadPartition(replaceExistingValues);
+            } else {
+                Iterable<Object> allKeys = mapStoreContext.loadAllKeys();
+                keys = allKeys.iterator();
+                futures = sendKeyBatches(keys, (long) clusterSize * maxSizePerNode, replaceExistingValues);
             }
 
             // This acts as a barrier to prevent re-ordering of key distribution operations (LoadAllOperation)
@@ -282,12 +274,14 @@ public class MapKeyLoader {
             // Re-ordering of in-flight operations can happen during a partition migration. We are waiting here
             // for all LoadAllOperation(s) to be ACKed by receivers and only then we send them the LoadStatusOperation
             // See https://github.com/hazelcast/hazelcast/issues/4024 for additional details
+            // With a PartitionedMapLoader the partitions send their keys themselves and each one sends its own
+            // LoadStatusOperation once its keys were ACKed, see loadPartitionKeys.
             FutureUtil.waitWithDeadline(futures, KEY_DISTRIBUTION_TIMEOUT_MINUTES, TimeUnit.MINUTES);
 
         } catch (Exception caught) {
             loadError = caught;
         } finally {
-            sendLoadCompleted(clusterSize, loadError);
+            sendLoadCompleted(clusterSize, loadError, !partitioned || loadError != null);
 
             if (keys instanceof Closeable) {
                 closeResource((Closeable) keys);
@@ -295,6 +289,69 @@ public class MapKeyLoader {
         }
     }
 
+    private List<Future> sendKeyBatches(Iterator<Object> keys, long maxSize, boolean replaceExistingValues) {
+        Iterator<Data> dataKeys = map(keys, toData);
+        if (maxSize > 0) {
+            dataKeys = limit(dataKeys, (int) Math.min(maxSize, Integer.MAX_VALUE));
+        }
+
+        Iterator<Entry<Integer, Data>> partitionsAndKeys = map(dataKeys, toPartition(partitionService));
+        Iterator<Map<Integer, List<Data>>> batches = toBatches(partitionsAndKeys, maxBatch);
+
+        List<Future> futures = new ArrayList<Future>();
+        while (batches.hasNext()) {
+            Map<Integer, List<Data>> batch = batches.next();
+            futures.addAll(sendBatch(batch, replaceExistingValues));
+        }
+        return futures;
+    }
+
+    /**
+     * Makes every partition load its own keys from the {@link com.hazelcast.core.PartitionedMapLoader}.
+     */
+    private List<Future> sendLoadPartition(boolean replaceExistingValues) {
+        int partitionCount = partitionService.getPartitionCount();
+        List<Future> futures = new ArrayList<Future>(partitionCount);
+        for (int partitionId = 0; partitionId < partitionCount; partitionId++) {
+            MapOperation op = operationProvider.createLoadPartitionOperation(mapName, replaceExistingValues);
+            futures.add(opService.invokeOnPartition(SERVICE_NAME, op, partitionId));
+        }
+        return futures;
+    }
+
+    /**
+     * Loads the keys of this partition from the {@link com.hazelcast.core.PartitionedMapLoader} and sends them to
+     * the partition in batches. The max size per node is spread evenly over the partitions. Once all batches are
+     * ACKed the partition is notified that its loading finished, like the SENDER does for a plain MapLoader.
+     */
+    public Future<?> loadPartitionKeys(final MapStoreContext mapStoreContext, final boolean replaceExistingValues) {
+        return execService.submit(MAP_LOAD_ALL_KEYS_EXECUTOR, new Callable<Object>() {
+            @Override
+            public Object call() throws Exception {
+                int clusterSize = partitionService.getMemberPartitionsMap().size();
+                int partitionCount = partitionService.getPartitionCount();
+                long partitionMaxSize = ((long) clusterSize * maxSizePerNode + partitionCount - 1) / partitionCount;
+
+                Iterator<Object> keys = null;
+                Throwable loadError = null;
+                try {
+                    keys = mapStoreContext.loadAllKeys(partitionId).iterator();
+                    List<Future> futures = sendKeyBatches(keys, partitionMaxSize, replaceExistingValues);
+                    FutureUtil.waitWithDeadline(futures, KEY_DISTRIBUTION_TIMEOUT_MINUTES, TimeUnit.MINUTES);
+                } catch (Exception e) {
+                    loadError = e;
+                    throw e;
+                } finally {
+                    sendLoadCompleted(loadError);
+                    if (keys instanceof Closeable) {
+                        closeResource((Closeable) keys);
+                    }
+                }
+                return null;
+            }
+        });
+    }
+
     private List<Future> sendBatch(Map<Integer, List<Data>> batch, boolean replaceExistingValues) {
         Set<Entry<Integer, List<Data>>> entries = batch.entrySet();
         List<Future> futures = new ArrayList<Future>(entries.size());
@@ -310,10 +367,12 @@ public class MapKeyLoader {
         return futures;
     }
 
-    private void sendLoadCompleted(int clusterSize, Throwable exception) throws Exception {
+    private void sendLoadCompleted(int clusterSize, Throwable exception, boolean notifyPartitions) throws Exception {
 
-        // notify all partitions about loading status: finished or exception encountered
-        opService.invokeOnAllPartitions(SERVICE_NAME, new LoadStatusOperationFactory(mapName, exception));
+        if (notifyPartitions) {
+            // notify all partitions about loading status: finished or exception encountered
+            opService.invokeOnAllPartitions(SERVICE_NAME, new LoadStatusOperationFactory(mapName, exception));
+        }
 
         // notify SENDER_BACKUP
         if (hasBackup && clusterSize > 1) {
@@ -47,6 +47,10 @@ public class MapManagedService implements ManagedService {
         }
         mapServiceContext.initPartitionsContainers();
         mapServiceContext.getExpirationManager().start();
+        mapServiceContext.getChunkedMigrationManager().start();
+        mapServiceContext.getMapLoadingManager().start();
+        mapServiceContext.getWriteBehindJournalManager().start();
+        mapServiceContext.getWriteBehindFlowControl().start();
     }
 
     @Override
@@ -61,6 +65,8 @@ public class MapManagedService implements ManagedService {
             mapServiceContext.flushMaps();
             mapServiceContext.destroyMapStores();
         }
+        // close the write-behind journals before the partitions are cleared, keep them if the queues were not flushed
+        mapServiceContext.getWriteBehindJournalManager().shutdown(!terminate);
 
         // clear internal resources, these are the resources wholly managed by hazelcast,
         // means they have no external interaction like map-stores.
@@ -16,16 +16,20 @@
 
 package com.hazelcast.map.impl;
 
+import com.hazelcast.core.ExecutionCallback;
 import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.map.impl.mapstore.MapDataStore;
+import com.hazelcast.map.impl.mapstore.writebehind.WriteBehindStore;
 import com.hazelcast.map.impl.operation.MapReplicationOperation;
 import com.hazelcast.map.impl.record.Record;
 import com.hazelcast.map.impl.record.Records;
 import com.hazelcast.map.impl.recordstore.RecordStore;
 import com.hazelcast.nio.serialization.Data;
 import com.hazelcast.partition.MigrationEndpoint;
+import com.hazelcast.partition.MigrationInfo;
 import com.hazelcast.query.impl.Indexes;
 import com.hazelcast.query.impl.QueryableEntry;
-import com.hazelcast.spi.MigrationAwareService;
+import com.hazelcast.spi.ChunkedMigrationAwareService;
 import com.hazelcast.spi.Operation;
 import com.hazelcast.spi.PartitionMigrationEvent;
 import com.hazelcast.spi.PartitionReplicationEvent;
@@ -38,7 +42,7 @@ import java.util.Iterator;
  *
  * @see MapService
  */
-class MapMigrationAwareService implements MigrationAwareService {
+class MapMigrationAwareService implements ChunkedMigrationAwareService {
 
     protected final MapServiceContext mapServiceContext;
     protected final SerializationService serializationService;
@@ -62,25 +66,60 @@ class MapMigrationAwareService implements MigrationAwareService {
         return operation;
     }
 
+    @Override
+    public void startChunkedMigration(MigrationInfo migrationInfo, ExecutionCallback<Boolean> callback) {
+        mapServiceContext.getChunkedMigrationManager().startChunkedMigration(migrationInfo, callback);
+    }
+
+    @Override
+    public Operation prepareChunkedReplicationOperation(PartitionReplicationEvent event) {
+        return mapServiceContext.getChunkedMigrationManager().prepareChunkedReplicationOperation(event);
+    }
+
+    @Override
+    public void cancelChunkedMigration(int partitionId) {
+        mapServiceContext.getChunkedMigrationManager().cancelChunkedMigration(partitionId);
+    }
+
     @Override
     public void commitMigration(PartitionMigrationEvent event) {
         migrateIndex(event);
         if (event.getMigrationEndpoint() == MigrationEndpoint.SOURCE) {
+            mapServiceContext.getChunkedMigrationManager().onMigrationCommitted(event.getPartitionId());
             mapServiceContext.clearPartitionData(event.getPartitionId());
+        } else {
+            journalWriteBehindQueues(event.getPartitionId());
         }
         mapServiceContext.reloadOwnedPartitions();
     }
 
+    /**
+     * Journals the write-behind queues of a partition this member became the owner of, by a migration or by the
+     * promotion of a backup. Only the owner journals its queues.
+     */
+    private void journalWriteBehindQueues(int partitionId) {
+        PartitionContainer container = mapServiceContext.getPartitionContainer(partitionId);
+        for (RecordStore recordStore : container.getMaps().values()) {
+            MapDataStore mapDataStore = recordStore.getMapDataStore();
+            if (mapDataStore instanceof WriteBehindStore) {
+                ((WriteBehindStore) mapDataStore).journalQueue();
+            }
+        }
+    }
+
     @Override
     public void rollbackMigration(PartitionMigrationEvent event) {
         if (event.getMigrationEndpoint() == MigrationEndpoint.DESTINATION) {
             mapServiceContext.clearPartitionData(event.getPartitionId());
+        } else {
+            mapServiceContext.getChunkedMigrationManager().cancelChunkedMigration(event.getPartitionId());
         }
         mapServiceContext.reloadOwnedPartitions();
     }
 
     @Override
     public void clearPartitionReplica(int partitionId) {
+        mapServiceContext.getChunkedMigrationManager().cancelChunkedMigration(partitionId);
         mapServiceContext.clearPartitionData(partitionId);
     }
 
@@ -24,6 +24,7 @@ import com.hazelcast.map.impl.client.MapAddIndexRequest;
 import com.hazelcast.map.impl.client.MapAddInterceptorRequest;
 import com.hazelcast.map.impl.client.MapAddNearCacheEntryListenerRequest;
 import com.hazelcast.map.impl.client.MapAddPartitionLostListenerRequest;
+import com.hazelcast.map.impl.client.MapAggregateRequest;
 import com.hazelcast.map.impl.client.MapClearNearCacheRequest;
 import com.hazelcast.map.impl.client.MapClearRequest;
 import com.hazelcast.map.impl.client.MapContainsKeyRequest;
@@ -127,6 +128,7 @@ public class MapPortableHook implements PortableHook {
     public static final int ADD_MAP_PARTITION_LOST_LISTENER = 51;
     public static final int REMOVE_MAP_PARTITION_LOST_LISTENER = 52;
     public static final int CLEAR_NEAR_CACHE = 53;
+    public static final int AGGREGATE = 54;
 
     @Override
     public int getFactoryId() {
@@ -137,7 +139,7 @@ public class MapPortableHook implements PortableHook {
     public PortableFactory createFactory() {
         return new PortableFactory() {
             final ConstructorFunction<Integer, Portable>[] constructors
-                    = new ConstructorFunction[CLEAR_NEAR_CACHE + 1];
+                    = new ConstructorFunction[AGGREGATE + 1];
 
             {
                 constructors[GET] = new ConstructorFunction<Integer, Portable>() {
@@ -414,6 +416,12 @@ public class MapPortableHook implements PortableHook {
                         return new MapClearNearCacheRequest();
                     }
                 };
+
+                constructors[AGGREGATE] = new ConstructorFunction<Integer, Portable>() {
+                    public Portable createNew(Integer arg) {
+                        return new MapAggregateRequest();
+                    }
+                };
             }
 
             public Portable create(int classId) {
@@ -22,6 +22,7 @@ import com.hazelcast.map.impl.proxy.MapProxyImpl;
 import com.hazelcast.map.impl.proxy.NearCachedMapProxyImpl;
 import com.hazelcast.spi.NodeEngine;
 import com.hazelcast.spi.RemoteService;
+import com.hazelcast.spi.impl.NodeEngineImpl;
 import java.util.Map;
 
 import static com.hazelcast.map.impl.MapService.SERVICE_NAME;
@@ -61,6 +62,7 @@ class MapRemoteService implements RemoteService {
         if (mapContainer != null) {
             mapServiceContext.getNearCacheProvider().destroyNearCache(name);
             mapContainer.getMapStoreContext().stop();
+            ((NodeEngineImpl) nodeEngine).getMetricsRegistry().deregister(mapContainer.getEvictor());
         }
     }
 
@@ -17,15 +17,19 @@
 package com.hazelcast.map.impl;
 
 import com.hazelcast.core.DistributedObject;
+import com.hazelcast.core.ExecutionCallback;
+import com.hazelcast.internal.hotrestart.HotRestartSupportingService;
 import com.hazelcast.map.impl.event.MapEventPublishingService;
 import com.hazelcast.monitor.LocalMapStats;
+import com.hazelcast.nio.serialization.Data;
 import com.hazelcast.partition.InternalPartitionLostEvent;
+import com.hazelcast.partition.MigrationInfo;
+import com.hazelcast.spi.ChunkedMigrationAwareService;
 import com.hazelcast.spi.ClientAwareService;
 import com.hazelcast.spi.EventFilter;
 import com.hazelcast.spi.EventPublishingService;
 import com.hazelcast.spi.EventRegistration;
 import com.hazelcast.spi.ManagedService;
-import com.hazelcast.spi.MigrationAwareService;
 import com.hazelcast.spi.NodeEngine;
 import com.hazelcast.spi.NotifiableEventListener;
 import com.hazelcast.spi.Operation;
@@ -63,17 +67,19 @@ import static com.hazelcast.core.EntryEventType.INVALIDATION;
  * @see MapPartitionAwareService
  * @see MapQuorumAwareService
  * @see MapClientAwareService
+ * @see MapHotRestartSupportingService
  * @see MapServiceContext
  */
-public class MapService implements ManagedService, MigrationAwareService,
+public class MapService implements ManagedService, ChunkedMigrationAwareService,
         TransactionalService, RemoteService, EventPublishingService<Object, ListenerAdapter>,
         PostJoinAwareService, SplitBrainHandlerService, ReplicationSupportingService, StatisticsAwareService,
-        PartitionAwareService, ClientAwareService, QuorumAwareService, NotifiableEventListener {
+        PartitionAwareService, ClientAwareService, QuorumAwareService, NotifiableEventListener,
+        HotRestartSupportingService {
 
     public static final String SERVICE_NAME = "hz:impl:mapService";
 
     protected ManagedService managedService;
-    protected MigrationAwareService migrationAwareService;
+    protected ChunkedMigrationAwareService migrationAwareService;
     protected TransactionalService transactionalService;
     protected RemoteService remoteService;
     protected EventPublishingService eventPublishingService;
@@ -84,6 +90,7 @@ public class MapService implements ManagedService, MigrationAwareService,
     protected PartitionAwareService partitionAwareService;
     protected ClientAwareService clientAwareService;
     protected QuorumAwareService quorumAwareService;
+    protected HotRestartSupportingService hotRestartSupportingService;
     protected MapServiceContext mapServiceContext;
 
     public MapService() {
@@ -114,6 +121,21 @@ public class MapService implements ManagedService, MigrationAwareService,
         return migrationAwareService.prepareReplicationOperation(event);
     }
 
+    @Override
+    public void startChunkedMigration(MigrationInfo migrationInfo, ExecutionCallback<Boolean> callback) {
+        migrationAwareService.startChunkedMigration(migrationInfo, callback);
+    }
+
+    @Override
+    public Operation prepareChunkedReplicationOperation(PartitionReplicationEvent event) {
+        return migrationAwareService.prepareChunkedReplicationOperation(event);
+    }
+
+    @Override
+    public void cancelChunkedMigration(int partitionId) {
+        migrationAwareService.cancelChunkedMigration(partitionId);
+    }
+
     @Override
     public void beforeMigration(PartitionMigrationEvent event) {
         migrationAwareService.beforeMigration(event);
@@ -154,6 +176,26 @@ public class MapService implements ManagedService, MigrationAwareService,
         replicationSupportingService.onReplicationEvent(replicationEvent);
     }
 
+    @Override
+    public void prepareRestore(String name, Data metadata) {
+        hotRestartSupportingService.prepareRestore(name, metadata);
+    }
+
+    @Override
+    public int getBackupCount(String name) {
+        return hotRestartSupportingService.getBackupCount(name);
+    }
+
+    @Override
+    public int getAsyncBackupCount(String name) {
+        return hotRestartSupportingService.getAsyncBackupCount(name);
+    }
+
+    @Override
+    public void restoreEntry(String name, int partitionId, Data key, Data value, long expirationTime, boolean backup) {
+        hotRestartSupportingService.restoreEntry(name, partitionId, key, value, expirationTime, backup);
+    }
+
     @Override
     public void onPartitionLost(InternalPartitionLostEvent partitionLostEvent) {
         partitionAwareService.onPartitionLost(partitionLostEvent);
@@ -19,6 +19,10 @@ package com.hazelcast.map.impl;
 import com.hazelcast.core.PartitioningStrategy;
 import com.hazelcast.map.impl.event.MapEventPublisher;
 import com.hazelcast.map.impl.eviction.ExpirationManager;
+import com.hazelcast.map.impl.mapstore.MapLoadingManager;
+import com.hazelcast.map.impl.mapstore.writebehind.WriteBehindFlowControl;
+import com.hazelcast.map.impl.mapstore.writebehind.WriteBehindJournalManager;
+import com.hazelcast.map.impl.migration.ChunkedMigrationManager;
 import com.hazelcast.map.impl.nearcache.NearCacheProvider;
 import com.hazelcast.map.impl.operation.MapOperationProvider;
 import com.hazelcast.map.impl.query.MapQueryEngine;
@@ -95,6 +99,14 @@ public interface MapServiceContext extends MapServiceContextInterceptorSupport,
 
     ExpirationManager getExpirationManager();
 
+    ChunkedMigrationManager getChunkedMigrationManager();
+
+    MapLoadingManager getMapLoadingManager();
+
+    WriteBehindJournalManager getWriteBehindJournalManager();
+
+    WriteBehindFlowControl getWriteBehindFlowControl();
+
     void setService(MapService mapService);
 
     NodeEngine getNodeEngine();
@@ -24,6 +24,10 @@ import com.hazelcast.map.MapInterceptor;
 import com.hazelcast.map.impl.event.MapEventPublisher;
 import com.hazelcast.map.impl.event.MapEventPublisherImpl;
 import com.hazelcast.map.impl.eviction.ExpirationManager;
+import com.hazelcast.map.impl.mapstore.MapLoadingManager;
+import com.hazelcast.map.impl.mapstore.writebehind.WriteBehindFlowControl;
+import com.hazelcast.map.impl.mapstore.writebehind.WriteBehindJournalManager;
+import com.hazelcast.map.impl.migration.ChunkedMigrationManager;
 import com.hazelcast.map.impl.nearcache.NearCacheProvider;
 import com.hazelcast.map.impl.operation.BasePutOperation;
 import com.hazelcast.map.impl.operation.BaseRemoveOperation;
@@ -95,6 +99,10 @@ class MapServiceContextImpl implements MapServiceContext {
      */
     protected final AtomicInteger writeBehindQueueItemCounter = new AtomicInteger(0);
     protected final ExpirationManager expirationManager;
+    protected final ChunkedMigrationManager chunkedMigrationManager;
+    protected final MapLoadingManager mapLoadingManager;
+    protected final WriteBehindJournalManager writeBehindJournalManager;
+    protected final WriteBehindFlowControl writeBehindFlowControl;
     protected final NearCacheProvider nearCacheProvider;
     protected final LocalMapStatsProvider localMapStatsProvider;
     protected final MergePolicyProvider mergePolicyProvider;
@@ -110,6 +118,10 @@ class MapServiceContextImpl implements MapServiceContext {
         this.mapContainers = new ConcurrentHashMap<String, MapContainer>();
         this.ownedPartitions = new AtomicReference<Collection<Integer>>();
         this.expirationManager = new ExpirationManager(this, nodeEngine);
+        this.chunkedMigrationManager = new ChunkedMigrationManager(this);
+        this.mapLoadingManager = new MapLoadingManager(this);
+        this.writeBehindJournalManager = new WriteBehindJournalManager(this);
+        this.writeBehindFlowControl = new WriteBehindFlowControl(this);
         this.nearCacheProvider = createNearCacheProvider();
         this.localMapStatsProvider = createLocalMapStatsProvider();
         this.mergePolicyProvider = new MergePolicyProvider(nodeEngine);
@@ -290,6 +302,26 @@ class MapServiceContextImpl implements MapServiceContext {
         return expirationManager;
     }
 
+    @Override
+    public ChunkedMigrationManager getChunkedMigrationManager() {
+        return chunkedMigrationManager;
+    }
+
+    @Override
+    public MapLoadingManager getMapLoadingManager() {
+        return mapLoadingManager;
+    }
+
+    @Override
+    public WriteBehindJournalManager getWriteBehindJournalManager() {
+        return writeBehindJournalManager;
+    }
+
+    @Override
+    public WriteBehindFlowControl getWriteBehindFlowControl() {
+        return writeBehindFlowControl;
+    }
+
     @Override
     public NodeEngine getNodeEngine() {
         return nodeEngine;
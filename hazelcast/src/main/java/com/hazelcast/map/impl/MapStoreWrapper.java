@@ -20,6 +20,7 @@ import com.hazelcast.core.HazelcastInstance;
 import com.hazelcast.core.MapLoader;
 import com.hazelcast.core.MapLoaderLifecycleSupport;
 import com.hazelcast.core.MapStore;
+import com.hazelcast.core.PartitionedMapLoader;
 import com.hazelcast.core.PostProcessingMapStore;
 import com.hazelcast.query.impl.getters.ReflectionHelper;
 
@@ -126,6 +127,16 @@ public class MapStoreWrapper implements MapStore, MapLoaderLifecycleSupport {
         return null;
     }
 
+    /**
+     * Loads the keys of the given partition, see {@link PartitionedMapLoader#loadAllKeys(int)}.
+     */
+    public Iterable<Object> loadAllKeys(int partitionId) {
+        if (isPartitionedMapLoader()) {
+            return ((PartitionedMapLoader) mapLoader).loadAllKeys(partitionId);
+        }
+        return null;
+    }
+
     @Override
     public Object load(Object key) {
         if (isMapLoader()) {
@@ -149,6 +160,10 @@ public class MapStoreWrapper implements MapStore, MapLoaderLifecycleSupport {
         return impl;
     }
 
+    public boolean isPartitionedMapLoader() {
+        return mapLoader instanceof PartitionedMapLoader;
+    }
+
     public boolean isPostProcessingMapStore() {
         return isMapStore() && mapStore instanceof PostProcessingMapStore;
     }
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.client;
+
+import com.hazelcast.aggregation.Aggregator;
+import com.hazelcast.client.impl.client.InvocationClientRequest;
+import com.hazelcast.client.impl.client.RetryableRequest;
+import com.hazelcast.client.impl.client.SecureRequest;
+import com.hazelcast.map.impl.MapPortableHook;
+import com.hazelcast.map.impl.MapService;
+import com.hazelcast.map.impl.query.MapQueryEngine;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.Portable;
+import com.hazelcast.nio.serialization.PortableReader;
+import com.hazelcast.nio.serialization.PortableWriter;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.security.permission.ActionConstants;
+import com.hazelcast.security.permission.MapPermission;
+
+import java.io.IOException;
+import java.security.Permission;
+
+/**
+ * Runs an aggregation for a client like {@link com.hazelcast.core.IMap#aggregate(Aggregator, Predicate)}: the members
+ * aggregate their own partitions by the {@link com.hazelcast.map.impl.query.AggregationOperation}.
+ */
+public final class MapAggregateRequest extends InvocationClientRequest implements Portable, SecureRequest,
+        RetryableRequest {
+
+    private String name;
+    private Aggregator aggregator;
+    private Predicate predicate;
+
+    public MapAggregateRequest() {
+    }
+
+    public MapAggregateRequest(String name, Aggregator aggregator, Predicate predicate) {
+        this.name = name;
+        this.aggregator = aggregator;
+        this.predicate = predicate;
+    }
+
+    @Override
+    protected void invoke() {
+        MapService mapService = getService();
+        MapQueryEngine queryEngine = mapService.getMapServiceContext().getMapQueryEngine(name);
+        Object result = queryEngine.invokeAggregation(name, predicate, aggregator);
+        getEndpoint().sendResponse(result, getCallId());
+    }
+
+    @Override
+    public int getFactoryId() {
+        return MapPortableHook.F_ID;
+    }
+
+    @Override
+    public int getClassId() {
+        return MapPortableHook.AGGREGATE;
+    }
+
+    @Override
+    public String getServiceName() {
+        return MapService.SERVICE_NAME;
+    }
+
+    @Override
+    public Permission getRequiredPermission() {
+        return new MapPermission(name, ActionConstants.ACTION_READ);
+    }
+
+    @Override
+    public String getDistributedObjectName() {
+        return name;
+    }
+
+    @Override
+    public String getMethodName() {
+        return "aggregate";
+    }
+
+    @Override
+    public Object[] getParameters() {
+        return new Object[]{aggregator, predicate};
+    }
+
+    @Override
+    public void write(PortableWriter writer) throws IOException {
+        writer.writeUTF("n", name);
+        ObjectDataOutput out = writer.getRawDataOutput();
+        out.writeObject(aggregator);
+        out.writeObject(predicate);
+    }
+
+    @Override
+    public void read(PortableReader reader) throws IOException {
+        name = reader.readUTF("n");
+        ObjectDataInput in = reader.getRawDataInput();
+        aggregator = in.readObject();
+        predicate = in.readObject();
+    }
+}
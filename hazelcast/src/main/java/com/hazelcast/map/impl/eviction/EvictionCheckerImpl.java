@@ -22,10 +22,13 @@ import com.hazelcast.map.impl.MapContainer;
 import com.hazelcast.map.impl.MapServiceContext;
 import com.hazelcast.map.impl.PartitionContainer;
 import com.hazelcast.map.impl.recordstore.RecordStore;
+import com.hazelcast.memory.MemoryManager;
+import com.hazelcast.memory.MemoryStats;
 import com.hazelcast.nio.Address;
 import com.hazelcast.partition.InternalPartition;
 import com.hazelcast.partition.InternalPartitionService;
 import com.hazelcast.spi.NodeEngine;
+import com.hazelcast.spi.impl.NodeEngineImpl;
 import com.hazelcast.util.MemoryInfoAccessor;
 import com.hazelcast.util.RuntimeMemoryInfoAccessor;
 
@@ -87,6 +90,18 @@ public class EvictionCheckerImpl implements EvictionChecker {
             case FREE_HEAP_SIZE:
                 result = checkFreeHeapSizeEviction(maxSizeConfig);
                 break;
+            case USED_NATIVE_MEMORY_SIZE:
+                result = checkNativeMemorySizeEviction(maxSizeConfig);
+                break;
+            case USED_NATIVE_MEMORY_PERCENTAGE:
+                result = checkNativeMemoryPercentageEviction(maxSizeConfig);
+                break;
+            case FREE_NATIVE_MEMORY_SIZE:
+                result = checkFreeNativeMemorySizeEviction(maxSizeConfig);
+                break;
+            case FREE_NATIVE_MEMORY_PERCENTAGE:
+                result = checkFreeNativeMemoryPercentageEviction(maxSizeConfig);
+                break;
             default:
                 throw new IllegalArgumentException("Not an appropriate max size policy [" + maxSizePolicy + ']');
         }
@@ -156,6 +171,56 @@ public class EvictionCheckerImpl implements EvictionChecker {
         return freeHeapPercentage > (1D * ONE_HUNDRED_PERCENT * currentFreeHeapSize / total);
     }
 
+    protected boolean checkNativeMemorySizeEviction(MaxSizeConfig maxSizeConfig) {
+        MemoryStats memoryStats = getNativeMemoryStats();
+        if (memoryStats == null) {
+            return false;
+        }
+        final double maxSize = maxSizeConfig.getSize();
+        return maxSize < (1D * memoryStats.getUsedNativeMemory() / ONE_MEGABYTE);
+    }
+
+    protected boolean checkNativeMemoryPercentageEviction(MaxSizeConfig maxSizeConfig) {
+        MemoryStats memoryStats = getNativeMemoryStats();
+        if (memoryStats == null) {
+            return false;
+        }
+        final double maxSize = maxSizeConfig.getSize();
+        final long total = memoryStats.getMaxNativeMemory();
+        return maxSize < (1D * ONE_HUNDRED_PERCENT * memoryStats.getUsedNativeMemory() / total);
+    }
+
+    protected boolean checkFreeNativeMemorySizeEviction(MaxSizeConfig maxSizeConfig) {
+        MemoryStats memoryStats = getNativeMemoryStats();
+        if (memoryStats == null) {
+            return false;
+        }
+        final double minFreeSize = maxSizeConfig.getSize();
+        return minFreeSize > (1D * memoryStats.getFreeNativeMemory() / ONE_MEGABYTE);
+    }
+
+    protected boolean checkFreeNativeMemoryPercentageEviction(MaxSizeConfig maxSizeConfig) {
+        MemoryStats memoryStats = getNativeMemoryStats();
+        if (memoryStats == null) {
+            return false;
+        }
+        final double freePercentage = maxSizeConfig.getSize();
+        final long total = memoryStats.getMaxNativeMemory();
+        return freePercentage > (1D * ONE_HUNDRED_PERCENT * memoryStats.getFreeNativeMemory() / total);
+    }
+
+    /**
+     * Native memory based policies are checked against the native memory of this node,
+     * which is shared by all {@link com.hazelcast.config.InMemoryFormat#NATIVE} maps.
+     *
+     * @return native memory statistics or {@code null} if native memory is not enabled.
+     */
+    protected MemoryStats getNativeMemoryStats() {
+        NodeEngineImpl nodeEngine = (NodeEngineImpl) mapServiceContext.getNodeEngine();
+        MemoryManager memoryManager = nodeEngine.getNode().getNodeExtension().getNativeMemoryManager();
+        return memoryManager == null ? null : memoryManager.getMemoryStats();
+    }
+
     protected long getTotalMemory() {
         return memoryInfoAccessor.getTotalMemory();
     }
@@ -19,6 +19,15 @@ package com.hazelcast.map.impl.eviction;
 import com.hazelcast.config.EvictionPolicy;
 import com.hazelcast.config.MapConfig;
 import com.hazelcast.config.MaxSizeConfig;
+import com.hazelcast.internal.eviction.Evictable;
+import com.hazelcast.internal.eviction.EvictionPolicyEvaluator;
+import com.hazelcast.internal.eviction.EvictionStrategy;
+import com.hazelcast.internal.eviction.EvictionStrategyProvider;
+import com.hazelcast.internal.eviction.impl.evaluator.AbstractEvictionPolicyEvaluator;
+import com.hazelcast.internal.eviction.impl.evaluator.LFUEvictionPolicyEvaluator;
+import com.hazelcast.internal.eviction.impl.evaluator.LRUEvictionPolicyEvaluator;
+import com.hazelcast.internal.eviction.impl.evaluator.TinyLFUEvictionPolicyEvaluator;
+import com.hazelcast.internal.metrics.Probe;
 import com.hazelcast.map.impl.MapServiceContext;
 import com.hazelcast.map.impl.record.Record;
 import com.hazelcast.map.impl.recordstore.RecordStore;
@@ -26,9 +35,14 @@ import com.hazelcast.nio.serialization.Data;
 import com.hazelcast.partition.InternalPartition;
 import com.hazelcast.partition.InternalPartitionService;
 import com.hazelcast.util.Clock;
+import com.hazelcast.util.counters.MwCounter;
 
-import java.util.Arrays;
-import java.util.Iterator;
+import java.util.Comparator;
+
+import static com.hazelcast.internal.eviction.EvictionChecker.EVICT_ALWAYS;
+import static com.hazelcast.internal.metrics.ProbeLevel.MANDATORY;
+import static com.hazelcast.util.QuickMath.compareIntegers;
+import static com.hazelcast.util.counters.MwCounter.newMwCounter;
 
 /**
  * Eviction helper methods.
@@ -37,8 +51,23 @@ public class EvictorImpl implements Evictor {
 
     protected static final int ONE_HUNDRED_PERCENT = 100;
 
+    private static final AbstractEvictionPolicyEvaluator<Data, MapEvictionCandidate> LRU_EVALUATOR
+            = new LRUEvictionPolicyEvaluator<Data, MapEvictionCandidate>();
+    private static final AbstractEvictionPolicyEvaluator<Data, MapEvictionCandidate> LFU_EVALUATOR
+            = new LFUEvictionPolicyEvaluator<Data, MapEvictionCandidate>();
+    private static final Comparator<Evictable> LRU_ORDER = LRU_EVALUATOR.getEvictableComparator();
+
     protected final MapServiceContext mapServiceContext;
     protected final EvictionChecker evictionChecker;
+    protected final EvictionStrategy evictionStrategy = EvictionStrategyProvider.getDefaultEvictionStrategy();
+
+    // cumulative, so any number of readers can compute rates from them
+    @Probe(name = "evictedCount", level = MANDATORY)
+    private final MwCounter evictedCounter = newMwCounter();
+    @Probe(name = "evictionRunCount")
+    private final MwCounter evictionRunCounter = newMwCounter();
+    @Probe(name = "evictionTimeNanos")
+    private final MwCounter evictionTimeNanos = newMwCounter();
 
     public EvictorImpl(EvictionChecker evictionChecker, MapServiceContext mapServiceContext) {
         this.evictionChecker = evictionChecker;
@@ -50,39 +79,25 @@ public class EvictorImpl implements Evictor {
         return evictionChecker;
     }
 
+    /**
+     * Evicts {@code removalSize} records, each chosen by the eviction policy among a sample of records, so the cost
+     * of an eviction run grows with the number of evicted records rather than with the size of the record store.
+     */
     @Override
+    @SuppressWarnings("unchecked")
     public void removeSize(int removalSize, RecordStore recordStore) {
-        long now = Clock.currentTimeMillis();
-        MapConfig mapConfig = recordStore.getMapContainer().getMapConfig();
-
-        boolean backup = isBackup(recordStore);
-
-        final EvictionPolicy evictionPolicy = mapConfig.getEvictionPolicy();
-        // criteria is a long value, like last access times or hits,
-        // used for calculating LFU or LRU.
-        final long[] criterias = createAndPopulateEvictionCriteriaArray(recordStore, evictionPolicy);
-        if (criterias == null) {
-            return;
-        }
-        Arrays.sort(criterias);
-        // check in case record store size may be smaller than evictable size.
-        final int evictableBaseIndex = getEvictionStartIndex(criterias, removalSize);
-        final long criteriaValue = criterias[evictableBaseIndex];
-        int evictedRecordCounter = 0;
-        final Iterator<Record> iterator = recordStore.iterator();
-        while (iterator.hasNext()) {
-            Record record = iterator.next();
-            Data key = record.getKey();
-            long value = getEvictionCriteriaValue(record, evictionPolicy);
-            if (value <= criteriaValue) {
-                if (tryEvict(key, record, recordStore, backup, now)) {
-                    evictedRecordCounter++;
-                }
-            }
-            if (evictedRecordCounter >= removalSize) {
-                break;
-            }
+        long start = System.nanoTime();
+        EvictionPolicyEvaluator evictionPolicyEvaluator = getEvictionPolicyEvaluator(recordStore);
+        SampleableRecordStore sampleableRecordStore = new SampleableRecordStore(this, recordStore, isBackup(recordStore),
+                Clock.currentTimeMillis(), evictionPolicyEvaluator == LFU_EVALUATOR,
+                getEvictableFirstComparator(evictionPolicyEvaluator));
+        int evictedCount = 0;
+        for (int i = 0; i < removalSize && recordStore.size() > 0; i++) {
+            evictedCount += evictionStrategy.evict(sampleableRecordStore, evictionPolicyEvaluator, EVICT_ALWAYS, null);
         }
+        evictedCounter.inc(evictedCount);
+        evictionRunCounter.inc();
+        evictionTimeNanos.inc(System.nanoTime() - start);
     }
 
     protected boolean isBackup(RecordStore recordStore) {
@@ -109,45 +124,6 @@ public class EvictorImpl implements Evictor {
         return true;
     }
 
-    protected long[] createAndPopulateEvictionCriteriaArray(RecordStore recordStore,
-                                                            EvictionPolicy evictionPolicy) {
-        final int size = recordStore.size();
-        long[] criterias = null;
-        int index = 0;
-        final Iterator<Record> iterator = recordStore.iterator();
-        while (iterator.hasNext()) {
-            Record record = iterator.next();
-            if (criterias == null) {
-                criterias = new long[size];
-            }
-            criterias[index] = getEvictionCriteriaValue(record, evictionPolicy);
-            index++;
-            //in case size may change (increase or decrease) when iterating.
-            if (index == size) {
-                break;
-            }
-        }
-        if (criterias == null) {
-            return null;
-        }
-        // just in case there may be unassigned indexes in criterias array due to size variances
-        // assign them to Long.MAX_VALUE so when sorting asc they will locate
-        // in the upper array indexes and we wont care about them.
-        if (index < criterias.length) {
-            for (int i = index; i < criterias.length; i++) {
-                criterias[i] = Long.MAX_VALUE;
-            }
-        }
-        return criterias;
-    }
-
-    protected int getEvictionStartIndex(long[] criterias, int evictableSize) {
-        final int length = criterias.length;
-        final int sizeToEvict = Math.min(evictableSize, length);
-        final int index = sizeToEvict - 1;
-        return index < 0 ? 0 : index;
-    }
-
     @Override
     public int findRemovalSize(RecordStore recordStore) {
         MapConfig mapConfig = recordStore.getMapContainer().getMapConfig();
@@ -182,17 +158,60 @@ public class EvictorImpl implements Evictor {
         }
     }
 
-    protected long getEvictionCriteriaValue(Record record, EvictionPolicy evictionPolicy) {
-        long value;
+    protected EvictionPolicyEvaluator getEvictionPolicyEvaluator(RecordStore recordStore) {
+        EvictionPolicy evictionPolicy = recordStore.getMapContainer().getMapConfig().getEvictionPolicy();
         switch (evictionPolicy) {
             case LRU:
+                return LRU_EVALUATOR;
             case LFU:
-                value = record.getEvictionCriteriaNumber();
-                break;
+                return LFU_EVALUATOR;
+            case TINY_LFU:
+                return recordStore.getAccessAwareEvictionPolicyEvaluator();
             default:
                 throw new IllegalArgumentException("Not an appropriate eviction policy [" + evictionPolicy + ']');
         }
-        return value;
     }
 
+    /**
+     * Returns the order in which the candidates which were sampled but not evicted are kept for the next sample. It is
+     * the order of the eviction policy, so the pool keeps the candidates the policy would evict first.
+     */
+    @SuppressWarnings("unchecked")
+    private static Comparator<? super MapEvictionCandidate> getEvictableFirstComparator(EvictionPolicyEvaluator evaluator) {
+        if (evaluator instanceof TinyLFUEvictionPolicyEvaluator) {
+            return new TinyLFUEvictableFirstComparator((TinyLFUEvictionPolicyEvaluator<Data, ?>) evaluator);
+        }
+        return ((AbstractEvictionPolicyEvaluator) evaluator).getEvictableComparator();
+    }
+
+    /**
+     * Returns the average duration of an eviction run since this evictor was created.
+     */
+    @Probe(name = "evictionLatencyNanos", level = MANDATORY)
+    public long getEvictionLatencyNanos() {
+        long runCount = evictionRunCounter.get();
+        return runCount == 0 ? 0 : evictionTimeNanos.get() / runCount;
+    }
+
+    public long getEvictedCount() {
+        return evictedCounter.get();
+    }
+
+    /**
+     * Orders the candidates by their estimated access frequency, then by the LRU order.
+     */
+    private static final class TinyLFUEvictableFirstComparator implements Comparator<MapEvictionCandidate> {
+
+        private final TinyLFUEvictionPolicyEvaluator<Data, ?> evaluator;
+
+        TinyLFUEvictableFirstComparator(TinyLFUEvictionPolicyEvaluator<Data, ?> evaluator) {
+            this.evaluator = evaluator;
+        }
+
+        @Override
+        public int compare(MapEvictionCandidate o1, MapEvictionCandidate o2) {
+            int result = compareIntegers(evaluator.frequency(o1.getAccessor()), evaluator.frequency(o2.getAccessor()));
+            return result != 0 ? result : LRU_ORDER.compare(o1, o2);
+        }
+    }
 }
@@ -16,27 +16,36 @@
 
 package com.hazelcast.map.impl.eviction;
 
+import com.hazelcast.internal.metrics.Probe;
 import com.hazelcast.map.impl.MapServiceContext;
 import com.hazelcast.map.impl.PartitionContainer;
-import com.hazelcast.map.impl.recordstore.RecordStore;
 import com.hazelcast.map.impl.operation.ClearExpiredOperation;
+import com.hazelcast.map.impl.recordstore.RecordStore;
 import com.hazelcast.partition.InternalPartition;
 import com.hazelcast.spi.NodeEngine;
 import com.hazelcast.spi.Operation;
 import com.hazelcast.spi.OperationService;
+import com.hazelcast.spi.impl.NodeEngineImpl;
 import com.hazelcast.util.Clock;
+import com.hazelcast.util.counters.MwCounter;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.List;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
-// TODO refactor
+import static com.hazelcast.internal.metrics.ProbeLevel.MANDATORY;
+import static com.hazelcast.util.counters.MwCounter.newMwCounter;
 
 /**
  * Manages expiration operations.
+ * <p/>
+ * The record stores schedule their keys in a {@link HierarchicalTimingWheel} by expiration time, so a
+ * {@link ClearExpiredOperation} only visits the records which are due. The task runs about every
+ * {@link HierarchicalTimingWheel#TICK_MILLIS tick}, which bounds the lag between the expiration time of an entry and
+ * its removal, but it only reads when the next key of each record store is due and sends operations to the
+ * partitions with due keys; a partition without due keys costs neither an operation nor a scan. Like before the
+ * timing wheels, a run sends at most a few operations per partition thread, continuing with the next partitions in
+ * the next run, so a burst of expirations does not flood the partition threads.
  *
  * @since 3.3
  */
@@ -44,7 +53,7 @@ public class ExpirationManager {
 
     private static final long INITIAL_DELAY = 5;
 
-    private static final long PERIOD = 5;
+    private static final long PERIOD = 1;
 
     private static final TimeUnit UNIT = TimeUnit.SECONDS;
 
@@ -52,116 +61,112 @@ public class ExpirationManager {
 
     private final MapServiceContext mapServiceContext;
 
+    // cumulative, so any number of readers can compute the average lag over their own interval
+    @Probe(name = "expiredCount", level = MANDATORY)
+    private final MwCounter expiredCounter = newMwCounter();
+    @Probe(name = "totalExpirationLagMillis", level = MANDATORY)
+    private final MwCounter totalExpirationLagMillis = newMwCounter();
+    @Probe(name = "maxExpirationLagMillis", level = MANDATORY)
+    private final AtomicLong maxExpirationLagMillis = new AtomicLong();
+
     public ExpirationManager(MapServiceContext mapServiceContext, NodeEngine nodeEngine) {
         this.nodeEngine = nodeEngine;
         this.mapServiceContext = mapServiceContext;
     }
 
     public void start() {
+        ((NodeEngineImpl) nodeEngine).getMetricsRegistry().scanAndRegister(this, "map.expiration");
         nodeEngine.getExecutionService()
                 .scheduleAtFixedRate(new ClearExpiredRecordsTask(), INITIAL_DELAY, PERIOD, UNIT);
     }
 
+    /**
+     * Records the expiration of an entry by its timing wheel.
+     *
+     * @param lagMillis time between the expiration time of the entry and its removal
+     */
+    public void onExpired(long lagMillis) {
+        expiredCounter.inc();
+        totalExpirationLagMillis.inc(lagMillis);
+        long max = maxExpirationLagMillis.get();
+        while (lagMillis > max && !maxExpirationLagMillis.compareAndSet(max, lagMillis)) {
+            max = maxExpirationLagMillis.get();
+        }
+    }
+
+    /**
+     * Returns the sum of the lags between the expiration time of the expired entries and their removal.
+     */
+    public long getTotalExpirationLagMillis() {
+        return totalExpirationLagMillis.get();
+    }
+
+    /**
+     * Returns the maximum lag between the expiration time of an entry and its removal.
+     */
+    public long getMaxExpirationLagMillis() {
+        return maxExpirationLagMillis.get();
+    }
+
+    public long getExpiredCount() {
+        return expiredCounter.get();
+    }
+
     /**
      * Periodically clears expired entries.(ttl & idle)
      * This task provides per partition expiration operation logic. (not per map, not per record store).
-     * Fires cleanup operations at most partition operation thread count or some factor of it in one round.
+     * Fires cleanup operations for the partitions with due records which have no running one, at most partition
+     * operation thread count or some factor of it in one round.
      */
     private class ClearExpiredRecordsTask implements Runnable {
 
         private static final int EXPIRATION_PERCENTAGE = 10;
 
-        private static final long MIN_MILLIS_DIFF_BETWEEN_TWO_RUNS = 1000;
-
-        private final Comparator<PartitionContainer> partitionContainerComparator = new Comparator<PartitionContainer>() {
-            @Override
-            public int compare(PartitionContainer o1, PartitionContainer o2) {
-                final long s1 = o1.getLastCleanupTimeCopy();
-                final long s2 = o2.getLastCleanupTimeCopy();
-                return (s1 < s2) ? -1 : ((s1 == s2) ? 0 : 1);
-            }
-        };
+        // runs are not concurrent, so the next partition to look at is only accessed by one thread at a time
+        private int nextPartitionId;
 
         @Override
         public void run() {
             final long now = Clock.currentTimeMillis();
             final NodeEngine nodeEngine = ExpirationManager.this.nodeEngine;
             final int partitionCount = nodeEngine.getPartitionService().getPartitionCount();
-            List<PartitionContainer> partitionContainers = Collections.emptyList();
-            boolean createLazy = true;
-            int currentlyRunningCleanupOperationsCount = 0;
-            for (int partitionId = 0; partitionId < partitionCount; partitionId++) {
+            final int maxCleanupOperationCount = getMaxCleanupOperationCountInOneRound();
+            final int start = nextPartitionId % partitionCount;
+            int cleanupOperationCount = 0;
+            for (int i = 0; i < partitionCount && cleanupOperationCount < maxCleanupOperationCount; i++) {
+                int partitionId = (start + i) % partitionCount;
                 InternalPartition partition = nodeEngine.getPartitionService().getPartition(partitionId, false);
                 if (partition.isOwnerOrBackup(nodeEngine.getThisAddress())) {
                     final PartitionContainer partitionContainer = mapServiceContext.getPartitionContainer(partitionId);
-                    if (isContainerEmpty(partitionContainer)) {
+                    if (isContainerEmpty(partitionContainer)
+                            || hasRunningCleanup(partitionContainer)
+                            || notHaveAnyDueRecord(partitionContainer, now)) {
                         continue;
                     }
-                    if (hasRunningCleanup(partitionContainer)) {
-                        currentlyRunningCleanupOperationsCount++;
-                        continue;
-                    }
-                    if (currentlyRunningCleanupOperationsCount > getMaxCleanupOperationCountInOneRound()
-                            || notInProcessableTimeWindow(partitionContainer, now)
-                            || notHaveAnyExpirableRecord(partitionContainer)) {
-                        continue;
-                    }
-
-                    if (createLazy) {
-                        partitionContainers = new ArrayList<PartitionContainer>();
-                        createLazy = false;
-                    }
-                    partitionContainers.add(partitionContainer);
+                    sendCleanupOperation(partitionContainer);
+                    cleanupOperationCount++;
+                    nextPartitionId = partitionId + 1;
                 }
             }
-            if (partitionContainers.isEmpty()) {
-                return;
-            }
-
-            sortPartitionContainers(partitionContainers);
-            sendCleanupOperations(partitionContainers);
-        }
-
-        private void sortPartitionContainers(List<PartitionContainer> partitionContainers) {
-            updateLastCleanupTimesBeforeSorting(partitionContainers);
-            Collections.sort(partitionContainers, partitionContainerComparator);
         }
 
-
-        private void sendCleanupOperations(List<PartitionContainer> partitionContainers) {
-            final int maxCleanupOperationCountInOneRound = getMaxCleanupOperationCountInOneRound();
-            final int start = 0;
-            int end = maxCleanupOperationCountInOneRound;
-            if (end > partitionContainers.size()) {
-                end = partitionContainers.size();
-            }
-            final List<PartitionContainer> partitionIds = partitionContainers.subList(start, end);
-            for (PartitionContainer container : partitionIds) {
-                // mark partition container as has on going expiration operation.
-                container.setHasRunningCleanup(true);
-                OperationService operationService = ExpirationManager.this.nodeEngine.getOperationService();
-                operationService.executeOperation(createExpirationOperation(EXPIRATION_PERCENTAGE,
-                        container.getPartitionId()));
-            }
+        private int getMaxCleanupOperationCountInOneRound() {
+            final int times = 3;
+            return times * ExpirationManager.this.nodeEngine.getOperationService().getPartitionOperationThreadCount();
         }
 
-        private boolean expirable(RecordStore recordStore) {
-            return recordStore.isExpirable();
+        private void sendCleanupOperation(PartitionContainer container) {
+            // mark partition container as has on going expiration operation.
+            container.setHasRunningCleanup(true);
+            OperationService operationService = ExpirationManager.this.nodeEngine.getOperationService();
+            operationService.executeOperation(createExpirationOperation(EXPIRATION_PERCENTAGE,
+                    container.getPartitionId()));
         }
 
         private boolean hasRunningCleanup(PartitionContainer partitionContainer) {
             return partitionContainer.hasRunningCleanup();
         }
 
-        private boolean notInProcessableTimeWindow(PartitionContainer partitionContainer, long now) {
-            return now - partitionContainer.getLastCleanupTime() < MIN_MILLIS_DIFF_BETWEEN_TWO_RUNS;
-        }
-
-        private int getMaxCleanupOperationCountInOneRound() {
-            final int times = 3;
-            return times * ExpirationManager.this.nodeEngine.getOperationService().getPartitionOperationThreadCount();
-        }
-
         private boolean isContainerEmpty(PartitionContainer container) {
             long size = 0L;
             final ConcurrentMap<String, RecordStore> maps = container.getMaps();
@@ -175,22 +180,21 @@ public class ExpirationManager {
         }
 
         /**
-         * Here we check if that partition has any expirable record or not,
-         * if no expirable record exists in that partition no need to fire an expiration operation.
+         * Here we check if that partition has any record which may be expired by now or not,
+         * if no such record exists in that partition no need to fire an expiration operation.
          *
          * @param partitionContainer corresponding partition container.
-         * @return <code>true</code> if no expirable record in that partition <code>false</code> otherwise.
+         * @param now                the current time in milliseconds.
+         * @return <code>true</code> if no due record in that partition <code>false</code> otherwise.
          */
-        private boolean notHaveAnyExpirableRecord(PartitionContainer partitionContainer) {
-            boolean notExist = true;
+        private boolean notHaveAnyDueRecord(PartitionContainer partitionContainer, long now) {
             final ConcurrentMap<String, RecordStore> maps = partitionContainer.getMaps();
             for (RecordStore store : maps.values()) {
-                if (expirable(store)) {
-                    notExist = false;
-                    break;
+                if (store.getNextExpirationTime() <= now) {
+                    return false;
                 }
             }
-            return notExist;
+            return true;
         }
     }
 
@@ -204,16 +208,4 @@ public class ExpirationManager {
                 .setService(mapServiceContext.getService());
         return clearExpiredOperation;
     }
-
-
-    /**
-     * Sets last clean-up time before sorting.
-     *
-     * @param partitionContainers partition containers.
-     */
-    private void updateLastCleanupTimesBeforeSorting(List<PartitionContainer> partitionContainers) {
-        for (PartitionContainer partitionContainer : partitionContainers) {
-            partitionContainer.setLastCleanupTimeCopy(partitionContainer.getLastCleanupTime());
-        }
-    }
 }
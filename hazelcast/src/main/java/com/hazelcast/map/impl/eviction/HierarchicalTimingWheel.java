@@ -0,0 +1,272 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.eviction;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hierarchical timing wheel which schedules keys by their expiration time, so the keys which are due can be found
+ * without scanning the ones which are not.
+ * <p/>
+ * Every level has {@value #BUCKET_COUNT} buckets, each spanning {@value #BUCKET_COUNT} times the span of a bucket
+ * of the level below; the buckets of the lowest level span {@link #TICK_MILLIS} milliseconds, which bounds the lag
+ * of {@link #advance(long)}. A key is kept in the lowest level whose buckets cover its delay and is moved down a level
+ * when the wheel turns over its bucket, so both scheduling and finding a due key are constant time operations.
+ * Delays beyond the highest level are parked in its last bucket and rescheduled when it is reached.
+ * <p/>
+ * This class is not thread-safe, it is owned by a partition thread; only {@link #getNextDueTime()} may be called by
+ * other threads.
+ *
+ * @param <K> type of the scheduled keys
+ */
+public final class HierarchicalTimingWheel<K> {
+
+    /**
+     * Number of buckets of every level.
+     */
+    public static final int BUCKET_COUNT = 64;
+
+    /**
+     * Span of a bucket of the lowest level in milliseconds.
+     */
+    public static final long TICK_MILLIS = 1L << HierarchicalTimingWheel.TICK_SHIFT;
+
+    private static final int TICK_SHIFT = 10;
+    private static final int LEVEL_SHIFT = 6;
+    private static final int LEVEL_COUNT = 4;
+    private static final int BUCKET_MASK = BUCKET_COUNT - 1;
+
+    private final Node<K>[][] wheel;
+    private final Map<K, Node<K>> nodes = new HashMap<K, Node<K>>();
+
+    private long currentTime;
+    // lower bound of the time of the earliest scheduled key, read by the expiration task
+    private volatile long nextDueTime = Long.MAX_VALUE;
+
+    @SuppressWarnings("unchecked")
+    public HierarchicalTimingWheel(long now) {
+        this.currentTime = now;
+        this.wheel = new Node[LEVEL_COUNT][BUCKET_COUNT];
+        for (Node<K>[] level : wheel) {
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                level[i] = new Node<K>(null);
+            }
+        }
+    }
+
+    /**
+     * Schedules the given key to be due at the given time, replacing its previous schedule.
+     *
+     * @param key  the key
+     * @param time the time in milliseconds when the key is due
+     */
+    public void schedule(K key, long time) {
+        Node<K> node = nodes.get(key);
+        if (node == null) {
+            node = new Node<K>(key);
+            nodes.put(key, node);
+        } else if (node.time == time) {
+            return;
+        } else {
+            node.unlink();
+        }
+        node.time = time;
+        link(node);
+        if (time < nextDueTime) {
+            nextDueTime = time;
+        }
+    }
+
+    /**
+     * Cancels the schedule of the given key.
+     *
+     * @param key the key
+     * @return {@code true} if the key was scheduled, otherwise {@code false}
+     */
+    public boolean cancel(K key) {
+        Node<K> node = nodes.remove(key);
+        if (node == null) {
+            return false;
+        }
+        node.unlink();
+        return true;
+    }
+
+    /**
+     * Turns the wheel to the given time and returns the keys which are due; these keys are no longer scheduled.
+     * A key is returned at most {@link #TICK_MILLIS} milliseconds plus the interval between two advances after it
+     * is due.
+     *
+     * @param now the current time in milliseconds
+     * @return the due keys
+     */
+    public List<K> advance(long now) {
+        long previousTime = currentTime;
+        if (now <= previousTime) {
+            return Collections.emptyList();
+        }
+        currentTime = now;
+        List<K> dueKeys = null;
+        for (int level = 0; level < LEVEL_COUNT; level++) {
+            long previousTicks = previousTime >>> shift(level);
+            long ticks = (now >>> shift(level)) - previousTicks;
+            if (ticks <= 0) {
+                break;
+            }
+            dueKeys = expire(level, previousTicks, ticks, now, dueKeys);
+        }
+        nextDueTime = findNextDueTime();
+        return dueKeys == null ? Collections.<K>emptyList() : dueKeys;
+    }
+
+    /**
+     * Returns a lower bound of the time when the earliest scheduled key is due, so {@link #advance(long)} returns
+     * no keys before that time; {@link Long#MAX_VALUE} if no key is scheduled. Cancelled keys are not taken into
+     * account until the next advance.
+     */
+    public long getNextDueTime() {
+        return nextDueTime;
+    }
+
+    /**
+     * Returns the number of scheduled keys.
+     */
+    public int size() {
+        return nodes.size();
+    }
+
+    /**
+     * Cancels the schedules of all keys.
+     */
+    public void clear() {
+        for (Node<K>[] level : wheel) {
+            for (Node<K> sentinel : level) {
+                sentinel.prev = sentinel;
+                sentinel.next = sentinel;
+            }
+        }
+        nodes.clear();
+        nextDueTime = Long.MAX_VALUE;
+    }
+
+    /**
+     * Empties the buckets the wheel turned over, including the current one; the due keys are collected, the others
+     * are rescheduled, which moves them to a lower level.
+     */
+    private List<K> expire(int level, long previousTicks, long ticks, long now, List<K> dueKeys) {
+        Node<K>[] buckets = wheel[level];
+        int steps = (int) Math.min(ticks + 1, BUCKET_COUNT);
+        int start = (int) (previousTicks & BUCKET_MASK);
+        for (int i = start; i < start + steps; i++) {
+            Node<K> sentinel = buckets[i & BUCKET_MASK];
+            Node<K> node = sentinel.next;
+            sentinel.prev = sentinel;
+            sentinel.next = sentinel;
+            while (node != sentinel) {
+                Node<K> next = node.next;
+                node.prev = null;
+                node.next = null;
+                if (node.time <= now) {
+                    nodes.remove(node.key);
+                    if (dueKeys == null) {
+                        dueKeys = new ArrayList<K>();
+                    }
+                    dueKeys.add(node.key);
+                } else {
+                    link(node);
+                }
+                node = next;
+            }
+        }
+        return dueKeys;
+    }
+
+    /**
+     * Returns the start time of the first non-empty bucket, searching every level from its current bucket on.
+     */
+    private long findNextDueTime() {
+        if (nodes.isEmpty()) {
+            return Long.MAX_VALUE;
+        }
+        long nextDueTime = Long.MAX_VALUE;
+        for (int level = 0; level < LEVEL_COUNT; level++) {
+            long currentTicks = currentTime >>> shift(level);
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                Node<K> sentinel = wheel[level][(int) ((currentTicks + i) & BUCKET_MASK)];
+                if (sentinel.next != sentinel) {
+                    nextDueTime = Math.min(nextDueTime, (currentTicks + i) << shift(level));
+                    break;
+                }
+            }
+        }
+        return nextDueTime;
+    }
+
+    private void link(Node<K> node) {
+        Node<K> sentinel = findBucket(node.time);
+        node.prev = sentinel.prev;
+        node.next = sentinel;
+        sentinel.prev.next = node;
+        sentinel.prev = node;
+    }
+
+    private Node<K> findBucket(long time) {
+        long delay = time - currentTime;
+        long bucketTime = Math.max(time, currentTime);
+        for (int level = 0; level < LEVEL_COUNT; level++) {
+            if (delay < 1L << shift(level + 1)) {
+                return wheel[level][(int) ((bucketTime >>> shift(level)) & BUCKET_MASK)];
+            }
+        }
+        int top = LEVEL_COUNT - 1;
+        return wheel[top][(int) (((currentTime >>> shift(top)) - 1) & BUCKET_MASK)];
+    }
+
+    private static int shift(int level) {
+        return TICK_SHIFT + level * LEVEL_SHIFT;
+    }
+
+    /**
+     * Scheduled key, linked into the circular list of its bucket; the list of every bucket starts at a sentinel.
+     */
+    private static final class Node<K> {
+
+        private final K key;
+        private long time;
+        private Node<K> prev;
+        private Node<K> next;
+
+        Node(K key) {
+            this.key = key;
+            this.prev = this;
+            this.next = this;
+        }
+
+        void unlink() {
+            if (prev != null) {
+                prev.next = next;
+                next.prev = prev;
+                prev = null;
+                next = null;
+            }
+        }
+    }
+}
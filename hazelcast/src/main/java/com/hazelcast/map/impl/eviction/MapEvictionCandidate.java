@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.map.impl.eviction;
+
+import com.hazelcast.internal.eviction.Evictable;
+import com.hazelcast.internal.eviction.EvictionCandidate;
+import com.hazelcast.map.impl.record.Record;
+import com.hazelcast.nio.serialization.Data;
+
+/**
+ * Exposes a sampled map {@link Record} to the eviction policy evaluators of the sampling based eviction.
+ * <p/>
+ * The eviction criteria number of the record is the access sequence number for LRU and the number of hits for
+ * LFU. It is exposed as the access time, or for LFU as the access hit, in which case the access time is the last
+ * access time of the record, so ties between equally hit records go to the least recently used one.
+ */
+final class MapEvictionCandidate implements EvictionCandidate<Data, MapEvictionCandidate>, Evictable {
+
+    private final Record record;
+    private final boolean hitCounting;
+
+    MapEvictionCandidate(Record record, boolean hitCounting) {
+        this.record = record;
+        this.hitCounting = hitCounting;
+    }
+
+    Record getRecord() {
+        return record;
+    }
+
+    @Override
+    public Data getAccessor() {
+        return record.getKey();
+    }
+
+    @Override
+    public MapEvictionCandidate getEvictable() {
+        return this;
+    }
+
+    @Override
+    public long getCreationTime() {
+        return record.getCreationTime();
+    }
+
+    @Override
+    public long getAccessTime() {
+        return hitCounting ? record.getLastAccessTime() : record.getEvictionCriteriaNumber();
+    }
+
+    @Override
+    public int getAccessHit() {
+        return (int) Math.min(record.getEvictionCriteriaNumber(), Integer.MAX_VALUE);
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.map.impl.eviction;
+
+import com.hazelcast.internal.eviction.EvictionCandidate;
+import com.hazelcast.internal.eviction.EvictionListener;
+import com.hazelcast.internal.eviction.impl.strategy.sampling.SampleableEvictableStore;
+import com.hazelcast.map.impl.record.Record;
+import com.hazelcast.map.impl.recordstore.RecordStore;
+import com.hazelcast.nio.serialization.Data;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Adapts a {@link RecordStore} to the sampling based eviction, for the duration of one eviction run.
+ * <p/>
+ * The candidates which were sampled but not evicted are pooled and offered again with the next sample, keeping
+ * only the most evictable ones. Since a run evicts one record per sample, the pool makes sure a record which was
+ * seen to be cold is evicted before a hot record is picked just because a sample happened to contain hot records
+ * only.
+ */
+final class SampleableRecordStore implements SampleableEvictableStore<Data, MapEvictionCandidate> {
+
+    private static final int POOL_SIZE = 16;
+
+    private final EvictorImpl evictor;
+    private final RecordStore recordStore;
+    private final boolean backup;
+    private final long now;
+    private final boolean hitCounting;
+    private final Comparator<? super MapEvictionCandidate> evictableFirst;
+
+    private final List<MapEvictionCandidate> pool = new ArrayList<MapEvictionCandidate>();
+
+    SampleableRecordStore(EvictorImpl evictor, RecordStore recordStore, boolean backup, long now, boolean hitCounting,
+                          Comparator<? super MapEvictionCandidate> evictableFirst) {
+        this.evictor = evictor;
+        this.recordStore = recordStore;
+        this.backup = backup;
+        this.now = now;
+        this.hitCounting = hitCounting;
+        this.evictableFirst = evictableFirst;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <C extends EvictionCandidate<Data, MapEvictionCandidate>> Iterable<C> sample(int sampleCount) {
+        Iterable<Record> records = recordStore.getStorage().getRandomSamples(sampleCount);
+        for (Record record : records) {
+            if (!isPooled(record)) {
+                pool.add(new MapEvictionCandidate(record, hitCounting));
+            }
+        }
+        return (Iterable<C>) new ArrayList<MapEvictionCandidate>(pool);
+    }
+
+    @Override
+    public <C extends EvictionCandidate<Data, MapEvictionCandidate>> int evict(Iterable<C> evictionCandidates,
+            EvictionListener<Data, MapEvictionCandidate> evictionListener) {
+        if (evictionCandidates == null) {
+            return 0;
+        }
+        int evictedCount = 0;
+        for (C evictionCandidate : evictionCandidates) {
+            // a candidate which cannot be evicted, e.g. since its key is locked, is not offered again in this run
+            pool.remove(evictionCandidate.getEvictable());
+            Record record = evictionCandidate.getEvictable().getRecord();
+            if (evictor.tryEvict(record.getKey(), record, recordStore, backup, now)) {
+                evictedCount++;
+                if (evictionListener != null) {
+                    evictionListener.onEvict(evictionCandidate.getAccessor(), evictionCandidate.getEvictable());
+                }
+            }
+        }
+        trimPool();
+        return evictedCount;
+    }
+
+    private boolean isPooled(Record record) {
+        for (MapEvictionCandidate candidate : pool) {
+            if (candidate.getRecord() == record) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void trimPool() {
+        if (pool.size() > POOL_SIZE) {
+            Collections.sort(pool, evictableFirst);
+            pool.subList(POOL_SIZE, pool.size()).clear();
+        }
+    }
+}
@@ -76,6 +76,11 @@ final class BasicMapStoreContext implements MapStoreContext {
         return storeWrapper.isMapLoader();
     }
 
+    @Override
+    public boolean isPartitionedMapLoader() {
+        return storeWrapper.isPartitionedMapLoader();
+    }
+
     @Override
     public SerializationService getSerializationService() {
         return mapServiceContext.getNodeEngine().getSerializationService();
@@ -179,6 +184,11 @@ final class BasicMapStoreContext implements MapStoreContext {
         return IterableUtil.nullToEmpty(storeWrapper.loadAllKeys());
     }
 
+    @Override
+    public Iterable<Object> loadAllKeys(int partitionId) {
+        return IterableUtil.nullToEmpty(storeWrapper.loadAllKeys(partitionId));
+    }
+
     void setMapStoreManager(MapStoreManager mapStoreManager) {
         this.mapStoreManager = mapStoreManager;
     }
@@ -25,6 +25,7 @@ import com.hazelcast.instance.GroupProperty;
 import com.hazelcast.internal.serialization.SerializationService;
 import com.hazelcast.map.impl.MapServiceContext;
 import com.hazelcast.map.impl.MapStoreWrapper;
+import com.hazelcast.map.impl.mapstore.writebehind.WriteBehindFlowControl;
 import com.hazelcast.map.impl.mapstore.writebehind.WriteBehindProcessor;
 import com.hazelcast.map.impl.mapstore.writebehind.WriteBehindQueue;
 import com.hazelcast.map.impl.mapstore.writebehind.WriteBehindStore;
@@ -73,7 +74,8 @@ public final class MapDataStores {
         final WriteBehindStore mapDataStore
                 = new WriteBehindStore(store, serializationService,
                         writeDelayMillis, partitionId, inMemoryFormat, writeCoalescing);
-        final WriteBehindQueue writeBehindQueue = newWriteBehindQueue(mapServiceContext, writeCoalescing);
+        final WriteBehindQueue writeBehindQueue = newWriteBehindQueue(mapServiceContext, writeCoalescing,
+                mapStoreContext.getMapName(), partitionId);
         mapDataStore.setWriteBehindQueue(writeBehindQueue);
         mapDataStore.setWriteBehindProcessor(writeBehindProcessor);
         return (MapDataStore<K, V>) mapDataStore;
@@ -89,11 +91,14 @@ public final class MapDataStores {
         return mapConfig.getInMemoryFormat();
     }
 
-    private static WriteBehindQueue newWriteBehindQueue(MapServiceContext mapServiceContext, boolean writeCoalescing) {
+    private static WriteBehindQueue newWriteBehindQueue(MapServiceContext mapServiceContext, boolean writeCoalescing,
+                                                        String mapName, int partitionId) {
         GroupProperties groupProperties = mapServiceContext.getNodeEngine().getGroupProperties();
         final int capacity = groupProperties.getInteger(GroupProperty.MAP_WRITE_BEHIND_QUEUE_CAPACITY);
         final AtomicInteger counter = mapServiceContext.getWriteBehindQueueItemCounter();
-        return (writeCoalescing ? createDefaultWriteBehindQueue() : createBoundedWriteBehindQueue(capacity, counter));
+        final WriteBehindFlowControl flowControl = mapServiceContext.getWriteBehindFlowControl();
+        return (writeCoalescing ? createDefaultWriteBehindQueue(flowControl, mapName, partitionId)
+                : createBoundedWriteBehindQueue(capacity, counter, flowControl, mapName, partitionId));
     }
 
     /**
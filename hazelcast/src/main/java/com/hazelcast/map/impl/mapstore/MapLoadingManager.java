@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.map.impl.mapstore;
+
+import com.hazelcast.instance.GroupProperties;
+import com.hazelcast.instance.GroupProperty;
+import com.hazelcast.internal.metrics.Probe;
+import com.hazelcast.map.impl.MapServiceContext;
+import com.hazelcast.spi.ExecutionService;
+import com.hazelcast.spi.NodeEngine;
+import com.hazelcast.spi.impl.NodeEngineImpl;
+import com.hazelcast.util.counters.MwCounter;
+import com.hazelcast.util.executor.ExecutorType;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+import static com.hazelcast.internal.metrics.ProbeLevel.MANDATORY;
+import static com.hazelcast.spi.ExecutionService.MAP_LOADER_PARALLEL_EXECUTOR;
+import static com.hazelcast.util.counters.MwCounter.newMwCounter;
+
+/**
+ * Runs the {@link com.hazelcast.core.MapLoader#loadAll(java.util.Collection)} calls of the loading record stores in
+ * parallel when {@link GroupProperty#MAP_LOAD_PARALLEL_ENABLED} is set, and publishes the progress of the loading of
+ * all maps of this member.
+ * <p/>
+ * The calls run on the {@link ExecutionService#MAP_LOADER_PARALLEL_EXECUTOR}; a record store submitting a call waits
+ * while twice as many calls as threads are pending, so the loaded but not yet applied entries are bounded.
+ */
+public class MapLoadingManager {
+
+    private static final int PENDING_CALLS_PER_THREAD = 2;
+
+    private final NodeEngine nodeEngine;
+    private final boolean parallelLoadingEnabled;
+    private final int threadCount;
+    private final int batchSize;
+    private final Semaphore pendingCallPermits;
+
+    @Probe(name = "keyCount", level = MANDATORY)
+    private final MwCounter keyCount = newMwCounter();
+    @Probe(name = "loadAllCount", level = MANDATORY)
+    private final MwCounter loadAllCount = newMwCounter();
+    // cumulative, so any number of readers can compute the loading throughput over their own interval
+    @Probe(name = "loadedEntryCount", level = MANDATORY)
+    private final MwCounter loadedEntryCount = newMwCounter();
+    @Probe(name = "loadAllNanos", level = MANDATORY)
+    private final MwCounter loadAllNanos = newMwCounter();
+
+    public MapLoadingManager(MapServiceContext mapServiceContext) {
+        this.nodeEngine = mapServiceContext.getNodeEngine();
+        GroupProperties groupProperties = nodeEngine.getGroupProperties();
+        this.parallelLoadingEnabled = groupProperties.getBoolean(GroupProperty.MAP_LOAD_PARALLEL_ENABLED);
+        this.threadCount = groupProperties.getInteger(GroupProperty.MAP_LOAD_PARALLEL_THREAD_COUNT);
+        this.batchSize = groupProperties.getInteger(GroupProperty.MAP_LOAD_PARALLEL_BATCH_SIZE);
+        this.pendingCallPermits = new Semaphore(threadCount * PENDING_CALLS_PER_THREAD);
+    }
+
+    public void start() {
+        if (parallelLoadingEnabled) {
+            nodeEngine.getExecutionService().register(MAP_LOADER_PARALLEL_EXECUTOR, threadCount,
+                    threadCount * PENDING_CALLS_PER_THREAD, ExecutorType.CACHED);
+        }
+        ((NodeEngineImpl) nodeEngine).getMetricsRegistry().scanAndRegister(this, "map.load");
+    }
+
+    public boolean isParallelLoadingEnabled() {
+        return parallelLoadingEnabled;
+    }
+
+    /**
+     * Returns the number of keys sent to a partition at once and of the loaded entries put into it at once by the
+     * parallel loading.
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Submits a {@link com.hazelcast.core.MapLoader#loadAll(java.util.Collection)} call to the loader pool, waits
+     * while too many calls are pending.
+     *
+     * @param call the call
+     * @return the future of the result of the call
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public <T> Future<T> submit(final Callable<T> call) throws InterruptedException {
+        pendingCallPermits.acquire();
+        try {
+            return nodeEngine.getExecutionService().submit(MAP_LOADER_PARALLEL_EXECUTOR, new Callable<T>() {
+                @Override
+                public T call() throws Exception {
+                    try {
+                        return call.call();
+                    } finally {
+                        pendingCallPermits.release();
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            pendingCallPermits.release();
+            throw e;
+        }
+    }
+
+    public void onKeysToLoad(int count) {
+        keyCount.inc(count);
+    }
+
+    public void onLoadAll(int loadedCount, long nanos) {
+        loadAllCount.inc();
+        loadedEntryCount.inc(loadedCount);
+        loadAllNanos.inc(nanos);
+    }
+
+    /**
+     * Returns the number of the parallel loadAll calls that are running or waiting for a thread.
+     */
+    @Probe(name = "pendingLoadAllCount", level = MANDATORY)
+    public int getPendingLoadAllCount() {
+        return threadCount * PENDING_CALLS_PER_THREAD - pendingCallPermits.availablePermits();
+    }
+}
@@ -55,6 +55,19 @@ public interface MapStoreContext {
 
     Iterable<Object> loadAllKeys();
 
+    /**
+     * Loads the keys of a partition from a {@link com.hazelcast.core.PartitionedMapLoader}.
+     *
+     * @param partitionId id of the partition
+     * @return the keys of the partition
+     */
+    Iterable<Object> loadAllKeys(int partitionId);
+
+    /**
+     * @return true if the defined MapLoader or MapStore can load the keys of a single partition
+     */
+    boolean isPartitionedMapLoader();
+
     /**
      * @return true if MapLoader or MapStore is defined
      */
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.map.impl.mapstore.writebehind;
+
+import com.hazelcast.map.impl.mapstore.writebehind.entry.DelayedEntry;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Accounts the entries of a {@link WriteBehindQueue} and their estimated heap cost to the member-wide totals of
+ * {@link WriteBehindFlowControl} and to the costs of the queues of its map, which reject the writes to the map when
+ * the queues on the owned partitions get too large.
+ * <p/>
+ * A coalescing queue replaces the entry of a key; the cost of the replaced entry is not known, so it is assumed to
+ * be the cost of the new one. The drift this may cause is dropped whenever the queue becomes empty.
+ * <p/>
+ * Note that this {@link WriteBehindQueue} implementation is not thread-safe. When it is in action, thread-safe access
+ * will be provided by wrapping it in a {@link SynchronizedWriteBehindQueue}
+ *
+ * @see SynchronizedWriteBehindQueue
+ */
+class AccountingWriteBehindQueue implements WriteBehindQueue<DelayedEntry> {
+
+    private final WriteBehindQueue<DelayedEntry> queue;
+
+    private final WriteBehindFlowControl flowControl;
+
+    private final WriteBehindFlowControl.MapQueueCosts mapQueueCosts;
+
+    private final int partitionId;
+
+    private long cost;
+
+    AccountingWriteBehindQueue(WriteBehindQueue<DelayedEntry> queue, WriteBehindFlowControl flowControl, String mapName,
+                               int partitionId) {
+        this.queue = queue;
+        this.flowControl = flowControl;
+        this.mapQueueCosts = flowControl.getMapQueueCosts(mapName);
+        this.partitionId = partitionId;
+    }
+
+    @Override
+    public void addFirst(Collection<DelayedEntry> collection) {
+        if (collection == null || collection.isEmpty()) {
+            return;
+        }
+        int sizeBefore = queue.size();
+        queue.addFirst(collection);
+        int added = queue.size() - sizeBefore;
+        account(added, WriteBehindFlowControl.costOf(collection) * added / collection.size());
+    }
+
+    @Override
+    public void addLast(DelayedEntry e) {
+        int sizeBefore = queue.size();
+        queue.addLast(e);
+        int added = queue.size() - sizeBefore;
+        account(added, added > 0 ? WriteBehindFlowControl.costOf(e) : 0);
+    }
+
+    @Override
+    public boolean removeFirstOccurrence(DelayedEntry e) {
+        boolean removed = queue.removeFirstOccurrence(e);
+        if (removed) {
+            account(-1, -WriteBehindFlowControl.costOf(e));
+        }
+        return removed;
+    }
+
+    @Override
+    public int drainTo(Collection<DelayedEntry> collection) {
+        List<DelayedEntry> drained = new ArrayList<DelayedEntry>(queue.size());
+        int size = queue.drainTo(drained);
+        collection.addAll(drained);
+        account(-size, -WriteBehindFlowControl.costOf(drained));
+        return size;
+    }
+
+    @Override
+    public boolean contains(DelayedEntry e) {
+        return queue.contains(e);
+    }
+
+    @Override
+    public int size() {
+        return queue.size();
+    }
+
+    @Override
+    public void clear() {
+        int size = queue.size();
+        queue.clear();
+        account(-size, -cost);
+    }
+
+    @Override
+    public List<DelayedEntry> asList() {
+        return queue.asList();
+    }
+
+    @Override
+    public void getFrontByTime(long time, Collection<DelayedEntry> collection) {
+        queue.getFrontByTime(time, collection);
+    }
+
+    @Override
+    public void getFrontByNumber(int numberOfElements, Collection<DelayedEntry> collection) {
+        queue.getFrontByNumber(numberOfElements, collection);
+    }
+
+    private void account(int entryCountDelta, long costDelta) {
+        long newCost = queue.size() == 0 ? 0 : Math.max(0, cost + costDelta);
+        flowControl.onQueueChange(mapQueueCosts, partitionId, entryCountDelta, newCost, newCost - cost);
+        cost = newCost;
+    }
+}
@@ -53,16 +53,24 @@ class DefaultWriteBehindProcessor extends AbstractWriteBehindProcessor<DelayedEn
 
     private final List<StoreListener> storeListeners;
 
+    /**
+     * Adapts the write batch size to the latency of the map store, {@code null} if the configured
+     * {@link #writeBatchSize} is used as is.
+     */
+    private final WriteBatchSizer batchSizer;
+
     DefaultWriteBehindProcessor(MapStoreContext mapStoreContext) {
         super(mapStoreContext);
         this.storeListeners = new ArrayList<StoreListener>(2);
+        WriteBehindFlowControl flowControl = mapStoreContext.getMapServiceContext().getWriteBehindFlowControl();
+        this.batchSizer = flowControl.newBatchSizer(writeBatchSize);
     }
 
     @Override
     public Map<Integer, List<DelayedEntry>> process(List<DelayedEntry> delayedEntries) {
         Map<Integer, List<DelayedEntry>> failMap;
         sort(delayedEntries);
-        if (writeBatchSize > 1) {
+        if (writeBatchSize > 1 || batchSizer != null) {
             failMap = doStoreUsingBatchSize(delayedEntries);
         } else {
             failMap = processInternal(delayedEntries);
@@ -338,17 +346,25 @@ class DefaultWriteBehindProcessor extends AbstractWriteBehindProcessor<DelayedEn
     }
 
     /**
-     * Store chunk by chunk using write batch size {@link #writeBatchSize}
+     * Store chunk by chunk using write batch size {@link #writeBatchSize}, or the size given by the
+     * {@link #batchSizer} if batch sizes are adapted.
      *
      * @param sortedDelayedEntries entries to be stored.
      * @return not-stored entries per partition.
      */
     private Map<Integer, List<DelayedEntry>> doStoreUsingBatchSize(List<DelayedEntry> sortedDelayedEntries) {
         final Map<Integer, List<DelayedEntry>> failsPerPartition = new HashMap<Integer, List<DelayedEntry>>();
-        int page = 0;
-        List<DelayedEntry> delayedEntryList;
-        while ((delayedEntryList = getBatchChunk(sortedDelayedEntries, writeBatchSize, page++)) != null) {
+        int start = 0;
+        while (start < sortedDelayedEntries.size()) {
+            final int batchSize = batchSizer == null ? writeBatchSize : batchSizer.getBatchSize();
+            final int end = Math.min(start + batchSize, sortedDelayedEntries.size());
+            final List<DelayedEntry> delayedEntryList = sortedDelayedEntries.subList(start, end);
+            start = end;
+            final long startNanos = System.nanoTime();
             final Map<Integer, List<DelayedEntry>> fails = processInternal(delayedEntryList);
+            if (batchSizer != null) {
+                batchSizer.onBatchStored(delayedEntryList.size(), System.nanoTime() - startNanos);
+            }
             final Set<Map.Entry<Integer, List<DelayedEntry>>> entries = fails.entrySet();
             for (Map.Entry<Integer, List<DelayedEntry>> entry : entries) {
                 final Integer partitionId = entry.getKey();
@@ -19,6 +19,8 @@ package com.hazelcast.map.impl.mapstore.writebehind;
 import com.hazelcast.cluster.ClusterService;
 import com.hazelcast.instance.GroupProperties;
 import com.hazelcast.instance.GroupProperty;
+import com.hazelcast.internal.metrics.Probe;
+import com.hazelcast.logging.ILogger;
 import com.hazelcast.map.impl.MapServiceContext;
 import com.hazelcast.map.impl.PartitionContainer;
 import com.hazelcast.map.impl.recordstore.RecordStore;
@@ -30,19 +32,30 @@ import com.hazelcast.partition.InternalPartitionService;
 import com.hazelcast.spi.NodeEngine;
 import com.hazelcast.util.Clock;
 import com.hazelcast.util.CollectionUtil;
+import com.hazelcast.util.counters.SwCounter;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import static com.hazelcast.internal.metrics.ProbeLevel.MANDATORY;
 import static com.hazelcast.util.CollectionUtil.isEmpty;
+import static com.hazelcast.util.counters.SwCounter.newSwCounter;
 
 /**
  * Used to process store operations in another thread.
  * Collects entries from write behind queues and passes them to {@link #writeBehindProcessor}.
  * Created per map.
+ * <p/>
+ * When {@link GroupProperty#MAP_WRITE_BEHIND_STORE_CONCURRENCY} is more than 1, the collected entries are split by
+ * partition into that many streams which are processed in parallel; the entries of a key are in the same partition,
+ * so they are still stored in order.
  */
 public class StoreWorker implements Runnable {
 
@@ -52,6 +65,33 @@ public class StoreWorker implements Runnable {
 
     private final WriteBehindProcessor writeBehindProcessor;
 
+    private final WriteBehindFlowControl flowControl;
+
+    private final ILogger logger;
+
+    /**
+     * Number of entries in the write behind queues of the map on this member, including backups,
+     * as seen by the last run.
+     */
+    @Probe(name = "queueDepth", level = MANDATORY)
+    private volatile long queueDepth;
+
+    /**
+     * Time it took the last run to store the due entries.
+     */
+    @Probe(name = "flushLatencyMillis", level = MANDATORY)
+    private volatile long flushLatencyMillis;
+
+    @Probe(name = "flushedEntryCount", level = MANDATORY)
+    private final SwCounter flushedEntryCount = newSwCounter();
+
+    /**
+     * Estimated heap cost of the write behind queues of the map on the partitions owned by this member, as recomputed
+     * by the last run, see {@link WriteBehindFlowControl#checkBackpressure(String)}.
+     */
+    @Probe(name = "ownedQueuedBytes", level = MANDATORY)
+    private volatile long ownedQueuedBytes;
+
     /**
      * Run on backup nodes after this interval.
      */
@@ -67,6 +107,8 @@ public class StoreWorker implements Runnable {
         this.mapName = mapStoreContext.getMapName();
         this.mapServiceContext = mapStoreContext.getMapServiceContext();
         this.writeBehindProcessor = writeBehindProcessor;
+        this.flowControl = mapServiceContext.getWriteBehindFlowControl();
+        this.logger = mapStoreContext.getLogger(StoreWorker.class);
         this.backupRunIntervalTime = getReplicaWaitTime();
         this.lastRunTime = Clock.currentTimeMillis();
     }
@@ -79,6 +121,7 @@ public class StoreWorker implements Runnable {
         InternalPartitionService partitionService = nodeEngine.getPartitionService();
         int partitionCount = partitionService.getPartitionCount();
         List<DelayedEntry> entries = new ArrayList<DelayedEntry>();
+        long depth = 0;
 
         for (int partitionId = 0; partitionId < partitionCount; partitionId++) {
             InternalPartition partition = partitionService.getPartition(partitionId, false);
@@ -91,6 +134,9 @@ public class StoreWorker implements Runnable {
             if (recordStore == null) {
                 continue;
             }
+            // drop the journaled entries stored by the previous run
+            getWriteBehindStore(recordStore).compactJournal();
+            depth += getWriteBehindQueue(recordStore).size();
 
             List<DelayedEntry> entriesToStore = getEntriesToStore(now, recordStore);
             if (!partition.isLocal()) {
@@ -102,16 +148,70 @@ public class StoreWorker implements Runnable {
             }
         }
 
+        queueDepth = depth;
         if (entries.isEmpty()) {
+            ownedQueuedBytes = flowControl.updateOwnedCost(mapName);
             return;
         }
 
-        Map<Integer, List<DelayedEntry>> failuresPerPartition = writeBehindProcessor.process(entries);
+        long startNanos = System.nanoTime();
+        Map<Integer, List<DelayedEntry>> failuresPerPartition = process(entries);
+        flushLatencyMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        flushedEntryCount.inc(entries.size());
         removeFinishedStoreOperationsFromQueues(mapName, entries);
         readdFailedStoreOperationsToQueues(mapName, failuresPerPartition);
+        ownedQueuedBytes = flowControl.updateOwnedCost(mapName);
         lastRunTime = now;
     }
 
+    private Map<Integer, List<DelayedEntry>> process(List<DelayedEntry> entries) {
+        int concurrency = Math.min(flowControl.getStoreConcurrency(), entries.size());
+        if (concurrency <= 1) {
+            return writeBehindProcessor.process(entries);
+        }
+        List<List<DelayedEntry>> streams = new ArrayList<List<DelayedEntry>>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            streams.add(new ArrayList<DelayedEntry>());
+        }
+        for (DelayedEntry entry : entries) {
+            streams.get(entry.getPartitionId() % concurrency).add(entry);
+        }
+
+        List<Future<Map<Integer, List<DelayedEntry>>>> futures = new ArrayList<Future<Map<Integer, List<DelayedEntry>>>>();
+        for (int i = 1; i < concurrency; i++) {
+            final List<DelayedEntry> stream = streams.get(i);
+            futures.add(flowControl.submit(new Callable<Map<Integer, List<DelayedEntry>>>() {
+                @Override
+                public Map<Integer, List<DelayedEntry>> call() {
+                    return writeBehindProcessor.process(stream);
+                }
+            }));
+        }
+        // the streams cover distinct partitions, so their failures can be merged
+        Map<Integer, List<DelayedEntry>> failuresPerPartition
+                = new HashMap<Integer, List<DelayedEntry>>(writeBehindProcessor.process(streams.get(0)));
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                failuresPerPartition.putAll(futures.get(i).get());
+            } catch (Exception e) {
+                logger.warning("Could not store write-behind entries of map " + mapName + ", they will be retried", e);
+                addToFailures(streams.get(i + 1), failuresPerPartition);
+            }
+        }
+        return failuresPerPartition;
+    }
+
+    private static void addToFailures(List<DelayedEntry> entries, Map<Integer, List<DelayedEntry>> failuresPerPartition) {
+        for (DelayedEntry entry : entries) {
+            List<DelayedEntry> failures = failuresPerPartition.get(entry.getPartitionId());
+            if (failures == null) {
+                failures = new ArrayList<DelayedEntry>();
+                failuresPerPartition.put(entry.getPartitionId(), failures);
+            }
+            failures.add(entry);
+        }
+    }
+
     private List<DelayedEntry> getEntriesToStore(long now, RecordStore recordStore) {
         int flushCount = getNumberOfFlushedEntries(recordStore);
         WriteBehindQueue<DelayedEntry> queue = getWriteBehindQueue(recordStore);
@@ -202,14 +302,16 @@ public class StoreWorker implements Runnable {
         return partitionContainer.getExistingRecordStore(mapName);
     }
 
+    private static WriteBehindStore getWriteBehindStore(RecordStore recordStore) {
+        return (WriteBehindStore) recordStore.getMapDataStore();
+    }
+
     private static WriteBehindQueue<DelayedEntry> getWriteBehindQueue(RecordStore recordStore) {
-        WriteBehindStore writeBehindStore = (WriteBehindStore) recordStore.getMapDataStore();
-        return writeBehindStore.getWriteBehindQueue();
+        return getWriteBehindStore(recordStore).getWriteBehindQueue();
     }
 
     private static AtomicInteger getFlushCounter(RecordStore recordStore) {
-        WriteBehindStore writeBehindStore = (WriteBehindStore) recordStore.getMapDataStore();
-        return writeBehindStore.getFlushCounter();
+        return getWriteBehindStore(recordStore).getFlushCounter();
     }
 
     private static int getNumberOfFlushedEntries(RecordStore recordStore) {
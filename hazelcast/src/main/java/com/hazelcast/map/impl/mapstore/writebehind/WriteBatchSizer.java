@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.map.impl.mapstore.writebehind;
+
+/**
+ * Adapts the number of entries passed to a {@link com.hazelcast.core.MapStore} at once to the latency of the
+ * store: the batch size grows by a quarter after a full batch is stored within the target latency, and is halved
+ * after a batch takes longer. So the batches get as large as the store can take within the target, and shrink
+ * quickly when the store slows down.
+ * <p/>
+ * Shared by the store streams of a map; concurrent updates may overwrite each other, which only delays the
+ * adaptation.
+ */
+final class WriteBatchSizer {
+
+    private static final int GROWTH_DIVISOR = 4;
+
+    private final long targetLatencyNanos;
+    private final int maxBatchSize;
+
+    private volatile int batchSize;
+
+    WriteBatchSizer(int initialBatchSize, long targetLatencyNanos, int maxBatchSize) {
+        this.batchSize = Math.max(1, initialBatchSize);
+        this.targetLatencyNanos = targetLatencyNanos;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Adapts the batch size to the latency of a stored batch.
+     *
+     * @param size         the number of entries in the batch
+     * @param latencyNanos the time it took to store the batch
+     */
+    void onBatchStored(int size, long latencyNanos) {
+        int current = batchSize;
+        if (latencyNanos > targetLatencyNanos) {
+            batchSize = Math.max(1, current / 2);
+        } else if (size >= current) {
+            batchSize = Math.min(maxBatchSize, current + Math.max(1, current / GROWTH_DIVISOR));
+        }
+    }
+}
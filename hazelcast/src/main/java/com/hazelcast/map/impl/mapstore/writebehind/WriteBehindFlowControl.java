@@ -0,0 +1,249 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.map.impl.mapstore.writebehind;
+
+import com.hazelcast.instance.GroupProperties;
+import com.hazelcast.instance.GroupProperty;
+import com.hazelcast.internal.metrics.Probe;
+import com.hazelcast.map.WriteBehindBackpressureException;
+import com.hazelcast.map.impl.MapServiceContext;
+import com.hazelcast.map.impl.mapstore.writebehind.entry.DelayedEntry;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.spi.ExecutionService;
+import com.hazelcast.spi.NodeEngine;
+import com.hazelcast.spi.impl.NodeEngineImpl;
+import com.hazelcast.util.ConstructorFunction;
+import com.hazelcast.util.counters.MwCounter;
+import com.hazelcast.util.executor.ExecutorType;
+
+import java.util.Collection;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static com.hazelcast.internal.metrics.ProbeLevel.MANDATORY;
+import static com.hazelcast.spi.ExecutionService.MAP_WRITE_BEHIND_STORE_EXECUTOR;
+import static com.hazelcast.util.ConcurrencyUtil.getOrPutIfAbsent;
+import static com.hazelcast.util.counters.MwCounter.newMwCounter;
+
+/**
+ * Controls the flow of the entries through the write-behind queues of this member.
+ * <p/>
+ * It runs the parallel store streams of the maps when {@link GroupProperty#MAP_WRITE_BEHIND_STORE_CONCURRENCY}
+ * is more than 1, creates the {@link WriteBatchSizer}s of the maps when
+ * {@link GroupProperty#MAP_WRITE_BEHIND_ADAPTIVE_BATCH_TARGET_LATENCY_MILLIS} is set, and accounts the entries of
+ * all write-behind queues, see {@link AccountingWriteBehindQueue}. When the estimated heap cost of the queues of a
+ * map on the partitions owned by this member exceeds {@link GroupProperty#MAP_WRITE_BEHIND_BACKPRESSURE_MAX_QUEUED_MB},
+ * the owner operations writing to the map are rejected with a {@link WriteBehindBackpressureException} before they
+ * run, and retried by their invocations; the partition threads never wait. Backup writes and transaction commits
+ * are never rejected. The owned cost grows with the writes and is recomputed from the partition queues by every run
+ * of the store worker of the map, which also accounts for migrations.
+ * <p/>
+ * The heap cost of an entry is estimated as the size of its serialized key and value plus a fixed overhead; a value
+ * kept in object form is shared with the record store, so it is not counted.
+ */
+public class WriteBehindFlowControl {
+
+    // rough heap cost of a delayed entry and the queue node referencing it
+    private static final int ENTRY_OVERHEAD_IN_BYTES = 64;
+    private static final long BYTES_PER_MEGABYTE = 1024 * 1024;
+    private static final int EXECUTOR_QUEUE_CAPACITY = 10000;
+
+    private final NodeEngine nodeEngine;
+    private final int storeConcurrency;
+    private final long targetBatchLatencyNanos;
+    private final int maxBatchSize;
+    private final long maxQueuedBytes;
+    private final AtomicLong queuedEntryCount = new AtomicLong();
+    private final AtomicLong queuedBytes = new AtomicLong();
+    private final ConcurrentMap<String, MapQueueCosts> mapQueueCosts = new ConcurrentHashMap<String, MapQueueCosts>();
+    private final ConstructorFunction<String, MapQueueCosts> mapQueueCostsConstructor;
+
+    @Probe(name = "rejectedWriteCount", level = MANDATORY)
+    private final MwCounter rejectedWriteCount = newMwCounter();
+
+    public WriteBehindFlowControl(MapServiceContext mapServiceContext) {
+        this.nodeEngine = mapServiceContext.getNodeEngine();
+        GroupProperties groupProperties = nodeEngine.getGroupProperties();
+        this.storeConcurrency = Math.max(1, groupProperties.getInteger(GroupProperty.MAP_WRITE_BEHIND_STORE_CONCURRENCY));
+        this.targetBatchLatencyNanos =
+                groupProperties.getNanos(GroupProperty.MAP_WRITE_BEHIND_ADAPTIVE_BATCH_TARGET_LATENCY_MILLIS);
+        this.maxBatchSize = groupProperties.getInteger(GroupProperty.MAP_WRITE_BEHIND_ADAPTIVE_BATCH_MAX_SIZE);
+        this.maxQueuedBytes =
+                groupProperties.getInteger(GroupProperty.MAP_WRITE_BEHIND_BACKPRESSURE_MAX_QUEUED_MB) * BYTES_PER_MEGABYTE;
+        final int partitionCount = nodeEngine.getPartitionService().getPartitionCount();
+        this.mapQueueCostsConstructor = new ConstructorFunction<String, MapQueueCosts>() {
+            @Override
+            public MapQueueCosts createNew(String mapName) {
+                return new MapQueueCosts(partitionCount);
+            }
+        };
+    }
+
+    public void start() {
+        if (storeConcurrency > 1) {
+            nodeEngine.getExecutionService().register(MAP_WRITE_BEHIND_STORE_EXECUTOR, storeConcurrency,
+                    EXECUTOR_QUEUE_CAPACITY, ExecutorType.CACHED);
+        }
+        ((NodeEngineImpl) nodeEngine).getMetricsRegistry().scanAndRegister(this, "map.writeBehind");
+    }
+
+    public int getStoreConcurrency() {
+        return storeConcurrency;
+    }
+
+    /**
+     * Submits a store stream to the {@link ExecutionService#MAP_WRITE_BEHIND_STORE_EXECUTOR}.
+     */
+    public <T> Future<T> submit(Callable<T> stream) {
+        return nodeEngine.getExecutionService().submit(MAP_WRITE_BEHIND_STORE_EXECUTOR, stream);
+    }
+
+    /**
+     * Creates the batch sizer of a map.
+     *
+     * @param writeBatchSize the configured write batch size of the map
+     * @return the batch sizer or {@code null} if adaptive batching is disabled
+     */
+    WriteBatchSizer newBatchSizer(int writeBatchSize) {
+        if (targetBatchLatencyNanos <= 0) {
+            return null;
+        }
+        return new WriteBatchSizer(Math.min(writeBatchSize, maxBatchSize), targetBatchLatencyNanos, maxBatchSize);
+    }
+
+    /**
+     * Rejects a write to the given map while the write-behind queues of the map on the partitions owned by this
+     * member exceed the backpressure threshold.
+     *
+     * @throws WriteBehindBackpressureException if the write is rejected
+     */
+    public void checkBackpressure(String mapName) {
+        if (maxQueuedBytes <= 0) {
+            return;
+        }
+        MapQueueCosts costs = mapQueueCosts.get(mapName);
+        if (costs == null || costs.ownedCost.get() <= maxQueuedBytes) {
+            return;
+        }
+        rejectedWriteCount.inc();
+        throw new WriteBehindBackpressureException("Write-behind queues of map " + mapName + " exceed "
+                + maxQueuedBytes + " bytes on " + nodeEngine.getThisAddress());
+    }
+
+    MapQueueCosts getMapQueueCosts(String mapName) {
+        return getOrPutIfAbsent(mapQueueCosts, mapName, mapQueueCostsConstructor);
+    }
+
+    void destroyMapQueueCosts(String mapName) {
+        mapQueueCosts.remove(mapName);
+    }
+
+    void onQueueChange(MapQueueCosts costs, int partitionId, int entryCountDelta, long newCost, long costDelta) {
+        if (entryCountDelta != 0) {
+            queuedEntryCount.addAndGet(entryCountDelta);
+        }
+        if (costDelta == 0) {
+            return;
+        }
+        queuedBytes.addAndGet(costDelta);
+        costs.partitionCosts.set(partitionId, newCost);
+        if (costDelta > 0 && isOwned(partitionId)) {
+            costs.ownedCost.addAndGet(costDelta);
+        }
+    }
+
+    /**
+     * Recomputes the cost of the write-behind queues of the map on the partitions owned by this member, called by
+     * the store worker of the map after it removed the stored entries.
+     *
+     * @return the cost in bytes
+     */
+    long updateOwnedCost(String mapName) {
+        MapQueueCosts costs = mapQueueCosts.get(mapName);
+        if (costs == null) {
+            return 0;
+        }
+        long ownedCost = 0;
+        for (int partitionId = 0; partitionId < costs.partitionCosts.length(); partitionId++) {
+            if (isOwned(partitionId)) {
+                ownedCost += costs.partitionCosts.get(partitionId);
+            }
+        }
+        costs.ownedCost.set(ownedCost);
+        return ownedCost;
+    }
+
+    private boolean isOwned(int partitionId) {
+        return nodeEngine.getPartitionService().getPartition(partitionId, false).isLocal();
+    }
+
+    /**
+     * Returns the number of entries in the write-behind queues of this member, including backups.
+     */
+    @Probe(name = "queuedEntryCount", level = MANDATORY)
+    public long getQueuedEntryCount() {
+        return queuedEntryCount.get();
+    }
+
+    /**
+     * Returns the estimated heap cost of the write-behind queues of this member in bytes, including backups.
+     */
+    @Probe(name = "queuedBytes", level = MANDATORY)
+    public long getQueuedBytes() {
+        return queuedBytes.get();
+    }
+
+    static long costOf(DelayedEntry entry) {
+        long cost = ENTRY_OVERHEAD_IN_BYTES;
+        Object key = entry.getKey();
+        if (key instanceof Data) {
+            cost += ((Data) key).getHeapCost();
+        }
+        Object value = entry.getValue();
+        if (value instanceof Data) {
+            cost += ((Data) value).getHeapCost();
+        }
+        return cost;
+    }
+
+    static long costOf(Collection<DelayedEntry> entries) {
+        long cost = 0;
+        for (DelayedEntry entry : entries) {
+            cost += costOf(entry);
+        }
+        return cost;
+    }
+
+    /**
+     * The estimated heap cost of the write-behind queues of a map per partition, and of the ones on the partitions
+     * owned by this member.
+     */
+    static final class MapQueueCosts {
+
+        private final AtomicLongArray partitionCosts;
+        private final AtomicLong ownedCost = new AtomicLong();
+
+        private MapQueueCosts(int partitionCount) {
+            this.partitionCosts = new AtomicLongArray(partitionCount);
+        }
+    }
+}
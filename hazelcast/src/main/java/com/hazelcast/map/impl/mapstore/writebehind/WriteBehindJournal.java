@@ -0,0 +1,425 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.map.impl.mapstore.writebehind;
+
+import com.hazelcast.core.HazelcastException;
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.internal.serialization.impl.HeapData;
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.map.impl.mapstore.writebehind.entry.DelayedEntry;
+import com.hazelcast.nio.Bits;
+import com.hazelcast.nio.serialization.Data;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import static com.hazelcast.nio.IOUtil.closeResource;
+import static com.hazelcast.nio.IOUtil.delete;
+
+/**
+ * The write-behind journal of a single partition of a map: an append-only file holding the {@link DelayedEntry}
+ * records added to the write-behind queue of the partition while this member owns it.
+ * <p/>
+ * Records are appended by the partition thread and made durable by {@link #sync()}, which is called off the
+ * partition thread so the records appended meanwhile share one {@code fsync}. Stored entries are not removed from
+ * the journal one by one; instead {@link #compact(WriteBehindQueue)} truncates the journal once the queue is empty,
+ * or rewrites it from the queue once most of its records are stale. The rewrite is done without holding the lock of
+ * the journal, the records appended meanwhile are copied to the rewritten journal when it replaces this one.
+ * <p/>
+ * On disk a record is framed by its body length and the CRC32 of its body, so a partially written record at the
+ * tail of the journal is detected and ignored on replay. A record holds the store time of its entry, which orders
+ * the records of a key found in the journals of different members.
+ */
+final class WriteBehindJournal {
+
+    static final String SUFFIX = ".journal";
+
+    private static final String TMP_SUFFIX = ".tmp";
+    private static final int BUFFER_SIZE = 8192;
+    private static final int FRAME_HEADER_SIZE = 2 * Bits.INT_SIZE_IN_BYTES;
+    // a journal is rewritten once it holds this many records more than twice the queue size
+    private static final int MIN_COMPACTION_RECORD_COUNT = 1024;
+
+    private final File file;
+    private final SerializationService serializationService;
+    private final WriteBehindJournalManager manager;
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+    private FileOutputStream fileOut;
+    private long recordCount;
+    private boolean dirty;
+    private boolean closed;
+    // the records appended while the journal is rewritten, null if it is not rewritten
+    private List<byte[]> appendedDuringRewrite;
+    private boolean rewriteCancelled;
+
+    WriteBehindJournal(File file, SerializationService serializationService, WriteBehindJournalManager manager) {
+        this.file = file;
+        this.serializationService = serializationService;
+        this.manager = manager;
+        try {
+            this.fileOut = new FileOutputStream(file, true);
+        } catch (IOException e) {
+            throw new HazelcastException("Could not open write-behind journal " + file, e);
+        }
+    }
+
+    /**
+     * Appends the given entry; it is durable once the next {@link #sync()} returns.
+     *
+     * @throws HazelcastException if the entry could not be written
+     */
+    void append(DelayedEntry entry) {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            try {
+                appendFrame(frame(entry, buffer));
+            } catch (IOException e) {
+                throw new HazelcastException("Could not write write-behind journal " + file, e);
+            }
+        }
+        manager.onAppend(1);
+    }
+
+    /**
+     * Replaces the records of this journal with the given entries, called when the member becomes the owner of the
+     * partition and the entries of its write-behind queue were not journaled yet.
+     *
+     * @throws HazelcastException if the entries could not be written
+     */
+    void reset(Collection<DelayedEntry> entries) {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            try {
+                truncate();
+                for (DelayedEntry entry : entries) {
+                    appendFrame(frame(entry, buffer));
+                }
+            } catch (IOException e) {
+                throw new HazelcastException("Could not write write-behind journal " + file, e);
+            }
+        }
+        if (!entries.isEmpty()) {
+            manager.onAppend(entries.size());
+        }
+    }
+
+    private void appendFrame(byte[] frame) throws IOException {
+        fileOut.write(frame);
+        recordCount++;
+        dirty = true;
+        if (appendedDuringRewrite != null) {
+            appendedDuringRewrite.add(frame);
+        }
+    }
+
+    /**
+     * Forces the records appended since the previous call to the disk. Does not block appends while syncing.
+     *
+     * @return {@code true} if there were records to sync
+     */
+    boolean sync() throws IOException {
+        FileChannel channel;
+        synchronized (this) {
+            if (closed || !dirty) {
+                return false;
+            }
+            dirty = false;
+            channel = fileOut.getChannel();
+        }
+        try {
+            channel.force(false);
+        } catch (ClosedChannelException e) {
+            // the journal was rewritten or closed meanwhile, a rewritten journal is synced by the rewrite
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Drops the stale records of this journal: truncates it if the queue is empty, or rewrites it from the queue
+     * if it holds many more records than the queue. Called after stored entries were removed from the queue, the
+     * rewrite does not block the appends.
+     *
+     * @param queue the write-behind queue of the partition
+     * @return {@code true} if the journal was compacted
+     */
+    boolean compact(WriteBehindQueue<DelayedEntry> queue) {
+        List<DelayedEntry> entries;
+        synchronized (this) {
+            if (closed || recordCount == 0 || appendedDuringRewrite != null) {
+                return false;
+            }
+            int size = queue.size();
+            if (size == 0) {
+                try {
+                    truncate();
+                } catch (IOException e) {
+                    throw new HazelcastException("Could not compact write-behind journal " + file, e);
+                }
+                manager.onCompaction();
+                return true;
+            }
+            if (recordCount < MIN_COMPACTION_RECORD_COUNT + 2L * size) {
+                return false;
+            }
+            // entries are added to the queue before they are appended, so an entry missing from the snapshot of the
+            // queue is appended after it and copied to the rewritten journal
+            entries = queue.asList();
+            appendedDuringRewrite = new ArrayList<byte[]>();
+            rewriteCancelled = false;
+        }
+        try {
+            if (!rewrite(entries)) {
+                return false;
+            }
+        } catch (IOException e) {
+            throw new HazelcastException("Could not compact write-behind journal " + file, e);
+        }
+        manager.onCompaction();
+        return true;
+    }
+
+    /**
+     * Drops all records, called when the write-behind queue is cleared.
+     */
+    synchronized void clear() {
+        if (closed || recordCount == 0) {
+            return;
+        }
+        // a running rewrite would bring the dropped records back
+        rewriteCancelled = true;
+        try {
+            truncate();
+        } catch (IOException e) {
+            throw new HazelcastException("Could not clear write-behind journal " + file, e);
+        }
+    }
+
+    /**
+     * Closes this journal; later appends are ignored.
+     *
+     * @param deleteFile whether to delete the journal file
+     */
+    synchronized void close(boolean deleteFile) {
+        closed = true;
+        closeResource(fileOut);
+        if (deleteFile) {
+            delete(file);
+        }
+    }
+
+    /**
+     * Reads the records of a journal written by a previous run of the member.
+     *
+     * @return the last record of each key in the order of the records
+     */
+    static Map<Data, JournaledEntry> read(File file, ILogger logger) throws IOException {
+        Map<Data, JournaledEntry> entries = new LinkedHashMap<Data, JournaledEntry>();
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE));
+        try {
+            boolean read;
+            do {
+                read = readRecord(in, entries);
+            } while (read);
+        } catch (IOException e) {
+            logger.warning("Ignoring the tail of the write-behind journal " + file + ": " + e.getMessage());
+        } finally {
+            closeResource(in);
+        }
+        return entries;
+    }
+
+    private static boolean readRecord(DataInputStream in, Map<Data, JournaledEntry> entries) throws IOException {
+        int length;
+        try {
+            length = in.readInt();
+        } catch (EOFException e) {
+            return false;
+        }
+        int expectedCrc = in.readInt();
+        if (length < 0) {
+            throw new IOException("Invalid record length: " + length);
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, length);
+        if ((int) crc.getValue() != expectedCrc) {
+            throw new IOException("Checksum mismatch");
+        }
+
+        DataInputStream body = new DataInputStream(new ByteArrayInputStream(bytes));
+        Data key = new HeapData(readBytes(body));
+        long storeTime = body.readLong();
+        Data value = body.readBoolean() ? new HeapData(readBytes(body)) : null;
+        // keep the keys in the order of their last records
+        entries.remove(key);
+        entries.put(key, new JournaledEntry(value, storeTime));
+        return true;
+    }
+
+    private byte[] frame(DelayedEntry entry, ByteArrayOutputStream frameBuffer) throws IOException {
+        frameBuffer.reset();
+        DataOutputStream body = new DataOutputStream(frameBuffer);
+        writeBytes(body, toBytes(entry.getKey()));
+        body.writeLong(entry.getStoreTime());
+        Object value = entry.getValue();
+        body.writeBoolean(value != null);
+        if (value != null) {
+            writeBytes(body, toBytes(value));
+        }
+        body.flush();
+
+        byte[] bytes = frameBuffer.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bytes.length);
+        ByteBuffer frame = ByteBuffer.allocate(FRAME_HEADER_SIZE + bytes.length);
+        frame.putInt(bytes.length);
+        frame.putInt((int) crc.getValue());
+        frame.put(bytes);
+        return frame.array();
+    }
+
+    private byte[] toBytes(Object object) {
+        Data data = serializationService.toData(object);
+        return data.toByteArray();
+    }
+
+    private void truncate() throws IOException {
+        fileOut.getChannel().truncate(0);
+        recordCount = 0;
+        dirty = false;
+    }
+
+    /**
+     * Writes the given entries to a new journal without holding the lock, then replaces this journal with it under
+     * the lock, together with the records appended meanwhile.
+     *
+     * @return {@code false} if the journal was cleared or closed during the rewrite, so the rewrite was dropped
+     */
+    private boolean rewrite(Collection<DelayedEntry> entries) throws IOException {
+        File tmp = new File(file.getParentFile(), file.getName() + TMP_SUFFIX);
+        try {
+            writeFrames(tmp, entries);
+        } catch (IOException e) {
+            synchronized (this) {
+                appendedDuringRewrite = null;
+            }
+            delete(tmp);
+            throw e;
+        }
+        synchronized (this) {
+            List<byte[]> appended = appendedDuringRewrite;
+            appendedDuringRewrite = null;
+            if (closed || rewriteCancelled) {
+                delete(tmp);
+                return false;
+            }
+            FileOutputStream tmpOut = new FileOutputStream(tmp, true);
+            try {
+                for (byte[] frame : appended) {
+                    tmpOut.write(frame);
+                }
+            } finally {
+                closeResource(tmpOut);
+            }
+            closeResource(fileOut);
+            try {
+                if (!tmp.renameTo(file)) {
+                    // the target of a rename may not exist on some platforms
+                    delete(file);
+                    if (!tmp.renameTo(file)) {
+                        throw new IOException("Could not rename " + tmp + " to " + file);
+                    }
+                }
+                recordCount = entries.size() + appended.size();
+                // the records appended during the rewrite are synced by the next sync
+                dirty = !appended.isEmpty();
+            } finally {
+                fileOut = new FileOutputStream(file, true);
+            }
+        }
+        return true;
+    }
+
+    private void writeFrames(File target, Collection<DelayedEntry> entries) throws IOException {
+        FileOutputStream targetOut = new FileOutputStream(target);
+        try {
+            // the buffer of the journal is used by the appends meanwhile
+            ByteArrayOutputStream rewriteBuffer = new ByteArrayOutputStream();
+            OutputStream out = new BufferedOutputStream(targetOut, BUFFER_SIZE);
+            for (DelayedEntry entry : entries) {
+                out.write(frame(entry, rewriteBuffer));
+            }
+            out.flush();
+            targetOut.getChannel().force(false);
+        } finally {
+            closeResource(targetOut);
+        }
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static byte[] readBytes(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    /**
+     * The last journaled value of a key: the value to store, or {@code null} if the key is to be deleted, and the
+     * store time of the entry.
+     */
+    static final class JournaledEntry {
+
+        final Data value;
+        final long storeTime;
+
+        JournaledEntry(Data value, long storeTime) {
+            this.value = value;
+            this.storeTime = storeTime;
+        }
+    }
+}
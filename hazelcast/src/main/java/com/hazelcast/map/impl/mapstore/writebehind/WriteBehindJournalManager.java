@@ -0,0 +1,341 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.map.impl.mapstore.writebehind;
+
+import com.hazelcast.core.HazelcastException;
+import com.hazelcast.instance.GroupProperties;
+import com.hazelcast.instance.GroupProperty;
+import com.hazelcast.internal.metrics.Probe;
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.map.impl.MapServiceContext;
+import com.hazelcast.map.impl.MapService;
+import com.hazelcast.map.impl.mapstore.writebehind.WriteBehindJournal.JournaledEntry;
+import com.hazelcast.map.impl.operation.ReplayWriteBehindJournalOperation;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.partition.InternalPartitionService;
+import com.hazelcast.spi.NodeEngine;
+import com.hazelcast.spi.OperationService;
+import com.hazelcast.spi.impl.NodeEngineImpl;
+import com.hazelcast.util.Clock;
+import com.hazelcast.util.ConstructorFunction;
+import com.hazelcast.util.counters.MwCounter;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static com.hazelcast.internal.metrics.ProbeLevel.MANDATORY;
+import static com.hazelcast.nio.IOUtil.delete;
+import static com.hazelcast.spi.ExecutionService.IO_EXECUTOR;
+import static com.hazelcast.nio.IOUtil.toFileName;
+import static com.hazelcast.util.ConcurrencyUtil.getOrPutIfAbsent;
+import static com.hazelcast.util.counters.MwCounter.newMwCounter;
+
+/**
+ * Manages the {@link WriteBehindJournal}s of the write-behind maps of this member when
+ * {@link GroupProperty#MAP_WRITE_BEHIND_JOURNAL_ENABLED} is set.
+ * <p/>
+ * The journal of a partition of a map is the file {@code <journal-dir>/<map>/<partition-id>-<generation>.journal},
+ * where the generation is the start time of the member, or is one more than the latest generation on the disk if
+ * the clock of the member went backwards. The journals are synced together every
+ * {@link GroupProperty#MAP_WRITE_BEHIND_JOURNAL_FSYNC_INTERVAL_MILLIS}, they are closed and deleted when the
+ * write-behind queues are flushed by a graceful shutdown, and left on the disk otherwise. Only the owner of a
+ * partition journals its write-behind queue.
+ * <p/>
+ * When a map is created, the journals left by the previous runs of the member are replayed, oldest journal first:
+ * the last entry of each key is sent to the current owner of its partition, which adds it to the write-behind queue
+ * unless it knows a write of the key with the same or a later store time, either queued or replayed from the
+ * journal of another member. So the members may replay in any order. Replay is at-least-once: entries which were
+ * stored but not yet compacted away are stored again. A write which was already stored and removed from the
+ * queues is not known to the owner, so a member restarting alone may still store an entry which was updated since;
+ * the store times are compared across members, so they rely on synchronized clocks.
+ */
+public class WriteBehindJournalManager {
+
+    private static final char GENERATION_SEPARATOR = '-';
+
+    private final NodeEngine nodeEngine;
+    private final ILogger logger;
+    private final boolean enabled;
+    private final File dir;
+    private final long fsyncIntervalMillis;
+    private long generation;
+    private final ConcurrentMap<String, AtomicReferenceArray<WriteBehindJournal>> journals
+            = new ConcurrentHashMap<String, AtomicReferenceArray<WriteBehindJournal>>();
+    private final ConstructorFunction<String, AtomicReferenceArray<WriteBehindJournal>> journalsConstructor;
+    private final AtomicBoolean syncScheduled = new AtomicBoolean();
+    private final Runnable syncTask = new Runnable() {
+        @Override
+        public void run() {
+            syncScheduled.set(false);
+            syncJournals();
+        }
+    };
+
+    @Probe(name = "journaledEntryCount", level = MANDATORY)
+    private final MwCounter journaledEntryCount = newMwCounter();
+    @Probe(name = "syncCount", level = MANDATORY)
+    private final MwCounter syncCount = newMwCounter();
+    @Probe(name = "compactionCount", level = MANDATORY)
+    private final MwCounter compactionCount = newMwCounter();
+    @Probe(name = "replayedEntryCount", level = MANDATORY)
+    private final MwCounter replayedEntryCount = newMwCounter();
+
+    public WriteBehindJournalManager(MapServiceContext mapServiceContext) {
+        this.nodeEngine = mapServiceContext.getNodeEngine();
+        this.logger = nodeEngine.getLogger(WriteBehindJournalManager.class);
+        GroupProperties groupProperties = nodeEngine.getGroupProperties();
+        this.enabled = groupProperties.getBoolean(GroupProperty.MAP_WRITE_BEHIND_JOURNAL_ENABLED);
+        this.dir = new File(groupProperties.getString(GroupProperty.MAP_WRITE_BEHIND_JOURNAL_DIR)).getAbsoluteFile();
+        this.fsyncIntervalMillis = groupProperties.getMillis(GroupProperty.MAP_WRITE_BEHIND_JOURNAL_FSYNC_INTERVAL_MILLIS);
+        final int partitionCount = nodeEngine.getPartitionService().getPartitionCount();
+        this.journalsConstructor = new ConstructorFunction<String, AtomicReferenceArray<WriteBehindJournal>>() {
+            @Override
+            public AtomicReferenceArray<WriteBehindJournal> createNew(String mapName) {
+                return new AtomicReferenceArray<WriteBehindJournal>(partitionCount);
+            }
+        };
+    }
+
+    public void start() {
+        if (enabled) {
+            generation = Math.max(Clock.currentTimeMillis(), getLatestGeneration() + 1);
+        }
+        if (enabled && fsyncIntervalMillis > 0) {
+            nodeEngine.getExecutionService().scheduleAtFixedRate(new Runnable() {
+                @Override
+                public void run() {
+                    syncJournals();
+                }
+            }, fsyncIntervalMillis, fsyncIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+        ((NodeEngineImpl) nodeEngine).getMetricsRegistry().scanAndRegister(this, "map.writeBehindJournal");
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Closes the journals of all maps, called when the member shuts down.
+     *
+     * @param deleteFiles {@code true} if the write-behind queues were flushed, so the journals are not needed anymore
+     */
+    public void shutdown(boolean deleteFiles) {
+        for (String mapName : journals.keySet()) {
+            closeJournals(mapName, deleteFiles);
+        }
+    }
+
+    /**
+     * Closes and deletes the journals of a destroyed map.
+     */
+    public void destroyJournals(String mapName) {
+        closeJournals(mapName, true);
+    }
+
+    WriteBehindJournal getOrCreateJournal(String mapName, int partitionId) {
+        AtomicReferenceArray<WriteBehindJournal> mapJournals = getOrPutIfAbsent(journals, mapName, journalsConstructor);
+        WriteBehindJournal journal = mapJournals.get(partitionId);
+        if (journal == null) {
+            File mapDir = getMapDir(mapName);
+            if (!mapDir.exists() && !mapDir.mkdirs()) {
+                throw new HazelcastException("Could not create write-behind journal directory " + mapDir);
+            }
+            File file = new File(mapDir, partitionId + String.valueOf(GENERATION_SEPARATOR) + generation
+                    + WriteBehindJournal.SUFFIX);
+            SerializationService serializationService = nodeEngine.getSerializationService();
+            WriteBehindJournal newJournal = new WriteBehindJournal(file, serializationService, this);
+            if (mapJournals.compareAndSet(partitionId, null, newJournal)) {
+                journal = newJournal;
+            } else {
+                newJournal.close(false);
+                journal = mapJournals.get(partitionId);
+            }
+        }
+        return journal;
+    }
+
+    /**
+     * Sends the entries journaled by the previous runs of this member for the given map to the owners of their
+     * partitions, oldest journal first, and deletes the replayed journals. Stops at the first failure, so the failed
+     * journal and the newer ones are replayed again by the next run.
+     */
+    void replay(String mapName) {
+        for (File file : journalsToReplay(getMapDir(mapName))) {
+            try {
+                Map<Data, JournaledEntry> entries = WriteBehindJournal.read(file, logger);
+                int replayedCount = replayEntries(mapName, entries);
+                delete(file);
+                replayedEntryCount.inc(replayedCount);
+            } catch (Exception e) {
+                logger.warning("Could not replay write-behind journal " + file + " of map " + mapName, e);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Counts the journaled entries and starts a sync if the journals are synced as soon as possible.
+     */
+    void onAppend(int count) {
+        journaledEntryCount.inc(count);
+        if (enabled && fsyncIntervalMillis == 0 && syncScheduled.compareAndSet(false, true)) {
+            nodeEngine.getExecutionService().execute(IO_EXECUTOR, syncTask);
+        }
+    }
+
+    void onCompaction() {
+        compactionCount.inc();
+    }
+
+    /**
+     * Sends the entries to the owners of their partitions and waits for them.
+     *
+     * @return the number of entries added to the write-behind queues
+     */
+    private int replayEntries(String mapName, Map<Data, JournaledEntry> entries) throws Exception {
+        InternalPartitionService partitionService = nodeEngine.getPartitionService();
+        Map<Integer, ReplayWriteBehindJournalOperation> operations = new HashMap<Integer, ReplayWriteBehindJournalOperation>();
+        for (Map.Entry<Data, JournaledEntry> entry : entries.entrySet()) {
+            int partitionId = partitionService.getPartitionId(entry.getKey());
+            ReplayWriteBehindJournalOperation operation = operations.get(partitionId);
+            if (operation == null) {
+                operation = new ReplayWriteBehindJournalOperation(mapName);
+                operations.put(partitionId, operation);
+            }
+            JournaledEntry journaledEntry = entry.getValue();
+            operation.addEntry(entry.getKey(), journaledEntry.value, journaledEntry.storeTime);
+        }
+
+        OperationService operationService = nodeEngine.getOperationService();
+        List<Future<Integer>> futures = new ArrayList<Future<Integer>>(operations.size());
+        for (Map.Entry<Integer, ReplayWriteBehindJournalOperation> entry : operations.entrySet()) {
+            futures.add(operationService.<Integer>invokeOnPartition(MapService.SERVICE_NAME, entry.getValue(),
+                    entry.getKey()));
+        }
+        int replayedCount = 0;
+        for (Future<Integer> future : futures) {
+            replayedCount += future.get();
+        }
+        return replayedCount;
+    }
+
+    private List<File> journalsToReplay(File mapDir) {
+        File[] files = mapDir.listFiles();
+        if (files == null) {
+            return Collections.emptyList();
+        }
+        List<File> journalsToReplay = new ArrayList<File>();
+        for (File file : files) {
+            long fileGeneration = generationOf(file);
+            if (fileGeneration >= 0 && fileGeneration != generation) {
+                journalsToReplay.add(file);
+            }
+        }
+        Collections.sort(journalsToReplay, new Comparator<File>() {
+            @Override
+            public int compare(File f1, File f2) {
+                long g1 = generationOf(f1);
+                long g2 = generationOf(f2);
+                return g1 < g2 ? -1 : (g1 == g2 ? 0 : 1);
+            }
+        });
+        return journalsToReplay;
+    }
+
+    private void syncJournals() {
+        for (AtomicReferenceArray<WriteBehindJournal> mapJournals : journals.values()) {
+            for (int i = 0; i < mapJournals.length(); i++) {
+                WriteBehindJournal journal = mapJournals.get(i);
+                if (journal == null) {
+                    continue;
+                }
+                try {
+                    if (journal.sync()) {
+                        syncCount.inc();
+                    }
+                } catch (Exception e) {
+                    logger.warning("Could not sync write-behind journal of partition " + i, e);
+                }
+            }
+        }
+    }
+
+    private void closeJournals(String mapName, boolean deleteFiles) {
+        AtomicReferenceArray<WriteBehindJournal> mapJournals = journals.remove(mapName);
+        if (mapJournals == null) {
+            return;
+        }
+        for (int i = 0; i < mapJournals.length(); i++) {
+            WriteBehindJournal journal = mapJournals.get(i);
+            if (journal != null) {
+                journal.close(deleteFiles);
+            }
+        }
+    }
+
+    private long getLatestGeneration() {
+        long latestGeneration = -1;
+        File[] mapDirs = dir.listFiles();
+        if (mapDirs == null) {
+            return latestGeneration;
+        }
+        for (File mapDir : mapDirs) {
+            File[] files = mapDir.listFiles();
+            if (files == null) {
+                continue;
+            }
+            for (File file : files) {
+                latestGeneration = Math.max(latestGeneration, generationOf(file));
+            }
+        }
+        return latestGeneration;
+    }
+
+    private File getMapDir(String mapName) {
+        return new File(dir, toFileName(mapName));
+    }
+
+    /**
+     * Returns the generation of a journal file, or -1 if the file is not a journal.
+     */
+    private static long generationOf(File file) {
+        String name = file.getName();
+        int separator = name.indexOf(GENERATION_SEPARATOR);
+        if (separator < 0 || !name.endsWith(WriteBehindJournal.SUFFIX)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(name.substring(separator + 1, name.length() - WriteBehindJournal.SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
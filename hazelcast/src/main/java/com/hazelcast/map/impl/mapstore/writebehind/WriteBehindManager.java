@@ -16,6 +16,7 @@
 
 package com.hazelcast.map.impl.mapstore.writebehind;
 
+import com.hazelcast.internal.metrics.MetricsRegistry;
 import com.hazelcast.map.impl.MapServiceContext;
 import com.hazelcast.map.impl.PartitionContainer;
 import com.hazelcast.map.impl.recordstore.RecordStore;
@@ -26,6 +27,7 @@ import com.hazelcast.map.impl.mapstore.MapStoreManager;
 import com.hazelcast.map.impl.mapstore.writebehind.entry.DelayedEntry;
 import com.hazelcast.spi.ExecutionService;
 import com.hazelcast.spi.NodeEngine;
+import com.hazelcast.spi.impl.NodeEngineImpl;
 import com.hazelcast.util.executor.ExecutorType;
 
 import java.util.concurrent.ScheduledExecutorService;
@@ -52,8 +54,11 @@ public class WriteBehindManager implements MapStoreManager {
 
     private final MapStoreContext mapStoreContext;
 
+    private final WriteBehindJournalManager journalManager;
+
     public WriteBehindManager(MapStoreContext mapStoreContext) {
         this.mapStoreContext = mapStoreContext;
+        this.journalManager = mapStoreContext.getMapServiceContext().getWriteBehindJournalManager();
         this.writeBehindProcessor = newWriteBehindProcessor(mapStoreContext);
         this.storeWorker = new StoreWorker(mapStoreContext, writeBehindProcessor);
         this.executorName = EXECUTOR_NAME_PREFIX + mapStoreContext.getMapName();
@@ -63,7 +68,17 @@ public class WriteBehindManager implements MapStoreManager {
 
     @Override
     public void start() {
+        if (journalManager.isEnabled()) {
+            // the executor runs one task at a time, so the journals are replayed before the queues are processed
+            scheduledExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    journalManager.replay(mapStoreContext.getMapName());
+                }
+            });
+        }
         scheduledExecutor.scheduleAtFixedRate(storeWorker, 1, 1, TimeUnit.SECONDS);
+        getMetricsRegistry().scanAndRegister(storeWorker, "map[" + mapStoreContext.getMapName() + "].writeBehind");
     }
 
     @Override
@@ -71,12 +86,25 @@ public class WriteBehindManager implements MapStoreManager {
         final MapServiceContext mapServiceContext = mapStoreContext.getMapServiceContext();
         NodeEngine nodeEngine = mapServiceContext.getNodeEngine();
         nodeEngine.getExecutionService().shutdownExecutor(executorName);
+        journalManager.destroyJournals(mapStoreContext.getMapName());
+        mapServiceContext.getWriteBehindFlowControl().destroyMapQueueCosts(mapStoreContext.getMapName());
+        getMetricsRegistry().deregister(storeWorker);
     }
 
     //todo get this via constructor function.
     @Override
     public MapDataStore getMapDataStore(int partitionId) {
-        return MapDataStores.createWriteBehindStore(mapStoreContext, partitionId, writeBehindProcessor);
+        MapDataStore mapDataStore = MapDataStores.createWriteBehindStore(mapStoreContext, partitionId, writeBehindProcessor);
+        if (journalManager.isEnabled()) {
+            WriteBehindJournal journal = journalManager.getOrCreateJournal(mapStoreContext.getMapName(), partitionId);
+            ((WriteBehindStore) mapDataStore).setJournal(journal);
+        }
+        return mapDataStore;
+    }
+
+    private MetricsRegistry getMetricsRegistry() {
+        NodeEngine nodeEngine = mapStoreContext.getMapServiceContext().getNodeEngine();
+        return ((NodeEngineImpl) nodeEngine).getMetricsRegistry();
     }
 
     private WriteBehindProcessor newWriteBehindProcessor(final MapStoreContext mapStoreContext) {
@@ -37,10 +37,38 @@ public final class WriteBehindQueues {
         return createSynchronizedWriteBehindQueue(queue);
     }
 
+    /**
+     * Creates a bounded queue of a partition of a map whose entries are accounted by the given flow control.
+     */
+    public static WriteBehindQueue createBoundedWriteBehindQueue(int maxCapacity, AtomicInteger counter,
+                                                                 WriteBehindFlowControl flowControl, String mapName,
+                                                                 int partitionId) {
+        final WriteBehindQueue queue = createCyclicWriteBehindQueue();
+        final WriteBehindQueue boundedQueue = createBoundedWriteBehindQueue(maxCapacity, counter, queue);
+        return createSynchronizedWriteBehindQueue(
+                createAccountingWriteBehindQueue(boundedQueue, flowControl, mapName, partitionId));
+    }
+
+    /**
+     * Creates a coalescing queue of a partition of a map whose entries are accounted by the given flow control.
+     */
+    public static WriteBehindQueue createDefaultWriteBehindQueue(WriteBehindFlowControl flowControl, String mapName,
+                                                                 int partitionId) {
+        final WriteBehindQueue queue = createCoalescedWriteBehindQueue();
+        return createSynchronizedWriteBehindQueue(
+                createAccountingWriteBehindQueue(queue, flowControl, mapName, partitionId));
+    }
+
     private static WriteBehindQueue createSynchronizedWriteBehindQueue(WriteBehindQueue queue) {
         return new SynchronizedWriteBehindQueue(queue);
     }
 
+    private static WriteBehindQueue createAccountingWriteBehindQueue(WriteBehindQueue queue,
+                                                                     WriteBehindFlowControl flowControl, String mapName,
+                                                                     int partitionId) {
+        return new AccountingWriteBehindQueue(queue, flowControl, mapName, partitionId);
+    }
+
     private static WriteBehindQueue createCoalescedWriteBehindQueue() {
         return new CoalescedWriteBehindQueue();
     }
@@ -23,6 +23,7 @@ import com.hazelcast.map.impl.mapstore.AbstractMapDataStore;
 import com.hazelcast.map.impl.mapstore.writebehind.entry.DelayedEntries;
 import com.hazelcast.map.impl.mapstore.writebehind.entry.DelayedEntry;
 import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.util.Clock;
 
 import java.util.Collection;
 import java.util.Collections;
@@ -71,6 +72,12 @@ public class WriteBehindStore extends AbstractMapDataStore<Data, Object> {
 
     private WriteBehindProcessor writeBehindProcessor;
 
+    /**
+     * Journal of the entries added to the {@code writeBehindQueue}, {@code null} unless
+     * {@link com.hazelcast.instance.GroupProperty#MAP_WRITE_BEHIND_JOURNAL_ENABLED} is set.
+     */
+    private WriteBehindJournal journal;
+
     /**
      * {@code stagingArea} is a temporary living space for evicted data if we are using a write-behind map store.
      * Every eviction triggers a map store flush, and in write-behind mode this flush operation
@@ -92,6 +99,11 @@ public class WriteBehindStore extends AbstractMapDataStore<Data, Object> {
      */
     private final ConcurrentMap<Data, DelayedEntry> stagingArea;
 
+    /**
+     * Store times of the journaled entries replayed to this partition, see {@link #addReplayed(Data, Data, long)}.
+     */
+    private final Map<Data, Long> replayedStoreTimes = new HashMap<Data, Long>();
+
     public WriteBehindStore(MapStoreWrapper store, SerializationService serializationService,
                             long writeDelayTime, int partitionId, InMemoryFormat inMemoryFormat, boolean coalesce) {
         super(store, serializationService);
@@ -106,7 +118,10 @@ public class WriteBehindStore extends AbstractMapDataStore<Data, Object> {
 
     @Override
     public Object add(Data key, Object value, long now) {
+        return addInternal(key, value, now, true);
+    }
 
+    private Object addInternal(Data key, Object value, long now, boolean owner) {
         // When using format InMemoryFormat.NATIVE, just copy key & value to heap.
         if (NATIVE == inMemoryFormat) {
             value = toData(value);
@@ -130,6 +145,9 @@ public class WriteBehindStore extends AbstractMapDataStore<Data, Object> {
                 = DelayedEntries.createDefault(key, value, storeTime, partitionId);
 
         add(delayedEntry);
+        if (owner) {
+            journal(delayedEntry);
+        }
 
         return value;
     }
@@ -139,6 +157,51 @@ public class WriteBehindStore extends AbstractMapDataStore<Data, Object> {
         stagingArea.put(delayedEntry.getKey(), delayedEntry);
     }
 
+    /**
+     * Only the owner journals its entries, the backups would journal the same entries again.
+     */
+    private void journal(DelayedEntry<Data, Object> delayedEntry) {
+        if (journal != null) {
+            journal.append(delayedEntry);
+        }
+    }
+
+    /**
+     * Journals the entries of the write-behind queue, called when this member becomes the owner of the partition.
+     */
+    public void journalQueue() {
+        if (journal != null) {
+            journal.reset(writeBehindQueue.asList());
+        }
+    }
+
+    /**
+     * Adds an entry replayed from a write-behind journal, unless a write of the key with the same or a later store
+     * time is queued or was replayed before. The journals of different members may hold different writes of a key.
+     *
+     * @param key       the key
+     * @param value     the value to store, or {@code null} to delete the key
+     * @param storeTime the store time of the journaled entry
+     * @return {@code true} if the entry was added
+     */
+    public boolean addReplayed(Data key, Data value, long storeTime) {
+        DelayedEntry staged = stagingArea.get(key);
+        Long replayedStoreTime = replayedStoreTimes.get(key);
+        if ((staged != null && staged != TRANSIENT && staged.getStoreTime() >= storeTime)
+                || (replayedStoreTime != null && replayedStoreTime >= storeTime)) {
+            return false;
+        }
+        replayedStoreTimes.put(key, storeTime);
+        // the entries delayed beyond the restart are stored right away
+        long dueTime = Math.min(storeTime, Clock.currentTimeMillis());
+        DelayedEntry<Data, Object> delayedEntry = value == null
+                ? DelayedEntries.<Data, Object>createWithoutValue(key, dueTime, partitionId)
+                : DelayedEntries.<Data, Object>createDefault(key, value, dueTime, partitionId);
+        add(delayedEntry);
+        journal(delayedEntry);
+        return true;
+    }
+
     @Override
     public void addTransient(Data key, long now) {
         if (NATIVE == inMemoryFormat) {
@@ -150,11 +213,15 @@ public class WriteBehindStore extends AbstractMapDataStore<Data, Object> {
 
     @Override
     public Object addBackup(Data key, Object value, long time) {
-        return add(key, value, time);
+        return addInternal(key, value, time, false);
     }
 
     @Override
     public void remove(Data key, long now) {
+        removeInternal(key, now, true);
+    }
+
+    private void removeInternal(Data key, long now, boolean owner) {
         if (NATIVE == inMemoryFormat) {
             key = toData(key);
         }
@@ -164,11 +231,14 @@ public class WriteBehindStore extends AbstractMapDataStore<Data, Object> {
                 = DelayedEntries.createWithoutValue(key, storeTime, partitionId);
 
         add(delayedEntry);
+        if (owner) {
+            journal(delayedEntry);
+        }
     }
 
     @Override
     public void removeBackup(Data key, long time) {
-        remove(key, time);
+        removeInternal(key, time, false);
     }
 
     @Override
@@ -176,6 +246,10 @@ public class WriteBehindStore extends AbstractMapDataStore<Data, Object> {
         writeBehindQueue.clear();
         stagingArea.clear();
         flushCounter.set(0);
+        replayedStoreTimes.clear();
+        if (journal != null) {
+            journal.clear();
+        }
     }
 
     @Override
@@ -262,7 +336,18 @@ public class WriteBehindStore extends AbstractMapDataStore<Data, Object> {
 
     @Override
     public Collection<Data> flush() {
-        return writeBehindProcessor.flush(writeBehindQueue);
+        Collection<Data> flushedKeys = writeBehindProcessor.flush(writeBehindQueue);
+        compactJournal();
+        return flushedKeys;
+    }
+
+    /**
+     * Drops the journaled entries which were stored, called after stored entries are removed from the queue.
+     */
+    void compactJournal() {
+        if (journal != null) {
+            journal.compact(writeBehindQueue);
+        }
     }
 
     public WriteBehindQueue<DelayedEntry> getWriteBehindQueue() {
@@ -277,6 +362,10 @@ public class WriteBehindStore extends AbstractMapDataStore<Data, Object> {
         this.writeBehindProcessor = writeBehindProcessor;
     }
 
+    void setJournal(WriteBehindJournal journal) {
+        this.journal = journal;
+    }
+
     public AtomicInteger getFlushCounter() {
         return flushCounter;
     }
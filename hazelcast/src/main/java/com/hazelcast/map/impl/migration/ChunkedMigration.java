@@ -0,0 +1,349 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.map.impl.migration;
+
+import com.hazelcast.core.ExecutionCallback;
+import com.hazelcast.map.impl.MapService;
+import com.hazelcast.map.impl.MapServiceContext;
+import com.hazelcast.map.impl.PartitionContainer;
+import com.hazelcast.map.impl.operation.ClearMigrationChunksOperation;
+import com.hazelcast.map.impl.operation.MapMigrationChunkOperation;
+import com.hazelcast.map.impl.record.Record;
+import com.hazelcast.map.impl.record.RecordReplicationInfo;
+import com.hazelcast.map.impl.record.Records;
+import com.hazelcast.map.impl.recordstore.RecordStore;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.partition.MigrationInfo;
+import com.hazelcast.spi.NodeEngine;
+import com.hazelcast.spi.impl.PartitionSpecificRunnable;
+import com.hazelcast.spi.impl.operationservice.InternalOperationService;
+import com.hazelcast.util.UuidUtil;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Copies the map data of a partition to the destination of its migration in chunks of
+ * {@link com.hazelcast.instance.GroupProperty#PARTITION_MIGRATION_CHUNK_SIZE} bytes.
+ * <p/>
+ * The keys of the record stores are collected when the copy starts, at the same time the record stores start to
+ * track their changes. Then the chunks are read from the current records, so the partition stays writable; the keys
+ * changed meanwhile are replicated at the cut-over. The chunks are read on the partition thread, at most as many
+ * as the destination member has permits for, see {@link ChunkedMigrationManager#getInFlightPermits(com.hazelcast.nio.Address)}.
+ * <p/>
+ * Except for the responses of the chunks, the state is only accessed by the partition thread.
+ */
+final class ChunkedMigration implements PartitionSpecificRunnable {
+
+    /**
+     * Estimated serialized size of the metadata of a record.
+     */
+    private static final int RECORD_INFO_SIZE_IN_BYTES = 64;
+
+    private static final long RETRY_DELAY_MILLIS = 10;
+
+    private enum State {
+        COPYING, ABORTING, COPIED, CUT_OVER, DONE
+    }
+
+    private final ChunkedMigrationManager manager;
+    private final MapServiceContext mapServiceContext;
+    private final NodeEngine nodeEngine;
+    private final MigrationInfo migrationInfo;
+    private final ExecutionCallback<Boolean> callback;
+    private final String copyId = UuidUtil.newUnsecureUuidString();
+    private final Semaphore inFlightPermits;
+    private final AtomicInteger inFlightChunks = new AtomicInteger();
+    private final long startNanos = System.nanoTime();
+    private final long deadlineNanos;
+
+    private final Map<String, List<Data>> keysByMapName = new LinkedHashMap<String, List<Data>>();
+    private final Set<String> trackedMapNames = new HashSet<String>();
+    private Iterator<Map.Entry<String, List<Data>>> mapIterator;
+    private String mapName;
+    private List<Data> keys;
+    private int keyIndex;
+
+    private State state = State.COPYING;
+    private volatile boolean failed;
+    private int sentChunkCount;
+    private long sentBytes;
+
+    ChunkedMigration(ChunkedMigrationManager manager, MigrationInfo migrationInfo, ExecutionCallback<Boolean> callback,
+                     long timeoutMillis) {
+        this.manager = manager;
+        this.mapServiceContext = manager.getMapServiceContext();
+        this.nodeEngine = mapServiceContext.getNodeEngine();
+        this.migrationInfo = migrationInfo;
+        this.callback = callback;
+        this.inFlightPermits = manager.getInFlightPermits(migrationInfo.getDestination());
+        this.deadlineNanos = startNanos + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+    }
+
+    @Override
+    public int getPartitionId() {
+        return migrationInfo.getPartitionId();
+    }
+
+    String getCopyId() {
+        return copyId;
+    }
+
+    /**
+     * Collects the keys to copy and starts tracking the changes of the record stores.
+     *
+     * @return {@code false} if a record store cannot track its changes
+     */
+    boolean start() {
+        PartitionContainer container = mapServiceContext.getPartitionContainer(getPartitionId());
+        for (RecordStore recordStore : container.getMaps().values()) {
+            if (!recordStore.startTrackingChanges()) {
+                stopTrackingChanges();
+                return false;
+            }
+            trackedMapNames.add(recordStore.getName());
+            List<Data> mapKeys = new ArrayList<Data>(recordStore.size());
+            Iterator<Record> iterator = recordStore.iterator();
+            while (iterator.hasNext()) {
+                mapKeys.add(iterator.next().getKey());
+            }
+            if (!mapKeys.isEmpty()) {
+                keysByMapName.put(recordStore.getName(), mapKeys);
+            }
+        }
+        mapIterator = keysByMapName.entrySet().iterator();
+        nextMap();
+        return true;
+    }
+
+    @Override
+    public void run() {
+        if (state == State.COPYING && (failed || !isDestinationAvailable() || System.nanoTime() > deadlineNanos)) {
+            state = State.ABORTING;
+        }
+        if (state == State.ABORTING) {
+            if (inFlightChunks.get() == 0) {
+                abort();
+            }
+        } else if (state == State.COPYING) {
+            copy();
+        }
+    }
+
+    private void copy() {
+        while (keys != null && inFlightPermits.tryAcquire()) {
+            send(nextChunk());
+        }
+        if (inFlightChunks.get() == 0) {
+            if (keys == null) {
+                complete();
+            } else {
+                // the permits are held by the copies of other partitions to the same member
+                scheduleRetry();
+            }
+        }
+    }
+
+    /**
+     * Stops tracking the changes and returns the changed keys by map name, {@code null} for the maps which have to
+     * be replicated as a whole. The copy stays registered until the migration is finalized.
+     */
+    Map<String, Set<Data>> cutOver() {
+        state = State.CUT_OVER;
+        Map<String, Set<Data>> changedKeys = new HashMap<String, Set<Data>>(trackedMapNames.size());
+        PartitionContainer container = mapServiceContext.getPartitionContainer(getPartitionId());
+        for (String name : trackedMapNames) {
+            RecordStore recordStore = container.getExistingRecordStore(name);
+            if (recordStore != null) {
+                changedKeys.put(name, recordStore.stopTrackingChanges());
+            }
+        }
+        return changedKeys;
+    }
+
+    boolean isCopied() {
+        return state == State.COPIED && sentChunkCount > 0;
+    }
+
+    /**
+     * Cancels the copy, the copied data is removed from the destination.
+     */
+    void cancel() {
+        if (state == State.COPYING || state == State.ABORTING) {
+            failed = true;
+            run();
+            return;
+        }
+        if (state == State.COPIED) {
+            stopTrackingChanges();
+        }
+        if (state != State.DONE) {
+            state = State.DONE;
+            clearDestination();
+        }
+    }
+
+    /**
+     * Marks the copy as done, after the migration committed.
+     */
+    void done() {
+        if (state == State.COPIED) {
+            stopTrackingChanges();
+        }
+        state = State.DONE;
+    }
+
+    void onChunkResponse(boolean accepted) {
+        if (!accepted) {
+            failed = true;
+        }
+        inFlightChunks.decrementAndGet();
+        inFlightPermits.release();
+        execute();
+    }
+
+    private MapMigrationChunkOperation nextChunk() {
+        Map<String, List<RecordReplicationInfo>> data = new HashMap<String, List<RecordReplicationInfo>>();
+        PartitionContainer container = mapServiceContext.getPartitionContainer(getPartitionId());
+        long chunkBytes = 0;
+        while (keys != null && chunkBytes < manager.getChunkSize()) {
+            RecordStore recordStore = container.getExistingRecordStore(mapName);
+            Record record = recordStore != null ? recordStore.getRecord(keys.get(keyIndex)) : null;
+            if (record != null) {
+                RecordReplicationInfo info = createRecordReplicationInfo(record);
+                chunkBytes += info.getKey().totalSize() + info.getValue().totalSize() + RECORD_INFO_SIZE_IN_BYTES;
+                List<RecordReplicationInfo> records = data.get(mapName);
+                if (records == null) {
+                    records = new ArrayList<RecordReplicationInfo>();
+                    data.put(mapName, records);
+                }
+                records.add(info);
+            }
+            if (++keyIndex == keys.size()) {
+                nextMap();
+            }
+        }
+        sentChunkCount++;
+        sentBytes += chunkBytes;
+        manager.onChunkSent(chunkBytes);
+        MapMigrationChunkOperation operation = new MapMigrationChunkOperation(copyId, data);
+        operation.setPartitionId(getPartitionId()).setValidateTarget(false);
+        return operation;
+    }
+
+    private RecordReplicationInfo createRecordReplicationInfo(Record record) {
+        Data value = mapServiceContext.toData(record.getValue());
+        return new RecordReplicationInfo(record.getKey(), value, Records.buildRecordInfo(record));
+    }
+
+    private void nextMap() {
+        if (keys != null) {
+            // the keys of a copied map are not needed anymore
+            mapIterator.remove();
+        }
+        if (mapIterator.hasNext()) {
+            Map.Entry<String, List<Data>> entry = mapIterator.next();
+            mapName = entry.getKey();
+            keys = entry.getValue();
+        } else {
+            mapName = null;
+            keys = null;
+        }
+        keyIndex = 0;
+    }
+
+    private void send(MapMigrationChunkOperation operation) {
+        inFlightChunks.incrementAndGet();
+        nodeEngine.getOperationService()
+                .createInvocationBuilder(MapService.SERVICE_NAME, operation, migrationInfo.getDestination())
+                .setExecutionCallback(new ExecutionCallback<Object>() {
+                    @Override
+                    public void onResponse(Object response) {
+                        onChunkResponse(Boolean.TRUE.equals(response));
+                    }
+
+                    @Override
+                    public void onFailure(Throwable t) {
+                        nodeEngine.getLogger(ChunkedMigration.class).warning("Chunk of the chunked migration of "
+                                + migrationInfo + " could not be sent", t);
+                        onChunkResponse(false);
+                    }
+                })
+                .invoke();
+    }
+
+    private void complete() {
+        state = State.COPIED;
+        manager.onCopyCompleted(sentBytes, System.nanoTime() - startNanos);
+        callback.onResponse(true);
+    }
+
+    private void abort() {
+        stopTrackingChanges();
+        state = State.DONE;
+        manager.remove(this);
+        clearDestination();
+        callback.onResponse(false);
+    }
+
+    private void clearDestination() {
+        if (sentChunkCount == 0) {
+            return;
+        }
+        ClearMigrationChunksOperation operation = new ClearMigrationChunksOperation(copyId);
+        operation.setPartitionId(getPartitionId()).setValidateTarget(false);
+        nodeEngine.getOperationService()
+                .invokeOnTarget(MapService.SERVICE_NAME, operation, migrationInfo.getDestination());
+    }
+
+    private void stopTrackingChanges() {
+        PartitionContainer container = mapServiceContext.getPartitionContainer(getPartitionId());
+        for (String name : trackedMapNames) {
+            RecordStore recordStore = container.getExistingRecordStore(name);
+            if (recordStore != null) {
+                recordStore.stopTrackingChanges();
+            }
+        }
+    }
+
+    private boolean isDestinationAvailable() {
+        return migrationInfo.isValid() && nodeEngine.getClusterService().getMember(migrationInfo.getDestination()) != null;
+    }
+
+    private void execute() {
+        ((InternalOperationService) nodeEngine.getOperationService()).execute(this);
+    }
+
+    private void scheduleRetry() {
+        nodeEngine.getExecutionService().schedule(new Runnable() {
+            @Override
+            public void run() {
+                execute();
+            }
+        }, RETRY_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+    }
+}
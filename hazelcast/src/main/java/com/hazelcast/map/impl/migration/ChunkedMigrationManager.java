@@ -0,0 +1,269 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.map.impl.migration;
+
+import com.hazelcast.config.InMemoryFormat;
+import com.hazelcast.core.ExecutionCallback;
+import com.hazelcast.core.HazelcastException;
+import com.hazelcast.core.MembershipAdapter;
+import com.hazelcast.core.MembershipEvent;
+import com.hazelcast.instance.GroupProperties;
+import com.hazelcast.instance.GroupProperty;
+import com.hazelcast.internal.metrics.Probe;
+import com.hazelcast.map.impl.MapServiceContext;
+import com.hazelcast.map.impl.PartitionContainer;
+import com.hazelcast.map.impl.operation.MapReplicationOperation;
+import com.hazelcast.map.impl.recordstore.RecordStore;
+import com.hazelcast.nio.Address;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.partition.InternalPartition;
+import com.hazelcast.partition.MigrationInfo;
+import com.hazelcast.spi.NodeEngine;
+import com.hazelcast.spi.Operation;
+import com.hazelcast.spi.PartitionReplicationEvent;
+import com.hazelcast.spi.impl.NodeEngineImpl;
+import com.hazelcast.util.counters.MwCounter;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+
+import static com.hazelcast.internal.metrics.ProbeLevel.MANDATORY;
+import static com.hazelcast.util.counters.MwCounter.newMwCounter;
+
+/**
+ * Manages the chunked migrations of the map partitions, see {@link com.hazelcast.spi.ChunkedMigrationAwareService}.
+ * <p/>
+ * On the source of a migration a {@link ChunkedMigration} copies the records of the partition in chunks; the chunks
+ * sent to a member share {@link GroupProperty#PARTITION_MIGRATION_CHUNK_MAX_IN_FLIGHT} permits, so a member which
+ * applies the chunks slowly is not flooded by the copies of several partitions; the permits of a member are dropped
+ * when it leaves the cluster. At the cut-over only the keys changed
+ * during the copy are replicated by the {@link MapReplicationOperation}.
+ * <p/>
+ * On the destination the id of the copy received for a partition is kept, so the chunks of an abandoned copy are
+ * replaced and the cut-over fails if its copy is not the received one.
+ */
+public class ChunkedMigrationManager {
+
+    private final MapServiceContext mapServiceContext;
+    private final NodeEngine nodeEngine;
+    private final int chunkSize;
+    private final int maxInFlightChunks;
+    private final long copyTimeoutMillis;
+
+    private final ConcurrentMap<Integer, ChunkedMigration> migrations = new ConcurrentHashMap<Integer, ChunkedMigration>();
+    private final ConcurrentMap<Address, Semaphore> inFlightPermits = new ConcurrentHashMap<Address, Semaphore>();
+    private final ConcurrentMap<Integer, String> receivedCopies = new ConcurrentHashMap<Integer, String>();
+
+    @Probe(name = "sentChunkCount", level = MANDATORY)
+    private final MwCounter sentChunkCount = newMwCounter();
+    @Probe(name = "sentBytes", level = MANDATORY)
+    private final MwCounter sentBytes = newMwCounter();
+    @Probe(name = "completedCopyCount", level = MANDATORY)
+    private final MwCounter completedCopyCount = newMwCounter();
+    // cumulative, so any number of readers can compute the copy throughput over their own interval
+    @Probe(name = "completedCopyBytes", level = MANDATORY)
+    private final MwCounter completedCopyBytes = newMwCounter();
+    @Probe(name = "completedCopyNanos", level = MANDATORY)
+    private final MwCounter completedCopyNanos = newMwCounter();
+
+    public ChunkedMigrationManager(MapServiceContext mapServiceContext) {
+        this.mapServiceContext = mapServiceContext;
+        this.nodeEngine = mapServiceContext.getNodeEngine();
+        GroupProperties groupProperties = nodeEngine.getGroupProperties();
+        this.chunkSize = groupProperties.getInteger(GroupProperty.PARTITION_MIGRATION_CHUNK_SIZE);
+        this.maxInFlightChunks = groupProperties.getInteger(GroupProperty.PARTITION_MIGRATION_CHUNK_MAX_IN_FLIGHT);
+        // the master waits for the whole migration by this timeout, half of it is left for the cut-over
+        this.copyTimeoutMillis = groupProperties.getMillis(GroupProperty.PARTITION_MIGRATION_TIMEOUT) / 2;
+    }
+
+    public void start() {
+        ((NodeEngineImpl) nodeEngine).getMetricsRegistry().scanAndRegister(this, "map.migration");
+        nodeEngine.getClusterService().addMembershipListener(new MembershipAdapter() {
+            @Override
+            public void memberRemoved(MembershipEvent membershipEvent) {
+                inFlightPermits.remove(membershipEvent.getMember().getAddress());
+            }
+        });
+    }
+
+    /**
+     * Starts the chunked migration of a partition owned by this member, see
+     * {@link com.hazelcast.spi.ChunkedMigrationAwareService#startChunkedMigration(MigrationInfo, ExecutionCallback)}.
+     */
+    public void startChunkedMigration(MigrationInfo migrationInfo, ExecutionCallback<Boolean> callback) {
+        int partitionId = migrationInfo.getPartitionId();
+        cancelChunkedMigration(partitionId);
+        if (hasNativeRecordStore(partitionId)) {
+            callback.onResponse(false);
+            return;
+        }
+        ChunkedMigration migration = new ChunkedMigration(this, migrationInfo, callback, copyTimeoutMillis);
+        if (!migration.start()) {
+            callback.onResponse(false);
+            return;
+        }
+        migrations.put(partitionId, migration);
+        migration.run();
+    }
+
+    /**
+     * Returns the replication operation of the cut-over, which replicates the keys changed during the copy, or the
+     * whole partition if the copy did not complete.
+     */
+    public Operation prepareChunkedReplicationOperation(PartitionReplicationEvent event) {
+        int partitionId = event.getPartitionId();
+        ChunkedMigration migration = migrations.get(partitionId);
+        Map<String, Set<Data>> changedKeys = null;
+        String copyId = null;
+        if (migration != null) {
+            boolean copied = migration.isCopied();
+            Map<String, Set<Data>> keys = migration.cutOver();
+            if (copied) {
+                changedKeys = keys;
+                copyId = migration.getCopyId();
+            }
+        }
+        PartitionContainer container = mapServiceContext.getPartitionContainer(partitionId);
+        MapReplicationOperation operation = new MapReplicationOperation(mapServiceContext.getService(), container,
+                partitionId, event.getReplicaIndex(), copyId, changedKeys);
+        operation.setService(mapServiceContext.getService());
+        return operation;
+    }
+
+    /**
+     * Cancels the chunked migration of a partition, the data copied to the destination is removed.
+     */
+    public void cancelChunkedMigration(int partitionId) {
+        ChunkedMigration migration = migrations.remove(partitionId);
+        if (migration != null) {
+            migration.cancel();
+        }
+    }
+
+    /**
+     * Called when the migration of a partition committed on this member, as its source.
+     */
+    public void onMigrationCommitted(int partitionId) {
+        ChunkedMigration migration = migrations.remove(partitionId);
+        if (migration != null) {
+            migration.done();
+        }
+    }
+
+    /**
+     * Called on the destination of a chunked migration, on the partition thread, before a chunk is applied.
+     *
+     * @return {@code false} if the chunk is rejected, since this member is a replica of the partition or the sender
+     * is not its owner
+     */
+    public boolean onChunkReceived(int partitionId, String copyId, Address sender) {
+        InternalPartition partition = nodeEngine.getPartitionService().getPartition(partitionId);
+        // a replica does not overwrite its data by the copy of a migration, which may fail
+        if (partition.isOwnerOrBackup(nodeEngine.getThisAddress()) || !sender.equals(partition.getOwnerOrNull())) {
+            return false;
+        }
+        if (!copyId.equals(receivedCopies.put(partitionId, copyId))) {
+            // the data of an abandoned copy is replaced
+            mapServiceContext.clearPartitionData(partitionId);
+        }
+        return true;
+    }
+
+    /**
+     * Called on the destination of a chunked migration, on the partition thread, when the copy is cancelled.
+     */
+    public void onCopyCancelled(int partitionId, String copyId) {
+        InternalPartition partition = nodeEngine.getPartitionService().getPartition(partitionId);
+        if (receivedCopies.remove(partitionId, copyId) && !partition.isOwnerOrBackup(nodeEngine.getThisAddress())) {
+            mapServiceContext.clearPartitionData(partitionId);
+        }
+    }
+
+    /**
+     * Called on the destination of a chunked migration, on the partition thread, when the changes of the copy are
+     * replicated at the cut-over.
+     *
+     * @throws HazelcastException if the copy was not received by this member
+     */
+    public void onCutOver(int partitionId, String copyId) {
+        if (!receivedCopies.remove(partitionId, copyId)) {
+            throw new HazelcastException("Copy " + copyId + " of the chunked migration of partition " + partitionId
+                    + " is not found");
+        }
+    }
+
+    /**
+     * Returns the average chunk size in bytes.
+     */
+    @Probe(name = "averageChunkSizeBytes", level = MANDATORY)
+    public long getAverageChunkSizeBytes() {
+        long count = sentChunkCount.get();
+        return count > 0 ? sentBytes.get() / count : 0;
+    }
+
+    MapServiceContext getMapServiceContext() {
+        return mapServiceContext;
+    }
+
+    int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * Returns the permits of the chunks in flight to a member, shared by the copies of all partitions.
+     */
+    Semaphore getInFlightPermits(Address member) {
+        Semaphore permits = inFlightPermits.get(member);
+        if (permits == null) {
+            permits = new Semaphore(maxInFlightChunks);
+            Semaphore current = inFlightPermits.putIfAbsent(member, permits);
+            if (current != null) {
+                permits = current;
+            }
+        }
+        return permits;
+    }
+
+    void onChunkSent(long bytes) {
+        sentChunkCount.inc();
+        sentBytes.inc(bytes);
+    }
+
+    void onCopyCompleted(long bytes, long nanos) {
+        completedCopyCount.inc();
+        completedCopyBytes.inc(bytes);
+        completedCopyNanos.inc(nanos);
+    }
+
+    void remove(ChunkedMigration migration) {
+        migrations.remove(migration.getPartitionId(), migration);
+    }
+
+    private boolean hasNativeRecordStore(int partitionId) {
+        PartitionContainer container = mapServiceContext.getPartitionContainer(partitionId);
+        for (RecordStore recordStore : container.getMaps().values()) {
+            if (recordStore.getMapContainer().getMapConfig().getInMemoryFormat() == InMemoryFormat.NATIVE) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -21,6 +21,8 @@ import com.hazelcast.config.Config;
 import com.hazelcast.config.EvictionPolicy;
 import com.hazelcast.config.InMemoryFormat;
 import com.hazelcast.config.NearCacheConfig;
+import com.hazelcast.internal.eviction.Evictable;
+import com.hazelcast.internal.eviction.impl.evaluator.TinyLFUEvictionPolicyEvaluator;
 import com.hazelcast.internal.serialization.SerializationService;
 import com.hazelcast.map.impl.SizeEstimator;
 import com.hazelcast.monitor.impl.NearCacheStatsImpl;
@@ -63,6 +65,7 @@ public class NearCacheImpl implements NearCache<Data, Object> {
     private final NearCacheStatsImpl nearCacheStats;
     private final SerializationService serializationService;
     private final Comparator<NearCacheRecord> selectedComparator;
+    private final TinyLFUEvictionPolicyEvaluator<Object, Evictable> tinyLfuEvaluator;
     private final boolean invalidateOnChange;
 
     private SizeEstimator nearCacheSizeEstimator;
@@ -80,7 +83,10 @@ public class NearCacheImpl implements NearCache<Data, Object> {
         this.inMemoryFormat = nearCacheConfig.getInMemoryFormat();
         this.timeToLiveMillis = TimeUnit.SECONDS.toMillis(nearCacheConfig.getTimeToLiveSeconds());
         this.evictionPolicy = EvictionPolicy.valueOf(nearCacheConfig.getEvictionPolicy());
-        this.selectedComparator = NearCacheRecord.getComparator(evictionPolicy);
+        this.tinyLfuEvaluator = evictionPolicy == EvictionPolicy.TINY_LFU
+                ? new TinyLFUEvictionPolicyEvaluator<Object, Evictable>() : null;
+        this.selectedComparator = tinyLfuEvaluator != null
+                ? NearCacheRecord.getTinyLFUComparator(tinyLfuEvaluator) : NearCacheRecord.getComparator(evictionPolicy);
         this.cache = new ConcurrentHashMap<Data, NearCacheRecord>();
         this.canCleanUp = new AtomicBoolean(true);
         this.canEvict = new AtomicBoolean(true);
@@ -109,6 +115,10 @@ public class NearCacheImpl implements NearCache<Data, Object> {
         }
         final NearCacheRecord record = new NearCacheRecord(key, value);
         NearCacheRecord previous = cache.put(key, record);
+        if (tinyLfuEvaluator != null) {
+            tinyLfuEvaluator.ensureCapacity(cache.size());
+            tinyLfuEvaluator.onAccess(key);
+        }
         updateSizeEstimator(calculateCost(record));
         if (previous != null) {
             updateSizeEstimator(-calculateCost(previous));
@@ -218,6 +228,7 @@ public class NearCacheImpl implements NearCache<Data, Object> {
     @Override
     public Object get(Data key) {
         fireTtlCleanup();
+        onKeyAccess(key);
         NearCacheRecord record = cache.get(key);
         if (record != null) {
             if (record.isExpired(maxIdleMillis, timeToLiveMillis)) {
@@ -235,6 +246,12 @@ public class NearCacheImpl implements NearCache<Data, Object> {
         }
     }
 
+    private void onKeyAccess(Data key) {
+        if (tinyLfuEvaluator != null) {
+            tinyLfuEvaluator.onAccess(key);
+        }
+    }
+
     @Override
     public boolean remove(Data key) {
         final NearCacheRecord record = cache.remove(key);
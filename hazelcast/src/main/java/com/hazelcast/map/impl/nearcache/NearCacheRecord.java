@@ -17,6 +17,7 @@
 package com.hazelcast.map.impl.nearcache;
 
 import com.hazelcast.config.EvictionPolicy;
+import com.hazelcast.internal.eviction.impl.evaluator.TinyLFUEvictionPolicyEvaluator;
 import com.hazelcast.nio.serialization.Data;
 import com.hazelcast.util.Clock;
 import com.hazelcast.util.QuickMath;
@@ -120,5 +121,29 @@ public class NearCacheRecord {
         }
     }
 
+    /**
+     * Returns the comparator of the {@link EvictionPolicy#TINY_LFU} eviction policy, which orders the records in the
+     * window of recently used keys last and the others by their estimated access frequency, then like LRU.
+     *
+     * @param evaluator the access history of the near cache
+     * @return comparator function for the TINY_LFU eviction policy
+     */
+    public static Comparator<NearCacheRecord> getTinyLFUComparator(
+            final TinyLFUEvictionPolicyEvaluator<Object, ?> evaluator) {
+        return new Comparator<NearCacheRecord>() {
+            public int compare(NearCacheRecord o1, NearCacheRecord o2) {
+                boolean inWindow1 = evaluator.isInWindow(o1.key);
+                if (inWindow1 != evaluator.isInWindow(o2.key)) {
+                    return inWindow1 ? 1 : -1;
+                }
+                int result = QuickMath.compareIntegers(evaluator.frequency(o1.key), evaluator.frequency(o2.key));
+                if (result != 0) {
+                    return result;
+                }
+                return LRU_COMPARATOR.compare(o1, o2);
+            }
+        };
+    }
+
 
 }
@@ -20,6 +20,7 @@ import com.hazelcast.config.InMemoryFormat;
 import com.hazelcast.config.MapConfig;
 import com.hazelcast.core.EntryEventType;
 import com.hazelcast.core.EntryView;
+import com.hazelcast.core.ReadOnly;
 import com.hazelcast.map.EntryBackupProcessor;
 import com.hazelcast.map.EntryProcessor;
 import com.hazelcast.map.impl.LazyMapEntry;
@@ -258,9 +259,23 @@ abstract class AbstractMultipleEntryOperation extends MapOperation implements Mu
 
     protected Data process(Map.Entry entry) {
         final Object result = entryProcessor.process(entry);
+        if (isReadOnly() && ((LazyMapEntry) entry).isModified()) {
+            throw new UnsupportedOperationException("A ReadOnly entry processor must not modify the entry: " + entryProcessor);
+        }
         return toData(result);
     }
 
+    /**
+     * A {@link ReadOnly} entry processor is not backed up, even if it has a backup processor.
+     */
+    protected boolean shouldBackupEntryProcessor() {
+        return !isReadOnly() && entryProcessor.getBackupProcessor() != null;
+    }
+
+    protected boolean isReadOnly() {
+        return entryProcessor instanceof ReadOnly;
+    }
+
     protected void processBackup(Map.Entry entry) {
         backupProcessor.processBackup(entry);
     }
@@ -40,14 +40,20 @@ public class AddIndexOperation extends AbstractNamedOperation implements Partiti
 
     private String attributeName;
     private boolean ordered;
+    private boolean bitmap;
 
     public AddIndexOperation() {
     }
 
     public AddIndexOperation(String name, String attributeName, boolean ordered) {
+        this(name, attributeName, ordered, false);
+    }
+
+    public AddIndexOperation(String name, String attributeName, boolean ordered, boolean bitmap) {
         super(name);
         this.attributeName = attributeName;
         this.ordered = ordered;
+        this.bitmap = bitmap;
     }
 
     @Override
@@ -62,7 +68,7 @@ public class AddIndexOperation extends AbstractNamedOperation implements Partiti
         RecordStore recordStore = mapService.getMapServiceContext()
                 .getPartitionContainer(getPartitionId()).getRecordStore(name);
         Indexes indexes = mapContainer.getIndexes();
-        Index index = indexes.addOrGetIndex(attributeName, ordered);
+        Index index = indexes.addOrGetIndex(attributeName, ordered, bitmap);
 
         final long now = getNow();
         final Iterator<Record> iterator = recordStore.iterator(now, false);
@@ -90,6 +96,7 @@ public class AddIndexOperation extends AbstractNamedOperation implements Partiti
         super.writeInternal(out);
         out.writeUTF(attributeName);
         out.writeBoolean(ordered);
+        out.writeBoolean(bitmap);
     }
 
     @Override
@@ -97,5 +104,6 @@ public class AddIndexOperation extends AbstractNamedOperation implements Partiti
         super.readInternal(in);
         attributeName = in.readUTF();
         ordered = in.readBoolean();
+        bitmap = in.readBoolean();
     }
 }
@@ -18,6 +18,7 @@ package com.hazelcast.map.impl.operation;
 
 import com.hazelcast.core.EntryEventType;
 import com.hazelcast.core.EntryView;
+import com.hazelcast.internal.serialization.impl.CompressedData;
 import com.hazelcast.map.impl.EntryViews;
 import com.hazelcast.map.impl.MapServiceContext;
 import com.hazelcast.map.impl.event.MapEventPublisher;
@@ -48,6 +49,12 @@ public abstract class BasePutOperation extends LockAwareOperation implements Bac
     public BasePutOperation() {
     }
 
+    @Override
+    public void innerBeforeRun() throws Exception {
+        super.innerBeforeRun();
+        checkWriteBehindBackpressure();
+    }
+
     @Override
     public void afterRun() {
         final MapServiceContext mapServiceContext = mapService.getMapServiceContext();
@@ -102,7 +109,9 @@ public abstract class BasePutOperation extends LockAwareOperation implements Bac
         final RecordInfo replicationInfo = buildRecordInfo(record);
         final MapDataStore<Data, Object> mapDataStore = recordStore.getMapDataStore();
         final MapServiceContext mapServiceContext = mapService.getMapServiceContext();
-        if (mapServiceContext.hasInterceptor(name) || mapDataStore.isPostProcessingMapStore()) {
+        // the backup gets the stored value if it differs from the put one, a compressed value is not compressed again
+        if (mapServiceContext.hasInterceptor(name) || mapDataStore.isPostProcessingMapStore()
+                || record.getValue() instanceof CompressedData) {
             dataValue = mapServiceContext.toData(record.getValue());
         }
         return new PutBackupOperation(name, dataKey, dataValue, replicationInfo, putTransient);
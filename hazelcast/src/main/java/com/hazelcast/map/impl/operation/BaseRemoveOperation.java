@@ -47,6 +47,12 @@ public abstract class BaseRemoveOperation extends LockAwareOperation implements
     public BaseRemoveOperation() {
     }
 
+    @Override
+    public void innerBeforeRun() throws Exception {
+        super.innerBeforeRun();
+        checkWriteBehindBackpressure();
+    }
+
     @Override
     public void afterRun() {
         final MapServiceContext mapServiceContext = mapService.getMapServiceContext();
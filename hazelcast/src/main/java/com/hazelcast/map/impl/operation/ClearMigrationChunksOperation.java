@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.map.impl.operation;
+
+import com.hazelcast.map.impl.MapService;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.spi.AbstractOperation;
+import com.hazelcast.spi.impl.MutatingOperation;
+
+import java.io.IOException;
+
+/**
+ * Removes the records copied by a cancelled chunked migration from its destination.
+ *
+ * @see com.hazelcast.map.impl.migration.ChunkedMigrationManager
+ */
+public class ClearMigrationChunksOperation extends AbstractOperation implements MutatingOperation {
+
+    private String copyId;
+
+    public ClearMigrationChunksOperation() {
+    }
+
+    public ClearMigrationChunksOperation(String copyId) {
+        this.copyId = copyId;
+    }
+
+    @Override
+    public void run() {
+        MapService mapService = getService();
+        mapService.getMapServiceContext().getChunkedMigrationManager().onCopyCancelled(getPartitionId(), copyId);
+    }
+
+    @Override
+    public String getServiceName() {
+        return MapService.SERVICE_NAME;
+    }
+
+    @Override
+    protected void writeInternal(ObjectDataOutput out) throws IOException {
+        out.writeUTF(copyId);
+    }
+
+    @Override
+    protected void readInternal(ObjectDataInput in) throws IOException {
+        copyId = in.readUTF();
+    }
+}
@@ -17,6 +17,7 @@
 package com.hazelcast.map.impl.operation;
 
 import com.hazelcast.core.EntryView;
+import com.hazelcast.core.ReadOnly;
 import com.hazelcast.map.EntryProcessor;
 import com.hazelcast.map.impl.MapEntries;
 import com.hazelcast.map.impl.tx.TxnDeleteOperation;
@@ -28,6 +29,7 @@ import com.hazelcast.query.Predicate;
 import com.hazelcast.spi.OperationFactory;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -110,6 +112,9 @@ public class DefaultMapOperationProvider implements MapOperationProvider {
 
     @Override
     public MapOperation createEntryOperation(String name, Data dataKey, EntryProcessor entryProcessor) {
+        if (entryProcessor instanceof ReadOnly) {
+            return new ReadOnlyEntryOperation(name, dataKey, entryProcessor);
+        }
         return new EntryOperation(name, dataKey, entryProcessor);
     }
 
@@ -138,6 +143,11 @@ public class DefaultMapOperationProvider implements MapOperationProvider {
         return new MapGetAllOperationFactory(name, keys);
     }
 
+    @Override
+    public OperationFactory createPutAllOperationFactory(String name, Map<Integer, MapEntries> entriesByPartition) {
+        return new MapPutAllOperationFactory(name, entriesByPartition);
+    }
+
     @Override
     public OperationFactory createEvictAllOperationFactory(String name) {
         return new EvictAllOperationFactory(name);
@@ -219,11 +229,21 @@ public class DefaultMapOperationProvider implements MapOperationProvider {
         return new GetOperation(name, dataKey);
     }
 
+    @Override
+    public MapOperation createReadBackupDataOperation(String name, Data dataKey) {
+        return new ReadBackupDataOperation(name, dataKey);
+    }
+
     @Override
     public MapOperation createLoadAllOperation(String name, List<Data> keys, boolean replaceExistingValues) {
         return new LoadAllOperation(name, keys, replaceExistingValues);
     }
 
+    @Override
+    public MapOperation createLoadPartitionOperation(String name, boolean replaceExistingValues) {
+        return new LoadPartitionOperation(name, replaceExistingValues);
+    }
+
     @Override
     public MapOperation createPutAllOperation(String name, MapEntries mapEntries, boolean initialLoad) {
         return new PutAllOperation(name, mapEntries, initialLoad);
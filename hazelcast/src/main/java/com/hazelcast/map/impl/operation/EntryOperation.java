@@ -69,6 +69,7 @@ public class EntryOperation extends LockAwareOperation implements BackupAwareOpe
     @Override
     public void innerBeforeRun() throws Exception {
         super.innerBeforeRun();
+        checkWriteBehindBackpressure();
 
         final SerializationService serializationService = getNodeEngine().getSerializationService();
         final ManagedContext managedContext = serializationService.getManagedContext();
@@ -17,6 +17,7 @@
 package com.hazelcast.map.impl.operation;
 
 import com.hazelcast.concurrent.lock.LockWaitNotifyKey;
+import com.hazelcast.core.ExecutionCallback;
 import com.hazelcast.core.OperationTimeoutException;
 import com.hazelcast.map.impl.MapDataSerializerHook;
 import com.hazelcast.map.impl.MapService;
@@ -27,11 +28,13 @@ import com.hazelcast.spi.DefaultObjectNamespace;
 import com.hazelcast.spi.ReadonlyOperation;
 import com.hazelcast.spi.WaitNotifyKey;
 import com.hazelcast.spi.WaitSupport;
+import com.hazelcast.spi.impl.operationservice.InternalOperationService;
 
 public final class GetOperation extends KeyBasedMapOperation
         implements IdentifiedDataSerializable, WaitSupport, ReadonlyOperation {
 
     private Data result;
+    private transient boolean loading;
 
     public GetOperation() {
     }
@@ -42,16 +45,30 @@ public final class GetOperation extends KeyBasedMapOperation
 
     @Override
     public void run() {
+        if (recordStore.loadAsync(dataKey, new LoadCallback())) {
+            // the load may take longer than the call timeout, the invocation must see the get as still executing
+            getOperationService().onStartAsyncOperation(this);
+            loading = true;
+            return;
+        }
         MapServiceContext mapServiceContext = mapService.getMapServiceContext();
         result = mapServiceContext.toData(recordStore.get(dataKey, false));
     }
 
     @Override
     public void afterRun() {
+        if (loading) {
+            return;
+        }
         MapServiceContext mapServiceContext = mapService.getMapServiceContext();
         mapServiceContext.interceptAfterGet(name, result);
     }
 
+    @Override
+    public boolean returnsResponse() {
+        return !loading;
+    }
+
     @Override
     public WaitNotifyKey getWaitKey() {
         return new LockWaitNotifyKey(new DefaultObjectNamespace(MapService.SERVICE_NAME, name), dataKey);
@@ -75,6 +92,37 @@ public final class GetOperation extends KeyBasedMapOperation
         return result;
     }
 
+    /**
+     * Sends the response once the missing value is loaded.
+     */
+    private final class LoadCallback implements ExecutionCallback<Object> {
+
+        @Override
+        public void onResponse(Object value) {
+            try {
+                MapServiceContext mapServiceContext = mapService.getMapServiceContext();
+                result = mapServiceContext.toData(value);
+                mapServiceContext.interceptAfterGet(name, result);
+                sendResponse(result);
+            } finally {
+                getOperationService().onCompletionAsyncOperation(GetOperation.this);
+            }
+        }
+
+        @Override
+        public void onFailure(Throwable t) {
+            try {
+                sendResponse(t);
+            } finally {
+                getOperationService().onCompletionAsyncOperation(GetOperation.this);
+            }
+        }
+    }
+
+    private InternalOperationService getOperationService() {
+        return (InternalOperationService) getNodeEngine().getOperationService();
+    }
+
     @Override
     public int getFactoryId() {
         return MapDataSerializerHook.F_ID;
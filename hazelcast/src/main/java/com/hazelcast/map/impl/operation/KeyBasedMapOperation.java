@@ -117,19 +117,27 @@ public abstract class KeyBasedMapOperation extends MapOperation implements Parti
         out.writeUTF(name);
         out.writeData(dataKey);
         out.writeLong(threadId);
-        out.writeData(dataValue);
+        writeValue(out);
         out.writeLong(ttl);
     }
 
+    protected void writeValue(ObjectDataOutput out) throws IOException {
+        out.writeData(dataValue);
+    }
+
     @Override
     protected void readInternal(ObjectDataInput in) throws IOException {
         name = in.readUTF();
         dataKey = in.readData();
         threadId = in.readLong();
-        dataValue = in.readData();
+        readValue(in);
         ttl = in.readLong();
     }
 
+    protected void readValue(ObjectDataInput in) throws IOException {
+        dataValue = in.readData();
+    }
+
 
     @Override
     protected void toString(StringBuilder sb) {
@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.map.impl.operation;
+
+import com.hazelcast.map.impl.MapServiceContext;
+import com.hazelcast.map.impl.recordstore.RecordStore;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.spi.PartitionAwareOperation;
+import com.hazelcast.spi.impl.MutatingOperation;
+
+import java.io.IOException;
+
+/**
+ * Triggers map store load of the keys of a partition from a {@link com.hazelcast.core.PartitionedMapLoader}.
+ */
+public class LoadPartitionOperation extends MapOperation implements PartitionAwareOperation, MutatingOperation {
+
+    private boolean replaceExistingValues;
+
+    public LoadPartitionOperation() {
+    }
+
+    public LoadPartitionOperation(String name, boolean replaceExistingValues) {
+        super(name);
+        this.replaceExistingValues = replaceExistingValues;
+    }
+
+    @Override
+    public void run() throws Exception {
+        MapServiceContext mapServiceContext = mapService.getMapServiceContext();
+        RecordStore recordStore = mapServiceContext.getRecordStore(getPartitionId(), name);
+        recordStore.loadPartitionFromStore(replaceExistingValues);
+    }
+
+    @Override
+    protected void writeInternal(ObjectDataOutput out) throws IOException {
+        super.writeInternal(out);
+        out.writeBoolean(replaceExistingValues);
+    }
+
+    @Override
+    protected void readInternal(ObjectDataInput in) throws IOException {
+        super.readInternal(in);
+        replaceExistingValues = in.readBoolean();
+    }
+}
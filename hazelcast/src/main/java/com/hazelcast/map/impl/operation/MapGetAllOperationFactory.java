@@ -19,17 +19,27 @@ package com.hazelcast.map.impl.operation;
 import com.hazelcast.nio.ObjectDataInput;
 import com.hazelcast.nio.ObjectDataOutput;
 import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.partition.InternalPartitionService;
+import com.hazelcast.spi.NodeEngine;
 import com.hazelcast.spi.Operation;
-import com.hazelcast.spi.OperationFactory;
+import com.hazelcast.spi.impl.operationservice.impl.operations.PartitionAwareOperationFactory;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
-public class MapGetAllOperationFactory implements OperationFactory {
+/**
+ * Creates the {@link GetAllOperation}s of a getAll call. Each member only receives the keys of the partitions it owns
+ * and each {@link GetAllOperation} only the keys of its own partition.
+ */
+public class MapGetAllOperationFactory implements PartitionAwareOperationFactory {
 
     private String name;
     private List<Data> keys = new ArrayList<Data>();
+    private transient Map<Integer, List<Data>> keysByPartition;
 
     public MapGetAllOperationFactory() {
     }
@@ -44,6 +54,46 @@ public class MapGetAllOperationFactory implements OperationFactory {
         return new GetAllOperation(name, keys);
     }
 
+    @Override
+    public PartitionAwareOperationFactory createFactoryForPartitions(NodeEngine nodeEngine, List<Integer> partitions) {
+        Map<Integer, List<Data>> keysByPartition = getKeysByPartition(nodeEngine);
+        List<Data> partitionKeys = new ArrayList<Data>();
+        for (Integer partitionId : partitions) {
+            List<Data> keysOfPartition = keysByPartition.get(partitionId);
+            if (keysOfPartition != null) {
+                partitionKeys.addAll(keysOfPartition);
+            }
+        }
+        return new MapGetAllOperationFactory(name, partitionKeys);
+    }
+
+    @Override
+    public Operation createPartitionOperation(NodeEngine nodeEngine, int partitionId) {
+        List<Data> keysOfPartition = getKeysByPartition(nodeEngine).get(partitionId);
+        if (keysOfPartition == null) {
+            keysOfPartition = Collections.emptyList();
+        }
+        return new GetAllOperation(name, keysOfPartition);
+    }
+
+    private Map<Integer, List<Data>> getKeysByPartition(NodeEngine nodeEngine) {
+        if (keysByPartition == null) {
+            InternalPartitionService partitionService = nodeEngine.getPartitionService();
+            Map<Integer, List<Data>> map = new HashMap<Integer, List<Data>>();
+            for (Data key : keys) {
+                int partitionId = partitionService.getPartitionId(key);
+                List<Data> keysOfPartition = map.get(partitionId);
+                if (keysOfPartition == null) {
+                    keysOfPartition = new ArrayList<Data>();
+                    map.put(partitionId, keysOfPartition);
+                }
+                keysOfPartition.add(key);
+            }
+            keysByPartition = map;
+        }
+        return keysByPartition;
+    }
+
     @Override
     public void writeData(ObjectDataOutput out) throws IOException {
         out.writeUTF(name);
@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.map.impl.operation;
+
+import com.hazelcast.map.impl.MapService;
+import com.hazelcast.map.impl.MapServiceContext;
+import com.hazelcast.map.impl.record.RecordReplicationInfo;
+import com.hazelcast.map.impl.recordstore.RecordStore;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.spi.AbstractOperation;
+import com.hazelcast.spi.impl.MutatingOperation;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * Copies a chunk of the records of a partition to the destination of a chunked migration, before the partition is
+ * migrated. Responds {@code false} if the destination rejects the chunk.
+ *
+ * @see com.hazelcast.map.impl.migration.ChunkedMigrationManager
+ */
+public class MapMigrationChunkOperation extends AbstractOperation implements MutatingOperation {
+
+    private String copyId;
+    private Map<String, List<RecordReplicationInfo>> data;
+    private boolean accepted;
+
+    public MapMigrationChunkOperation() {
+    }
+
+    public MapMigrationChunkOperation(String copyId, Map<String, List<RecordReplicationInfo>> data) {
+        this.copyId = copyId;
+        this.data = data;
+    }
+
+    @Override
+    public void run() {
+        MapService mapService = getService();
+        MapServiceContext mapServiceContext = mapService.getMapServiceContext();
+        accepted = mapServiceContext.getChunkedMigrationManager()
+                .onChunkReceived(getPartitionId(), copyId, getCallerAddress());
+        if (!accepted) {
+            return;
+        }
+        for (Entry<String, List<RecordReplicationInfo>> entry : data.entrySet()) {
+            RecordStore recordStore = mapServiceContext.getRecordStore(getPartitionId(), entry.getKey());
+            for (RecordReplicationInfo recordReplicationInfo : entry.getValue()) {
+                MapReplicationOperation.putRecord(recordStore, recordReplicationInfo);
+            }
+        }
+    }
+
+    @Override
+    public Object getResponse() {
+        return accepted;
+    }
+
+    @Override
+    public String getServiceName() {
+        return MapService.SERVICE_NAME;
+    }
+
+    @Override
+    protected void writeInternal(ObjectDataOutput out) throws IOException {
+        out.writeUTF(copyId);
+        out.writeInt(data.size());
+        for (Entry<String, List<RecordReplicationInfo>> entry : data.entrySet()) {
+            out.writeUTF(entry.getKey());
+            List<RecordReplicationInfo> recordReplicationInfos = entry.getValue();
+            out.writeInt(recordReplicationInfos.size());
+            for (RecordReplicationInfo recordReplicationInfo : recordReplicationInfos) {
+                out.writeObject(recordReplicationInfo);
+            }
+        }
+    }
+
+    @Override
+    protected void readInternal(ObjectDataInput in) throws IOException {
+        copyId = in.readUTF();
+        int size = in.readInt();
+        data = new HashMap<String, List<RecordReplicationInfo>>(size);
+        for (int i = 0; i < size; i++) {
+            String name = in.readUTF();
+            int recordCount = in.readInt();
+            List<RecordReplicationInfo> recordReplicationInfos = new ArrayList<RecordReplicationInfo>(recordCount);
+            for (int j = 0; j < recordCount; j++) {
+                RecordReplicationInfo recordReplicationInfo = in.readObject();
+                recordReplicationInfos.add(recordReplicationInfo);
+            }
+            data.put(name, recordReplicationInfos);
+        }
+    }
+}
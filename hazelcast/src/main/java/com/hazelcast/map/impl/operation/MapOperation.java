@@ -20,6 +20,7 @@ import com.hazelcast.map.impl.MapContainer;
 import com.hazelcast.map.impl.MapService;
 import com.hazelcast.map.impl.MapServiceContext;
 import com.hazelcast.map.impl.nearcache.NearCacheProvider;
+import com.hazelcast.map.impl.tx.MapTxnOperation;
 import com.hazelcast.nio.serialization.Data;
 import com.hazelcast.spi.impl.AbstractNamedOperation;
 
@@ -78,6 +79,19 @@ public abstract class MapOperation extends AbstractNamedOperation {
         throw new UnsupportedOperationException();
     }
 
+    /**
+     * Rejects this operation while the write-behind queues of the map on the partitions owned by this member are too
+     * large, see {@link com.hazelcast.map.impl.mapstore.writebehind.WriteBehindFlowControl}. Called before running
+     * the owner operations which add entries to the write-behind queues.
+     */
+    protected final void checkWriteBehindBackpressure() {
+        // a transaction is committed once it was prepared
+        if (this instanceof MapTxnOperation) {
+            return;
+        }
+        mapServiceContext.getWriteBehindFlowControl().checkBackpressure(name);
+    }
+
     protected final void invalidateNearCache(List<Data> keys) {
         if (!mapContainer.isInvalidationEnabled()) {
             return;
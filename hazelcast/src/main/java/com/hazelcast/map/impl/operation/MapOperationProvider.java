@@ -25,6 +25,7 @@ import com.hazelcast.query.Predicate;
 import com.hazelcast.spi.OperationFactory;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -71,8 +72,12 @@ public interface MapOperationProvider {
 
     MapOperation createGetOperation(String name, Data dataKey);
 
+    MapOperation createReadBackupDataOperation(String name, Data dataKey);
+
     MapOperation createLoadAllOperation(String name, List<Data> keys, boolean replaceExistingValues);
 
+    MapOperation createLoadPartitionOperation(String name, boolean replaceExistingValues);
+
     MapOperation createPutAllOperation(String name, MapEntries mapEntries, boolean initialLoad);
 
     MapOperation createPutFromLoadAllOperation(String name, List<Data> keyValueSequence);
@@ -112,6 +117,8 @@ public interface MapOperationProvider {
 
     OperationFactory createGetAllOperationFactory(String name, List<Data> keys);
 
+    OperationFactory createPutAllOperationFactory(String name, Map<Integer, MapEntries> entriesByPartition);
+
     OperationFactory createMapSizeOperationFactory(String name);
 }
 
@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.operation;
+
+import com.hazelcast.map.impl.MapEntries;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.spi.NodeEngine;
+import com.hazelcast.spi.Operation;
+import com.hazelcast.spi.impl.operationservice.impl.operations.PartitionAwareOperationFactory;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Creates the {@link PutAllOperation}s of a putAll call. The entries are grouped per partition up front, so a
+ * single packet per member carries only the entries of the partitions that member owns.
+ */
+public class MapPutAllOperationFactory implements PartitionAwareOperationFactory {
+
+    private String name;
+    private Map<Integer, MapEntries> entriesByPartition;
+
+    public MapPutAllOperationFactory() {
+    }
+
+    public MapPutAllOperationFactory(String name, Map<Integer, MapEntries> entriesByPartition) {
+        this.name = name;
+        this.entriesByPartition = entriesByPartition;
+    }
+
+    @Override
+    public Operation createOperation() {
+        // a PutAllOperation skips the entries of other partitions, so all entries can be passed to every partition
+        MapEntries entries = new MapEntries();
+        for (MapEntries entriesOfPartition : entriesByPartition.values()) {
+            for (Map.Entry<Data, Data> entry : entriesOfPartition) {
+                entries.add(entry);
+            }
+        }
+        return new PutAllOperation(name, entries);
+    }
+
+    @Override
+    public PartitionAwareOperationFactory createFactoryForPartitions(NodeEngine nodeEngine, List<Integer> partitions) {
+        Map<Integer, MapEntries> entries = new HashMap<Integer, MapEntries>(partitions.size());
+        for (Integer partitionId : partitions) {
+            MapEntries entriesOfPartition = entriesByPartition.get(partitionId);
+            if (entriesOfPartition != null) {
+                entries.put(partitionId, entriesOfPartition);
+            }
+        }
+        return new MapPutAllOperationFactory(name, entries);
+    }
+
+    @Override
+    public Operation createPartitionOperation(NodeEngine nodeEngine, int partitionId) {
+        MapEntries entries = entriesByPartition.get(partitionId);
+        if (entries == null) {
+            entries = new MapEntries();
+        }
+        return new PutAllOperation(name, entries);
+    }
+
+    @Override
+    public void writeData(ObjectDataOutput out) throws IOException {
+        out.writeUTF(name);
+        out.writeInt(entriesByPartition.size());
+        for (Map.Entry<Integer, MapEntries> entry : entriesByPartition.entrySet()) {
+            out.writeInt(entry.getKey());
+            entry.getValue().writeData(out);
+        }
+    }
+
+    @Override
+    public void readData(ObjectDataInput in) throws IOException {
+        name = in.readUTF();
+        int size = in.readInt();
+        entriesByPartition = new HashMap<Integer, MapEntries>(size);
+        for (int i = 0; i < size; i++) {
+            int partitionId = in.readInt();
+            MapEntries entries = new MapEntries();
+            entries.readData(in);
+            entriesByPartition.put(partitionId, entries);
+        }
+    }
+}
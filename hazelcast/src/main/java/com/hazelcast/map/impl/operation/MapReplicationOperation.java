@@ -55,12 +55,38 @@ public class MapReplicationOperation extends AbstractOperation implements Mutati
     private Map<String, Set<RecordReplicationInfo>> data;
     private Map<String, Collection<DelayedEntry>> delayedEntries;
 
+    /**
+     * Id of the copy of a chunked migration, which this operation completes by replicating the changes made during
+     * the copy, or {@code null} if all records are replicated.
+     */
+    private String copyId;
+    private Map<String, Set<RecordReplicationInfo>> changedData;
+    private Map<String, Set<Data>> removedKeys;
+
     public MapReplicationOperation() {
     }
 
     public MapReplicationOperation(MapService mapService, PartitionContainer container, int partitionId,
                                    int replicaIndex) {
+        this(mapService, container, partitionId, replicaIndex, null, null);
+    }
+
+    /**
+     * Creates the replication operation of the cut-over of a chunked migration.
+     *
+     * @param copyId      the id of the copy of the chunked migration, or {@code null} if all records are replicated
+     * @param changedKeys the keys changed during the copy by map name, the maps which are not contained or have
+     *                    {@code null} keys are replicated as a whole
+     * @see com.hazelcast.map.impl.migration.ChunkedMigrationManager
+     */
+    public MapReplicationOperation(MapService mapService, PartitionContainer container, int partitionId,
+                                   int replicaIndex, String copyId, Map<String, Set<Data>> changedKeys) {
         this.setPartitionId(partitionId).setReplicaIndex(replicaIndex);
+        this.copyId = copyId;
+        if (copyId != null) {
+            changedData = new HashMap<String, Set<RecordReplicationInfo>>();
+            removedKeys = new HashMap<String, Set<Data>>();
+        }
 
         data = new HashMap<String, Set<RecordReplicationInfo>>(container.getMaps().size());
         for (Entry<String, RecordStore> entry : container.getMaps().entrySet()) {
@@ -71,21 +97,45 @@ public class MapReplicationOperation extends AbstractOperation implements Mutati
                 continue;
             }
             String name = entry.getKey();
-            // now prepare data to migrate records
-            Set<RecordReplicationInfo> recordSet = new HashSet<RecordReplicationInfo>(recordStore.size());
-            final Iterator<Record> iterator = recordStore.iterator();
-            while (iterator.hasNext()) {
-                Record record = iterator.next();
-                Data key = record.getKey();
-                RecordReplicationInfo recordReplicationInfo;
-                recordReplicationInfo = createRecordReplicationInfo(key, record, mapService);
-                recordSet.add(recordReplicationInfo);
-            }
-            data.put(name, recordSet);
+            Set<Data> keys = changedKeys != null ? changedKeys.get(name) : null;
+            if (copyId != null && keys != null) {
+                readChangedRecords(name, recordStore, keys, mapService);
+            } else {
+                readRecords(name, recordStore, mapService);
+            }
         }
         readDelayedEntries(container);
     }
 
+    private void readRecords(String name, RecordStore recordStore, MapService mapService) {
+        // now prepare data to migrate records
+        Set<RecordReplicationInfo> recordSet = new HashSet<RecordReplicationInfo>(recordStore.size());
+        final Iterator<Record> iterator = recordStore.iterator();
+        while (iterator.hasNext()) {
+            Record record = iterator.next();
+            Data key = record.getKey();
+            RecordReplicationInfo recordReplicationInfo;
+            recordReplicationInfo = createRecordReplicationInfo(key, record, mapService);
+            recordSet.add(recordReplicationInfo);
+        }
+        data.put(name, recordSet);
+    }
+
+    private void readChangedRecords(String name, RecordStore recordStore, Set<Data> keys, MapService mapService) {
+        Set<RecordReplicationInfo> recordSet = new HashSet<RecordReplicationInfo>();
+        Set<Data> removedKeySet = new HashSet<Data>();
+        for (Data key : keys) {
+            Record record = recordStore.getRecord(key);
+            if (record == null) {
+                removedKeySet.add(key);
+            } else {
+                recordSet.add(createRecordReplicationInfo(key, record, mapService));
+            }
+        }
+        changedData.put(name, recordSet);
+        removedKeys.put(name, removedKeySet);
+    }
+
     private void readDelayedEntries(PartitionContainer container) {
         delayedEntries = new HashMap<String, Collection<DelayedEntry>>(container.getMaps().size());
         for (Entry<String, RecordStore> entry : container.getMaps().entrySet()) {
@@ -108,6 +158,10 @@ public class MapReplicationOperation extends AbstractOperation implements Mutati
     public void run() {
         MapService mapService = getService();
         final MapServiceContext mapServiceContext = mapService.getMapServiceContext();
+        if (copyId != null) {
+            mapServiceContext.getChunkedMigrationManager().onCutOver(getPartitionId(), copyId);
+            applyChanges(mapServiceContext);
+        }
         if (data != null) {
             for (Entry<String, Set<RecordReplicationInfo>> dataEntry : data.entrySet()) {
                 Set<RecordReplicationInfo> recordReplicationInfos = dataEntry.getValue();
@@ -116,11 +170,7 @@ public class MapReplicationOperation extends AbstractOperation implements Mutati
                 recordStore.reset();
 
                 for (RecordReplicationInfo recordReplicationInfo : recordReplicationInfos) {
-                    Data key = recordReplicationInfo.getKey();
-                    final Data value = recordReplicationInfo.getValue();
-                    Record newRecord = recordStore.createRecord(value, -1L, Clock.currentTimeMillis());
-                    applyRecordInfo(newRecord, recordReplicationInfo);
-                    recordStore.putRecord(key, newRecord);
+                    putRecord(recordStore, recordReplicationInfo);
                 }
             }
         }
@@ -137,6 +187,32 @@ public class MapReplicationOperation extends AbstractOperation implements Mutati
         }
     }
 
+    /**
+     * Applies the changes made during the copy of a chunked migration to the copied records.
+     */
+    private void applyChanges(MapServiceContext mapServiceContext) {
+        for (Entry<String, Set<RecordReplicationInfo>> entry : changedData.entrySet()) {
+            RecordStore recordStore = mapServiceContext.getRecordStore(getPartitionId(), entry.getKey());
+            for (Data key : removedKeys.get(entry.getKey())) {
+                recordStore.removeBackup(key);
+            }
+            for (RecordReplicationInfo recordReplicationInfo : entry.getValue()) {
+                putRecord(recordStore, recordReplicationInfo);
+            }
+        }
+    }
+
+    /**
+     * Puts a replicated record to the record store, replacing the current record of its key.
+     */
+    static void putRecord(RecordStore recordStore, RecordReplicationInfo recordReplicationInfo) {
+        Data key = recordReplicationInfo.getKey();
+        final Data value = recordReplicationInfo.getValue();
+        Record newRecord = recordStore.createRecord(value, -1L, Clock.currentTimeMillis());
+        applyRecordInfo(newRecord, recordReplicationInfo);
+        recordStore.putRecord(key, newRecord);
+    }
+
     @Override
     public String getServiceName() {
         return MapService.SERVICE_NAME;
@@ -173,6 +249,32 @@ public class MapReplicationOperation extends AbstractOperation implements Mutati
             }
             delayedEntries.put(mapName, delayedEntriesList);
         }
+        copyId = in.readUTF();
+        if (copyId != null) {
+            readChanges(in);
+        }
+    }
+
+    private void readChanges(ObjectDataInput in) throws IOException {
+        int size = in.readInt();
+        changedData = new HashMap<String, Set<RecordReplicationInfo>>(size);
+        removedKeys = new HashMap<String, Set<Data>>(size);
+        for (int i = 0; i < size; i++) {
+            String name = in.readUTF();
+            int changedCount = in.readInt();
+            Set<RecordReplicationInfo> recordReplicationInfos = new HashSet<RecordReplicationInfo>(changedCount);
+            for (int j = 0; j < changedCount; j++) {
+                RecordReplicationInfo recordReplicationInfo = in.readObject();
+                recordReplicationInfos.add(recordReplicationInfo);
+            }
+            int removedCount = in.readInt();
+            Set<Data> keys = new HashSet<Data>(removedCount);
+            for (int j = 0; j < removedCount; j++) {
+                keys.add(in.readData());
+            }
+            changedData.put(name, recordReplicationInfos);
+            removedKeys.put(name, keys);
+        }
     }
 
     @Override
@@ -202,11 +304,33 @@ public class MapReplicationOperation extends AbstractOperation implements Mutati
                 out.writeInt(e.getPartitionId());
             }
         }
+        out.writeUTF(copyId);
+        if (copyId != null) {
+            writeChanges(out);
+        }
+    }
+
+    private void writeChanges(ObjectDataOutput out) throws IOException {
+        out.writeInt(changedData.size());
+        for (Entry<String, Set<RecordReplicationInfo>> mapEntry : changedData.entrySet()) {
+            out.writeUTF(mapEntry.getKey());
+            Set<RecordReplicationInfo> recordReplicationInfos = mapEntry.getValue();
+            out.writeInt(recordReplicationInfos.size());
+            for (RecordReplicationInfo recordReplicationInfo : recordReplicationInfos) {
+                out.writeObject(recordReplicationInfo);
+            }
+            Set<Data> keys = removedKeys.get(mapEntry.getKey());
+            out.writeInt(keys.size());
+            for (Data key : keys) {
+                out.writeData(key);
+            }
+        }
     }
 
     public boolean isEmpty() {
         return (data == null || data.isEmpty())
-                && (delayedEntries == null || delayedEntries.isEmpty());
+                && (delayedEntries == null || delayedEntries.isEmpty())
+                && copyId == null;
     }
 
     private RecordReplicationInfo createRecordReplicationInfo(Data key, Record record, MapService mapService) {
@@ -46,6 +46,7 @@ public class MultipleEntryOperation extends AbstractMultipleEntryOperation imple
     @Override
     public void innerBeforeRun() throws Exception {
         super.innerBeforeRun();
+        checkWriteBehindBackpressure();
         final SerializationService serializationService = getNodeEngine().getSerializationService();
         final ManagedContext managedContext = serializationService.getManagedContext();
         managedContext.initialize(entryProcessor);
@@ -88,7 +89,7 @@ public class MultipleEntryOperation extends AbstractMultipleEntryOperation imple
 
     @Override
     public boolean shouldBackup() {
-        return entryProcessor.getBackupProcessor() != null;
+        return shouldBackupEntryProcessor();
     }
 
     @Override
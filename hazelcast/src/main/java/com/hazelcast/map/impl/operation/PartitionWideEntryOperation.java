@@ -50,6 +50,7 @@ public class PartitionWideEntryOperation extends AbstractMultipleEntryOperation
     @Override
     public void innerBeforeRun() throws Exception {
         super.innerBeforeRun();
+        checkWriteBehindBackpressure();
         final SerializationService serializationService = getNodeEngine().getSerializationService();
         final ManagedContext managedContext = serializationService.getManagedContext();
         managedContext.initialize(entryProcessor);
@@ -94,7 +95,7 @@ public class PartitionWideEntryOperation extends AbstractMultipleEntryOperation
 
     @Override
     public boolean shouldBackup() {
-        return entryProcessor.getBackupProcessor() != null;
+        return shouldBackupEntryProcessor();
     }
 
     @Override
@@ -23,6 +23,7 @@ import com.hazelcast.map.impl.MapServiceContext;
 import com.hazelcast.nio.ObjectDataInput;
 import com.hazelcast.nio.ObjectDataOutput;
 import com.hazelcast.nio.serialization.DataSerializable;
+import com.hazelcast.query.impl.BitmapIndex;
 import com.hazelcast.query.impl.Index;
 import com.hazelcast.query.impl.Indexes;
 import com.hazelcast.spi.AbstractOperation;
@@ -48,7 +49,7 @@ public class PostJoinMapOperation extends AbstractOperation {
         if (indexes.hasIndex()) {
             MapIndexInfo mapIndexInfo = new MapIndexInfo(mapContainer.getName());
             for (Index index : indexes.getIndexes()) {
-                mapIndexInfo.addIndexInfo(index.getAttributeName(), index.isOrdered());
+                mapIndexInfo.addIndexInfo(index.getAttributeName(), index.isOrdered(), index instanceof BitmapIndex);
             }
             indexInfoList.add(mapIndexInfo);
         }
@@ -114,7 +115,7 @@ public class PostJoinMapOperation extends AbstractOperation {
             final MapContainer mapContainer = mapServiceContext.getMapContainer(mapIndex.mapName);
             final Indexes indexes = mapContainer.getIndexes();
             for (MapIndexInfo.IndexInfo indexInfo : mapIndex.lsIndexes) {
-                indexes.addOrGetIndex(indexInfo.attributeName, indexInfo.ordered);
+                indexes.addOrGetIndex(indexInfo.attributeName, indexInfo.ordered, indexInfo.bitmap);
             }
         }
         for (InterceptorInfo interceptorInfo : interceptorInfoList) {
@@ -173,30 +174,34 @@ public class PostJoinMapOperation extends AbstractOperation {
         static class IndexInfo implements DataSerializable {
             private String attributeName;
             private boolean ordered;
+            private boolean bitmap;
 
             IndexInfo() {
             }
 
-            IndexInfo(String attributeName, boolean ordered) {
+            IndexInfo(String attributeName, boolean ordered, boolean bitmap) {
                 this.attributeName = attributeName;
                 this.ordered = ordered;
+                this.bitmap = bitmap;
             }
 
             @Override
             public void writeData(ObjectDataOutput out) throws IOException {
                 out.writeUTF(attributeName);
                 out.writeBoolean(ordered);
+                out.writeBoolean(bitmap);
             }
 
             @Override
             public void readData(ObjectDataInput in) throws IOException {
                 attributeName = in.readUTF();
                 ordered = in.readBoolean();
+                bitmap = in.readBoolean();
             }
         }
 
-        public void addIndexInfo(String attributeName, boolean ordered) {
-            lsIndexes.add(new MapIndexInfo.IndexInfo(attributeName, ordered));
+        public void addIndexInfo(String attributeName, boolean ordered, boolean bitmap) {
+            lsIndexes.add(new MapIndexInfo.IndexInfo(attributeName, ordered, bitmap));
         }
 
         @Override
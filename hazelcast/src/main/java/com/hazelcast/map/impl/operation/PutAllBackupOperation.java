@@ -17,6 +17,7 @@
 package com.hazelcast.map.impl.operation;
 
 import com.hazelcast.core.EntryView;
+import com.hazelcast.internal.serialization.impl.CompressedData;
 import com.hazelcast.map.impl.EntryViews;
 import com.hazelcast.map.impl.MapServiceContext;
 import com.hazelcast.map.impl.event.MapEventPublisher;
@@ -90,7 +91,7 @@ public class PutAllBackupOperation extends MapOperation implements PartitionAwar
         for (int i = 0; i < size; i++) {
             final Map.Entry<Data, Data> entry = entries.get(i);
             out.writeData(entry.getKey());
-            out.writeData(entry.getValue());
+            CompressedData.writeData(out, entry.getValue());
             recordInfos.get(i).writeData(out);
         }
     }
@@ -103,7 +104,7 @@ public class PutAllBackupOperation extends MapOperation implements PartitionAwar
         recordInfos = new ArrayList<RecordInfo>(size);
         for (int i = 0; i < size; i++) {
             Data key = in.readData();
-            Data value = in.readData();
+            Data value = CompressedData.readData(in);
             Map.Entry entry = new AbstractMap.SimpleImmutableEntry<Data, Data>(key, value);
             entries.add(entry);
             final RecordInfo recordInfo = new RecordInfo();
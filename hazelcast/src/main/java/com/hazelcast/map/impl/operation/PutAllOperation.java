@@ -18,6 +18,7 @@ package com.hazelcast.map.impl.operation;
 
 import com.hazelcast.core.EntryEventType;
 import com.hazelcast.core.EntryView;
+import com.hazelcast.internal.serialization.impl.CompressedData;
 import com.hazelcast.map.impl.MapEntries;
 import com.hazelcast.map.impl.event.MapEventPublisher;
 import com.hazelcast.map.impl.record.Record;
@@ -34,6 +35,7 @@ import com.hazelcast.spi.impl.MutatingOperation;
 import com.hazelcast.util.Clock;
 
 import java.io.IOException;
+import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -67,6 +69,15 @@ public class PutAllOperation extends MapOperation implements PartitionAwareOpera
         this.initialLoad = initialLoad;
     }
 
+    @Override
+    public void innerBeforeRun() throws Exception {
+        super.innerBeforeRun();
+        // entries loaded from the map loader are not queued
+        if (!initialLoad) {
+            checkWriteBehindBackpressure();
+        }
+    }
+
     @Override
     public void run() {
         backupRecordInfos = new ArrayList<RecordInfo>(mapEntries.size());
@@ -105,7 +116,10 @@ public class PutAllOperation extends MapOperation implements PartitionAwareOpera
             EntryView entryView = createSimpleEntryView(dataKey, dataValue, record);
             mapEventPublisher.publishWanReplicationUpdate(name, entryView);
         }
-        backupEntries.add(entry);
+        Object storedValue = record.getValue();
+        // a compressed value is shipped as it is stored, the backup does not compress it again
+        backupEntries.add(storedValue instanceof CompressedData
+                ? new AbstractMap.SimpleImmutableEntry<Data, Data>(dataKey, (Data) storedValue) : entry);
         RecordInfo replicationInfo = buildRecordInfo(record);
         backupRecordInfos.add(replicationInfo);
         evict();
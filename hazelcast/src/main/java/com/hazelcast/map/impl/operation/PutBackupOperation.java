@@ -17,6 +17,7 @@
 package com.hazelcast.map.impl.operation;
 
 import com.hazelcast.core.EntryView;
+import com.hazelcast.internal.serialization.impl.CompressedData;
 import com.hazelcast.map.impl.EntryViews;
 import com.hazelcast.map.impl.MapDataSerializerHook;
 import com.hazelcast.map.impl.MapServiceContext;
@@ -125,6 +126,19 @@ public final class PutBackupOperation extends KeyBasedMapOperation implements Ba
         return MapDataSerializerHook.PUT_BACKUP;
     }
 
+    /**
+     * A compressed value is shipped as it is stored by the owner, so the backup does not compress it again.
+     */
+    @Override
+    protected void writeValue(ObjectDataOutput out) throws IOException {
+        CompressedData.writeData(out, dataValue);
+    }
+
+    @Override
+    protected void readValue(ObjectDataInput in) throws IOException {
+        dataValue = CompressedData.readData(in);
+    }
+
     @Override
     protected void writeInternal(ObjectDataOutput out) throws IOException {
         super.writeInternal(out);
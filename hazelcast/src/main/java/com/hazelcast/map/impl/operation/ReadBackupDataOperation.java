@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.operation;
+
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.partition.InternalPartition;
+import com.hazelcast.partition.InternalPartitionService;
+import com.hazelcast.spi.ReadonlyOperation;
+
+/**
+ * Reads the value of a key from the backup replica the operation is sent to.
+ * <p/>
+ * The read runs on the partition thread of the replica, so it observes every backup the replica received before
+ * the read, including the backups of all writes which completed with synchronous backups. Every backup carries the
+ * owner's replica versions: when one arrives ahead of the version the replica has applied, the replica knows it
+ * missed a backup. In that case, while the replica waits for a replica sync, or while the partition is migrating,
+ * the replica is stale and {@link ReadBackupDataResponse#STALE} is returned instead of the value. The caller then has
+ * to read from the owner. Otherwise the value is returned, <code>null</code> if the key is absent.
+ * <p/>
+ * Only synchronous backups are read: an asynchronous backup may be behind the owner without having missed a backup.
+ * Since only the owner loads missing keys, an absent key of a map with a {@link com.hazelcast.core.MapLoader}
+ * is reported as stale too.
+ */
+public class ReadBackupDataOperation extends KeyBasedMapOperation implements ReadonlyOperation {
+
+    private ReadBackupDataResponse result;
+
+    public ReadBackupDataOperation() {
+    }
+
+    public ReadBackupDataOperation(String name, Data dataKey) {
+        super(name, dataKey);
+    }
+
+    @Override
+    public void run() {
+        if (isStale()) {
+            result = ReadBackupDataResponse.STALE;
+            return;
+        }
+        Data value = recordStore.readBackupData(dataKey);
+        if (value == null && mapContainer.getMapStoreContext().isMapLoader()) {
+            result = ReadBackupDataResponse.STALE;
+            return;
+        }
+        result = new ReadBackupDataResponse(value);
+    }
+
+    private boolean isStale() {
+        int partitionId = getPartitionId();
+        InternalPartitionService partitionService = getNodeEngine().getPartitionService();
+        InternalPartition partition = partitionService.getPartition(partitionId, false);
+        return partition.isMigrating() || partitionService.isPartitionReplicaVersionDirty(partitionId, getReplicaIndex());
+    }
+
+    @Override
+    public Object getResponse() {
+        return result;
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.operation;
+
+import com.hazelcast.map.impl.MapDataSerializerHook;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
+
+import java.io.IOException;
+
+/**
+ * The response of a {@link ReadBackupDataOperation}: the value read from the replica, or the flag that the replica
+ * is stale and the key has to be read from the owner.
+ */
+public class ReadBackupDataResponse implements IdentifiedDataSerializable {
+
+    /**
+     * The response of a read from a replica which is behind the owner.
+     */
+    public static final ReadBackupDataResponse STALE = new ReadBackupDataResponse(true, null);
+
+    private boolean stale;
+    private Data value;
+
+    public ReadBackupDataResponse() {
+    }
+
+    public ReadBackupDataResponse(Data value) {
+        this(false, value);
+    }
+
+    private ReadBackupDataResponse(boolean stale, Data value) {
+        this.stale = stale;
+        this.value = value;
+    }
+
+    /**
+     * @return {@code true} if the key has to be read from the owner
+     */
+    public boolean isStale() {
+        return stale;
+    }
+
+    /**
+     * @return the value read from the replica, {@code null} if the key is absent or the replica is stale
+     */
+    public Data getValue() {
+        return value;
+    }
+
+    @Override
+    public int getFactoryId() {
+        return MapDataSerializerHook.F_ID;
+    }
+
+    @Override
+    public int getId() {
+        return MapDataSerializerHook.READ_BACKUP_DATA_RESPONSE;
+    }
+
+    @Override
+    public void writeData(ObjectDataOutput out) throws IOException {
+        out.writeBoolean(stale);
+        out.writeData(value);
+    }
+
+    @Override
+    public void readData(ObjectDataInput in) throws IOException {
+        stale = in.readBoolean();
+        value = in.readData();
+    }
+
+    @Override
+    public String toString() {
+        return "ReadBackupDataResponse{stale=" + stale + ", value=" + value + '}';
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.operation;
+
+import com.hazelcast.concurrent.lock.LockWaitNotifyKey;
+import com.hazelcast.core.ManagedContext;
+import com.hazelcast.core.OperationTimeoutException;
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.map.EntryProcessor;
+import com.hazelcast.map.impl.LazyMapEntry;
+import com.hazelcast.map.impl.MapService;
+import com.hazelcast.map.impl.MapServiceContext;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.spi.DefaultObjectNamespace;
+import com.hazelcast.spi.ReadonlyOperation;
+import com.hazelcast.spi.WaitNotifyKey;
+import com.hazelcast.spi.WaitSupport;
+import com.hazelcast.spi.impl.operationservice.InternalOperationService;
+
+import java.io.IOException;
+
+import static com.hazelcast.instance.GroupProperty.MAP_READ_ONLY_ENTRY_PROCESSOR_OFFLOAD_ENABLED;
+import static com.hazelcast.spi.ExecutionService.MAP_READ_ONLY_ENTRY_PROCESSOR_EXECUTOR;
+
+/**
+ * Applies a {@link com.hazelcast.core.ReadOnly} entry processor to a key.
+ *
+ * The partition thread only takes a snapshot of the entry: the serialized value, which is immutable. The processor
+ * is applied to the snapshot on the {@link com.hazelcast.spi.ExecutionService#MAP_READ_ONLY_ENTRY_PROCESSOR_EXECUTOR},
+ * which also sends the response. Until then the operation is registered as an asynchronous operation of the
+ * {@link InternalOperationService}, so the invocation does not time out while a long processor runs. There is no
+ * backup and no event.
+ *
+ * Like {@link EntryOperation}, this operation loads a missing key from the map-store.
+ */
+public class ReadOnlyEntryOperation extends KeyBasedMapOperation implements WaitSupport, ReadonlyOperation {
+
+    private EntryProcessor entryProcessor;
+    private Data response;
+    private transient boolean offloaded;
+
+    public ReadOnlyEntryOperation() {
+    }
+
+    public ReadOnlyEntryOperation(String name, Data dataKey, EntryProcessor entryProcessor) {
+        super(name, dataKey);
+        this.entryProcessor = entryProcessor;
+    }
+
+    @Override
+    public void innerBeforeRun() throws Exception {
+        super.innerBeforeRun();
+
+        SerializationService serializationService = getNodeEngine().getSerializationService();
+        ManagedContext managedContext = serializationService.getManagedContext();
+        managedContext.initialize(entryProcessor);
+    }
+
+    @Override
+    public void run() {
+        MapServiceContext mapServiceContext = mapService.getMapServiceContext();
+        Data snapshot = mapServiceContext.toData(recordStore.get(dataKey, false));
+
+        if (getNodeEngine().getGroupProperties().getBoolean(MAP_READ_ONLY_ENTRY_PROCESSOR_OFFLOAD_ENABLED)) {
+            // the processor may run longer than the call timeout, the invocation must see it as still executing
+            InternalOperationService operationService = (InternalOperationService) getNodeEngine().getOperationService();
+            operationService.onStartAsyncOperation(this);
+            try {
+                getNodeEngine().getExecutionService().execute(MAP_READ_ONLY_ENTRY_PROCESSOR_EXECUTOR, new ProcessTask(snapshot));
+            } catch (RuntimeException e) {
+                operationService.onCompletionAsyncOperation(this);
+                throw e;
+            }
+            offloaded = true;
+            return;
+        }
+        response = process(snapshot);
+    }
+
+    @Override
+    public boolean returnsResponse() {
+        return !offloaded;
+    }
+
+    @Override
+    public Object getResponse() {
+        return response;
+    }
+
+    @Override
+    public WaitNotifyKey getWaitKey() {
+        return new LockWaitNotifyKey(new DefaultObjectNamespace(MapService.SERVICE_NAME, name), dataKey);
+    }
+
+    @Override
+    public boolean shouldWait() {
+        if (recordStore.isTransactionallyLocked(dataKey)) {
+            return !recordStore.canAcquireLock(dataKey, getCallerUuid(), getThreadId());
+        }
+        return false;
+    }
+
+    @Override
+    public void onWaitExpire() {
+        sendResponse(new OperationTimeoutException("Cannot read transactionally locked entry!"));
+    }
+
+    private Data process(Data value) {
+        SerializationService serializationService = getNodeEngine().getSerializationService();
+        LazyMapEntry entry = new LazyMapEntry(dataKey, value, serializationService);
+        Object result = entryProcessor.process(entry);
+        if (entry.isModified()) {
+            throw new UnsupportedOperationException("A ReadOnly entry processor must not modify the entry: " + entryProcessor);
+        }
+        return serializationService.toData(result);
+    }
+
+    @Override
+    protected void writeInternal(ObjectDataOutput out) throws IOException {
+        super.writeInternal(out);
+        out.writeObject(entryProcessor);
+    }
+
+    @Override
+    protected void readInternal(ObjectDataInput in) throws IOException {
+        super.readInternal(in);
+        entryProcessor = in.readObject();
+    }
+
+    /**
+     * Applies the entry processor to the snapshot and sends the response.
+     */
+    private final class ProcessTask implements Runnable {
+
+        private final Data snapshot;
+
+        private ProcessTask(Data snapshot) {
+            this.snapshot = snapshot;
+        }
+
+        @Override
+        public void run() {
+            try {
+                sendResponse(process(snapshot));
+            } catch (Throwable t) {
+                sendResponse(t);
+            } finally {
+                ((InternalOperationService) getNodeEngine().getOperationService()).onCompletionAsyncOperation(
+                        ReadOnlyEntryOperation.this);
+            }
+        }
+    }
+}
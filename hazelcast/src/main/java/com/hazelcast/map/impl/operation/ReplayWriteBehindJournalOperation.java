@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.operation;
+
+import com.hazelcast.map.impl.mapstore.MapDataStore;
+import com.hazelcast.map.impl.mapstore.writebehind.WriteBehindStore;
+import com.hazelcast.map.impl.recordstore.RecordStore;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.spi.PartitionAwareOperation;
+import com.hazelcast.spi.impl.MutatingOperation;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Adds the entries replayed from the write-behind journal of a member to the write-behind queue of the partition,
+ * see {@link WriteBehindStore#addReplayed(Data, Data, long)}. Responds with the number of added entries.
+ */
+public class ReplayWriteBehindJournalOperation extends MapOperation implements PartitionAwareOperation, MutatingOperation {
+
+    private List<Data> keys = new ArrayList<Data>();
+    private List<Data> values = new ArrayList<Data>();
+    private List<Long> storeTimes = new ArrayList<Long>();
+    private transient int replayedCount;
+
+    public ReplayWriteBehindJournalOperation() {
+    }
+
+    public ReplayWriteBehindJournalOperation(String name) {
+        super(name);
+    }
+
+    /**
+     * @param key       the key
+     * @param value     the value to store, or {@code null} to delete the key
+     * @param storeTime the store time of the journaled entry
+     */
+    public void addEntry(Data key, Data value, long storeTime) {
+        keys.add(key);
+        values.add(value);
+        storeTimes.add(storeTime);
+    }
+
+    @Override
+    public void run() {
+        RecordStore recordStore = mapServiceContext.getRecordStore(getPartitionId(), name);
+        MapDataStore mapDataStore = recordStore.getMapDataStore();
+        if (!(mapDataStore instanceof WriteBehindStore)) {
+            return;
+        }
+        WriteBehindStore writeBehindStore = (WriteBehindStore) mapDataStore;
+        for (int i = 0; i < keys.size(); i++) {
+            if (writeBehindStore.addReplayed(keys.get(i), values.get(i), storeTimes.get(i))) {
+                replayedCount++;
+            }
+        }
+    }
+
+    @Override
+    public Object getResponse() {
+        return replayedCount;
+    }
+
+    @Override
+    protected void writeInternal(ObjectDataOutput out) throws IOException {
+        super.writeInternal(out);
+        out.writeInt(keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            out.writeData(keys.get(i));
+            out.writeData(values.get(i));
+            out.writeLong(storeTimes.get(i));
+        }
+    }
+
+    @Override
+    protected void readInternal(ObjectDataInput in) throws IOException {
+        super.readInternal(in);
+        int size = in.readInt();
+        keys = new ArrayList<Data>(size);
+        values = new ArrayList<Data>(size);
+        storeTimes = new ArrayList<Long>(size);
+        for (int i = 0; i < size; i++) {
+            keys.add(in.readData());
+            values.add(in.readData());
+            storeTimes.add(in.readLong());
+        }
+    }
+}
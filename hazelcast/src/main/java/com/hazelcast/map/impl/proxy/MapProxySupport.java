@@ -36,6 +36,7 @@ import com.hazelcast.core.MapStore;
 import com.hazelcast.core.Member;
 import com.hazelcast.core.MemberSelector;
 import com.hazelcast.core.PartitioningStrategy;
+import com.hazelcast.instance.GroupProperty;
 import com.hazelcast.internal.serialization.SerializationService;
 import com.hazelcast.map.EntryProcessor;
 import com.hazelcast.map.MapInterceptor;
@@ -56,6 +57,7 @@ import com.hazelcast.map.impl.operation.MapOperation;
 import com.hazelcast.map.impl.operation.MapOperationProvider;
 import com.hazelcast.map.impl.operation.PartitionCheckIfLoadedOperation;
 import com.hazelcast.map.impl.operation.PartitionCheckIfLoadedOperationFactory;
+import com.hazelcast.map.impl.operation.ReadBackupDataResponse;
 import com.hazelcast.map.impl.operation.RemoveInterceptorOperation;
 import com.hazelcast.map.impl.query.MapQueryEngine;
 import com.hazelcast.map.impl.query.QueryEventFilter;
@@ -83,6 +85,7 @@ import com.hazelcast.spi.impl.BinaryOperationFactory;
 import com.hazelcast.util.ExceptionUtil;
 import com.hazelcast.util.FutureUtil;
 import com.hazelcast.util.IterableUtil;
+import com.hazelcast.util.RandomPicker;
 import com.hazelcast.util.ThreadUtil;
 
 import java.util.AbstractMap;
@@ -103,6 +106,7 @@ import java.util.concurrent.TimeUnit;
 import static com.hazelcast.cluster.memberselector.MemberSelectors.LITE_MEMBER_SELECTOR;
 import static com.hazelcast.cluster.memberselector.MemberSelectors.NON_LOCAL_MEMBER_SELECTOR;
 import static com.hazelcast.map.impl.MapService.SERVICE_NAME;
+import static com.hazelcast.map.impl.operation.ReadBackupDataResponse.STALE;
 import static com.hazelcast.util.FutureUtil.logAllExceptions;
 import static com.hazelcast.util.IterableUtil.nullToEmpty;
 import static com.hazelcast.util.Preconditions.checkNotNull;
@@ -133,6 +137,8 @@ abstract class MapProxySupport extends AbstractDistributedObject<MapService> imp
     protected final OperationService operationService;
     protected final SerializationService serializationService;
     protected final boolean statisticsEnabled;
+    protected final boolean putAllPerMember;
+    protected final boolean readBackupDataRemote;
 
     protected MapProxySupport(String name, MapService service, NodeEngine nodeEngine) {
         super(nodeEngine, service);
@@ -150,6 +156,9 @@ abstract class MapProxySupport extends AbstractDistributedObject<MapService> imp
         this.serializationService = nodeEngine.getSerializationService();
         this.thisAddress = nodeEngine.getClusterService().getThisAddress();
         this.statisticsEnabled = mapContainer.getMapConfig().isStatisticsEnabled();
+        this.putAllPerMember = nodeEngine.getGroupProperties().getBoolean(GroupProperty.MAP_PUT_ALL_PER_MEMBER_ENABLED);
+        this.readBackupDataRemote = nodeEngine.getGroupProperties()
+                .getBoolean(GroupProperty.MAP_READ_BACKUP_DATA_REMOTE_ENABLED);
     }
 
     @Override
@@ -172,7 +181,7 @@ abstract class MapProxySupport extends AbstractDistributedObject<MapService> imp
     private void initializeIndexes() {
         for (MapIndexConfig index : getMapConfig().getMapIndexConfigs()) {
             if (index.getAttribute() != null) {
-                addIndex(index.getAttribute(), index.isOrdered());
+                addIndexInternal(index.getAttribute(), index.isOrdered(), index.isBitmap());
             }
         }
     }
@@ -238,9 +247,9 @@ abstract class MapProxySupport extends AbstractDistributedObject<MapService> imp
     protected Object getInternal(Data key) {
         // todo action for read-backup true is not well tested.
         if (getMapConfig().isReadBackupData()) {
-            Object fromBackup = readBackupDataOrNull(key);
-            if (fromBackup != null) {
-                return fromBackup;
+            ReadBackupDataResponse fromBackup = readBackupData(key);
+            if (!fromBackup.isStale()) {
+                return fromBackup.getValue();
             }
         }
         MapOperation operation = operationProvider.createGetOperation(name, key);
@@ -248,10 +257,25 @@ abstract class MapProxySupport extends AbstractDistributedObject<MapService> imp
         return invokeOperation(key, operation);
     }
 
-    private Data readBackupDataOrNull(Data key) {
+    /**
+     * Reads the key from a synchronous replica of its partition instead of the owner. Returns
+     * {@link ReadBackupDataResponse#STALE} when the key has to be read from the owner, that is when no replica could be
+     * read, the replica is stale, or the key is missing from the local replica, which is not known to be up to date.
+     * Asynchronous backups are not read, since they may be behind the owner without having missed a backup.
+     */
+    private ReadBackupDataResponse readBackupData(Data key) {
         int partitionId = partitionService.getPartitionId(key);
         InternalPartition partition = partitionService.getPartition(partitionId, false);
-        if (!partition.isOwnerOrBackup(thisAddress)) {
+        int replicaIndex = getLocalReplicaIndex(partition);
+        if (replicaIndex < 0 || replicaIndex > mapContainer.getBackupCount()) {
+            return readBackupDataRemote ? readRemoteBackupData(key, partitionId, partition) : STALE;
+        }
+        Data value = readLocalBackupDataOrNull(key, partitionId, partition, replicaIndex);
+        return value != null ? new ReadBackupDataResponse(value) : STALE;
+    }
+
+    private Data readLocalBackupDataOrNull(Data key, int partitionId, InternalPartition partition, int replicaIndex) {
+        if (partition.isMigrating() || partitionService.isPartitionReplicaVersionDirty(partitionId, replicaIndex)) {
             return null;
         }
         PartitionContainer partitionContainer = mapServiceContext.getPartitionContainer(partitionId);
@@ -262,6 +286,43 @@ abstract class MapProxySupport extends AbstractDistributedObject<MapService> imp
         return recordStore.readBackupData(key);
     }
 
+    private int getLocalReplicaIndex(InternalPartition partition) {
+        for (int replicaIndex = 0; replicaIndex < InternalPartition.MAX_REPLICA_COUNT; replicaIndex++) {
+            if (thisAddress.equals(partition.getReplicaAddress(replicaIndex))) {
+                return replicaIndex;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Reads the key from a randomly chosen synchronous backup replica of its partition. When the partition has no such
+     * backup, {@link ReadBackupDataResponse#STALE} is returned and the caller reads from the owner as usual.
+     * <p/>
+     * The backup checks its staleness itself, against the replica versions the owner sends with every backup, so
+     * the owner is only involved when the backup is stale.
+     */
+    private ReadBackupDataResponse readRemoteBackupData(Data key, int partitionId, InternalPartition partition) {
+        int backupCount = 0;
+        int syncBackupCount = mapContainer.getBackupCount();
+        while (backupCount < syncBackupCount && partition.getReplicaAddress(backupCount + 1) != null) {
+            backupCount++;
+        }
+        if (backupCount == 0) {
+            return STALE;
+        }
+        int replicaIndex = 1 + RandomPicker.getInt(backupCount);
+        MapOperation operation = operationProvider.createReadBackupDataOperation(name, key);
+        try {
+            Future f = operationService.createInvocationBuilder(SERVICE_NAME, operation, partitionId)
+                    .setReplicaIndex(replicaIndex)
+                    .invoke();
+            return (ReadBackupDataResponse) f.get();
+        } catch (Throwable t) {
+            throw ExceptionUtil.rethrow(t);
+        }
+    }
+
     protected ICompletableFuture<Data> getAsyncInternal(final Data key) {
         int partitionId = partitionService.getPartitionId(key);
 
@@ -483,6 +544,12 @@ abstract class MapProxySupport extends AbstractDistributedObject<MapService> imp
     }
 
     protected boolean containsKeyInternal(Data key) {
+        if (readBackupDataRemote && getMapConfig().isReadBackupData()) {
+            ReadBackupDataResponse fromBackup = readBackupData(key);
+            if (!fromBackup.isStale()) {
+                return fromBackup.getValue() != null;
+            }
+        }
         int partitionId = partitionService.getPartitionId(key);
         MapOperation containsKeyOperation = operationProvider.createContainsKeyOperation(name, key);
         containsKeyOperation.setThreadId(ThreadUtil.getThreadId());
@@ -661,53 +728,65 @@ abstract class MapProxySupport extends AbstractDistributedObject<MapService> imp
      * This Operation will first group all puts per partition and then send a PutAllOperation per partition. So if there are e.g.
      * 5 keys for a single partition, then instead of having 5 remote invocations, there will be only 1 remote invocation.
      * <p/>
-     * If there are multiple puts for different partitions on the same member, they are executed as different remote operations.
-     * Probably this can be optimized in the future by making use of an PartitionIterating operation.
+     * If {@link GroupProperty#MAP_PUT_ALL_PER_MEMBER_ENABLED} is set, the puts for different partitions on the same member are
+     * sent as a single remote operation, which runs the PutAllOperations on the partition threads of that member and
+     * replies once their synchronous backups are acknowledged.
      *
      * @param m
      */
 
     protected void putAllInternal(Map<? extends Object, ? extends Object> m) {
-        int partitionCount = partitionService.getPartitionCount();
-
         try {
-            List<Future> futures = new ArrayList<Future>(partitionCount);
-            MapEntries[] entriesPerPartition = new MapEntries[partitionCount];
-
-            // first we fill entrySetPerPartition
-            for (Entry entry : m.entrySet()) {
-                checkNotNull(entry.getKey(), NULL_KEY_IS_NOT_ALLOWED);
-                checkNotNull(entry.getValue(), NULL_VALUE_IS_NOT_ALLOWED);
+            Map<Integer, MapEntries> entriesByPartition = groupEntriesByPartition(m);
+            if (putAllPerMember) {
+                invokePutAllPerMember(entriesByPartition, m.size());
+            } else {
+                invokePutAllPerPartition(entriesByPartition);
+            }
+        } catch (Exception e) {
+            throw ExceptionUtil.rethrow(e);
+        }
+    }
 
-                Data keyData = toData(entry.getKey(), partitionStrategy);
+    private Map<Integer, MapEntries> groupEntriesByPartition(Map<? extends Object, ? extends Object> m) {
+        Map<Integer, MapEntries> entriesByPartition = new HashMap<Integer, MapEntries>();
+        for (Entry entry : m.entrySet()) {
+            checkNotNull(entry.getKey(), NULL_KEY_IS_NOT_ALLOWED);
+            checkNotNull(entry.getValue(), NULL_VALUE_IS_NOT_ALLOWED);
 
-                int partitionId = partitionService.getPartitionId(keyData);
+            Data keyData = toData(entry.getKey(), partitionStrategy);
 
-                MapEntries entries = entriesPerPartition[partitionId];
-                if (entries == null) {
-                    entries = new MapEntries();
-                    entriesPerPartition[partitionId] = entries;
-                }
+            int partitionId = partitionService.getPartitionId(keyData);
 
-                entries.add(new AbstractMap.SimpleImmutableEntry<Data, Data>(keyData, toData(entry.getValue())));
+            MapEntries entries = entriesByPartition.get(partitionId);
+            if (entries == null) {
+                entries = new MapEntries();
+                entriesByPartition.put(partitionId, entries);
             }
 
-            // then we invoke the operations
-            for (int partitionId = 0; partitionId < entriesPerPartition.length; partitionId++) {
-                MapEntries entries = entriesPerPartition[partitionId];
-                if (entries != null) {
-                    // If there is a single entry, we could make use of a PutOperation since that is a bit cheaper
-                    Future f = createPutAllOperationFuture(name, entries, partitionId);
-                    futures.add(f);
-                }
-            }
+            entries.add(new AbstractMap.SimpleImmutableEntry<Data, Data>(keyData, toData(entry.getValue())));
+        }
+        return entriesByPartition;
+    }
 
-            // then we sync on completion of these operations
-            for (Future future : futures) {
-                future.get();
-            }
-        } catch (Exception e) {
-            throw ExceptionUtil.rethrow(e);
+    private void invokePutAllPerMember(Map<Integer, MapEntries> entriesByPartition, int size) throws Exception {
+        long time = System.currentTimeMillis();
+        OperationFactory operationFactory = operationProvider.createPutAllOperationFactory(name, entriesByPartition);
+        operationService.invokeOnPartitions(SERVICE_NAME, operationFactory, entriesByPartition.keySet());
+        localMapStats.incrementPuts(size, System.currentTimeMillis() - time);
+    }
+
+    private void invokePutAllPerPartition(Map<Integer, MapEntries> entriesByPartition) throws Exception {
+        List<Future> futures = new ArrayList<Future>(entriesByPartition.size());
+        for (Entry<Integer, MapEntries> entry : entriesByPartition.entrySet()) {
+            // If there is a single entry, we could make use of a PutOperation since that is a bit cheaper
+            Future f = createPutAllOperationFuture(name, entry.getValue(), entry.getKey());
+            futures.add(f);
+        }
+
+        // then we sync on completion of these operations
+        for (Future future : futures) {
+            future.get();
         }
     }
 
@@ -947,11 +1026,15 @@ abstract class MapProxySupport extends AbstractDistributedObject<MapService> imp
     }
 
     public void addIndex(String attribute, boolean ordered) {
+        addIndexInternal(attribute, ordered, false);
+    }
+
+    private void addIndexInternal(String attribute, boolean ordered, boolean bitmap) {
         if (attribute == null) {
             throw new IllegalArgumentException("Attribute name cannot be null");
         }
         try {
-            AddIndexOperation addIndexOperation = new AddIndexOperation(name, attribute, ordered);
+            AddIndexOperation addIndexOperation = new AddIndexOperation(name, attribute, ordered, bitmap);
             operationService.invokeOnAllPartitions(SERVICE_NAME, new BinaryOperationFactory(addIndexOperation, getNodeEngine()));
         } catch (Throwable t) {
             throw ExceptionUtil.rethrow(t);
@@ -16,8 +16,10 @@
 
 package com.hazelcast.map.impl.query;
 
+import com.hazelcast.aggregation.Aggregator;
 import com.hazelcast.query.PagingPredicate;
 import com.hazelcast.query.Predicate;
+import com.hazelcast.query.impl.predicates.QueryPlan;
 import com.hazelcast.util.IterationType;
 
 import java.util.Set;
@@ -99,4 +101,52 @@ public interface MapQueryEngine {
      * @return {@link SortedQueryResultSet}
      */
     Set queryAllPartitionsWithPagingPredicate(String mapName, PagingPredicate pagingPredicate, IterationType iterationType);
+
+    /**
+     * Aggregates the entries of all the local partitions matching the predicate.
+     *
+     * The aggregator is not modified; the entries are accumulated into copies of it.
+     *
+     * @param mapName    map name.
+     * @param predicate  any predicate except a paging predicate.
+     * @param aggregator the aggregator.
+     * @return the accumulated aggregator and the partitions it covers.
+     * @throws ExecutionException
+     * @throws InterruptedException
+     */
+    AggregationResult aggregateLocalPartitions(String mapName, Predicate predicate, Aggregator aggregator)
+            throws ExecutionException, InterruptedException;
+
+    /**
+     * Aggregates the entries of a specific local partition matching the predicate.
+     *
+     * @param mapName     map name.
+     * @param predicate   any predicate except a paging predicate.
+     * @param aggregator  the aggregator.
+     * @param partitionId partition id.
+     * @return the accumulated aggregator and the partition it covers.
+     */
+    AggregationResult aggregateLocalPartition(String mapName, Predicate predicate, Aggregator aggregator, int partitionId);
+
+    /**
+     * Aggregates the entries of all partitions matching the predicate. The partial results of the members are
+     * combined at the caller. Paging predicates are not allowed.
+     *
+     * @param mapName    map name.
+     * @param predicate  except paging predicate.
+     * @param aggregator the aggregator.
+     * @return the result of {@link Aggregator#aggregate()}.
+     */
+    Object invokeAggregation(String mapName, Predicate predicate, Aggregator aggregator);
+
+    /**
+     * Returns the plan the cost based optimizer chooses for a query on the local member, without executing it.
+     * The plan depends on the statistics of the local indexes, so other members may choose different plans.
+     *
+     * @param mapName   map name.
+     * @param predicate the predicate of the query.
+     * @return the query plan.
+     * @throws UnsupportedOperationException if the cost based optimizer is not enabled.
+     */
+    QueryPlan explainLocalQuery(String mapName, Predicate predicate);
 }
@@ -16,8 +16,10 @@
 
 package com.hazelcast.map.impl.query;
 
+import com.hazelcast.aggregation.Aggregator;
 import com.hazelcast.cluster.ClusterService;
 import com.hazelcast.config.CacheDeserializedValues;
+import com.hazelcast.config.MapConfig;
 import com.hazelcast.core.Member;
 import com.hazelcast.internal.serialization.SerializationService;
 import com.hazelcast.logging.ILogger;
@@ -36,9 +38,13 @@ import com.hazelcast.query.PagingPredicate;
 import com.hazelcast.query.Predicate;
 import com.hazelcast.query.TruePredicate;
 import com.hazelcast.query.impl.CachedQueryEntry;
+import com.hazelcast.query.impl.Indexes;
 import com.hazelcast.query.impl.QueryableEntry;
 import com.hazelcast.query.impl.getters.Extractors;
+import com.hazelcast.query.impl.predicates.CostBasedQueryOptimizer;
 import com.hazelcast.query.impl.predicates.QueryOptimizer;
+import com.hazelcast.query.impl.predicates.QueryOptimizerFactory;
+import com.hazelcast.query.impl.predicates.QueryPlan;
 import com.hazelcast.spi.NodeEngine;
 import com.hazelcast.spi.Operation;
 import com.hazelcast.spi.OperationService;
@@ -61,6 +67,7 @@ import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 
+import static com.hazelcast.instance.GroupProperty.QUERY_OPTIMIZER_TYPE;
 import static com.hazelcast.instance.GroupProperty.QUERY_PREDICATE_PARALLEL_EVALUATION;
 import static com.hazelcast.query.PagingPredicateAccessor.getNearestAnchorEntry;
 import static com.hazelcast.spi.ExecutionService.QUERY_EXECUTOR;
@@ -112,6 +119,46 @@ public class MapQueryEngineImpl implements MapQueryEngine {
         return queryResultSizeLimiter;
     }
 
+    private Predicate optimize(Predicate predicate, MapContainer mapContainer) {
+        Indexes indexes = mapContainer.getIndexes();
+        if (queryOptimizer instanceof CostBasedQueryOptimizer) {
+            QueryPlan plan = ((CostBasedQueryOptimizer) queryOptimizer)
+                    .explain(predicate, indexes, hasSerializedValues(mapContainer));
+            if (logger.isFinestEnabled()) {
+                logger.finest("Query plan on map " + mapContainer.getName() + ": " + plan);
+            }
+            return plan.getPredicate();
+        }
+        return queryOptimizer.optimize(predicate, indexes);
+    }
+
+    /**
+     * @return {@code true} if the queried entries of the map keep their values serialized, so evaluating a predicate
+     * on an entry deserializes its value
+     */
+    private static boolean hasSerializedValues(MapContainer mapContainer) {
+        MapConfig mapConfig = mapContainer.getMapConfig();
+        switch (mapConfig.getInMemoryFormat()) {
+            case OBJECT:
+                return false;
+            case NATIVE:
+                return true;
+            default:
+                return mapConfig.getCacheDeserializedValues() == CacheDeserializedValues.NEVER;
+        }
+    }
+
+    @Override
+    public QueryPlan explainLocalQuery(String mapName, Predicate predicate) {
+        if (!(queryOptimizer instanceof CostBasedQueryOptimizer)) {
+            throw new UnsupportedOperationException("Query plans are only available with the cost based optimizer, set '"
+                    + QUERY_OPTIMIZER_TYPE.getName() + "' to " + QueryOptimizerFactory.Type.COST);
+        }
+        MapContainer mapContainer = mapServiceContext.getMapContainer(mapName);
+        return ((CostBasedQueryOptimizer) queryOptimizer)
+                .explain(predicate, mapContainer.getIndexes(), hasSerializedValues(mapContainer));
+    }
+
     @Override
     public QueryResult queryLocalPartitions(String mapName, Predicate predicate, IterationType iterationType)
             throws ExecutionException, InterruptedException {
@@ -120,12 +167,10 @@ public class MapQueryEngineImpl implements MapQueryEngine {
         Collection<Integer> initialPartitions = mapServiceContext.getOwnedPartitions();
         MapContainer mapContainer = mapServiceContext.getMapContainer(mapName);
 
-        // first we optimize the query
-        predicate = queryOptimizer.optimize(predicate, mapContainer.getIndexes());
+        // first we optimize the query, the cost based optimizer also decides here if the indexes are worth using
+        predicate = optimize(predicate, mapContainer);
 
         // then we try to run using an index, but if that doesn't work, we'll try a full table scan
-        // This would be the point where a query-plan should be added. It should determine if a full table scan
-        // or an index should be used.
         QueryResult result = tryQueryUsingIndexes(predicate, initialPartitions, mapContainer, iterationType);
         if (result == null) {
             result = queryUsingFullTableScan(mapName, predicate, initialPartitions, iterationType);
@@ -439,6 +484,191 @@ public class MapQueryEngineImpl implements MapQueryEngine {
         return result;
     }
 
+    @Override
+    public AggregationResult aggregateLocalPartitions(String mapName, Predicate predicate, Aggregator aggregator)
+            throws ExecutionException, InterruptedException {
+
+        int initialPartitionStateVersion = partitionService.getPartitionStateVersion();
+        Collection<Integer> initialPartitions = mapServiceContext.getOwnedPartitions();
+        MapContainer mapContainer = mapServiceContext.getMapContainer(mapName);
+
+        predicate = optimize(predicate, mapContainer);
+
+        AggregationResult result = tryAggregateUsingIndexes(predicate, mapContainer, aggregator);
+        if (result == null) {
+            result = aggregateUsingFullTableScan(mapName, predicate, initialPartitions, aggregator);
+        }
+
+        if (hasPartitionVersion(initialPartitionStateVersion, predicate)) {
+            result.setPartitionIds(initialPartitions);
+        }
+
+        updateStatistics(mapContainer);
+
+        return result;
+    }
+
+    protected AggregationResult tryAggregateUsingIndexes(Predicate predicate, MapContainer mapContainer, Aggregator aggregator) {
+        if (partitionService.hasOnGoingMigrationLocal()) {
+            return null;
+        }
+
+        Set<QueryableEntry> entries = mapContainer.getIndexes().query(predicate);
+        if (entries == null) {
+            return null;
+        }
+
+        Aggregator accumulator = copyOf(aggregator);
+        for (QueryableEntry entry : entries) {
+            accumulator.accumulate(entry);
+        }
+        return new AggregationResult(accumulator);
+    }
+
+    protected AggregationResult aggregateUsingFullTableScan(String name, Predicate predicate, Collection<Integer> partitions,
+                                                            Aggregator aggregator)
+            throws InterruptedException, ExecutionException {
+
+        Aggregator accumulator = copyOf(aggregator);
+        if (parallelEvaluation) {
+            List<Future<Aggregator>> futures = new ArrayList<Future<Aggregator>>(partitions.size());
+            for (Integer partitionId : partitions) {
+                futures.add(executor.submit(new AggregatePartitionCallable(name, predicate, aggregator, partitionId)));
+            }
+            for (Aggregator partial : returnWithDeadline(futures, QUERY_EXECUTION_TIMEOUT_MINUTES, MINUTES, RETHROW_EVERYTHING)) {
+                accumulator.combine(partial);
+            }
+            return new AggregationResult(accumulator);
+        }
+
+        RetryableHazelcastException storedException = null;
+        for (Integer partitionId : partitions) {
+            try {
+                aggregateTheLocalPartition(name, predicate, accumulator, partitionId);
+            } catch (RetryableHazelcastException e) {
+                // stored and re-thrown later, in the same way as in querySequential
+                if (storedException == null) {
+                    storedException = e;
+                }
+            }
+        }
+        if (storedException != null) {
+            throw storedException;
+        }
+        return new AggregationResult(accumulator);
+    }
+
+    /**
+     * Accumulates the matching entries of the partition into the given aggregator. Unlike
+     * {@link #queryTheLocalPartition(String, Predicate, int)} the matching entries are not collected.
+     */
+    @SuppressWarnings("unchecked")
+    protected void aggregateTheLocalPartition(String mapName, Predicate predicate, Aggregator accumulator, int partitionId) {
+        PartitionContainer partitionContainer = mapServiceContext.getPartitionContainer(partitionId);
+        MapContainer mapContainer = mapServiceContext.getMapContainer(mapName);
+        Iterator<Record> iterator = partitionContainer.getRecordStore(mapName).loadAwareIterator(getNow(), false);
+        boolean useCachedVersion = shouldUseCachedValue(mapContainer);
+        Extractors extractors = mapServiceContext.getExtractors(mapName);
+        while (iterator.hasNext()) {
+            Record record = iterator.next();
+            Object value = useCachedVersion ? Records.getValueOrCachedValue(record, serializationService) : record.getValue();
+            if (value == null) {
+                continue;
+            }
+            QueryableEntry queryEntry = new CachedQueryEntry(serializationService, record.getKey(), value, extractors);
+            if (predicate.apply(queryEntry)) {
+                accumulator.accumulate(queryEntry);
+            }
+        }
+    }
+
+    @Override
+    public AggregationResult aggregateLocalPartition(String mapName, Predicate predicate, Aggregator aggregator,
+                                                     int partitionId) {
+        Aggregator accumulator = copyOf(aggregator);
+        aggregateTheLocalPartition(mapName, predicate, accumulator, partitionId);
+        AggregationResult result = new AggregationResult(accumulator);
+        result.setPartitionIds(singletonList(partitionId));
+        return result;
+    }
+
+    @Override
+    public Object invokeAggregation(String mapName, Predicate predicate, Aggregator aggregator) {
+        checkNotPagingPredicate(predicate);
+
+        Set<Integer> partitionIds = getAllPartitionIds();
+        Aggregator result = copyOf(aggregator);
+
+        try {
+            List<Future<AggregationResult>> futures = aggregateOnMembers(mapName, predicate, aggregator);
+            combineAggregationResults(futures, result, partitionIds);
+            if (partitionIds.isEmpty()) {
+                return result.aggregate();
+            }
+        } catch (Throwable t) {
+            logger.warning("Could not get aggregation results", t);
+        }
+
+        try {
+            List<Future<AggregationResult>> futures = aggregatePartitions(mapName, predicate, aggregator, partitionIds);
+            combineAggregationResults(futures, result, partitionIds);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+
+        return result.aggregate();
+    }
+
+    protected List<Future<AggregationResult>> aggregateOnMembers(String mapName, Predicate predicate, Aggregator aggregator) {
+        Collection<Member> members = clusterService.getMembers();
+        List<Future<AggregationResult>> futures = new ArrayList<Future<AggregationResult>>(members.size());
+        for (Member member : members) {
+            Operation operation = new AggregationOperation(mapName, predicate, aggregator);
+            futures.add(operationService.<AggregationResult>invokeOnTarget(MapService.SERVICE_NAME, operation,
+                    member.getAddress()));
+        }
+        return futures;
+    }
+
+    protected List<Future<AggregationResult>> aggregatePartitions(String mapName, Predicate predicate, Aggregator aggregator,
+                                                                  Collection<Integer> partitionIds) {
+        List<Future<AggregationResult>> futures = new ArrayList<Future<AggregationResult>>(partitionIds.size());
+        for (Integer partitionId : partitionIds) {
+            Operation operation = new AggregationPartitionOperation(mapName, predicate, aggregator);
+            operation.setPartitionId(partitionId);
+            futures.add(operationService.<AggregationResult>invokeOnPartition(MapService.SERVICE_NAME, operation,
+                    partitionId));
+        }
+        return futures;
+    }
+
+    /**
+     * Combines the partial results into the given aggregator and removes the partitions they cover. Results that
+     * don't cover their partitions, e.g. because a migration happened meanwhile, are ignored.
+     */
+    protected void combineAggregationResults(List<Future<AggregationResult>> futures, Aggregator aggregator,
+                                             Collection<Integer> partitionIds)
+            throws ExecutionException, InterruptedException {
+        for (Future<AggregationResult> future : futures) {
+            AggregationResult aggregationResult = future.get();
+            if (aggregationResult == null) {
+                continue;
+            }
+            Collection<Integer> aggregatedPartitionIds = aggregationResult.getPartitionIds();
+            if (aggregatedPartitionIds != null && partitionIds.containsAll(aggregatedPartitionIds)) {
+                partitionIds.removeAll(aggregatedPartitionIds);
+                aggregator.combine(aggregationResult.getAggregator());
+            }
+        }
+    }
+
+    /**
+     * Returns a copy of the aggregator, so the aggregator of a locally executed operation is never accumulated into.
+     */
+    protected Aggregator copyOf(Aggregator aggregator) {
+        return serializationService.toObject(serializationService.toData(aggregator));
+    }
+
     /**
      * Creates a {@link QueryResult} with configured result limit (according to the number of partitions) if feature is enabled.
      *
@@ -562,6 +792,29 @@ public class MapQueryEngineImpl implements MapQueryEngine {
         return Clock.currentTimeMillis();
     }
 
+    protected final class AggregatePartitionCallable implements Callable<Aggregator> {
+
+        protected final int partition;
+        protected final String name;
+        protected final Predicate predicate;
+        protected final Aggregator aggregator;
+
+        protected AggregatePartitionCallable(String name, Predicate predicate, Aggregator aggregator, int partitionId) {
+            this.name = name;
+            this.predicate = predicate;
+            this.aggregator = aggregator;
+            this.partition = partitionId;
+        }
+
+        @Override
+        public Aggregator call() throws Exception {
+            MapQueryEngineImpl queryEngine = (MapQueryEngineImpl) mapServiceContext.getMapQueryEngine(name);
+            Aggregator accumulator = queryEngine.copyOf(aggregator);
+            queryEngine.aggregateTheLocalPartition(name, predicate, accumulator, partition);
+            return accumulator;
+        }
+    }
+
     protected final class QueryPartitionCallable implements Callable<Collection<QueryableEntry>> {
 
         protected final int partition;
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.map.impl.record;
+
+/**
+ * Base class of records which additionally track the last access time and the eviction criteria number.
+ * These are read by max-idle expiration, by LRU/LFU eviction and by the map statistics.
+ *
+ * @param <V> the type of the value of Record.
+ */
+@SuppressWarnings("VolatileLongOrDoubleField")
+abstract class AbstractEvictableRecord<V> extends AbstractRecord<V> {
+
+    /**
+     * evictionCriteriaNumber may be used for LRU or LFU eviction depending on configuration.
+     */
+    protected long evictionCriteriaNumber;
+    protected volatile long lastAccessTime;
+
+    AbstractEvictableRecord() {
+        super();
+    }
+
+    @Override
+    public long getEvictionCriteriaNumber() {
+        return evictionCriteriaNumber;
+    }
+
+    @Override
+    public void setEvictionCriteriaNumber(long evictionCriteriaNumber) {
+        this.evictionCriteriaNumber = evictionCriteriaNumber;
+    }
+
+    @Override
+    public long getLastAccessTime() {
+        return lastAccessTime;
+    }
+
+    @Override
+    public void setLastAccessTime(long lastAccessTime) {
+        this.lastAccessTime = lastAccessTime;
+    }
+
+    @Override
+    public long getCost() {
+        final int numberOfLongs = 2;
+        return super.getCost() + numberOfLongs * (Long.SIZE / Byte.SIZE);
+    }
+}
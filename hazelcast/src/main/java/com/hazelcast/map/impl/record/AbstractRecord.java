@@ -21,6 +21,10 @@ import com.hazelcast.nio.serialization.Data;
 import static com.hazelcast.map.impl.record.RecordStatistics.EMPTY_STATS;
 
 /**
+ * Base class of records holding the metadata every map needs: version, time-to-live, creation and last
+ * update times. The last access time and the eviction criteria number are not tracked here; see
+ * {@link AbstractEvictableRecord} for records of maps which read them.
+ *
  * @param <V> the type of the value of Record.
  */
 @SuppressWarnings("VolatileLongOrDoubleField")
@@ -28,12 +32,7 @@ public abstract class AbstractRecord<V> implements Record<V> {
 
     protected Data key;
     protected long version;
-    /**
-     * evictionCriteriaNumber may be used for LRU or LFU eviction depending on configuration.
-     */
-    protected long evictionCriteriaNumber;
     protected long ttl;
-    protected volatile long lastAccessTime;
     protected volatile long lastUpdateTime;
     protected long creationTime;
 
@@ -53,12 +52,12 @@ public abstract class AbstractRecord<V> implements Record<V> {
 
     @Override
     public long getEvictionCriteriaNumber() {
-        return evictionCriteriaNumber;
+        return 0L;
     }
 
     @Override
     public void setEvictionCriteriaNumber(long evictionCriteriaNumber) {
-        this.evictionCriteriaNumber = evictionCriteriaNumber;
+        // not tracked.
     }
 
     @Override
@@ -71,14 +70,18 @@ public abstract class AbstractRecord<V> implements Record<V> {
         this.ttl = ttl;
     }
 
+    /**
+     * Returns zero since the last access time is not tracked, so the idleness of the record is measured
+     * from its creation time.
+     */
     @Override
     public long getLastAccessTime() {
-        return lastAccessTime;
+        return 0L;
     }
 
     @Override
     public void setLastAccessTime(long lastAccessTime) {
-        this.lastAccessTime = lastAccessTime;
+        // not tracked.
     }
 
     @Override
@@ -104,7 +107,7 @@ public abstract class AbstractRecord<V> implements Record<V> {
     @Override
     public long getCost() {
         final int objectReferenceInBytes = 4;
-        final int numberOfLongs = 6;
+        final int numberOfLongs = 4;
         long size = numberOfLongs * (Long.SIZE / Byte.SIZE);
         // add key size.
         size += objectReferenceInBytes;
@@ -19,7 +19,7 @@ package com.hazelcast.map.impl.record;
 /**
  * @param <V>
  */
-abstract class AbstractRecordWithStats<V> extends AbstractRecord<V> {
+abstract class AbstractRecordWithStats<V> extends AbstractEvictableRecord<V> {
 
     protected RecordStatistics recordStatistics;
 
@@ -18,7 +18,7 @@ package com.hazelcast.map.impl.record;
 
 import com.hazelcast.nio.serialization.Data;
 
-class DataRecord extends AbstractRecord<Data> {
+class DataRecord extends AbstractEvictableRecord<Data> {
 
     protected volatile Data value;
 
@@ -19,7 +19,9 @@ package com.hazelcast.map.impl.record;
 import com.hazelcast.config.MapConfig;
 import com.hazelcast.config.CacheDeserializedValues;
 import com.hazelcast.core.PartitioningStrategy;
+import com.hazelcast.internal.compression.CompressionStats;
 import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.internal.serialization.impl.CompressedData;
 import com.hazelcast.nio.serialization.Data;
 
 public class DataRecordFactory implements RecordFactory<Data> {
@@ -28,22 +30,39 @@ public class DataRecordFactory implements RecordFactory<Data> {
     private final PartitioningStrategy partitionStrategy;
     private final CacheDeserializedValues cacheDeserializedValues;
     private final boolean statisticsEnabled;
+    private final boolean compactRecords;
+    private final int compressionThreshold;
+    private final CompressionStats compressionStats;
 
     public DataRecordFactory(MapConfig config, SerializationService serializationService,
                              PartitioningStrategy partitionStrategy) {
+        this(config, serializationService, partitionStrategy, null);
+    }
+
+    public DataRecordFactory(MapConfig config, SerializationService serializationService,
+                             PartitioningStrategy partitionStrategy, CompressionStats compressionStats) {
         this.serializationService = serializationService;
         this.partitionStrategy = partitionStrategy;
         this.statisticsEnabled = config.isStatisticsEnabled();
         this.cacheDeserializedValues = config.getCacheDeserializedValues();
+        this.compactRecords = Records.isCompactRecordApplicable(config);
+        this.compressionThreshold = config.getValueCompressionThreshold();
+        this.compressionStats = compressionStats;
     }
 
     @Override
     public Record<Data> newRecord(Object value) {
-        final Data data = serializationService.toData(value, partitionStrategy);
+        final Data data = compress(serializationService.toData(value, partitionStrategy));
         switch (cacheDeserializedValues) {
             case NEVER:
+                if (compactRecords) {
+                    return new CompactDataRecord(data);
+                }
                 return statisticsEnabled ? new DataRecordWithStats(data) : new DataRecord(data);
             default:
+                if (compactRecords) {
+                    return new CompactCachedDataRecord(data);
+                }
                 return statisticsEnabled ? new CachedDataRecordWithStats(data) : new CachedDataRecord(data);
         }
     }
@@ -56,7 +75,21 @@ public class DataRecordFactory implements RecordFactory<Data> {
         } else {
             v = serializationService.toData(value, partitionStrategy);
         }
-        record.setValue(v);
+        record.setValue(compress(v));
+    }
+
+    /**
+     * Values of at least the configured threshold are kept compressed, a value which is already compressed,
+     * e.g. by the replica it was migrated from, is kept as is.
+     */
+    private Data compress(Data data) {
+        if (data instanceof CompressedData) {
+            return ((CompressedData) data).withStats(compressionStats);
+        }
+        if (compressionThreshold == 0 || data == null || data.totalSize() < compressionThreshold) {
+            return data;
+        }
+        return CompressedData.compress(data, compressionStats);
     }
 
     @Override
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.map.impl.record;
+
+import com.hazelcast.internal.serialization.impl.NativeMemoryData;
+import com.hazelcast.nio.serialization.Data;
+
+/**
+ * A record whose key and value are kept in native memory. The blocks are read within a read section of the
+ * {@link NativeMemoryReclaimer}, so they are not freed while they are copied.
+ */
+class NativeDataRecord extends AbstractEvictableRecord<Data> implements NativeRecord {
+
+    protected volatile NativeMemoryData value;
+
+    private final NativeMemoryReclaimer reclaimer;
+
+    NativeDataRecord(NativeMemoryData value, NativeMemoryReclaimer reclaimer) {
+        this.value = value;
+        this.reclaimer = reclaimer;
+    }
+
+    /**
+     * Get record size in bytes, native memory is not included.
+     */
+    @Override
+    public long getCost() {
+        long size = super.getCost();
+        final int objectReferenceInBytes = 4;
+        // add value and reclaimer sizes.
+        size += 2 * objectReferenceInBytes + (value == null ? 0 : value.getHeapCost());
+        return size;
+    }
+
+    @Override
+    public Data getKey() {
+        int slot = reclaimer.enterRead();
+        try {
+            NativeMemoryData nativeKey = getNativeKey();
+            return nativeKey == null ? null : nativeKey.toHeapData();
+        } finally {
+            reclaimer.exitRead(slot);
+        }
+    }
+
+    @Override
+    public NativeMemoryData getNativeKey() {
+        return (NativeMemoryData) key;
+    }
+
+    @Override
+    public void setNativeKey(NativeMemoryData key) {
+        this.key = key;
+    }
+
+    @Override
+    public Data getValue() {
+        int slot = reclaimer.enterRead();
+        try {
+            NativeMemoryData nativeValue = value;
+            return nativeValue == null ? null : nativeValue.toHeapData();
+        } finally {
+            reclaimer.exitRead(slot);
+        }
+    }
+
+    @Override
+    public NativeMemoryData getNativeValue() {
+        return value;
+    }
+
+    @Override
+    public void setValue(Data value) {
+        this.value = (NativeMemoryData) value;
+    }
+
+    @Override
+    public void invalidate() {
+        value = null;
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.map.impl.record;
+
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.core.PartitioningStrategy;
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.internal.serialization.impl.NativeMemoryData;
+import com.hazelcast.memory.MemoryAllocator;
+import com.hazelcast.nio.serialization.Data;
+
+/**
+ * Creates {@link NativeRecord}s for maps with {@link com.hazelcast.config.InMemoryFormat#NATIVE} format.
+ * Values are serialized and copied into blocks taken from the given {@link MemoryAllocator}. The blocks of replaced
+ * values are not freed here, the storage retires them to the {@link NativeMemoryReclaimer}.
+ */
+public class NativeDataRecordFactory implements RecordFactory<Data> {
+
+    private final SerializationService serializationService;
+    private final PartitioningStrategy partitionStrategy;
+    private final MemoryAllocator memoryAllocator;
+    private final NativeMemoryReclaimer reclaimer;
+    private final boolean statisticsEnabled;
+
+    public NativeDataRecordFactory(MapConfig config, SerializationService serializationService,
+                                   PartitioningStrategy partitionStrategy, MemoryAllocator memoryAllocator) {
+        this.serializationService = serializationService;
+        this.partitionStrategy = partitionStrategy;
+        this.memoryAllocator = memoryAllocator;
+        this.reclaimer = new NativeMemoryReclaimer(memoryAllocator);
+        this.statisticsEnabled = config.isStatisticsEnabled();
+    }
+
+    @Override
+    public Record<Data> newRecord(Object value) {
+        Data data = serializationService.toData(value, partitionStrategy);
+        NativeMemoryData nativeValue = NativeMemoryData.copyOf(data, memoryAllocator);
+        return statisticsEnabled ? new NativeDataRecordWithStats(nativeValue, reclaimer)
+                : new NativeDataRecord(nativeValue, reclaimer);
+    }
+
+    @Override
+    public void setValue(Record<Data> record, Object value) {
+        final Data v;
+        if (value instanceof Data) {
+            v = (Data) value;
+        } else {
+            v = serializationService.toData(value, partitionStrategy);
+        }
+        // the replaced value may still be read by queries, the storage retires it
+        record.setValue(NativeMemoryData.copyOf(v, memoryAllocator));
+    }
+
+    @Override
+    public boolean isEquals(Object value1, Object value2) {
+        if (value1 == null && value2 == null) {
+            return true;
+        }
+        if (value1 == null) {
+            return false;
+        }
+        if (value2 == null) {
+            return false;
+        }
+
+        return serializationService.toData(value1).equals(serializationService.toData(value2));
+    }
+
+    public NativeMemoryReclaimer getReclaimer() {
+        return reclaimer;
+    }
+}
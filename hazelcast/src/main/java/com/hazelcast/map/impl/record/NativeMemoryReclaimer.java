@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.map.impl.record;
+
+import com.hazelcast.internal.serialization.impl.NativeMemoryData;
+import com.hazelcast.memory.MemoryAllocator;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Defers freeing native memory blocks of records until no reader can still access them.
+ * <p/>
+ * Queries and backup reads access records without holding the partition thread, so a block replaced or removed
+ * by the partition thread may still be copied by a reader. Readers enclose every access of native memory in
+ * {@link #enterRead()} and {@link #exitRead(int)}, which registers them in the current epoch. The partition thread
+ * {@link Retired#retire(NativeMemoryData) retires} blocks instead of freeing them. A retired block is freed once
+ * the epoch advanced twice: an epoch only advances when no reader of the epoch before it is left, so by then
+ * every reader which could have seen the block has finished.
+ * <p/>
+ * Only two reader counters are kept since readers can only be registered in the current or the previous epoch.
+ */
+public final class NativeMemoryReclaimer {
+
+    // a block retired in epoch e is unreachable for readers entering in epoch e + 1 and later
+    private static final int GRACE_EPOCHS = 2;
+
+    private final MemoryAllocator memoryAllocator;
+    private final AtomicLong epoch = new AtomicLong();
+    private final AtomicIntegerArray readers = new AtomicIntegerArray(2);
+
+    public NativeMemoryReclaimer(MemoryAllocator memoryAllocator) {
+        this.memoryAllocator = memoryAllocator;
+    }
+
+    /**
+     * Registers a reader in the current epoch. Blocks reachable after this call are not freed before the matching
+     * {@link #exitRead(int)}.
+     *
+     * @return the slot to pass to {@link #exitRead(int)}
+     */
+    public int enterRead() {
+        for (;;) {
+            long current = epoch.get();
+            int slot = slot(current);
+            readers.incrementAndGet(slot);
+            // the epoch may have advanced past the slot before the reader was counted in it
+            if (epoch.get() == current) {
+                return slot;
+            }
+            readers.decrementAndGet(slot);
+        }
+    }
+
+    public void exitRead(int slot) {
+        readers.decrementAndGet(slot);
+    }
+
+    public MemoryAllocator getMemoryAllocator() {
+        return memoryAllocator;
+    }
+
+    /**
+     * @return a list of retired blocks, to be used by a single thread
+     */
+    public Retired newRetired() {
+        return new Retired();
+    }
+
+    /**
+     * Advances the epoch if no reader of the previous epoch is left.
+     *
+     * @return {@code true} if the epoch advanced, by this or by another thread
+     */
+    private boolean tryAdvance(long current) {
+        // readers of the previous epoch share the slot of the next one
+        return readers.get(slot(current + 1)) == 0 && (epoch.compareAndSet(current, current + 1) || epoch.get() > current);
+    }
+
+    private static int slot(long epoch) {
+        return (int) (epoch & 1);
+    }
+
+    /**
+     * The blocks retired by one thread, in the order they were retired.
+     */
+    public final class Retired {
+
+        private final ArrayDeque<NativeMemoryData> blocks = new ArrayDeque<NativeMemoryData>();
+        private final ArrayDeque<Long> epochs = new ArrayDeque<Long>();
+
+        private Retired() {
+        }
+
+        /**
+         * Frees the block once no reader can access it anymore. The block must not be reachable for new readers.
+         *
+         * @param block the block, ignored if {@code null}
+         */
+        public void retire(NativeMemoryData block) {
+            if (block == null) {
+                return;
+            }
+            blocks.add(block);
+            epochs.add(epoch.get());
+            reclaim();
+        }
+
+        /**
+         * Frees the retired blocks no reader can access anymore.
+         */
+        public void reclaim() {
+            while (!blocks.isEmpty()) {
+                long current = epoch.get();
+                if (epochs.peek() + GRACE_EPOCHS <= current) {
+                    epochs.poll();
+                    blocks.poll().free(memoryAllocator);
+                } else if (!tryAdvance(current)) {
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Frees all retired blocks, waiting for the readers which may access them.
+         */
+        public void reclaimAll() {
+            reclaim();
+            while (!blocks.isEmpty()) {
+                Thread.yield();
+                reclaim();
+            }
+        }
+
+        public int size() {
+            return blocks.size();
+        }
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.map.impl.record;
+
+import com.hazelcast.internal.serialization.impl.NativeMemoryData;
+import com.hazelcast.nio.serialization.Data;
+
+/**
+ * A {@link Record} whose key and value are kept in native memory.
+ * <p/>
+ * {@link #getKey()} and {@link #getValue()} return heap copies, so the returned objects stay valid
+ * after the record is removed and its memory is freed. The native views are only meant to be used
+ * by the storage owning the memory.
+ */
+public interface NativeRecord extends Record<Data> {
+
+    NativeMemoryData getNativeKey();
+
+    void setNativeKey(NativeMemoryData key);
+
+    NativeMemoryData getNativeValue();
+}
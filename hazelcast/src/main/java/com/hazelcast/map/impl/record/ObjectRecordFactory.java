@@ -24,15 +24,20 @@ public class ObjectRecordFactory implements RecordFactory<Object> {
 
     private final SerializationService serializationService;
     private final boolean statisticsEnabled;
+    private final boolean compactRecords;
 
     public ObjectRecordFactory(MapConfig config, SerializationService serializationService) {
         this.serializationService = serializationService;
         this.statisticsEnabled = config.isStatisticsEnabled();
+        this.compactRecords = Records.isCompactRecordApplicable(config);
     }
 
     @Override
     public Record<Object> newRecord(Object value) {
         Object objectValue = serializationService.toObject(value);
+        if (compactRecords) {
+            return new CompactObjectRecord(objectValue);
+        }
         return statisticsEnabled ? new ObjectRecordWithStats(objectValue) : new ObjectRecord(objectValue);
     }
 
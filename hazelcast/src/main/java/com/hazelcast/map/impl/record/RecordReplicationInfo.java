@@ -16,6 +16,7 @@
 
 package com.hazelcast.map.impl.record;
 
+import com.hazelcast.internal.serialization.impl.CompressedData;
 import com.hazelcast.nio.ObjectDataInput;
 import com.hazelcast.nio.ObjectDataOutput;
 import com.hazelcast.nio.serialization.Data;
@@ -49,14 +50,15 @@ public class RecordReplicationInfo extends RecordInfo implements DataSerializabl
     public void writeData(ObjectDataOutput out) throws IOException {
         super.writeData(out);
         out.writeData(key);
-        out.writeData(value);
+        // compressed values are shipped as they are stored
+        CompressedData.writeData(out, value);
     }
 
     @Override
     public void readData(ObjectDataInput in) throws IOException {
         super.readData(in);
         key = in.readData();
-        value = in.readData();
+        value = CompressedData.readData(in);
     }
 
     @Override
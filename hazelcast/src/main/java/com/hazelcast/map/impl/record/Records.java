@@ -16,6 +16,8 @@
 
 package com.hazelcast.map.impl.record;
 
+import com.hazelcast.config.EvictionPolicy;
+import com.hazelcast.config.MapConfig;
 import com.hazelcast.internal.serialization.SerializationService;
 import com.hazelcast.nio.serialization.Data;
 
@@ -29,6 +31,18 @@ public final class Records {
     private Records() {
     }
 
+    /**
+     * Returns {@code true} if records of a map with the given configuration can leave out the last access time and
+     * the eviction criteria number: these are only read by statistics, max-idle expiration and LRU/LFU/TINY_LFU eviction.
+     */
+    static boolean isCompactRecordApplicable(MapConfig mapConfig) {
+        EvictionPolicy evictionPolicy = mapConfig.getEvictionPolicy();
+        return !mapConfig.isStatisticsEnabled()
+                && mapConfig.getMaxIdleSeconds() == 0
+                && (evictionPolicy == EvictionPolicy.NONE || evictionPolicy == EvictionPolicy.RANDOM)
+                && !mapConfig.getTieredStoreConfig().isEnabled();
+    }
+
     public static void applyRecordInfo(Record record, RecordInfo replicationInfo) {
         record.setStatistics(replicationInfo.getStatistics());
         record.setVersion(replicationInfo.getVersion());
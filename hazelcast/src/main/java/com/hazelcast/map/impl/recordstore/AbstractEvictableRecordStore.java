@@ -17,15 +17,21 @@
 package com.hazelcast.map.impl.recordstore;
 
 import com.hazelcast.config.EvictionPolicy;
+import com.hazelcast.config.InMemoryFormat;
 import com.hazelcast.config.MapConfig;
 import com.hazelcast.core.EntryView;
 import com.hazelcast.instance.GroupProperties;
 import com.hazelcast.instance.GroupProperty;
+import com.hazelcast.internal.eviction.AccessAwareEvictionPolicyEvaluator;
+import com.hazelcast.internal.eviction.Evictable;
+import com.hazelcast.internal.eviction.impl.evaluator.TinyLFUEvictionPolicyEvaluator;
 import com.hazelcast.map.impl.MapContainer;
 import com.hazelcast.map.impl.event.MapEventPublisher;
 import com.hazelcast.map.impl.eviction.EvictionChecker;
+import com.hazelcast.map.impl.eviction.ExpirationManager;
 import com.hazelcast.map.impl.eviction.Evictor;
 import com.hazelcast.map.impl.record.Record;
+import com.hazelcast.map.impl.record.RecordFactory;
 import com.hazelcast.nio.Address;
 import com.hazelcast.nio.serialization.Data;
 import com.hazelcast.spi.EventService;
@@ -33,9 +39,11 @@ import com.hazelcast.spi.NodeEngine;
 
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
 import java.util.NoSuchElementException;
 
 import static com.hazelcast.core.EntryEventType.EVICTED;
+import static com.hazelcast.config.InMemoryFormat.NATIVE;
 import static com.hazelcast.core.EntryEventType.EXPIRED;
 import static com.hazelcast.map.impl.ExpirationTimeSetter.calculateExpirationWithDelay;
 import static com.hazelcast.map.impl.ExpirationTimeSetter.calculateMaxIdleMillis;
@@ -52,6 +60,11 @@ abstract class AbstractEvictableRecordStore extends AbstractRecordStore {
 
     private final long expiryDelayMillis;
     private final Evictor evictor;
+    /**
+     * Schedules the keys by their expiration time, so expiration only visits the records which are due.
+     * {@code null} for the {@link InMemoryFormat#NATIVE} format, which falls back to {@link #expirationIterator}.
+     */
+    private ExpirationStorage expirationStorage;
     /**
      * Iterates over a pre-set entry count/percentage in one round.
      * Used in expiration logic for traversing entries. Initializes lazily.
@@ -61,6 +74,10 @@ abstract class AbstractEvictableRecordStore extends AbstractRecordStore {
      * used in LRU eviction logic.
      */
     private long lruAccessSequenceNumber;
+    /**
+     * Access history used by TINY_LFU eviction logic. Initializes lazily.
+     */
+    private AccessAwareEvictionPolicyEvaluator<Data, Evictable> accessAwareEvictionPolicyEvaluator;
     /**
      * Last run time of cleanup operation.
      */
@@ -98,8 +115,26 @@ abstract class AbstractEvictableRecordStore extends AbstractRecordStore {
                 || mapConfig.getTimeToLiveSeconds() > 0;
     }
 
+    /**
+     * Decorates the underlying storage, below the hot restart and tiered storages, so the timing wheel sees every
+     * mutation which reaches it.
+     */
+    @Override
+    protected Storage<Data, Record> createStorageInternal(RecordFactory recordFactory, InMemoryFormat memoryFormat) {
+        Storage<Data, Record> storage = super.createStorageInternal(recordFactory, memoryFormat);
+        if (NATIVE == memoryFormat) {
+            return storage;
+        }
+        expirationStorage = new ExpirationStorage(storage, mapContainer, getNow());
+        return expirationStorage;
+    }
+
     @Override
     public void evictExpiredEntries(int percentage, boolean backup) {
+        if (expirationStorage != null) {
+            evictDueEntries(backup);
+            return;
+        }
         final long now = getNow();
         final int size = size();
         final int maxIterationCount = getMaxIterationCount(size, percentage);
@@ -123,6 +158,15 @@ abstract class AbstractEvictableRecordStore extends AbstractRecordStore {
         return isRecordStoreExpirable();
     }
 
+    @Override
+    public long getNextExpirationTime() {
+        if (!isRecordStoreExpirable()) {
+            return Long.MAX_VALUE;
+        }
+        // without a timing wheel every run scans a share of the records
+        return expirationStorage == null ? 0 : expirationStorage.getNextDueTime();
+    }
+
     /**
      * Intended to put an upper bound to iterations. Used in evictions.
      *
@@ -158,6 +202,60 @@ abstract class AbstractEvictableRecordStore extends AbstractRecordStore {
         return evictedCount;
     }
 
+    /**
+     * Expires the records whose keys are due in the timing wheel of the {@link #expirationStorage}. A record which
+     * was accessed since its key was scheduled, is locked or is on a backup which delays its expiration, is
+     * rescheduled instead.
+     */
+    private void evictDueEntries(boolean backup) {
+        final long now = getNow();
+        List<Data> dueKeys = expirationStorage.advance(now);
+        if (dueKeys.isEmpty()) {
+            return;
+        }
+        ExpirationManager expirationManager = mapServiceContext.getExpirationManager();
+        for (Data key : dueKeys) {
+            // looked up below the tiered storage: only the metadata is needed, a value on disk stays there
+            Record record = expirationStorage.get(key);
+            if (record == null) {
+                continue;
+            }
+            long expirationTime = getExpirationTime(record, backup);
+            if (expirationTime == Long.MAX_VALUE) {
+                continue;
+            }
+            if (expirationTime > now || isLocked(key)) {
+                expirationStorage.schedule(key, Math.max(expirationTime, now));
+                continue;
+            }
+            expire(key, record, backup);
+            expirationManager.onExpired(now - expirationTime);
+        }
+    }
+
+    /**
+     * Returns the time when the given record expires by its TTL or by max-idle, like {@link #isExpired} checks it.
+     */
+    private long getExpirationTime(Record record, boolean backup) {
+        long expirationTime = Long.MAX_VALUE;
+        long maxIdleMillis = calculateMaxIdleMillis(mapContainer.getMapConfig());
+        if (maxIdleMillis != Long.MAX_VALUE) {
+            long idleMillis = calculateExpirationWithDelay(maxIdleMillis, expiryDelayMillis, backup);
+            expirationTime = addWithoutOverflow(getIdlenessStartTime(record), idleMillis);
+        }
+        long ttl = record.getTtl();
+        if (ttl > 0L && ttl != Long.MAX_VALUE) {
+            long ttlMillis = calculateExpirationWithDelay(ttl, expiryDelayMillis, backup);
+            expirationTime = Math.min(expirationTime, addWithoutOverflow(getLifeStartTime(record), ttlMillis));
+        }
+        return expirationTime;
+    }
+
+    private static long addWithoutOverflow(long time, long millis) {
+        long sum = time + millis;
+        return sum < 0L ? Long.MAX_VALUE : sum;
+    }
+
     private void initExpirationIterator() {
         if (expirationIterator == null || !expirationIterator.hasNext()) {
             expirationIterator = storage.values().iterator();
@@ -269,12 +367,16 @@ abstract class AbstractEvictableRecordStore extends AbstractRecordStore {
         if (!isExpired(record, now, backup)) {
             return record;
         }
+        expire(key, record, backup);
+        return null;
+    }
+
+    private void expire(Data key, Record record, boolean backup) {
         final Object value = record.getValue();
         evict(key, backup);
         if (!backup) {
             doPostEvictionOperations(key, value, true);
         }
-        return null;
     }
 
     public boolean isExpired(Record record, long now, boolean backup) {
@@ -356,6 +458,11 @@ abstract class AbstractEvictableRecordStore extends AbstractRecordStore {
             case LFU:
                 record.setEvictionCriteriaNumber(record.getEvictionCriteriaNumber() + 1L);
                 break;
+            case TINY_LFU:
+                ++lruAccessSequenceNumber;
+                record.setEvictionCriteriaNumber(lruAccessSequenceNumber);
+                getAccessAwareEvictionPolicyEvaluator().onAccess(record.getKey());
+                break;
             case NONE:
                 break;
             default:
@@ -363,6 +470,31 @@ abstract class AbstractEvictableRecordStore extends AbstractRecordStore {
         }
     }
 
+    /**
+     * Counts the creation of a record as an access for the {@link EvictionPolicy#TINY_LFU} eviction policy, so a new
+     * record starts in its window of recently used records.
+     *
+     * @param key    key of the new record
+     * @param record the new record
+     */
+    protected void onCreateRecord(Data key, Record record) {
+        if (getEvictionPolicy() == EvictionPolicy.TINY_LFU) {
+            ++lruAccessSequenceNumber;
+            record.setEvictionCriteriaNumber(lruAccessSequenceNumber);
+            AccessAwareEvictionPolicyEvaluator<Data, ?> evaluator = getAccessAwareEvictionPolicyEvaluator();
+            evaluator.ensureCapacity(size());
+            evaluator.onAccess(key);
+        }
+    }
+
+    @Override
+    public AccessAwareEvictionPolicyEvaluator<Data, ?> getAccessAwareEvictionPolicyEvaluator() {
+        if (accessAwareEvictionPolicyEvaluator == null) {
+            accessAwareEvictionPolicyEvaluator = new TinyLFUEvictionPolicyEvaluator<Data, Evictable>();
+        }
+        return accessAwareEvictionPolicyEvaluator;
+    }
+
     @Override
     protected void accessRecord(Record record, long now) {
         super.accessRecord(record, now);
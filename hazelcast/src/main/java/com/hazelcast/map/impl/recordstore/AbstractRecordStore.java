@@ -18,8 +18,13 @@ package com.hazelcast.map.impl.recordstore;
 
 import com.hazelcast.concurrent.lock.LockService;
 import com.hazelcast.concurrent.lock.LockStore;
+import com.hazelcast.config.HotRestartConfig;
 import com.hazelcast.config.InMemoryFormat;
 import com.hazelcast.config.MapConfig;
+import com.hazelcast.config.TieredStoreConfig;
+import com.hazelcast.instance.GroupProperties;
+import com.hazelcast.instance.GroupProperty;
+import com.hazelcast.internal.hotrestart.HotRestartService;
 import com.hazelcast.internal.serialization.SerializationService;
 import com.hazelcast.map.impl.MapContainer;
 import com.hazelcast.map.impl.MapService;
@@ -28,6 +33,8 @@ import com.hazelcast.map.impl.SizeEstimator;
 import com.hazelcast.map.impl.mapstore.MapDataStore;
 import com.hazelcast.map.impl.mapstore.MapStoreContext;
 import com.hazelcast.map.impl.mapstore.MapStoreManager;
+import com.hazelcast.map.impl.record.NativeDataRecordFactory;
+import com.hazelcast.map.impl.record.NativeMemoryReclaimer;
 import com.hazelcast.map.impl.record.Record;
 import com.hazelcast.map.impl.record.RecordFactory;
 import com.hazelcast.map.impl.record.Records;
@@ -36,15 +43,22 @@ import com.hazelcast.query.impl.Indexes;
 import com.hazelcast.query.impl.QueryableEntry;
 import com.hazelcast.spi.DefaultObjectNamespace;
 import com.hazelcast.spi.NodeEngine;
+import com.hazelcast.spi.impl.NodeEngineImpl;
 import com.hazelcast.util.Clock;
 
+import java.io.File;
 import java.util.Collection;
+import java.util.Set;
 
+import static com.hazelcast.cluster.memberselector.MemberSelectors.DATA_MEMBER_SELECTOR;
+import static com.hazelcast.config.InMemoryFormat.BINARY;
 import static com.hazelcast.config.InMemoryFormat.NATIVE;
 import static com.hazelcast.map.impl.ExpirationTimeSetter.calculateMaxIdleMillis;
 import static com.hazelcast.map.impl.ExpirationTimeSetter.calculateTTLMillis;
 import static com.hazelcast.map.impl.ExpirationTimeSetter.pickTTL;
 import static com.hazelcast.map.impl.ExpirationTimeSetter.setExpirationTime;
+import static com.hazelcast.map.impl.ExpirationTimeSetter.updateExpiryTime;
+import static com.hazelcast.nio.IOUtil.toFileName;
 
 
 /**
@@ -67,6 +81,8 @@ abstract class AbstractRecordStore implements RecordStore<Record> {
 
     protected Storage<Data, Record> storage;
 
+    private ChangeTrackingStorage changeTrackingStorage;
+
     protected AbstractRecordStore(MapContainer mapContainer, int partitionId) {
         this.mapContainer = mapContainer;
         this.partitionId = partitionId;
@@ -100,11 +116,81 @@ abstract class AbstractRecordStore implements RecordStore<Record> {
         return record;
     }
 
+    /**
+     * Returns the {@link ChangeTrackingStorage} beneath the storage, or {@code null} for the NATIVE in-memory format.
+     */
+    ChangeTrackingStorage getChangeTrackingStorage() {
+        return changeTrackingStorage;
+    }
+
     @Override
     public Storage createStorage(RecordFactory recordFactory, InMemoryFormat memoryFormat) {
+        Storage<Data, Record> storage = createStorageInternal(recordFactory, memoryFormat);
+        if (NATIVE != memoryFormat) {
+            changeTrackingStorage = new ChangeTrackingStorage(storage);
+            storage = changeTrackingStorage;
+        }
+        NodeEngine nodeEngine = mapServiceContext.getNodeEngine();
+        HotRestartService hotRestartService = ((NodeEngineImpl) nodeEngine).getNode().getNodeExtension().getHotRestartService();
+        HotRestartConfig hotRestartConfig = mapContainer.getMapConfig().getHotRestartConfig();
+        if (hotRestartService != null && hotRestartConfig.isEnabled()) {
+            storage = new HotRestartStorage(storage, hotRestartService, serializationService, name, partitionId,
+                    hotRestartConfig.isFsync());
+        }
+        TieredStoreConfig tieredStoreConfig = mapContainer.getMapConfig().getTieredStoreConfig();
+        if (BINARY == memoryFormat && tieredStoreConfig.isEnabled()) {
+            storage = createTieredStorage(storage, recordFactory, tieredStoreConfig.getMemoryTierSize());
+        }
+        return storage;
+    }
+
+    private Storage<Data, Record> createTieredStorage(Storage<Data, Record> storage, RecordFactory recordFactory,
+                                                      final int memoryTierSize) {
+        final NodeEngine nodeEngine = mapServiceContext.getNodeEngine();
+        GroupProperties groupProperties = nodeEngine.getGroupProperties();
+        File baseDir = new File(groupProperties.getString(GroupProperty.MAP_TIERED_STORE_DIR),
+                "hz-tiered-" + nodeEngine.getLocalMember().getUuid());
+        File dir = new File(baseDir, toFileName(name) + "-" + partitionId);
+        int segmentSize = groupProperties.getInteger(GroupProperty.MAP_TIERED_STORE_SEGMENT_SIZE);
+        TieredStorage.MemoryTierLimit memoryTierLimit = new TieredStorage.MemoryTierLimit() {
+            @Override
+            public int get() {
+                // the memory tier size is per member, divided over partitions like the PER_NODE max size
+                int partitionCount = nodeEngine.getPartitionService().getPartitionCount();
+                int memberCount = nodeEngine.getClusterService().getSize(DATA_MEMBER_SELECTOR);
+                return Math.max((int) (1D * memoryTierSize * memberCount / partitionCount), 1);
+            }
+        };
+        return new TieredStorage(storage, recordFactory, new MappedSegmentStore(dir, segmentSize), memoryTierLimit,
+                mapContainer.getMapConfig().getEvictionPolicy(), partitionId);
+    }
+
+    protected Storage<Data, Record> createStorageInternal(RecordFactory recordFactory, InMemoryFormat memoryFormat) {
+        if (NATIVE == memoryFormat) {
+            NativeMemoryReclaimer reclaimer = ((NativeDataRecordFactory) recordFactory).getReclaimer();
+            return new NativeStorageImpl(recordFactory, reclaimer);
+        }
+        GroupProperties groupProperties = mapServiceContext.getNodeEngine().getGroupProperties();
+        if (groupProperties.getBoolean(GroupProperty.MAP_OPEN_ADDRESSING_STORAGE_ENABLED)) {
+            return new OpenAddressingStorageImpl(recordFactory, memoryFormat);
+        }
         return new StorageImpl(recordFactory, memoryFormat);
     }
 
+    @Override
+    public boolean startTrackingChanges() {
+        if (changeTrackingStorage == null) {
+            return false;
+        }
+        changeTrackingStorage.startTracking();
+        return true;
+    }
+
+    @Override
+    public Set<Data> stopTrackingChanges() {
+        return changeTrackingStorage == null ? null : changeTrackingStorage.stopTracking();
+    }
+
     @Override
     public String getName() {
         return name;
@@ -141,6 +227,18 @@ abstract class AbstractRecordStore implements RecordStore<Record> {
         storage.updateRecordValue(key, record, value);
     }
 
+    /**
+     * Updates the record like {@link #updateRecord(Data, Record, Object, long)} and applies the given TTL before
+     * the new value is handed to the storage, so a persistent storage sees the new expiration time.
+     */
+    protected void updateRecord(Data key, Record record, Object value, long now, long ttl) {
+        accessRecord(record, now);
+        record.setLastUpdateTime(now);
+        record.onUpdate();
+        updateExpiryTime(record, ttl, mapContainer.getMapConfig());
+        storage.updateRecordValue(key, record, value);
+    }
+
     @Override
     public int getPartitionId() {
         return partitionId;
@@ -22,6 +22,7 @@ import com.hazelcast.map.impl.MapContainer;
 import com.hazelcast.map.impl.MapService;
 import com.hazelcast.map.impl.MapServiceContext;
 import com.hazelcast.map.impl.mapstore.MapDataStore;
+import com.hazelcast.map.impl.mapstore.MapLoadingManager;
 import com.hazelcast.map.impl.operation.MapOperation;
 import com.hazelcast.map.impl.operation.MapOperationProvider;
 import com.hazelcast.nio.serialization.Data;
@@ -63,6 +64,8 @@ class BasicRecordStoreLoader implements RecordStoreLoader {
 
     private final MapDataStore mapDataStore;
 
+    private final MapLoadingManager loadingManager;
+
     private final RecordStore recordStore;
 
     private final int partitionId;
@@ -74,6 +77,7 @@ class BasicRecordStoreLoader implements RecordStoreLoader {
         this.mapServiceContext = mapContainer.getMapServiceContext();
         this.partitionId = recordStore.getPartitionId();
         this.mapDataStore = recordStore.getMapDataStore();
+        this.loadingManager = mapServiceContext.getMapLoadingManager();
         this.logger = mapServiceContext.getNodeEngine().getLogger(getClass());
         this.loaded = new AtomicBoolean(false);
     }
@@ -125,8 +129,9 @@ class BasicRecordStoreLoader implements RecordStoreLoader {
             loaded.set(true);
             return;
         }
+        loadingManager.onKeysToLoad(keys.size());
 
-        List<Future> futures = doBatchLoad(keys);
+        List<Future> futures = loadingManager.isParallelLoadingEnabled() ? doParallelLoad(keys) : doBatchLoad(keys);
         for (Future future : futures) {
             future.get();
         }
@@ -153,6 +158,45 @@ class BasicRecordStoreLoader implements RecordStoreLoader {
         return futures;
     }
 
+    /**
+     * Runs the loadAll calls of the chunks in parallel and puts the loaded entries into the partition in batches of
+     * {@link MapLoadingManager#getBatchSize()} entries.
+     */
+    private List<Future> doParallelLoad(List<Data> keys) throws Exception {
+        final Queue<List<Data>> batchChunks = createBatchChunks(keys);
+        final List<Future<List<Data>>> loads = new ArrayList<Future<List<Data>>>(batchChunks.size());
+        for (final List<Data> chunk : batchChunks) {
+            loads.add(loadingManager.submit(new Callable<List<Data>>() {
+                @Override
+                public List<Data> call() throws Exception {
+                    return loadAndGet(chunk);
+                }
+            }));
+        }
+
+        // one for the loading itself, so the loaded flag is not set before all batches are sent
+        final AtomicInteger finishedBatchCounter = new AtomicInteger(1);
+        final int sequenceSize = loadingManager.getBatchSize() * 2;
+        List<Future> futures = new ArrayList<Future>();
+        List<Data> keyValueSequence = new ArrayList<Data>(sequenceSize);
+        for (Future<List<Data>> load : loads) {
+            keyValueSequence.addAll(load.get());
+            if (keyValueSequence.size() >= sequenceSize) {
+                finishedBatchCounter.incrementAndGet();
+                futures.add(sendOperation(keyValueSequence, finishedBatchCounter));
+                keyValueSequence = new ArrayList<Data>(sequenceSize);
+            }
+        }
+        if (!keyValueSequence.isEmpty()) {
+            finishedBatchCounter.incrementAndGet();
+            futures.add(sendOperation(keyValueSequence, finishedBatchCounter));
+        }
+        if (finishedBatchCounter.decrementAndGet() == 0) {
+            loaded.set(true);
+        }
+        return futures;
+    }
+
     private Queue<List<Data>> createBatchChunks(List<Data> keys) {
         final Queue<List<Data>> chunks = new LinkedList<List<Data>>();
         final int loadBatchSize = getLoadBatchSize();
@@ -167,7 +211,9 @@ class BasicRecordStoreLoader implements RecordStoreLoader {
     private List<Data> loadAndGet(List<Data> keys) {
         Map<Object, Object> entries = Collections.emptyMap();
         try {
+            long start = System.nanoTime();
             entries = mapDataStore.loadAll(keys);
+            loadingManager.onLoadAll(entries == null ? 0 : entries.size(), System.nanoTime() - start);
         } catch (Throwable t) {
             logger.warning("Could not load keys from map store", t);
             ExceptionUtil.rethrow(t);
@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.map.impl.recordstore;
+
+import com.hazelcast.map.impl.SizeEstimator;
+import com.hazelcast.map.impl.record.Record;
+import com.hazelcast.nio.serialization.Data;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Decorates the {@link Storage} of a map partition to record the keys which are put, updated or removed while a
+ * chunked migration copies the partition; at the cut-over of the migration only these keys are replicated. The changes
+ * are also reported to the {@link SingleFlightLoader}, so a value loaded meanwhile does not overwrite them.
+ * <p/>
+ * Like the storage it is only accessed by the partition thread. When changes are not tracked it only adds a null
+ * check to the mutations.
+ */
+class ChangeTrackingStorage implements Storage<Data, Record> {
+
+    private final Storage<Data, Record> storage;
+
+    private Set<Data> changedKeys;
+    private boolean cleared;
+    private SingleFlightLoader singleFlightLoader;
+
+    ChangeTrackingStorage(Storage<Data, Record> storage) {
+        this.storage = storage;
+    }
+
+    @Override
+    public void put(Data key, Record record) {
+        storage.put(key, record);
+        onChange(key);
+    }
+
+    @Override
+    public void updateRecordValue(Data key, Record record, Object value) {
+        storage.updateRecordValue(key, record, value);
+        onChange(key);
+    }
+
+    @Override
+    public Record get(Data key) {
+        return storage.get(key);
+    }
+
+    @Override
+    public void removeRecord(Record record) {
+        if (record == null) {
+            return;
+        }
+        onChange(record.getKey());
+        storage.removeRecord(record);
+    }
+
+    @Override
+    public boolean containsKey(Data key) {
+        return storage.containsKey(key);
+    }
+
+    @Override
+    public Collection<Record> values() {
+        return storage.values();
+    }
+
+    @Override
+    public Iterable<Record> getRandomSamples(int sampleCount) {
+        return storage.getRandomSamples(sampleCount);
+    }
+
+    @Override
+    public int size() {
+        return storage.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return storage.isEmpty();
+    }
+
+    @Override
+    public void clear() {
+        storage.clear();
+        onClear();
+    }
+
+    @Override
+    public void destroy() {
+        storage.destroy();
+        onClear();
+    }
+
+    @Override
+    public SizeEstimator getSizeEstimator() {
+        return storage.getSizeEstimator();
+    }
+
+    @Override
+    public void setSizeEstimator(SizeEstimator sizeEstimator) {
+        storage.setSizeEstimator(sizeEstimator);
+    }
+
+    @Override
+    public void dispose() {
+        storage.dispose();
+    }
+
+    /**
+     * Sets the loader whose running loads are told about the changed keys.
+     */
+    void setSingleFlightLoader(SingleFlightLoader singleFlightLoader) {
+        this.singleFlightLoader = singleFlightLoader;
+    }
+
+    void startTracking() {
+        changedKeys = new HashSet<Data>();
+        cleared = false;
+    }
+
+    /**
+     * Returns the keys changed since {@link #startTracking()}, or {@code null} if the storage was cleared meanwhile.
+     */
+    Set<Data> stopTracking() {
+        Set<Data> keys = cleared ? null : changedKeys;
+        changedKeys = null;
+        cleared = false;
+        return keys;
+    }
+
+    private void onChange(Data key) {
+        if (changedKeys != null) {
+            changedKeys.add(key);
+        }
+        if (singleFlightLoader != null) {
+            singleFlightLoader.onChange(key);
+        }
+    }
+
+    private void onClear() {
+        if (singleFlightLoader != null) {
+            singleFlightLoader.onClear();
+        }
+        if (changedKeys != null) {
+            // the removed keys are unknown, so the whole map has to be replicated
+            changedKeys.clear();
+            cleared = true;
+        }
+    }
+}
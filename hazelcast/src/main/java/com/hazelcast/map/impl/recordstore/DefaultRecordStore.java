@@ -21,6 +21,7 @@ import com.hazelcast.concurrent.lock.LockService;
 import com.hazelcast.concurrent.lock.LockStore;
 import com.hazelcast.core.EntryView;
 import com.hazelcast.core.ExecutionCallback;
+import com.hazelcast.instance.GroupProperty;
 import com.hazelcast.logging.ILogger;
 import com.hazelcast.map.impl.EntryViews;
 import com.hazelcast.map.impl.MapContainer;
@@ -69,6 +70,7 @@ public class DefaultRecordStore extends AbstractEvictableRecordStore {
     protected final MapKeyLoader keyLoader;
     // loadingFutures are modified by partition threads and could be accessed by query threads
     protected final Collection<Future> loadingFutures = new ConcurrentLinkedQueue<Future>();
+    protected SingleFlightLoader singleFlightLoader;
 
     public DefaultRecordStore(MapContainer mapContainer, int partitionId,
                               MapKeyLoader keyLoader, ILogger logger) {
@@ -80,6 +82,24 @@ public class DefaultRecordStore extends AbstractEvictableRecordStore {
         this.recordStoreLoader = createRecordStoreLoader(mapStoreContext);
     }
 
+    @Override
+    public void init() {
+        super.init();
+        singleFlightLoader = createSingleFlightLoader();
+    }
+
+    private SingleFlightLoader createSingleFlightLoader() {
+        ChangeTrackingStorage changeTrackingStorage = getChangeTrackingStorage();
+        NodeEngine nodeEngine = mapServiceContext.getNodeEngine();
+        if (!mapStoreContext.isMapLoader() || changeTrackingStorage == null
+                || !nodeEngine.getGroupProperties().getBoolean(GroupProperty.MAP_LOAD_SINGLE_FLIGHT_ENABLED)) {
+            return null;
+        }
+        SingleFlightLoader loader = new SingleFlightLoader(this, nodeEngine);
+        changeTrackingStorage.setSingleFlightLoader(loader);
+        return loader;
+    }
+
     public void startLoading() {
         if (mapStoreContext.isMapLoader()) {
             loadingFutures.add(keyLoader.startInitialLoad(mapStoreContext, partitionId));
@@ -108,6 +128,13 @@ public class DefaultRecordStore extends AbstractEvictableRecordStore {
         keyLoader.trackLoading(false, null);
     }
 
+    @Override
+    public void loadPartitionFromStore(boolean replaceExistingValues) {
+        loadingFutures.add(keyLoader.loadPartitionKeys(mapStoreContext, replaceExistingValues));
+
+        keyLoader.trackLoading(false, null);
+    }
+
     @Override
     public void updateLoadStatus(boolean lastBatch, Throwable exception) {
         keyLoader.trackLoading(lastBatch, exception);
@@ -211,6 +238,7 @@ public class DefaultRecordStore extends AbstractEvictableRecordStore {
         if (record == null) {
             record = createRecord(value, ttl, now);
             storage.put(key, record);
+            onCreateRecord(key, record);
         } else {
             updateRecord(key, record, value, now);
         }
@@ -339,11 +367,16 @@ public class DefaultRecordStore extends AbstractEvictableRecordStore {
 
     @Override
     public Record loadRecordOrNull(Data key, boolean backup) {
-        Record record = null;
         final Object value = mapDataStore.load(key);
+        return putLoadedRecord(key, value, backup);
+    }
+
+    private Record putLoadedRecord(Data key, Object value, boolean backup) {
+        Record record = null;
         if (value != null) {
             record = createRecord(value, DEFAULT_TTL, getNow());
             storage.put(key, record);
+            onCreateRecord(key, record);
             evictEntries(Clock.currentTimeMillis());
             if (!backup) {
                 saveIndex(record, null);
@@ -352,6 +385,54 @@ public class DefaultRecordStore extends AbstractEvictableRecordStore {
         return record;
     }
 
+    @Override
+    public boolean loadAsync(Data key, ExecutionCallback<Object> callback) {
+        if (singleFlightLoader == null) {
+            return false;
+        }
+        checkIfLoaded();
+        if (getRecordOrNull(key, getNow(), false) != null) {
+            return false;
+        }
+        singleFlightLoader.load(key, callback);
+        return true;
+    }
+
+    /**
+     * Returns {@code true} if the key has no record in memory, so a value loaded by the {@link SingleFlightLoader}
+     * has to be put.
+     */
+    boolean isLoadPending(Data key) {
+        return getRecordOrNull(key, getNow(), false) == null;
+    }
+
+    /**
+     * Puts the value loaded by the {@link SingleFlightLoader} and returns the value of the key like
+     * {@link #get(Data, boolean)}.
+     */
+    Object putLoadedValue(Data key, Object loadedValue) {
+        final long now = getNow();
+        Record record = getRecordOrNull(key, now, false);
+        if (record == null) {
+            record = putLoadedRecord(key, loadedValue, false);
+        } else {
+            accessRecord(record, now);
+        }
+        Object value = record == null ? null : record.getValue();
+        return mapServiceContext.interceptGet(name, value);
+    }
+
+    @Override
+    public long getCoalescedLoadCount() {
+        return singleFlightLoader == null ? 0 : singleFlightLoader.getCoalescedLoadCount();
+    }
+
+    private void onRemoveAbsent(Data key) {
+        if (singleFlightLoader != null) {
+            singleFlightLoader.onChange(key);
+        }
+    }
+
     @Override
     public Set<Data> keySet() {
         checkIfLoaded();
@@ -492,6 +573,7 @@ public class DefaultRecordStore extends AbstractEvictableRecordStore {
             oldValue = mapDataStore.load(key);
             if (oldValue != null) {
                 mapDataStore.remove(key, now);
+                onRemoveAbsent(key);
             }
         } else {
             oldValue = removeRecord(key, record, now);
@@ -520,6 +602,9 @@ public class DefaultRecordStore extends AbstractEvictableRecordStore {
             removeIndex(record);
             mapDataStore.remove(key, now);
             onStore(record);
+            if (record == null) {
+                onRemoveAbsent(key);
+            }
             storage.removeRecord(record);
             removed = true;
         }
@@ -534,6 +619,7 @@ public class DefaultRecordStore extends AbstractEvictableRecordStore {
         final Record record = getRecordOrNull(key, now, false);
         if (record == null) {
             mapDataStore.remove(key, now);
+            onRemoveAbsent(key);
         } else {
             return removeRecord(key, record, now) != null;
         }
@@ -672,9 +758,9 @@ public class DefaultRecordStore extends AbstractEvictableRecordStore {
         if (record == null) {
             record = createRecord(value, ttl, now);
             storage.put(key, record);
+            onCreateRecord(key, record);
         } else {
-            updateRecord(key, record, value, now);
-            updateExpiryTime(record, ttl, mapContainer.getMapConfig());
+            updateRecord(key, record, value, now, ttl);
         }
 
         saveIndex(record, oldValue);
@@ -701,6 +787,7 @@ public class DefaultRecordStore extends AbstractEvictableRecordStore {
             record = createRecord(newValue, DEFAULT_TTL, now);
             mergeRecordExpiration(record, mergingEntry);
             storage.put(key, record);
+            onCreateRecord(key, record);
         } else {
             oldValue = record.getValue();
             EntryView existingEntry = EntryViews.createLazyEntryView(record.getKey(), record.getValue(),
@@ -783,11 +870,11 @@ public class DefaultRecordStore extends AbstractEvictableRecordStore {
             value = mapServiceContext.interceptPut(name, null, value);
             record = createRecord(value, ttl, now);
             storage.put(key, record);
+            onCreateRecord(key, record);
         } else {
             oldValue = record.getValue();
             value = mapServiceContext.interceptPut(name, oldValue, value);
-            updateRecord(key, record, value, now);
-            updateExpiryTime(record, ttl, mapContainer.getMapConfig());
+            updateRecord(key, record, value, now, ttl);
         }
         saveIndex(record, oldValue);
         mapDataStore.addTransient(key, now);
@@ -826,11 +913,11 @@ public class DefaultRecordStore extends AbstractEvictableRecordStore {
             value = mapServiceContext.interceptPut(name, null, value);
             record = createRecord(value, ttl, now);
             storage.put(key, record);
+            onCreateRecord(key, record);
         } else {
             oldValue = record.getValue();
             value = mapServiceContext.interceptPut(name, oldValue, value);
-            updateRecord(key, record, value, now);
-            updateExpiryTime(record, ttl, mapContainer.getMapConfig());
+            updateRecord(key, record, value, now, ttl);
         }
         if (!backup) {
             saveIndex(record, oldValue);
@@ -871,6 +958,7 @@ public class DefaultRecordStore extends AbstractEvictableRecordStore {
             if (oldValue != null) {
                 record = createRecord(oldValue, DEFAULT_TTL, now);
                 storage.put(key, record);
+                onCreateRecord(key, record);
             }
         } else {
             accessRecord(record, now);
@@ -881,8 +969,9 @@ public class DefaultRecordStore extends AbstractEvictableRecordStore {
             value = mapDataStore.add(key, value, now);
             onStore(record);
             record = createRecord(value, ttl, now);
-            storage.put(key, record);
             updateExpiryTime(record, ttl, mapContainer.getMapConfig());
+            storage.put(key, record);
+            onCreateRecord(key, record);
         }
         saveIndex(record, oldValue);
         return oldValue;
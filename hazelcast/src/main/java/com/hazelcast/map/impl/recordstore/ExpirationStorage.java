@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.recordstore;
+
+import com.hazelcast.map.impl.MapContainer;
+import com.hazelcast.map.impl.SizeEstimator;
+import com.hazelcast.map.impl.eviction.HierarchicalTimingWheel;
+import com.hazelcast.map.impl.record.Record;
+import com.hazelcast.nio.serialization.Data;
+
+import java.util.Collection;
+import java.util.List;
+
+import static com.hazelcast.map.impl.ExpirationTimeSetter.calculateExpirationTime;
+import static com.hazelcast.map.impl.ExpirationTimeSetter.calculateMaxIdleMillis;
+
+/**
+ * Decorates the {@link Storage} of a map partition with a {@link HierarchicalTimingWheel} of the keys which expire,
+ * keyed by their expiration time; every put and update reschedules its key and every removal cancels it, so the
+ * expiration task only visits the records which are due.
+ * <p/>
+ * Reads extend the max-idle expiration time without rescheduling: a key which is found to be accessed since it was
+ * scheduled is rescheduled by the record store when it is due.
+ */
+class ExpirationStorage implements Storage<Data, Record> {
+
+    private final Storage<Data, Record> storage;
+    private final MapContainer mapContainer;
+    private final HierarchicalTimingWheel<Data> timingWheel;
+
+    /**
+     * Max-idle time the keys are scheduled with, the keys are rescheduled when the map config changes it.
+     */
+    private long maxIdleMillis;
+
+    ExpirationStorage(Storage<Data, Record> storage, MapContainer mapContainer, long now) {
+        this.storage = storage;
+        this.mapContainer = mapContainer;
+        this.timingWheel = new HierarchicalTimingWheel<Data>(now);
+        this.maxIdleMillis = calculateMaxIdleMillis(mapContainer.getMapConfig());
+    }
+
+    @Override
+    public void put(Data key, Record record) {
+        storage.put(key, record);
+        schedule(key, record);
+    }
+
+    @Override
+    public void updateRecordValue(Data key, Record record, Object value) {
+        storage.updateRecordValue(key, record, value);
+        schedule(key, record);
+    }
+
+    @Override
+    public Record get(Data key) {
+        return storage.get(key);
+    }
+
+    @Override
+    public void removeRecord(Record record) {
+        if (record == null) {
+            return;
+        }
+        timingWheel.cancel(record.getKey());
+        storage.removeRecord(record);
+    }
+
+    @Override
+    public boolean containsKey(Data key) {
+        return storage.containsKey(key);
+    }
+
+    @Override
+    public Collection<Record> values() {
+        return storage.values();
+    }
+
+    @Override
+    public Iterable<Record> getRandomSamples(int sampleCount) {
+        return storage.getRandomSamples(sampleCount);
+    }
+
+    @Override
+    public int size() {
+        return storage.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return storage.isEmpty();
+    }
+
+    @Override
+    public void clear() {
+        storage.clear();
+        timingWheel.clear();
+    }
+
+    @Override
+    public void destroy() {
+        storage.destroy();
+        timingWheel.clear();
+    }
+
+    @Override
+    public SizeEstimator getSizeEstimator() {
+        return storage.getSizeEstimator();
+    }
+
+    @Override
+    public void setSizeEstimator(SizeEstimator sizeEstimator) {
+        storage.setSizeEstimator(sizeEstimator);
+    }
+
+    @Override
+    public void dispose() {
+        storage.dispose();
+    }
+
+    /**
+     * Returns a lower bound of the time when the earliest key is due; may be called by any thread.
+     */
+    long getNextDueTime() {
+        return timingWheel.getNextDueTime();
+    }
+
+    /**
+     * Returns the keys which are due at the given time; they are no longer scheduled, so the caller either expires
+     * or reschedules them.
+     */
+    List<Data> advance(long now) {
+        long currentMaxIdleMillis = calculateMaxIdleMillis(mapContainer.getMapConfig());
+        if (currentMaxIdleMillis != maxIdleMillis) {
+            maxIdleMillis = currentMaxIdleMillis;
+            for (Record record : storage.values()) {
+                schedule(record.getKey(), record);
+            }
+        }
+        return timingWheel.advance(now);
+    }
+
+    void schedule(Data key, long expirationTime) {
+        timingWheel.schedule(key, expirationTime);
+    }
+
+    private void schedule(Data key, Record record) {
+        long expirationTime = calculateExpirationTime(record, maxIdleMillis);
+        if (expirationTime == Long.MAX_VALUE) {
+            timingWheel.cancel(key);
+        } else {
+            timingWheel.schedule(key, expirationTime);
+        }
+    }
+}
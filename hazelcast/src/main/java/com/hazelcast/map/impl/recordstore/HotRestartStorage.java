@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.map.impl.recordstore;
+
+import com.hazelcast.internal.hotrestart.HotRestartService;
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.map.impl.MapService;
+import com.hazelcast.map.impl.SizeEstimator;
+import com.hazelcast.map.impl.record.Record;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.util.Clock;
+
+import java.util.Collection;
+
+/**
+ * Decorates the {@link Storage} of a map partition with hot restart enabled; every mutation is written
+ * to the {@link HotRestartService} after it is applied to the decorated storage.
+ */
+class HotRestartStorage implements Storage<Data, Record> {
+
+    private final Storage<Data, Record> storage;
+    private final HotRestartService hotRestartService;
+    private final SerializationService serializationService;
+    private final String name;
+    private final int partitionId;
+    private final boolean fsync;
+
+    HotRestartStorage(Storage<Data, Record> storage, HotRestartService hotRestartService,
+                      SerializationService serializationService, String name, int partitionId, boolean fsync) {
+        this.storage = storage;
+        this.hotRestartService = hotRestartService;
+        this.serializationService = serializationService;
+        this.name = name;
+        this.partitionId = partitionId;
+        this.fsync = fsync;
+    }
+
+    @Override
+    public void put(Data key, Record record) {
+        storage.put(key, record);
+        persist(key, record);
+    }
+
+    @Override
+    public void updateRecordValue(Data key, Record record, Object value) {
+        storage.updateRecordValue(key, record, value);
+        persist(key, record);
+    }
+
+    @Override
+    public Record get(Data key) {
+        return storage.get(key);
+    }
+
+    @Override
+    public void removeRecord(Record record) {
+        if (record == null) {
+            return;
+        }
+        Data key = record.getKey();
+        storage.removeRecord(record);
+        hotRestartService.remove(MapService.SERVICE_NAME, name, partitionId, key, fsync);
+    }
+
+    @Override
+    public boolean containsKey(Data key) {
+        return storage.containsKey(key);
+    }
+
+    @Override
+    public Collection<Record> values() {
+        return storage.values();
+    }
+
+    @Override
+    public Iterable<Record> getRandomSamples(int sampleCount) {
+        return storage.getRandomSamples(sampleCount);
+    }
+
+    @Override
+    public int size() {
+        return storage.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return storage.isEmpty();
+    }
+
+    @Override
+    public void clear() {
+        storage.clear();
+        hotRestartService.clear(MapService.SERVICE_NAME, name, partitionId, fsync);
+    }
+
+    @Override
+    public void destroy() {
+        storage.destroy();
+        hotRestartService.clear(MapService.SERVICE_NAME, name, partitionId, fsync);
+    }
+
+    @Override
+    public SizeEstimator getSizeEstimator() {
+        return storage.getSizeEstimator();
+    }
+
+    @Override
+    public void setSizeEstimator(SizeEstimator sizeEstimator) {
+        storage.setSizeEstimator(sizeEstimator);
+    }
+
+    @Override
+    public void dispose() {
+        storage.dispose();
+    }
+
+    private void persist(Data key, Record record) {
+        long ttl = record.getTtl();
+        long now = Clock.currentTimeMillis();
+        long expirationTime = ttl > 0 && ttl < Long.MAX_VALUE - now ? now + ttl : Long.MAX_VALUE;
+        Data value = serializationService.toData(record.getValue());
+        hotRestartService.put(MapService.SERVICE_NAME, name, partitionId, key, value, expirationTime, fsync);
+    }
+}
@@ -0,0 +1,241 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.map.impl.recordstore;
+
+import com.hazelcast.core.HazelcastException;
+import com.hazelcast.internal.serialization.impl.CompressedData;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.util.EmptyStatement;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.hazelcast.nio.IOUtil.closeResource;
+
+/**
+ * Appends the values moved to the disk tier of a {@link TieredStorage} to memory-mapped segment files.
+ * <p/>
+ * Values are only appended; a segment counts its live values and is closed, so unmapped and deleted, once the
+ * last one is released and a newer segment is being filled. Writes and releases are done by the partition
+ * thread. A {@link SpilledData} can be read by any thread: a read pins its segment, a pinned segment is closed
+ * by the last reader unpinning it, and a released value keeps a heap copy of its payload for the readers which
+ * still hold it after its segment is closed.
+ */
+final class MappedSegmentStore {
+
+    private final File dir;
+    private final int segmentSize;
+    private final List<Segment> segments = new ArrayList<Segment>();
+
+    private Segment active;
+    private int nextSegmentId;
+
+    MappedSegmentStore(File dir, int segmentSize) {
+        this.dir = dir;
+        this.segmentSize = segmentSize;
+    }
+
+    /**
+     * Copies the value to the active segment, starting a new segment if it does not fit. A {@link CompressedData}
+     * is copied in its compressed form.
+     */
+    SpilledData write(Data value) {
+        byte[] bytes = value instanceof CompressedData
+                ? ((CompressedData) value).getCompressedPayload() : value.toByteArray();
+        if (active == null || active.remaining() < bytes.length) {
+            Segment previous = active;
+            active = newSegment(Math.max(segmentSize, bytes.length));
+            segments.add(active);
+            if (previous != null) {
+                previous.seal();
+                closeIfUnused(previous);
+            }
+        }
+        int offset = active.append(bytes);
+        return new SpilledData(active, offset, bytes.length, value);
+    }
+
+    /**
+     * Releases a value which is not referenced by its record anymore. The payload is copied to the heap first,
+     * since a thread which read the record before may still deserialize the value.
+     */
+    void release(SpilledData value) {
+        value.detach();
+        Segment segment = value.segment;
+        segment.liveCount--;
+        closeIfUnused(segment);
+    }
+
+    /**
+     * Closes all segments. Values which were not released cannot be read anymore.
+     */
+    void destroy() {
+        for (Segment segment : segments) {
+            segment.requestClose();
+        }
+        segments.clear();
+        active = null;
+        // segments which are still pinned delete their file once unpinned
+        if (dir.exists() && !dir.delete()) {
+            dir.deleteOnExit();
+        }
+    }
+
+    private void closeIfUnused(Segment segment) {
+        if (segment.sealed && segment.liveCount == 0) {
+            segments.remove(segment);
+            segment.requestClose();
+        }
+    }
+
+    private Segment newSegment(int size) {
+        if (!dir.exists() && !dir.mkdirs()) {
+            throw new HazelcastException("Could not create tiered store directory " + dir);
+        }
+        File file = new File(dir, (nextSegmentId++) + ".segment");
+        RandomAccessFile randomAccessFile = null;
+        try {
+            randomAccessFile = new RandomAccessFile(file, "rw");
+            randomAccessFile.setLength(size);
+            MappedByteBuffer buffer = randomAccessFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+            return new Segment(file, buffer);
+        } catch (IOException e) {
+            throw new HazelcastException("Could not map tiered store segment " + file, e);
+        } finally {
+            closeResource(randomAccessFile);
+        }
+    }
+
+    /**
+     * Unmaps the buffer right away instead of when it is garbage collected, which is what allows deleting the
+     * file on every platform. Falls back to the garbage collector when the JDK does not expose a cleaner.
+     */
+    static void unmap(MappedByteBuffer buffer) {
+        try {
+            Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+            cleanerMethod.setAccessible(true);
+            Object cleaner = cleanerMethod.invoke(buffer);
+            if (cleaner != null) {
+                Method cleanMethod = cleaner.getClass().getMethod("clean");
+                cleanMethod.setAccessible(true);
+                cleanMethod.invoke(cleaner);
+            }
+        } catch (Exception e) {
+            EmptyStatement.ignore(e);
+        }
+    }
+
+    /**
+     * A memory-mapped segment file.
+     */
+    static final class Segment {
+
+        private static final int CLOSED = -1;
+
+        private final File file;
+        private final MappedByteBuffer buffer;
+        // number of reads in progress, or CLOSED
+        private final AtomicInteger pins = new AtomicInteger();
+        private volatile boolean closeRequested;
+
+        // accessed by the partition thread only
+        private int position;
+        private int liveCount;
+        private boolean sealed;
+
+        Segment(File file, MappedByteBuffer buffer) {
+            this.file = file;
+            this.buffer = buffer;
+        }
+
+        int remaining() {
+            return buffer.capacity() - position;
+        }
+
+        int append(byte[] bytes) {
+            int offset = position;
+            ByteBuffer target = buffer.duplicate();
+            target.position(offset);
+            target.put(bytes);
+            position += bytes.length;
+            liveCount++;
+            return offset;
+        }
+
+        /**
+         * Copies a payload into the target, returning {@code false} if the segment was closed.
+         */
+        boolean read(int offset, byte[] target) {
+            if (!pin()) {
+                return false;
+            }
+            try {
+                ByteBuffer source = buffer.duplicate();
+                source.position(offset);
+                source.get(target);
+                return true;
+            } finally {
+                unpin();
+            }
+        }
+
+        void seal() {
+            sealed = true;
+        }
+
+        void requestClose() {
+            closeRequested = true;
+            tryClose();
+        }
+
+        private boolean pin() {
+            for (;;) {
+                int current = pins.get();
+                if (current == CLOSED) {
+                    return false;
+                }
+                if (pins.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        private void unpin() {
+            if (pins.decrementAndGet() == 0 && closeRequested) {
+                tryClose();
+            }
+        }
+
+        private void tryClose() {
+            if (pins.compareAndSet(0, CLOSED)) {
+                unmap(buffer);
+                if (!file.delete()) {
+                    file.deleteOnExit();
+                }
+            }
+        }
+    }
+}
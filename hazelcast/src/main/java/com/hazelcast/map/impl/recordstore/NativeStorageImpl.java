@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.map.impl.recordstore;
+
+import com.hazelcast.config.InMemoryFormat;
+import com.hazelcast.internal.serialization.impl.NativeMemoryData;
+import com.hazelcast.map.impl.SizeEstimator;
+import com.hazelcast.map.impl.record.NativeMemoryReclaimer;
+import com.hazelcast.map.impl.record.NativeRecord;
+import com.hazelcast.map.impl.record.Record;
+import com.hazelcast.map.impl.record.RecordFactory;
+import com.hazelcast.memory.MemoryAllocator;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.util.SampleableConcurrentHashMap;
+
+import java.util.Collection;
+
+import static com.hazelcast.map.impl.SizeEstimators.createMapSizeEstimator;
+
+/**
+ * Storage for {@link InMemoryFormat#NATIVE} maps. Keys and values of the records are copied to
+ * native memory, the map only holds small views ({@link NativeMemoryData}) over these blocks.
+ * <p/>
+ * Native memory of a record is retired when the record is removed, replaced or the storage is cleared, and freed
+ * by the {@link NativeMemoryReclaimer} once no query or backup read can still copy it.
+ * Lookups with heap keys work since {@link NativeMemoryData} and
+ * {@link com.hazelcast.internal.serialization.impl.HeapData} share hash codes and equality.
+ *
+ * @param <R> Type of records in this storage.
+ */
+class NativeStorageImpl<R extends Record> implements Storage<Data, R> {
+
+    private final RecordFactory<R> recordFactory;
+    private final MemoryAllocator memoryAllocator;
+    private final NativeMemoryReclaimer reclaimer;
+    // only the partition thread retires blocks
+    private final NativeMemoryReclaimer.Retired retired;
+    // Concurrency level is 1 since at most one thread can write at a time.
+    private final SampleableConcurrentHashMap<Data, R> records = new SampleableConcurrentHashMap<Data, R>(1000);
+
+    // not final for testing purposes.
+    private SizeEstimator sizeEstimator;
+
+    NativeStorageImpl(RecordFactory<R> recordFactory, NativeMemoryReclaimer reclaimer) {
+        this.recordFactory = recordFactory;
+        this.memoryAllocator = reclaimer.getMemoryAllocator();
+        this.reclaimer = reclaimer;
+        this.retired = reclaimer.newRetired();
+        this.sizeEstimator = createMapSizeEstimator(InMemoryFormat.NATIVE);
+    }
+
+    @Override
+    public void put(Data key, R record) {
+        NativeRecord nativeRecord = (NativeRecord) record;
+        R existingRecord = records.get(key);
+        NativeMemoryData nativeKey;
+        if (existingRecord == null) {
+            nativeKey = NativeMemoryData.copyOf(key, memoryAllocator);
+        } else {
+            // the map keeps the key instance of the existing mapping, reuse its memory.
+            nativeKey = ((NativeRecord) existingRecord).getNativeKey();
+        }
+        nativeRecord.setNativeKey(nativeKey);
+        records.put(nativeKey, record);
+
+        if (existingRecord != null && existingRecord != record) {
+            freeValue((NativeRecord) existingRecord);
+        }
+    }
+
+    @Override
+    public void updateRecordValue(Data key, R record, Object value) {
+        NativeMemoryData oldValue = ((NativeRecord) record).getNativeValue();
+        recordFactory.setValue(record, value);
+        retired.retire(oldValue);
+    }
+
+    @Override
+    public R get(Data key) {
+        // comparing keys reads native memory, lookups are not limited to the partition thread
+        int slot = reclaimer.enterRead();
+        try {
+            return records.get(key);
+        } finally {
+            reclaimer.exitRead(slot);
+        }
+    }
+
+    @Override
+    public void removeRecord(R record) {
+        if (record == null) {
+            return;
+        }
+
+        NativeRecord nativeRecord = (NativeRecord) record;
+        NativeMemoryData nativeKey = nativeRecord.getNativeKey();
+        if (nativeKey == null) {
+            return;
+        }
+        records.remove(nativeKey);
+        freeValue(nativeRecord);
+        nativeRecord.setNativeKey(null);
+        retired.retire(nativeKey);
+    }
+
+    private void freeValue(NativeRecord record) {
+        NativeMemoryData nativeValue = record.getNativeValue();
+        // detach before retiring, readers entering later must not find the block
+        record.invalidate();
+        retired.retire(nativeValue);
+    }
+
+    @Override
+    public boolean containsKey(Data key) {
+        int slot = reclaimer.enterRead();
+        try {
+            return records.containsKey(key);
+        } finally {
+            reclaimer.exitRead(slot);
+        }
+    }
+
+    @Override
+    public Collection<R> values() {
+        return records.values();
+    }
+
+    @Override
+    public Iterable<R> getRandomSamples(int sampleCount) {
+        return StorageImpl.getRandomSamples(records, sampleCount);
+    }
+
+    @Override
+    public int size() {
+        return records.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return records.isEmpty();
+    }
+
+    @Override
+    public void clear() {
+        for (R record : records.values()) {
+            removeRecord(record);
+        }
+        records.clear();
+        // wait for the readers which may still copy the removed blocks, the memory manager may be disposed next
+        retired.reclaimAll();
+
+        sizeEstimator.reset();
+    }
+
+    @Override
+    public void destroy() {
+        clear();
+    }
+
+    @Override
+    public SizeEstimator getSizeEstimator() {
+        return sizeEstimator;
+    }
+
+    @Override
+    public void setSizeEstimator(SizeEstimator sizeEstimator) {
+        this.sizeEstimator = sizeEstimator;
+    }
+
+    @Override
+    public void dispose() {
+        // NOP intentionally, memory of the records is freed by destroy().
+    }
+}
@@ -0,0 +1,393 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.recordstore;
+
+import com.hazelcast.config.InMemoryFormat;
+import com.hazelcast.map.impl.SizeEstimator;
+import com.hazelcast.map.impl.record.AbstractRecord;
+import com.hazelcast.map.impl.record.Record;
+import com.hazelcast.map.impl.record.RecordFactory;
+import com.hazelcast.nio.serialization.Data;
+
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static com.hazelcast.map.impl.SizeEstimators.createMapSizeEstimator;
+import static com.hazelcast.util.QuickMath.modPowerOfTwo;
+
+/**
+ * A {@link Storage} specialised for the partition-thread model: at most one thread mutates the records of a
+ * partition at a time, while query and statistics threads may read them concurrently.
+ * <p/>
+ * Records are kept in an open-addressing table with linear probing. Keys are not stored separately since
+ * every record already references its key, and hash codes are cached in a parallel {@code int[]} so a probe
+ * only compares keys when the hashes match. Compared to a {@link java.util.concurrent.ConcurrentHashMap}
+ * this saves the per-entry node and the key reference.
+ * <p/>
+ * Removed slots are marked with a tombstone instead of being shifted back, so a record never moves while a
+ * reader scans the table. The table is rebuilt into new arrays once records and tombstones reach the load
+ * factor. A slot is published with an ordered write after its cached hash, so a reader which sees a record
+ * also sees its hash. Iterators are weakly consistent: they scan the table they were created on and never
+ * throw {@link java.util.ConcurrentModificationException}.
+ *
+ * @param <R> the type of the record.
+ */
+class OpenAddressingStorageImpl<R extends Record> implements Storage<Data, R> {
+
+    static final int DEFAULT_INITIAL_CAPACITY = 256;
+    static final float LOAD_FACTOR = 0.6f;
+
+    private static final Object TOMBSTONE = new Object();
+
+    // Because of JDK6 compatibility, java.util.concurrent.ThreadLocalRandom cannot be used.
+    private static final ThreadLocal<Random> THREAD_LOCAL_RANDOM = new ThreadLocal<Random>() {
+        @Override
+        protected Random initialValue() {
+            return new Random();
+        }
+    };
+
+    private final RecordFactory<R> recordFactory;
+    private final int initialCapacity;
+
+    private volatile Table table;
+    private volatile int size;
+    // number of slots holding a record or a tombstone, only accessed by the writer thread.
+    private int usedSlots;
+
+    // not final for testing purposes.
+    private SizeEstimator sizeEstimator;
+
+    OpenAddressingStorageImpl(RecordFactory<R> recordFactory, InMemoryFormat inMemoryFormat) {
+        this(recordFactory, inMemoryFormat, 0);
+    }
+
+    OpenAddressingStorageImpl(RecordFactory<R> recordFactory, InMemoryFormat inMemoryFormat, int expectedSize) {
+        this.recordFactory = recordFactory;
+        this.initialCapacity = capacityFor(expectedSize);
+        this.sizeEstimator = createMapSizeEstimator(inMemoryFormat);
+        this.table = new Table(initialCapacity);
+    }
+
+    @Override
+    public void put(Data key, R record) {
+        ((AbstractRecord) record).setKey(key);
+
+        int hash = key.hashCode();
+        Table table = this.table;
+        int index = table.indexOf(key, hash);
+        if (index >= 0) {
+            R previousRecord = table.recordAt(index);
+            table.records.lazySet(index, record);
+            updateSizeEstimator(-calculateHeapCost(previousRecord));
+        } else {
+            table = ensureCapacity();
+            if (table.insert(hash, record)) {
+                usedSlots++;
+            }
+            size++;
+            updateSizeEstimator(calculateHeapCost(key));
+        }
+        updateSizeEstimator(calculateHeapCost(record));
+    }
+
+    @Override
+    public void updateRecordValue(Data key, R record, Object value) {
+        updateSizeEstimator(-calculateHeapCost(record));
+
+        recordFactory.setValue(record, value);
+
+        updateSizeEstimator(calculateHeapCost(record));
+    }
+
+    @Override
+    public R get(Data key) {
+        Table table = this.table;
+        int index = table.indexOf(key, key.hashCode());
+        return index < 0 ? null : table.<R>recordAt(index);
+    }
+
+    @Override
+    public boolean containsKey(Data key) {
+        return table.indexOf(key, key.hashCode()) >= 0;
+    }
+
+    @Override
+    public void removeRecord(R record) {
+        if (record == null) {
+            return;
+        }
+
+        Data key = record.getKey();
+        Table table = this.table;
+        int index = table.indexOf(key, key.hashCode());
+        if (index < 0) {
+            return;
+        }
+        table.records.lazySet(index, TOMBSTONE);
+        size--;
+
+        updateSizeEstimator(-calculateHeapCost(record));
+        updateSizeEstimator(-calculateHeapCost(key));
+        record.invalidate();
+    }
+
+    @Override
+    public Collection<R> values() {
+        return new Values();
+    }
+
+    /**
+     * Scans the table from a random slot, so the expected number of visited slots only depends on the load factor.
+     */
+    @Override
+    public Iterable<R> getRandomSamples(int sampleCount) {
+        Table table = this.table;
+        int capacity = table.hashes.length;
+        List<R> samples = new ArrayList<R>(sampleCount);
+        int index = THREAD_LOCAL_RANDOM.get().nextInt(capacity);
+        for (int visited = 0; visited < capacity && samples.size() < sampleCount; visited++) {
+            Object record = table.records.get(index);
+            if (record != null && record != TOMBSTONE) {
+                samples.add(table.<R>recordAt(index));
+            }
+            index = (index + 1) & (capacity - 1);
+        }
+        return samples;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public void clear() {
+        table = new Table(initialCapacity);
+        size = 0;
+        usedSlots = 0;
+
+        sizeEstimator.reset();
+    }
+
+    @Override
+    public void destroy() {
+        clear();
+    }
+
+    @Override
+    public SizeEstimator getSizeEstimator() {
+        return sizeEstimator;
+    }
+
+    @Override
+    public void setSizeEstimator(SizeEstimator sizeEstimator) {
+        this.sizeEstimator = sizeEstimator;
+    }
+
+    @Override
+    public void dispose() {
+        // NOP intentionally.
+    }
+
+    /**
+     * Returns the number of slots of the current table.
+     */
+    int capacity() {
+        return table.hashes.length;
+    }
+
+    protected void updateSizeEstimator(long recordSize) {
+        sizeEstimator.add(recordSize);
+    }
+
+    protected long calculateHeapCost(Object obj) {
+        return sizeEstimator.calculateSize(obj);
+    }
+
+    /**
+     * Makes sure there is a free slot for one more record. When the used slots reach the load factor, the
+     * table is rebuilt without its tombstones; its capacity is doubled unless most used slots were tombstones.
+     */
+    private Table ensureCapacity() {
+        Table table = this.table;
+        int capacity = table.hashes.length;
+        int threshold = (int) (capacity * LOAD_FACTOR);
+        if (usedSlots < threshold) {
+            return table;
+        }
+        Table newTable = new Table(size < threshold / 2 ? capacity : capacity << 1);
+        for (int i = 0; i < capacity; i++) {
+            Object record = table.records.get(i);
+            if (record != null && record != TOMBSTONE) {
+                newTable.insert(table.hashes[i], record);
+            }
+        }
+        usedSlots = size;
+        this.table = newTable;
+        return newTable;
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int capacity = DEFAULT_INITIAL_CAPACITY;
+        while (capacity * LOAD_FACTOR < expectedSize) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    /**
+     * A fixed capacity table, a slot is empty when its record is {@code null}.
+     */
+    private static final class Table {
+
+        private final AtomicReferenceArray<Object> records;
+        private final int[] hashes;
+
+        Table(int capacity) {
+            this.records = new AtomicReferenceArray<Object>(capacity);
+            this.hashes = new int[capacity];
+        }
+
+        /**
+         * Returns the slot of the record with the given key or -1 if there is no such record.
+         */
+        int indexOf(Data key, int hash) {
+            int mask = hashes.length - 1;
+            int index = modPowerOfTwo(hash, hashes.length);
+            for (int probes = 0; probes <= mask; probes++) {
+                Object record = records.get(index);
+                if (record == null) {
+                    return -1;
+                }
+                if (record != TOMBSTONE && hashes[index] == hash && key.equals(((Record) record).getKey())) {
+                    return index;
+                }
+                index = (index + 1) & mask;
+            }
+            return -1;
+        }
+
+        /**
+         * Inserts a record whose key is known to be absent.
+         *
+         * @return {@code true} if an empty slot was taken, {@code false} if a tombstone was reused.
+         */
+        boolean insert(int hash, Object record) {
+            int mask = hashes.length - 1;
+            int index = modPowerOfTwo(hash, hashes.length);
+            while (true) {
+                Object current = records.get(index);
+                if (current == null || current == TOMBSTONE) {
+                    hashes[index] = hash;
+                    records.lazySet(index, record);
+                    return current == null;
+                }
+                index = (index + 1) & mask;
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        <R> R recordAt(int index) {
+            return (R) records.get(index);
+        }
+    }
+
+    private final class Values extends AbstractCollection<R> {
+
+        @Override
+        public Iterator<R> iterator() {
+            return new ValueIterator(table);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return size == 0;
+        }
+    }
+
+    private final class ValueIterator implements Iterator<R> {
+
+        private final Table table;
+        private int index;
+        private R next;
+        private R lastReturned;
+
+        ValueIterator(Table table) {
+            this.table = table;
+            advance();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public R next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            lastReturned = next;
+            advance();
+            return lastReturned;
+        }
+
+        /**
+         * Removes the last returned record if it is still mapped to its key.
+         */
+        @Override
+        public void remove() {
+            if (lastReturned == null) {
+                throw new IllegalStateException();
+            }
+            if (get(lastReturned.getKey()) == lastReturned) {
+                removeRecord(lastReturned);
+            }
+            lastReturned = null;
+        }
+
+        @SuppressWarnings("unchecked")
+        private void advance() {
+            int capacity = table.hashes.length;
+            while (index < capacity) {
+                Object record = table.records.get(index++);
+                if (record != null && record != TOMBSTONE) {
+                    next = (R) record;
+                    return;
+                }
+            }
+            next = null;
+        }
+    }
+}
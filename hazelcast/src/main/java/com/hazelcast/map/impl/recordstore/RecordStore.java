@@ -19,6 +19,7 @@ package com.hazelcast.map.impl.recordstore;
 import com.hazelcast.config.InMemoryFormat;
 import com.hazelcast.core.EntryView;
 import com.hazelcast.core.ExecutionCallback;
+import com.hazelcast.internal.eviction.AccessAwareEvictionPolicyEvaluator;
 import com.hazelcast.map.impl.MapContainer;
 import com.hazelcast.map.impl.MapEntries;
 import com.hazelcast.map.impl.mapstore.MapDataStore;
@@ -251,7 +252,8 @@ public interface RecordStore<R extends Record> {
     boolean isEmpty();
 
     /**
-     * Do expiration operations.
+     * Do expiration operations: expires the records which are due by their expiration time, or scans
+     * the given percentage of the records if they are not scheduled by expiration time.
      *
      * @param percentage of max expirables according to the record store size.
      * @param backup     <code>true</code> if a backup partition, otherwise <code>false</code>.
@@ -264,6 +266,15 @@ public interface RecordStore<R extends Record> {
      */
     boolean isExpirable();
 
+    /**
+     * Returns a lower bound of the time when an entry of this record store expires, so
+     * {@link #evictExpiredEntries(int, boolean)} does not find expired entries before it.
+     * May be called by any thread.
+     *
+     * @return the time in milliseconds, or {@link Long#MAX_VALUE} if no entry expires.
+     */
+    long getNextExpirationTime();
+
     /**
      * Checks whether a record is expired or not.
      *
@@ -284,6 +295,14 @@ public interface RecordStore<R extends Record> {
      */
     void loadAllFromStore(List<Data> keys, boolean replaceExistingValues);
 
+    /**
+     * Loads the keys of this partition from the defined {@link com.hazelcast.core.PartitionedMapLoader} and then their
+     * values.
+     *
+     * @param replaceExistingValues <code>true</code> if need to replace existing values otherwise <code>false</code>
+     */
+    void loadPartitionFromStore(boolean replaceExistingValues);
+
     void updateLoadStatus(boolean lastBatch, Throwable exception);
 
     MapDataStore<Data, Object> getMapDataStore();
@@ -319,6 +338,23 @@ public interface RecordStore<R extends Record> {
 
     Record loadRecordOrNull(Data key, boolean backup);
 
+    /**
+     * Loads the value of an owned key missing from this record store on the map loader executor; concurrent calls for
+     * the same key share one {@link com.hazelcast.core.MapLoader#load(Object)} call. The loaded value is put into
+     * this record store like by {@link #get(Data, boolean)}.
+     *
+     * @param key      the key
+     * @param callback notified on the partition thread with the value of the key
+     * @return {@code false} if the key is not missing or its value is not loaded asynchronously, then the callback
+     * is not notified and {@link #get(Data, boolean)} has to be used
+     */
+    boolean loadAsync(Data key, ExecutionCallback<Object> callback);
+
+    /**
+     * Returns the number of {@link #loadAsync(Data, ExecutionCallback)} calls which joined a load of the same key.
+     */
+    long getCoalescedLoadCount();
+
     /**
      * This can be used to release unused resources.
      */
@@ -330,6 +366,14 @@ public interface RecordStore<R extends Record> {
 
     boolean isEvictionEnabled();
 
+    /**
+     * Returns the evaluator of the {@link com.hazelcast.config.EvictionPolicy#TINY_LFU} eviction policy, which keeps
+     * the access history of this record store. It is created on first use.
+     *
+     * @return the access history keeping evaluator of this record store
+     */
+    AccessAwareEvictionPolicyEvaluator<Data, ?> getAccessAwareEvictionPolicyEvaluator();
+
     /**
      * Starts mapLoader
      */
@@ -344,4 +388,22 @@ public interface RecordStore<R extends Record> {
      * Register a callback for when key loading is complete
      **/
     void onKeyLoad(ExecutionCallback<Boolean> callback);
+
+    /**
+     * Starts recording the keys which are put, updated or removed, until {@link #stopTrackingChanges()}.
+     * Used by chunked migrations, which copy the records before the cut-over and replicate only the changed keys
+     * at the cut-over.
+     *
+     * @return {@code false} if this record store cannot track its changes, e.g. when its in-memory format is NATIVE
+     * @see com.hazelcast.spi.ChunkedMigrationAwareService
+     */
+    boolean startTrackingChanges();
+
+    /**
+     * Stops tracking changes.
+     *
+     * @return the keys changed since {@link #startTrackingChanges()}, or {@code null} if they are not known since
+     * this record store was cleared meanwhile or did not track its changes
+     */
+    Set<Data> stopTrackingChanges();
 }
@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.map.impl.recordstore;
+
+import com.hazelcast.core.ExecutionCallback;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.spi.NodeEngine;
+import com.hazelcast.spi.impl.PartitionSpecificRunnable;
+import com.hazelcast.spi.impl.operationservice.InternalOperationService;
+import com.hazelcast.util.counters.SwCounter;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import static com.hazelcast.spi.ExecutionService.MAP_LOADER_EXECUTOR;
+import static com.hazelcast.util.counters.SwCounter.newSwCounter;
+
+/**
+ * Loads the values of the keys missing from a {@link DefaultRecordStore} on the map loader executor instead of the
+ * partition thread. Concurrent gets of a key share one {@link com.hazelcast.core.MapLoader#load(Object)} call, so an
+ * expired popular key does not hit the store once per get, and the partition thread serves other operations
+ * meanwhile.
+ * <p/>
+ * The loaded value is put into the record store on the partition thread unless the key was changed during the load.
+ * If a change left the key absent, e.g. a delete, the loaded value may be stale and the gets wait for a new load;
+ * otherwise they get the value written meanwhile. The changes are reported by the {@link ChangeTrackingStorage}
+ * and by the record store for removals of absent keys. Like the record store it is only accessed by the partition
+ * thread, except the load itself.
+ */
+class SingleFlightLoader {
+
+    private final DefaultRecordStore recordStore;
+    private final NodeEngine nodeEngine;
+    private final Map<Data, Flight> flights = new HashMap<Data, Flight>();
+    private final SwCounter coalescedLoadCount = newSwCounter();
+
+    SingleFlightLoader(DefaultRecordStore recordStore, NodeEngine nodeEngine) {
+        this.recordStore = recordStore;
+        this.nodeEngine = nodeEngine;
+    }
+
+    /**
+     * Loads the value of the key, or joins the load already running for it.
+     *
+     * @param key      the key
+     * @param callback notified with the value of the key on the partition thread
+     */
+    void load(Data key, ExecutionCallback<Object> callback) {
+        Flight flight = flights.get(key);
+        if (flight != null) {
+            flight.callbacks.add(callback);
+            coalescedLoadCount.inc();
+            return;
+        }
+        start(new Flight(key, Collections.singletonList(callback)));
+    }
+
+    private void start(Flight flight) {
+        flights.put(flight.key, flight);
+        nodeEngine.getExecutionService().execute(MAP_LOADER_EXECUTOR, flight);
+    }
+
+    void onChange(Data key) {
+        if (flights.isEmpty()) {
+            return;
+        }
+        Flight flight = flights.get(key);
+        if (flight != null) {
+            flight.changed = true;
+        }
+    }
+
+    void onClear() {
+        for (Flight flight : flights.values()) {
+            flight.cleared = true;
+        }
+    }
+
+    /**
+     * Returns the number of gets which joined a load started by another get.
+     */
+    long getCoalescedLoadCount() {
+        return coalescedLoadCount.get();
+    }
+
+    private void complete(Flight flight) {
+        flights.remove(flight.key);
+        if (flight.failure != null) {
+            for (ExecutionCallback<Object> callback : flight.callbacks) {
+                callback.onFailure(flight.failure);
+            }
+            return;
+        }
+
+        Object value;
+        try {
+            if (flight.changed && !flight.cleared && recordStore.isLoadPending(flight.key)) {
+                // the loaded value may predate the change, load again instead of blocking the partition thread
+                start(new Flight(flight.key, flight.callbacks));
+                return;
+            }
+            // a cleared record store, e.g. of a migrated partition, is not filled again
+            value = flight.cleared ? flight.value : recordStore.putLoadedValue(flight.key, flight.value);
+        } catch (Throwable t) {
+            for (ExecutionCallback<Object> callback : flight.callbacks) {
+                callback.onFailure(t);
+            }
+            return;
+        }
+        for (ExecutionCallback<Object> callback : flight.callbacks) {
+            callback.onResponse(value);
+        }
+    }
+
+    /**
+     * Loads the value on the map loader executor, then completes on the partition thread.
+     */
+    private final class Flight implements Runnable, PartitionSpecificRunnable {
+
+        private final Data key;
+        private final List<ExecutionCallback<Object>> callbacks = new LinkedList<ExecutionCallback<Object>>();
+
+        private boolean changed;
+        private boolean cleared;
+
+        private volatile boolean loaded;
+        private volatile Object value;
+        private volatile Throwable failure;
+
+        private Flight(Data key, List<ExecutionCallback<Object>> callbacks) {
+            this.key = key;
+            this.callbacks.addAll(callbacks);
+        }
+
+        @Override
+        public int getPartitionId() {
+            return recordStore.getPartitionId();
+        }
+
+        @Override
+        public void run() {
+            if (loaded) {
+                complete(this);
+                return;
+            }
+            try {
+                value = recordStore.getMapDataStore().load(key);
+            } catch (Throwable t) {
+                failure = t;
+            }
+            loaded = true;
+            ((InternalOperationService) nodeEngine.getOperationService()).execute(this);
+        }
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.map.impl.recordstore;
+
+import com.hazelcast.core.HazelcastException;
+import com.hazelcast.internal.compression.CompressionStats;
+import com.hazelcast.internal.serialization.impl.CompressedData;
+import com.hazelcast.internal.serialization.impl.HeapData;
+import com.hazelcast.internal.serialization.impl.SerializationConstants;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.util.HashUtil;
+
+import static com.hazelcast.internal.serialization.impl.HeapData.DATA_OFFSET;
+import static com.hazelcast.internal.serialization.impl.HeapData.HEAP_DATA_OVERHEAD;
+import static com.hazelcast.nio.Bits.INT_SIZE_IN_BYTES;
+
+/**
+ * A {@link Data} whose payload lives in a segment of a {@link MappedSegmentStore}.
+ * <p/>
+ * Type, sizes and hash codes are kept on the heap, so a {@code SpilledData} can be looked up and compared
+ * without touching the file; the payload is copied into a new array each time {@link #toByteArray()} is called,
+ * which is what happens when it is deserialized, queried or written to an output. Once the value is released by
+ * its record, the payload is copied to the heap a last time and shared by all later reads, so threads which still
+ * hold the value do not depend on the segment anymore.
+ * <p/>
+ * A {@link CompressedData} is spilled in its compressed form, decompressed by {@link #toByteArray()} and moved back
+ * to the heap compressed.
+ */
+final class SpilledData implements Data {
+
+    // object header (12) + 6 ints (24) + 3 references (12) + boolean (1), aligned to 8 bytes
+    private static final int OBJECT_SIZE_IN_BYTES = 56;
+
+    final MappedSegmentStore.Segment segment;
+    private final int offset;
+    private final int storedSize;
+    private final int totalSize;
+    private final int type;
+    private final int partitionHash;
+    private final int hashCode;
+    private final boolean compressed;
+    private final CompressionStats compressionStats;
+    // the stored payload, compressed if the value was compressed
+    private volatile byte[] detached;
+
+    SpilledData(MappedSegmentStore.Segment segment, int offset, int storedSize, Data value) {
+        this.segment = segment;
+        this.offset = offset;
+        this.storedSize = storedSize;
+        this.totalSize = value.totalSize();
+        this.type = value.getType();
+        this.partitionHash = value.hasPartitionHash() ? value.getPartitionHash() : 0;
+        this.hashCode = value.hashCode();
+        this.compressed = value instanceof CompressedData;
+        this.compressionStats = compressed ? ((CompressedData) value).getStats() : null;
+    }
+
+    @Override
+    public byte[] toByteArray() {
+        byte[] stored = readStored();
+        return compressed ? CompressedData.wrap(stored, this, compressionStats).toByteArray() : stored;
+    }
+
+    /**
+     * Returns the value to keep on the heap when the record is moved back to the memory tier, compressed if the
+     * value was compressed.
+     */
+    Data toHeapData() {
+        byte[] stored = readStored();
+        return compressed ? CompressedData.wrap(stored, this, compressionStats) : new HeapData(stored);
+    }
+
+    private byte[] readStored() {
+        byte[] payload = detached;
+        if (payload != null) {
+            return payload;
+        }
+        payload = new byte[storedSize];
+        if (segment.read(offset, payload)) {
+            return payload;
+        }
+        // a segment is only closed once its values are released, unless the whole store was destroyed
+        payload = detached;
+        if (payload == null) {
+            throw new HazelcastException("Value was removed from the disk tier by a clear or destroy of its map");
+        }
+        return payload;
+    }
+
+    /**
+     * Copies the payload to the heap; called by the partition thread before the value is released. If the store
+     * was destroyed meanwhile, the value stays undetached and can no longer be read.
+     */
+    void detach() {
+        if (detached == null) {
+            byte[] payload = new byte[storedSize];
+            if (segment.read(offset, payload)) {
+                detached = payload;
+            }
+        }
+    }
+
+    @Override
+    public int getType() {
+        return type;
+    }
+
+    @Override
+    public int totalSize() {
+        return totalSize;
+    }
+
+    @Override
+    public int dataSize() {
+        return totalSize - HEAP_DATA_OVERHEAD;
+    }
+
+    @Override
+    public int getHeapCost() {
+        // reference (assuming compressed oops)
+        int objectRef = INT_SIZE_IN_BYTES;
+        return objectRef + OBJECT_SIZE_IN_BYTES;
+    }
+
+    @Override
+    public int getPartitionHash() {
+        return hasPartitionHash() ? partitionHash : hashCode;
+    }
+
+    @Override
+    public boolean hasPartitionHash() {
+        return partitionHash != 0;
+    }
+
+    @Override
+    public long hash64() {
+        return HashUtil.MurmurHash3_x64_64(toByteArray(), DATA_OFFSET, dataSize());
+    }
+
+    @Override
+    public boolean isPortable() {
+        return SerializationConstants.CONSTANT_TYPE_PORTABLE == type;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Data)) {
+            return false;
+        }
+        Data data = (Data) o;
+        if (type != data.getType() || dataSize() != data.dataSize() || hashCode != data.hashCode()) {
+            return false;
+        }
+        // the partition hash is not part of the equality, so the payloads are compared from the data offset
+        byte[] payload = toByteArray();
+        byte[] otherPayload = data.toByteArray();
+        for (int i = totalSize - 1; i >= DATA_OFFSET; i--) {
+            if (payload[i] != otherPayload[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    @Override
+    public String toString() {
+        return "SpilledData{"
+                + "type=" + type
+                + ", hashCode=" + hashCode
+                + ", partitionHash=" + getPartitionHash()
+                + ", totalSize=" + totalSize
+                + ", storedSize=" + storedSize
+                + ", offset=" + offset
+                + '}';
+    }
+}
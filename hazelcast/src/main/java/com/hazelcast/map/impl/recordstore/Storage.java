@@ -41,6 +41,12 @@ public interface Storage<K, R> {
 
     Collection<R> values();
 
+    /**
+     * Returns at most {@code sampleCount} records picked from a random position of this storage. It does not
+     * scan the whole storage, so its cost does not depend on the number of records.
+     */
+    Iterable<R> getRandomSamples(int sampleCount);
+
     int size();
 
     boolean isEmpty();
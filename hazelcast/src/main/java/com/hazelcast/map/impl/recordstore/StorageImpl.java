@@ -22,10 +22,12 @@ import com.hazelcast.map.impl.record.AbstractRecord;
 import com.hazelcast.map.impl.record.Record;
 import com.hazelcast.map.impl.record.RecordFactory;
 import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.util.SampleableConcurrentHashMap;
 
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
+import java.util.List;
+import java.util.Map;
 
 import static com.hazelcast.map.impl.SizeEstimators.createMapSizeEstimator;
 
@@ -38,7 +40,7 @@ class StorageImpl<R extends Record> implements Storage<Data, R> {
 
     private final RecordFactory<R> recordFactory;
     // Concurrency level is 1 since at most one thread can write at a time.
-    private final ConcurrentMap<Data, R> records = new ConcurrentHashMap<Data, R>(1000, 0.75f, 1);
+    private final SampleableConcurrentHashMap<Data, R> records = new SampleableConcurrentHashMap<Data, R>(1000);
 
     // not final for testing purposes.
     private SizeEstimator sizeEstimator;
@@ -60,6 +62,20 @@ class StorageImpl<R extends Record> implements Storage<Data, R> {
         return records.values();
     }
 
+    @Override
+    public Iterable<R> getRandomSamples(int sampleCount) {
+        return getRandomSamples(records, sampleCount);
+    }
+
+    @SuppressWarnings("unchecked")
+    static <R> List<R> getRandomSamples(SampleableConcurrentHashMap<Data, R> records, int sampleCount) {
+        List<R> samples = new ArrayList<R>(sampleCount);
+        for (Object entry : records.getRandomSamples(sampleCount)) {
+            samples.add(((Map.Entry<Data, R>) entry).getValue());
+        }
+        return samples;
+    }
+
     @Override
     public void put(Data key, R record) {
 
@@ -0,0 +1,327 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.map.impl.recordstore;
+
+import com.hazelcast.config.EvictionPolicy;
+import com.hazelcast.map.impl.SizeEstimator;
+import com.hazelcast.map.impl.record.Record;
+import com.hazelcast.map.impl.record.RecordFactory;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.spi.impl.operationexecutor.OperationRunner;
+import com.hazelcast.spi.impl.operationexecutor.classic.PartitionOperationThread;
+import com.hazelcast.util.SampleableConcurrentHashMap;
+import com.hazelcast.util.counters.MwCounter;
+
+import java.util.Collection;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.hazelcast.util.counters.MwCounter.newMwCounter;
+
+/**
+ * Decorates the {@link Storage} of a map partition with a disk tier.
+ * <p/>
+ * Once more values than the memory tier of the partition can hold are kept on the heap, the values of cold
+ * records are moved to a {@link MappedSegmentStore}; keys and records, so all metadata, stay on the heap. Like
+ * eviction, the records to move are picked by sampling the memory tier: the coldest record of each sample is moved,
+ * by the eviction criteria number for LRU and LFU maps, by the last access time otherwise. A value is moved back to
+ * the heap when its record is looked up by key. Values iterated by queries and entry processors are read from the
+ * disk tier as is, since a moved value is still a {@link Data}.
+ * <p/>
+ * Mutations are done by the partition thread only. A lookup by another thread, e.g. a read from a backup, leaves
+ * the tiers as they are; the record is queued and its value is moved back to the heap by the next operation of the
+ * partition thread.
+ */
+public class TieredStorage implements Storage<Data, Record> {
+
+    private static final int ONE_HUNDRED_PERCENT = 100;
+    private static final int SPILL_PERCENTAGE = 10;
+    private static final int SAMPLE_COUNT = 15;
+    private static final int MEMORY_TIER_INITIAL_CAPACITY = 16;
+
+    private final Storage<Data, Record> storage;
+    private final RecordFactory recordFactory;
+    private final MappedSegmentStore segmentStore;
+    private final MemoryTierLimit memoryTierLimit;
+    private final EvictionPolicy evictionPolicy;
+    private final int partitionId;
+
+    // the records whose value is on the heap, sampled to pick the records to move to disk
+    private final SampleableConcurrentHashMap<Data, Record> memoryTier =
+            new SampleableConcurrentHashMap<Data, Record>(MEMORY_TIER_INITIAL_CAPACITY);
+    // records looked up by other threads, promoted by the partition thread
+    private final Queue<Record> pendingPromotions = new ConcurrentLinkedQueue<Record>();
+    private final AtomicInteger pendingPromotionCount = new AtomicInteger();
+
+    private final MwCounter memoryTierHits = newMwCounter();
+    private final MwCounter diskTierHits = newMwCounter();
+    // written by the partition thread only
+    private volatile int diskTierEntryCount;
+
+    TieredStorage(Storage<Data, Record> storage, RecordFactory recordFactory, MappedSegmentStore segmentStore,
+                  MemoryTierLimit memoryTierLimit, EvictionPolicy evictionPolicy, int partitionId) {
+        this.storage = storage;
+        this.recordFactory = recordFactory;
+        this.segmentStore = segmentStore;
+        this.memoryTierLimit = memoryTierLimit;
+        this.evictionPolicy = evictionPolicy;
+        this.partitionId = partitionId;
+    }
+
+    @Override
+    public void put(Data key, Record record) {
+        release(storage.get(key));
+        storage.put(key, record);
+        updateMemoryTier(key, record);
+        promotePending();
+        spillIfRequired();
+    }
+
+    @Override
+    public void updateRecordValue(Data key, Record record, Object value) {
+        if (value instanceof SpilledData) {
+            value = ((SpilledData) value).toHeapData();
+        }
+        release(record);
+        storage.updateRecordValue(key, record, value);
+        updateMemoryTier(key, record);
+        promotePending();
+        spillIfRequired();
+    }
+
+    @Override
+    public Record get(Data key) {
+        Record record = storage.get(key);
+        if (record == null) {
+            return null;
+        }
+        if (!(record.getValue() instanceof SpilledData)) {
+            memoryTierHits.inc();
+            return record;
+        }
+        diskTierHits.inc();
+        if (isPartitionThread()) {
+            promote(record);
+            promotePending();
+            spillIfRequired();
+        } else if (pendingPromotionCount.incrementAndGet() <= memoryTierLimit.get()) {
+            pendingPromotions.offer(record);
+        } else {
+            // no point in promoting more values than the memory tier can hold
+            pendingPromotionCount.decrementAndGet();
+        }
+        return record;
+    }
+
+    @Override
+    public void removeRecord(Record record) {
+        release(record);
+        memoryTier.remove(record.getKey());
+        storage.removeRecord(record);
+    }
+
+    @Override
+    public boolean containsKey(Data key) {
+        return storage.containsKey(key);
+    }
+
+    @Override
+    public Collection<Record> values() {
+        return storage.values();
+    }
+
+    @Override
+    public Iterable<Record> getRandomSamples(int sampleCount) {
+        return storage.getRandomSamples(sampleCount);
+    }
+
+    @Override
+    public int size() {
+        return storage.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return storage.isEmpty();
+    }
+
+    @Override
+    public void clear() {
+        storage.clear();
+        reset();
+    }
+
+    @Override
+    public void destroy() {
+        storage.destroy();
+        reset();
+    }
+
+    @Override
+    public SizeEstimator getSizeEstimator() {
+        return storage.getSizeEstimator();
+    }
+
+    @Override
+    public void setSizeEstimator(SizeEstimator sizeEstimator) {
+        storage.setSizeEstimator(sizeEstimator);
+    }
+
+    @Override
+    public void dispose() {
+        storage.dispose();
+    }
+
+    /**
+     * Returns the number of lookups which found the value on the heap.
+     */
+    public long getMemoryTierHits() {
+        return memoryTierHits.get();
+    }
+
+    /**
+     * Returns the number of lookups which found the value on disk.
+     */
+    public long getDiskTierHits() {
+        return diskTierHits.get();
+    }
+
+    /**
+     * Returns the number of entries whose value is on disk.
+     */
+    public int getDiskTierEntryCount() {
+        return diskTierEntryCount;
+    }
+
+    private boolean isPartitionThread() {
+        Thread currentThread = Thread.currentThread();
+        if (!(currentThread instanceof PartitionOperationThread)) {
+            return false;
+        }
+        OperationRunner runner = ((PartitionOperationThread) currentThread).getCurrentOperationRunner();
+        return runner != null && runner.getPartitionId() == partitionId;
+    }
+
+    private void reset() {
+        memoryTier.clear();
+        pendingPromotions.clear();
+        pendingPromotionCount.set(0);
+        diskTierEntryCount = 0;
+        segmentStore.destroy();
+    }
+
+    private void promotePending() {
+        Record record;
+        while ((record = pendingPromotions.poll()) != null) {
+            pendingPromotionCount.decrementAndGet();
+            // the record may have been removed or its value may have been replaced since it was queued
+            if (storage.get(record.getKey()) == record && record.getValue() instanceof SpilledData) {
+                promote(record);
+            }
+        }
+    }
+
+    private void promote(Record record) {
+        SpilledData spilled = (SpilledData) record.getValue();
+        // the detached payload is shared with the new heap value, so it is read from the segment only once
+        release(spilled);
+        SizeEstimator sizeEstimator = getSizeEstimator();
+        sizeEstimator.add(-sizeEstimator.calculateSize(record));
+        recordFactory.setValue(record, spilled.toHeapData());
+        sizeEstimator.add(sizeEstimator.calculateSize(record));
+        memoryTier.put(record.getKey(), record);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void spill(Record record) {
+        SpilledData spilled = segmentStore.write((Data) record.getValue());
+        SizeEstimator sizeEstimator = getSizeEstimator();
+        sizeEstimator.add(-sizeEstimator.calculateSize(record));
+        // set on the record directly: the value itself does not change, so the decorated storage is not involved
+        record.setValue(spilled);
+        sizeEstimator.add(sizeEstimator.calculateSize(record));
+        memoryTier.remove(record.getKey());
+        diskTierEntryCount++;
+    }
+
+    private void release(Record record) {
+        if (record != null && record.getValue() instanceof SpilledData) {
+            release((SpilledData) record.getValue());
+        }
+    }
+
+    private void release(SpilledData spilled) {
+        segmentStore.release(spilled);
+        if (--diskTierEntryCount == 0) {
+            // also drops the active segment, which is not closed while it is being filled
+            segmentStore.destroy();
+        }
+    }
+
+    private void spillIfRequired() {
+        int limit = memoryTierLimit.get();
+        int memoryTierEntryCount = memoryTier.size();
+        if (memoryTierEntryCount <= limit) {
+            return;
+        }
+        int spillCount = memoryTierEntryCount - limit + Math.max(1, limit * SPILL_PERCENTAGE / ONE_HUNDRED_PERCENT);
+        for (int i = 0; i < spillCount; i++) {
+            Record coldest = null;
+            for (Record record : StorageImpl.getRandomSamples(memoryTier, SAMPLE_COUNT)) {
+                if (coldest == null || getCriteria(record) < getCriteria(coldest)) {
+                    coldest = record;
+                }
+            }
+            if (coldest == null) {
+                return;
+            }
+            spill(coldest);
+        }
+    }
+
+    private void updateMemoryTier(Data key, Record record) {
+        if (isInMemoryTier(record)) {
+            memoryTier.put(key, record);
+        } else {
+            memoryTier.remove(key);
+        }
+    }
+
+    private boolean isInMemoryTier(Record record) {
+        Object value = record.getValue();
+        return value instanceof Data && !(value instanceof SpilledData);
+    }
+
+    private long getCriteria(Record record) {
+        if (evictionPolicy == EvictionPolicy.LRU || evictionPolicy == EvictionPolicy.LFU
+                || evictionPolicy == EvictionPolicy.TINY_LFU) {
+            return record.getEvictionCriteriaNumber();
+        }
+        return record.getLastAccessTime();
+    }
+
+    /**
+     * Provides the number of values the memory tier of a partition can hold, which may change with the
+     * cluster size.
+     */
+    interface MemoryTierLimit {
+
+        int get();
+    }
+}
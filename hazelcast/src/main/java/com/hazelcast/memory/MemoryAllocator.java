@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.memory;
+
+/**
+ * Allocates and frees blocks of memory outside of the Java heap.
+ * <p/>
+ * Addresses handed out by an allocator are raw memory addresses and must be given back
+ * through {@link #free(long, long)} together with the same size used to allocate them.
+ */
+public interface MemoryAllocator {
+
+    /**
+     * The address returned when nothing has been allocated.
+     */
+    long NULL_ADDRESS = 0L;
+
+    /**
+     * Allocates a block of memory of the given size.
+     *
+     * @param size size of the block in bytes
+     * @return address of the allocated block
+     * @throws NativeOutOfMemoryError if the block cannot be allocated
+     */
+    long allocate(long size);
+
+    /**
+     * Allocates a new block of {@code newSize} bytes, copies the contents of the old block
+     * (as much as fits into the new one) and frees the old block.
+     *
+     * @param address     address of the block to resize
+     * @param currentSize size of the block to resize
+     * @param newSize     requested size
+     * @return address of the new block
+     * @throws NativeOutOfMemoryError if the new block cannot be allocated
+     */
+    long reallocate(long address, long currentSize, long newSize);
+
+    /**
+     * Gives a block of memory back to this allocator.
+     *
+     * @param address address of the block
+     * @param size    size of the block in bytes, as used when allocating it
+     */
+    void free(long address, long size);
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.memory;
+
+import com.hazelcast.nio.Disposable;
+
+/**
+ * A {@link MemoryAllocator} which keeps track of the memory it manages and enforces an upper bound on it.
+ *
+ * @see StandardMemoryManager
+ * @see PoolingMemoryManager
+ */
+public interface MemoryManager extends MemoryAllocator, Disposable {
+
+    /**
+     * Returns the memory statistics of this manager. Native memory figures reflect the memory
+     * handed out by this manager.
+     *
+     * @return memory statistics
+     */
+    MemoryStats getMemoryStats();
+
+    /**
+     * Frees all memory held by this manager. Addresses allocated before are not valid anymore.
+     */
+    @Override
+    void dispose();
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.memory;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.hazelcast.memory.MemorySize.toPrettyString;
+
+/**
+ * {@link MemoryStats} of a {@link MemoryManager}. Heap and GC figures are the same as in
+ * {@link DefaultMemoryStats}, native figures are tracked by the owning memory manager.
+ * <p/>
+ * <tt>committed</tt> is the native memory acquired from the operating system and
+ * <tt>used</tt> is the part of it which is handed out to callers at the moment.
+ */
+public class NativeMemoryStats extends DefaultMemoryStats {
+
+    private final long maxNative;
+    private final AtomicLong committedNative = new AtomicLong();
+    private final AtomicLong usedNative = new AtomicLong();
+
+    public NativeMemoryStats(long maxNative) {
+        this.maxNative = maxNative;
+    }
+
+    /**
+     * Reserves memory from the native memory limit.
+     *
+     * @param size size in bytes
+     * @throws NativeOutOfMemoryError if the reservation exceeds the native memory limit
+     */
+    void reserveCommitted(long size) {
+        for (;;) {
+            long current = committedNative.get();
+            long next = current + size;
+            if (next > maxNative) {
+                throw new NativeOutOfMemoryError("Cannot allocate " + toPrettyString(size) + " of native memory!"
+                        + " Max native memory: " + toPrettyString(maxNative)
+                        + ", committed native memory: " + toPrettyString(current)
+                        + ", used native memory: " + toPrettyString(usedNative.get()));
+            }
+            if (committedNative.compareAndSet(current, next)) {
+                return;
+            }
+        }
+    }
+
+    void releaseCommitted(long size) {
+        committedNative.addAndGet(-size);
+    }
+
+    void addUsed(long size) {
+        usedNative.addAndGet(size);
+    }
+
+    void reset() {
+        committedNative.set(0L);
+        usedNative.set(0L);
+    }
+
+    @Override
+    public long getMaxNativeMemory() {
+        return maxNative;
+    }
+
+    @Override
+    public long getCommittedNativeMemory() {
+        return committedNative.get();
+    }
+
+    @Override
+    public long getUsedNativeMemory() {
+        return usedNative.get();
+    }
+
+    @Override
+    public long getFreeNativeMemory() {
+        return Math.max(0L, maxNative - usedNative.get());
+    }
+
+    @Override
+    public String toString() {
+        return "NativeMemoryStats{"
+                + "Max Native: " + toPrettyString(getMaxNativeMemory())
+                + ", Committed Native: " + toPrettyString(getCommittedNativeMemory())
+                + ", Used Native: " + toPrettyString(getUsedNativeMemory())
+                + ", " + super.toString()
+                + '}';
+    }
+}
@@ -0,0 +1,273 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.memory;
+
+import com.hazelcast.config.NativeMemoryConfig;
+import com.hazelcast.nio.UnsafeHelper;
+import com.hazelcast.util.collection.Long2LongHashMap;
+
+import java.util.Arrays;
+
+import static com.hazelcast.nio.UnsafeHelper.UNSAFE;
+import static com.hazelcast.util.Preconditions.checkPositive;
+import static com.hazelcast.util.Preconditions.checkTrue;
+import static com.hazelcast.util.QuickMath.isPowerOfTwo;
+import static com.hazelcast.util.QuickMath.log2;
+import static com.hazelcast.util.QuickMath.nextPowerOfTwo;
+
+/**
+ * A slab style {@link MemoryManager}. Memory is acquired from the operating system in pages of
+ * {@link NativeMemoryConfig#getPageSize()} bytes and every page is sliced into equally sized blocks
+ * of one size class. Size classes are the powers of two between {@link NativeMemoryConfig#getMinBlockSize()}
+ * and the page size; a request is served from the smallest size class it fits in.
+ * <p/>
+ * Freed blocks go back to the free list of their size class and are reused by later allocations,
+ * pages are only given back to the operating system on {@link #dispose()}. Requests larger than
+ * a page bypass the pools and are allocated directly.
+ * <p/>
+ * The native memory limit is enforced on the committed memory, i.e. on pages and large blocks.
+ */
+public class PoolingMemoryManager implements MemoryManager {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final int minBlockSize;
+    private final int minBlockSizePower;
+    private final int pageSize;
+    private final NativeMemoryStats memoryStats;
+    private final BlockPool[] pools;
+
+    // guarded by "this"
+    private long[] pages = new long[INITIAL_CAPACITY];
+    private int pageCount;
+    // guarded by "this"
+    private final Long2LongHashMap largeBlocks = new Long2LongHashMap(-1L);
+
+    public PoolingMemoryManager(NativeMemoryConfig config) {
+        this(config.getSize().bytes(), config.getMinBlockSize(), config.getPageSize());
+    }
+
+    public PoolingMemoryManager(long capInBytes, int minBlockSize, int pageSize) {
+        checkPositive(capInBytes, "Native memory limit should be positive!");
+        checkTrue(isPowerOfTwo(minBlockSize), "Minimum block size should be a power of two: " + minBlockSize);
+        checkTrue(isPowerOfTwo(pageSize), "Page size should be a power of two: " + pageSize);
+        checkTrue(minBlockSize <= pageSize, "Minimum block size should not be greater than the page size!");
+        if (!UnsafeHelper.UNSAFE_AVAILABLE) {
+            throw new IllegalStateException("Native memory requires sun.misc.Unsafe which is not available!");
+        }
+        this.minBlockSize = minBlockSize;
+        this.minBlockSizePower = log2(minBlockSize);
+        this.pageSize = pageSize;
+        this.memoryStats = new NativeMemoryStats(capInBytes);
+
+        int sizeClassCount = log2(pageSize) - minBlockSizePower + 1;
+        this.pools = new BlockPool[sizeClassCount];
+        for (int i = 0; i < sizeClassCount; i++) {
+            pools[i] = new BlockPool(minBlockSize << i);
+        }
+    }
+
+    @Override
+    public long allocate(long size) {
+        checkPositive(size, "Size should be positive: " + size);
+        if (size > pageSize) {
+            return allocateLargeBlock(size);
+        }
+        BlockPool pool = pools[sizeClassIndex(size)];
+        long address = pool.acquire();
+        memoryStats.addUsed(pool.blockSize);
+        return address;
+    }
+
+    @Override
+    public long reallocate(long address, long currentSize, long newSize) {
+        if (currentSize <= pageSize && newSize <= pageSize
+                && sizeClassIndex(currentSize) == sizeClassIndex(newSize)) {
+            return address;
+        }
+        long newAddress = allocate(newSize);
+        UNSAFE.copyMemory(address, newAddress, Math.min(currentSize, newSize));
+        free(address, currentSize);
+        return newAddress;
+    }
+
+    @Override
+    public void free(long address, long size) {
+        if (address == NULL_ADDRESS) {
+            return;
+        }
+        if (size > pageSize) {
+            freeLargeBlock(address, size);
+            return;
+        }
+        BlockPool pool = pools[sizeClassIndex(size)];
+        pool.release(address);
+        memoryStats.addUsed(-pool.blockSize);
+    }
+
+    /**
+     * Returns the size of the block which is allocated for a request of the given size.
+     *
+     * @param size requested size
+     * @return actual size of the block
+     */
+    public long getAllocatedSize(long size) {
+        if (size > pageSize) {
+            return size;
+        }
+        return pools[sizeClassIndex(size)].blockSize;
+    }
+
+    @Override
+    public MemoryStats getMemoryStats() {
+        return memoryStats;
+    }
+
+    /**
+     * Gives all pages and large blocks back to the operating system. The users of the blocks have to make sure
+     * that no reader can access them anymore, e.g. record stores drain their
+     * {@link com.hazelcast.map.impl.record.NativeMemoryReclaimer} when they are cleared.
+     */
+    @Override
+    public synchronized void dispose() {
+        for (BlockPool pool : pools) {
+            pool.clear();
+        }
+        for (int i = 0; i < pageCount; i++) {
+            UNSAFE.freeMemory(pages[i]);
+        }
+        pages = new long[INITIAL_CAPACITY];
+        pageCount = 0;
+
+        Long2LongHashMap.LongLongCursor cursor = largeBlocks.cursor();
+        while (cursor.advance()) {
+            UNSAFE.freeMemory(cursor.key());
+        }
+        largeBlocks.clear();
+        memoryStats.reset();
+    }
+
+    private int sizeClassIndex(long size) {
+        if (size <= minBlockSize) {
+            return 0;
+        }
+        return log2(nextPowerOfTwo(size)) - minBlockSizePower;
+    }
+
+    private long allocateLargeBlock(long size) {
+        memoryStats.reserveCommitted(size);
+        long address = allocateFromSystem(size);
+        synchronized (this) {
+            largeBlocks.put(address, size);
+        }
+        memoryStats.addUsed(size);
+        return address;
+    }
+
+    private void freeLargeBlock(long address, long size) {
+        synchronized (this) {
+            if (largeBlocks.remove(address) == -1L) {
+                throw new IllegalArgumentException("Unknown block address: " + address);
+            }
+        }
+        UNSAFE.freeMemory(address);
+        memoryStats.addUsed(-size);
+        memoryStats.releaseCommitted(size);
+    }
+
+    private long allocatePage() {
+        memoryStats.reserveCommitted(pageSize);
+        long address = allocateFromSystem(pageSize);
+        synchronized (this) {
+            if (pageCount == pages.length) {
+                pages = Arrays.copyOf(pages, pageCount * 2);
+            }
+            pages[pageCount++] = address;
+        }
+        return address;
+    }
+
+    private long allocateFromSystem(long size) {
+        try {
+            return UNSAFE.allocateMemory(size);
+        } catch (OutOfMemoryError e) {
+            memoryStats.releaseCommitted(size);
+            throw new NativeOutOfMemoryError("Cannot allocate " + size + " bytes of native memory!", e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "PoolingMemoryManager{"
+                + "minBlockSize=" + minBlockSize
+                + ", pageSize=" + pageSize
+                + ", " + memoryStats
+                + '}';
+    }
+
+    /**
+     * Free list of a single size class. A new page is sliced into blocks when the free list runs empty.
+     */
+    private final class BlockPool {
+
+        private final int blockSize;
+        private long[] freeBlocks = new long[INITIAL_CAPACITY];
+        private int freeCount;
+
+        private BlockPool(int blockSize) {
+            this.blockSize = blockSize;
+        }
+
+        long acquire() {
+            for (;;) {
+                synchronized (this) {
+                    if (freeCount > 0) {
+                        return freeBlocks[--freeCount];
+                    }
+                }
+                // the page is allocated outside the pool lock, dispose() locks the manager before the pools
+                long page = allocatePage();
+                synchronized (this) {
+                    slice(page);
+                }
+            }
+        }
+
+        synchronized void release(long address) {
+            push(address);
+        }
+
+        synchronized void clear() {
+            freeBlocks = new long[INITIAL_CAPACITY];
+            freeCount = 0;
+        }
+
+        private void slice(long page) {
+            for (long offset = pageSize - blockSize; offset >= 0; offset -= blockSize) {
+                push(page + offset);
+            }
+        }
+
+        private void push(long address) {
+            if (freeCount == freeBlocks.length) {
+                freeBlocks = Arrays.copyOf(freeBlocks, freeCount * 2);
+            }
+            freeBlocks[freeCount++] = address;
+        }
+    }
+}
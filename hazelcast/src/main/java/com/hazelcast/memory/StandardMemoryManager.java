@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.memory;
+
+import com.hazelcast.nio.UnsafeHelper;
+
+import static com.hazelcast.nio.UnsafeHelper.UNSAFE;
+import static com.hazelcast.util.Preconditions.checkPositive;
+
+/**
+ * A {@link MemoryManager} which allocates every block directly from the operating system
+ * via {@code Unsafe.allocateMemory(long)} and gives it back on {@link #free(long, long)}.
+ * <p/>
+ * This manager does not keep a registry of allocated blocks, so {@link #dispose()} only resets
+ * the statistics; blocks which are still allocated need to be freed by their owners.
+ */
+public class StandardMemoryManager implements MemoryManager {
+
+    private final NativeMemoryStats memoryStats;
+
+    public StandardMemoryManager(MemorySize cap) {
+        this(cap.bytes());
+    }
+
+    public StandardMemoryManager(long capInBytes) {
+        checkPositive(capInBytes, "Native memory limit should be positive!");
+        if (!UnsafeHelper.UNSAFE_AVAILABLE) {
+            throw new IllegalStateException("Native memory requires sun.misc.Unsafe which is not available!");
+        }
+        this.memoryStats = new NativeMemoryStats(capInBytes);
+    }
+
+    @Override
+    public long allocate(long size) {
+        checkPositive(size, "Size should be positive: " + size);
+        memoryStats.reserveCommitted(size);
+        long address;
+        try {
+            address = UNSAFE.allocateMemory(size);
+        } catch (OutOfMemoryError e) {
+            memoryStats.releaseCommitted(size);
+            throw new NativeOutOfMemoryError("Cannot allocate " + size + " bytes of native memory!", e);
+        }
+        memoryStats.addUsed(size);
+        return address;
+    }
+
+    @Override
+    public long reallocate(long address, long currentSize, long newSize) {
+        long newAddress = allocate(newSize);
+        UNSAFE.copyMemory(address, newAddress, Math.min(currentSize, newSize));
+        free(address, currentSize);
+        return newAddress;
+    }
+
+    @Override
+    public void free(long address, long size) {
+        if (address == NULL_ADDRESS) {
+            return;
+        }
+        UNSAFE.freeMemory(address);
+        memoryStats.addUsed(-size);
+        memoryStats.releaseCommitted(size);
+    }
+
+    @Override
+    public MemoryStats getMemoryStats() {
+        return memoryStats;
+    }
+
+    @Override
+    public void dispose() {
+        memoryStats.reset();
+    }
+
+    @Override
+    public String toString() {
+        return "StandardMemoryManager{" + memoryStats + '}';
+    }
+}
@@ -205,5 +205,59 @@ public interface LocalMapStats extends LocalInstanceStats {
      */
     NearCacheStats getNearCacheStats();
 
+    /**
+     * Returns the ratio of the original to the compressed size of the values currently stored compressed in the
+     * partitions owned by this member, see {@link com.hazelcast.config.MapConfig#setValueCompressionThreshold(int)}.
+     *
+     * @return compression ratio, 1 if no value is stored compressed
+     */
+    double getCompressionRatio();
+
+    /**
+     * Returns the total CPU time spent compressing values.
+     *
+     * @return total compression time in nanoseconds
+     */
+    long getTotalCompressionTime();
+
+    /**
+     * Returns the total CPU time spent decompressing values.
+     *
+     * @return total decompression time in nanoseconds
+     */
+    long getTotalDecompressionTime();
+
+    /**
+     * Returns the number of lookups by key of owned entries whose value was on the heap,
+     * see {@link com.hazelcast.config.MapConfig#setTieredStoreConfig(com.hazelcast.config.TieredStoreConfig)}.
+     *
+     * @return number of memory tier hits
+     */
+    long getMemoryTierHits();
+
+    /**
+     * Returns the number of lookups by key of owned entries whose value was moved to disk and had to be
+     * read from there.
+     *
+     * @return number of disk tier hits
+     */
+    long getDiskTierHits();
+
+    /**
+     * Returns the number of owned entries whose value is on disk.
+     *
+     * @return number of disk tier entries
+     */
+    long getDiskTierEntryCount();
+
+    /**
+     * Returns the number of gets of owned entries which missed and joined a
+     * {@link com.hazelcast.core.MapLoader#load(Object)} call already running for the same key instead of calling it
+     * again.
+     *
+     * @return number of coalesced loads
+     */
+    long getCoalescedLoadCount();
+
 
 }
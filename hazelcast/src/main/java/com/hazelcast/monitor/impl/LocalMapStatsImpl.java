@@ -24,6 +24,7 @@ import com.hazelcast.util.Clock;
 
 import java.util.concurrent.atomic.AtomicLongFieldUpdater;
 
+import static com.hazelcast.util.JsonUtil.getDouble;
 import static com.hazelcast.util.JsonUtil.getInt;
 import static com.hazelcast.util.JsonUtil.getLong;
 import static java.util.concurrent.atomic.AtomicLongFieldUpdater.newUpdater;
@@ -88,6 +89,13 @@ public class LocalMapStatsImpl implements LocalMapStats {
     private volatile long lockedEntryCount;
     private volatile long dirtyEntryCount;
     private volatile int backupCount;
+    private volatile double compressionRatio = 1;
+    private volatile long totalCompressionTime;
+    private volatile long totalDecompressionTime;
+    private volatile long memoryTierHits;
+    private volatile long diskTierHits;
+    private volatile long diskTierEntryCount;
+    private volatile long coalescedLoadCount;
 
     private volatile NearCacheStats nearCacheStats;
 
@@ -300,6 +308,69 @@ public class LocalMapStatsImpl implements LocalMapStats {
         this.nearCacheStats = nearCacheStats;
     }
 
+    @Override
+    public double getCompressionRatio() {
+        return compressionRatio;
+    }
+
+    public void setCompressionRatio(double compressionRatio) {
+        this.compressionRatio = compressionRatio;
+    }
+
+    @Override
+    public long getTotalCompressionTime() {
+        return totalCompressionTime;
+    }
+
+    public void setTotalCompressionTime(long totalCompressionTime) {
+        this.totalCompressionTime = totalCompressionTime;
+    }
+
+    @Override
+    public long getTotalDecompressionTime() {
+        return totalDecompressionTime;
+    }
+
+    public void setTotalDecompressionTime(long totalDecompressionTime) {
+        this.totalDecompressionTime = totalDecompressionTime;
+    }
+
+    @Override
+    public long getMemoryTierHits() {
+        return memoryTierHits;
+    }
+
+    public void setMemoryTierHits(long memoryTierHits) {
+        this.memoryTierHits = memoryTierHits;
+    }
+
+    @Override
+    public long getDiskTierHits() {
+        return diskTierHits;
+    }
+
+    public void setDiskTierHits(long diskTierHits) {
+        this.diskTierHits = diskTierHits;
+    }
+
+    @Override
+    public long getDiskTierEntryCount() {
+        return diskTierEntryCount;
+    }
+
+    public void setDiskTierEntryCount(long diskTierEntryCount) {
+        this.diskTierEntryCount = diskTierEntryCount;
+    }
+
+    @Override
+    public long getCoalescedLoadCount() {
+        return coalescedLoadCount;
+    }
+
+    public void setCoalescedLoadCount(long coalescedLoadCount) {
+        this.coalescedLoadCount = coalescedLoadCount;
+    }
+
     @Override
     public JsonObject toJson() {
         JsonObject root = new JsonObject();
@@ -326,6 +397,13 @@ public class LocalMapStatsImpl implements LocalMapStats {
         root.add("maxPutLatency", maxPutLatency);
         root.add("maxRemoveLatency", maxRemoveLatency);
         root.add("heapCost", heapCost);
+        root.add("compressionRatio", compressionRatio);
+        root.add("totalCompressionTime", totalCompressionTime);
+        root.add("totalDecompressionTime", totalDecompressionTime);
+        root.add("memoryTierHits", memoryTierHits);
+        root.add("diskTierHits", diskTierHits);
+        root.add("diskTierEntryCount", diskTierEntryCount);
+        root.add("coalescedLoadCount", coalescedLoadCount);
         if (nearCacheStats != null) {
             root.add("nearCacheStats", nearCacheStats.toJson());
         }
@@ -357,6 +435,13 @@ public class LocalMapStatsImpl implements LocalMapStats {
         lockedEntryCount = getLong(json, "lockedEntryCount", -1L);
         dirtyEntryCount = getLong(json, "dirtyEntryCount", -1L);
         heapCost = getLong(json, "heapCost", -1L);
+        compressionRatio = getDouble(json, "compressionRatio", 1);
+        totalCompressionTime = getLong(json, "totalCompressionTime", -1L);
+        totalDecompressionTime = getLong(json, "totalDecompressionTime", -1L);
+        memoryTierHits = getLong(json, "memoryTierHits", -1L);
+        diskTierHits = getLong(json, "diskTierHits", -1L);
+        diskTierEntryCount = getLong(json, "diskTierEntryCount", -1L);
+        coalescedLoadCount = getLong(json, "coalescedLoadCount", -1L);
         JsonValue jsonNearCacheStats = json.get("nearCacheStats");
         if (jsonNearCacheStats != null) {
             nearCacheStats = new NearCacheStatsImpl();
@@ -387,6 +472,13 @@ public class LocalMapStatsImpl implements LocalMapStats {
                 + ", lockedEntryCount=" + lockedEntryCount
                 + ", dirtyEntryCount=" + dirtyEntryCount
                 + ", heapCost=" + heapCost
+                + ", compressionRatio=" + compressionRatio
+                + ", totalCompressionTime=" + totalCompressionTime
+                + ", totalDecompressionTime=" + totalDecompressionTime
+                + ", memoryTierHits=" + memoryTierHits
+                + ", diskTierHits=" + diskTierHits
+                + ", diskTierEntryCount=" + diskTierEntryCount
+                + ", coalescedLoadCount=" + coalescedLoadCount
                 + '}';
     }
 }
@@ -279,6 +279,41 @@ public class LocalReplicatedMapStatsImpl implements LocalReplicatedMapStats {
     public void setHeapCost(long heapCost) {
     }
 
+    @Override
+    public double getCompressionRatio() {
+        return 1;
+    }
+
+    @Override
+    public long getTotalCompressionTime() {
+        return 0;
+    }
+
+    @Override
+    public long getTotalDecompressionTime() {
+        return 0;
+    }
+
+    @Override
+    public long getMemoryTierHits() {
+        return 0;
+    }
+
+    @Override
+    public long getDiskTierHits() {
+        return 0;
+    }
+
+    @Override
+    public long getDiskTierEntryCount() {
+        return 0;
+    }
+
+    @Override
+    public long getCoalescedLoadCount() {
+        return 0;
+    }
+
     @Override
     public long getReplicationEventCount() {
         return 0;
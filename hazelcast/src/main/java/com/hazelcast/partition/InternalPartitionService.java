@@ -172,6 +172,16 @@ public interface InternalPartitionService extends CoreService {
 
     void clearPartitionReplicaVersions(int partitionId);
 
+    /**
+     * Checks if the replica versions of the given backup replica on this member show that it missed some backups of
+     * the partition, or that it is waiting for its initial replica sync, and did not complete the sync with the owner yet.
+     *
+     * @param partitionId  the partition to check
+     * @param replicaIndex the replica index of this member for the partition
+     * @return true if the local replica of the partition is known to be behind the owner, false otherwise
+     */
+    boolean isPartitionReplicaVersionDirty(int partitionId, int replicaIndex);
+
     com.hazelcast.core.PartitionService getPartitionServiceProxy();
 
     int getPartitionStateVersion();
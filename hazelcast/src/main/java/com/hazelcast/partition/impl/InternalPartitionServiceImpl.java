@@ -1529,6 +1529,11 @@ public class InternalPartitionServiceImpl implements InternalPartitionService, M
         replicaVersions[partitionId].clear();
     }
 
+    @Override
+    public boolean isPartitionReplicaVersionDirty(int partitionId, int replicaIndex) {
+        return replicaVersions[partitionId].isDirty(replicaIndex);
+    }
+
     // called in operation threads
     void finalizeReplicaSync(int partitionId, int replicaIndex, long[] versions) {
         PartitionReplicaVersions replicaVersion = replicaVersions[partitionId];
@@ -16,14 +16,17 @@
 
 package com.hazelcast.partition.impl;
 
+import com.hazelcast.core.ExecutionCallback;
 import com.hazelcast.core.HazelcastException;
 import com.hazelcast.core.Member;
 import com.hazelcast.core.MemberLeftException;
+import com.hazelcast.instance.GroupProperty;
 import com.hazelcast.nio.Address;
 import com.hazelcast.partition.InternalPartition;
 import com.hazelcast.partition.InternalPartitionService;
 import com.hazelcast.partition.MigrationEndpoint;
 import com.hazelcast.partition.MigrationInfo;
+import com.hazelcast.spi.ChunkedMigrationAwareService;
 import com.hazelcast.spi.ExceptionAction;
 import com.hazelcast.spi.MigrationAwareService;
 import com.hazelcast.spi.NodeEngine;
@@ -38,8 +41,12 @@ import com.hazelcast.spi.impl.NodeEngineImpl;
 
 import java.io.IOException;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.LinkedList;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 
 public final class MigrationRequestOperation extends BaseMigrationOperation {
@@ -48,6 +55,12 @@ public final class MigrationRequestOperation extends BaseMigrationOperation {
 
     private boolean returnResponse = true;
 
+    /**
+     * Names of the services whose chunked copy completed, {@code null} until the chunked copies are done;
+     * see {@link #startChunkedMigration()}.
+     */
+    private Set<String> chunkedServiceNames;
+
     public MigrationRequestOperation() {
     }
 
@@ -57,6 +70,8 @@ public final class MigrationRequestOperation extends BaseMigrationOperation {
 
     @Override
     public void run() {
+        // when the chunked copies are done this operation runs again, after it did not respond for the first run
+        returnResponse = true;
         NodeEngine nodeEngine = getNodeEngine();
         verifyGoodMaster(nodeEngine);
 
@@ -66,6 +81,7 @@ public final class MigrationRequestOperation extends BaseMigrationOperation {
 
         if (destination.equals(source)) {
             getLogger().warning("Source and destination addresses are the same! => " + toString());
+            cancelChunkedMigration();
             success = false;
             return;
         }
@@ -79,12 +95,17 @@ public final class MigrationRequestOperation extends BaseMigrationOperation {
 
         if (!migrationInfo.startProcessing()) {
             getLogger().warning("Migration is cancelled -> " + migrationInfo);
+            cancelChunkedMigration();
             success = false;
             return;
         }
 
         try {
             verifyOwner(source, partition, owner);
+            if (chunkedServiceNames == null && startChunkedMigration()) {
+                returnResponse = false;
+                return;
+            }
             partitionService.addActiveMigration(migrationInfo);
             Collection<Operation> tasks = prepareMigrationTasks();
             long[] replicaVersions = partitionService.getPartitionReplicaVersions(migrationInfo.getPartitionId());
@@ -92,12 +113,55 @@ public final class MigrationRequestOperation extends BaseMigrationOperation {
             returnResponse = false;
         } catch (Throwable e) {
             logThrowable(e);
+            cancelChunkedMigration();
             success = false;
         } finally {
             migrationInfo.doneProcessing();
         }
     }
 
+    @Override
+    public void onExecutionFailure(Throwable e) {
+        // the copies of a failed chunked migration are removed, and the master gets the error as response
+        cancelChunkedMigration();
+        returnResponse = true;
+    }
+
+    /**
+     * Starts copying the data of the {@link ChunkedMigrationAwareService}s, if chunked migrations are enabled.
+     * The partition is not marked as migrating until the copies are done, then this operation runs again.
+     *
+     * @return {@code true} if the copies were started
+     */
+    private boolean startChunkedMigration() {
+        NodeEngineImpl nodeEngine = (NodeEngineImpl) getNodeEngine();
+        if (!nodeEngine.getGroupProperties().getBoolean(GroupProperty.PARTITION_MIGRATION_CHUNKED_ENABLED)) {
+            return false;
+        }
+        Collection<ServiceInfo> serviceInfos = nodeEngine.getServiceInfos(ChunkedMigrationAwareService.class);
+        if (serviceInfos.isEmpty()) {
+            return false;
+        }
+        chunkedServiceNames = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+        AtomicInteger remainingCopies = new AtomicInteger(serviceInfos.size());
+        for (ServiceInfo serviceInfo : serviceInfos) {
+            ChunkedMigrationAwareService service = (ChunkedMigrationAwareService) serviceInfo.getService();
+            service.startChunkedMigration(migrationInfo,
+                    new ChunkedCopyCallback(this, serviceInfo.getName(), remainingCopies));
+        }
+        return true;
+    }
+
+    private void cancelChunkedMigration() {
+        if (chunkedServiceNames == null) {
+            return;
+        }
+        NodeEngineImpl nodeEngine = (NodeEngineImpl) getNodeEngine();
+        for (ServiceInfo serviceInfo : nodeEngine.getServiceInfos(ChunkedMigrationAwareService.class)) {
+            ((ChunkedMigrationAwareService) serviceInfo.getService()).cancelChunkedMigration(migrationInfo.getPartitionId());
+        }
+    }
+
     private void logThrowable(Throwable t) {
         Throwable throwableToLog = t;
         if (throwableToLog instanceof ExecutionException) {
@@ -195,7 +259,9 @@ public final class MigrationRequestOperation extends BaseMigrationOperation {
         for (ServiceInfo serviceInfo : nodeEngine.getServiceInfos(MigrationAwareService.class)) {
             MigrationAwareService service = (MigrationAwareService) serviceInfo.getService();
             service.beforeMigration(migrationEvent);
-            Operation op = service.prepareReplicationOperation(replicationEvent);
+            Operation op = chunkedServiceNames != null && chunkedServiceNames.contains(serviceInfo.getName())
+                    ? ((ChunkedMigrationAwareService) service).prepareChunkedReplicationOperation(replicationEvent)
+                    : service.prepareReplicationOperation(replicationEvent);
             if (op != null) {
                 op.setServiceName(serviceInfo.getName());
                 tasks.add(op);
@@ -204,6 +270,39 @@ public final class MigrationRequestOperation extends BaseMigrationOperation {
         return tasks;
     }
 
+    /**
+     * Runs the migration request again, on the partition thread, once the chunked copies of all services are done.
+     */
+    private static final class ChunkedCopyCallback implements ExecutionCallback<Boolean> {
+
+        final MigrationRequestOperation op;
+        final String serviceName;
+        final AtomicInteger remainingCopies;
+
+        private ChunkedCopyCallback(MigrationRequestOperation op, String serviceName, AtomicInteger remainingCopies) {
+            this.op = op;
+            this.serviceName = serviceName;
+            this.remainingCopies = remainingCopies;
+        }
+
+        @Override
+        public void onResponse(Boolean completed) {
+            if (Boolean.TRUE.equals(completed)) {
+                op.chunkedServiceNames.add(serviceName);
+            }
+            if (remainingCopies.decrementAndGet() == 0) {
+                op.getNodeEngine().getOperationService().executeOperation(op);
+            }
+        }
+
+        @Override
+        public void onFailure(Throwable t) {
+            op.getLogger().warning("Chunked migration of " + serviceName + " failed, migrating the whole partition => "
+                    + op.migrationInfo, t);
+            onResponse(false);
+        }
+    }
+
     private static final class MigrationCallback extends SimpleExecutionCallback<Object> {
 
         final MigrationInfo migrationInfo;
@@ -26,6 +26,8 @@ final class PartitionReplicaVersions {
     final int partitionId;
     // read and updated only by operation/partition threads
     final long[] versions = new long[InternalPartition.MAX_BACKUP_COUNT];
+    // set when a backup replica detects that it missed a backup, cleared once it is in sync with the owner again
+    private volatile boolean dirty;
 
     PartitionReplicaVersions(int partitionId) {
         this.partitionId = partitionId;
@@ -50,24 +52,36 @@ final class PartitionReplicaVersions {
         if (valid) {
             set(newVersions, currentReplica);
             current = next;
+        } else if (current < next) {
+            dirty = true;
         }
         return current >= next;
     }
 
+    boolean isDirty(int replicaIndex) {
+        if (replicaIndex == 0) {
+            return false;
+        }
+        return dirty || versions[replicaIndex - 1] == InternalPartition.SYNC_WAITING;
+    }
+
     void set(long[] newVersions, int fromReplica) {
         int fromIndex = fromReplica - 1;
         int len = newVersions.length - fromIndex;
         arraycopy(newVersions, fromIndex, versions, fromIndex, len);
+        dirty = false;
     }
 
     void clear() {
         for (int i = 0; i < versions.length; i++) {
             versions[i] = 0;
         }
+        dirty = false;
     }
 
     @Override
     public String toString() {
-        return getClass().getSimpleName() + "{partitionId=" + partitionId + ", versions=" + Arrays.toString(versions) + '}';
+        return getClass().getSimpleName() + "{partitionId=" + partitionId + ", versions=" + Arrays.toString(versions)
+                + ", dirty=" + dirty + '}';
     }
 }
@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.projection;
+
+import java.io.Serializable;
+
+/**
+ * Transforms an input into the part of it the caller is interested in, e.g. one or a few attributes of a map value.
+ * <p/>
+ * The projection is applied on the members, so only the projected values are sent to the caller. The input of the
+ * {@link com.hazelcast.core.IMap} projections is a {@link java.util.Map.Entry}. On the members it is a
+ * {@link com.hazelcast.query.impl.QueryableEntry}, so attribute paths can be extracted the same way as in
+ * predicates; for {@link com.hazelcast.nio.serialization.Portable} values this does not deserialize the value.
+ * <p/>
+ * Custom projections can extend this class; they must be serializable by Hazelcast. Predefined projections can be
+ * found in {@link Projections}.
+ *
+ * @param <I> the input type
+ * @param <O> the output type
+ * @since 3.6
+ */
+public abstract class Projection<I, O> implements Serializable {
+
+    /**
+     * Transforms the input.
+     *
+     * @param input the input to transform
+     * @return the projected value
+     */
+    public abstract O transform(I input);
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.projection;
+
+import com.hazelcast.projection.impl.MultiAttributeProjection;
+import com.hazelcast.projection.impl.SingleAttributeProjection;
+
+/**
+ * Factory methods for the predefined {@link Projection}s.
+ * <pre>
+ * IMap&lt;String, Employee&gt; map = hazelcastInstance.getMap("employees");
+ * Collection&lt;Object[]&gt; rows = map.project(
+ *         Projections.&lt;Map.Entry&lt;String, Employee&gt;&gt;multiAttribute("name", "address.city"),
+ *         new SqlPredicate("active = true"));
+ * </pre>
+ *
+ * @since 3.6
+ */
+public final class Projections {
+
+    private Projections() {
+    }
+
+    /**
+     * @param attributePath the attribute to extract, e.g. <code>"name"</code> or <code>"__key"</code>
+     * @return a projection extracting a single attribute
+     */
+    public static <I, O> Projection<I, O> singleAttribute(String attributePath) {
+        return new SingleAttributeProjection<I, O>(attributePath);
+    }
+
+    /**
+     * @param attributePaths the attributes to extract
+     * @return a projection extracting the attributes into an array, in the given order
+     */
+    public static <I> Projection<I, Object[]> multiAttribute(String... attributePaths) {
+        return new MultiAttributeProjection<I>(attributePaths);
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.projection.impl;
+
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
+import com.hazelcast.projection.Projection;
+import com.hazelcast.query.impl.QueryableEntry;
+
+import java.io.IOException;
+
+import static com.hazelcast.util.Preconditions.checkHasText;
+
+/**
+ * Extracts several attributes of a {@link QueryableEntry} into an array.
+ *
+ * @param <I> the input type
+ */
+public final class MultiAttributeProjection<I> extends Projection<I, Object[]> implements IdentifiedDataSerializable {
+
+    private String[] attributePaths;
+
+    public MultiAttributeProjection() {
+    }
+
+    public MultiAttributeProjection(String... attributePaths) {
+        if (attributePaths == null || attributePaths.length == 0) {
+            throw new IllegalArgumentException("No attributePath given");
+        }
+        for (String attributePath : attributePaths) {
+            checkHasText(attributePath, "attributePath must not be null or empty");
+        }
+        this.attributePaths = attributePaths;
+    }
+
+    @Override
+    public Object[] transform(I input) {
+        if (!(input instanceof QueryableEntry)) {
+            throw new IllegalArgumentException("Cannot extract attributes from " + input);
+        }
+        QueryableEntry entry = (QueryableEntry) input;
+        Object[] result = new Object[attributePaths.length];
+        for (int i = 0; i < attributePaths.length; i++) {
+            result[i] = entry.getAttributeValue(attributePaths[i]);
+        }
+        return result;
+    }
+
+    @Override
+    public int getFactoryId() {
+        return ProjectionDataSerializerHook.F_ID;
+    }
+
+    @Override
+    public int getId() {
+        return ProjectionDataSerializerHook.MULTI_ATTRIBUTE;
+    }
+
+    @Override
+    public void writeData(ObjectDataOutput out) throws IOException {
+        out.writeUTFArray(attributePaths);
+    }
+
+    @Override
+    public void readData(ObjectDataInput in) throws IOException {
+        attributePaths = in.readUTFArray();
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.projection.impl;
+
+import com.hazelcast.aggregation.Aggregator;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
+import com.hazelcast.projection.Projection;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects the projected values of the entries. Running a projection as an aggregation reuses the aggregation
+ * engine, including index-assisted filtering and per member combining, and ships only the projected values.
+ *
+ * @param <I> the input type
+ * @param <O> the projected type
+ */
+public final class ProjectionAggregator<I, O> extends Aggregator<I, List<O>> implements IdentifiedDataSerializable {
+
+    private Projection<I, O> projection;
+    private List<O> values = new ArrayList<O>();
+
+    public ProjectionAggregator() {
+    }
+
+    public ProjectionAggregator(Projection<I, O> projection) {
+        this.projection = projection;
+    }
+
+    @Override
+    public void accumulate(I input) {
+        values.add(projection.transform(input));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void combine(Aggregator aggregator) {
+        values.addAll(((ProjectionAggregator<I, O>) aggregator).values);
+    }
+
+    @Override
+    public List<O> aggregate() {
+        return values;
+    }
+
+    @Override
+    public int getFactoryId() {
+        return ProjectionDataSerializerHook.F_ID;
+    }
+
+    @Override
+    public int getId() {
+        return ProjectionDataSerializerHook.PROJECTION_AGGREGATOR;
+    }
+
+    @Override
+    public void writeData(ObjectDataOutput out) throws IOException {
+        out.writeObject(projection);
+        out.writeInt(values.size());
+        for (O value : values) {
+            out.writeObject(value);
+        }
+    }
+
+    @Override
+    public void readData(ObjectDataInput in) throws IOException {
+        projection = in.readObject();
+        int size = in.readInt();
+        values = new ArrayList<O>(size);
+        for (int i = 0; i < size; i++) {
+            values.add(in.<O>readObject());
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.projection.impl;
+
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
+import com.hazelcast.projection.Projection;
+import com.hazelcast.query.impl.QueryableEntry;
+
+import java.io.IOException;
+
+import static com.hazelcast.util.Preconditions.checkHasText;
+
+/**
+ * Extracts a single attribute of a {@link QueryableEntry}.
+ *
+ * @param <I> the input type
+ * @param <O> the output type
+ */
+public final class SingleAttributeProjection<I, O> extends Projection<I, O> implements IdentifiedDataSerializable {
+
+    private String attributePath;
+
+    public SingleAttributeProjection() {
+    }
+
+    public SingleAttributeProjection(String attributePath) {
+        this.attributePath = checkHasText(attributePath, "attributePath must not be null or empty");
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public O transform(I input) {
+        if (input instanceof QueryableEntry) {
+            return (O) ((QueryableEntry) input).getAttributeValue(attributePath);
+        }
+        throw new IllegalArgumentException("Cannot extract attribute '" + attributePath + "' from " + input);
+    }
+
+    @Override
+    public int getFactoryId() {
+        return ProjectionDataSerializerHook.F_ID;
+    }
+
+    @Override
+    public int getId() {
+        return ProjectionDataSerializerHook.SINGLE_ATTRIBUTE;
+    }
+
+    @Override
+    public void writeData(ObjectDataOutput out) throws IOException {
+        out.writeUTF(attributePath);
+    }
+
+    @Override
+    public void readData(ObjectDataInput in) throws IOException {
+        attributePath = in.readUTF();
+    }
+}
@@ -20,6 +20,7 @@ import com.hazelcast.nio.serialization.Data;
 import com.hazelcast.query.impl.getters.MultiResult;
 
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
@@ -29,22 +30,46 @@ public abstract class BaseIndexStore implements IndexStore {
 
     protected static final float LOAD_FACTOR = 0.75F;
 
+    /**
+     * Percentage of the indexed values that may change before the statistics are rebuilt.
+     */
+    private static final int STALE_STATISTICS_PERCENT = 10;
+    private static final int PERCENT = 100;
+
     protected ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
     protected ReentrantReadWriteLock.ReadLock readLock = lock.readLock();
     protected ReentrantReadWriteLock.WriteLock writeLock = lock.writeLock();
 
     private boolean multiResultHasToDetectDuplicates;
 
+    // written while holding the write lock, read without a lock by getStatistics
+    private volatile long valueCount;
+    private volatile long distinctCount;
+    private volatile long nullCount;
+    private volatile long modificationCount;
+
+    // written by the thread which rebuilds the statistics and by clear
+    private volatile IndexStatistics statistics;
+    private volatile long statisticsModificationCount;
+    private final AtomicBoolean rebuildingStatistics = new AtomicBoolean();
 
     abstract void newIndexInternal(Comparable newValue, QueryableEntry record);
 
     abstract void removeIndexInternal(Comparable oldValue, Data indexKey);
 
+    /**
+     * Adds the histogram of a sorted store to its statistics, without holding the write lock. Unsorted stores
+     * have no histogram.
+     */
+    void addHistogram(IndexStatistics.Builder builder) {
+    }
+
     @Override
     public final void newIndex(Object newValue, QueryableEntry record) {
         takeWriteLock();
         try {
             unwrapAndAddToIndex(newValue, record);
+            modificationCount++;
         } finally {
             releaseWriteLock();
         }
@@ -69,6 +94,7 @@ public abstract class BaseIndexStore implements IndexStore {
         takeWriteLock();
         try {
             unwrapAndRemoveFromIndex(oldValue, indexKey);
+            modificationCount++;
         } finally {
             releaseWriteLock();
         }
@@ -94,12 +120,78 @@ public abstract class BaseIndexStore implements IndexStore {
             Data indexKey = entry.getKeyData();
             unwrapAndRemoveFromIndex(oldValue, indexKey);
             unwrapAndAddToIndex(newValue, entry);
+            modificationCount++;
         } finally {
             releaseWriteLock();
         }
     }
 
 
+    /**
+     * Returns the statistics of the store, rebuilding them if more than {@link #STALE_STATISTICS_PERCENT} percent of
+     * the values changed since they were last built.
+     * <p/>
+     * The counts are maintained by the stores as they change, so a rebuild only takes the histogram, and it does so
+     * without the write lock. Only one thread rebuilds at a time; the others return the stale statistics meanwhile,
+     * or the counts without a histogram if there are none yet.
+     */
+    @Override
+    public IndexStatistics getStatistics() {
+        IndexStatistics current = statistics;
+        if (current != null && !isStale(current)) {
+            return current;
+        }
+        if (!rebuildingStatistics.compareAndSet(false, true)) {
+            return current != null ? current : new IndexStatistics.Builder(valueCount, distinctCount, nullCount).build();
+        }
+        try {
+            long modifications = modificationCount;
+            IndexStatistics.Builder builder = new IndexStatistics.Builder(valueCount, distinctCount, nullCount);
+            addHistogram(builder);
+            current = builder.build();
+            statisticsModificationCount = modifications;
+            statistics = current;
+            return current;
+        } finally {
+            rebuildingStatistics.set(false);
+        }
+    }
+
+    private boolean isStale(IndexStatistics current) {
+        long modifications = modificationCount - statisticsModificationCount;
+        return modifications * PERCENT > current.getEntryCount() * STALE_STATISTICS_PERCENT;
+    }
+
+    /**
+     * Counts entries added to or removed from the entries indexed under a value, called by the stores while holding
+     * the write lock.
+     *
+     * @param value         the indexed value, {@link IndexImpl#NULL} for the entries without a value
+     * @param entryDelta    the change of the number of entries indexed under the value
+     * @param distinctDelta 1 if the value was not indexed before, -1 if it is not indexed anymore, 0 otherwise
+     */
+    void countEntries(Comparable value, int entryDelta, int distinctDelta) {
+        if (value instanceof IndexImpl.NullObject) {
+            nullCount += entryDelta;
+        } else {
+            valueCount += entryDelta;
+            distinctCount += distinctDelta;
+        }
+    }
+
+    /**
+     * Resets the counts and makes the next {@link #getStatistics()} rebuild the statistics, called by
+     * {@link #clear()} while holding the write lock. Every cleared entry counts as a modification, so statistics
+     * published by a rebuild which raced with the clear are stale.
+     */
+    void invalidateStatistics() {
+        modificationCount += valueCount + nullCount + 1;
+        valueCount = 0;
+        distinctCount = 0;
+        nullCount = 0;
+        statistics = null;
+    }
+
     void takeWriteLock() {
         writeLock.lock();
     }
@@ -132,6 +224,10 @@ public abstract class BaseIndexStore implements IndexStore {
 
     }
 
+    boolean hasToDetectDuplicates() {
+        return multiResultHasToDetectDuplicates;
+    }
+
     protected MultiResultSet createMultiResultSet() {
         return multiResultHasToDetectDuplicates ? new DuplicateDetectingMultiResult() : new FastMultiResultSet();
     }
@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl;
+
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.query.QueryException;
+import com.hazelcast.query.impl.getters.Extractors;
+
+/**
+ * An index for attributes with few distinct values, backed by a {@link BitmapIndexStore}.
+ * <p/>
+ * Every indexed entry gets an ordinal from the {@link EntryOrdinals} shared by all bitmap indexes of the
+ * data-structure. Lookups return {@link BitmapResultSet}s, so AND, OR and NOT predicates over bitmap indexes
+ * are evaluated as bitwise operations and only the final matches are materialised.
+ */
+public class BitmapIndex extends IndexImpl {
+
+    private final EntryOrdinals ordinals;
+
+    BitmapIndex(String attributeName, SerializationService ss, Extractors extractors, EntryOrdinals ordinals) {
+        super(attributeName, false, ss, extractors, new BitmapIndexStore(ordinals));
+        this.ordinals = ordinals;
+    }
+
+    @Override
+    public void saveEntryIndex(QueryableEntry entry, Object oldRecordValue) throws QueryException {
+        ordinals.assign(entry);
+        super.saveEntryIndex(entry, oldRecordValue);
+    }
+}
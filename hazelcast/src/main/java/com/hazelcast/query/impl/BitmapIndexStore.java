@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl;
+
+import com.hazelcast.nio.serialization.Data;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Store indexes as compressed bitmaps of entry ordinals, one bitmap per distinct value.
+ * <p/>
+ * Meant for attributes with few distinct values, e.g. booleans or enums, where it takes a few bits per entry
+ * instead of a hash map node. Lookups return {@link BitmapResultSet}s.
+ */
+public class BitmapIndexStore extends BaseIndexStore {
+
+    private final EntryOrdinals ordinals;
+
+    private final Map<Comparable, CompressedBitmap> bitmaps = new HashMap<Comparable, CompressedBitmap>();
+
+    // every indexed entry, whatever its value
+    private CompressedBitmap all = new CompressedBitmap();
+
+    BitmapIndexStore(EntryOrdinals ordinals) {
+        this.ordinals = ordinals;
+    }
+
+    @Override
+    void newIndexInternal(Comparable newValue, QueryableEntry record) {
+        int ordinal = ordinals.getOrdinal(record.getKeyData());
+        if (ordinal < 0) {
+            return;
+        }
+        CompressedBitmap bitmap = bitmaps.get(newValue);
+        int distinctDelta = 0;
+        if (bitmap == null) {
+            bitmap = new CompressedBitmap();
+            bitmaps.put(newValue, bitmap);
+            distinctDelta = 1;
+        }
+        if (!bitmap.contains(ordinal)) {
+            bitmap.add(ordinal);
+            countEntries(newValue, 1, distinctDelta);
+        }
+        all.add(ordinal);
+    }
+
+    @Override
+    void removeIndexInternal(Comparable oldValue, Data indexKey) {
+        int ordinal = ordinals.getOrdinal(indexKey);
+        if (ordinal < 0) {
+            return;
+        }
+        CompressedBitmap bitmap = bitmaps.get(oldValue);
+        if (bitmap != null && bitmap.contains(ordinal)) {
+            bitmap.remove(ordinal);
+            int distinctDelta = 0;
+            if (bitmap.isEmpty()) {
+                bitmaps.remove(oldValue);
+                distinctDelta = -1;
+            }
+            countEntries(oldValue, -1, distinctDelta);
+        }
+        all.remove(ordinal);
+    }
+
+    @Override
+    public void clear() {
+        takeWriteLock();
+        try {
+            bitmaps.clear();
+            all = new CompressedBitmap();
+            invalidateStatistics();
+        } finally {
+            releaseWriteLock();
+        }
+    }
+
+    @Override
+    public Set<QueryableEntry> getSubRecordsBetween(Comparable from, Comparable to) {
+        long generation = ordinals.generation();
+        takeReadLock();
+        try {
+            CompressedBitmap result = new CompressedBitmap();
+            for (Map.Entry<Comparable, CompressedBitmap> entry : bitmaps.entrySet()) {
+                Comparable value = entry.getKey();
+                if (!(value instanceof IndexImpl.NullObject) && value.compareTo(from) >= 0 && value.compareTo(to) <= 0) {
+                    result = result.or(entry.getValue());
+                }
+            }
+            return new BitmapResultSet(result, ordinals, generation);
+        } finally {
+            releaseReadLock();
+        }
+    }
+
+    @Override
+    public Set<QueryableEntry> getSubRecords(ComparisonType comparisonType, Comparable searchedValue) {
+        long generation = ordinals.generation();
+        takeReadLock();
+        try {
+            if (comparisonType == ComparisonType.NOT_EQUAL) {
+                // same as NotEqualPredicate.apply: entries with a null value are not equal to a non-null value
+                CompressedBitmap equal = bitmaps.get(searchedValue);
+                return new BitmapResultSet(equal == null ? all.copy() : all.andNot(equal), ordinals, generation);
+            }
+            CompressedBitmap result = new CompressedBitmap();
+            for (Map.Entry<Comparable, CompressedBitmap> entry : bitmaps.entrySet()) {
+                Comparable value = entry.getKey();
+                if (!(value instanceof IndexImpl.NullObject) && matches(comparisonType, value.compareTo(searchedValue))) {
+                    result = result.or(entry.getValue());
+                }
+            }
+            return new BitmapResultSet(result, ordinals, generation);
+        } finally {
+            releaseReadLock();
+        }
+    }
+
+    private static boolean matches(ComparisonType comparisonType, int comparison) {
+        switch (comparisonType) {
+            case LESSER:
+                return comparison < 0;
+            case LESSER_EQUAL:
+                return comparison <= 0;
+            case GREATER:
+                return comparison > 0;
+            case GREATER_EQUAL:
+                return comparison >= 0;
+            default:
+                throw new IllegalArgumentException("Unrecognized comparisonType: " + comparisonType);
+        }
+    }
+
+    @Override
+    public ConcurrentMap<Data, QueryableEntry> getRecordMap(Comparable value) {
+        ConcurrentMap<Data, QueryableEntry> records = new ConcurrentHashMap<Data, QueryableEntry>();
+        for (QueryableEntry entry : getRecords(value)) {
+            records.put(entry.getKeyData(), entry);
+        }
+        return records;
+    }
+
+    @Override
+    public Set<QueryableEntry> getRecords(Comparable value) {
+        long generation = ordinals.generation();
+        takeReadLock();
+        try {
+            CompressedBitmap bitmap = bitmaps.get(value);
+            return new BitmapResultSet(bitmap == null ? new CompressedBitmap() : bitmap.copy(), ordinals, generation);
+        } finally {
+            releaseReadLock();
+        }
+    }
+
+    @Override
+    public Set<QueryableEntry> getRecords(Set<Comparable> values) {
+        long generation = ordinals.generation();
+        takeReadLock();
+        try {
+            CompressedBitmap result = new CompressedBitmap();
+            for (Comparable value : values) {
+                CompressedBitmap bitmap = bitmaps.get(value);
+                if (bitmap != null) {
+                    result = result.or(bitmap);
+                }
+            }
+            return new BitmapResultSet(result, ordinals, generation);
+        } finally {
+            releaseReadLock();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "BitmapIndexStore{"
+                + "bitmaps=" + bitmaps.size()
+                + '}';
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * The result of a lookup into a {@link BitmapIndex}: a bitmap of entry ordinals.
+ * <p/>
+ * Results of the bitmap indexes of the same data-structure are intersected and merged with bitwise operations;
+ * the entries are looked up only when the result is iterated. Ordinals which were reused by another key since the
+ * lookup are skipped, see {@link EntryOrdinals}.
+ */
+public final class BitmapResultSet extends AbstractSet<QueryableEntry> {
+
+    private final CompressedBitmap bitmap;
+    private final EntryOrdinals ordinals;
+    private final long generation;
+
+    BitmapResultSet(CompressedBitmap bitmap, EntryOrdinals ordinals, long generation) {
+        this.bitmap = bitmap;
+        this.ordinals = ordinals;
+        this.generation = generation;
+    }
+
+    /**
+     * @return the entries contained in both this and the other result
+     */
+    public BitmapResultSet and(BitmapResultSet other) {
+        checkSameOrdinals(other);
+        return new BitmapResultSet(bitmap.and(other.bitmap), ordinals, Math.min(generation, other.generation));
+    }
+
+    /**
+     * @return the entries contained in this or the other result
+     */
+    public BitmapResultSet or(BitmapResultSet other) {
+        checkSameOrdinals(other);
+        return new BitmapResultSet(bitmap.or(other.bitmap), ordinals, Math.min(generation, other.generation));
+    }
+
+    private void checkSameOrdinals(BitmapResultSet other) {
+        if (ordinals != other.ordinals) {
+            throw new IllegalArgumentException("Results of bitmap indexes of different data-structures can't be combined");
+        }
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (!(o instanceof QueryableEntry)) {
+            return false;
+        }
+        int ordinal = ordinals.getOrdinal(((QueryableEntry) o).getKeyData());
+        return ordinal >= 0 && bitmap.contains(ordinal) && ordinals.getEntry(ordinal, generation) != null;
+    }
+
+    @Override
+    public int size() {
+        return bitmap.cardinality();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return bitmap.isEmpty();
+    }
+
+    @Override
+    public Iterator<QueryableEntry> iterator() {
+        return new EntryIterator();
+    }
+
+    private final class EntryIterator implements Iterator<QueryableEntry> {
+        private final CompressedBitmap.IntIterator ordinalIterator = bitmap.iterator();
+        private QueryableEntry nextEntry;
+
+        @Override
+        public boolean hasNext() {
+            // an entry removed since the lookup has no entry for its ordinal anymore or its ordinal was reused
+            while (nextEntry == null && ordinalIterator.hasNext()) {
+                nextEntry = ordinals.getEntry(ordinalIterator.next(), generation);
+            }
+            return nextEntry != null;
+        }
+
+        @Override
+        public QueryableEntry next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            QueryableEntry entry = nextEntry;
+            nextEntry = null;
+            return entry;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,276 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl;
+
+import com.hazelcast.core.TypeConverter;
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.query.QueryException;
+import com.hazelcast.query.impl.getters.Extractors;
+import com.hazelcast.query.impl.getters.MultiResult;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import static com.hazelcast.query.impl.TypeConverters.NULL_CONVERTER;
+
+/**
+ * An index over an ordered tuple of attributes, e.g. {@code "tenantId,status,createdAt"}.
+ * <p/>
+ * Entries are stored as {@link CompositeValue}s in a sorted store, whatever the ordered flag says, since the
+ * lookups this index is built for - equality on a prefix of the attributes, optionally followed by a range on the
+ * next attribute - are range scans over the sorted tuples. All lookup values passed to this index must be
+ * {@link CompositeValue}s; their components are converted with the converter of the matching attribute.
+ */
+public class CompositeIndex implements Index {
+
+    /**
+     * Separates the attributes in the name of a composite index.
+     */
+    public static final String SEPARATOR = ",";
+
+    private final String attributeName;
+    private final String[] components;
+    private final boolean ordered;
+    private final IndexStore indexStore = new SortedIndexStore();
+    private final TypeConverter converter = new CompositeConverter();
+
+    private final SerializationService ss;
+    private final Extractors extractors;
+
+    private volatile TypeConverter[] converters;
+
+    public CompositeIndex(String attributeName, boolean ordered, SerializationService ss, Extractors extractors) {
+        this.attributeName = attributeName;
+        this.components = splitAttributeName(attributeName);
+        this.ordered = ordered;
+        this.ss = ss;
+        this.extractors = extractors;
+    }
+
+    /**
+     * Checks if the given index name describes a composite index.
+     *
+     * @param attributeName the name of the index
+     * @return true if the name lists more than one attribute
+     */
+    public static boolean isComposite(String attributeName) {
+        return attributeName.contains(SEPARATOR);
+    }
+
+    /**
+     * Splits the name of a composite index into its attributes.
+     *
+     * @param attributeName the name of the index
+     * @return the trimmed attribute names in index order
+     */
+    public static String[] splitAttributeName(String attributeName) {
+        String[] components = attributeName.split(SEPARATOR);
+        for (int i = 0; i < components.length; i++) {
+            components[i] = components[i].trim();
+            if (components[i].length() == 0) {
+                throw new IllegalArgumentException("Composite index contains an empty attribute: " + attributeName);
+            }
+        }
+        return components;
+    }
+
+    /**
+     * Returns the attributes covered by this index, in index order.
+     *
+     * @return the attributes of this index
+     */
+    public String[] getComponents() {
+        return components.clone();
+    }
+
+    @Override
+    public void saveEntryIndex(QueryableEntry entry, Object oldRecordValue) throws QueryException {
+        // converters are initialized before the entry is stored, see IndexImpl#saveEntryIndex
+        initConverters(entry);
+
+        CompositeValue newValue = extractCompositeValue(entry.getKeyData(), entry.getValue());
+        if (oldRecordValue == null) {
+            indexStore.newIndex(newValue, entry);
+        } else {
+            CompositeValue oldValue = extractCompositeValue(entry.getKeyData(), oldRecordValue);
+            indexStore.updateIndex(oldValue, newValue, entry);
+        }
+    }
+
+    private void initConverters(QueryableEntry entry) {
+        TypeConverter[] current = converters;
+        if (current != null && !hasNullConverter(current)) {
+            return;
+        }
+        TypeConverter[] updated = new TypeConverter[components.length];
+        for (int i = 0; i < components.length; i++) {
+            TypeConverter existing = current == null ? null : current[i];
+            updated[i] = existing == null || existing == NULL_CONVERTER ? entry.getConverter(components[i]) : existing;
+        }
+        converters = updated;
+    }
+
+    private static boolean hasNullConverter(TypeConverter[] converters) {
+        for (TypeConverter converter : converters) {
+            if (converter == NULL_CONVERTER) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void removeEntryIndex(Data key, Object value) {
+        indexStore.removeIndex(extractCompositeValue(key, value), key);
+    }
+
+    private CompositeValue extractCompositeValue(Data key, Object value) {
+        Comparable[] values = new Comparable[components.length];
+        for (int i = 0; i < components.length; i++) {
+            Object attributeValue = QueryableEntry.extractAttributeValue(extractors, ss, components[i], key, value);
+            values[i] = sanitizeComponent(components[i], attributeValue);
+        }
+        return new CompositeValue(values);
+    }
+
+    private static Comparable sanitizeComponent(String component, Object value) {
+        if (value == null) {
+            return IndexImpl.NULL;
+        }
+        if (value instanceof MultiResult) {
+            throw new IllegalArgumentException("Composite indexes do not support multi-value attributes: " + component);
+        }
+        if (!(value instanceof Comparable)) {
+            throw new IllegalArgumentException("It is not allowed to used a type that is not Comparable: "
+                    + value.getClass());
+        }
+        if (value.getClass().isEnum()) {
+            return TypeConverters.ENUM_CONVERTER.convert((Comparable) value);
+        }
+        return (Comparable) value;
+    }
+
+    @Override
+    public Set<QueryableEntry> getRecords(Comparable[] values) {
+        if (values.length == 1) {
+            return getRecords(values[0]);
+        }
+        TypeConverter[] current = converters;
+        if (current == null) {
+            return Collections.EMPTY_SET;
+        }
+        Set<Comparable> convertedValues = new HashSet<Comparable>(values.length);
+        for (Comparable value : values) {
+            convertedValues.add(convert(current, value));
+        }
+        return indexStore.getRecords(convertedValues);
+    }
+
+    @Override
+    public Set<QueryableEntry> getRecords(Comparable value) {
+        TypeConverter[] current = converters;
+        if (current == null) {
+            return new SingleResultSet(null);
+        }
+        return indexStore.getRecords(convert(current, value));
+    }
+
+    @Override
+    public Set<QueryableEntry> getSubRecordsBetween(Comparable from, Comparable to) {
+        TypeConverter[] current = converters;
+        if (current == null) {
+            return Collections.EMPTY_SET;
+        }
+        return indexStore.getSubRecordsBetween(convert(current, from), convert(current, to));
+    }
+
+    @Override
+    public Set<QueryableEntry> getSubRecords(ComparisonType comparisonType, Comparable searchedValue) {
+        TypeConverter[] current = converters;
+        if (current == null) {
+            return Collections.EMPTY_SET;
+        }
+        return indexStore.getSubRecords(comparisonType, convert(current, searchedValue));
+    }
+
+    private CompositeValue convert(TypeConverter[] current, Comparable value) {
+        if (!(value instanceof CompositeValue)) {
+            throw new IllegalArgumentException("Composite index " + attributeName + " can only be queried with a "
+                    + CompositeValue.class.getSimpleName() + ", got: " + value);
+        }
+        Comparable[] values = ((CompositeValue) value).getComponents();
+        if (values.length > components.length + 1) {
+            throw new IllegalArgumentException("Too many components for composite index " + attributeName + ": " + value);
+        }
+        Comparable[] converted = new Comparable[values.length];
+        for (int i = 0; i < values.length; i++) {
+            converted[i] = convertComponent(current, i, values[i]);
+        }
+        return new CompositeValue(converted);
+    }
+
+    private static Comparable convertComponent(TypeConverter[] current, int index, Comparable value) {
+        if (value == null) {
+            return IndexImpl.NULL;
+        }
+        if (index >= current.length || value == CompositeValue.NEGATIVE_INFINITY
+                || value == CompositeValue.POSITIVE_INFINITY || value instanceof IndexImpl.NullObject) {
+            return value;
+        }
+        return current[index].convert(value);
+    }
+
+    @Override
+    public TypeConverter getConverter() {
+        return converters == null ? null : converter;
+    }
+
+    @Override
+    public void clear() {
+        indexStore.clear();
+        converters = null;
+    }
+
+    @Override
+    public String getAttributeName() {
+        return attributeName;
+    }
+
+    @Override
+    public boolean isOrdered() {
+        return ordered;
+    }
+
+    @Override
+    public IndexStatistics getStatistics() {
+        return indexStore.getStatistics();
+    }
+
+    /**
+     * Converts every component of a {@link CompositeValue} to the type stored in the index.
+     */
+    private final class CompositeConverter implements TypeConverter {
+
+        @Override
+        public Comparable convert(Comparable value) {
+            TypeConverter[] current = converters;
+            return current == null ? value : CompositeIndex.this.convert(current, value);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl;
+
+import java.util.Arrays;
+
+/**
+ * The tuple of attribute values stored in a {@link CompositeIndex}.
+ * <p/>
+ * Tuples are ordered column by column. {@link IndexImpl#NULL} sorts before any other component value and the
+ * {@link #NEGATIVE_INFINITY} and {@link #POSITIVE_INFINITY} sentinels sort before and after everything else. When
+ * one tuple is a prefix of another, the first extra component of the longer tuple decides the order; this lets
+ * a lookup pad a bound with a sentinel to select every tuple starting with a given prefix.
+ */
+public final class CompositeValue implements Comparable<CompositeValue> {
+
+    /**
+     * Sorts before any other component value.
+     */
+    public static final Comparable NEGATIVE_INFINITY = new Sentinel(false);
+
+    /**
+     * Sorts after any other component value.
+     */
+    public static final Comparable POSITIVE_INFINITY = new Sentinel(true);
+
+    private final Comparable[] components;
+
+    public CompositeValue(Comparable[] components) {
+        this.components = components;
+    }
+
+    public Comparable[] getComponents() {
+        return components;
+    }
+
+    @Override
+    public int compareTo(CompositeValue that) {
+        Comparable[] other = that.components;
+        int length = Math.min(components.length, other.length);
+        for (int i = 0; i < length; i++) {
+            int result = compareComponent(components[i], other[i]);
+            if (result != 0) {
+                return result;
+            }
+        }
+        if (components.length == other.length) {
+            return 0;
+        }
+        if (components.length > other.length) {
+            return components[length] == NEGATIVE_INFINITY ? -1 : 1;
+        }
+        return other[length] == NEGATIVE_INFINITY ? 1 : -1;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static int compareComponent(Comparable left, Comparable right) {
+        if (left == right) {
+            return 0;
+        }
+        if (left == NEGATIVE_INFINITY || right == POSITIVE_INFINITY) {
+            return -1;
+        }
+        if (left == POSITIVE_INFINITY || right == NEGATIVE_INFINITY) {
+            return 1;
+        }
+        if (left instanceof IndexImpl.NullObject) {
+            return right instanceof IndexImpl.NullObject ? 0 : -1;
+        }
+        if (right instanceof IndexImpl.NullObject) {
+            return 1;
+        }
+        return left.compareTo(right);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        return Arrays.equals(components, ((CompositeValue) o).components);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(components);
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(components);
+    }
+
+    private static final class Sentinel implements Comparable {
+
+        private final boolean positive;
+
+        private Sentinel(boolean positive) {
+            this.positive = positive;
+        }
+
+        @Override
+        public int compareTo(Object o) {
+            if (o == this) {
+                return 0;
+            }
+            return positive ? 1 : -1;
+        }
+
+        @Override
+        public String toString() {
+            return positive ? "+INF" : "-INF";
+        }
+    }
+}
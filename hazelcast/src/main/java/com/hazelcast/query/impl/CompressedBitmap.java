@@ -0,0 +1,559 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A compressed bitmap of non-negative ints in the style of a roaring bitmap.
+ * <p/>
+ * The int space is split into chunks of 2^16 values keyed by the high 16 bits. A chunk holding at most
+ * {@link #ARRAY_CONTAINER_MAX_SIZE} values is stored as a sorted char array, a denser chunk as a plain 8 KB
+ * bitmap. The set operations work chunk by chunk and always return a new bitmap.
+ * <p/>
+ * This class is not thread-safe.
+ */
+final class CompressedBitmap {
+
+    static final int ARRAY_CONTAINER_MAX_SIZE = 4096;
+
+    private static final int CHUNK_BITS = 16;
+    private static final int LOW_BITS_MASK = 0xFFFF;
+    private static final int WORD_BITS = 6;
+    private static final int WORD_MASK = 63;
+    private static final int WORDS_PER_CHUNK = (1 << CHUNK_BITS) >>> WORD_BITS;
+    private static final int INITIAL_CAPACITY = 4;
+    private static final int BYTES_PER_WORD = 8;
+
+    private char[] keys;
+    private Container[] containers;
+    private int size;
+
+    CompressedBitmap() {
+        this(INITIAL_CAPACITY);
+    }
+
+    private CompressedBitmap(int capacity) {
+        keys = new char[capacity];
+        containers = new Container[capacity];
+    }
+
+    void add(int value) {
+        char high = (char) (value >>> CHUNK_BITS);
+        int index = indexOf(high);
+        if (index < 0) {
+            index = -index - 1;
+            insertContainer(index, high, new ArrayContainer());
+        }
+        containers[index] = containers[index].add((char) (value & LOW_BITS_MASK));
+    }
+
+    void remove(int value) {
+        int index = indexOf((char) (value >>> CHUNK_BITS));
+        if (index < 0) {
+            return;
+        }
+        Container container = containers[index].remove((char) (value & LOW_BITS_MASK));
+        if (container.cardinality == 0) {
+            removeContainer(index);
+        } else {
+            containers[index] = container;
+        }
+    }
+
+    boolean contains(int value) {
+        int index = indexOf((char) (value >>> CHUNK_BITS));
+        return index >= 0 && containers[index].contains((char) (value & LOW_BITS_MASK));
+    }
+
+    int cardinality() {
+        int cardinality = 0;
+        for (int i = 0; i < size; i++) {
+            cardinality += containers[i].cardinality;
+        }
+        return cardinality;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return an estimate of the heap taken by the chunks of this bitmap
+     */
+    long sizeInBytes() {
+        long bytes = 0;
+        for (int i = 0; i < size; i++) {
+            bytes += containers[i].sizeInBytes();
+        }
+        return bytes;
+    }
+
+    CompressedBitmap copy() {
+        CompressedBitmap copy = new CompressedBitmap(Math.max(size, INITIAL_CAPACITY));
+        for (int i = 0; i < size; i++) {
+            copy.append(keys[i], containers[i].copy());
+        }
+        return copy;
+    }
+
+    CompressedBitmap and(CompressedBitmap other) {
+        CompressedBitmap result = new CompressedBitmap(Math.max(Math.min(size, other.size), INITIAL_CAPACITY));
+        int i = 0;
+        int j = 0;
+        while (i < size && j < other.size) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                result.appendIfNotEmpty(keys[i], containers[i].and(other.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    CompressedBitmap or(CompressedBitmap other) {
+        CompressedBitmap result = new CompressedBitmap(Math.max(size + other.size, INITIAL_CAPACITY));
+        int i = 0;
+        int j = 0;
+        while (i < size || j < other.size) {
+            if (j == other.size || (i < size && keys[i] < other.keys[j])) {
+                result.append(keys[i], containers[i].copy());
+                i++;
+            } else if (i == size || keys[i] > other.keys[j]) {
+                result.append(other.keys[j], other.containers[j].copy());
+                j++;
+            } else {
+                result.append(keys[i], containers[i].or(other.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    CompressedBitmap andNot(CompressedBitmap other) {
+        CompressedBitmap result = new CompressedBitmap(Math.max(size, INITIAL_CAPACITY));
+        int j = 0;
+        for (int i = 0; i < size; i++) {
+            while (j < other.size && other.keys[j] < keys[i]) {
+                j++;
+            }
+            if (j < other.size && other.keys[j] == keys[i]) {
+                result.appendIfNotEmpty(keys[i], containers[i].andNot(other.containers[j]));
+            } else {
+                result.append(keys[i], containers[i].copy());
+            }
+        }
+        return result;
+    }
+
+    IntIterator iterator() {
+        return new IntIterator();
+    }
+
+    private int indexOf(char key) {
+        return Arrays.binarySearch(keys, 0, size, key);
+    }
+
+    private void appendIfNotEmpty(char key, Container container) {
+        if (container.cardinality > 0) {
+            append(key, container);
+        }
+    }
+
+    private void append(char key, Container container) {
+        insertContainer(size, key, container);
+    }
+
+    private void insertContainer(int index, char key, Container container) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            containers = Arrays.copyOf(containers, size * 2);
+        }
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(containers, index, containers, index + 1, size - index);
+        keys[index] = key;
+        containers[index] = container;
+        size++;
+    }
+
+    private void removeContainer(int index) {
+        System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+        System.arraycopy(containers, index + 1, containers, index, size - index - 1);
+        size--;
+        containers[size] = null;
+    }
+
+    /**
+     * Iterates the values of the bitmap in ascending order.
+     */
+    final class IntIterator {
+        private int containerIndex;
+        private int nextLow = -1;
+
+        private IntIterator() {
+            advance(0);
+        }
+
+        boolean hasNext() {
+            return containerIndex < size;
+        }
+
+        int next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            int value = (keys[containerIndex] << CHUNK_BITS) | nextLow;
+            advance(nextLow + 1);
+            return value;
+        }
+
+        private void advance(int fromLow) {
+            int from = fromLow;
+            while (containerIndex < size) {
+                nextLow = from > LOW_BITS_MASK ? -1 : containers[containerIndex].nextValue(from);
+                if (nextLow >= 0) {
+                    return;
+                }
+                containerIndex++;
+                from = 0;
+            }
+        }
+    }
+
+    /**
+     * The values of a single chunk.
+     */
+    private abstract static class Container {
+        int cardinality;
+
+        abstract Container add(char value);
+
+        abstract Container remove(char value);
+
+        abstract boolean contains(char value);
+
+        abstract Container copy();
+
+        abstract Container and(Container other);
+
+        abstract Container or(Container other);
+
+        abstract Container andNot(Container other);
+
+        /**
+         * @return the smallest value in this container not less than {@code from}, or -1 if there is none
+         */
+        abstract int nextValue(int from);
+
+        abstract long sizeInBytes();
+    }
+
+    /**
+     * A sparse chunk: its values as a sorted array.
+     */
+    private static final class ArrayContainer extends Container {
+        private char[] values;
+
+        ArrayContainer() {
+            values = new char[INITIAL_CAPACITY];
+        }
+
+        ArrayContainer(char[] values, int cardinality) {
+            this.values = values;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        Container add(char value) {
+            int index = Arrays.binarySearch(values, 0, cardinality, value);
+            if (index >= 0) {
+                return this;
+            }
+            if (cardinality == ARRAY_CONTAINER_MAX_SIZE) {
+                return toBitmapContainer().add(value);
+            }
+            index = -index - 1;
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values, Math.min(cardinality * 2, ARRAY_CONTAINER_MAX_SIZE));
+            }
+            System.arraycopy(values, index, values, index + 1, cardinality - index);
+            values[index] = value;
+            cardinality++;
+            return this;
+        }
+
+        @Override
+        Container remove(char value) {
+            int index = Arrays.binarySearch(values, 0, cardinality, value);
+            if (index >= 0) {
+                System.arraycopy(values, index + 1, values, index, cardinality - index - 1);
+                cardinality--;
+            }
+            return this;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return Arrays.binarySearch(values, 0, cardinality, value) >= 0;
+        }
+
+        @Override
+        Container copy() {
+            return new ArrayContainer(Arrays.copyOf(values, Math.max(cardinality, INITIAL_CAPACITY)), cardinality);
+        }
+
+        @Override
+        Container and(Container other) {
+            char[] result = new char[cardinality];
+            int count = 0;
+            if (other instanceof ArrayContainer) {
+                ArrayContainer that = (ArrayContainer) other;
+                int i = 0;
+                int j = 0;
+                while (i < cardinality && j < that.cardinality) {
+                    if (values[i] < that.values[j]) {
+                        i++;
+                    } else if (values[i] > that.values[j]) {
+                        j++;
+                    } else {
+                        result[count++] = values[i];
+                        i++;
+                        j++;
+                    }
+                }
+            } else {
+                for (int i = 0; i < cardinality; i++) {
+                    if (other.contains(values[i])) {
+                        result[count++] = values[i];
+                    }
+                }
+            }
+            return new ArrayContainer(result, count);
+        }
+
+        @Override
+        Container or(Container other) {
+            if (other instanceof BitmapContainer) {
+                return other.or(this);
+            }
+            ArrayContainer that = (ArrayContainer) other;
+            char[] result = new char[cardinality + that.cardinality];
+            int count = 0;
+            int i = 0;
+            int j = 0;
+            while (i < cardinality || j < that.cardinality) {
+                if (j == that.cardinality || (i < cardinality && values[i] < that.values[j])) {
+                    result[count++] = values[i++];
+                } else if (i == cardinality || values[i] > that.values[j]) {
+                    result[count++] = that.values[j++];
+                } else {
+                    result[count++] = values[i++];
+                    j++;
+                }
+            }
+            ArrayContainer union = new ArrayContainer(result, count);
+            return count > ARRAY_CONTAINER_MAX_SIZE ? union.toBitmapContainer() : union;
+        }
+
+        @Override
+        Container andNot(Container other) {
+            char[] result = new char[cardinality];
+            int count = 0;
+            for (int i = 0; i < cardinality; i++) {
+                if (!other.contains(values[i])) {
+                    result[count++] = values[i];
+                }
+            }
+            return new ArrayContainer(result, count);
+        }
+
+        @Override
+        int nextValue(int from) {
+            int index = Arrays.binarySearch(values, 0, cardinality, (char) from);
+            if (index < 0) {
+                index = -index - 1;
+            }
+            return index < cardinality ? values[index] : -1;
+        }
+
+        @Override
+        long sizeInBytes() {
+            return values.length * 2L;
+        }
+
+        private BitmapContainer toBitmapContainer() {
+            BitmapContainer bitmap = new BitmapContainer();
+            for (int i = 0; i < cardinality; i++) {
+                bitmap.set(values[i]);
+            }
+            bitmap.cardinality = cardinality;
+            return bitmap;
+        }
+    }
+
+    /**
+     * A dense chunk: one bit per possible value.
+     */
+    private static final class BitmapContainer extends Container {
+        private final long[] words;
+
+        BitmapContainer() {
+            words = new long[WORDS_PER_CHUNK];
+        }
+
+        BitmapContainer(long[] words, int cardinality) {
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        void set(char value) {
+            words[value >>> WORD_BITS] |= 1L << (value & WORD_MASK);
+        }
+
+        @Override
+        Container add(char value) {
+            if (!contains(value)) {
+                set(value);
+                cardinality++;
+            }
+            return this;
+        }
+
+        @Override
+        Container remove(char value) {
+            if (contains(value)) {
+                words[value >>> WORD_BITS] &= ~(1L << (value & WORD_MASK));
+                cardinality--;
+                if (cardinality <= ARRAY_CONTAINER_MAX_SIZE) {
+                    return toArrayContainer();
+                }
+            }
+            return this;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return (words[value >>> WORD_BITS] & (1L << (value & WORD_MASK))) != 0;
+        }
+
+        @Override
+        Container copy() {
+            return new BitmapContainer(words.clone(), cardinality);
+        }
+
+        @Override
+        Container and(Container other) {
+            if (other instanceof ArrayContainer) {
+                return other.and(this);
+            }
+            long[] that = ((BitmapContainer) other).words;
+            long[] result = new long[WORDS_PER_CHUNK];
+            for (int i = 0; i < WORDS_PER_CHUNK; i++) {
+                result[i] = words[i] & that[i];
+            }
+            return optimize(result);
+        }
+
+        @Override
+        Container or(Container other) {
+            long[] result = words.clone();
+            if (other instanceof ArrayContainer) {
+                ArrayContainer that = (ArrayContainer) other;
+                for (int i = 0; i < that.cardinality; i++) {
+                    char value = that.values[i];
+                    result[value >>> WORD_BITS] |= 1L << (value & WORD_MASK);
+                }
+            } else {
+                long[] that = ((BitmapContainer) other).words;
+                for (int i = 0; i < WORDS_PER_CHUNK; i++) {
+                    result[i] |= that[i];
+                }
+            }
+            return new BitmapContainer(result, bitCount(result));
+        }
+
+        @Override
+        Container andNot(Container other) {
+            long[] result = words.clone();
+            if (other instanceof ArrayContainer) {
+                ArrayContainer that = (ArrayContainer) other;
+                for (int i = 0; i < that.cardinality; i++) {
+                    char value = that.values[i];
+                    result[value >>> WORD_BITS] &= ~(1L << (value & WORD_MASK));
+                }
+            } else {
+                long[] that = ((BitmapContainer) other).words;
+                for (int i = 0; i < WORDS_PER_CHUNK; i++) {
+                    result[i] &= ~that[i];
+                }
+            }
+            return optimize(result);
+        }
+
+        @Override
+        int nextValue(int from) {
+            int wordIndex = from >>> WORD_BITS;
+            if (wordIndex >= WORDS_PER_CHUNK) {
+                return -1;
+            }
+            long word = words[wordIndex] & (-1L << (from & WORD_MASK));
+            while (true) {
+                if (word != 0) {
+                    return (wordIndex << WORD_BITS) + Long.numberOfTrailingZeros(word);
+                }
+                if (++wordIndex == WORDS_PER_CHUNK) {
+                    return -1;
+                }
+                word = words[wordIndex];
+            }
+        }
+
+        @Override
+        long sizeInBytes() {
+            return words.length * (long) BYTES_PER_WORD;
+        }
+
+        private static Container optimize(long[] words) {
+            int cardinality = bitCount(words);
+            BitmapContainer container = new BitmapContainer(words, cardinality);
+            return cardinality <= ARRAY_CONTAINER_MAX_SIZE ? container.toArrayContainer() : container;
+        }
+
+        private static int bitCount(long[] words) {
+            int count = 0;
+            for (long word : words) {
+                count += Long.bitCount(word);
+            }
+            return count;
+        }
+
+        private ArrayContainer toArrayContainer() {
+            char[] values = new char[Math.max(cardinality, INITIAL_CAPACITY)];
+            int count = 0;
+            for (int value = nextValue(0); value >= 0; value = nextValue(value + 1)) {
+                values[count++] = (char) value;
+            }
+            return new ArrayContainer(values, count);
+        }
+    }
+}
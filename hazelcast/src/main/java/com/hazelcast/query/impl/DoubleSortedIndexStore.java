@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.query.impl;
+
+/**
+ * {@link PrimitiveSortedIndexStore} for double and float attributes.
+ * <p/>
+ * The key is the IEEE 754 bit pattern with the magnitude bits of negative values flipped, so that comparing keys
+ * as signed longs orders them as {@link Double#compareTo(Double)} does, including {@code -0.0 < 0.0} and NaN
+ * sorting last.
+ */
+public class DoubleSortedIndexStore extends PrimitiveSortedIndexStore {
+
+    @Override
+    long toKey(Number value) {
+        return flipNegative(Double.doubleToLongBits(value.doubleValue()));
+    }
+
+    @Override
+    Comparable fromKey(long key) {
+        return Double.longBitsToDouble(flipNegative(key));
+    }
+
+    /**
+     * Flips the magnitude bits if the sign bit is set; the sign bit is kept, so the transformation is its own inverse.
+     */
+    private static long flipNegative(long bits) {
+        return bits ^ ((bits >> (Long.SIZE - 1)) & Long.MAX_VALUE);
+    }
+}
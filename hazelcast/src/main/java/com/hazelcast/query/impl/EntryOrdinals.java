@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl;
+
+import com.hazelcast.nio.serialization.Data;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Assigns dense int ordinals to the entries indexed by the bitmap indexes of one {@link Indexes}.
+ * <p/>
+ * All bitmap indexes of a data-structure share the ordinals, so their bitmaps can be combined with bitwise
+ * operations and the entries are looked up by ordinal only for the final matches. The ordinal of a removed entry
+ * is reused by the next entry that is added.
+ * <p/>
+ * Since the entries are looked up after the lookups into the indexes completed, an ordinal may be reused by another
+ * key in between. Every assignment of an ordinal to a key therefore gets a new generation: a result captures the
+ * {@link #generation()} before its lookup and ignores the ordinals assigned after it.
+ */
+final class EntryOrdinals {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final ConcurrentMap<Data, Integer> ordinals = new ConcurrentHashMap<Data, Integer>();
+
+    private volatile AtomicReferenceArray<Slot> slots = new AtomicReferenceArray<Slot>(INITIAL_CAPACITY);
+
+    private volatile long generation;
+
+    private int[] freeOrdinals = new int[INITIAL_CAPACITY];
+    private int freeCount;
+    private int nextOrdinal;
+
+    /**
+     * Returns the ordinal of the entry's key, assigning one if the key doesn't have it yet, and makes the entry
+     * the one returned for that ordinal.
+     *
+     * @param entry the entry to index
+     * @return the ordinal of the entry
+     */
+    synchronized int assign(QueryableEntry entry) {
+        Data key = entry.getKeyData();
+        Integer ordinal = ordinals.get(key);
+        if (ordinal == null) {
+            int value = freeCount > 0 ? freeOrdinals[--freeCount] : nextOrdinal++;
+            ensureCapacity(value);
+            ordinals.put(key, value);
+            slots.set(value, new Slot(entry, ++generation));
+            return value;
+        }
+        AtomicReferenceArray<Slot> current = slots;
+        current.set(ordinal, new Slot(entry, current.get(ordinal).generation));
+        return ordinal;
+    }
+
+    /**
+     * @param key the key of an entry
+     * @return the ordinal of the entry or -1 if it has none
+     */
+    int getOrdinal(Data key) {
+        Integer ordinal = ordinals.get(key);
+        return ordinal == null ? -1 : ordinal;
+    }
+
+    /**
+     * @return the generation of the latest assignment of an ordinal to a key
+     */
+    long generation() {
+        return generation;
+    }
+
+    /**
+     * @param ordinal    an ordinal
+     * @param generation the generation the ordinal was looked up at
+     * @return the entry with the ordinal or null if the ordinal is not in use or was assigned to its key after the
+     * given generation
+     */
+    QueryableEntry getEntry(int ordinal, long generation) {
+        AtomicReferenceArray<Slot> current = slots;
+        Slot slot = ordinal < current.length() ? current.get(ordinal) : null;
+        return slot == null || slot.generation > generation ? null : slot.entry;
+    }
+
+    /**
+     * Releases the ordinal of the key, so it can be reused. Must be called once the entry is removed from all
+     * bitmap indexes.
+     *
+     * @param key the key of the removed entry
+     */
+    synchronized void release(Data key) {
+        Integer ordinal = ordinals.remove(key);
+        if (ordinal == null) {
+            return;
+        }
+        slots.set(ordinal, null);
+        if (freeCount == freeOrdinals.length) {
+            int[] grown = new int[freeCount * 2];
+            System.arraycopy(freeOrdinals, 0, grown, 0, freeCount);
+            freeOrdinals = grown;
+        }
+        freeOrdinals[freeCount++] = ordinal;
+    }
+
+    private void ensureCapacity(int ordinal) {
+        AtomicReferenceArray<Slot> current = slots;
+        if (ordinal < current.length()) {
+            return;
+        }
+        AtomicReferenceArray<Slot> grown = new AtomicReferenceArray<Slot>(current.length() * 2);
+        for (int i = 0; i < current.length(); i++) {
+            grown.set(i, current.get(i));
+        }
+        slots = grown;
+    }
+
+    /**
+     * The entry of an ordinal and the generation the ordinal was assigned to the entry's key at.
+     */
+    private static final class Slot {
+        final QueryableEntry entry;
+        final long generation;
+
+        Slot(QueryableEntry entry, long generation) {
+            this.entry = entry;
+            this.generation = generation;
+        }
+    }
+}
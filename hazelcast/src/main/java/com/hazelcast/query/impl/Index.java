@@ -58,4 +58,11 @@ public interface Index {
     String getAttributeName();
 
     boolean isOrdered();
+
+    /**
+     * Returns the statistics of the indexed values, which are rebuilt lazily once enough of them changed.
+     *
+     * @return the statistics, {@link IndexStatistics#EMPTY} if nothing has been indexed yet
+     */
+    IndexStatistics getStatistics();
 }
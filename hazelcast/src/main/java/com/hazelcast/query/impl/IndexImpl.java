@@ -31,13 +31,19 @@ import java.util.HashSet;
 import java.util.Set;
 import java.util.concurrent.ConcurrentMap;
 
+import static com.hazelcast.query.impl.TypeConverters.BYTE_CONVERTER;
+import static com.hazelcast.query.impl.TypeConverters.DOUBLE_CONVERTER;
+import static com.hazelcast.query.impl.TypeConverters.FLOAT_CONVERTER;
+import static com.hazelcast.query.impl.TypeConverters.INTEGER_CONVERTER;
+import static com.hazelcast.query.impl.TypeConverters.LONG_CONVERTER;
 import static com.hazelcast.query.impl.TypeConverters.NULL_CONVERTER;
+import static com.hazelcast.query.impl.TypeConverters.SHORT_CONVERTER;
 
 public class IndexImpl implements Index {
 
     public static final NullObject NULL = new NullObject();
 
-    private final IndexStore indexStore;
+    private volatile IndexStore indexStore;
     private final String attributeName;
     private final boolean ordered;
 
@@ -47,10 +53,16 @@ public class IndexImpl implements Index {
     private final Extractors extractors;
 
     public IndexImpl(String attributeName, boolean ordered, SerializationService ss, Extractors extractors) {
+        // an ordered index store is specialised on the attribute type, so it is created with the first entry
+        this(attributeName, ordered, ss, extractors, ordered ? null : new UnsortedIndexStore());
+    }
+
+    protected IndexImpl(String attributeName, boolean ordered, SerializationService ss, Extractors extractors,
+                        IndexStore indexStore) {
         this.attributeName = attributeName;
         this.ordered = ordered;
         this.ss = ss;
-        this.indexStore = ordered ? new SortedIndexStore() : new UnsortedIndexStore();
+        this.indexStore = indexStore;
         this.extractors = extractors;
     }
 
@@ -64,7 +76,11 @@ public class IndexImpl implements Index {
          * this causes to class cast exceptions.
          */
         if (converter == null || converter == NULL_CONVERTER) {
-            converter = entry.getConverter(attributeName);
+            TypeConverter entryConverter = entry.getConverter(attributeName);
+            if (indexStore == null) {
+                initSortedIndexStore(entryConverter);
+            }
+            converter = entryConverter;
         }
 
         Object newAttributeValue = extractAttributeValue(entry.getKeyData(), entry.getValue());
@@ -76,10 +92,35 @@ public class IndexImpl implements Index {
         }
     }
 
+    private synchronized void initSortedIndexStore(TypeConverter entryConverter) {
+        if (indexStore == null) {
+            indexStore = createSortedIndexStore(entryConverter);
+        }
+    }
+
+    /**
+     * Chooses the sorted index store for the type of the attribute. Long and double attributes, and the narrower
+     * integral and floating point types, get a {@link PrimitiveSortedIndexStore} that does not box the values.
+     * If the first indexed value is {@code null}, the type is unknown and a {@link SortedIndexStore} is used.
+     */
+    static IndexStore createSortedIndexStore(TypeConverter converter) {
+        if (converter == LONG_CONVERTER || converter == INTEGER_CONVERTER
+                || converter == SHORT_CONVERTER || converter == BYTE_CONVERTER) {
+            return new LongSortedIndexStore();
+        }
+        if (converter == DOUBLE_CONVERTER || converter == FLOAT_CONVERTER) {
+            return new DoubleSortedIndexStore();
+        }
+        return new SortedIndexStore();
+    }
+
     @Override
     public void removeEntryIndex(Data key, Object value) {
-        Object attributeValue = extractAttributeValue(key, value);
-        indexStore.removeIndex(attributeValue, key);
+        IndexStore store = indexStore;
+        if (store != null) {
+            Object attributeValue = extractAttributeValue(key, value);
+            store.removeIndex(attributeValue, key);
+        }
     }
 
     private Object extractAttributeValue(Data key, Object value) {
@@ -147,7 +188,10 @@ public class IndexImpl implements Index {
 
     @Override
     public void clear() {
-        indexStore.clear();
+        IndexStore store = indexStore;
+        if (store != null) {
+            store.clear();
+        }
         converter = null;
     }
 
@@ -161,8 +205,19 @@ public class IndexImpl implements Index {
         return ordered;
     }
 
+    @Override
+    public IndexStatistics getStatistics() {
+        IndexStore store = indexStore;
+        return store == null ? IndexStatistics.EMPTY : store.getStatistics();
+    }
+
     ConcurrentMap<Data, QueryableEntry> getRecordMap(Comparable indexValue) {
-        return indexStore.getRecordMap(indexValue);
+        IndexStore store = indexStore;
+        return store == null ? null : store.getRecordMap(indexValue);
+    }
+
+    IndexStore getIndexStore() {
+        return indexStore;
     }
 
     public static final class NullObject implements Comparable, DataSerializable {
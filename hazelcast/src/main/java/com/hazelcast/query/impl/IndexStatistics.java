@@ -0,0 +1,268 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.query.impl;
+
+/**
+ * Snapshot of the statistics of an index, used to estimate how many entries a predicate matches.
+ * <p/>
+ * Every store counts its non-null values, distinct values and null values as they change. Sorted stores also build
+ * an equi-depth histogram from a snapshot or a sample of their values: boundary values with the number of values up to
+ * each of them, taken every {@code depth} values, where the depth doubles as needed to keep between
+ * {@link #HISTOGRAM_CAPACITY half} and {@link #HISTOGRAM_CAPACITY} buckets. The histogram is scaled to the counted
+ * values. A range is estimated from the buckets it covers, interpolating linearly inside a bucket of numbers.
+ * <p/>
+ * Estimates are counts of indexed values; an entry with a multi-value attribute is counted once per value.
+ */
+public final class IndexStatistics {
+
+    /**
+     * Statistics of an index without values.
+     */
+    public static final IndexStatistics EMPTY = new Builder(0, 0, 0).build();
+
+    /**
+     * Fraction of the values assumed to be in a range when there is no histogram.
+     */
+    public static final double DEFAULT_RANGE_SELECTIVITY = 1 / 3d;
+
+    static final int HISTOGRAM_CAPACITY = 128;
+
+    private static final double HALF = 0.5d;
+
+    private final long valueCount;
+    private final long distinctCount;
+    private final long nullCount;
+    private final Comparable min;
+    private final Comparable[] bounds;
+    private final long[] cumulativeCounts;
+
+    private IndexStatistics(Builder builder) {
+        this.valueCount = builder.valueCount;
+        this.distinctCount = builder.distinctCount;
+        this.nullCount = builder.nullCount;
+        this.min = builder.min;
+        if (builder.size > 0 && valueCount > 0) {
+            this.bounds = new Comparable[builder.size];
+            this.cumulativeCounts = new long[builder.size];
+            System.arraycopy(builder.bounds, 0, bounds, 0, builder.size);
+            // the histogram may have been taken from a sample or while the store changed
+            double scale = (double) valueCount / builder.cumulativeCounts[builder.size - 1];
+            for (int i = 0; i < builder.size; i++) {
+                cumulativeCounts[i] = Math.round(builder.cumulativeCounts[i] * scale);
+            }
+        } else {
+            this.bounds = null;
+            this.cumulativeCounts = null;
+        }
+    }
+
+    /**
+     * @return the number of indexed values, including nulls
+     */
+    public long getEntryCount() {
+        return valueCount + nullCount;
+    }
+
+    public long getValueCount() {
+        return valueCount;
+    }
+
+    public long getDistinctCount() {
+        return distinctCount;
+    }
+
+    public long getNullCount() {
+        return nullCount;
+    }
+
+    /**
+     * @return the number of histogram buckets, 0 if the index is not sorted or empty
+     */
+    public int getBucketCount() {
+        return bounds == null ? 0 : bounds.length;
+    }
+
+    /**
+     * Estimates the number of values equal to a value, assuming the values are spread uniformly.
+     */
+    public double estimateEqual() {
+        return distinctCount == 0 ? 0 : (double) valueCount / distinctCount;
+    }
+
+    /**
+     * Estimates the number of non-null values in a range.
+     *
+     * @param from          the lower bound converted to the type of the index, or {@code null} if there is none
+     * @param fromInclusive true if the lower bound is part of the range
+     * @param to            the upper bound converted to the type of the index, or {@code null} if there is none
+     * @param toInclusive   true if the upper bound is part of the range
+     * @return the estimated number of values
+     */
+    public double estimateRange(Comparable from, boolean fromInclusive, Comparable to, boolean toInclusive) {
+        if (valueCount == 0 || from instanceof IndexImpl.NullObject || to instanceof IndexImpl.NullObject) {
+            // null values are never within a range
+            return 0;
+        }
+        if (bounds == null) {
+            return valueCount * DEFAULT_RANGE_SELECTIVITY;
+        }
+        double upper = to == null ? valueCount : estimateUpTo(to, toInclusive);
+        double lower = from == null ? 0 : estimateUpTo(from, !fromInclusive);
+        return Math.max(0, upper - lower);
+    }
+
+    /**
+     * Estimates the number of values lower than the value, or lower or equal if {@code inclusive}.
+     */
+    private double estimateUpTo(Comparable value, boolean inclusive) {
+        if (compare(value, min) < 0) {
+            return 0;
+        }
+        int bucket = findBucket(value);
+        if (bucket == bounds.length) {
+            return valueCount;
+        }
+        long lowCount = bucket == 0 ? 0 : cumulativeCounts[bucket - 1];
+        long highCount = cumulativeCounts[bucket];
+        if (compare(value, bounds[bucket]) == 0) {
+            return inclusive ? highCount : Math.max(lowCount, highCount - estimateEqual());
+        }
+        Comparable low = bucket == 0 ? min : bounds[bucket - 1];
+        return lowCount + interpolate(low, bounds[bucket], value) * (highCount - lowCount);
+    }
+
+    /**
+     * Returns the first bucket whose upper bound is not lower than the value, or the bucket count if there is none.
+     */
+    private int findBucket(Comparable value) {
+        int low = 0;
+        int high = bounds.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (compare(bounds[mid], value) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    private static double interpolate(Comparable low, Comparable high, Comparable value) {
+        if (low instanceof Number && high instanceof Number && value instanceof Number) {
+            double range = ((Number) high).doubleValue() - ((Number) low).doubleValue();
+            if (range <= 0) {
+                return 1;
+            }
+            double fraction = (((Number) value).doubleValue() - ((Number) low).doubleValue()) / range;
+            return Math.min(1, Math.max(0, fraction));
+        }
+        return HALF;
+    }
+
+    /**
+     * Compares numbers of different types, for example an int query value with the long values of a
+     * {@link LongSortedIndexStore}, by their double values.
+     */
+    @SuppressWarnings("unchecked")
+    private static int compare(Comparable left, Comparable right) {
+        if (left instanceof Number && right instanceof Number && left.getClass() != right.getClass()) {
+            return Double.compare(((Number) left).doubleValue(), ((Number) right).doubleValue());
+        }
+        return left.compareTo(right);
+    }
+
+    @Override
+    public String toString() {
+        return "IndexStatistics{"
+                + "values=" + valueCount
+                + ", distinct=" + distinctCount
+                + ", nulls=" + nullCount
+                + ", buckets=" + getBucketCount()
+                + '}';
+    }
+
+    /**
+     * Collects the statistics of a store: the counts of its values and, for sorted stores, the histogram.
+     */
+    static final class Builder {
+
+        private final long valueCount;
+        private final long distinctCount;
+        private final long nullCount;
+        private Comparable min;
+        private Comparable max;
+
+        private Comparable[] bounds;
+        private long[] cumulativeCounts;
+        private long histogramCount;
+        private int size;
+        private long depth = 1;
+        private long nextBound = 1;
+
+        Builder(long valueCount, long distinctCount, long nullCount) {
+            this.valueCount = valueCount;
+            this.distinctCount = distinctCount;
+            this.nullCount = nullCount;
+        }
+
+        /**
+         * Adds a value to the histogram. Sorted stores have to add their values in ascending order, with the number
+         * of values each of them stands for.
+         */
+        void add(Comparable value, long count) {
+            if (count <= 0) {
+                return;
+            }
+            if (bounds == null) {
+                bounds = new Comparable[HISTOGRAM_CAPACITY];
+                cumulativeCounts = new long[HISTOGRAM_CAPACITY];
+                min = value;
+            }
+            histogramCount += count;
+            max = value;
+            if (histogramCount >= nextBound) {
+                addBound(value);
+            }
+        }
+
+        private void addBound(Comparable value) {
+            bounds[size] = value;
+            cumulativeCounts[size] = histogramCount;
+            size++;
+            nextBound = valueCount + depth;
+            if (size == HISTOGRAM_CAPACITY) {
+                // keep every second bound, the buckets become twice as deep
+                size /= 2;
+                for (int i = 0; i < size; i++) {
+                    bounds[i] = bounds[2 * i + 1];
+                    cumulativeCounts[i] = cumulativeCounts[2 * i + 1];
+                }
+                depth *= 2;
+                nextBound = cumulativeCounts[size - 1] + depth;
+            }
+        }
+
+        IndexStatistics build() {
+            if (max != null && (size == 0 || cumulativeCounts[size - 1] != histogramCount)) {
+                addBound(max);
+            }
+            return new IndexStatistics(this);
+        }
+    }
+}
@@ -36,4 +36,9 @@ public interface IndexStore {
     Set<QueryableEntry> getRecords(Comparable value);
     Set<QueryableEntry> getRecords(Set<Comparable> values);
     ConcurrentMap<Data, QueryableEntry> getRecordMap(Comparable indexValue);
+
+    /**
+     * @return the statistics of the indexed values, possibly a little stale
+     */
+    IndexStatistics getStatistics();
 }
@@ -36,6 +36,7 @@ public class Indexes {
     private final ConcurrentMap<String, Index> mapIndexes = new ConcurrentHashMap<String, Index>(3);
     private final AtomicReference<Index[]> indexes = new AtomicReference<Index[]>(EMPTY_INDEX);
     private volatile boolean hasIndex;
+    private volatile EntryOrdinals entryOrdinals;
     private final SerializationService serializationService;
     private Extractors extractors;
 
@@ -49,11 +50,35 @@ public class Indexes {
     }
 
     public synchronized Index addOrGetIndex(String attribute, boolean ordered) {
+        return addOrGetIndex(attribute, ordered, false);
+    }
+
+    /**
+     * Adds an index for the attribute or returns the existing one.
+     *
+     * @param attribute the attribute, or a comma separated list of attributes for a composite index
+     * @param ordered   true if the index should be ordered
+     * @param bitmap    true if the index should be a {@link BitmapIndex}; it can't be ordered or composite
+     * @return the index
+     */
+    public synchronized Index addOrGetIndex(String attribute, boolean ordered, boolean bitmap) {
         Index index = mapIndexes.get(attribute);
         if (index != null) {
             return index;
         }
-        index = new IndexImpl(attribute, ordered, serializationService, extractors);
+        if (bitmap && (ordered || CompositeIndex.isComposite(attribute))) {
+            throw new IllegalArgumentException("A bitmap index can be neither ordered nor composite: " + attribute);
+        }
+        if (bitmap) {
+            if (entryOrdinals == null) {
+                entryOrdinals = new EntryOrdinals();
+            }
+            index = new BitmapIndex(attribute, serializationService, extractors, entryOrdinals);
+        } else if (CompositeIndex.isComposite(attribute)) {
+            index = new CompositeIndex(attribute, ordered, serializationService, extractors);
+        } else {
+            index = new IndexImpl(attribute, ordered, serializationService, extractors);
+        }
         mapIndexes.put(attribute, index);
         Object[] indexObjects = mapIndexes.values().toArray();
         Index[] newIndexes = new Index[indexObjects.length];
@@ -72,6 +97,7 @@ public class Indexes {
     public void clearIndexes() {
         indexes.set(EMPTY_INDEX);
         mapIndexes.clear();
+        entryOrdinals = null;
         hasIndex = false;
     }
 
@@ -80,6 +106,10 @@ public class Indexes {
         for (Index index : indexes) {
             index.removeEntryIndex(key, value);
         }
+        EntryOrdinals ordinals = entryOrdinals;
+        if (ordinals != null) {
+            ordinals.release(key);
+        }
     }
 
     public boolean hasIndex() {
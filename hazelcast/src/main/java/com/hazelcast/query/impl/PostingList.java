@@ -0,0 +1,215 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.query.impl;
+
+import com.hazelcast.nio.serialization.Data;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Compact posting lists for the primitive sorted index stores.
+ * <p/>
+ * A posting list holds the entries indexed under one attribute value and is represented by the smallest of:
+ * <ul>
+ * <li>a single {@link QueryableEntry}, which is the common case for near-unique values such as timestamps,</li>
+ * <li>an immutable {@code QueryableEntry[]} that is copied on every change, up to {@link #MAX_ARRAY_SIZE} entries,</li>
+ * <li>a {@link ConcurrentMap} keyed by the entry key for larger lists.</li>
+ * </ul>
+ * The first two representations are never modified once published, so a query may keep reading them after the
+ * index lock is released; the map is concurrent, as in {@link SortedIndexStore}.
+ */
+final class PostingList {
+
+    static final int MAX_ARRAY_SIZE = 32;
+
+    private PostingList() {
+    }
+
+    /**
+     * Adds or replaces the entry and returns the posting list that has to be stored from now on.
+     */
+    static Object add(Object postings, QueryableEntry entry) {
+        if (postings == null) {
+            return entry;
+        }
+        if (postings instanceof QueryableEntry) {
+            QueryableEntry existing = (QueryableEntry) postings;
+            if (existing.getKeyData().equals(entry.getKeyData())) {
+                return entry;
+            }
+            return new QueryableEntry[]{existing, entry};
+        }
+        if (postings instanceof QueryableEntry[]) {
+            return addToArray((QueryableEntry[]) postings, entry);
+        }
+        asMap(postings).put(entry.getKeyData(), entry);
+        return postings;
+    }
+
+    private static Object addToArray(QueryableEntry[] entries, QueryableEntry entry) {
+        int index = indexOf(entries, entry.getKeyData());
+        if (index >= 0) {
+            QueryableEntry[] copy = entries.clone();
+            copy[index] = entry;
+            return copy;
+        }
+        if (entries.length < MAX_ARRAY_SIZE) {
+            QueryableEntry[] copy = new QueryableEntry[entries.length + 1];
+            System.arraycopy(entries, 0, copy, 0, entries.length);
+            copy[entries.length] = entry;
+            return copy;
+        }
+        ConcurrentMap<Data, QueryableEntry> map = new ConcurrentHashMap<Data, QueryableEntry>(entries.length * 2);
+        for (QueryableEntry existing : entries) {
+            map.put(existing.getKeyData(), existing);
+        }
+        map.put(entry.getKeyData(), entry);
+        return map;
+    }
+
+    /**
+     * Removes the entry with the given key and returns the posting list that has to be stored from now on, or
+     * {@code null} if the list became empty.
+     */
+    static Object remove(Object postings, Data key) {
+        if (postings == null) {
+            return null;
+        }
+        if (postings instanceof QueryableEntry) {
+            return ((QueryableEntry) postings).getKeyData().equals(key) ? null : postings;
+        }
+        if (postings instanceof QueryableEntry[]) {
+            return removeFromArray((QueryableEntry[]) postings, key);
+        }
+        ConcurrentMap<Data, QueryableEntry> map = asMap(postings);
+        map.remove(key);
+        return map.isEmpty() ? null : map;
+    }
+
+    private static Object removeFromArray(QueryableEntry[] entries, Data key) {
+        int index = indexOf(entries, key);
+        if (index < 0) {
+            return entries;
+        }
+        if (entries.length == 2) {
+            return entries[1 - index];
+        }
+        QueryableEntry[] copy = new QueryableEntry[entries.length - 1];
+        System.arraycopy(entries, 0, copy, 0, index);
+        System.arraycopy(entries, index + 1, copy, index, copy.length - index);
+        return copy;
+    }
+
+    static int size(Object postings) {
+        if (postings == null) {
+            return 0;
+        }
+        if (postings instanceof QueryableEntry) {
+            return 1;
+        }
+        if (postings instanceof QueryableEntry[]) {
+            return ((QueryableEntry[]) postings).length;
+        }
+        return asMap(postings).size();
+    }
+
+    static boolean contains(Object postings, Data key) {
+        if (postings instanceof QueryableEntry) {
+            return ((QueryableEntry) postings).getKeyData().equals(key);
+        }
+        if (postings instanceof QueryableEntry[]) {
+            return indexOf((QueryableEntry[]) postings, key) >= 0;
+        }
+        return postings != null && asMap(postings).containsKey(key);
+    }
+
+    static Iterator<QueryableEntry> iterator(Object postings) {
+        if (postings instanceof QueryableEntry) {
+            return Collections.singleton((QueryableEntry) postings).iterator();
+        }
+        if (postings instanceof QueryableEntry[]) {
+            return new ArrayIterator((QueryableEntry[]) postings);
+        }
+        if (postings == null) {
+            return Collections.<QueryableEntry>emptySet().iterator();
+        }
+        return asMap(postings).values().iterator();
+    }
+
+    /**
+     * Copies the posting list into a new map, as returned by {@link IndexStore#getRecordMap(Comparable)}.
+     */
+    static ConcurrentMap<Data, QueryableEntry> toMap(Object postings) {
+        if (postings == null) {
+            return null;
+        }
+        ConcurrentMap<Data, QueryableEntry> map = new ConcurrentHashMap<Data, QueryableEntry>();
+        Iterator<QueryableEntry> iterator = iterator(postings);
+        while (iterator.hasNext()) {
+            QueryableEntry entry = iterator.next();
+            map.put(entry.getKeyData(), entry);
+        }
+        return map;
+    }
+
+    private static int indexOf(QueryableEntry[] entries, Data key) {
+        for (int i = 0; i < entries.length; i++) {
+            if (entries[i].getKeyData().equals(key)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ConcurrentMap<Data, QueryableEntry> asMap(Object postings) {
+        return (ConcurrentMap<Data, QueryableEntry>) postings;
+    }
+
+    private static final class ArrayIterator implements Iterator<QueryableEntry> {
+
+        private final QueryableEntry[] entries;
+        private int index;
+
+        ArrayIterator(QueryableEntry[] entries) {
+            this.entries = entries;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return index < entries.length;
+        }
+
+        @Override
+        public QueryableEntry next() {
+            if (index >= entries.length) {
+                throw new NoSuchElementException();
+            }
+            return entries[index++];
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.query.impl;
+
+import com.hazelcast.nio.serialization.Data;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Result set over the {@link PostingList posting lists} collected by a primitive sorted index store.
+ * <p/>
+ * Like {@link FastMultiResultSet}, lookups by key are answered by scanning a few posting lists or by a key index
+ * built on first use. When an entry may be indexed under several values of a multi-value attribute, the
+ * duplicates are removed up front, as {@link DuplicateDetectingMultiResult} does.
+ */
+public class PostingListResultSet extends AbstractSet<QueryableEntry> {
+
+    private static final int MAX_SCANNED_POSTING_LISTS = 3;
+
+    private final List<Object> postingLists = new ArrayList<Object>();
+    private final boolean detectDuplicates;
+
+    private Map<Data, QueryableEntry> records;
+
+    PostingListResultSet(boolean detectDuplicates) {
+        this.detectDuplicates = detectDuplicates;
+    }
+
+    void addPostingList(Object postings) {
+        if (postings != null) {
+            postingLists.add(postings);
+        }
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        Data key = ((QueryableEntry) o).getKeyData();
+        if (records == null && postingLists.size() <= MAX_SCANNED_POSTING_LISTS) {
+            for (Object postings : postingLists) {
+                if (PostingList.contains(postings, key)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return getRecords().containsKey(key);
+    }
+
+    @Override
+    public Iterator<QueryableEntry> iterator() {
+        if (detectDuplicates) {
+            return getRecords().values().iterator();
+        }
+        return new It();
+    }
+
+    @Override
+    public int size() {
+        if (detectDuplicates) {
+            return getRecords().size();
+        }
+        int size = 0;
+        for (Object postings : postingLists) {
+            size += PostingList.size(postings);
+        }
+        return size;
+    }
+
+    private Map<Data, QueryableEntry> getRecords() {
+        if (records == null) {
+            records = new HashMap<Data, QueryableEntry>();
+            for (Object postings : postingLists) {
+                Iterator<QueryableEntry> iterator = PostingList.iterator(postings);
+                while (iterator.hasNext()) {
+                    QueryableEntry entry = iterator.next();
+                    records.put(entry.getKeyData(), entry);
+                }
+            }
+        }
+        return records;
+    }
+
+    private final class It implements Iterator<QueryableEntry> {
+
+        private int index;
+        private Iterator<QueryableEntry> current;
+
+        @Override
+        public boolean hasNext() {
+            while (current == null || !current.hasNext()) {
+                if (index >= postingLists.size()) {
+                    return false;
+                }
+                current = PostingList.iterator(postingLists.get(index++));
+            }
+            return true;
+        }
+
+        @Override
+        public QueryableEntry next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return current.next();
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,408 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.query.impl;
+
+import com.hazelcast.nio.serialization.Data;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Sorted index store for attributes whose values map to a primitive {@code long} that preserves their ordering.
+ * <p/>
+ * Where {@link SortedIndexStore} keeps a skip list node, a boxed key and a {@link ConcurrentMap} for every distinct
+ * value, this store keeps the distinct values as primitive keys in sorted blocks of at most {@link #MAX_BLOCK_SIZE}
+ * keys, each key with a {@link PostingList compact posting list}. Lookups are binary searches over the blocks and
+ * within a block; ranges are walked sequentially. Appending a key beyond the current maximum, as time series do,
+ * starts a new block instead of splitting the last one, so such blocks stay full.
+ * <p/>
+ * The blocks are guarded by the store's read-write lock. Queries copy references to the posting lists out under
+ * the read lock, and the posting lists are immutable or concurrent, so results stay valid after the lock is
+ * released.
+ */
+public abstract class PrimitiveSortedIndexStore extends BaseIndexStore {
+
+    static final int MAX_BLOCK_SIZE = 512;
+
+    private static final int INITIAL_BLOCK_CAPACITY = 8;
+
+    /**
+     * Number of keys the histogram is sampled from.
+     */
+    private static final int HISTOGRAM_SAMPLE_SIZE = 8 * IndexStatistics.HISTOGRAM_CAPACITY;
+
+    private final ConcurrentMap<Data, QueryableEntry> recordsWithNullValue
+            = new ConcurrentHashMap<Data, QueryableEntry>();
+
+    private long[][] keys;
+    private Object[][] postings;
+    private int[] sizes;
+    private int blockCount;
+
+    protected PrimitiveSortedIndexStore() {
+        reset();
+    }
+
+    /**
+     * Converts a non-null attribute value into the primitive key it is ordered by.
+     */
+    abstract long toKey(Number value);
+
+    /**
+     * Converts a key back into an attribute value, for the statistics of the store.
+     */
+    abstract Comparable fromKey(long key);
+
+    private long key(Comparable value) {
+        if (value instanceof Number) {
+            return toKey((Number) value);
+        }
+        throw new IllegalArgumentException("Cannot index [" + value + "] in " + getClass().getSimpleName());
+    }
+
+    @Override
+    void newIndexInternal(Comparable newValue, QueryableEntry record) {
+        if (newValue instanceof IndexImpl.NullObject) {
+            if (recordsWithNullValue.put(record.getKeyData(), record) == null) {
+                countEntries(newValue, 1, 0);
+            }
+        } else {
+            insert(newValue, record);
+        }
+    }
+
+    @Override
+    void removeIndexInternal(Comparable oldValue, Data indexKey) {
+        if (oldValue instanceof IndexImpl.NullObject) {
+            if (recordsWithNullValue.remove(indexKey) != null) {
+                countEntries(oldValue, -1, 0);
+            }
+        } else {
+            remove(oldValue, indexKey);
+        }
+    }
+
+    @Override
+    public void clear() {
+        takeWriteLock();
+        try {
+            recordsWithNullValue.clear();
+            reset();
+            invalidateStatistics();
+        } finally {
+            releaseWriteLock();
+        }
+    }
+
+    /**
+     * Samples the histogram from every n-th key under the read lock, weighting a sampled key with the number of keys
+     * it stands for, so the writers are blocked for at most {@link #HISTOGRAM_SAMPLE_SIZE} keys.
+     */
+    @Override
+    void addHistogram(IndexStatistics.Builder builder) {
+        takeReadLock();
+        try {
+            int stride = Math.max(1, keyCount() / HISTOGRAM_SAMPLE_SIZE);
+            int position = 0;
+            for (int block = 0; block < blockCount; block++) {
+                int size = sizes[block];
+                for (; position < size; position += stride) {
+                    builder.add(fromKey(keys[block][position]), (long) stride * PostingList.size(postings[block][position]));
+                }
+                position -= size;
+            }
+        } finally {
+            releaseReadLock();
+        }
+    }
+
+    @Override
+    public Set<QueryableEntry> getSubRecordsBetween(Comparable from, Comparable to) {
+        takeReadLock();
+        try {
+            PostingListResultSet results = new PostingListResultSet(hasToDetectDuplicates());
+            collect(results, key(from), true, key(to), true);
+            return results;
+        } finally {
+            releaseReadLock();
+        }
+    }
+
+    @Override
+    public Set<QueryableEntry> getSubRecords(ComparisonType comparisonType, Comparable searchedValue) {
+        takeReadLock();
+        try {
+            PostingListResultSet results = new PostingListResultSet(hasToDetectDuplicates());
+            long key = key(searchedValue);
+            switch (comparisonType) {
+                case LESSER:
+                    collect(results, Long.MIN_VALUE, true, key, false);
+                    break;
+                case LESSER_EQUAL:
+                    collect(results, Long.MIN_VALUE, true, key, true);
+                    break;
+                case GREATER:
+                    collect(results, key, false, Long.MAX_VALUE, true);
+                    break;
+                case GREATER_EQUAL:
+                    collect(results, key, true, Long.MAX_VALUE, true);
+                    break;
+                case NOT_EQUAL:
+                    collect(results, Long.MIN_VALUE, true, key, false);
+                    collect(results, key, false, Long.MAX_VALUE, true);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unrecognized comparisonType: " + comparisonType);
+            }
+            return results;
+        } finally {
+            releaseReadLock();
+        }
+    }
+
+    /**
+     * Returns a copy of the entries indexed under the value, or {@code null} if there are none.
+     */
+    @Override
+    public ConcurrentMap<Data, QueryableEntry> getRecordMap(Comparable value) {
+        takeReadLock();
+        try {
+            if (value instanceof IndexImpl.NullObject) {
+                return recordsWithNullValue;
+            }
+            return PostingList.toMap(find(key(value)));
+        } finally {
+            releaseReadLock();
+        }
+    }
+
+    @Override
+    public Set<QueryableEntry> getRecords(Comparable value) {
+        takeReadLock();
+        try {
+            PostingListResultSet results = new PostingListResultSet(false);
+            addRecords(results, value);
+            return results;
+        } finally {
+            releaseReadLock();
+        }
+    }
+
+    @Override
+    public Set<QueryableEntry> getRecords(Set<Comparable> values) {
+        takeReadLock();
+        try {
+            PostingListResultSet results = new PostingListResultSet(hasToDetectDuplicates());
+            for (Comparable value : values) {
+                addRecords(results, value);
+            }
+            return results;
+        } finally {
+            releaseReadLock();
+        }
+    }
+
+    private void addRecords(PostingListResultSet results, Comparable value) {
+        if (value instanceof IndexImpl.NullObject) {
+            results.addPostingList(recordsWithNullValue);
+        } else {
+            results.addPostingList(find(key(value)));
+        }
+    }
+
+    private void reset() {
+        keys = new long[][]{new long[INITIAL_BLOCK_CAPACITY]};
+        postings = new Object[][]{new Object[INITIAL_BLOCK_CAPACITY]};
+        sizes = new int[1];
+        blockCount = 1;
+    }
+
+    /**
+     * Returns the block the key belongs to: the last block whose first key is not greater than the key. Only the
+     * first block may be empty, and only if it is the only one.
+     */
+    private int findBlock(long key) {
+        int result = 0;
+        int low = 1;
+        int high = blockCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid][0] <= key) {
+                result = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return result;
+    }
+
+    private Object find(long key) {
+        int block = findBlock(key);
+        int position = Arrays.binarySearch(keys[block], 0, sizes[block], key);
+        return position < 0 ? null : postings[block][position];
+    }
+
+    private void insert(Comparable value, QueryableEntry entry) {
+        long key = key(value);
+        int block = findBlock(key);
+        int position = Arrays.binarySearch(keys[block], 0, sizes[block], key);
+        if (position >= 0) {
+            int previousSize = PostingList.size(postings[block][position]);
+            postings[block][position] = PostingList.add(postings[block][position], entry);
+            countEntries(value, PostingList.size(postings[block][position]) - previousSize, 0);
+            return;
+        }
+        countEntries(value, 1, 1);
+        position = -(position + 1);
+        if (sizes[block] == MAX_BLOCK_SIZE) {
+            if (block == blockCount - 1 && position == MAX_BLOCK_SIZE) {
+                long[] blockKeys = new long[INITIAL_BLOCK_CAPACITY];
+                Object[] blockPostings = new Object[INITIAL_BLOCK_CAPACITY];
+                blockKeys[0] = key;
+                blockPostings[0] = PostingList.add(null, entry);
+                insertBlock(blockCount, blockKeys, blockPostings, 1);
+                return;
+            }
+            splitBlock(block);
+            block = findBlock(key);
+            position = -(Arrays.binarySearch(keys[block], 0, sizes[block], key) + 1);
+        }
+        insertAt(block, position, key, PostingList.add(null, entry));
+    }
+
+    private void insertAt(int block, int position, long key, Object postingList) {
+        int size = sizes[block];
+        if (size == keys[block].length) {
+            int capacity = Math.min(size * 2, MAX_BLOCK_SIZE);
+            keys[block] = Arrays.copyOf(keys[block], capacity);
+            postings[block] = Arrays.copyOf(postings[block], capacity);
+        }
+        long[] blockKeys = keys[block];
+        Object[] blockPostings = postings[block];
+        System.arraycopy(blockKeys, position, blockKeys, position + 1, size - position);
+        System.arraycopy(blockPostings, position, blockPostings, position + 1, size - position);
+        blockKeys[position] = key;
+        blockPostings[position] = postingList;
+        sizes[block] = size + 1;
+    }
+
+    private void splitBlock(int block) {
+        int size = sizes[block];
+        int half = size / 2;
+        long[] upperKeys = new long[MAX_BLOCK_SIZE];
+        Object[] upperPostings = new Object[MAX_BLOCK_SIZE];
+        System.arraycopy(keys[block], half, upperKeys, 0, size - half);
+        System.arraycopy(postings[block], half, upperPostings, 0, size - half);
+        Arrays.fill(postings[block], half, size, null);
+        sizes[block] = half;
+        insertBlock(block + 1, upperKeys, upperPostings, size - half);
+    }
+
+    private void insertBlock(int block, long[] blockKeys, Object[] blockPostings, int size) {
+        if (blockCount == keys.length) {
+            int capacity = blockCount * 2;
+            keys = Arrays.copyOf(keys, capacity);
+            postings = Arrays.copyOf(postings, capacity);
+            sizes = Arrays.copyOf(sizes, capacity);
+        }
+        int moved = blockCount - block;
+        System.arraycopy(keys, block, keys, block + 1, moved);
+        System.arraycopy(postings, block, postings, block + 1, moved);
+        System.arraycopy(sizes, block, sizes, block + 1, moved);
+        keys[block] = blockKeys;
+        postings[block] = blockPostings;
+        sizes[block] = size;
+        blockCount++;
+    }
+
+    private void remove(Comparable value, Data indexKey) {
+        long key = key(value);
+        int block = findBlock(key);
+        int position = Arrays.binarySearch(keys[block], 0, sizes[block], key);
+        if (position < 0) {
+            return;
+        }
+        int previousSize = PostingList.size(postings[block][position]);
+        Object remaining = PostingList.remove(postings[block][position], indexKey);
+        if (remaining != null) {
+            postings[block][position] = remaining;
+            countEntries(value, PostingList.size(remaining) - previousSize, 0);
+            return;
+        }
+        countEntries(value, -previousSize, -1);
+        int size = sizes[block] - 1;
+        System.arraycopy(keys[block], position + 1, keys[block], position, size - position);
+        System.arraycopy(postings[block], position + 1, postings[block], position, size - position);
+        postings[block][size] = null;
+        sizes[block] = size;
+        if (size == 0 && blockCount > 1) {
+            removeBlock(block);
+        }
+    }
+
+    private void removeBlock(int block) {
+        int moved = blockCount - block - 1;
+        System.arraycopy(keys, block + 1, keys, block, moved);
+        System.arraycopy(postings, block + 1, postings, block, moved);
+        System.arraycopy(sizes, block + 1, sizes, block, moved);
+        blockCount--;
+        keys[blockCount] = null;
+        postings[blockCount] = null;
+        sizes[blockCount] = 0;
+    }
+
+    private void collect(PostingListResultSet results, long from, boolean fromInclusive, long to, boolean toInclusive) {
+        int block = findBlock(from);
+        int position = Arrays.binarySearch(keys[block], 0, sizes[block], from);
+        if (position < 0) {
+            position = -(position + 1);
+        } else if (!fromInclusive) {
+            position++;
+        }
+        for (; block < blockCount; block++, position = 0) {
+            long[] blockKeys = keys[block];
+            Object[] blockPostings = postings[block];
+            for (int size = sizes[block]; position < size; position++) {
+                long key = blockKeys[position];
+                if (key > to || (key == to && !toInclusive)) {
+                    return;
+                }
+                results.addPostingList(blockPostings[position]);
+            }
+        }
+    }
+
+    int keyCount() {
+        int count = 0;
+        for (int block = 0; block < blockCount; block++) {
+            count += sizes[block];
+        }
+        return count;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "{"
+                + "keys=" + keyCount()
+                + ", blocks=" + blockCount
+                + '}';
+    }
+}
@@ -36,7 +36,9 @@ public class UnsortedIndexStore extends BaseIndexStore {
     @Override
     void newIndexInternal(Comparable newValue, QueryableEntry record) {
         if (newValue instanceof IndexImpl.NullObject) {
-            recordsWithNullValue.put(record.getKeyData(), record);
+            if (recordsWithNullValue.put(record.getKeyData(), record) == null) {
+                countEntries(newValue, 1, 0);
+            }
         } else {
             mapAttributeToEntry(newValue, record);
         }
@@ -44,28 +46,39 @@ public class UnsortedIndexStore extends BaseIndexStore {
 
     private void mapAttributeToEntry(Comparable attribute, QueryableEntry entry) {
         ConcurrentMap<Data, QueryableEntry> records = recordMap.get(attribute);
+        int distinctDelta = 0;
         if (records == null) {
             records = new ConcurrentHashMap<Data, QueryableEntry>(1, LOAD_FACTOR, 1);
             recordMap.put(attribute, records);
+            distinctDelta = 1;
+        }
+        if (records.put(entry.getKeyData(), entry) == null) {
+            countEntries(attribute, 1, distinctDelta);
         }
-        records.put(entry.getKeyData(), entry);
     }
 
     @Override
     void removeIndexInternal(Comparable oldValue, Data indexKey) {
         if (oldValue instanceof IndexImpl.NullObject) {
-            recordsWithNullValue.remove(indexKey);
+            if (recordsWithNullValue.remove(indexKey) != null) {
+                countEntries(oldValue, -1, 0);
+            }
         } else {
             removeMappingForAttribute(oldValue, indexKey);
         }
     }
 
-    private void removeMappingForAttribute(Object attribute, Data indexKey) {
+    private void removeMappingForAttribute(Comparable attribute, Data indexKey) {
         ConcurrentMap<Data, QueryableEntry> records = recordMap.get(attribute);
         if (records != null) {
-            records.remove(indexKey);
+            boolean removed = records.remove(indexKey) != null;
+            int distinctDelta = 0;
             if (records.size() == 0) {
                 recordMap.remove(attribute);
+                distinctDelta = -1;
+            }
+            if (removed) {
+                countEntries(attribute, -1, distinctDelta);
             }
         }
     }
@@ -76,6 +89,7 @@ public class UnsortedIndexStore extends BaseIndexStore {
         try {
             recordsWithNullValue.clear();
             recordMap.clear();
+            invalidateStatistics();
         } finally {
             releaseWriteLock();
         }
@@ -23,6 +23,7 @@ import com.hazelcast.query.IndexAwarePredicate;
 import com.hazelcast.query.Predicate;
 import com.hazelcast.query.VisitablePredicate;
 import com.hazelcast.query.impl.AndResultSet;
+import com.hazelcast.query.impl.BitmapResultSet;
 import com.hazelcast.query.impl.Indexes;
 import com.hazelcast.query.impl.QueryContext;
 import com.hazelcast.query.impl.QueryableEntry;
@@ -63,37 +64,52 @@ public final class AndPredicate
 
     @Override
     public Set<QueryableEntry> filter(QueryContext queryContext) {
-        Set<QueryableEntry> smallestIndexedResult = null;
-        List<Set<QueryableEntry>> otherIndexedResults = new LinkedList<Set<QueryableEntry>>();
+        List<Set<QueryableEntry>> indexedResults = new LinkedList<Set<QueryableEntry>>();
         List<Predicate> lsNoIndexPredicates = null;
+        BitmapResultSet bitmapResult = null;
         for (Predicate predicate : predicates) {
-            boolean indexed = false;
-            if (predicate instanceof IndexAwarePredicate) {
-                IndexAwarePredicate iap = (IndexAwarePredicate) predicate;
-                if (iap.isIndexed(queryContext)) {
-                    indexed = true;
-                    Set<QueryableEntry> s = iap.filter(queryContext);
-                    if (smallestIndexedResult == null) {
-                        smallestIndexedResult = s;
-                    } else if (s.size() < smallestIndexedResult.size()) {
-                        otherIndexedResults.add(smallestIndexedResult);
-                        smallestIndexedResult = s;
-                    } else {
-                        otherIndexedResults.add(s);
-                    }
+            if (canUseIndex(predicate, queryContext)) {
+                Set<QueryableEntry> s = ((IndexAwarePredicate) predicate).filter(queryContext);
+                if (s instanceof BitmapResultSet) {
+                    // results of bitmap indexes are intersected bitwise and added as a single result
+                    bitmapResult = bitmapResult == null ? (BitmapResultSet) s : bitmapResult.and((BitmapResultSet) s);
+                } else {
+                    indexedResults.add(s);
                 }
-            }
-            if (!indexed) {
+            } else {
                 if (lsNoIndexPredicates == null) {
                     lsNoIndexPredicates = new LinkedList<Predicate>();
                 }
                 lsNoIndexPredicates.add(predicate);
             }
         }
-        if (smallestIndexedResult == null) {
+        if (bitmapResult != null) {
+            indexedResults.add(bitmapResult);
+        }
+        if (indexedResults.isEmpty()) {
             return null;
         }
-        return new AndResultSet(smallestIndexedResult, otherIndexedResults, lsNoIndexPredicates);
+        Set<QueryableEntry> smallestIndexedResult = removeSmallest(indexedResults);
+        return new AndResultSet(smallestIndexedResult, indexedResults, lsNoIndexPredicates);
+    }
+
+    private static boolean canUseIndex(Predicate predicate, QueryContext queryContext) {
+        return predicate instanceof IndexAwarePredicate && ((IndexAwarePredicate) predicate).isIndexed(queryContext);
+    }
+
+    private static Set<QueryableEntry> removeSmallest(List<Set<QueryableEntry>> indexedResults) {
+        int smallestIndex = 0;
+        int smallestSize = Integer.MAX_VALUE;
+        int index = 0;
+        for (Set<QueryableEntry> indexedResult : indexedResults) {
+            int size = indexedResult.size();
+            if (size < smallestSize) {
+                smallestIndex = index;
+                smallestSize = size;
+            }
+            index++;
+        }
+        return indexedResults.remove(smallestIndex);
     }
 
     @Override
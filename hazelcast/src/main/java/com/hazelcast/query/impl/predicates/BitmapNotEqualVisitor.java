@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl.predicates;
+
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.impl.BitmapIndex;
+import com.hazelcast.query.impl.Indexes;
+
+import static com.hazelcast.util.collection.ArrayUtils.createCopy;
+
+/**
+ * Lets (a != X) inside an AndPredicate or an OrPredicate use the index of a when it is a {@link BitmapIndex}.
+ *
+ * The bitmap index answers it by clearing the bits of X from the bitmap of all the indexed entries, so
+ * (a != X and b = Y) is evaluated bitwise like (a = X and b = Y). It runs after the {@link FlatteningVisitor}, which
+ * rewrites not(a = X) into (a != X).
+ */
+public class BitmapNotEqualVisitor extends AbstractVisitor {
+
+    @Override
+    public Predicate visit(AndPredicate andPredicate, Indexes indexes) {
+        Predicate[] predicates = rewrite(andPredicate.predicates, indexes);
+        return predicates == andPredicate.predicates ? andPredicate : new AndPredicate(predicates);
+    }
+
+    @Override
+    public Predicate visit(OrPredicate orPredicate, Indexes indexes) {
+        Predicate[] predicates = rewrite(orPredicate.predicates, indexes);
+        return predicates == orPredicate.predicates ? orPredicate : new OrPredicate(predicates);
+    }
+
+    private Predicate[] rewrite(Predicate[] originalPredicates, Indexes indexes) {
+        Predicate[] target = originalPredicates;
+        for (int i = 0; i < originalPredicates.length; i++) {
+            Predicate predicate = originalPredicates[i];
+            if (!(predicate instanceof NotEqualPredicate)) {
+                continue;
+            }
+            Predicate rewritten = rewrite((NotEqualPredicate) predicate, indexes);
+            if (rewritten == predicate) {
+                continue;
+            }
+            if (target == originalPredicates) {
+                target = createCopy(originalPredicates);
+            }
+            target[i] = rewritten;
+        }
+        return target;
+    }
+
+    /**
+     * Rewrites a single (a != X), e.g. a whole query, which is not visited through an AndPredicate or OrPredicate.
+     *
+     * @return a copy using the bitmap index of a, or the original predicate if a has no bitmap index
+     */
+    static Predicate rewrite(NotEqualPredicate predicate, Indexes indexes) {
+        if (indexes.getIndex(predicate.attributeName) instanceof BitmapIndex) {
+            return predicate.withBitmapIndex();
+        }
+        return predicate;
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.query.impl.predicates;
+
+import com.hazelcast.core.TypeConverter;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.impl.Index;
+import com.hazelcast.query.impl.IndexStatistics;
+import com.hazelcast.query.impl.Indexes;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Estimates the number of entries matched by a predicate from the indexes of a map.
+ * <p/>
+ * Equality and {@code IN} are estimated by looking the values up in the index, which is exact and cheap. Ranges use
+ * the {@link IndexStatistics histogram} of a sorted index. Conjunctions assume their terms are independent.
+ * Predicates on attributes without an index, and predicates this class doesn't know, are {@link #UNKNOWN}.
+ */
+final class CardinalityEstimator {
+
+    static final double UNKNOWN = -1;
+
+    private final Indexes indexes;
+    private final long entryCount;
+
+    CardinalityEstimator(Indexes indexes) {
+        this.indexes = indexes;
+        long count = 0;
+        for (Index index : indexes.getIndexes()) {
+            count = Math.max(count, index.getStatistics().getEntryCount());
+        }
+        this.entryCount = count;
+    }
+
+    /**
+     * @return the number of indexed entries, taken from the index that has the most values
+     */
+    long getEntryCount() {
+        return entryCount;
+    }
+
+    /**
+     * @return the estimated number of entries matched by the predicate, or {@link #UNKNOWN}
+     */
+    double estimate(Predicate predicate) {
+        if (predicate instanceof UnindexedPredicate) {
+            return estimate(((UnindexedPredicate) predicate).getPredicate());
+        }
+        if (predicate instanceof AbstractPredicate) {
+            return estimateAttribute(predicate, ((AbstractPredicate) predicate).attributeName);
+        }
+        if (predicate instanceof CompositeIndexPredicate) {
+            return estimateComposite((CompositeIndexPredicate) predicate);
+        }
+        return estimateCompound(predicate);
+    }
+
+    private double estimateCompound(Predicate predicate) {
+        if (predicate instanceof AndPredicate) {
+            return estimateAnd(((AndPredicate) predicate).predicates);
+        }
+        if (predicate instanceof OrPredicate) {
+            return estimateOr(((OrPredicate) predicate).predicates);
+        }
+        if (predicate instanceof NotPredicate) {
+            double inner = estimate(((NotPredicate) predicate).predicate);
+            return inner == UNKNOWN ? UNKNOWN : Math.max(0, entryCount - inner);
+        }
+        return UNKNOWN;
+    }
+
+    private double estimateAttribute(Predicate predicate, String attributeName) {
+        Index index = indexes.getIndex(attributeName);
+        if (index == null) {
+            return UNKNOWN;
+        }
+        TypeConverter converter = index.getConverter();
+        if (converter == null) {
+            // nothing has been indexed yet
+            return 0;
+        }
+        if (predicate instanceof NotEqualPredicate) {
+            NotEqualPredicate notEqual = (NotEqualPredicate) predicate;
+            return Math.max(0, index.getStatistics().getEntryCount() - index.getRecords(notEqual.value).size());
+        }
+        if (predicate instanceof EqualPredicate) {
+            return index.getRecords(((EqualPredicate) predicate).value).size();
+        }
+        if (predicate instanceof InPredicate) {
+            return estimateIn(index, ((InPredicate) predicate).values);
+        }
+        return estimateRange(predicate, index.getStatistics(), converter);
+    }
+
+    private static double estimateRange(Predicate predicate, IndexStatistics statistics, TypeConverter converter) {
+        if (predicate instanceof BetweenPredicate) {
+            BetweenPredicate between = (BetweenPredicate) predicate;
+            return statistics.estimateRange(converter.convert(between.from), true, converter.convert(between.to), true);
+        }
+        if (predicate instanceof GreaterLessPredicate) {
+            GreaterLessPredicate greaterLess = (GreaterLessPredicate) predicate;
+            Comparable value = converter.convert(greaterLess.value);
+            return greaterLess.less
+                    ? statistics.estimateRange(null, false, value, greaterLess.equal)
+                    : statistics.estimateRange(value, greaterLess.equal, null, false);
+        }
+        return UNKNOWN;
+    }
+
+    private static double estimateIn(Index index, Comparable[] values) {
+        Set<Comparable> distinctValues = new HashSet<Comparable>();
+        double rows = 0;
+        for (Comparable value : values) {
+            if (distinctValues.add(value)) {
+                rows += index.getRecords(value).size();
+            }
+        }
+        return rows;
+    }
+
+    private double estimateComposite(CompositeIndexPredicate predicate) {
+        Index index = indexes.getIndex(predicate.getIndexName());
+        if (index == null) {
+            return UNKNOWN;
+        }
+        TypeConverter converter = index.getConverter();
+        if (converter == null) {
+            return 0;
+        }
+        return index.getStatistics().estimateRange(converter.convert(predicate.lowerBound()), true,
+                converter.convert(predicate.upperBound()), true);
+    }
+
+    private double estimateAnd(Predicate[] predicates) {
+        double rows = entryCount;
+        for (Predicate predicate : predicates) {
+            double estimate = estimate(predicate);
+            if (estimate != UNKNOWN && entryCount > 0) {
+                rows *= Math.min(1, estimate / entryCount);
+            }
+        }
+        return rows;
+    }
+
+    private double estimateOr(Predicate[] predicates) {
+        double rows = 0;
+        for (Predicate predicate : predicates) {
+            double estimate = estimate(predicate);
+            if (estimate == UNKNOWN) {
+                return UNKNOWN;
+            }
+            rows += estimate;
+        }
+        return Math.min(entryCount, rows);
+    }
+}
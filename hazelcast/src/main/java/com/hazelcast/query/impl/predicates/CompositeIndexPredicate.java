@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl.predicates;
+
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
+import com.hazelcast.query.IndexAwarePredicate;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.impl.CompositeValue;
+import com.hazelcast.query.impl.Index;
+import com.hazelcast.query.impl.IndexImpl;
+import com.hazelcast.query.impl.QueryContext;
+import com.hazelcast.query.impl.QueryableEntry;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+
+import static com.hazelcast.internal.serialization.impl.FactoryIdHelper.PREDICATE_DS_FACTORY_ID;
+
+/**
+ * Evaluates a conjunction of predicates with a single lookup into a
+ * {@link com.hazelcast.query.impl.CompositeIndex}: equality on a prefix of the indexed attributes,
+ * optionally followed by a range on the next attribute.
+ *
+ * It is created by the {@link CompositeIndexVisitor}; the original predicates are kept to evaluate
+ * entries when the index is not available.
+ */
+public final class CompositeIndexPredicate implements IndexAwarePredicate, IdentifiedDataSerializable {
+
+    private String indexName;
+    private Comparable[] prefix;
+    private boolean ranged;
+    private Comparable from;
+    private boolean fromInclusive;
+    private Comparable to;
+    private boolean toInclusive;
+    private Predicate[] predicates;
+
+    public CompositeIndexPredicate() {
+    }
+
+    /**
+     * Creates a predicate matching the entries whose leading indexed attributes are equal to the prefix.
+     */
+    CompositeIndexPredicate(String indexName, Comparable[] prefix, Predicate[] predicates) {
+        this.indexName = indexName;
+        this.prefix = prefix;
+        this.predicates = predicates;
+    }
+
+    /**
+     * Creates a predicate matching the entries whose leading indexed attributes are equal to the prefix and
+     * whose next attribute is within the range. A {@code null} boundary leaves that side of the range open.
+     */
+    CompositeIndexPredicate(String indexName, Comparable[] prefix, Comparable from, boolean fromInclusive,
+                            Comparable to, boolean toInclusive, Predicate[] predicates) {
+        this(indexName, prefix, predicates);
+        this.ranged = true;
+        this.from = from;
+        this.fromInclusive = fromInclusive;
+        this.to = to;
+        this.toInclusive = toInclusive;
+    }
+
+    public String getIndexName() {
+        return indexName;
+    }
+
+    @Override
+    public boolean isIndexed(QueryContext queryContext) {
+        return queryContext.getIndex(indexName) != null;
+    }
+
+    @Override
+    public Set<QueryableEntry> filter(QueryContext queryContext) {
+        Index index = queryContext.getIndex(indexName);
+        return index.getSubRecordsBetween(lowerBound(), upperBound());
+    }
+
+    /**
+     * @return the lowest composite value matched by this predicate, padded with sentinels
+     */
+    CompositeValue lowerBound() {
+        if (!ranged) {
+            return bound(CompositeValue.NEGATIVE_INFINITY);
+        }
+        // entries with a null attribute never match a range, so an open lower bound starts after them
+        return from == null
+                ? bound(IndexImpl.NULL, CompositeValue.POSITIVE_INFINITY)
+                : bound(from, fromInclusive ? CompositeValue.NEGATIVE_INFINITY : CompositeValue.POSITIVE_INFINITY);
+    }
+
+    /**
+     * @return the highest composite value matched by this predicate, padded with sentinels
+     */
+    CompositeValue upperBound() {
+        if (!ranged || to == null) {
+            return bound(CompositeValue.POSITIVE_INFINITY);
+        }
+        return bound(to, toInclusive ? CompositeValue.POSITIVE_INFINITY : CompositeValue.NEGATIVE_INFINITY);
+    }
+
+    private CompositeValue bound(Comparable... suffix) {
+        Comparable[] components = new Comparable[prefix.length + suffix.length];
+        System.arraycopy(prefix, 0, components, 0, prefix.length);
+        System.arraycopy(suffix, 0, components, prefix.length, suffix.length);
+        return new CompositeValue(components);
+    }
+
+    @Override
+    public boolean apply(Map.Entry mapEntry) {
+        for (Predicate predicate : predicates) {
+            if (!predicate.apply(mapEntry)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void writeData(ObjectDataOutput out) throws IOException {
+        out.writeUTF(indexName);
+        out.writeInt(prefix.length);
+        for (Comparable value : prefix) {
+            out.writeObject(value);
+        }
+        out.writeBoolean(ranged);
+        if (ranged) {
+            out.writeObject(from);
+            out.writeBoolean(fromInclusive);
+            out.writeObject(to);
+            out.writeBoolean(toInclusive);
+        }
+        out.writeInt(predicates.length);
+        for (Predicate predicate : predicates) {
+            out.writeObject(predicate);
+        }
+    }
+
+    @Override
+    public void readData(ObjectDataInput in) throws IOException {
+        indexName = in.readUTF();
+        prefix = new Comparable[in.readInt()];
+        for (int i = 0; i < prefix.length; i++) {
+            prefix[i] = in.readObject();
+        }
+        ranged = in.readBoolean();
+        if (ranged) {
+            from = in.readObject();
+            fromInclusive = in.readBoolean();
+            to = in.readObject();
+            toInclusive = in.readBoolean();
+        }
+        predicates = new Predicate[in.readInt()];
+        for (int i = 0; i < predicates.length; i++) {
+            predicates[i] = in.readObject();
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("INDEX(").append(indexName).append(")(");
+        for (int i = 0; i < predicates.length; i++) {
+            if (i > 0) {
+                sb.append(" AND ");
+            }
+            sb.append(predicates[i]);
+        }
+        sb.append(')');
+        return sb.toString();
+    }
+
+    @Override
+    public int getFactoryId() {
+        return PREDICATE_DS_FACTORY_ID;
+    }
+
+    @Override
+    public int getId() {
+        return PredicateDataSerializerHook.COMPOSITE_INDEX_PREDICATE;
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl.predicates;
+
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.impl.CompositeIndex;
+import com.hazelcast.query.impl.Index;
+import com.hazelcast.query.impl.Indexes;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Rewrites (a = X and b = Y and c > Z) into a single {@link CompositeIndexPredicate} when there is
+ * a composite index over (a, b, c) or (a, b, c, ...).
+ *
+ * An index matches when equality predicates cover a prefix of its attributes. A range - a {@link GreaterLessPredicate}
+ * or a {@link BetweenPredicate} - on the attribute following the prefix is folded into the lookup too. At least two
+ * attributes have to be matched, otherwise a plain index on the single attribute does the same job. When several
+ * composite indexes match, the one covering the most attributes wins.
+ *
+ * Predicates which are not covered by the chosen index stay in the AndPredicate and are evaluated as before.
+ * This visitor should run after the {@link BetweenVisitor} so pairs of range predicates have been merged already.
+ */
+public class CompositeIndexVisitor extends AbstractVisitor {
+
+    private static final int MINIMUM_MATCHED_ATTRIBUTES = 2;
+
+    @Override
+    public Predicate visit(AndPredicate andPredicate, Indexes indexes) {
+        if (!indexes.hasIndex()) {
+            return andPredicate;
+        }
+        Predicate[] originalPredicates = andPredicate.predicates;
+        Map<String, EqualPredicate> equalities = new HashMap<String, EqualPredicate>();
+        Map<String, Predicate> ranges = new HashMap<String, Predicate>();
+        for (Predicate predicate : originalPredicates) {
+            addCandidate(predicate, equalities, ranges);
+        }
+        if (equalities.isEmpty()) {
+            return andPredicate;
+        }
+        Match bestMatch = findBestMatch(indexes, equalities, ranges);
+        if (bestMatch == null) {
+            return andPredicate;
+        }
+        return bestMatch.rewrite(originalPredicates);
+    }
+
+    private Match findBestMatch(Indexes indexes, Map<String, EqualPredicate> equalities, Map<String, Predicate> ranges) {
+        Match bestMatch = null;
+        for (Index index : indexes.getIndexes()) {
+            if (!(index instanceof CompositeIndex)) {
+                continue;
+            }
+            Match match = match((CompositeIndex) index, equalities, ranges);
+            if (match != null && (bestMatch == null || match.isBetterThan(bestMatch))) {
+                bestMatch = match;
+            }
+        }
+        return bestMatch;
+    }
+
+    private void addCandidate(Predicate predicate, Map<String, EqualPredicate> equalities, Map<String, Predicate> ranges) {
+        // NotEqualPredicate extends EqualPredicate, hence the exact class check
+        if (predicate.getClass() == EqualPredicate.class) {
+            EqualPredicate equalPredicate = (EqualPredicate) predicate;
+            if (!equalities.containsKey(equalPredicate.attributeName)) {
+                equalities.put(equalPredicate.attributeName, equalPredicate);
+            }
+        } else if (predicate instanceof GreaterLessPredicate || predicate instanceof BetweenPredicate) {
+            String attributeName = ((AbstractPredicate) predicate).attributeName;
+            if (!ranges.containsKey(attributeName)) {
+                ranges.put(attributeName, predicate);
+            }
+        }
+    }
+
+    private Match match(CompositeIndex index, Map<String, EqualPredicate> equalities, Map<String, Predicate> ranges) {
+        String[] components = index.getComponents();
+        EqualPredicate[] prefix = matchPrefix(components, equalities);
+        if (prefix.length == 0) {
+            return null;
+        }
+        Predicate range = prefix.length < components.length ? ranges.get(components[prefix.length]) : null;
+        Match match = new Match(index, prefix, range);
+        return match.matchedAttributes() < MINIMUM_MATCHED_ATTRIBUTES ? null : match;
+    }
+
+    private EqualPredicate[] matchPrefix(String[] components, Map<String, EqualPredicate> equalities) {
+        int prefixLength = 0;
+        while (prefixLength < components.length && equalities.containsKey(components[prefixLength])) {
+            prefixLength++;
+        }
+        EqualPredicate[] prefix = new EqualPredicate[prefixLength];
+        for (int i = 0; i < prefixLength; i++) {
+            prefix[i] = equalities.get(components[i]);
+        }
+        return prefix;
+    }
+
+    /**
+     * The predicates of an AndPredicate covered by a composite index.
+     */
+    private static final class Match {
+        private final CompositeIndex index;
+        private final EqualPredicate[] prefix;
+        private final Predicate range;
+
+        Match(CompositeIndex index, EqualPredicate[] prefix, Predicate range) {
+            this.index = index;
+            this.prefix = prefix;
+            this.range = range;
+        }
+
+        int matchedAttributes() {
+            return range == null ? prefix.length : prefix.length + 1;
+        }
+
+        boolean isBetterThan(Match other) {
+            if (matchedAttributes() != other.matchedAttributes()) {
+                return matchedAttributes() > other.matchedAttributes();
+            }
+            return prefix.length > other.prefix.length;
+        }
+
+        boolean covers(Predicate predicate) {
+            if (predicate == range) {
+                return true;
+            }
+            for (EqualPredicate equalPredicate : prefix) {
+                if (predicate == equalPredicate) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        Predicate rewrite(Predicate[] originalPredicates) {
+            Predicate[] covered = new Predicate[matchedAttributes()];
+            Comparable[] values = new Comparable[prefix.length];
+            for (int i = 0; i < prefix.length; i++) {
+                covered[i] = prefix[i];
+                values[i] = prefix[i].value;
+            }
+            Predicate compositePredicate;
+            if (range == null) {
+                compositePredicate = new CompositeIndexPredicate(index.getAttributeName(), values, covered);
+            } else {
+                covered[prefix.length] = range;
+                compositePredicate = createRangePredicate(values, covered);
+            }
+
+            int remaining = originalPredicates.length - covered.length;
+            if (remaining == 0) {
+                return compositePredicate;
+            }
+            Predicate[] newPredicates = new Predicate[remaining + 1];
+            newPredicates[0] = compositePredicate;
+            int position = 1;
+            for (Predicate predicate : originalPredicates) {
+                if (!covers(predicate)) {
+                    newPredicates[position++] = predicate;
+                }
+            }
+            return new AndPredicate(newPredicates);
+        }
+
+        private Predicate createRangePredicate(Comparable[] values, Predicate[] covered) {
+            String indexName = index.getAttributeName();
+            if (range instanceof BetweenPredicate) {
+                BetweenPredicate between = (BetweenPredicate) range;
+                return new CompositeIndexPredicate(indexName, values, between.from, true, between.to, true, covered);
+            }
+            GreaterLessPredicate greaterLess = (GreaterLessPredicate) range;
+            if (greaterLess.less) {
+                return new CompositeIndexPredicate(indexName, values, null, false, greaterLess.value, greaterLess.equal,
+                        covered);
+            }
+            return new CompositeIndexPredicate(indexName, values, greaterLess.value, greaterLess.equal, null, false,
+                    covered);
+        }
+    }
+}
@@ -0,0 +1,277 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.query.impl.predicates;
+
+import com.hazelcast.query.IndexAwarePredicate;
+import com.hazelcast.query.PagingPredicate;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.impl.Indexes;
+import com.hazelcast.query.impl.QueryContext;
+import com.hazelcast.query.impl.predicates.QueryPlan.Access;
+import com.hazelcast.query.impl.predicates.QueryPlan.Step;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import static com.hazelcast.query.impl.predicates.CardinalityEstimator.UNKNOWN;
+
+/**
+ * Cost based optimizer. It applies the rules of the {@link RuleBasedQueryOptimizer} and then uses the
+ * {@link com.hazelcast.query.impl.IndexStatistics statistics} of the indexes to choose how the query is executed:
+ * <ul>
+ * <li>an index lookup on the most selective indexed term of a conjunction,</li>
+ * <li>for every other indexed term, either an intersection with its index result or an evaluation on the candidates,
+ * whichever is estimated to be cheaper,</li>
+ * <li>or a full table scan if that is cheaper than any use of the indexes.</li>
+ * </ul>
+ * The terms that are evaluated entry by entry, on the candidates or during a full table scan, are ordered by
+ * selectivity so that most entries are rejected by the first term.
+ * <p/>
+ * The plan is expressed in the optimized predicate: terms which must not use their index are wrapped in an
+ * {@link UnindexedPredicate}. {@link #explain(Predicate, Indexes, boolean)} returns the plan itself.
+ * <p/>
+ * If the entries keep their values serialized, evaluating a term on an entry deserializes its value first. Plans that
+ * answer the query from the indexes alone, see {@link QueryPlan#isIndexOnly()}, are then preferred more often.
+ */
+public final class CostBasedQueryOptimizer implements QueryOptimizer {
+
+    /**
+     * Cost of evaluating the query on one entry during a full table scan, the unit of all the other costs.
+     */
+    static final double SCAN_COST = 1;
+
+    /**
+     * Cost of reading one entry from an index result.
+     */
+    static final double LOOKUP_COST = 0.4;
+
+    /**
+     * Cost per entry of a range result the candidates are intersected with, mostly building its key set. The result
+     * of an equality lookup is probed in the index directly and doesn't have this cost.
+     */
+    static final double INTERSECT_COST = 0.4;
+
+    /**
+     * Cost of probing an index result for one candidate.
+     */
+    static final double PROBE_COST = 0.1;
+
+    /**
+     * Cost of evaluating a term on one candidate.
+     */
+    static final double FILTER_COST = 0.3;
+
+    /**
+     * Cost of evaluating a term on one entry, during a full table scan or on a candidate, if the value of the entry
+     * is serialized and has to be deserialized first.
+     */
+    static final double DESERIALIZE_COST = 8;
+
+    private final QueryOptimizer rules = new RuleBasedQueryOptimizer();
+
+    @Override
+    public <K, V> Predicate<K, V> optimize(Predicate<K, V> predicate, Indexes indexes) {
+        return explain(predicate, indexes, false).getPredicate();
+    }
+
+    /**
+     * Optimizes the predicate and returns the plan chosen for it, for entries that keep their values deserialized.
+     *
+     * @param predicate the predicate of the query
+     * @param indexes   the indexes of the map on the local member
+     * @return the plan
+     */
+    public QueryPlan explain(Predicate predicate, Indexes indexes) {
+        return explain(predicate, indexes, false);
+    }
+
+    /**
+     * Optimizes the predicate and returns the plan chosen for it.
+     *
+     * @param predicate        the predicate of the query
+     * @param indexes          the indexes of the map on the local member
+     * @param serializedValues {@code true} if the entries keep their values serialized
+     * @return the plan
+     */
+    public QueryPlan explain(Predicate predicate, Indexes indexes, boolean serializedValues) {
+        Predicate optimized = rules.optimize(predicate, indexes);
+        CardinalityEstimator estimator = new CardinalityEstimator(indexes);
+        QueryContext queryContext = new QueryContext(indexes);
+        double scanCost = serializedValues ? DESERIALIZE_COST : SCAN_COST;
+        if (optimized instanceof AndPredicate) {
+            double filterCost = serializedValues ? DESERIALIZE_COST : FILTER_COST;
+            return planConjunction(((AndPredicate) optimized).predicates, estimator, queryContext, scanCost, filterCost);
+        }
+        return planSingle(optimized, estimator, queryContext, scanCost);
+    }
+
+    private static QueryPlan planSingle(Predicate predicate, CardinalityEstimator estimator, QueryContext queryContext,
+                                        double scanCost) {
+        double rows = estimator.estimate(predicate);
+        double fullScanCost = estimator.getEntryCount() * scanCost;
+        if (!canUseIndex(predicate, queryContext)) {
+            return fullScan(predicate, Collections.singletonList(new Step(Access.SCAN, predicate, rows)), rows,
+                    fullScanCost);
+        }
+        // without an estimate the index is trusted, like the rule based optimizer does
+        double cost = rows == UNKNOWN ? 0 : rows * LOOKUP_COST;
+        if (cost > fullScanCost && !(predicate instanceof PagingPredicate)) {
+            return fullScan(new UnindexedPredicate(predicate),
+                    Collections.singletonList(new Step(Access.SCAN, predicate, rows)), rows, fullScanCost);
+        }
+        List<Step> steps = Collections.singletonList(new Step(Access.LOOKUP, predicate, rows));
+        return new QueryPlan(QueryPlan.Type.INDEX_LOOKUP, predicate, steps, rows, cost, fullScanCost);
+    }
+
+    private static QueryPlan planConjunction(Predicate[] terms, CardinalityEstimator estimator,
+                                             QueryContext queryContext, double scanCost, double filterCost) {
+        long entryCount = estimator.getEntryCount();
+        double fullScanCost = entryCount * scanCost;
+        double rows = estimator.estimate(new AndPredicate(terms));
+        List<Term> ordered = orderBySelectivity(terms, estimator, queryContext);
+        Term driver = findDriver(ordered);
+        if (driver == null) {
+            return fullScan(new AndPredicate(predicates(ordered)), scanSteps(ordered), rows, fullScanCost);
+        }
+        ordered.remove(driver);
+
+        List<Step> steps = new ArrayList<Step>(terms.length);
+        List<Predicate> planned = new ArrayList<Predicate>(terms.length);
+        steps.add(new Step(Access.LOOKUP, driver.predicate, driver.rows));
+        planned.add(driver.predicate);
+        double candidates = driver.effectiveRows(entryCount);
+        double cost = candidates * LOOKUP_COST;
+        boolean intersected = false;
+        for (Term term : ordered) {
+            double intersectCost = term.buildCost(entryCount) + candidates * PROBE_COST;
+            double candidatesFilterCost = candidates * filterCost;
+            if (term.indexed && intersectCost < candidatesFilterCost) {
+                steps.add(new Step(Access.INTERSECT, term.predicate, term.rows));
+                planned.add(term.predicate);
+                cost += intersectCost;
+                intersected = true;
+            } else {
+                steps.add(new Step(Access.FILTER, term.predicate, term.rows));
+                planned.add(new UnindexedPredicate(term.predicate));
+                cost += candidatesFilterCost;
+            }
+            candidates *= term.selectivity(entryCount);
+        }
+
+        if (cost > fullScanCost) {
+            ordered.add(0, driver);
+            Collections.sort(ordered, Term.BY_SELECTIVITY);
+            return fullScan(new UnindexedPredicate(new AndPredicate(predicates(ordered))), scanSteps(ordered), rows,
+                    fullScanCost);
+        }
+        QueryPlan.Type type = intersected ? QueryPlan.Type.INDEX_INTERSECTION : QueryPlan.Type.INDEX_LOOKUP;
+        Predicate predicate = new AndPredicate(planned.toArray(new Predicate[planned.size()]));
+        return new QueryPlan(type, predicate, steps, rows, cost, fullScanCost);
+    }
+
+    private static List<Term> orderBySelectivity(Predicate[] terms, CardinalityEstimator estimator,
+                                                 QueryContext queryContext) {
+        List<Term> ordered = new ArrayList<Term>(terms.length);
+        for (Predicate term : terms) {
+            ordered.add(new Term(term, estimator.estimate(term), canUseIndex(term, queryContext)));
+        }
+        // the sort is stable, terms without an estimate keep their order at the end
+        Collections.sort(ordered, Term.BY_SELECTIVITY);
+        return ordered;
+    }
+
+    /**
+     * @return the most selective term that can use its index, or {@code null} if there is none
+     */
+    private static Term findDriver(List<Term> ordered) {
+        for (Term term : ordered) {
+            if (term.indexed) {
+                return term;
+            }
+        }
+        return null;
+    }
+
+    private static QueryPlan fullScan(Predicate predicate, List<Step> steps, double rows, double fullScanCost) {
+        return new QueryPlan(QueryPlan.Type.FULL_SCAN, predicate, steps, rows, fullScanCost, fullScanCost);
+    }
+
+    private static List<Step> scanSteps(List<Term> terms) {
+        List<Step> steps = new ArrayList<Step>(terms.size());
+        for (Term term : terms) {
+            steps.add(new Step(Access.SCAN, term.predicate, term.rows));
+        }
+        return steps;
+    }
+
+    private static Predicate[] predicates(List<Term> terms) {
+        Predicate[] predicates = new Predicate[terms.size()];
+        for (int i = 0; i < predicates.length; i++) {
+            predicates[i] = terms.get(i).predicate;
+        }
+        return predicates;
+    }
+
+    private static boolean canUseIndex(Predicate predicate, QueryContext queryContext) {
+        return predicate instanceof IndexAwarePredicate && ((IndexAwarePredicate) predicate).isIndexed(queryContext);
+    }
+
+    /**
+     * A term of a conjunction with its estimate.
+     */
+    private static final class Term {
+
+        static final Comparator<Term> BY_SELECTIVITY = new Comparator<Term>() {
+            @Override
+            public int compare(Term left, Term right) {
+                return Double.compare(left.sortKey(), right.sortKey());
+            }
+        };
+
+        final Predicate predicate;
+        final double rows;
+        final boolean indexed;
+
+        Term(Predicate predicate, double rows, boolean indexed) {
+            this.predicate = predicate;
+            this.rows = rows;
+            this.indexed = indexed;
+        }
+
+        double sortKey() {
+            return rows == UNKNOWN ? Double.MAX_VALUE : rows;
+        }
+
+        /**
+         * @return the estimated rows, assuming all entries match if there is no estimate
+         */
+        double effectiveRows(long entryCount) {
+            return rows == UNKNOWN ? entryCount : rows;
+        }
+
+        double buildCost(long entryCount) {
+            return predicate.getClass() == EqualPredicate.class ? 0 : effectiveRows(entryCount) * INTERSECT_COST;
+        }
+
+        double selectivity(long entryCount) {
+            return rows == UNKNOWN || entryCount == 0 ? 1 : Math.min(1, rows / entryCount);
+        }
+    }
+}
@@ -17,6 +17,9 @@
 package com.hazelcast.query.impl.predicates;
 
 import com.hazelcast.query.Predicate;
+import com.hazelcast.query.impl.BitmapIndex;
+import com.hazelcast.query.impl.ComparisonType;
+import com.hazelcast.query.impl.Index;
 import com.hazelcast.query.impl.QueryContext;
 import com.hazelcast.query.impl.QueryableEntry;
 
@@ -27,6 +30,10 @@ import java.util.Set;
  * Not Equal Predicate
  */
 public final class NotEqualPredicate extends EqualPredicate {
+
+    // set by the optimizer only, so it is not serialized
+    private transient boolean bitmapIndexed;
+
     public NotEqualPredicate() {
     }
 
@@ -39,14 +46,31 @@ public final class NotEqualPredicate extends EqualPredicate {
         return !super.apply(entry);
     }
 
+    /**
+     * Returns a copy of this predicate which is evaluated with a not-equal lookup when the attribute has a bitmap
+     * index. Only a bitmap index answers it cheaply, by clearing the bits of the value from the bitmap of all the
+     * indexed entries; other indexes would return nearly all the entries.
+     *
+     * @see BitmapNotEqualVisitor
+     */
+    NotEqualPredicate withBitmapIndex() {
+        NotEqualPredicate copy = new NotEqualPredicate(attributeName, value);
+        copy.bitmapIndexed = true;
+        return copy;
+    }
+
     @Override
     public boolean isIndexed(QueryContext queryContext) {
-        return false;
+        return bitmapIndexed && getIndex(queryContext) instanceof BitmapIndex;
     }
 
     @Override
     public Set<QueryableEntry> filter(QueryContext queryContext) {
-        return null;
+        if (!bitmapIndexed) {
+            return null;
+        }
+        Index index = getIndex(queryContext);
+        return index.getSubRecords(ComparisonType.NOT_EQUAL, value);
     }
 
     @Override
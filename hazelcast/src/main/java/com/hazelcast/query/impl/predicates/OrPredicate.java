@@ -22,6 +22,7 @@ import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
 import com.hazelcast.query.IndexAwarePredicate;
 import com.hazelcast.query.Predicate;
 import com.hazelcast.query.VisitablePredicate;
+import com.hazelcast.query.impl.BitmapResultSet;
 import com.hazelcast.query.impl.Indexes;
 import com.hazelcast.query.impl.OrResultSet;
 import com.hazelcast.query.impl.QueryContext;
@@ -53,12 +54,16 @@ public final class OrPredicate
     @Override
     public Set<QueryableEntry> filter(QueryContext queryContext) {
         List<Set<QueryableEntry>> indexedResults = new LinkedList<Set<QueryableEntry>>();
+        BitmapResultSet bitmapResult = null;
         for (Predicate predicate : predicates) {
             if (predicate instanceof IndexAwarePredicate) {
                 IndexAwarePredicate iap = (IndexAwarePredicate) predicate;
                 if (iap.isIndexed(queryContext)) {
                     Set<QueryableEntry> s = iap.filter(queryContext);
-                    if (s != null) {
+                    if (s instanceof BitmapResultSet) {
+                        // results of bitmap indexes are merged bitwise instead of through the OrResultSet
+                        bitmapResult = bitmapResult == null ? (BitmapResultSet) s : bitmapResult.or((BitmapResultSet) s);
+                    } else if (s != null) {
                         indexedResults.add(s);
                     }
                 } else {
@@ -66,6 +71,12 @@ public final class OrPredicate
                 }
             }
         }
+        if (bitmapResult != null) {
+            if (indexedResults.isEmpty()) {
+                return bitmapResult;
+            }
+            indexedResults.add(bitmapResult);
+        }
         return indexedResults.isEmpty() ? null : new OrResultSet(indexedResults);
     }
 
@@ -67,7 +67,9 @@ public class PredicateDataSerializerHook
 
     public static final int PAGING_PREDICATE = 15;
 
-    public static final int LEN = 16;
+    public static final int COMPOSITE_INDEX_PREDICATE = 16;
+
+    public static final int LEN = 17;
 
     @Override
     public int getFactoryId() {
@@ -158,6 +160,11 @@ public class PredicateDataSerializerHook
                 return new PagingPredicate();
             }
         };
+        constructors[COMPOSITE_INDEX_PREDICATE] = new ConstructorFunction<Integer, IdentifiedDataSerializable>() {
+            public IdentifiedDataSerializable createNew(Integer arg) {
+                return new CompositeIndexPredicate();
+            }
+        };
 
         return new ArrayDataSerializableFactory(constructors);
     }
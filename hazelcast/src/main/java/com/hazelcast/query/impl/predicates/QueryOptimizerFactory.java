@@ -28,7 +28,8 @@ import java.util.Arrays;
 public final class QueryOptimizerFactory {
     public enum Type {
         NONE,
-        RULES
+        RULES,
+        COST
     }
 
     private QueryOptimizerFactory() {
@@ -53,6 +54,8 @@ public final class QueryOptimizerFactory {
         switch (type) {
             case RULES:
                 return new RuleBasedQueryOptimizer();
+            case COST:
+                return new CostBasedQueryOptimizer();
             default:
                 return new EmptyOptimizer();
         }
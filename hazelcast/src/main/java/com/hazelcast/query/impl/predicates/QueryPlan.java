@@ -0,0 +1,202 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.query.impl.predicates;
+
+import com.hazelcast.query.Predicate;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The plan the {@link CostBasedQueryOptimizer} chose for a query on the local member.
+ * <p/>
+ * The plan lists how each term of the query is evaluated, in order, with the number of entries it is estimated to
+ * match, and compares the estimated cost of the plan with the cost of a full table scan. Costs are relative to
+ * evaluating the query on one entry during a full table scan. The {@link #getPredicate() predicate} is the optimized
+ * predicate that executes the plan.
+ */
+public final class QueryPlan {
+
+    /**
+     * Marks an unknown estimate.
+     */
+    public static final double UNKNOWN = CardinalityEstimator.UNKNOWN;
+
+    /**
+     * How a query is executed.
+     */
+    public enum Type {
+        /**
+         * Every entry is evaluated, no index is used.
+         */
+        FULL_SCAN,
+        /**
+         * The candidates are looked up in one index, other terms are evaluated on them.
+         */
+        INDEX_LOOKUP,
+        /**
+         * The candidates are looked up in one index and intersected with the results of other indexes.
+         */
+        INDEX_INTERSECTION
+    }
+
+    /**
+     * How a term of a query is evaluated.
+     */
+    public enum Access {
+        /**
+         * The term is evaluated on every entry.
+         */
+        SCAN,
+        /**
+         * The term is looked up in its index and yields the candidates.
+         */
+        LOOKUP,
+        /**
+         * The term is looked up in its index and the candidates are probed against the result.
+         */
+        INTERSECT,
+        /**
+         * The term is evaluated on every candidate.
+         */
+        FILTER
+    }
+
+    private final Type type;
+    private final Predicate predicate;
+    private final List<Step> steps;
+    private final double estimatedRows;
+    private final double cost;
+    private final double fullScanCost;
+
+    QueryPlan(Type type, Predicate predicate, List<Step> steps, double estimatedRows, double cost, double fullScanCost) {
+        this.type = type;
+        this.predicate = predicate;
+        this.steps = Collections.unmodifiableList(steps);
+        this.estimatedRows = estimatedRows;
+        this.cost = cost;
+        this.fullScanCost = fullScanCost;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * @return the optimized predicate which executes this plan
+     */
+    public Predicate getPredicate() {
+        return predicate;
+    }
+
+    /**
+     * @return the terms of the query in evaluation order
+     */
+    public List<Step> getSteps() {
+        return steps;
+    }
+
+    /**
+     * @return the estimated number of matching entries, or {@link #UNKNOWN}
+     */
+    public double getEstimatedRows() {
+        return estimatedRows;
+    }
+
+    public double getCost() {
+        return cost;
+    }
+
+    public double getFullScanCost() {
+        return fullScanCost;
+    }
+
+    /**
+     * Tells if the query is answered from the indexes alone. No term is evaluated on an entry then, so a query for
+     * keys never reads, nor deserializes, the values of the entries.
+     *
+     * @return {@code true} if every term is looked up in its index
+     */
+    public boolean isIndexOnly() {
+        if (type == Type.FULL_SCAN) {
+            return false;
+        }
+        for (Step step : steps) {
+            if (step.access == Access.FILTER) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(type)
+                .append(" rows=").append(format(estimatedRows))
+                .append(" cost=").append(format(cost))
+                .append(" fullScanCost=").append(format(fullScanCost));
+        if (isIndexOnly()) {
+            sb.append(" indexOnly");
+        }
+        for (Step step : steps) {
+            sb.append("\n  ").append(step);
+        }
+        return sb.toString();
+    }
+
+    private static String format(double value) {
+        return value == UNKNOWN ? "?" : String.valueOf(Math.round(value));
+    }
+
+    /**
+     * A term of a query and how it is evaluated.
+     */
+    public static final class Step {
+
+        private final Access access;
+        private final Predicate predicate;
+        private final double estimatedRows;
+
+        Step(Access access, Predicate predicate, double estimatedRows) {
+            this.access = access;
+            this.predicate = predicate;
+            this.estimatedRows = estimatedRows;
+        }
+
+        public Access getAccess() {
+            return access;
+        }
+
+        public Predicate getPredicate() {
+            return predicate;
+        }
+
+        /**
+         * @return the estimated number of entries matched by the term alone, or {@link QueryPlan#UNKNOWN}
+         */
+        public double getEstimatedRows() {
+            return estimatedRows;
+        }
+
+        @Override
+        public String toString() {
+            return access + " " + predicate + " rows=" + format(estimatedRows);
+        }
+    }
+}
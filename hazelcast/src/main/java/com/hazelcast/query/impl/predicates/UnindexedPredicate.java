@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.query.impl.predicates;
+
+import com.hazelcast.query.Predicate;
+
+import java.util.Map;
+
+/**
+ * Evaluates a predicate entry by entry, hiding it from the indexes.
+ * <p/>
+ * Created by the {@link CostBasedQueryOptimizer} for the terms of a conjunction that are cheaper to evaluate on the
+ * candidates than to look up, and for queries that are cheaper to run as a full table scan. It only lives in the
+ * optimized predicate of a local query and is never sent to other members.
+ */
+final class UnindexedPredicate implements Predicate {
+
+    private final Predicate predicate;
+
+    UnindexedPredicate(Predicate predicate) {
+        this.predicate = predicate;
+    }
+
+    Predicate getPredicate() {
+        return predicate;
+    }
+
+    @Override
+    public boolean apply(Map.Entry mapEntry) {
+        return predicate.apply(mapEntry);
+    }
+
+    @Override
+    public String toString() {
+        return "SCAN(" + predicate + ")";
+    }
+}
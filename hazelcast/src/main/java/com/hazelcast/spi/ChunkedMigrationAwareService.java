@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.spi;
+
+import com.hazelcast.core.ExecutionCallback;
+import com.hazelcast.partition.MigrationInfo;
+
+/**
+ * A {@link MigrationAwareService} which can copy the data of a partition to the destination of a migration in
+ * size-bounded chunks, while the partition stays writable. When
+ * {@link com.hazelcast.instance.GroupProperty#PARTITION_MIGRATION_CHUNKED_ENABLED} is set the migration
+ * <ol>
+ * <li>calls {@link #startChunkedMigration(MigrationInfo, ExecutionCallback)} on the source before the partition is
+ * marked as migrating, and waits for the copy to complete,</li>
+ * <li>marks the partition as migrating and replicates only the data changed during the copy, which
+ * {@link #prepareChunkedReplicationOperation(PartitionReplicationEvent)} returns.</li>
+ * </ol>
+ * If the copy fails the migration replicates the whole partition by
+ * {@link #prepareReplicationOperation(PartitionReplicationEvent)}.
+ */
+public interface ChunkedMigrationAwareService extends MigrationAwareService {
+
+    /**
+     * Starts copying the data of the partition to the destination of the migration. Called on the partition thread.
+     *
+     * @param migrationInfo the migration
+     * @param callback      notified with {@code true} when the copy completes, or with {@code false} when the
+     *                      partition has to be replicated as a whole
+     */
+    void startChunkedMigration(MigrationInfo migrationInfo, ExecutionCallback<Boolean> callback);
+
+    /**
+     * Returns the operation replicating the data changed since the copy started, or the whole partition if the
+     * copy did not complete. Called on the partition thread, once the partition is marked as migrating.
+     *
+     * @param event the replication event of the migration
+     * @return the replication operation, or {@code null} if there is nothing to replicate
+     */
+    Operation prepareChunkedReplicationOperation(PartitionReplicationEvent event);
+
+    /**
+     * Cancels the chunked migration of the partition, if any, e.g. when the migration failed before its cut-over.
+     * The data copied to the destination is removed.
+     *
+     * @param partitionId the partition id
+     */
+    void cancelChunkedMigration(int partitionId);
+}
@@ -76,6 +76,24 @@ public interface ExecutionService {
      */
     String MAP_LOAD_ALL_KEYS_EXECUTOR = "hz:map-loadAllKeys";
 
+    /**
+     * The name of the executor that runs the {@link com.hazelcast.core.MapLoader#loadAll(java.util.Collection)} calls in
+     * parallel when {@link com.hazelcast.instance.GroupProperty#MAP_LOAD_PARALLEL_ENABLED} is set.
+     */
+    String MAP_LOADER_PARALLEL_EXECUTOR = "hz:map-load-parallel";
+
+    /**
+     * The name of the executor that stores the write-behind entries of a map in parallel streams when
+     * {@link com.hazelcast.instance.GroupProperty#MAP_WRITE_BEHIND_STORE_CONCURRENCY} is more than 1.
+     */
+    String MAP_WRITE_BEHIND_STORE_EXECUTOR = "hz:map-write-behind-store";
+
+    /**
+     * The name of the executor that runs the {@link com.hazelcast.core.ReadOnly} entry processors applied to a single
+     * key, when {@link com.hazelcast.instance.GroupProperty#MAP_READ_ONLY_ENTRY_PROCESSOR_OFFLOAD_ENABLED} is set.
+     */
+    String MAP_READ_ONLY_ENTRY_PROCESSOR_EXECUTOR = "hz:map-read-only-entry-processor";
+
     ManagedExecutorService register(String name, int poolSize, int queueCapacity, ExecutorType type);
 
     ManagedExecutorService getExecutor(String name);
@@ -61,4 +61,22 @@ public interface InternalOperationService extends OperationService, PacketHandle
     List<SlowOperationDTO> getSlowOperationDTOs();
 
     <V> void asyncInvokeOnPartition(String serviceName, Operation op, int partitionId, ExecutionCallback<V> callback);
+
+    /**
+     * Registers an operation which sends its response after it has left the operation thread, e.g. because it handed
+     * its work over to an executor. Until {@link #onCompletionAsyncOperation(Operation)} is called, the operation is
+     * reported as executing to the invocation waiting for it, so the invocation does not time out while the response
+     * is still coming.
+     *
+     * @param op the operation which sends its response asynchronously
+     */
+    void onStartAsyncOperation(Operation op);
+
+    /**
+     * Unregisters an operation registered by {@link #onStartAsyncOperation(Operation)}. It is called once the
+     * response of the operation has been sent.
+     *
+     * @param op the operation which has sent its response
+     */
+    void onCompletionAsyncOperation(Operation op);
 }
@@ -19,6 +19,8 @@ package com.hazelcast.spi.impl.operationservice.impl;
 import com.hazelcast.nio.Address;
 import com.hazelcast.spi.OperationFactory;
 import com.hazelcast.spi.impl.NodeEngineImpl;
+import com.hazelcast.spi.Operation;
+import com.hazelcast.spi.impl.operationservice.impl.operations.PartitionAwareOperationFactory;
 import com.hazelcast.spi.impl.operationservice.impl.operations.PartitionIteratingOperation;
 
 import java.util.HashMap;
@@ -30,6 +32,10 @@ import java.util.concurrent.Future;
 
 /**
  * Executes an operation on a set of partitions.
+ * <p/>
+ * A single {@link PartitionIteratingOperation} is sent to each member owning some of the partitions. If the
+ * {@link OperationFactory} is a {@link PartitionAwareOperationFactory}, it is split per member first, so a member only
+ * receives the payload of the partitions it owns.
  */
 final class InvokeOnPartitions {
 
@@ -79,7 +85,7 @@ final class InvokeOnPartitions {
         for (Map.Entry<Address, List<Integer>> mp : memberPartitions.entrySet()) {
             Address address = mp.getKey();
             List<Integer> partitions = mp.getValue();
-            PartitionIteratingOperation pi = new PartitionIteratingOperation(partitions, operationFactory);
+            PartitionIteratingOperation pi = new PartitionIteratingOperation(partitions, getOperationFactory(partitions));
             Future future = operationService.createInvocationBuilder(serviceName, pi, address)
                     .setTryCount(TRY_COUNT)
                     .setTryPauseMillis(TRY_PAUSE_MILLIS)
@@ -88,6 +94,22 @@ final class InvokeOnPartitions {
         }
     }
 
+    private OperationFactory getOperationFactory(List<Integer> partitions) {
+        if (operationFactory instanceof PartitionAwareOperationFactory) {
+            return ((PartitionAwareOperationFactory) operationFactory)
+                    .createFactoryForPartitions(operationService.nodeEngine, partitions);
+        }
+        return operationFactory;
+    }
+
+    private Operation createOperation(int partitionId) {
+        if (operationFactory instanceof PartitionAwareOperationFactory) {
+            return ((PartitionAwareOperationFactory) operationFactory)
+                    .createPartitionOperation(operationService.nodeEngine, partitionId);
+        }
+        return operationFactory.createOperation();
+    }
+
     private void awaitCompletion() {
         NodeEngineImpl nodeEngine = operationService.nodeEngine;
         for (Map.Entry<Address, Future> response : futures.entrySet()) {
@@ -122,7 +144,7 @@ final class InvokeOnPartitions {
 
         for (Integer failedPartition : failedPartitions) {
             Future f = operationService.createInvocationBuilder(
-                    serviceName, operationFactory.createOperation(), failedPartition).invoke();
+                    serviceName, createOperation(failedPartition), failedPartition).invoke();
             partitionResults.put(failedPartition, f);
         }
 
@@ -28,6 +28,9 @@ import com.hazelcast.spi.impl.operationexecutor.OperationRunner;
 import com.hazelcast.spi.impl.operationservice.impl.operations.IsStillExecutingOperation;
 import com.hazelcast.spi.impl.operationservice.impl.operations.TraceableIsStillExecutingOperation;
 
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
@@ -54,6 +57,7 @@ public class IsStillRunningService {
     //private final OperationServiceImpl operationService;
     private final NodeEngineImpl nodeEngine;
     private final OperationExecutor operationExecutor;
+    private final Set<Operation> asyncOperations = Collections.newSetFromMap(new ConcurrentHashMap<Operation, Boolean>());
 
     public IsStillRunningService(OperationExecutor operationExecutor, NodeEngineImpl nodeEngine, ILogger logger) {
         this.operationExecutor = operationExecutor;
@@ -122,6 +126,25 @@ public class IsStillRunningService {
         }
     }
 
+    /**
+     * Registers an operation which sends its response after it has left the operation thread.
+     *
+     * @param op the operation
+     * @see com.hazelcast.spi.impl.operationservice.InternalOperationService#onStartAsyncOperation(Operation)
+     */
+    public void onStartAsyncOperation(Operation op) {
+        asyncOperations.add(op);
+    }
+
+    /**
+     * Unregisters an operation registered by {@link #onStartAsyncOperation(Operation)}.
+     *
+     * @param op the operation
+     */
+    public void onCompletionAsyncOperation(Operation op) {
+        asyncOperations.remove(op);
+    }
+
     private Operation createCheckOperation(Invocation invocation) {
         Operation op = invocation.op;
         if (op instanceof TraceableOperation) {
@@ -158,17 +181,31 @@ public class IsStillRunningService {
      * If the partition id isn't set, then we iterate over all generic-operationthread and check if one of them is running
      * the given operation. So this is more expensive, but in most cases this should not be an issue since most of the data
      * is hot in cache.
+     * <p/>
+     * An operation which left the operation thread but still has to send its response, see
+     * {@link #onStartAsyncOperation(Operation)}, is executing as well.
      * @param callerAddress The caller address for this operation.
      * @param partitionId The id of the partition where this operation resides.
      * @param operationCallId The call id for this operation.
      * @return true if the operation is running, false otherwise.
      */
     public boolean isOperationExecuting(Address callerAddress, int partitionId, long operationCallId) {
+        boolean executing;
         if (partitionId < 0) {
-            return isGenericOperationExecuting(callerAddress, operationCallId);
+            executing = isGenericOperationExecuting(callerAddress, operationCallId);
         } else {
-            return isPartitionSpecificOperationExecuting(callerAddress, partitionId, operationCallId);
+            executing = isPartitionSpecificOperationExecuting(callerAddress, partitionId, operationCallId);
         }
+        return executing || isAsyncOperationExecuting(callerAddress, operationCallId);
+    }
+
+    private boolean isAsyncOperationExecuting(Address callerAddress, long operationCallId) {
+        for (Operation op : asyncOperations) {
+            if (matches(op, callerAddress, operationCallId)) {
+                return true;
+            }
+        }
+        return false;
     }
 
     private boolean isPartitionSpecificOperationExecuting(Address callerAddress, int partitionId, long operationCallId) {
@@ -208,6 +208,16 @@ public final class OperationServiceImpl implements InternalOperationService, Pac
         return slowOperationDetector.getSlowOperationDTOs();
     }
 
+    @Override
+    public void onStartAsyncOperation(Operation op) {
+        isStillRunningService.onStartAsyncOperation(op);
+    }
+
+    @Override
+    public void onCompletionAsyncOperation(Operation op) {
+        isStillRunningService.onCompletionAsyncOperation(op);
+    }
+
     public InvocationRegistry getInvocationsRegistry() {
         return invocationsRegistry;
     }
@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.spi.impl.operationservice.impl.operations;
+
+import com.hazelcast.spi.NodeEngine;
+import com.hazelcast.spi.Operation;
+import com.hazelcast.spi.OperationFactory;
+
+import java.util.List;
+
+/**
+ * An {@link OperationFactory} which knows which part of its payload belongs to which partition.
+ * <p/>
+ * A plain {@link OperationFactory} is sent as a whole to every member, so every member receives the complete payload
+ * (e.g. all keys of a getAll) even though it owns only a few of the partitions. When invoking on multiple partitions,
+ * a partition aware factory is first split per owner member using {@link #createFactoryForPartitions(NodeEngine, List)},
+ * so a single packet per member carries only the data of the partitions that member owns. On the member, the
+ * {@link PartitionIteratingOperation} fans the work out to the partition threads using
+ * {@link #createPartitionOperation(NodeEngine, int)} and merges the results into a single response. The backups of
+ * the created operations are sent as for any other backup aware operation, and the caller waits for their sync
+ * backups.
+ */
+public interface PartitionAwareOperationFactory extends OperationFactory {
+
+    /**
+     * Creates a factory which only carries the payload of the given partitions.
+     *
+     * @param nodeEngine the node engine
+     * @param partitions the partitions the created factory is responsible for
+     * @return the created factory
+     */
+    PartitionAwareOperationFactory createFactoryForPartitions(NodeEngine nodeEngine, List<Integer> partitions);
+
+    /**
+     * Creates the operation for the given partition.
+     *
+     * @param nodeEngine  the node engine
+     * @param partitionId the partition to create the operation for
+     * @return the created operation
+     */
+    Operation createPartitionOperation(NodeEngine nodeEngine, int partitionId);
+}
@@ -44,6 +44,7 @@ public final class PartitionIteratingOperation extends AbstractOperation impleme
     private List<Integer> partitions;
     private OperationFactory operationFactory;
     private Map<Integer, Object> results;
+    private int syncBackupCount;
 
     public PartitionIteratingOperation(List<Integer> partitions, OperationFactory operationFactory) {
         this.partitions = partitions != null ? partitions : Collections.<Integer>emptyList();
@@ -70,7 +71,9 @@ public final class PartitionIteratingOperation extends AbstractOperation impleme
             final Integer key = responseQueueEntry.getKey();
             final Object result = queue.get();
             if (result instanceof NormalResponse) {
-                results.put(key, ((NormalResponse) result).getValue());
+                NormalResponse response = (NormalResponse) result;
+                results.put(key, response.getValue());
+                syncBackupCount += response.getBackupCount();
             } else {
                 results.put(key, result);
             }
@@ -82,7 +85,7 @@ public final class PartitionIteratingOperation extends AbstractOperation impleme
         Map<Integer, ResponseQueue> responses = new HashMap<Integer, ResponseQueue>(partitions.size());
         for (final int partitionId : partitions) {
             ResponseQueue responseQueue = new ResponseQueue();
-            final Operation op = operationFactory.createOperation();
+            final Operation op = createOperation(nodeEngine, partitionId);
             op.setNodeEngine(nodeEngine)
                     .setPartitionId(partitionId)
                     .setReplicaIndex(getReplicaIndex())
@@ -91,12 +94,23 @@ public final class PartitionIteratingOperation extends AbstractOperation impleme
                     .setService(getService())
                     .setCallerUuid(getCallerUuid());
             OperationAccessor.setCallerAddress(op, getCallerAddress());
+            if (operationFactory instanceof PartitionAwareOperationFactory) {
+                // the sync backups of the operation are acknowledged to the invocation of this operation
+                OperationAccessor.setCallId(op, getCallId());
+            }
             responses.put(partitionId, responseQueue);
             nodeEngine.getOperationService().executeOperation(op);
         }
         return responses;
     }
 
+    private Operation createOperation(NodeEngine nodeEngine, int partitionId) {
+        if (operationFactory instanceof PartitionAwareOperationFactory) {
+            return ((PartitionAwareOperationFactory) operationFactory).createPartitionOperation(nodeEngine, partitionId);
+        }
+        return operationFactory.createOperation();
+    }
+
     @Override
     public void afterRun() throws Exception {
     }
@@ -105,9 +119,17 @@ public final class PartitionIteratingOperation extends AbstractOperation impleme
         return nodeEngine.getLogger(PartitionIteratingOperation.class.getName());
     }
 
+    /**
+     * Returns the results of the partitions. The operations created by a {@link PartitionAwareOperationFactory} send
+     * their backups with the call id of this operation, so the caller then also waits for their sync backups.
+     */
     @Override
     public Object getResponse() {
-        return new PartitionResponse(results);
+        PartitionResponse response = new PartitionResponse(results);
+        if (syncBackupCount > 0) {
+            return new NormalResponse(response, getCallId(), syncBackupCount, isUrgent());
+        }
+        return response;
     }
 
     private static class ResponseQueue implements OperationResponseHandler {
@@ -1,5 +1,6 @@
 package com.hazelcast.cache.eviction;
 
+import com.hazelcast.internal.eviction.AccessAwareEvictionPolicyEvaluator;
 import com.hazelcast.internal.eviction.Evictable;
 import com.hazelcast.internal.eviction.EvictionCandidate;
 import com.hazelcast.internal.eviction.EvictionConfiguration;
@@ -154,4 +155,103 @@ public class EvictionPolicyEvaluatorTest extends HazelcastTestSupport {
         assertEquals(EXPECTED_EVICTED_RECORD_VALUE, evictedRecord.getValue());
     }
 
+    @Test
+    public void evictionPolicyTinyLFUSuccessfullyEvaluated() {
+        final int RECORD_COUNT = 100;
+        final int EXPECTED_EVICTED_RECORD_VALUE = RECORD_COUNT / 2;
+
+        AccessAwareEvictionPolicyEvaluator<Integer, CacheObjectRecord> evictionPolicyEvaluator =
+                createTinyLFUEvictionPolicyEvaluator();
+        List<EvictionCandidate<Integer, CacheObjectRecord>> records =
+                new ArrayList<EvictionCandidate<Integer, CacheObjectRecord>>();
+
+        long now = System.currentTimeMillis();
+
+        for (int i = 0; i < RECORD_COUNT; i++) {
+            // The record in the middle will be accessed only once.
+            // So, it will be selected for eviction although it is the most recently used one
+            int accessCount = i == EXPECTED_EVICTED_RECORD_VALUE ? 1 : 5;
+            for (int j = 0; j < accessCount; j++) {
+                evictionPolicyEvaluator.onAccess(i);
+            }
+            CacheObjectRecord record = new CacheObjectRecord(i, now, Long.MAX_VALUE);
+            record.setAccessTime(i == EXPECTED_EVICTED_RECORD_VALUE ? now + 1000 : now);
+            records.add(new SimpleEvictionCandidate<Integer, CacheObjectRecord>(i, record));
+        }
+        // Accesses to other keys move the records out of the window of recently used ones
+        for (int i = RECORD_COUNT; i < 2 * RECORD_COUNT; i++) {
+            evictionPolicyEvaluator.onAccess(i);
+        }
+
+        assertEquals(EXPECTED_EVICTED_RECORD_VALUE, evaluateSingle(evictionPolicyEvaluator, records));
+    }
+
+    @Test
+    public void evictionPolicyTinyLFUProtectsRecentlyUsedRecords() {
+        final int RECORD_COUNT = 100;
+        final int EXPECTED_EVICTED_RECORD_VALUE = RECORD_COUNT / 2;
+
+        AccessAwareEvictionPolicyEvaluator<Integer, CacheObjectRecord> evictionPolicyEvaluator =
+                createTinyLFUEvictionPolicyEvaluator();
+        List<EvictionCandidate<Integer, CacheObjectRecord>> records =
+                new ArrayList<EvictionCandidate<Integer, CacheObjectRecord>>();
+
+        long now = System.currentTimeMillis();
+
+        for (int i = 0; i < RECORD_COUNT; i++) {
+            for (int j = 0; j < 5; j++) {
+                evictionPolicyEvaluator.onAccess(i);
+            }
+            CacheObjectRecord record = new CacheObjectRecord(i, now, Long.MAX_VALUE);
+            // Between the records with the same frequency, the least recently used one is evicted
+            record.setAccessTime(i == EXPECTED_EVICTED_RECORD_VALUE ? now - 1000 : now);
+            records.add(new SimpleEvictionCandidate<Integer, CacheObjectRecord>(i, record));
+        }
+        // The new record is accessed only once, but it is in the window of recently used ones
+        evictionPolicyEvaluator.onAccess(RECORD_COUNT);
+        CacheObjectRecord newRecord = new CacheObjectRecord(RECORD_COUNT, now, Long.MAX_VALUE);
+        newRecord.setAccessTime(now - 2000);
+        records.add(new SimpleEvictionCandidate<Integer, CacheObjectRecord>(RECORD_COUNT, newRecord));
+
+        assertEquals(EXPECTED_EVICTED_RECORD_VALUE, evaluateSingle(evictionPolicyEvaluator, records));
+        // When all candidates are in the window, the least recently used one is evicted
+        assertEquals(RECORD_COUNT, evaluateSingle(evictionPolicyEvaluator, records.subList(RECORD_COUNT, RECORD_COUNT + 1)));
+    }
+
+    private AccessAwareEvictionPolicyEvaluator<Integer, CacheObjectRecord> createTinyLFUEvictionPolicyEvaluator() {
+        EvictionConfiguration evictionConfig = new EvictionConfiguration() {
+            @Override
+            public EvictionStrategyType getEvictionStrategyType() {
+                return null;
+            }
+
+            @Override
+            public EvictionPolicyType getEvictionPolicyType() {
+                return EvictionPolicyType.TINY_LFU;
+            }
+        };
+        EvictionPolicyEvaluator evictionPolicyEvaluator =
+                EvictionPolicyEvaluatorProvider.getEvictionPolicyEvaluator(evictionConfig);
+        assertTrue(evictionPolicyEvaluator instanceof AccessAwareEvictionPolicyEvaluator);
+        // Every evaluator keeps the access history of a single store
+        assertTrue(evictionPolicyEvaluator != EvictionPolicyEvaluatorProvider.getEvictionPolicyEvaluator(evictionConfig));
+
+        AccessAwareEvictionPolicyEvaluator<Integer, CacheObjectRecord> accessAwareEvaluator =
+                (AccessAwareEvictionPolicyEvaluator<Integer, CacheObjectRecord>) evictionPolicyEvaluator;
+        accessAwareEvaluator.ensureCapacity(1000);
+        return accessAwareEvaluator;
+    }
+
+    private Object evaluateSingle(EvictionPolicyEvaluator<Integer, CacheObjectRecord> evictionPolicyEvaluator,
+                                  List<EvictionCandidate<Integer, CacheObjectRecord>> records) {
+        Iterable<EvictionCandidate<Integer, CacheObjectRecord>> evictedRecords = evictionPolicyEvaluator.evaluate(records);
+        assertNotNull(evictedRecords);
+
+        Iterator<EvictionCandidate<Integer, CacheObjectRecord>> evictedRecordsIterator = evictedRecords.iterator();
+        assertTrue(evictedRecordsIterator.hasNext());
+        EvictionCandidate<Integer, CacheObjectRecord> candidateEvictedRecord = evictedRecordsIterator.next();
+        assertFalse(evictedRecordsIterator.hasNext());
+        return candidateEvictedRecord.getEvictable().getValue();
+    }
+
 }
@@ -218,6 +218,11 @@ public class NearCacheRecordStoreTest extends NearCacheRecordStoreTestSupport {
         doEvictionWithEntryCountMaxSizePolicy(InMemoryFormat.OBJECT, EvictionPolicy.LFU);
     }
 
+    @Test
+    public void evictionTriggeredAndHandledSuccessfullyWithEntryCountMaxSizePolicyAndTinyLFUEvictionPolicyOnNearCacheObjectRecordStore() {
+        doEvictionWithEntryCountMaxSizePolicy(InMemoryFormat.OBJECT, EvictionPolicy.TINY_LFU);
+    }
+
     @Test
     public void evictionTriggeredAndHandledSuccessfullyWithEntryCountMaxSizePolicyAndDefaultEvictionPolicyOnNearCacheObjectRecordStore() {
         doEvictionWithEntryCountMaxSizePolicy(InMemoryFormat.OBJECT, null);
@@ -238,6 +243,11 @@ public class NearCacheRecordStoreTest extends NearCacheRecordStoreTestSupport {
         doEvictionWithEntryCountMaxSizePolicy(InMemoryFormat.BINARY, EvictionPolicy.LFU);
     }
 
+    @Test
+    public void evictionTriggeredAndHandledSuccessfullyWithEntryCountMaxSizePolicyAndTinyLFUEvictionPolicyNearCacheDataRecordStore() {
+        doEvictionWithEntryCountMaxSizePolicy(InMemoryFormat.BINARY, EvictionPolicy.TINY_LFU);
+    }
+
     @Test
     public void evictionTriggeredAndHandledSuccessfullyWithEntryCountMaxSizePolicyAndDefaultEvictionPolicyNearCacheDataRecordStore() {
         doEvictionWithEntryCountMaxSizePolicy(InMemoryFormat.BINARY, EvictionPolicy.LFU);
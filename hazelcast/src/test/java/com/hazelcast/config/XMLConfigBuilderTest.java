@@ -457,6 +457,35 @@ public class XMLConfigBuilderTest extends HazelcastTestSupport {
         assertEquals(CacheDeserializedValues.INDEX_ONLY, mapConfig2.getCacheDeserializedValues());
     }
 
+    @Test
+    public void testMapConfig_valueCompressionThreshold() {
+        String xml =
+                "<hazelcast xmlns=\"http://www.hazelcast.com/schema/config\">" +
+                        "<map name=\"mymap\">" +
+                        "<value-compression-threshold>2048</value-compression-threshold>" +
+                        "</map>" +
+                        "</hazelcast>";
+        final Config config = buildConfig(xml);
+        final MapConfig mapConfig = config.getMapConfig("mymap");
+        assertEquals(2048, mapConfig.getValueCompressionThreshold());
+    }
+
+    @Test
+    public void testMapConfig_tieredStore() {
+        String xml =
+                "<hazelcast xmlns=\"http://www.hazelcast.com/schema/config\">" +
+                        "<map name=\"mymap\">" +
+                        "<tiered-store enabled=\"true\">" +
+                        "<memory-tier-size>5000</memory-tier-size>" +
+                        "</tiered-store>" +
+                        "</map>" +
+                        "</hazelcast>";
+        final Config config = buildConfig(xml);
+        final TieredStoreConfig tieredStoreConfig = config.getMapConfig("mymap").getTieredStoreConfig();
+        assertTrue(tieredStoreConfig.isEnabled());
+        assertEquals(5000, tieredStoreConfig.getMemoryTierSize());
+    }
+
     @Test
     public void testMapConfig_cacheValueConfig_defaultValue() {
         String xml =
@@ -915,6 +944,24 @@ public class XMLConfigBuilderTest extends HazelcastTestSupport {
         assertIndexEqual("age", true, mapConfig.getMapIndexConfigs().get(1));
     }
 
+    @Test
+    public void testBitmapIndexConfig() throws Exception {
+        String xml =
+                "<hazelcast xmlns=\"http://www.hazelcast.com/schema/config\">\n" +
+                        "   <map name=\"people\">\n" +
+                        "       <indexes>\n" +
+                        "           <index bitmap=\"true\">active</index>\n" +
+                        "           <index ordered=\"true\">age</index>\n" +
+                        "       </indexes>" +
+                        "   </map>" +
+                        "</hazelcast>";
+        Config config = buildConfig(xml);
+        MapConfig mapConfig = config.getMapConfig("people");
+        assertIndexEqual("active", false, mapConfig.getMapIndexConfigs().get(0));
+        assertTrue(mapConfig.getMapIndexConfigs().get(0).isBitmap());
+        assertFalse(mapConfig.getMapIndexConfigs().get(1).isBitmap());
+    }
+
     private static void assertIndexEqual(String expectedAttribute, boolean expectedOrdered, MapIndexConfig indexConfig) {
         assertEquals(expectedAttribute, indexConfig.getAttribute());
         assertEquals(expectedOrdered, indexConfig.isOrdered());
@@ -0,0 +1,221 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.core;
+
+import com.hazelcast.logging.Logger;
+import com.hazelcast.spi.impl.AbstractCompletableFuture;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import com.hazelcast.util.EmptyStatement;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class PipeliningTest extends HazelcastTestSupport {
+
+    @Test
+    public void results_inOrderOfTheCalls() throws Exception {
+        HazelcastInstance[] instances = createHazelcastInstanceFactory(2).newInstances();
+        IMap<Integer, Integer> map = instances[0].getMap(randomMapName());
+        Pipelining<Integer> putPipelining = new Pipelining<Integer>(10, false);
+        for (int i = 0; i < 1000; i++) {
+            putPipelining.add(putAsync(map, i, i * 2));
+        }
+        assertNull(putPipelining.done().get());
+        assertEquals(1000, map.size());
+
+        Pipelining<Integer> getPipelining = new Pipelining<Integer>(10);
+        for (int i = 0; i < 1000; i++) {
+            getPipelining.add(getAsync(map, i));
+        }
+        List<Integer> results = getPipelining.done().get();
+
+        assertEquals(1000, results.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(Integer.valueOf(i * 2), results.get(i));
+        }
+        assertEquals(0, getPipelining.pending());
+    }
+
+    @Test
+    public void add_doesNotIssueCall_whenDepthReached() throws Exception {
+        final Pipelining<String> pipelining = new Pipelining<String>(2);
+        ManualFuture first = new ManualFuture();
+        pipelining.add(call(first));
+        pipelining.add(call(new ManualFuture()));
+
+        final CountDownLatch issued = new CountDownLatch(1);
+        final CountDownLatch added = new CountDownLatch(1);
+        new Thread() {
+            @Override
+            public void run() {
+                try {
+                    pipelining.add(new Callable<Future<String>>() {
+                        @Override
+                        public Future<String> call() {
+                            issued.countDown();
+                            return new ManualFuture();
+                        }
+                    });
+                    added.countDown();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }.start();
+
+        assertFalse(issued.await(500, TimeUnit.MILLISECONDS));
+        assertEquals(2, pipelining.pending());
+
+        first.complete("first");
+        assertOpenEventually(issued);
+        assertOpenEventually(added);
+        assertEquals(2, pipelining.pending());
+    }
+
+    @Test
+    public void add_releasesPermit_whenCallFails() throws Exception {
+        Pipelining<String> pipelining = new Pipelining<String>(1);
+        try {
+            pipelining.add(new Callable<Future<String>>() {
+                @Override
+                public Future<String> call() {
+                    throw new IllegalStateException("expected");
+                }
+            });
+            fail();
+        } catch (IllegalStateException expected) {
+            EmptyStatement.ignore(expected);
+        }
+
+        ManualFuture future = new ManualFuture();
+        pipelining.add(call(future));
+        future.complete("ok");
+        assertEquals("ok", pipelining.done().get().get(0));
+    }
+
+    @Test
+    public void done_completes_afterPendingCalls() throws Exception {
+        Pipelining<String> pipelining = new Pipelining<String>(5);
+        ManualFuture future1 = new ManualFuture();
+        ManualFuture future2 = new ManualFuture();
+        pipelining.add(call(future1));
+        pipelining.add(call(future2));
+
+        ICompletableFuture<List<String>> done = pipelining.done();
+        future2.complete("2");
+        assertFalse(done.isDone());
+        future1.complete("1");
+
+        assertEquals(2, done.get().size());
+        assertEquals("1", done.get().get(0));
+        assertEquals("2", done.get().get(1));
+    }
+
+    @Test
+    public void done_fails_withFirstFailure() throws Exception {
+        Pipelining<String> pipelining = new Pipelining<String>(5);
+        ManualFuture failing = new ManualFuture();
+        ManualFuture succeeding = new ManualFuture();
+        pipelining.add(call(failing));
+        pipelining.add(call(succeeding));
+
+        IllegalStateException failure = new IllegalStateException("expected");
+        failing.complete(failure);
+        succeeding.complete("ok");
+
+        try {
+            pipelining.done().get();
+            fail();
+        } catch (IllegalStateException e) {
+            assertSame(failure, e);
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void add_afterDone() throws Exception {
+        Pipelining<String> pipelining = new Pipelining<String>(1);
+        pipelining.done();
+
+        pipelining.add(call(new ManualFuture()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void construct_withZeroDepth() {
+        new Pipelining<String>(0);
+    }
+
+    private static Callable<Future<Integer>> putAsync(final IMap<Integer, Integer> map, final int key, final int value) {
+        return new Callable<Future<Integer>>() {
+            @Override
+            public Future<Integer> call() {
+                return map.putAsync(key, value);
+            }
+        };
+    }
+
+    private static Callable<Future<Integer>> getAsync(final IMap<Integer, Integer> map, final int key) {
+        return new Callable<Future<Integer>>() {
+            @Override
+            public Future<Integer> call() {
+                return map.getAsync(key);
+            }
+        };
+    }
+
+    private static Callable<Future<String>> call(final Future<String> future) {
+        return new Callable<Future<String>>() {
+            @Override
+            public Future<String> call() {
+                return future;
+            }
+        };
+    }
+
+    private static class ManualFuture extends AbstractCompletableFuture<String> {
+
+        ManualFuture() {
+            super(new Executor() {
+                @Override
+                public void execute(Runnable command) {
+                    command.run();
+                }
+            }, Logger.getLogger(ManualFuture.class));
+        }
+
+        void complete(Object result) {
+            setResult(result);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.internal.compression;
+
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class LZ4BlockCodecTest {
+
+    private static final int OVERFLOWING_LENGTH_BYTES = Integer.MAX_VALUE / 255 + 1;
+
+    private final Random random = new Random(42);
+
+    @Test
+    public void testRoundTrip_smallSizes() {
+        for (int length = 0; length < 64; length++) {
+            assertRoundTrip(randomBytes(length));
+            assertRoundTrip(new byte[length]);
+        }
+    }
+
+    @Test
+    public void testRoundTrip_randomData() {
+        assertRoundTrip(randomBytes(100000));
+    }
+
+    @Test
+    public void testRoundTrip_longRuns() {
+        byte[] bytes = new byte[200000];
+        Arrays.fill(bytes, 1000, 150000, (byte) 7);
+        assertRoundTrip(bytes);
+    }
+
+    @Test
+    public void testCompress_repetitiveText() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            sb.append("{\"id\":").append(i).append(",\"name\":\"customer-").append(i % 10).append("\",\"active\":true}");
+        }
+        byte[] bytes = sb.toString().getBytes();
+
+        int compressedSize = assertRoundTrip(bytes);
+
+        assertTrue("compressed size: " + compressedSize, compressedSize * 4 < bytes.length);
+    }
+
+    @Test
+    public void testRoundTrip_withOffsets() {
+        byte[] src = new byte[5000];
+        for (int i = 0; i < src.length; i++) {
+            src[i] = (byte) (i % 17);
+        }
+        byte[] compressed = new byte[LZ4BlockCodec.maxCompressedLength(4000) + 10];
+        int compressedSize = LZ4BlockCodec.compress(src, 500, 4000, compressed, 10);
+        byte[] restored = new byte[4003];
+        LZ4BlockCodec.decompress(compressed, 10, compressedSize, restored, 3, 4000);
+
+        assertArrayEquals(Arrays.copyOfRange(src, 500, 4500), Arrays.copyOfRange(restored, 3, 4003));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDecompress_wrongLength() {
+        byte[] src = randomBytes(1000);
+        byte[] compressed = new byte[LZ4BlockCodec.maxCompressedLength(src.length)];
+        int compressedSize = LZ4BlockCodec.compress(src, 0, src.length, compressed, 0);
+
+        LZ4BlockCodec.decompress(compressed, 0, compressedSize, new byte[1001], 0, 1001);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDecompress_truncated() {
+        byte[] src = new byte[1000];
+        byte[] compressed = new byte[LZ4BlockCodec.maxCompressedLength(src.length)];
+        int compressedSize = LZ4BlockCodec.compress(src, 0, src.length, compressed, 0);
+
+        LZ4BlockCodec.decompress(compressed, 0, compressedSize - 1, new byte[1000], 0, 1000);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDecompress_invalidOffset() {
+        // one literal followed by a match 2 bytes back
+        byte[] compressed = {0x10, 1, 2, 0};
+
+        LZ4BlockCodec.decompress(compressed, 0, compressed.length, new byte[10], 0, 10);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDecompress_overflowingLiteralLength() {
+        // enough length bytes of 255 to overflow an int
+        byte[] compressed = new byte[OVERFLOWING_LENGTH_BYTES + 2];
+        compressed[0] = (byte) 0xF0;
+        Arrays.fill(compressed, 1, compressed.length - 1, (byte) 0xFF);
+
+        LZ4BlockCodec.decompress(compressed, 0, compressed.length, new byte[10], 0, 10);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDecompress_overflowingMatchLength() {
+        // one literal followed by a match 1 byte back, with enough length bytes of 255 to overflow an int
+        byte[] compressed = new byte[OVERFLOWING_LENGTH_BYTES + 5];
+        compressed[0] = 0x1F;
+        compressed[1] = 1;
+        compressed[2] = 1;
+        Arrays.fill(compressed, 4, compressed.length - 1, (byte) 0xFF);
+
+        LZ4BlockCodec.decompress(compressed, 0, compressed.length, new byte[10], 0, 10);
+    }
+
+    private int assertRoundTrip(byte[] bytes) {
+        byte[] compressed = new byte[LZ4BlockCodec.maxCompressedLength(bytes.length)];
+        int compressedSize = LZ4BlockCodec.compress(bytes, 0, bytes.length, compressed, 0);
+        byte[] restored = new byte[bytes.length];
+        LZ4BlockCodec.decompress(compressed, 0, compressedSize, restored, 0, bytes.length);
+        assertArrayEquals(bytes, restored);
+        return compressedSize;
+    }
+
+    private byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        random.nextBytes(bytes);
+        return bytes;
+    }
+}
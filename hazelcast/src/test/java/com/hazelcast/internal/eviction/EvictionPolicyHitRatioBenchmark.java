@@ -0,0 +1,309 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.eviction;
+
+import com.hazelcast.internal.eviction.impl.strategy.sampling.SampleableEvictableStore;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static com.hazelcast.internal.eviction.EvictionChecker.EVICT_ALWAYS;
+
+/**
+ * Replays access traces against a bounded store evicted by the sampling based eviction strategy, and prints the hit
+ * ratio of the {@link EvictionPolicyType#LRU}, {@link EvictionPolicyType#LFU} and {@link EvictionPolicyType#TINY_LFU}
+ * eviction policies for every trace.
+ * <p/>
+ * Every access is a read which, on a miss, puts the key into the store, like a cache in front of a slow data source.
+ * The built-in traces are generated with a fixed seed:
+ * <ul>
+ * <li>{@code zipf}: skewed accesses to a key space ten times the capacity</li>
+ * <li>{@code zipf+scan}: the same skewed accesses, interrupted by scans of keys which are never accessed again</li>
+ * <li>{@code shifting}: skewed accesses whose popular keys change halfway through the trace</li>
+ * </ul>
+ * Arguments: {@code c<capacity> n<accessCount> f<traceFile>}, where the optional trace file contains a key per line.
+ */
+public final class EvictionPolicyHitRatioBenchmark {
+
+    private static final EvictionPolicyType[] POLICIES = {
+            EvictionPolicyType.LRU, EvictionPolicyType.LFU, EvictionPolicyType.TINY_LFU,
+    };
+    private static final double ZIPF_EXPONENT = 0.9;
+    private static final int KEY_SPACE_FACTOR = 10;
+    private static final long SEED = 42;
+
+    private EvictionPolicyHitRatioBenchmark() {
+    }
+
+    public static void main(String[] input) throws IOException {
+        int capacity = 10000;
+        int accessCount = 2000000;
+        String traceFile = null;
+        if (input != null) {
+            for (String arg : input) {
+                arg = arg.trim();
+                if (arg.startsWith("c")) {
+                    capacity = Integer.parseInt(arg.substring(1));
+                } else if (arg.startsWith("n")) {
+                    accessCount = Integer.parseInt(arg.substring(1));
+                } else if (arg.startsWith("f")) {
+                    traceFile = arg.substring(1);
+                }
+            }
+        }
+
+        Map<String, long[]> traces = new LinkedHashMap<String, long[]>();
+        if (traceFile != null) {
+            traces.put(traceFile, readTrace(traceFile));
+        } else {
+            traces.put("zipf", zipfTrace(capacity, accessCount, false, false));
+            traces.put("zipf+scan", zipfTrace(capacity, accessCount, true, false));
+            traces.put("shifting", zipfTrace(capacity, accessCount, false, true));
+        }
+
+        System.out.println("Capacity " + capacity);
+        for (Map.Entry<String, long[]> trace : traces.entrySet()) {
+            StringBuilder line = new StringBuilder(String.format("%-12s", trace.getKey()));
+            for (EvictionPolicyType policy : POLICIES) {
+                double hitRatio = replay(trace.getValue(), capacity, policy);
+                line.append(String.format("  %s %6.2f%%", policy, hitRatio * 100));
+            }
+            System.out.println(line);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static double replay(long[] trace, int capacity, final EvictionPolicyType policy) {
+        EvictionPolicyEvaluator<Long, SimulatedRecord> evaluator = EvictionPolicyEvaluatorProvider.getEvictionPolicyEvaluator(
+                new EvictionConfiguration() {
+                    @Override
+                    public EvictionStrategyType getEvictionStrategyType() {
+                        return EvictionStrategyType.SAMPLING_BASED_EVICTION;
+                    }
+
+                    @Override
+                    public EvictionPolicyType getEvictionPolicyType() {
+                        return policy;
+                    }
+                });
+        AccessAwareEvictionPolicyEvaluator<Long, SimulatedRecord> accessAwareEvaluator =
+                evaluator instanceof AccessAwareEvictionPolicyEvaluator
+                        ? (AccessAwareEvictionPolicyEvaluator<Long, SimulatedRecord>) evaluator : null;
+        EvictionStrategy<Long, SimulatedRecord, SimulatedStore> strategy =
+                EvictionStrategyProvider.getDefaultEvictionStrategy();
+        SimulatedStore store = new SimulatedStore();
+
+        long hits = 0;
+        for (int i = 0; i < trace.length; i++) {
+            Long key = trace[i];
+            long now = i + 1;
+            SimulatedRecord record = store.get(key);
+            if (record != null) {
+                hits++;
+                record.accessTime = now;
+                record.accessHit++;
+            } else {
+                if (store.size() >= capacity) {
+                    strategy.evict(store, evaluator, EVICT_ALWAYS, null);
+                }
+                store.put(new SimulatedRecord(key, now));
+                if (accessAwareEvaluator != null) {
+                    accessAwareEvaluator.ensureCapacity(store.size());
+                }
+            }
+            if (accessAwareEvaluator != null) {
+                accessAwareEvaluator.onAccess(key);
+            }
+        }
+        return (double) hits / trace.length;
+    }
+
+    private static long[] zipfTrace(int capacity, int accessCount, boolean scans, boolean shifting) {
+        int keyCount = capacity * KEY_SPACE_FACTOR;
+        double[] cumulative = new double[keyCount];
+        double sum = 0;
+        for (int rank = 0; rank < keyCount; rank++) {
+            sum += 1 / Math.pow(rank + 1, ZIPF_EXPONENT);
+            cumulative[rank] = sum;
+        }
+
+        Random random = new Random(SEED);
+        long[] trace = new long[accessCount];
+        long nextScanKey = keyCount;
+        int i = 0;
+        while (i < accessCount) {
+            if (scans && i % (2 * capacity) == capacity) {
+                // a scan of as many keys as the store holds, which are never accessed again
+                for (int j = 0; j < capacity && i < accessCount; j++) {
+                    trace[i++] = nextScanKey++;
+                }
+                continue;
+            }
+            long key = rankOf(cumulative, random.nextDouble() * sum);
+            if (shifting && i >= accessCount / 2) {
+                key = (key + keyCount / 2) % keyCount;
+            }
+            trace[i++] = key;
+        }
+        return trace;
+    }
+
+    private static int rankOf(double[] cumulative, double value) {
+        int low = 0;
+        int high = cumulative.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (cumulative[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static long[] readTrace(String fileName) throws IOException {
+        List<Long> keys = new ArrayList<Long>();
+        BufferedReader reader = new BufferedReader(new FileReader(fileName));
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.length() > 0) {
+                    keys.add(parseKey(line));
+                }
+            }
+        } finally {
+            reader.close();
+        }
+        long[] trace = new long[keys.size()];
+        for (int i = 0; i < trace.length; i++) {
+            trace[i] = keys.get(i);
+        }
+        return trace;
+    }
+
+    private static long parseKey(String key) {
+        try {
+            return Long.parseLong(key);
+        } catch (NumberFormatException e) {
+            return key.hashCode();
+        }
+    }
+
+    private static final class SimulatedRecord implements EvictionCandidate<Long, SimulatedRecord>, Evictable {
+
+        private final Long key;
+        private final long creationTime;
+        private long accessTime;
+        private int accessHit;
+        private int index;
+
+        SimulatedRecord(Long key, long now) {
+            this.key = key;
+            this.creationTime = now;
+            this.accessTime = now;
+        }
+
+        @Override
+        public Long getAccessor() {
+            return key;
+        }
+
+        @Override
+        public SimulatedRecord getEvictable() {
+            return this;
+        }
+
+        @Override
+        public long getCreationTime() {
+            return creationTime;
+        }
+
+        @Override
+        public long getAccessTime() {
+            return accessTime;
+        }
+
+        @Override
+        public int getAccessHit() {
+            return accessHit;
+        }
+    }
+
+    /**
+     * Store which samples its records uniformly at random, like the stores of the maps and caches do.
+     */
+    private static final class SimulatedStore implements SampleableEvictableStore<Long, SimulatedRecord> {
+
+        private final Map<Long, SimulatedRecord> records = new HashMap<Long, SimulatedRecord>();
+        private final List<SimulatedRecord> recordList = new ArrayList<SimulatedRecord>();
+        private final Random random = new Random(SEED);
+
+        SimulatedRecord get(Long key) {
+            return records.get(key);
+        }
+
+        void put(SimulatedRecord record) {
+            record.index = recordList.size();
+            recordList.add(record);
+            records.put(record.key, record);
+        }
+
+        int size() {
+            return recordList.size();
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <C extends EvictionCandidate<Long, SimulatedRecord>> Iterable<C> sample(int sampleCount) {
+            List<SimulatedRecord> samples = new ArrayList<SimulatedRecord>(sampleCount);
+            for (int i = 0; i < sampleCount; i++) {
+                samples.add(recordList.get(random.nextInt(recordList.size())));
+            }
+            return (Iterable<C>) samples;
+        }
+
+        @Override
+        public <C extends EvictionCandidate<Long, SimulatedRecord>> int evict(Iterable<C> evictionCandidates,
+                EvictionListener<Long, SimulatedRecord> evictionListener) {
+            if (evictionCandidates == null) {
+                return 0;
+            }
+            int evictedCount = 0;
+            for (C candidate : evictionCandidates) {
+                SimulatedRecord record = candidate.getEvictable();
+                if (records.remove(record.key) != null) {
+                    SimulatedRecord last = recordList.remove(recordList.size() - 1);
+                    if (last != record) {
+                        last.index = record.index;
+                        recordList.set(record.index, last);
+                    }
+                    evictedCount++;
+                }
+            }
+            return evictedCount;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.internal.eviction.impl.evaluator;
+
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.CountDownLatch;
+
+import static com.hazelcast.internal.eviction.impl.evaluator.FrequencySketch.spread;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class FrequencySketchTest extends HazelcastTestSupport {
+
+    private static final int CAPACITY = 1024;
+    private static final int KEY_COUNT = 100;
+    private static final int THREAD_COUNT = 4;
+    private static final int INCREMENTS_PER_THREAD = 3;
+
+    @Test
+    public void testIncrement() {
+        FrequencySketch sketch = new FrequencySketch(CAPACITY);
+        for (int i = 0; i < 5; i++) {
+            sketch.increment(spread(1));
+        }
+
+        assertEquals(5, sketch.frequency(spread(1)));
+    }
+
+    @Test
+    public void testIncrement_saturates() {
+        FrequencySketch sketch = new FrequencySketch(CAPACITY);
+        for (int i = 0; i < 20; i++) {
+            sketch.increment(spread(1));
+        }
+
+        assertEquals(15, sketch.frequency(spread(1)));
+    }
+
+    @Test
+    public void testIncrement_concurrently_noIncrementLost() throws Exception {
+        final FrequencySketch sketch = new FrequencySketch(CAPACITY);
+        final CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[THREAD_COUNT];
+        for (int t = 0; t < THREAD_COUNT; t++) {
+            threads[t] = new Thread() {
+                @Override
+                public void run() {
+                    assertOpenEventually(start);
+                    for (int i = 0; i < INCREMENTS_PER_THREAD; i++) {
+                        for (int key = 0; key < KEY_COUNT; key++) {
+                            sketch.increment(spread(key));
+                        }
+                    }
+                }
+            };
+            threads[t].start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        for (int key = 0; key < KEY_COUNT; key++) {
+            int frequency = sketch.frequency(spread(key));
+            assertTrue("frequency of " + key + ": " + frequency, frequency >= THREAD_COUNT * INCREMENTS_PER_THREAD);
+        }
+    }
+
+    @Test
+    public void testAging_halvesCounters() {
+        FrequencySketch sketch = new FrequencySketch(16);
+        for (int i = 0; i < 8; i++) {
+            sketch.increment(spread(1));
+        }
+        // the sample size is ten times the capacity, so these increments make the sketch age
+        for (int key = 2; sketch.frequency(spread(1)) == 8; key++) {
+            sketch.increment(spread(key));
+        }
+
+        assertEquals(4, sketch.frequency(spread(1)));
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.internal.hotrestart;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.HotRestartConfig;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+
+import java.io.File;
+import java.io.IOException;
+
+import static com.hazelcast.nio.IOUtil.delete;
+
+/**
+ * Measures how long a single member takes to restart with the data persisted by hot restart, per GB of data
+ * on disk. The member is started, filled, shut down and started again; the restart time includes the replay of
+ * the partition logs and the restore of the entries.
+ * <p/>
+ * Run with a heap large enough to hold the data, for example {@code -Xmx4g}. Arguments:
+ * {@code c<entryCount> v<valueSize> f<fsync:true|false>}.
+ */
+public final class HotRestartBenchmark {
+
+    private static final double GB = 1L << 30;
+    private static final String MAP_NAME = "benchmark";
+
+    private HotRestartBenchmark() {
+    }
+
+    public static void main(String[] input) throws IOException {
+        int entryCount = 1000 * 1000;
+        int valueSize = 1000;
+        boolean fsync = false;
+        if (input != null) {
+            for (String arg : input) {
+                arg = arg.trim();
+                if (arg.startsWith("c")) {
+                    entryCount = Integer.parseInt(arg.substring(1));
+                } else if (arg.startsWith("v")) {
+                    valueSize = Integer.parseInt(arg.substring(1));
+                } else if (arg.startsWith("f")) {
+                    fsync = Boolean.parseBoolean(arg.substring(1));
+                }
+            }
+        }
+
+        File baseDir = File.createTempFile("hot-restart-benchmark", "");
+        delete(baseDir);
+        try {
+            Config config = createConfig(baseDir, fsync);
+            HazelcastInstance instance = Hazelcast.newHazelcastInstance(config);
+            IMap<Integer, byte[]> map = instance.getMap(MAP_NAME);
+            byte[] value = new byte[valueSize];
+            long start = System.nanoTime();
+            for (int i = 0; i < entryCount; i++) {
+                map.set(i, value);
+            }
+            long loadMillis = (System.nanoTime() - start) / 1000000;
+            instance.shutdown();
+            long dataSize = sizeOf(new File(baseDir, "data"));
+
+            start = System.nanoTime();
+            instance = Hazelcast.newHazelcastInstance(config);
+            long restartMillis = (System.nanoTime() - start) / 1000000;
+            int restoredCount = instance.getMap(MAP_NAME).size();
+            instance.shutdown();
+
+            double dataGb = dataSize / GB;
+            System.out.println("entries=" + entryCount + ", restored=" + restoredCount
+                    + ", fsync=" + fsync
+                    + ", load ms=" + loadMillis
+                    + ", data on disk MB=" + (dataSize >> 20)
+                    + ", restart ms=" + restartMillis
+                    + ", restart s/GB=" + (dataGb > 0 ? restartMillis / 1000d / dataGb : 0));
+        } finally {
+            delete(baseDir);
+        }
+    }
+
+    private static Config createConfig(File baseDir, boolean fsync) {
+        Config config = new Config();
+        config.getHotRestartPersistenceConfig().setEnabled(true).setBaseDir(baseDir);
+        config.getMapConfig(MAP_NAME).setHotRestartConfig(new HotRestartConfig().setEnabled(true).setFsync(fsync));
+        return config;
+    }
+
+    private static long sizeOf(File file) {
+        File[] files = file.listFiles();
+        if (files == null) {
+            return file.length();
+        }
+        long size = 0;
+        for (File child : files) {
+            size += sizeOf(child);
+        }
+        return size;
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.internal.hotrestart;
+
+import com.hazelcast.cache.impl.HazelcastServerCachingProvider;
+import com.hazelcast.config.Config;
+import com.hazelcast.config.HotRestartConfig;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.TestHazelcastInstanceFactory;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import javax.cache.Cache;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static com.hazelcast.cache.impl.HazelcastServerCachingProvider.createCachingProvider;
+import static com.hazelcast.nio.IOUtil.delete;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class HotRestartTest extends HazelcastTestSupport {
+
+    private static final int ENTRY_COUNT = 1000;
+
+    private File baseDir;
+    private TestHazelcastInstanceFactory factory;
+
+    @Before
+    public void setUp() throws IOException {
+        baseDir = File.createTempFile("hot-restart", "");
+        delete(baseDir);
+        factory = createHazelcastInstanceFactory(4);
+    }
+
+    @After
+    public void tearDown() {
+        factory.terminateAll();
+        delete(baseDir);
+    }
+
+    @Test
+    public void testMapEntriesRestored() {
+        HazelcastInstance instance = factory.newHazelcastInstance(createConfig());
+        IMap<Integer, String> map = instance.getMap("map");
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            map.put(i, "value" + i);
+        }
+        map.remove(0);
+        map.put(1, "updated");
+        map.put(2, "expiring", 1, TimeUnit.MILLISECONDS);
+        instance.shutdown();
+
+        instance = factory.newHazelcastInstance(createConfig());
+        map = instance.getMap("map");
+        assertEquals(ENTRY_COUNT - 2, map.size());
+        assertNull(map.get(0));
+        assertEquals("updated", map.get(1));
+        assertEquals("value" + (ENTRY_COUNT - 1), map.get(ENTRY_COUNT - 1));
+    }
+
+    @Test
+    public void testWritesDuringRestoreKept_whenMemberCrashesBeforeRestoreCompletes() {
+        HazelcastInstance instance = factory.newHazelcastInstance(createConfig());
+        IMap<Integer, String> map = instance.getMap("map");
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            map.put(i, "value" + i);
+        }
+        instance.shutdown();
+
+        // the next member moves the data aside, restores some entries, accepts writes and crashes
+        File unrestored = new File(baseDir, "unrestored");
+        assertTrue(new File(baseDir, HotRestartService.DATA_DIR).renameTo(unrestored));
+        instance = factory.newHazelcastInstance(createConfig());
+        map = instance.getMap("map");
+        map.put(0, "value0");
+        map.remove(0);
+        map.put(1, "updated");
+        map.put(ENTRY_COUNT, "new");
+        instance.getLifecycleService().terminate();
+        File restoreDir = new File(baseDir, HotRestartService.RESTORE_DIR);
+        assertTrue(restoreDir.mkdirs());
+        assertTrue(unrestored.renameTo(new File(restoreDir, "0")));
+
+        instance = factory.newHazelcastInstance(createConfig());
+        map = instance.getMap("map");
+        assertEquals(ENTRY_COUNT, map.size());
+        assertNull(map.get(0));
+        assertEquals("updated", map.get(1));
+        assertEquals("value2", map.get(2));
+        assertEquals("new", map.get(ENTRY_COUNT));
+        assertFalse(restoreDir.exists());
+    }
+
+    @Test
+    public void testMapNotRestored_whenHotRestartDisabledOnMap() {
+        HazelcastInstance instance = factory.newHazelcastInstance(createConfig());
+        instance.getMap("volatile").put(1, 1);
+        instance.shutdown();
+
+        instance = factory.newHazelcastInstance(createConfig());
+        assertEquals(0, instance.getMap("volatile").size());
+    }
+
+    @Test
+    public void testClearedMapNotRestored() {
+        HazelcastInstance instance = factory.newHazelcastInstance(createConfig());
+        IMap<Integer, Integer> map = instance.getMap("map");
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            map.put(i, i);
+        }
+        map.clear();
+        map.put(1, 1);
+        instance.shutdown();
+
+        instance = factory.newHazelcastInstance(createConfig());
+        assertEquals(1, instance.getMap("map").size());
+    }
+
+    @Test
+    public void testCacheEntriesRestored() {
+        HazelcastInstance instance = factory.newHazelcastInstance(createConfig());
+        Cache<Integer, String> cache = getCache(instance);
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            cache.put(i, "value" + i);
+        }
+        cache.remove(0);
+        cache.put(1, "updated");
+        instance.shutdown();
+
+        instance = factory.newHazelcastInstance(createConfig());
+        cache = getCache(instance);
+        assertNull(cache.get(0));
+        assertEquals("updated", cache.get(1));
+        for (int i = 2; i < ENTRY_COUNT; i++) {
+            assertEquals("value" + i, cache.get(i));
+        }
+    }
+
+    @Test
+    public void testEntriesRestored_whenClusterRestarts() {
+        Config config1 = createConfig(new File(baseDir, "member1"));
+        Config config2 = createConfig(new File(baseDir, "member2"));
+        HazelcastInstance instance1 = factory.newHazelcastInstance(config1);
+        HazelcastInstance instance2 = factory.newHazelcastInstance(config2);
+        IMap<Integer, Integer> map = instance1.getMap("map");
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            map.put(i, i);
+        }
+        instance2.shutdown();
+        instance1.shutdown();
+
+        instance1 = factory.newHazelcastInstance(config1);
+        instance2 = factory.newHazelcastInstance(config2);
+        assertClusterSizeEventually(2, instance1);
+        map = instance2.getMap("map");
+        assertEquals(ENTRY_COUNT, map.size());
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            assertEquals(i, (int) map.get(i));
+        }
+    }
+
+    private Cache<Integer, String> getCache(HazelcastInstance instance) {
+        HazelcastServerCachingProvider cachingProvider = createCachingProvider(instance);
+        return cachingProvider.getCacheManager().getCache("cache");
+    }
+
+    private Config createConfig() {
+        return createConfig(baseDir);
+    }
+
+    private Config createConfig(File dir) {
+        Config config = new Config();
+        config.getHotRestartPersistenceConfig().setEnabled(true).setBaseDir(dir);
+        config.getMapConfig("map").setHotRestartConfig(new HotRestartConfig().setEnabled(true));
+        config.getMapConfig("volatile").setHotRestartConfig(new HotRestartConfig().setEnabled(false));
+        config.getCacheConfig("cache").setHotRestartConfig(new HotRestartConfig().setEnabled(true));
+        return config;
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.internal.hotrestart;
+
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.logging.Logger;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.Map;
+
+import static com.hazelcast.nio.IOUtil.delete;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class PartitionLogTest extends HazelcastTestSupport {
+
+    private static final String SERVICE = "service";
+    private static final String NAME = "name";
+
+    private final ILogger logger = Logger.getLogger(PartitionLogTest.class);
+    private File dir;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = File.createTempFile("partition-log", "");
+        delete(dir);
+    }
+
+    @After
+    public void tearDown() {
+        delete(dir);
+    }
+
+    @Test
+    public void testReplay_returnsLatestValues() throws IOException {
+        PartitionLog log = new PartitionLog(dir, 1024, 100);
+        log.append(put(1, 10), false);
+        log.append(put(2, 20), false);
+        log.append(put(1, 11), false);
+        log.close();
+
+        Map<ByteBuffer, LogEntry> entries = replay();
+        assertEquals(2, entries.size());
+        assertValue(entries, 1, 11);
+        assertValue(entries, 2, 20);
+    }
+
+    @Test
+    public void testReplay_skipsRemovedAndClearedEntries() throws IOException {
+        PartitionLog log = new PartitionLog(dir, 1024, 100);
+        log.append(put(1, 10), false);
+        log.append(put(2, 20), false);
+        log.append(new LogEntry(LogEntry.REMOVE, SERVICE, NAME, key(1), null, 0), false);
+        log.close();
+        assertEquals(1, replay().size());
+
+        log = new PartitionLog(dir, 1024, 100);
+        log.append(new LogEntry(LogEntry.CLEAR, SERVICE, NAME, null, null, 0), false);
+        log.append(put(3, 30), true);
+        log.close();
+
+        Map<ByteBuffer, LogEntry> entries = replay();
+        assertEquals(1, entries.size());
+        assertValue(entries, 3, 30);
+    }
+
+    @Test
+    public void testAppend_sealsSegmentsAndRequestsCompaction() throws IOException {
+        PartitionLog log = new PartitionLog(dir, 1, 3);
+        assertFalse(log.append(put(1, 10), false));
+        assertFalse(log.append(put(2, 20), false));
+        assertTrue(log.append(put(3, 30), false));
+        log.close();
+        assertEquals(3, dir.list().length);
+    }
+
+    @Test
+    public void testCompact_mergesSegmentsIntoSnapshot() throws IOException {
+        PartitionLog log = new PartitionLog(dir, 1, 100);
+        for (int i = 0; i < 10; i++) {
+            log.append(put(i % 3, i), false);
+        }
+        log.compact(logger);
+        log.append(put(5, 50), false);
+        log.close();
+
+        assertEquals(2, dir.list().length);
+        Map<ByteBuffer, LogEntry> entries = replay();
+        assertEquals(4, entries.size());
+        assertValue(entries, 0, 9);
+        assertValue(entries, 1, 7);
+        assertValue(entries, 2, 8);
+        assertValue(entries, 5, 50);
+    }
+
+    @Test
+    public void testReplay_ignoresTornTail() throws IOException {
+        PartitionLog log = new PartitionLog(dir, 1024, 100);
+        log.append(put(1, 10), false);
+        log.append(put(2, 20), false);
+        log.close();
+
+        File segment = dir.listFiles()[0];
+        RandomAccessFile file = new RandomAccessFile(segment, "rw");
+        try {
+            file.setLength(file.length() - 3);
+        } finally {
+            file.close();
+        }
+
+        Map<ByteBuffer, LogEntry> entries = replay();
+        assertEquals(1, entries.size());
+        assertValue(entries, 1, 10);
+    }
+
+    @Test
+    public void testReplay_afterReopen_continuesSequence() throws IOException {
+        PartitionLog log = new PartitionLog(dir, 1024, 100);
+        log.append(put(1, 10), false);
+        log.close();
+        log = new PartitionLog(dir, 1024, 100);
+        log.append(put(1, 11), false);
+        log.close();
+
+        assertValue(replay(), 1, 11);
+    }
+
+    private Map<ByteBuffer, LogEntry> replay() throws IOException {
+        Map<String, Map<ByteBuffer, LogEntry>> structures = PartitionLog.replay(dir, logger).getServices().get(SERVICE);
+        Map<ByteBuffer, LogEntry> entries = structures.get(NAME);
+        return entries != null ? entries : Collections.<ByteBuffer, LogEntry>emptyMap();
+    }
+
+    private static void assertValue(Map<ByteBuffer, LogEntry> entries, int key, int value) {
+        LogEntry entry = entries.get(ByteBuffer.wrap(key(key)));
+        assertArrayEquals(key(value), entry.value);
+        assertEquals(Long.MAX_VALUE, entry.expirationTime);
+    }
+
+    private static LogEntry put(int key, int value) {
+        return new LogEntry(LogEntry.PUT, SERVICE, NAME, key(key), key(value), Long.MAX_VALUE);
+    }
+
+    private static byte[] key(int i) {
+        return new byte[]{(byte) i, (byte) (i >> 8)};
+    }
+}
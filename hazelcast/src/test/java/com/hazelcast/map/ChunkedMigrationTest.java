@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.map;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.InMemoryFormat;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.instance.GroupProperty;
+import com.hazelcast.internal.metrics.MetricsRegistry;
+import com.hazelcast.test.HazelcastSerialClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.TestHazelcastInstanceFactory;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastSerialClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class ChunkedMigrationTest extends HazelcastTestSupport {
+
+    private static final int KEY_COUNT = 5000;
+    private static final int WRITER_COUNT = 4;
+    private static final int CHUNK_SIZE = 128;
+
+    @Override
+    protected Config getConfig() {
+        Config config = super.getConfig();
+        config.setProperty(GroupProperty.PARTITION_MIGRATION_CHUNKED_ENABLED.getName(), "true");
+        config.setProperty(GroupProperty.PARTITION_MIGRATION_CHUNK_SIZE.getName(), String.valueOf(CHUNK_SIZE));
+        config.setProperty(GroupProperty.PARTITION_MIGRATION_CHUNK_MAX_IN_FLIGHT.getName(), "1");
+        config.setProperty(GroupProperty.PARTITION_COUNT.getName(), "11");
+        return config;
+    }
+
+    @Test
+    public void testMigration_keepsConcurrentWrites() throws Exception {
+        TestHazelcastInstanceFactory factory = createHazelcastInstanceFactory(3);
+        Config config = getConfig();
+        config.getMapConfig("object*").setInMemoryFormat(InMemoryFormat.OBJECT);
+        HazelcastInstance instance1 = factory.newHazelcastInstance(config);
+        final IMap<Integer, String> binaryMap = instance1.getMap("binary");
+        final IMap<Integer, String> objectMap = instance1.getMap("objectMap");
+        final Map<Integer, String> expected = new ConcurrentHashMap<Integer, String>();
+        for (int i = 0; i < KEY_COUNT; i++) {
+            binaryMap.put(i, "value-" + i);
+            objectMap.put(i, "value-" + i);
+            expected.put(i, "value-" + i);
+        }
+
+        // every writer updates and removes its own keys, some of them are added
+        final AtomicBoolean stop = new AtomicBoolean();
+        Thread[] writers = new Thread[WRITER_COUNT];
+        for (int w = 0; w < WRITER_COUNT; w++) {
+            final int writerIndex = w;
+            writers[w] = new Thread() {
+                @Override
+                public void run() {
+                    Random random = new Random();
+                    for (int i = 0; !stop.get(); i++) {
+                        int key = random.nextInt((KEY_COUNT + KEY_COUNT / 10) / WRITER_COUNT) * WRITER_COUNT + writerIndex;
+                        if (random.nextInt(3) == 0) {
+                            binaryMap.remove(key);
+                            objectMap.remove(key);
+                            expected.remove(key);
+                        } else {
+                            binaryMap.put(key, "update-" + i);
+                            objectMap.put(key, "update-" + i);
+                            expected.put(key, "update-" + i);
+                        }
+                    }
+                }
+            };
+            writers[w].start();
+        }
+        factory.newHazelcastInstance(config);
+        factory.newHazelcastInstance(config);
+        waitAllForSafeState();
+        stop.set(true);
+        for (Thread writer : writers) {
+            writer.join();
+        }
+
+        assertMapEquals(expected, binaryMap);
+        assertMapEquals(expected, objectMap);
+        instance1.shutdown();
+        assertMapEquals(expected, factory.getAllHazelcastInstances().iterator().next().<Integer, String>getMap("binary"));
+    }
+
+    @Test
+    public void testMigration_publishesMetrics() {
+        TestHazelcastInstanceFactory factory = createHazelcastInstanceFactory(2);
+        Config config = getConfig();
+        HazelcastInstance instance1 = factory.newHazelcastInstance(config);
+        IMap<Integer, Integer> map = instance1.getMap(randomMapName());
+        for (int i = 0; i < KEY_COUNT; i++) {
+            map.put(i, i);
+        }
+
+        MetricsRegistry metricsRegistry = getNodeEngineImpl(instance1).getMetricsRegistry();
+        assertEquals(0, metricsRegistry.newLongGauge("map.migration.completedCopyBytes").read());
+
+        factory.newHazelcastInstance(config);
+        waitAllForSafeState();
+
+        assertTrue(metricsRegistry.newLongGauge("map.migration.sentChunkCount").read() > 0);
+        assertTrue(metricsRegistry.newLongGauge("map.migration.completedCopyCount").read() > 0);
+        long averageChunkSize = metricsRegistry.newLongGauge("map.migration.averageChunkSizeBytes").read();
+        assertTrue("averageChunkSize: " + averageChunkSize, averageChunkSize > 0 && averageChunkSize < 2 * CHUNK_SIZE);
+        long completedCopyBytes = metricsRegistry.newLongGauge("map.migration.completedCopyBytes").read();
+        assertTrue(completedCopyBytes > 0);
+        assertTrue(metricsRegistry.newLongGauge("map.migration.completedCopyNanos").read() > 0);
+        // reading does not reset the probes
+        assertEquals(completedCopyBytes, metricsRegistry.newLongGauge("map.migration.completedCopyBytes").read());
+        assertEquals(KEY_COUNT, map.size());
+    }
+
+    private static void assertMapEquals(Map<Integer, String> expected, IMap<Integer, String> map) {
+        assertEquals(expected.size(), map.size());
+        for (int i = 0; i < KEY_COUNT + KEY_COUNT / 10; i++) {
+            String value = expected.get(i);
+            if (value == null) {
+                assertNull(map.get(i));
+            } else {
+                assertEquals(value, map.get(i));
+            }
+        }
+    }
+}
@@ -28,6 +28,7 @@ import com.hazelcast.core.EntryView;
 import com.hazelcast.core.HazelcastInstance;
 import com.hazelcast.core.IMap;
 import com.hazelcast.instance.GroupProperty;
+import com.hazelcast.internal.metrics.MetricsRegistry;
 import com.hazelcast.test.AssertTask;
 import com.hazelcast.test.HazelcastParallelClassRunner;
 import com.hazelcast.test.HazelcastTestSupport;
@@ -535,6 +536,94 @@ public class EvictionTest extends HazelcastTestSupport {
         }
     }
 
+    @Test
+    public void testEvictionLFU_keepsFrequentlyHitEntries_thatWereNotRecentlyTouched() {
+        final String mapName = randomMapName("testEvictionLFU_notRecentlyTouched");
+        final int size = 10000;
+        final int hotCount = size * 9 / 10;
+
+        Config cfg = getConfig();
+        cfg.setProperty(GroupProperty.PARTITION_COUNT, "1");
+        MapConfig mc = cfg.getMapConfig(mapName);
+        mc.setEvictionPolicy(EvictionPolicy.LFU);
+        mc.setEvictionPercentage(2);
+        mc.setMinEvictionCheckMillis(0);
+        mc.setMaxSizeConfig(new MaxSizeConfig(size, MaxSizeConfig.MaxSizePolicy.PER_NODE));
+
+        HazelcastInstance node = createHazelcastInstance(cfg);
+        IMap<Integer, Integer> map = node.getMap(mapName);
+        // frequently hit entries, which are all touched before the rarely used ones
+        for (int i = 0; i < hotCount; i++) {
+            map.put(i, i);
+            map.get(i);
+            map.get(i);
+            map.get(i);
+        }
+        // rarely used entries, touched recently
+        for (int i = hotCount; i < size; i++) {
+            map.put(i, i);
+            map.get(i);
+        }
+        // triggers the eviction
+        map.put(size, size);
+
+        int evictedHotCount = 0;
+        for (int i = 0; i < hotCount; i++) {
+            if (!map.containsKey(i)) {
+                evictedHotCount++;
+            }
+        }
+        assertTrue("No eviction", map.size() < size);
+        // a pool ordered by access time would keep the frequently hit entries, so about every fifth eviction would
+        // take one of them, since that is how often a sample holds no rarely used entry
+        assertTrue("Evicted frequently hit entries: " + evictedHotCount, evictedHotCount <= 15);
+    }
+
+    @Test
+    public void testEvictionTinyLFU() {
+        final String mapName = "testEvictionTinyLFU_" + randomString();
+        final int size = 10000;
+
+        Config cfg = getConfig();
+        cfg.setProperty(GroupProperty.PARTITION_COUNT, "1");
+        MapConfig mc = cfg.getMapConfig(mapName);
+        mc.setEvictionPolicy(EvictionPolicy.TINY_LFU);
+        mc.setEvictionPercentage(20);
+        mc.setMinEvictionCheckMillis(0);
+        MaxSizeConfig msc = new MaxSizeConfig();
+        msc.setMaxSizePolicy(MaxSizeConfig.MaxSizePolicy.PER_NODE);
+        msc.setSize(size);
+
+        mc.setMaxSizeConfig(msc);
+
+        HazelcastInstance node = createHazelcastInstance(cfg);
+        IMap<Object, Object> map = node.getMap(mapName);
+        final int atLeastShouldEvict = size / 40;
+        final CountDownLatch latch = new CountDownLatch(atLeastShouldEvict);
+        map.addLocalEntryListener(new EntryAdapter<Object, Object>() {
+            @Override
+            public void entryEvicted(EntryEvent<Object, Object> event) {
+                latch.countDown();
+            }
+        });
+        // these are frequently used entries.
+        for (int i = 0; i < size / 2; i++) {
+            map.put(i, i);
+            map.get(i);
+            map.get(i);
+        }
+        // this scan of more recently used entries is expected to be evicted.
+        for (int i = size / 2; i < size + 1; i++) {
+            map.put(i, i);
+        }
+        assertOpenEventually(latch, 120);
+        assertFalse("No eviction!?!?!?", map.size() == size);
+        // these entries should exist in map after evicting by TINY_LFU.
+        for (int i = 0; i < size / 2; i++) {
+            assertNotNull(map.get(i));
+        }
+    }
+
     @Test
     public void testEvictionLFU2() {
         final int size = 10000;
@@ -568,6 +657,93 @@ public class EvictionTest extends HazelcastTestSupport {
         }
     }
 
+    @Test
+    public void testEvictionMetrics() {
+        final String mapName = randomMapName();
+        final int size = 1000;
+        Config cfg = getConfig();
+        cfg.setProperty(GroupProperty.PARTITION_COUNT, "1");
+        MapConfig mc = cfg.getMapConfig(mapName);
+        mc.setEvictionPolicy(EvictionPolicy.LRU);
+        mc.setEvictionPercentage(20);
+        mc.setMinEvictionCheckMillis(0);
+        mc.setMaxSizeConfig(new MaxSizeConfig(size, MaxSizeConfig.MaxSizePolicy.PER_NODE));
+
+        HazelcastInstance instance = createHazelcastInstance(cfg);
+        IMap<Integer, Integer> map = instance.getMap(mapName);
+        for (int i = 0; i < 2 * size; i++) {
+            map.put(i, i);
+        }
+
+        MetricsRegistry metricsRegistry = getNodeEngineImpl(instance).getMetricsRegistry();
+        String prefix = "map[" + mapName + "].eviction.";
+        long evictedCount = metricsRegistry.newLongGauge(prefix + "evictedCount").read();
+        assertEquals(2 * size - map.size(), evictedCount);
+        assertTrue(metricsRegistry.newLongGauge(prefix + "evictionLatencyNanos").read() > 0);
+        // reading does not reset the probes
+        assertEquals(evictedCount, metricsRegistry.newLongGauge(prefix + "evictedCount").read());
+
+        map.destroy();
+        assertFalse(metricsRegistry.getNames().contains(prefix + "evictedCount"));
+    }
+
+    @Test
+    public void testExpirationMetrics() {
+        final String mapName = randomMapName();
+        final int size = 100;
+        final AtomicInteger entryEvictedEventCount = new AtomicInteger(0);
+        Config config = getConfig();
+        config.getMapConfig(mapName).setTimeToLiveSeconds(1);
+        HazelcastInstance instance = createHazelcastInstance(config);
+        IMap<Integer, Integer> map = instance.getMap(mapName);
+        map.addEntryListener(new EntryAdapter<Integer, Integer>() {
+            @Override
+            public void entryEvicted(EntryEvent<Integer, Integer> event) {
+                entryEvictedEventCount.incrementAndGet();
+            }
+        }, false);
+        for (int i = 0; i < size; i++) {
+            map.put(i, i);
+        }
+
+        // the entries are not read, so they are expired by the timing wheels of their partitions
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() throws Exception {
+                assertEquals(size, entryEvictedEventCount.get());
+            }
+        });
+
+        MetricsRegistry metricsRegistry = getNodeEngineImpl(instance).getMetricsRegistry();
+        assertTrue(metricsRegistry.newLongGauge("map.expiration.expiredCount").read() >= size);
+        long maxLag = metricsRegistry.newLongGauge("map.expiration.maxExpirationLagMillis").read();
+        long totalLag = metricsRegistry.newLongGauge("map.expiration.totalExpirationLagMillis").read();
+        assertTrue(totalLag >= maxLag);
+        // reading does not reset the probes
+        assertEquals(maxLag, metricsRegistry.newLongGauge("map.expiration.maxExpirationLagMillis").read());
+        assertEquals(totalLag, metricsRegistry.newLongGauge("map.expiration.totalExpirationLagMillis").read());
+    }
+
+    @Test
+    public void testMaxIdle_accessedEntryIsRescheduled() throws InterruptedException {
+        final String mapName = randomMapName();
+        Config config = getConfig();
+        config.getMapConfig(mapName).setMaxIdleSeconds(2);
+        HazelcastInstance instance = createHazelcastInstance(config);
+        final IMap<Integer, Integer> map = instance.getMap(mapName);
+        map.put(1, 1);
+        map.put(2, 2);
+
+        // keeps the first entry in use beyond its initial expiration time
+        for (int i = 0; i < 8; i++) {
+            assertEquals(1, (int) map.get(1));
+            sleepMillis(500);
+        }
+
+        assertTrue(map.containsKey(1));
+        assertSizeEventually(0, map);
+    }
+
     @Test
     public void testMapRecordEviction() throws InterruptedException {
         final String mapName = randomMapName();
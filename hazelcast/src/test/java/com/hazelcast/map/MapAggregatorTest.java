@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map;
+
+import com.hazelcast.aggregation.Aggregator;
+import com.hazelcast.aggregation.Aggregators;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.query.PagingPredicate;
+import com.hazelcast.query.Predicates;
+import com.hazelcast.query.SampleObjects.Employee;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class MapAggregatorTest extends HazelcastTestSupport {
+
+    private static final int ENTRY_COUNT = 100;
+    private static final int AGE_COUNT = 50;
+
+    private HazelcastInstance[] instances;
+    private IMap<Integer, Employee> map;
+
+    @Before
+    public void setUp() {
+        instances = createHazelcastInstanceFactory(3).newInstances();
+        map = instances[0].getMap(randomMapName());
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            map.put(i, new Employee("name" + i, i % AGE_COUNT, i % 2 == 0, i));
+        }
+    }
+
+    @Test
+    public void count() {
+        assertEquals(Long.valueOf(ENTRY_COUNT), map.aggregate(Aggregators.<Map.Entry<Integer, Employee>>count()));
+    }
+
+    @Test
+    public void count_withPredicate() {
+        Long count = map.aggregate(Aggregators.<Map.Entry<Integer, Employee>>count(), Predicates.equal("active", true));
+
+        assertEquals(Long.valueOf(ENTRY_COUNT / 2), count);
+    }
+
+    @Test
+    public void count_withIndex() {
+        map.addIndex("age", true);
+
+        Long count = map.aggregate(Aggregators.<Map.Entry<Integer, Employee>>count(), Predicates.lessThan("age", 10));
+
+        assertEquals(Long.valueOf(20), count);
+    }
+
+    @Test
+    public void sums() {
+        long expectedAgeSum = 0;
+        double expectedSalarySum = 0;
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            expectedAgeSum += i % AGE_COUNT;
+            expectedSalarySum += i;
+        }
+
+        assertEquals(Long.valueOf(expectedAgeSum), map.aggregate(Aggregators.<Map.Entry<Integer, Employee>>longSum("age")));
+        assertEquals(expectedSalarySum,
+                map.aggregate(Aggregators.<Map.Entry<Integer, Employee>>doubleSum("salary")), 0.0001);
+    }
+
+    @Test
+    public void average() {
+        Double average = map.aggregate(Aggregators.<Map.Entry<Integer, Employee>>average("salary"));
+
+        assertEquals((ENTRY_COUNT - 1) / 2.0, average, 0.0001);
+    }
+
+    @Test
+    public void average_whenNothingMatches() {
+        Double average = map.aggregate(Aggregators.<Map.Entry<Integer, Employee>>average("salary"),
+                Predicates.greaterThan("age", AGE_COUNT));
+
+        assertNull(average);
+    }
+
+    @Test
+    public void minAndMax() {
+        Integer min = map.aggregate(Aggregators.<Map.Entry<Integer, Employee>, Integer>min("age"));
+        Integer max = map.aggregate(Aggregators.<Map.Entry<Integer, Employee>, Integer>max("age"));
+
+        assertEquals(Integer.valueOf(0), min);
+        assertEquals(Integer.valueOf(AGE_COUNT - 1), max);
+    }
+
+    @Test
+    public void distinct() {
+        Set<Integer> ages = map.aggregate(Aggregators.<Map.Entry<Integer, Employee>, Integer>distinct("age"));
+
+        assertEquals(AGE_COUNT, ages.size());
+    }
+
+    @Test
+    public void customAggregator() {
+        Integer result = map.aggregate(new NameLengthAggregator(), Predicates.lessThan("salary", 10.0));
+
+        assertEquals(Integer.valueOf(10 * "name0".length()), result);
+    }
+
+    @Test
+    public void aggregator_isNotModified() {
+        Aggregator<Map.Entry<Integer, Employee>, Long> aggregator = Aggregators.count();
+
+        map.aggregate(aggregator);
+
+        assertEquals(Long.valueOf(0), aggregator.aggregate());
+        assertEquals(Long.valueOf(ENTRY_COUNT), map.aggregate(aggregator));
+    }
+
+    @Test
+    public void aggregate_fromEveryMember() {
+        for (HazelcastInstance instance : instances) {
+            IMap<Integer, Employee> memberMap = instance.getMap(map.getName());
+            assertEquals(Long.valueOf(ENTRY_COUNT), memberMap.aggregate(Aggregators.<Map.Entry<Integer, Employee>>count()));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void aggregate_withPagingPredicate() {
+        map.aggregate(Aggregators.<Map.Entry<Integer, Employee>>count(), new PagingPredicate(10));
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void aggregate_withNullAggregator() {
+        map.aggregate(null);
+    }
+
+    private static class NameLengthAggregator extends Aggregator<Map.Entry<Integer, Employee>, Integer> {
+
+        private int length;
+
+        @Override
+        public void accumulate(Map.Entry<Integer, Employee> input) {
+            length += input.getValue().getName().length();
+        }
+
+        @Override
+        public void combine(Aggregator aggregator) {
+            length += ((NameLengthAggregator) aggregator).length;
+        }
+
+        @Override
+        public Integer aggregate() {
+            return length;
+        }
+    }
+}
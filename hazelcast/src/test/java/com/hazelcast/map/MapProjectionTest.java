@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.projection.Projection;
+import com.hazelcast.projection.Projections;
+import com.hazelcast.query.Predicates;
+import com.hazelcast.query.SampleObjects.Employee;
+import com.hazelcast.query.SampleObjects.PortableEmployee;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class MapProjectionTest extends HazelcastTestSupport {
+
+    private static final int ENTRY_COUNT = 100;
+
+    @Test
+    public void singleAttribute() {
+        IMap<Integer, Employee> map = createEmployeeMap();
+
+        Collection<String> names = map.project(Projections.<Map.Entry<Integer, Employee>, String>singleAttribute("name"));
+
+        assertEquals(ENTRY_COUNT, names.size());
+        assertEquals(ENTRY_COUNT, new HashSet<String>(names).size());
+        assertTrue(names.contains("name42"));
+    }
+
+    @Test
+    public void singleAttribute_ofKey() {
+        IMap<Integer, Employee> map = createEmployeeMap();
+
+        Collection<Integer> keys = map.project(Projections.<Map.Entry<Integer, Employee>, Integer>singleAttribute("__key"),
+                Predicates.lessThan("age", 3));
+
+        assertEquals(new HashSet<Integer>(asList(0, 1, 2)), new HashSet<Integer>(keys));
+    }
+
+    @Test
+    public void multiAttribute_withPredicateAndIndex() {
+        IMap<Integer, Employee> map = createEmployeeMap();
+        map.addIndex("age", true);
+
+        Collection<Object[]> rows = map.project(Projections.<Map.Entry<Integer, Employee>>multiAttribute("name", "salary"),
+                Predicates.greaterEqual("age", ENTRY_COUNT - 2));
+
+        assertEquals(2, rows.size());
+        Set<String> names = new HashSet<String>();
+        for (Object[] row : rows) {
+            assertEquals(2, row.length);
+            names.add((String) row[0]);
+            assertEquals(Double.valueOf(((String) row[0]).substring("name".length())), row[1]);
+        }
+        assertEquals(new HashSet<String>(asList("name98", "name99")), names);
+    }
+
+    @Test
+    public void customProjection() {
+        IMap<Integer, Employee> map = createEmployeeMap();
+
+        Collection<Integer> lengths = map.project(new NameLengthProjection(), Predicates.lessThan("age", 10));
+
+        assertEquals(10, lengths.size());
+        assertEquals(new HashSet<Integer>(asList("name0".length())), new HashSet<Integer>(lengths));
+    }
+
+    @Test
+    public void portableAttribute_withoutDeserializingTheValue() {
+        // no portable factory is configured, so deserializing the values would fail
+        HazelcastInstance instance = createHazelcastInstance();
+        IMap<Integer, PortableEmployee> map = instance.getMap(randomMapName());
+        for (int i = 0; i < 5; i++) {
+            map.put(i, new PortableEmployee(i, "name" + i));
+        }
+
+        Collection<String> names = map.project(Projections.<Map.Entry<Integer, PortableEmployee>, String>singleAttribute("n"),
+                Predicates.greaterThan("a", 2));
+
+        assertEquals(new HashSet<String>(asList("name3", "name4")), new HashSet<String>(names));
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void project_withNullProjection() {
+        createHazelcastInstance().getMap(randomMapName()).project(null);
+    }
+
+    private IMap<Integer, Employee> createEmployeeMap() {
+        HazelcastInstance[] instances = createHazelcastInstanceFactory(2).newInstances();
+        IMap<Integer, Employee> map = instances[0].getMap(randomMapName());
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            map.put(i, new Employee("name" + i, i, true, i));
+        }
+        return map;
+    }
+
+    private static class NameLengthProjection extends Projection<Map.Entry<Integer, Employee>, Integer> {
+
+        @Override
+        public Integer transform(Map.Entry<Integer, Employee> input) {
+            return input.getValue().getName().length();
+        }
+    }
+}
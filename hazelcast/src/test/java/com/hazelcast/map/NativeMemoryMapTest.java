@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.map;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.InMemoryFormat;
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.config.NativeMemoryConfig;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.memory.MemorySize;
+import com.hazelcast.memory.MemoryStats;
+import com.hazelcast.memory.MemoryUnit;
+import com.hazelcast.query.SqlPredicate;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class NativeMemoryMapTest extends HazelcastTestSupport {
+
+    @Test
+    public void testBasicOperations() {
+        HazelcastInstance instance = createHazelcastInstance(newConfig(NativeMemoryConfig.MemoryAllocatorType.POOLED));
+        IMap<Integer, String> map = instance.getMap("native");
+
+        map.put(1, "a");
+        map.put(2, "b");
+        assertEquals("a", map.get(1));
+        assertEquals("a", map.replace(1, "c"));
+        assertEquals("c", map.get(1));
+        assertEquals("b", map.remove(2));
+        assertNull(map.get(2));
+        assertEquals(1, map.size());
+        assertTrue(map.containsValue("c"));
+    }
+
+    @Test
+    public void testQuery() {
+        HazelcastInstance instance = createHazelcastInstance(newConfig(NativeMemoryConfig.MemoryAllocatorType.STANDARD));
+        IMap<Integer, Integer> map = instance.getMap("native");
+        for (int i = 0; i < 100; i++) {
+            map.put(i, i);
+        }
+
+        Collection<Integer> values = map.values(new SqlPredicate("this >= 90"));
+
+        assertEquals(10, values.size());
+    }
+
+    @Test
+    public void testUsedNativeMemory_releasedOnRemoveAndClear() {
+        HazelcastInstance instance = createHazelcastInstance(newConfig(NativeMemoryConfig.MemoryAllocatorType.STANDARD));
+        MemoryStats memoryStats = getNode(instance).getNodeExtension().getMemoryStats();
+        IMap<Integer, byte[]> map = instance.getMap("native");
+
+        long usedBefore = memoryStats.getUsedNativeMemory();
+        for (int i = 0; i < 100; i++) {
+            map.put(i, new byte[1024]);
+        }
+        assertTrue(memoryStats.getUsedNativeMemory() >= usedBefore + 100 * 1024);
+
+        map.remove(0);
+        map.clear();
+        assertEquals(usedBefore, memoryStats.getUsedNativeMemory());
+    }
+
+    @Test
+    public void testQuery_whileValuesAreReplacedAndRemoved() throws Exception {
+        HazelcastInstance instance = createHazelcastInstance(newConfig(NativeMemoryConfig.MemoryAllocatorType.STANDARD));
+        MemoryStats memoryStats = getNode(instance).getNodeExtension().getMemoryStats();
+        final IMap<Integer, byte[]> map = instance.getMap("native");
+        final int keyCount = 200;
+        long usedBefore = memoryStats.getUsedNativeMemory();
+        final AtomicBoolean stop = new AtomicBoolean();
+        Thread updater = new Thread() {
+            @Override
+            public void run() {
+                Random random = new Random();
+                while (!stop.get()) {
+                    int key = random.nextInt(keyCount);
+                    if (random.nextInt(4) == 0) {
+                        map.remove(key);
+                    } else {
+                        // every value differs in size, a freed block would be reused for another one
+                        map.put(key, filled(1 + random.nextInt(2048), (byte) key));
+                    }
+                }
+            }
+        };
+        updater.start();
+
+        try {
+            long deadline = System.currentTimeMillis() + 5000;
+            while (System.currentTimeMillis() < deadline) {
+                for (Map.Entry<Integer, byte[]> entry : map.entrySet()) {
+                    for (byte b : entry.getValue()) {
+                        assertEquals((byte) entry.getKey().intValue(), b);
+                    }
+                }
+            }
+        } finally {
+            stop.set(true);
+            updater.join();
+        }
+
+        map.clear();
+        assertEquals(usedBefore, memoryStats.getUsedNativeMemory());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNativeFormat_whenNativeMemoryDisabled() {
+        Config config = new Config();
+        config.addMapConfig(new MapConfig("native").setInMemoryFormat(InMemoryFormat.NATIVE));
+        HazelcastInstance instance = createHazelcastInstance(config);
+
+        instance.getMap("native").put(1, 1);
+    }
+
+    private static byte[] filled(int size, byte value) {
+        byte[] bytes = new byte[size];
+        Arrays.fill(bytes, value);
+        return bytes;
+    }
+
+    private static Config newConfig(NativeMemoryConfig.MemoryAllocatorType allocatorType) {
+        Config config = new Config();
+        config.getNativeMemoryConfig()
+                .setEnabled(true)
+                .setAllocatorType(allocatorType)
+                .setSize(new MemorySize(16, MemoryUnit.MEGABYTES));
+        config.addMapConfig(new MapConfig("native").setInMemoryFormat(InMemoryFormat.NATIVE));
+        return config;
+    }
+}
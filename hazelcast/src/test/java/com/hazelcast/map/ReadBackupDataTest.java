@@ -0,0 +1,269 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.instance.GroupProperty;
+import com.hazelcast.internal.metrics.LongGauge;
+import com.hazelcast.internal.metrics.ProbeLevel;
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.map.impl.MapService;
+import com.hazelcast.map.impl.operation.ReadBackupDataOperation;
+import com.hazelcast.map.impl.operation.ReadBackupDataResponse;
+import com.hazelcast.map.impl.recordstore.RecordStore;
+import com.hazelcast.nio.Address;
+import com.hazelcast.partition.InternalPartition;
+import com.hazelcast.spi.Operation;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.TestHazelcastInstanceFactory;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class ReadBackupDataTest extends HazelcastTestSupport {
+
+    private static final int READ_COUNT = 200;
+
+    @Test
+    public void remoteReads_areSpreadOverReplicas() {
+        String mapName = randomMapName();
+        HazelcastInstance[] instances = createCluster(mapName, 4, true);
+        HazelcastInstance owner = instances[0];
+        String key = generateKeyOwnedBy(owner);
+        owner.getMap(mapName).put(key, "value");
+
+        IMap<String, String> map = findNonReplicaMember(instances, key).getMap(mapName);
+        for (int i = 0; i < READ_COUNT; i++) {
+            assertEquals("value", map.get(key));
+            assertTrue(map.containsKey(key));
+        }
+
+        long ownerHits = owner.getMap(mapName).getEntryView(key).getHits();
+        assertTrue("owner hits: " + ownerHits, ownerHits < 2 * READ_COUNT);
+        assertNull(map.get("missing"));
+        assertFalse(map.containsKey("missing"));
+    }
+
+    @Test
+    public void remoteReads_doNotRunOnOwnerPartition() {
+        String mapName = randomMapName();
+        HazelcastInstance[] instances = createCluster(mapName, 4, true);
+        HazelcastInstance owner = instances[0];
+        String key = generateKeyOwnedBy(owner);
+        owner.getMap(mapName).put(key, "value");
+        int partitionId = getPartitionService(owner).getPartitionId(key);
+        LongGauge ownerOperations = getNodeEngineImpl(owner).getMetricsRegistry()
+                .newLongGauge("operation.partition[" + partitionId + "].count");
+
+        IMap<String, String> map = findNonReplicaMember(instances, key).getMap(mapName);
+        long operationsBefore = ownerOperations.read();
+        for (int i = 0; i < READ_COUNT; i++) {
+            assertEquals("value", map.get(key));
+        }
+
+        long ownerReads = ownerOperations.read() - operationsBefore;
+        assertTrue("operations run on the owner: " + ownerReads, ownerReads < READ_COUNT / 10);
+    }
+
+    @Test
+    public void remoteReads_goToOwner_whenDisabled() {
+        String mapName = randomMapName();
+        HazelcastInstance[] instances = createCluster(mapName, 4, false);
+        HazelcastInstance owner = instances[0];
+        String key = generateKeyOwnedBy(owner);
+        owner.getMap(mapName).put(key, "value");
+
+        IMap<String, String> map = findNonReplicaMember(instances, key).getMap(mapName);
+        for (int i = 0; i < READ_COUNT; i++) {
+            assertEquals("value", map.get(key));
+        }
+
+        assertEquals(READ_COUNT, owner.getMap(mapName).getEntryView(key).getHits());
+    }
+
+    @Test
+    public void remoteReads_seeLatestValue_afterUpdate() {
+        String mapName = randomMapName();
+        HazelcastInstance[] instances = createCluster(mapName, 4, true);
+        HazelcastInstance owner = instances[0];
+        String key = generateKeyOwnedBy(owner);
+        IMap<String, String> map = findNonReplicaMember(instances, key).getMap(mapName);
+
+        for (int i = 0; i < READ_COUNT; i++) {
+            map.put(key, "value" + i);
+            assertEquals("value" + i, map.get(key));
+        }
+    }
+
+    @Test
+    public void remoteReads_goToOwner_whenBackupMissedBackups() {
+        String mapName = randomMapName();
+        HazelcastInstance[] instances = createCluster(mapName, 4, true);
+        HazelcastInstance owner = instances[0];
+        String key = generateKeyOwnedBy(owner);
+        owner.getMap(mapName).put(key, "value");
+
+        HazelcastInstance backup = findReplicaMember(instances, key, 1);
+        int partitionId = getPartitionService(backup).getPartitionId(key);
+        getRecordStore(backup, mapName, partitionId).putBackup(getSerializationService(backup).toData(key), "stale");
+        getPartitionService(backup).setPartitionReplicaVersions(partitionId, new long[InternalPartition.MAX_BACKUP_COUNT], 1);
+        // the replica versions sent with the next backup reveal the missed ones
+        owner.getMap(mapName).put(generateKeyForPartition(owner, partitionId), "other");
+
+        IMap<String, String> map = findNonReplicaMember(instances, key).getMap(mapName);
+        for (int i = 0; i < READ_COUNT; i++) {
+            assertEquals("value", map.get(key));
+        }
+    }
+
+    @Test
+    public void readBackupData_returnsStale_whenBackupWaitsForSync() throws Exception {
+        String mapName = randomMapName();
+        HazelcastInstance[] instances = createCluster(mapName, 2, true);
+        HazelcastInstance owner = instances[0];
+        String key = generateKeyOwnedBy(owner);
+        owner.getMap(mapName).put(key, "value");
+        assertEquals("value", getSerializationService(owner).toObject(readBackupData(owner, mapName, key).getValue()));
+
+        HazelcastInstance backup = findReplicaMember(instances, key, 1);
+        int partitionId = getPartitionService(backup).getPartitionId(key);
+        long[] versions = new long[InternalPartition.MAX_BACKUP_COUNT];
+        versions[0] = InternalPartition.SYNC_WAITING;
+        getPartitionService(backup).setPartitionReplicaVersions(partitionId, versions, 1);
+
+        assertTrue(readBackupData(owner, mapName, key).isStale());
+    }
+
+    @Test
+    public void readBackupData_returnsNull_forAbsentKey_whenBackupIsUpToDate() throws Exception {
+        String mapName = randomMapName();
+        HazelcastInstance[] instances = createCluster(mapName, 2, true);
+        HazelcastInstance owner = instances[0];
+        String key = generateKeyOwnedBy(owner);
+        owner.getMap(mapName).put(generateKeyOwnedBy(owner), "value");
+
+        ReadBackupDataResponse response = readBackupData(owner, mapName, key);
+        assertFalse(response.isStale());
+        assertNull(response.getValue());
+    }
+
+    @Test
+    public void containsKey_readsOwner_whenRemoteDisabled() {
+        String mapName = randomMapName();
+        HazelcastInstance[] instances = createCluster(mapName, 2, false);
+        HazelcastInstance owner = instances[0];
+        String key = generateKeyOwnedBy(owner);
+
+        HazelcastInstance backup = findReplicaMember(instances, key, 1);
+        int partitionId = getPartitionService(backup).getPartitionId(key);
+        getRecordStore(backup, mapName, partitionId).putBackup(getSerializationService(backup).toData(key), "backupOnly");
+
+        assertFalse(backup.getMap(mapName).containsKey(key));
+    }
+
+    @Test
+    public void asyncBackups_areNotRead() {
+        String mapName = randomMapName();
+        HazelcastInstance[] instances = createCluster(mapName, 4, true, 0, 1);
+        HazelcastInstance owner = instances[0];
+        String key = generateKeyOwnedBy(owner);
+        owner.getMap(mapName).put(key, "value");
+
+        HazelcastInstance asyncBackup = findReplicaMember(instances, key, 1);
+        int partitionId = getPartitionService(asyncBackup).getPartitionId(key);
+        getRecordStore(asyncBackup, mapName, partitionId)
+                .putBackup(getSerializationService(asyncBackup).toData(key), "asyncBackupOnly");
+
+        assertEquals("value", asyncBackup.getMap(mapName).get(key));
+        assertTrue(asyncBackup.getMap(mapName).containsKey(key));
+        IMap<String, String> map = findNonReplicaMember(instances, key).getMap(mapName);
+        long hitsBefore = owner.getMap(mapName).getEntryView(key).getHits();
+        for (int i = 0; i < READ_COUNT; i++) {
+            assertEquals("value", map.get(key));
+        }
+        assertEquals(hitsBefore + READ_COUNT, owner.getMap(mapName).getEntryView(key).getHits());
+    }
+
+    private static ReadBackupDataResponse readBackupData(HazelcastInstance instance, String mapName, String key)
+            throws Exception {
+        SerializationService serializationService = getSerializationService(instance);
+        int partitionId = getPartitionService(instance).getPartitionId(key);
+        Operation operation = new ReadBackupDataOperation(mapName, serializationService.toData(key));
+        return (ReadBackupDataResponse) getOperationService(instance)
+                .createInvocationBuilder(MapService.SERVICE_NAME, operation, partitionId)
+                .setReplicaIndex(1)
+                .invoke()
+                .get();
+    }
+
+    private static RecordStore getRecordStore(HazelcastInstance instance, String mapName, int partitionId) {
+        MapService mapService = getNodeEngineImpl(instance).getService(MapService.SERVICE_NAME);
+        return mapService.getMapServiceContext().getPartitionContainer(partitionId).getRecordStore(mapName);
+    }
+
+    private HazelcastInstance[] createCluster(String mapName, int memberCount, boolean remoteEnabled) {
+        return createCluster(mapName, memberCount, remoteEnabled, 1, 0);
+    }
+
+    private HazelcastInstance[] createCluster(String mapName, int memberCount, boolean remoteEnabled,
+                                              int backupCount, int asyncBackupCount) {
+        Config config = new Config();
+        config.setProperty(GroupProperty.MAP_READ_BACKUP_DATA_REMOTE_ENABLED.getName(), String.valueOf(remoteEnabled));
+        config.setProperty(GroupProperty.PERFORMANCE_METRICS_LEVEL.getName(), ProbeLevel.DEBUG.name());
+        config.getMapConfig(mapName).setBackupCount(backupCount).setAsyncBackupCount(asyncBackupCount)
+                .setReadBackupData(true);
+        TestHazelcastInstanceFactory factory = createHazelcastInstanceFactory(memberCount);
+        HazelcastInstance[] instances = factory.newInstances(config);
+        warmUpPartitions(instances);
+        return instances;
+    }
+
+    private static HazelcastInstance findReplicaMember(HazelcastInstance[] instances, String key, int replicaIndex) {
+        int partitionId = getPartitionService(instances[0]).getPartitionId(key);
+        Address address = getPartitionService(instances[0]).getPartition(partitionId).getReplicaAddress(replicaIndex);
+        for (HazelcastInstance instance : instances) {
+            if (getAddress(instance).equals(address)) {
+                return instance;
+            }
+        }
+        throw new AssertionError("No replica " + replicaIndex + " of partition " + partitionId);
+    }
+
+    private static HazelcastInstance findNonReplicaMember(HazelcastInstance[] instances, String key) {
+        int partitionId = getPartitionService(instances[0]).getPartitionId(key);
+        InternalPartition partition = getPartitionService(instances[0]).getPartition(partitionId);
+        for (HazelcastInstance instance : instances) {
+            Address address = getAddress(instance);
+            if (!address.equals(partition.getOwnerOrNull()) && !address.equals(partition.getReplicaAddress(1))) {
+                return instance;
+            }
+        }
+        throw new AssertionError("All members are replicas of partition " + partitionId);
+    }
+}
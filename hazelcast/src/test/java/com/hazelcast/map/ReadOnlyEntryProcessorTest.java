@@ -0,0 +1,222 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.InMemoryFormat;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.core.ReadOnly;
+import com.hazelcast.instance.GroupProperty;
+import com.hazelcast.query.Predicates;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class ReadOnlyEntryProcessorTest extends HazelcastTestSupport {
+
+    private static final int CALL_TIMEOUT_MILLIS = 1000;
+    private static final AtomicInteger BACKUP_PROCESSOR_CALLS = new AtomicInteger();
+    private static final CountDownLatch RELEASE_BLOCKING_PROCESSOR = new CountDownLatch(1);
+
+    @Test
+    public void executeOnKey_readsValue_binary() {
+        executeOnKey_readsValue(InMemoryFormat.BINARY);
+    }
+
+    @Test
+    public void executeOnKey_readsValue_object() {
+        executeOnKey_readsValue(InMemoryFormat.OBJECT);
+    }
+
+    private void executeOnKey_readsValue(InMemoryFormat inMemoryFormat) {
+        String mapName = randomMapName();
+        Config config = new Config();
+        config.getMapConfig(mapName).setInMemoryFormat(inMemoryFormat);
+        IMap<String, String> map = createHazelcastInstanceFactory(2).newInstances(config)[0].getMap(mapName);
+        map.put("key", "value");
+
+        assertEquals("value-read", map.executeOnKey("key", new ReadingProcessor()));
+        assertNull(map.executeOnKey("missing", new ReadingProcessor()));
+        assertEquals("value", map.get("key"));
+    }
+
+    @Test
+    public void submitToKey_readsValue() throws Exception {
+        IMap<String, String> map = createHazelcastInstance().getMap(randomMapName());
+        map.put("key", "value");
+
+        Future future = map.submitToKey("key", new ReadingProcessor());
+
+        assertEquals("value-read", future.get());
+    }
+
+    @Test
+    public void executeOnKey_whenEntryModified_thenFails() {
+        IMap<String, String> map = createHazelcastInstance().getMap(randomMapName());
+        map.put("key", "value");
+
+        try {
+            map.executeOnKey("key", new ModifyingProcessor());
+            fail("the modification of a read-only entry processor should fail");
+        } catch (UnsupportedOperationException expected) {
+            assertEquals("value", map.get("key"));
+        }
+    }
+
+    @Test
+    public void executeOnEntries_whenEntryModified_thenFails() {
+        IMap<String, String> map = createHazelcastInstance().getMap(randomMapName());
+        map.put("key", "value");
+
+        try {
+            map.executeOnEntries(new ModifyingProcessor());
+            fail("the modification of a read-only entry processor should fail");
+        } catch (UnsupportedOperationException expected) {
+            assertEquals("value", map.get("key"));
+        }
+    }
+
+    @Test
+    public void executeOnEntries_isNotBackedUp() {
+        IMap<Integer, String> map = createHazelcastInstanceFactory(2).newInstances()[0].getMap(randomMapName());
+        for (int i = 0; i < 100; i++) {
+            map.put(i, "value" + i);
+        }
+
+        Map<Integer, Object> results = map.executeOnEntries(new ReadingProcessor(), Predicates.equal("this", "value1"));
+        map.executeOnKeys(map.keySet(), new ReadingProcessor());
+
+        assertEquals(1, results.size());
+        assertEquals("value1-read", results.get(1));
+        assertEquals(0, BACKUP_PROCESSOR_CALLS.get());
+    }
+
+    @Test
+    public void executeOnKey_doesNotBlockThePartitionThread() throws Exception {
+        HazelcastInstance instance = createHazelcastInstance();
+        IMap<String, String> map = instance.getMap(randomMapName());
+        String key = generateKeyForPartition(instance, 0);
+        String otherKey = key;
+        while (otherKey.equals(key)) {
+            otherKey = generateKeyForPartition(instance, 0);
+        }
+        map.put(key, "value");
+
+        Future future = map.submitToKey(key, new BlockingProcessor());
+        try {
+            // would wait for the blocked processor if it ran on the partition thread
+            map.put(otherKey, "value");
+            assertEquals("value", map.get(key));
+        } finally {
+            RELEASE_BLOCKING_PROCESSOR.countDown();
+        }
+
+        assertEquals("value-read", future.get());
+    }
+
+    @Test
+    public void executeOnKey_whenProcessorRunsLongerThanCallTimeout() {
+        String mapName = randomMapName();
+        Config config = new Config();
+        config.setProperty(GroupProperty.OPERATION_CALL_TIMEOUT_MILLIS.getName(), String.valueOf(CALL_TIMEOUT_MILLIS));
+        HazelcastInstance[] instances = createHazelcastInstanceFactory(2).newInstances(config);
+        IMap<String, String> map = instances[0].getMap(mapName);
+        String remoteKey = generateKeyOwnedBy(instances[1]);
+        String localKey = generateKeyOwnedBy(instances[0]);
+        map.put(remoteKey, "remote");
+        map.put(localKey, "local");
+
+        assertEquals("remote-read", map.executeOnKey(remoteKey, new SlowProcessor()));
+        assertEquals("local-read", map.executeOnKey(localKey, new SlowProcessor()));
+    }
+
+    @Test
+    public void executeOnKey_withOffloadingDisabled() throws ExecutionException, InterruptedException {
+        Config config = new Config();
+        config.setProperty("hazelcast.map.read.only.entry.processor.offload.enabled", "false");
+        IMap<String, String> map = createHazelcastInstance(config).getMap(randomMapName());
+        map.put("key", "value");
+
+        assertEquals("value-read", map.executeOnKey("key", new ReadingProcessor()));
+        assertEquals("value-read", map.submitToKey("key", new ReadingProcessor()).get());
+    }
+
+    private static class ReadingProcessor implements EntryProcessor<Object, String>, ReadOnly {
+
+        @Override
+        public Object process(Map.Entry<Object, String> entry) {
+            return entry.getValue() == null ? null : entry.getValue() + "-read";
+        }
+
+        @Override
+        public EntryBackupProcessor<Object, String> getBackupProcessor() {
+            return new CountingBackupProcessor();
+        }
+    }
+
+    private static class ModifyingProcessor extends AbstractEntryProcessor<Object, String> implements ReadOnly {
+
+        @Override
+        public Object process(Map.Entry<Object, String> entry) {
+            entry.setValue("modified");
+            return null;
+        }
+    }
+
+    private static class BlockingProcessor extends ReadingProcessor {
+
+        @Override
+        public Object process(Map.Entry<Object, String> entry) {
+            assertOpenEventually(RELEASE_BLOCKING_PROCESSOR);
+            return super.process(entry);
+        }
+    }
+
+    private static class SlowProcessor extends ReadingProcessor {
+
+        @Override
+        public Object process(Map.Entry<Object, String> entry) {
+            sleepMillis(3 * CALL_TIMEOUT_MILLIS);
+            return super.process(entry);
+        }
+    }
+
+    private static class CountingBackupProcessor implements EntryBackupProcessor<Object, String> {
+
+        @Override
+        public void processBackup(Map.Entry<Object, String> entry) {
+            BACKUP_PROCESSOR_CALLS.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,233 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.map;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.config.TieredStoreConfig;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.instance.GroupProperty;
+import com.hazelcast.internal.serialization.impl.HeapData;
+import com.hazelcast.map.impl.MapService;
+import com.hazelcast.map.impl.record.Record;
+import com.hazelcast.map.impl.recordstore.RecordStore;
+import com.hazelcast.map.impl.recordstore.TieredStorage;
+import com.hazelcast.monitor.LocalMapStats;
+import com.hazelcast.nio.IOUtil;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.query.SqlPredicate;
+import com.hazelcast.test.AssertTask;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class TieredStorageTest extends HazelcastTestSupport {
+
+    private static final String MAP_NAME = "tiered";
+    private static final String TTL_MAP_NAME = "tiered-ttl";
+    private static final int MEMORY_TIER_SIZE = 10;
+    private static final int ENTRY_COUNT = 100;
+
+    private File dir;
+    private HazelcastInstance instance;
+    private IMap<Integer, String> map;
+
+    @Before
+    public void setUp() {
+        dir = new File(System.getProperty("java.io.tmpdir"), randomName());
+        instance = createHazelcastInstance(newConfig());
+        map = instance.getMap(MAP_NAME);
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            map.put(i, value(i));
+        }
+    }
+
+    @After
+    public void tearDown() {
+        IOUtil.delete(dir);
+    }
+
+    @Test
+    public void testColdValues_movedToDisk() {
+        LocalMapStats stats = map.getLocalMapStats();
+
+        assertEquals(ENTRY_COUNT, stats.getOwnedEntryCount());
+        assertTrue("disk tier entries: " + stats.getDiskTierEntryCount(),
+                stats.getDiskTierEntryCount() >= ENTRY_COUNT - MEMORY_TIER_SIZE);
+        assertTrue(segmentFileCount(dir) > 0);
+    }
+
+    @Test
+    public void testGet_promotesValues() {
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            assertEquals(value(i), map.get(i));
+        }
+        // the most recently promoted values are on the heap
+        assertEquals(value(ENTRY_COUNT - 1), map.get(ENTRY_COUNT - 1));
+
+        LocalMapStats stats = map.getLocalMapStats();
+        assertTrue("disk tier hits: " + stats.getDiskTierHits(), stats.getDiskTierHits() >= ENTRY_COUNT - MEMORY_TIER_SIZE);
+        assertTrue("memory tier hits: " + stats.getMemoryTierHits(), stats.getMemoryTierHits() > 0);
+        assertTrue(stats.getDiskTierEntryCount() >= ENTRY_COUNT - MEMORY_TIER_SIZE);
+    }
+
+    @Test
+    public void testGet_fromOtherThread_leavesTiers() {
+        TieredStorage storage = tieredStorage();
+        Data key = getSerializationService(instance).toData(0);
+        int diskTierEntryCount = storage.getDiskTierEntryCount();
+        long diskTierHits = storage.getDiskTierHits();
+
+        // the test thread is not the partition thread, like the caller thread of a backup read
+        Record record = storage.get(key);
+
+        assertEquals(value(0), getSerializationService(instance).toObject(record.getValue()));
+        assertEquals(diskTierEntryCount, storage.getDiskTierEntryCount());
+        assertEquals(diskTierHits + 1, storage.getDiskTierHits());
+        assertFalse(record.getValue() instanceof HeapData);
+
+        // promoted with the next operation of the partition thread
+        map.put(ENTRY_COUNT, value(ENTRY_COUNT));
+        assertEquals(value(0), map.get(0));
+    }
+
+    @Test
+    public void testExpiration_doesNotReadValuesFromDisk() {
+        final IMap<Integer, String> ttlMap = instance.getMap(TTL_MAP_NAME);
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            ttlMap.put(i, value(i));
+        }
+        assertTrue(ttlMap.getLocalMapStats().getDiskTierEntryCount() > 0);
+
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() throws Exception {
+                assertEquals(0, ttlMap.getLocalMapStats().getOwnedEntryCount());
+            }
+        });
+        LocalMapStats stats = ttlMap.getLocalMapStats();
+        assertEquals(0, stats.getDiskTierEntryCount());
+        assertEquals(0, stats.getDiskTierHits());
+    }
+
+    @Test
+    public void testQuery_acrossTiers() {
+        assertEquals(ENTRY_COUNT, map.values().size());
+        assertEquals(11, map.values(new SqlPredicate("this like 'value-1%'")).size());
+        assertTrue(map.containsValue(value(0)));
+    }
+
+    @Test
+    public void testEntryProcessor_acrossTiers() {
+        Map<Integer, Object> results = map.executeOnEntries(new AppendingEntryProcessor());
+
+        assertEquals(ENTRY_COUNT, results.size());
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            assertEquals(value(i) + "!", map.get(i));
+        }
+    }
+
+    @Test
+    public void testUpdateAndRemove_acrossTiers() {
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            map.set(i, value(i + 1));
+        }
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            assertEquals(value(i + 1), map.remove(i));
+            assertNull(map.get(i));
+        }
+
+        LocalMapStats stats = map.getLocalMapStats();
+        assertEquals(0, stats.getOwnedEntryCount());
+        assertEquals(0, stats.getDiskTierEntryCount());
+    }
+
+    @Test
+    public void testClearAndDestroy_deleteFiles() {
+        map.clear();
+        assertEquals(0, segmentFileCount(dir));
+        assertEquals(0, map.getLocalMapStats().getDiskTierEntryCount());
+
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            map.put(i, value(i));
+        }
+        assertTrue(segmentFileCount(dir) > 0);
+        map.destroy();
+        assertEquals(0, segmentFileCount(dir));
+    }
+
+    private TieredStorage tieredStorage() {
+        MapService mapService = getNodeEngineImpl(instance).getService(MapService.SERVICE_NAME);
+        RecordStore recordStore = mapService.getMapServiceContext().getRecordStore(0, MAP_NAME);
+        return (TieredStorage) recordStore.getStorage();
+    }
+
+    private static int segmentFileCount(File file) {
+        File[] files = file.listFiles();
+        if (files == null) {
+            return file.getName().endsWith(".segment") ? 1 : 0;
+        }
+        int count = 0;
+        for (File child : files) {
+            count += segmentFileCount(child);
+        }
+        return count;
+    }
+
+    private static String value(int i) {
+        return "value-" + i;
+    }
+
+    private Config newConfig() {
+        Config config = new Config();
+        config.setProperty(GroupProperty.PARTITION_COUNT.getName(), "1");
+        config.setProperty(GroupProperty.MAP_TIERED_STORE_DIR.getName(), dir.getAbsolutePath());
+        config.setProperty(GroupProperty.MAP_TIERED_STORE_SEGMENT_SIZE.getName(), "1024");
+        TieredStoreConfig tieredStoreConfig = new TieredStoreConfig().setEnabled(true).setMemoryTierSize(MEMORY_TIER_SIZE);
+        config.addMapConfig(new MapConfig(MAP_NAME).setTieredStoreConfig(tieredStoreConfig));
+        config.addMapConfig(new MapConfig(TTL_MAP_NAME).setTieredStoreConfig(tieredStoreConfig).setTimeToLiveSeconds(1));
+        return config;
+    }
+
+    private static class AppendingEntryProcessor extends AbstractEntryProcessor<Integer, String> {
+
+        @Override
+        public Object process(Map.Entry<Integer, String> entry) {
+            String value = entry.getValue() + "!";
+            entry.setValue(value);
+            return value;
+        }
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.map;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.internal.serialization.impl.CompressedData;
+import com.hazelcast.map.impl.MapService;
+import com.hazelcast.map.impl.MapServiceContext;
+import com.hazelcast.map.impl.record.Record;
+import com.hazelcast.map.impl.recordstore.RecordStore;
+import com.hazelcast.monitor.LocalMapStats;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.query.SqlPredicate;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.TestHazelcastInstanceFactory;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.Collections;
+import java.util.Iterator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class ValueCompressionTest extends HazelcastTestSupport {
+
+    private static final String MAP_NAME = "compressed";
+
+    @Test
+    public void testOperations_onCompressedValues() {
+        HazelcastInstance instance = createHazelcastInstance(newConfig());
+        IMap<Integer, String> map = instance.getMap(MAP_NAME);
+        String value = largeValue("a");
+
+        map.put(1, value);
+        map.put(2, "small");
+
+        assertTrue(storedValue(instance, 1) instanceof CompressedData);
+        assertFalse(storedValue(instance, 2) instanceof CompressedData);
+        assertEquals(value, map.get(1));
+        assertTrue(map.containsValue(value));
+        assertTrue(map.replace(1, value, largeValue("b")));
+        assertEquals(largeValue("b"), map.get(1));
+        assertEquals(1, map.values(new SqlPredicate("this like 'b%'")).size());
+        assertEquals(largeValue("b"), map.remove(1));
+    }
+
+    @Test
+    public void testStats() {
+        HazelcastInstance instance = createHazelcastInstance(newConfig());
+        IMap<Integer, String> map = instance.getMap(MAP_NAME);
+        for (int i = 0; i < 10; i++) {
+            map.put(i, largeValue(String.valueOf(i)));
+        }
+        for (int i = 0; i < 10; i++) {
+            map.get(i);
+        }
+
+        LocalMapStats stats = map.getLocalMapStats();
+
+        assertTrue("ratio: " + stats.getCompressionRatio(), stats.getCompressionRatio() > 4);
+        assertTrue(stats.getTotalCompressionTime() > 0);
+        assertTrue(stats.getTotalDecompressionTime() > 0);
+    }
+
+    @Test
+    public void testStats_ratioOfCurrentValues() {
+        HazelcastInstance instance = createHazelcastInstance(newConfig());
+        IMap<Integer, String> map = instance.getMap(MAP_NAME);
+        for (int i = 0; i < 10; i++) {
+            map.put(i, largeValue(String.valueOf(i)));
+        }
+        assertTrue(map.getLocalMapStats().getCompressionRatio() > 4);
+
+        for (int i = 0; i < 10; i++) {
+            map.put(i, "small");
+        }
+
+        assertEquals(1, map.getLocalMapStats().getCompressionRatio(), 0);
+    }
+
+    @Test
+    public void testBackup_receivesCompressedValues() {
+        TestHazelcastInstanceFactory factory = createHazelcastInstanceFactory(2);
+        HazelcastInstance owner = factory.newHazelcastInstance(newConfig());
+        HazelcastInstance backup = factory.newHazelcastInstance(newConfig());
+        warmUpPartitions(owner, backup);
+        IMap<String, String> map = owner.getMap(MAP_NAME);
+        String key = generateKeyOwnedBy(owner);
+        String putAllKey = generateKeyOwnedBy(owner);
+
+        map.put(key, largeValue("a"));
+        map.putAll(Collections.singletonMap(putAllKey, largeValue("b")));
+
+        assertTrue(storedValue(backup, putAllKey) instanceof CompressedData);
+        assertTrue(storedValue(backup, key) instanceof CompressedData);
+        // values are compressed by the owner only, the backup keeps the compressed form it received
+        assertEquals(0, backup.getMap(MAP_NAME).getLocalMapStats().getTotalCompressionTime());
+    }
+
+    @Test
+    public void testMigration_keepsValuesCompressed() {
+        TestHazelcastInstanceFactory factory = createHazelcastInstanceFactory(2);
+        HazelcastInstance instance1 = factory.newHazelcastInstance(newConfig());
+        IMap<Integer, String> map = instance1.getMap(MAP_NAME);
+        for (int i = 0; i < 100; i++) {
+            map.put(i, largeValue(String.valueOf(i)));
+        }
+
+        HazelcastInstance instance2 = factory.newHazelcastInstance(newConfig());
+        waitAllForSafeState(instance1, instance2);
+        instance1.shutdown();
+
+        IMap<Integer, String> map2 = instance2.getMap(MAP_NAME);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(largeValue(String.valueOf(i)), map2.get(i));
+            assertTrue(storedValue(instance2, i) instanceof CompressedData);
+        }
+    }
+
+    private static Data storedValue(HazelcastInstance instance, Object key) {
+        MapService mapService = getNodeEngineImpl(instance).getService(MapService.SERVICE_NAME);
+        MapServiceContext mapServiceContext = mapService.getMapServiceContext();
+        Data dataKey = mapServiceContext.toData(key);
+        int partitionId = getNode(instance).getPartitionService().getPartitionId(dataKey);
+        RecordStore recordStore = mapServiceContext.getRecordStore(partitionId, MAP_NAME);
+        Iterator<Record> iterator = recordStore.iterator();
+        while (iterator.hasNext()) {
+            Record record = iterator.next();
+            if (record.getKey().equals(dataKey)) {
+                return (Data) record.getValue();
+            }
+        }
+        throw new AssertionError("No record for " + key);
+    }
+
+    private static String largeValue(String prefix) {
+        StringBuilder sb = new StringBuilder(prefix);
+        for (int i = 0; i < 100; i++) {
+            sb.append("{\"field\":\"value\",\"index\":").append(i % 10).append('}');
+        }
+        return sb.toString();
+    }
+
+    private static Config newConfig() {
+        Config config = new Config();
+        config.addMapConfig(new MapConfig(MAP_NAME).setValueCompressionThreshold(1024));
+        return config;
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.eviction;
+
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.hazelcast.map.impl.eviction.HierarchicalTimingWheel.TICK_MILLIS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class HierarchicalTimingWheelTest {
+
+    private static final long START = 1000000L;
+    private static final long STEP_MILLIS = 100;
+
+    private final HierarchicalTimingWheel<Integer> wheel = new HierarchicalTimingWheel<Integer>(START);
+
+    @Test
+    public void advance_returnsKeyWithinTickAfterItIsDue() {
+        wheel.schedule(1, START + 1500);
+
+        assertTrue(wheel.advance(START + 1499).isEmpty());
+        assertEquals(Collections.singletonList(1), advanceUntilDue(START + 1500));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void advance_returnsKeyScheduledInThePast() {
+        wheel.schedule(1, START - 1);
+
+        assertEquals(Collections.singletonList(1), advanceUntilDue(START + 1));
+    }
+
+    @Test
+    public void advance_cascadesKeysWithLongDelays() {
+        long[] delays = {TimeUnit.MINUTES.toMillis(3), TimeUnit.HOURS.toMillis(5), TimeUnit.DAYS.toMillis(4),
+                TimeUnit.DAYS.toMillis(400)};
+        for (int i = 0; i < delays.length; i++) {
+            wheel.schedule(i, START + delays[i]);
+        }
+
+        for (int i = 0; i < delays.length; i++) {
+            assertEquals(Collections.singletonList(i), advanceUntilDue(START + delays[i]));
+        }
+    }
+
+    @Test
+    public void advance_whenTimeJumpsAhead() {
+        for (int i = 0; i < 100; i++) {
+            wheel.schedule(i, START + i * TimeUnit.MINUTES.toMillis(1));
+        }
+
+        List<Integer> due = wheel.advance(START + TimeUnit.DAYS.toMillis(1));
+
+        assertEquals(100, due.size());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void schedule_replacesPreviousSchedule() {
+        wheel.schedule(1, START + 500);
+        wheel.schedule(1, START + TimeUnit.MINUTES.toMillis(10));
+
+        assertTrue(wheel.advance(START + TimeUnit.MINUTES.toMillis(5)).isEmpty());
+        assertEquals(1, wheel.size());
+        assertEquals(Collections.singletonList(1), advanceUntilDue(START + TimeUnit.MINUTES.toMillis(10)));
+    }
+
+    @Test
+    public void cancel() {
+        wheel.schedule(1, START + 500);
+        wheel.schedule(2, START + 500);
+
+        assertTrue(wheel.cancel(1));
+        assertFalse(wheel.cancel(1));
+
+        assertEquals(Collections.singletonList(2), advanceUntilDue(START + 500));
+    }
+
+    @Test
+    public void clear() {
+        wheel.schedule(1, START + 500);
+        wheel.schedule(2, START + TimeUnit.HOURS.toMillis(1));
+
+        wheel.clear();
+
+        assertEquals(0, wheel.size());
+        assertTrue(wheel.advance(START + TimeUnit.DAYS.toMillis(1)).isEmpty());
+    }
+
+    @Test
+    public void getNextDueTime_whenEmpty() {
+        assertEquals(Long.MAX_VALUE, wheel.getNextDueTime());
+
+        wheel.schedule(1, START + 500);
+        wheel.clear();
+
+        assertEquals(Long.MAX_VALUE, wheel.getNextDueTime());
+    }
+
+    @Test
+    public void getNextDueTime_isLowerBoundOfDueKeys() {
+        long[] delays = {500, TimeUnit.SECONDS.toMillis(30), TimeUnit.MINUTES.toMillis(3), TimeUnit.HOURS.toMillis(2)};
+        for (int i = 0; i < delays.length; i++) {
+            wheel.schedule(i, START + delays[i]);
+        }
+        assertEquals(START + delays[0], wheel.getNextDueTime());
+
+        int dueCount = 0;
+        for (long now = START + STEP_MILLIS; dueCount < delays.length; now += STEP_MILLIS) {
+            long nextDueTime = wheel.getNextDueTime();
+            List<Integer> due = wheel.advance(now);
+            if (!due.isEmpty()) {
+                assertTrue("next due time " + nextDueTime + " after " + now, nextDueTime <= now);
+            }
+            dueCount += due.size();
+            if (dueCount < delays.length) {
+                assertTrue(wheel.getNextDueTime() <= START + delays[dueCount]);
+                // skips the periods without due keys, like the expiration task does
+                now = Math.max(now, wheel.getNextDueTime() - STEP_MILLIS);
+            }
+        }
+        assertEquals(Long.MAX_VALUE, wheel.getNextDueTime());
+    }
+
+    /**
+     * Advances the wheel in steps of {@value #STEP_MILLIS} milliseconds, like a periodic task does, from shortly before the given due
+     * time; asserts nothing is returned before the due time and the returned keys are returned within a tick after it.
+     */
+    private List<Integer> advanceUntilDue(long dueTime) {
+        List<Integer> due = new ArrayList<Integer>();
+        for (long now = Math.max(dueTime - TICK_MILLIS, START + 1); due.isEmpty(); now += STEP_MILLIS) {
+            due.addAll(wheel.advance(now));
+            if (now < dueTime) {
+                assertTrue("key returned before it was due", due.isEmpty());
+            }
+            assertTrue("key returned too late", now - dueTime <= TICK_MILLIS + STEP_MILLIS);
+        }
+        return due;
+    }
+}
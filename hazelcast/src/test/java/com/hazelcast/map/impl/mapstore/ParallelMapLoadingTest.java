@@ -0,0 +1,216 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.map.impl.mapstore;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.MapStoreConfig;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.core.MapLoaderLifecycleSupport;
+import com.hazelcast.core.MapStoreAdapter;
+import com.hazelcast.core.PartitionService;
+import com.hazelcast.core.PartitionedMapLoader;
+import com.hazelcast.instance.GroupProperty;
+import com.hazelcast.internal.metrics.MetricsRegistry;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.TestHazelcastInstanceFactory;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.hazelcast.config.MapStoreConfig.InitialLoadMode.EAGER;
+import static com.hazelcast.config.MapStoreConfig.InitialLoadMode.LAZY;
+import static com.hazelcast.test.TimeConstants.MINUTE;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class ParallelMapLoadingTest extends HazelcastTestSupport {
+
+    private static final int ENTRY_COUNT = 5000;
+    private static final int CHUNK_SIZE = 10;
+    private static final int PARTITION_COUNT = 31;
+    private static final int NODE_COUNT = 2;
+
+    @Test(timeout = MINUTE)
+    public void testParallelLoading_loadsAllEntriesInChunks() {
+        TestMapLoader loader = new TestMapLoader();
+        HazelcastInstance[] instances = newInstances(newConfig(loader, EAGER, true));
+
+        IMap<Integer, Integer> map = instances[0].getMap("default");
+
+        assertEquals(ENTRY_COUNT, map.size());
+        assertEquals(ENTRY_COUNT, loader.loadedCount.get());
+        assertTrue(loader.maxChunkSize.get() <= CHUNK_SIZE);
+        assertEquals(1, loader.loadAllKeysCount.get());
+        assertEquals(ENTRY_COUNT, sumOfLongGauges(instances, "map.load.keyCount"));
+        assertEquals(ENTRY_COUNT, sumOfLongGauges(instances, "map.load.loadedEntryCount"));
+        assertEquals(loader.loadAllCount.get(), sumOfLongGauges(instances, "map.load.loadAllCount"));
+        assertTrue(sumOfLongGauges(instances, "map.load.loadAllNanos") > 0);
+        assertEquals(0, sumOfLongGauges(instances, "map.load.pendingLoadAllCount"));
+    }
+
+    @Test(timeout = MINUTE)
+    public void testPartitionedMapLoader_loadsEveryPartitionSeparately() {
+        TestPartitionedMapLoader loader = new TestPartitionedMapLoader();
+        HazelcastInstance[] instances = newInstances(newConfig(loader, EAGER, false));
+
+        IMap<Integer, Integer> map = instances[0].getMap("default");
+
+        assertEquals(ENTRY_COUNT, map.size());
+        assertEquals(ENTRY_COUNT, loader.loadedCount.get());
+        assertEquals(0, loader.loadAllKeysCount.get());
+        assertEquals(PARTITION_COUNT, loader.loadPartitionKeysCount.get());
+    }
+
+    @Test(timeout = MINUTE)
+    public void testPartitionedMapLoader_whenParallelAndLoadAll() {
+        TestPartitionedMapLoader loader = new TestPartitionedMapLoader();
+        HazelcastInstance[] instances = newInstances(newConfig(loader, LAZY, true));
+        IMap<Integer, Integer> map = instances[0].getMap("default");
+
+        map.loadAll(true);
+
+        assertEquals(ENTRY_COUNT, map.size());
+        assertEquals(ENTRY_COUNT, loader.loadedCount.get());
+        assertEquals(0, loader.loadAllKeysCount.get());
+        assertEquals(PARTITION_COUNT, loader.loadPartitionKeysCount.get());
+        assertEquals(ENTRY_COUNT, sumOfLongGauges(instances, "map.load.loadedEntryCount"));
+    }
+
+    @Test(timeout = MINUTE)
+    public void testPartitionedMapLoader_loadAllAfterInitialLoad() {
+        TestPartitionedMapLoader loader = new TestPartitionedMapLoader();
+        HazelcastInstance[] instances = newInstances(newConfig(loader, EAGER, false));
+        IMap<Integer, Integer> map = instances[0].getMap("default");
+        assertEquals(ENTRY_COUNT, map.size());
+
+        // every load has to wait for the keys of all partitions, otherwise the next one is skipped
+        for (int i = 2; i <= 3; i++) {
+            map.loadAll(true);
+
+            assertEquals(ENTRY_COUNT, map.size());
+            assertEquals(i * PARTITION_COUNT, loader.loadPartitionKeysCount.get());
+            assertEquals(i * ENTRY_COUNT, loader.loadedCount.get());
+        }
+    }
+
+    private HazelcastInstance[] newInstances(Config config) {
+        TestHazelcastInstanceFactory factory = createHazelcastInstanceFactory(NODE_COUNT);
+        HazelcastInstance[] instances = factory.newInstances(config);
+        assertClusterSizeEventually(NODE_COUNT, instances[0]);
+        waitAllForSafeState(instances);
+        return instances;
+    }
+
+    private static long sumOfLongGauges(HazelcastInstance[] instances, String name) {
+        long sum = 0;
+        for (HazelcastInstance instance : instances) {
+            MetricsRegistry metricsRegistry = getNodeEngineImpl(instance).getMetricsRegistry();
+            sum += metricsRegistry.newLongGauge(name).read();
+        }
+        return sum;
+    }
+
+    private Config newConfig(Object loader, MapStoreConfig.InitialLoadMode loadMode, boolean parallel) {
+        Config config = getConfig();
+        config.setProperty(GroupProperty.PARTITION_COUNT, String.valueOf(PARTITION_COUNT));
+        config.setProperty(GroupProperty.MAP_LOAD_CHUNK_SIZE, String.valueOf(CHUNK_SIZE));
+        config.setProperty(GroupProperty.MAP_LOAD_PARALLEL_ENABLED, String.valueOf(parallel));
+        config.setProperty(GroupProperty.MAP_LOAD_PARALLEL_THREAD_COUNT, "4");
+        config.setProperty(GroupProperty.MAP_LOAD_PARALLEL_BATCH_SIZE, "100");
+        MapStoreConfig mapStoreConfig = new MapStoreConfig().setImplementation(loader).setInitialLoadMode(loadMode);
+        config.getMapConfig("default").setMapStoreConfig(mapStoreConfig);
+        return config;
+    }
+
+    static class TestMapLoader extends MapStoreAdapter<Integer, Integer> {
+
+        final AtomicInteger loadAllKeysCount = new AtomicInteger();
+        final AtomicInteger loadAllCount = new AtomicInteger();
+        final AtomicInteger loadedCount = new AtomicInteger();
+        final AtomicInteger maxChunkSize = new AtomicInteger();
+
+        @Override
+        public Map<Integer, Integer> loadAll(Collection<Integer> keys) {
+            loadAllCount.incrementAndGet();
+            int chunkSize = keys.size();
+            int max = maxChunkSize.get();
+            while (max < chunkSize && !maxChunkSize.compareAndSet(max, chunkSize)) {
+                max = maxChunkSize.get();
+            }
+            Map<Integer, Integer> entries = new HashMap<Integer, Integer>();
+            for (Integer key : keys) {
+                entries.put(key, key);
+            }
+            loadedCount.addAndGet(entries.size());
+            return entries;
+        }
+
+        @Override
+        public Iterable<Integer> loadAllKeys() {
+            loadAllKeysCount.incrementAndGet();
+            List<Integer> keys = new ArrayList<Integer>(ENTRY_COUNT);
+            for (int i = 0; i < ENTRY_COUNT; i++) {
+                keys.add(i);
+            }
+            return keys;
+        }
+    }
+
+    static class TestPartitionedMapLoader extends TestMapLoader
+            implements PartitionedMapLoader<Integer, Integer>, MapLoaderLifecycleSupport {
+
+        final AtomicInteger loadPartitionKeysCount = new AtomicInteger();
+
+        volatile PartitionService partitionService;
+
+        @Override
+        public void init(HazelcastInstance hazelcastInstance, Properties properties, String mapName) {
+            partitionService = hazelcastInstance.getPartitionService();
+        }
+
+        @Override
+        public void destroy() {
+        }
+
+        @Override
+        public Iterable<Integer> loadAllKeys(int partitionId) {
+            loadPartitionKeysCount.incrementAndGet();
+            List<Integer> keys = new ArrayList<Integer>();
+            for (int i = 0; i < ENTRY_COUNT; i++) {
+                if (partitionService.getPartition(i).getPartitionId() == partitionId) {
+                    keys.add(i);
+                }
+            }
+            return keys;
+        }
+    }
+}
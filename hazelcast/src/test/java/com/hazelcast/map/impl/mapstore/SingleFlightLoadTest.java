@@ -0,0 +1,231 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.map.impl.mapstore;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.MapStoreConfig;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.core.MapStoreAdapter;
+import com.hazelcast.instance.GroupProperty;
+import com.hazelcast.spi.impl.operationexecutor.classic.PartitionOperationThread;
+import com.hazelcast.test.AssertTask;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class SingleFlightLoadTest extends HazelcastTestSupport {
+
+    private static final int GET_COUNT = 20;
+    private static final int CALL_TIMEOUT_MILLIS = 1000;
+
+    @Test
+    public void testConcurrentGets_shareOneLoad() throws Exception {
+        BlockingMapStore store = new BlockingMapStore();
+        store.values.put(1, "value");
+        HazelcastInstance instance = createHazelcastInstance(newConfig(store));
+        IMap<Integer, String> map = instance.getMap(randomMapName());
+
+        List<Future<String>> futures = new ArrayList<Future<String>>();
+        for (int i = 0; i < GET_COUNT; i++) {
+            futures.add(map.getAsync(1));
+        }
+        assertLoadCountEventually(store, 1);
+        // the partition thread is not blocked by the load
+        map.set(keyInSamePartition(instance, 1), "other");
+        for (Future<String> future : futures) {
+            assertFalse(future.isDone());
+        }
+
+        store.unblock();
+
+        for (Future<String> future : futures) {
+            assertEquals("value", future.get());
+        }
+        assertEquals(1, store.loadCount.get());
+        assertEquals(GET_COUNT - 1, map.getLocalMapStats().getCoalescedLoadCount());
+        assertEquals("value", map.get(1));
+        assertEquals(1, store.loadCount.get());
+    }
+
+    @Test
+    public void testPutDuringLoad_isNotOverwritten() throws Exception {
+        BlockingMapStore store = new BlockingMapStore();
+        store.values.put(1, "stale");
+        HazelcastInstance instance = createHazelcastInstance(newConfig(store));
+        IMap<Integer, String> map = instance.getMap(randomMapName());
+
+        Future<String> future = map.getAsync(1);
+        assertLoadCountEventually(store, 1);
+        map.put(1, "new");
+        store.unblock();
+
+        assertEquals("new", future.get());
+        assertEquals("new", map.get(1));
+    }
+
+    @Test
+    public void testDeleteDuringLoad_isNotOverwritten() throws Exception {
+        BlockingMapStore store = new BlockingMapStore();
+        store.values.put(1, "deleted");
+        HazelcastInstance instance = createHazelcastInstance(newConfig(store));
+        IMap<Integer, String> map = instance.getMap(randomMapName());
+
+        Future<String> future = map.getAsync(1);
+        assertLoadCountEventually(store, 1);
+        map.delete(1);
+        store.unblock();
+
+        assertNull(future.get());
+        // the possibly stale value is loaded again, but not on the partition thread
+        assertEquals(2, store.loadCount.get());
+        assertFalse(store.loadedOnPartitionThread);
+        assertNull(map.get(1));
+    }
+
+    @Test
+    public void testFailedLoad_failsAllGets() throws Exception {
+        BlockingMapStore store = new BlockingMapStore();
+        store.failure = new IllegalStateException("expected");
+        HazelcastInstance instance = createHazelcastInstance(newConfig(store));
+        IMap<Integer, String> map = instance.getMap(randomMapName());
+
+        Future<String> first = map.getAsync(1);
+        Future<String> second = map.getAsync(1);
+        assertLoadCountEventually(store, 1);
+        store.unblock();
+
+        assertLoadFails(first);
+        assertLoadFails(second);
+    }
+
+    @Test
+    public void testLoadLongerThanCallTimeout() {
+        Config config = newConfig(new SlowMapStore());
+        config.setProperty(GroupProperty.OPERATION_CALL_TIMEOUT_MILLIS.getName(), String.valueOf(CALL_TIMEOUT_MILLIS));
+        HazelcastInstance[] instances = createHazelcastInstanceFactory(2).newInstances(config);
+        IMap<String, String> map = instances[0].getMap(randomMapName());
+
+        String remoteKey = generateKeyOwnedBy(instances[1]);
+        String localKey = generateKeyOwnedBy(instances[0]);
+        assertEquals(remoteKey + "-loaded", map.get(remoteKey));
+        assertEquals(localKey + "-loaded", map.get(localKey));
+    }
+
+    private static void assertLoadFails(Future<String> future) throws InterruptedException {
+        try {
+            future.get();
+            fail();
+        } catch (ExecutionException expected) {
+            assertEquals(IllegalStateException.class, expected.getCause().getClass());
+        }
+    }
+
+    private static void assertLoadCountEventually(final BlockingMapStore store, final int expected) {
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() throws Exception {
+                assertEquals(expected, store.loadCount.get());
+            }
+        });
+    }
+
+    private static int keyInSamePartition(HazelcastInstance instance, int key) {
+        int partitionId = instance.getPartitionService().getPartition(key).getPartitionId();
+        int otherKey = key + 1;
+        while (instance.getPartitionService().getPartition(otherKey).getPartitionId() != partitionId) {
+            otherKey++;
+        }
+        return otherKey;
+    }
+
+    private Config newConfig(Object store) {
+        Config config = getConfig();
+        MapStoreConfig mapStoreConfig = new MapStoreConfig().setImplementation(store);
+        config.getMapConfig("default").setMapStoreConfig(mapStoreConfig);
+        return config;
+    }
+
+    /**
+     * Takes longer than the call timeout to load a key.
+     */
+    static class SlowMapStore extends MapStoreAdapter<String, String> {
+
+        @Override
+        public String load(String key) {
+            sleepMillis(3 * CALL_TIMEOUT_MILLIS);
+            return key + "-loaded";
+        }
+    }
+
+    /**
+     * Blocks the first load after reading the value until unblocked.
+     */
+    static class BlockingMapStore extends MapStoreAdapter<Integer, String> {
+
+        final ConcurrentMap<Integer, String> values = new ConcurrentHashMap<Integer, String>();
+        final AtomicInteger loadCount = new AtomicInteger();
+        final CountDownLatch unblocked = new CountDownLatch(1);
+        volatile RuntimeException failure;
+        volatile boolean loadedOnPartitionThread;
+
+        @Override
+        public String load(Integer key) {
+            if (Thread.currentThread() instanceof PartitionOperationThread) {
+                loadedOnPartitionThread = true;
+            }
+            String value = values.get(key);
+            if (loadCount.incrementAndGet() == 1) {
+                assertOpenEventually(unblocked);
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            return value;
+        }
+
+        @Override
+        public void delete(Integer key) {
+            values.remove(key);
+        }
+
+        void unblock() {
+            unblocked.countDown();
+        }
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.map.impl.mapstore.writebehind;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.MapStoreConfig;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.instance.GroupProperty;
+import com.hazelcast.test.AssertTask;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.TestHazelcastInstanceFactory;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class WriteBehindFlowControlTest extends HazelcastTestSupport {
+
+    private static final String MAP_NAME = "map";
+    private static final int ENTRY_COUNT = 1000;
+
+    @Test
+    public void testEntriesStoredInParallelStreams() {
+        SlowMapStore mapStore = new SlowMapStore(1);
+        Config config = createConfig(mapStore, 10);
+        config.setProperty(GroupProperty.MAP_WRITE_BEHIND_STORE_CONCURRENCY.getName(), "4");
+        HazelcastInstance instance = createHazelcastInstance(config);
+        IMap<Integer, Integer> map = instance.getMap(MAP_NAME);
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            map.put(i, i);
+        }
+
+        assertSizeEventually(ENTRY_COUNT, mapStore.store);
+        assertTrue("Entries were stored by " + mapStore.storingThreads, mapStore.storingThreads.size() > 1);
+    }
+
+    @Test
+    public void testBatchSizeShrinks_whenStoreIsSlow() {
+        SlowMapStore mapStore = new SlowMapStore(1);
+        Config config = createConfig(mapStore, 500);
+        config.setProperty(GroupProperty.MAP_WRITE_BEHIND_ADAPTIVE_BATCH_TARGET_LATENCY_MILLIS.getName(), "50");
+        HazelcastInstance instance = createHazelcastInstance(config);
+        IMap<Integer, Integer> map = instance.getMap(MAP_NAME);
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            map.put(i, i);
+        }
+
+        assertSizeEventually(ENTRY_COUNT, mapStore.store);
+        assertTrue("Batch sizes were " + mapStore.batchSizes, Collections.max(mapStore.batchSizes) <= 500);
+        assertTrue("Batch sizes were " + mapStore.batchSizes, Collections.min(mapStore.batchSizes) < 100);
+    }
+
+    @Test
+    public void testBatchSizeGrows_whenStoreIsFast() {
+        SlowMapStore mapStore = new SlowMapStore(0);
+        Config config = createConfig(mapStore, 10);
+        config.setProperty(GroupProperty.MAP_WRITE_BEHIND_ADAPTIVE_BATCH_TARGET_LATENCY_MILLIS.getName(), "1000");
+        HazelcastInstance instance = createHazelcastInstance(config);
+        IMap<Integer, Integer> map = instance.getMap(MAP_NAME);
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            map.put(i, i);
+        }
+
+        assertSizeEventually(ENTRY_COUNT, mapStore.store);
+        assertTrue("Batch sizes were " + mapStore.batchSizes, Collections.max(mapStore.batchSizes) > 100);
+    }
+
+    @Test
+    public void testWritesRejectedAndRetried_whenOwnedQueuesExceedThreshold() {
+        MapStoreWithCounter<Integer, byte[]> mapStore = new MapStoreWithCounter<Integer, byte[]>();
+        Config config = createConfig(mapStore, 10);
+        config.setProperty(GroupProperty.MAP_WRITE_BEHIND_BACKPRESSURE_MAX_QUEUED_MB.getName(), "1");
+        HazelcastInstance instance = createHazelcastInstance(config);
+        IMap<Integer, byte[]> map = instance.getMap(MAP_NAME);
+        byte[] value = new byte[10 * 1024];
+        for (int i = 0; i < 100; i++) {
+            map.put(i, value);
+        }
+        assertEquals(0, getMetric(instance, "map.writeBehind.rejectedWriteCount"));
+
+        // the rejected writes are retried until the stored entries left the queues
+        for (int i = 100; i < 300; i++) {
+            map.put(i, value);
+        }
+
+        assertTrue(getMetric(instance, "map.writeBehind.rejectedWriteCount") > 0);
+        assertSizeEventually(300, mapStore.store);
+    }
+
+    @Test
+    public void testBackupQueuesNotCounted() {
+        Config config = createConfig(new MapStoreWithCounter<Integer, byte[]>(), 10);
+        config.getMapConfig(MAP_NAME).getMapStoreConfig().setWriteDelaySeconds(3600);
+        config.getMapConfig(MAP_NAME).setBackupCount(1);
+        config.setProperty(GroupProperty.MAP_WRITE_BEHIND_BACKPRESSURE_MAX_QUEUED_MB.getName(), "1");
+        TestHazelcastInstanceFactory factory = createHazelcastInstanceFactory(2);
+        HazelcastInstance instance1 = factory.newHazelcastInstance(config);
+        HazelcastInstance instance2 = factory.newHazelcastInstance(config);
+        warmUpPartitions(instance1, instance2);
+        IMap<Integer, byte[]> map = instance1.getMap(MAP_NAME);
+        byte[] value = new byte[10 * 1024];
+        for (int i = 0; i < 150; i++) {
+            map.put(i, value);
+        }
+
+        // each member queues all entries, but owns only about half of them
+        assertTrue(getMetric(instance1, "map.writeBehind.queuedBytes") > 150 * value.length);
+        assertEquals(0, getMetric(instance1, "map.writeBehind.rejectedWriteCount"));
+        assertEquals(0, getMetric(instance2, "map.writeBehind.rejectedWriteCount"));
+    }
+
+    @Test
+    public void testMetrics() {
+        MapStoreWithCounter<Integer, Integer> mapStore = new MapStoreWithCounter<Integer, Integer>();
+        final HazelcastInstance instance = createHazelcastInstance(createConfig(mapStore, 10));
+        IMap<Integer, Integer> map = instance.getMap(MAP_NAME);
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            map.put(i, i);
+        }
+        assertEquals(ENTRY_COUNT, getMetric(instance, "map.writeBehind.queuedEntryCount"));
+
+        assertSizeEventually(ENTRY_COUNT, mapStore.store);
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() throws Exception {
+                assertEquals(ENTRY_COUNT, getMetric(instance, "map[" + MAP_NAME + "].writeBehind.flushedEntryCount"));
+                assertEquals(0, getMetric(instance, "map.writeBehind.queuedEntryCount"));
+                assertEquals(0, getMetric(instance, "map.writeBehind.queuedBytes"));
+            }
+        });
+    }
+
+    private static Config createConfig(Object mapStore, int writeBatchSize) {
+        Config config = new Config();
+        config.setProperty(GroupProperty.PARTITION_COUNT.getName(), "31");
+        MapStoreConfig mapStoreConfig = new MapStoreConfig()
+                .setImplementation(mapStore)
+                .setWriteDelaySeconds(1)
+                .setWriteBatchSize(writeBatchSize);
+        config.getMapConfig(MAP_NAME).setMapStoreConfig(mapStoreConfig);
+        return config;
+    }
+
+    private static long getMetric(HazelcastInstance instance, String name) {
+        return getNodeEngineImpl(instance).getMetricsRegistry().newLongGauge(name).read();
+    }
+
+    /**
+     * Takes the given time per entry to store a batch, and records the batch sizes and storing threads.
+     */
+    private static class SlowMapStore extends MapStoreWithCounter<Integer, Integer> {
+
+        final List<Integer> batchSizes = new CopyOnWriteArrayList<Integer>();
+        final Set<String> storingThreads = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+        private final long millisPerEntry;
+
+        SlowMapStore(long millisPerEntry) {
+            this.millisPerEntry = millisPerEntry;
+        }
+
+        @Override
+        public void storeAll(Map<Integer, Integer> map) {
+            batchSizes.add(map.size());
+            storingThreads.add(Thread.currentThread().getName());
+            sleepMillis((int) (millisPerEntry * map.size()));
+            super.storeAll(map);
+        }
+    }
+}
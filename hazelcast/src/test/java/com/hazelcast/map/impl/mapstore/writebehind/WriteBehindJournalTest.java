@@ -0,0 +1,284 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.map.impl.mapstore.writebehind;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.MapStoreConfig;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.instance.GroupProperty;
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.logging.Logger;
+import com.hazelcast.map.impl.MapService;
+import com.hazelcast.map.impl.mapstore.writebehind.WriteBehindJournal.JournaledEntry;
+import com.hazelcast.map.impl.mapstore.writebehind.entry.DelayedEntries;
+import com.hazelcast.map.impl.mapstore.writebehind.entry.DelayedEntry;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.test.AssertTask;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.TestHazelcastInstanceFactory;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+
+import static com.hazelcast.nio.IOUtil.delete;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class WriteBehindJournalTest extends HazelcastTestSupport {
+
+    private static final int ENTRY_COUNT = 1000;
+    private static final String MAP_NAME = "map";
+
+    private File journalDir;
+    private TestHazelcastInstanceFactory factory;
+
+    @Before
+    public void setUp() throws IOException {
+        journalDir = File.createTempFile("write-behind-journal", "");
+        delete(journalDir);
+        factory = createHazelcastInstanceFactory(2);
+    }
+
+    @After
+    public void tearDown() {
+        factory.terminateAll();
+        delete(journalDir);
+    }
+
+    @Test
+    public void testQueuedEntriesStored_whenMemberRestartsAfterCrash() {
+        MapStoreWithCounter<Integer, String> mapStore = new MapStoreWithCounter<Integer, String>();
+        mapStore.store.put(0, "stored");
+        HazelcastInstance instance = factory.newHazelcastInstance(createConfig(new MapStoreWithCounter(), 3600));
+        IMap<Integer, String> map = instance.getMap(MAP_NAME);
+        for (int i = 1; i < ENTRY_COUNT; i++) {
+            map.put(i, "value" + i);
+        }
+        map.put(1, "updated");
+        map.delete(0);
+        instance.getLifecycleService().terminate();
+
+        instance = factory.newHazelcastInstance(createConfig(mapStore, 3600));
+        instance.getMap(MAP_NAME);
+
+        assertSizeEventually(ENTRY_COUNT - 1, mapStore.store);
+        assertNull(mapStore.store.get(0));
+        assertEquals("updated", mapStore.store.get(1));
+        assertEquals("value" + (ENTRY_COUNT - 1), mapStore.store.get(ENTRY_COUNT - 1));
+        assertEquals(ENTRY_COUNT, getMetric(instance, "map.writeBehindJournal.replayedEntryCount"));
+        // the replayed entries are journaled by the owners until they are stored
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() throws Exception {
+                assertEquals(0, countJournalFiles(true));
+            }
+        });
+    }
+
+    @Test
+    public void testReplay_skipsEntriesOlderThanReplayedOnes() throws IOException {
+        MapStoreWithCounter<Integer, String> mapStore = new MapStoreWithCounter<Integer, String>();
+        HazelcastInstance instance = factory.newHazelcastInstance(createConfig(mapStore, 1));
+        // the journals of two members holding different writes of a key, the older generation has the later write
+        File mapDir = new File(journalDir, MAP_NAME);
+        assertTrue(mapDir.mkdirs());
+        writeJournal(instance, new File(mapDir, "0-1" + WriteBehindJournal.SUFFIX), "newer", 2000);
+        writeJournal(instance, new File(mapDir, "0-2" + WriteBehindJournal.SUFFIX), "older", 1000);
+        instance.getLifecycleService().terminate();
+
+        instance = factory.newHazelcastInstance(createConfig(mapStore, 1));
+        instance.getMap(MAP_NAME);
+
+        assertSizeEventually(1, mapStore.store);
+        assertEquals("newer", mapStore.store.get(1));
+        assertEquals(1, getMetric(instance, "map.writeBehindJournal.replayedEntryCount"));
+    }
+
+    @Test
+    public void testOnlyOwnersJournal() {
+        Config config = createConfig(new MapStoreWithCounter(), 3600);
+        config.getMapConfig(MAP_NAME).setBackupCount(1);
+        HazelcastInstance instance1 = factory.newHazelcastInstance(config);
+        HazelcastInstance instance2 = factory.newHazelcastInstance(createConfig(new MapStoreWithCounter(), 3600,
+                new File(journalDir, "member2")));
+        IMap<Integer, String> map = instance1.getMap(MAP_NAME);
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            map.put(i, "value" + i);
+        }
+
+        assertEquals(ENTRY_COUNT, getMetric(instance1, "map.writeBehindJournal.journaledEntryCount")
+                + getMetric(instance2, "map.writeBehindJournal.journaledEntryCount"));
+    }
+
+    @Test
+    public void testJournalsSynced_whenIntervalIsZero() {
+        Config config = createConfig(new MapStoreWithCounter(), 3600);
+        config.setProperty(GroupProperty.MAP_WRITE_BEHIND_JOURNAL_FSYNC_INTERVAL_MILLIS.getName(), "0");
+        final HazelcastInstance instance = factory.newHazelcastInstance(config);
+        IMap<Integer, String> map = instance.getMap(MAP_NAME);
+        map.put(1, "value");
+
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() throws Exception {
+                assertTrue(getMetric(instance, "map.writeBehindJournal.syncCount") > 0);
+            }
+        });
+    }
+
+    @Test
+    public void testCompaction_keepsQueuedEntries() throws IOException {
+        HazelcastInstance instance = factory.newHazelcastInstance(createConfig(new MapStoreWithCounter(), 3600));
+        SerializationService serializationService = getSerializationService(instance);
+        assertTrue(journalDir.mkdirs());
+        File file = new File(journalDir, "0-1" + WriteBehindJournal.SUFFIX);
+        WriteBehindJournal journal = new WriteBehindJournal(file, serializationService, getJournalManager(instance));
+        WriteBehindQueue<DelayedEntry> queue = WriteBehindQueues.createDefaultWriteBehindQueue();
+        for (int i = 0; i < ENTRY_COUNT * 3; i++) {
+            journal.append(newEntry(serializationService, i % ENTRY_COUNT, "value" + i, i));
+        }
+        for (int i = 0; i < 10; i++) {
+            queue.addLast(newEntry(serializationService, i, "queued" + i, i));
+        }
+
+        assertTrue(journal.compact(queue));
+        journal.append(newEntry(serializationService, 10, "appended", 10));
+        journal.close(false);
+
+        Map<Data, JournaledEntry> entries = WriteBehindJournal.read(file, Logger.getLogger(getClass()));
+        assertEquals(11, entries.size());
+        assertEquals("queued0", serializationService.toObject(entries.get(serializationService.toData(0)).value));
+        assertEquals("appended", serializationService.toObject(entries.get(serializationService.toData(10)).value));
+    }
+
+    private static void writeJournal(HazelcastInstance instance, File file, String value, long storeTime) {
+        SerializationService serializationService = getSerializationService(instance);
+        WriteBehindJournal journal = new WriteBehindJournal(file, serializationService, getJournalManager(instance));
+        journal.append(newEntry(serializationService, 1, value, storeTime));
+        journal.close(false);
+    }
+
+    private static DelayedEntry newEntry(SerializationService serializationService, int key, String value,
+                                         long storeTime) {
+        return DelayedEntries.createDefault(serializationService.toData(key), value, storeTime, 0);
+    }
+
+    private static WriteBehindJournalManager getJournalManager(HazelcastInstance instance) {
+        MapService mapService = getNodeEngineImpl(instance).getService(MapService.SERVICE_NAME);
+        return mapService.getMapServiceContext().getWriteBehindJournalManager();
+    }
+
+    @Test
+    public void testJournalsTruncated_whenEntriesStored() {
+        final MapStoreWithCounter<Integer, String> mapStore = new MapStoreWithCounter<Integer, String>();
+        final HazelcastInstance instance = factory.newHazelcastInstance(createConfig(mapStore, 1));
+        IMap<Integer, String> map = instance.getMap(MAP_NAME);
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            map.put(i, "value" + i);
+        }
+        assertTrue(getMetric(instance, "map.writeBehindJournal.journaledEntryCount") >= ENTRY_COUNT);
+        assertTrue(countJournalFiles(true) > 0);
+
+        assertSizeEventually(ENTRY_COUNT, mapStore.store);
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() throws Exception {
+                assertEquals(0, countJournalFiles(true));
+            }
+        });
+        assertTrue(getMetric(instance, "map.writeBehindJournal.compactionCount") > 0);
+        assertTrue(getMetric(instance, "map.writeBehindJournal.syncCount") > 0);
+    }
+
+    @Test
+    public void testJournalsDeleted_whenMemberShutsDownGracefully() {
+        MapStoreWithCounter<Integer, String> mapStore = new MapStoreWithCounter<Integer, String>();
+        HazelcastInstance instance = factory.newHazelcastInstance(createConfig(mapStore, 3600));
+        IMap<Integer, String> map = instance.getMap(MAP_NAME);
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            map.put(i, "value" + i);
+        }
+        instance.shutdown();
+
+        assertEquals(ENTRY_COUNT, mapStore.store.size());
+        assertEquals(0, countJournalFiles(false));
+    }
+
+    @Test
+    public void testJournalsDeleted_whenMapDestroyed() {
+        HazelcastInstance instance = factory.newHazelcastInstance(createConfig(new MapStoreWithCounter(), 3600));
+        IMap<Integer, String> map = instance.getMap(MAP_NAME);
+        map.put(1, "value");
+        assertEquals(1, countJournalFiles(true));
+
+        map.destroy();
+
+        assertEquals(0, countJournalFiles(false));
+        assertFalse(instance.getMap(MAP_NAME).containsKey(1));
+    }
+
+    private Config createConfig(Object mapStore, int writeDelaySeconds) {
+        return createConfig(mapStore, writeDelaySeconds, journalDir);
+    }
+
+    private Config createConfig(Object mapStore, int writeDelaySeconds, File dir) {
+        Config config = new Config();
+        config.setProperty(GroupProperty.MAP_WRITE_BEHIND_JOURNAL_ENABLED.getName(), "true");
+        config.setProperty(GroupProperty.MAP_WRITE_BEHIND_JOURNAL_DIR.getName(), dir.getAbsolutePath());
+        config.setProperty(GroupProperty.PARTITION_COUNT.getName(), "11");
+        MapStoreConfig mapStoreConfig = new MapStoreConfig()
+                .setImplementation(mapStore)
+                .setWriteDelaySeconds(writeDelaySeconds);
+        config.getMapConfig(MAP_NAME).setMapStoreConfig(mapStoreConfig);
+        return config;
+    }
+
+    /**
+     * Counts the journal files of the map, only the non-empty ones if {@code nonEmpty} is set.
+     */
+    private int countJournalFiles(boolean nonEmpty) {
+        File[] files = new File(journalDir, MAP_NAME).listFiles();
+        int count = 0;
+        if (files != null) {
+            for (File file : files) {
+                if (!nonEmpty || file.length() > 0) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    private static long getMetric(HazelcastInstance instance, String name) {
+        return getNodeEngineImpl(instance).getMetricsRegistry().newLongGauge(name).read();
+    }
+}
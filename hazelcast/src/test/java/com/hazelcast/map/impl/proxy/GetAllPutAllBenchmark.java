@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.proxy;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.JoinConfig;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.instance.GroupProperty;
+import com.hazelcast.internal.metrics.LongGauge;
+import com.hazelcast.spi.impl.NodeEngineImpl;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static com.hazelcast.test.HazelcastTestSupport.getNodeEngineImpl;
+
+/**
+ * Measures IMap.getAll and IMap.putAll for 10, 100 and 10,000 keys on a real cluster, with putAll sending one operation
+ * per member and with putAll sending one operation per partition. For each call the average latency and the number of
+ * remote round-trips, i.e. the responses the calling member received from other members, are printed.
+ * <p/>
+ * Arguments: {@code m<memberCount> r<rounds>}.
+ */
+public final class GetAllPutAllBenchmark {
+
+    private static final String MAP_NAME = "benchmark";
+    private static final int[] KEY_COUNTS = {10, 100, 10000};
+    private static final int OPERATIONS_PER_RUN = 100000;
+    private static final int MIN_ITERATIONS = 20;
+
+    private GetAllPutAllBenchmark() {
+    }
+
+    public static void main(String[] input) {
+        int memberCount = 3;
+        int rounds = 3;
+        if (input != null) {
+            for (String arg : input) {
+                arg = arg.trim();
+                if (arg.startsWith("m")) {
+                    memberCount = Integer.parseInt(arg.substring(1));
+                } else if (arg.startsWith("r")) {
+                    rounds = Integer.parseInt(arg.substring(1));
+                }
+            }
+        }
+
+        for (boolean perMember : new boolean[]{false, true}) {
+            System.out.println("putAll per member: " + perMember);
+            HazelcastInstance[] instances = startCluster(memberCount, perMember);
+            try {
+                for (int round = 0; round < rounds; round++) {
+                    System.out.println("Round " + round);
+                    for (int keyCount : KEY_COUNTS) {
+                        run(instances[0], keyCount);
+                    }
+                }
+            } finally {
+                Hazelcast.shutdownAll();
+            }
+        }
+    }
+
+    private static HazelcastInstance[] startCluster(int memberCount, boolean perMember) {
+        Config config = new Config();
+        config.setProperty(GroupProperty.MAP_PUT_ALL_PER_MEMBER_ENABLED.getName(), String.valueOf(perMember));
+        JoinConfig join = config.getNetworkConfig().getJoin();
+        join.getMulticastConfig().setEnabled(false);
+        join.getTcpIpConfig().setEnabled(true).addMember("127.0.0.1");
+        HazelcastInstance[] instances = new HazelcastInstance[memberCount];
+        for (int i = 0; i < memberCount; i++) {
+            instances[i] = Hazelcast.newHazelcastInstance(config);
+        }
+        return instances;
+    }
+
+    private static void run(HazelcastInstance instance, int keyCount) {
+        IMap<Integer, Integer> map = instance.getMap(MAP_NAME);
+        Map<Integer, Integer> entries = new HashMap<Integer, Integer>(keyCount);
+        for (int i = 0; i < keyCount; i++) {
+            entries.put(i, i);
+        }
+        Set<Integer> keys = new HashSet<Integer>(entries.keySet());
+        int iterations = Math.max(MIN_ITERATIONS, OPERATIONS_PER_RUN / keyCount);
+
+        LongGauge responses = getResponseCount(instance);
+        long responsesBefore = responses.read();
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            map.putAll(entries);
+        }
+        print("putAll", keyCount, iterations, System.nanoTime() - start, responses.read() - responsesBefore);
+
+        responsesBefore = responses.read();
+        start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            map.getAll(keys);
+        }
+        print("getAll", keyCount, iterations, System.nanoTime() - start, responses.read() - responsesBefore);
+    }
+
+    private static LongGauge getResponseCount(HazelcastInstance instance) {
+        NodeEngineImpl nodeEngine = getNodeEngineImpl(instance);
+        return nodeEngine.getMetricsRegistry().newLongGauge("operation.response.normal.count");
+    }
+
+    private static void print(String operation, int keyCount, int iterations, long nanos, long responses) {
+        System.out.println(operation + " keys=" + keyCount
+                + ", avg latency(us)=" + nanos / iterations / 1000
+                + ", round-trips/call=" + (double) responses / iterations);
+    }
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.proxy;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.InMemoryFormat;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.instance.GroupProperty;
+import com.hazelcast.internal.metrics.LongGauge;
+import com.hazelcast.nio.Address;
+import com.hazelcast.test.AssertTask;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.TestHazelcastInstanceFactory;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.hazelcast.test.TestPartitionUtils.getOngoingReplicaSyncRequests;
+import static com.hazelcast.test.TestPartitionUtils.getReplicaAddresses;
+import static com.hazelcast.test.TestPartitionUtils.getReplicaVersions;
+import static com.hazelcast.test.TestPartitionUtils.getScheduledReplicaSyncRequests;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class GetAllPutAllPerMemberTest extends HazelcastTestSupport {
+
+    private static final int MEMBER_COUNT = 3;
+    private static final int ENTRY_COUNT = 1000;
+
+    @Test
+    public void putAll_and_getAll_sendOneOperationPerMember() {
+        HazelcastInstance[] instances = createCluster(true);
+        IMap<Integer, Integer> map = instances[0].getMap(randomMapName());
+        LongGauge responses = getResponseCount(instances[0]);
+
+        long before = responses.read();
+        map.putAll(newEntries());
+        assertTrue("remote responses: " + (responses.read() - before), responses.read() - before <= MEMBER_COUNT - 1);
+
+        before = responses.read();
+        Map<Integer, Integer> result = map.getAll(newEntries().keySet());
+        assertTrue("remote responses: " + (responses.read() - before), responses.read() - before <= MEMBER_COUNT - 1);
+        assertEquals(newEntries(), result);
+    }
+
+    @Test
+    public void putAll_perPartition_whenPerMemberDisabled() {
+        HazelcastInstance[] instances = createCluster(false);
+        IMap<Integer, Integer> map = instances[0].getMap(randomMapName());
+        LongGauge responses = getResponseCount(instances[0]);
+
+        long before = responses.read();
+        map.putAll(newEntries());
+
+        assertTrue("remote responses: " + (responses.read() - before), responses.read() - before > MEMBER_COUNT);
+        assertEquals(newEntries(), map.getAll(newEntries().keySet()));
+    }
+
+    @Test
+    public void putAll_isVisibleOnAllMembers() {
+        HazelcastInstance[] instances = createCluster(true);
+        String mapName = randomMapName();
+        instances[0].getMap(mapName).putAll(newEntries());
+
+        for (HazelcastInstance instance : instances) {
+            IMap<Integer, Integer> map = instance.getMap(mapName);
+            assertEquals(ENTRY_COUNT, map.size());
+            assertEquals(newEntries(), map.getAll(newEntries().keySet()));
+        }
+        assertEquals(ENTRY_COUNT, instances[0].getMap(mapName).getLocalMapStats().getPutOperationCount());
+    }
+
+    @Test
+    public void putAll_returnsAfterSyncBackups() {
+        String mapName = randomMapName();
+        Config config = newConfig(true);
+        // the backups deserialize the values as well, so they complete well after the puts on the owners
+        config.getMapConfig(mapName).setInMemoryFormat(InMemoryFormat.OBJECT);
+        final HazelcastInstance[] instances = createCluster(config);
+        // a replica sync would replace the backups while the test counts them
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() throws Exception {
+                for (HazelcastInstance instance : instances) {
+                    assertEquals(0, getOngoingReplicaSyncRequests(instance).size());
+                    assertEquals(0, getScheduledReplicaSyncRequests(instance).size());
+                }
+            }
+        });
+        Map<Integer, SlowValue> entries = new HashMap<Integer, SlowValue>();
+        for (int i = 0; i < 100; i++) {
+            entries.put(i, new SlowValue());
+        }
+
+        instances[0].getMap(mapName).putAll(entries);
+
+        long backupEntryCount = 0;
+        for (HazelcastInstance instance : instances) {
+            backupEntryCount += instance.getMap(mapName).getLocalMapStats().getBackupEntryCount();
+        }
+        assertEquals(entries.size(), backupEntryCount);
+    }
+
+    @Test
+    public void putAll_incrementsReplicaVersions_ofSyncAndAsyncBackups() throws Exception {
+        String mapName = randomMapName();
+        Config config = newConfig(true);
+        config.getMapConfig(mapName).setBackupCount(1).setAsyncBackupCount(1);
+        final HazelcastInstance[] instances = createCluster(config);
+        final Set<Integer> partitions = new HashSet<Integer>();
+        for (Integer key : newEntries().keySet()) {
+            partitions.add(instances[0].getPartitionService().getPartition(key).getPartitionId());
+        }
+
+        instances[0].getMap(mapName).putAll(newEntries());
+
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() throws Exception {
+                for (int partitionId : partitions) {
+                    List<Address> replicas = getReplicaAddresses(instances[0], partitionId);
+                    long[] ownerVersions = getReplicaVersions(getInstance(instances, replicas.get(0)), partitionId);
+                    for (int replicaIndex = 1; replicaIndex <= 2; replicaIndex++) {
+                        long ownerVersion = ownerVersions[replicaIndex - 1];
+                        long[] backupVersions = getReplicaVersions(getInstance(instances, replicas.get(replicaIndex)),
+                                partitionId);
+                        assertTrue("partition " + partitionId, ownerVersion > 0);
+                        assertEquals("partition " + partitionId, ownerVersion, backupVersions[replicaIndex - 1]);
+                    }
+                }
+            }
+        });
+    }
+
+    private static HazelcastInstance getInstance(HazelcastInstance[] instances, Address address) {
+        for (HazelcastInstance instance : instances) {
+            if (getAddress(instance).equals(address)) {
+                return instance;
+            }
+        }
+        throw new IllegalArgumentException("No member at " + address);
+    }
+
+    private HazelcastInstance[] createCluster(boolean perMember) {
+        return createCluster(newConfig(perMember));
+    }
+
+    private static Config newConfig(boolean perMember) {
+        Config config = new Config();
+        config.setProperty(GroupProperty.MAP_PUT_ALL_PER_MEMBER_ENABLED.getName(), String.valueOf(perMember));
+        return config;
+    }
+
+    private HazelcastInstance[] createCluster(Config config) {
+        TestHazelcastInstanceFactory factory = createHazelcastInstanceFactory(MEMBER_COUNT);
+        HazelcastInstance[] instances = factory.newInstances(config);
+        warmUpPartitions(instances);
+        return instances;
+    }
+
+    private static LongGauge getResponseCount(HazelcastInstance instance) {
+        return getNodeEngineImpl(instance).getMetricsRegistry().newLongGauge("operation.response.normal.count");
+    }
+
+    private static Map<Integer, Integer> newEntries() {
+        Map<Integer, Integer> entries = new HashMap<Integer, Integer>(ENTRY_COUNT);
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            entries.put(i, i);
+        }
+        return entries;
+    }
+
+    private static class SlowValue implements Serializable {
+
+        private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+            in.defaultReadObject();
+            sleepMillis(20);
+        }
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.map.impl.query;
+
+import com.hazelcast.config.CacheDeserializedValues;
+import com.hazelcast.config.Config;
+import com.hazelcast.config.InMemoryFormat;
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.instance.GroupProperty;
+import com.hazelcast.map.impl.MapService;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.DataSerializable;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.impl.predicates.QueryOptimizerFactory;
+import com.hazelcast.query.impl.predicates.QueryPlan;
+import com.hazelcast.test.HazelcastSerialClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.hazelcast.query.Predicates.and;
+import static com.hazelcast.query.Predicates.equal;
+import static com.hazelcast.query.Predicates.greaterEqual;
+import static com.hazelcast.query.Predicates.lessThan;
+import static com.hazelcast.query.Predicates.or;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastSerialClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class IndexOnlyQueryTest extends HazelcastTestSupport {
+
+    private static final int ENTRY_COUNT = 2000;
+
+    @Test
+    public void keySet_whenIndexesCoverPredicate_thenValuesAreNotDeserialized() {
+        IMap<Integer, CountingValue> map = newMap(createHazelcastInstance(newConfig(QueryOptimizerFactory.Type.RULES)));
+        Predicate predicate = or(and(equal("age", 5), lessThan("salary", 100)), equal("age", 7));
+        CountingValue.DESERIALIZATIONS.set(0);
+
+        Set<Integer> keys = map.keySet(predicate);
+
+        assertEquals(0, CountingValue.DESERIALIZATIONS.get());
+        assertEquals(22, keys.size());
+    }
+
+    @Test
+    public void keySet_whenIndexesDoNotCoverPredicate_thenValuesAreEvaluated() {
+        IMap<Integer, CountingValue> map = newMap(createHazelcastInstance(newConfig(QueryOptimizerFactory.Type.RULES)));
+        Predicate predicate = and(equal("age", 5), equal("active", true));
+        CountingValue.DESERIALIZATIONS.set(0);
+
+        Set<Integer> keys = map.keySet(predicate);
+
+        assertTrue(CountingValue.DESERIALIZATIONS.get() >= ENTRY_COUNT / 100);
+        assertEquals(10, keys.size());
+    }
+
+    @Test
+    public void keySet_whenCostBasedOptimizer_andValuesAreSerialized_thenSelectiveRangeIsIntersected() {
+        HazelcastInstance instance = createHazelcastInstance(newConfig(QueryOptimizerFactory.Type.COST));
+        IMap<Integer, CountingValue> map = newMap(instance);
+        Predicate predicate = and(equal("age", 5), lessThan("salary", 100));
+        CountingValue.DESERIALIZATIONS.set(0);
+
+        Set<Integer> keys = map.keySet(predicate);
+
+        assertEquals(0, CountingValue.DESERIALIZATIONS.get());
+        assertEquals(2, keys.size());
+        QueryPlan plan = getQueryEngine(instance, map.getName()).explainLocalQuery(map.getName(), predicate);
+        assertEquals(QueryPlan.Type.INDEX_INTERSECTION, plan.getType());
+        assertTrue(plan.isIndexOnly());
+    }
+
+    @Test
+    public void keySet_whenCostBasedOptimizer_andRangeIsNotSelective_thenCandidatesAreFiltered() {
+        HazelcastInstance instance = createHazelcastInstance(newConfig(QueryOptimizerFactory.Type.COST));
+        IMap<Integer, CountingValue> map = newMap(instance);
+        Predicate predicate = and(equal("age", 5), greaterEqual("salary", 10));
+
+        Set<Integer> keys = map.keySet(predicate);
+
+        assertEquals(18, keys.size());
+        QueryPlan plan = getQueryEngine(instance, map.getName()).explainLocalQuery(map.getName(), predicate);
+        assertEquals(QueryPlan.Type.INDEX_LOOKUP, plan.getType());
+        assertEquals(QueryPlan.Access.FILTER, plan.getSteps().get(1).getAccess());
+        assertFalse(plan.isIndexOnly());
+    }
+
+    private static Config newConfig(QueryOptimizerFactory.Type optimizerType) {
+        Config config = new Config();
+        config.setProperty(GroupProperty.QUERY_OPTIMIZER_TYPE.getName(), optimizerType.toString());
+        MapConfig mapConfig = config.getMapConfig("serialized*");
+        mapConfig.setInMemoryFormat(InMemoryFormat.BINARY);
+        mapConfig.setCacheDeserializedValues(CacheDeserializedValues.NEVER);
+        return config;
+    }
+
+    private static IMap<Integer, CountingValue> newMap(HazelcastInstance instance) {
+        IMap<Integer, CountingValue> map = instance.getMap("serialized" + randomMapName());
+        map.addIndex("age", false);
+        map.addIndex("salary", true);
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            map.put(i, newValue(i));
+        }
+        return map;
+    }
+
+    private static CountingValue newValue(int i) {
+        return new CountingValue(i % 100, i % 1000, i % 200 < 100);
+    }
+
+    private static MapQueryEngine getQueryEngine(HazelcastInstance instance, String mapName) {
+        MapService mapService = getNodeEngineImpl(instance).getService(MapService.SERVICE_NAME);
+        return mapService.getMapServiceContext().getMapQueryEngine(mapName);
+    }
+
+    public static class CountingValue implements DataSerializable {
+
+        static final AtomicInteger DESERIALIZATIONS = new AtomicInteger();
+
+        private int age;
+        private int salary;
+        private boolean active;
+
+        public CountingValue() {
+        }
+
+        CountingValue(int age, int salary, boolean active) {
+            this.age = age;
+            this.salary = salary;
+            this.active = active;
+        }
+
+        public int getAge() {
+            return age;
+        }
+
+        public int getSalary() {
+            return salary;
+        }
+
+        public boolean isActive() {
+            return active;
+        }
+
+        @Override
+        public void writeData(ObjectDataOutput out) throws IOException {
+            out.writeInt(age);
+            out.writeInt(salary);
+            out.writeBoolean(active);
+        }
+
+        @Override
+        public void readData(ObjectDataInput in) throws IOException {
+            DESERIALIZATIONS.incrementAndGet();
+            age = in.readInt();
+            salary = in.readInt();
+            active = in.readBoolean();
+        }
+    }
+}
@@ -18,6 +18,7 @@ package com.hazelcast.map.impl.record;
 
 import com.hazelcast.config.MapConfig;
 import com.hazelcast.config.CacheDeserializedValues;
+import com.hazelcast.config.EvictionPolicy;
 import com.hazelcast.core.PartitioningStrategy;
 import com.hazelcast.internal.serialization.SerializationService;
 import com.hazelcast.internal.serialization.impl.HeapData;
@@ -31,6 +32,7 @@ import org.junit.Test;
 import org.junit.experimental.categories.Category;
 import org.junit.runner.RunWith;
 
+import static org.junit.Assert.assertEquals;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -67,7 +69,8 @@ public class DataRecordFactoryTest extends HazelcastTestSupport {
 
     @Test
     public void givenStatisticsDisabledAndCacheDeserializedValuesIsNEVER_thenCreateDataRecordWithStats() {
-        MapConfig mapConfig = new MapConfig().setStatisticsEnabled(false).setCacheDeserializedValues(CacheDeserializedValues.NEVER);
+        MapConfig mapConfig = new MapConfig().setStatisticsEnabled(false).setCacheDeserializedValues(CacheDeserializedValues.NEVER)
+                .setEvictionPolicy(EvictionPolicy.LRU);
         DataRecordFactory dataRecordFactory = new DataRecordFactory(mapConfig, mockSerializationService, mockPartitioningStrategy);
 
         Record<Data> dataRecord = dataRecordFactory.newRecord(object);
@@ -87,11 +90,55 @@ public class DataRecordFactoryTest extends HazelcastTestSupport {
 
     @Test
     public void givenStatisticsDisabledAndCacheDeserializedValuesIsDefault_thenCreateCachedDataRecord() {
-        MapConfig mapConfig = new MapConfig().setStatisticsEnabled(false);
+        MapConfig mapConfig = new MapConfig().setStatisticsEnabled(false).setEvictionPolicy(EvictionPolicy.LRU);
         DataRecordFactory dataRecordFactory = new DataRecordFactory(mapConfig, mockSerializationService, mockPartitioningStrategy);
 
         Record<Data> dataRecord = dataRecordFactory.newRecord(object);
 
         assertInstanceOf(CachedDataRecord.class, dataRecord);
     }
+
+    @Test
+    public void givenStatisticsDisabledAndMaxIdleSet_thenCreateCachedDataRecord() {
+        MapConfig mapConfig = new MapConfig().setStatisticsEnabled(false).setMaxIdleSeconds(10);
+        DataRecordFactory dataRecordFactory = new DataRecordFactory(mapConfig, mockSerializationService, mockPartitioningStrategy);
+
+        Record<Data> dataRecord = dataRecordFactory.newRecord(object);
+
+        assertInstanceOf(CachedDataRecord.class, dataRecord);
+    }
+
+    @Test
+    public void givenStatisticsDisabledAndNoEvictionNorMaxIdle_thenCreateCompactCachedDataRecord() {
+        MapConfig mapConfig = new MapConfig().setStatisticsEnabled(false).setTimeToLiveSeconds(10)
+                .setEvictionPolicy(EvictionPolicy.RANDOM);
+        DataRecordFactory dataRecordFactory = new DataRecordFactory(mapConfig, mockSerializationService, mockPartitioningStrategy);
+
+        Record<Data> dataRecord = dataRecordFactory.newRecord(object);
+
+        assertInstanceOf(CompactCachedDataRecord.class, dataRecord);
+    }
+
+    @Test
+    public void givenStatisticsDisabledAndNoEvictionNorMaxIdleAndCacheDeserializedValuesIsNEVER_thenCreateCompactDataRecord() {
+        MapConfig mapConfig = new MapConfig().setStatisticsEnabled(false).setCacheDeserializedValues(CacheDeserializedValues.NEVER);
+        DataRecordFactory dataRecordFactory = new DataRecordFactory(mapConfig, mockSerializationService, mockPartitioningStrategy);
+
+        Record<Data> dataRecord = dataRecordFactory.newRecord(object);
+
+        assertInstanceOf(CompactDataRecord.class, dataRecord);
+    }
+
+    @Test
+    public void givenCompactRecord_thenCostExcludesUntrackedMetadata() {
+        MapConfig compactConfig = new MapConfig().setStatisticsEnabled(false);
+        MapConfig fullConfig = new MapConfig().setStatisticsEnabled(false).setEvictionPolicy(EvictionPolicy.LFU);
+
+        Record<Data> compactRecord = new DataRecordFactory(compactConfig, mockSerializationService, mockPartitioningStrategy)
+                .newRecord(object);
+        Record<Data> fullRecord = new DataRecordFactory(fullConfig, mockSerializationService, mockPartitioningStrategy)
+                .newRecord(object);
+
+        assertEquals(2 * (Long.SIZE / Byte.SIZE), fullRecord.getCost() - compactRecord.getCost());
+    }
 }
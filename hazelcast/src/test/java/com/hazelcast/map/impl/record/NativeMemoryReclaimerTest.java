@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.map.impl.record;
+
+import com.hazelcast.internal.serialization.impl.HeapData;
+import com.hazelcast.internal.serialization.impl.NativeMemoryData;
+import com.hazelcast.memory.MemoryStats;
+import com.hazelcast.memory.StandardMemoryManager;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class NativeMemoryReclaimerTest extends HazelcastTestSupport {
+
+    private final StandardMemoryManager memoryManager = new StandardMemoryManager(1 << 20);
+    private final MemoryStats memoryStats = memoryManager.getMemoryStats();
+    private final NativeMemoryReclaimer reclaimer = new NativeMemoryReclaimer(memoryManager);
+    private final NativeMemoryReclaimer.Retired retired = reclaimer.newRetired();
+
+    @After
+    public void tearDown() {
+        memoryManager.dispose();
+    }
+
+    @Test
+    public void retire_whenNoReaders_thenFreed() {
+        retired.retire(newBlock());
+        retired.retire(newBlock());
+
+        assertEquals(0, retired.size());
+        assertEquals(0, memoryStats.getUsedNativeMemory());
+    }
+
+    @Test
+    public void retire_whenReaderEnteredBefore_thenFreedAfterReaderExits() {
+        NativeMemoryData block = newBlock();
+        int slot = reclaimer.enterRead();
+
+        retired.retire(block);
+        retired.retire(newBlock());
+
+        assertEquals(2, retired.size());
+        reclaimer.exitRead(slot);
+        retired.reclaim();
+        assertEquals(0, retired.size());
+        assertEquals(0, memoryStats.getUsedNativeMemory());
+    }
+
+    @Test
+    public void retire_whenReaderEnteredAfter_thenFreed() {
+        NativeMemoryData block = newBlock();
+        retired.retire(block);
+
+        int slot = reclaimer.enterRead();
+        retired.retire(newBlock());
+
+        // the reader entered after the first block was retired, it can only block the second one
+        assertEquals(1, retired.size());
+        reclaimer.exitRead(slot);
+    }
+
+    @Test(timeout = 30000)
+    public void reclaimAll_waitsForReaders() throws Exception {
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch exit = new CountDownLatch(1);
+        Thread reader = new Thread() {
+            @Override
+            public void run() {
+                int slot = reclaimer.enterRead();
+                entered.countDown();
+                try {
+                    exit.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                reclaimer.exitRead(slot);
+            }
+        };
+        reader.start();
+        entered.await();
+        retired.retire(newBlock());
+        assertEquals(1, retired.size());
+
+        exit.countDown();
+        retired.reclaimAll();
+
+        assertEquals(0, retired.size());
+        assertEquals(0, memoryStats.getUsedNativeMemory());
+        reader.join();
+    }
+
+    private NativeMemoryData newBlock() {
+        return NativeMemoryData.copyOf(new HeapData(new byte[64]), memoryManager);
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.map.impl.recordstore;
+
+import com.hazelcast.core.HazelcastException;
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.internal.serialization.impl.CompressedData;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.nio.IOUtil;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class MappedSegmentStoreTest extends HazelcastTestSupport {
+
+    private static final int SEGMENT_SIZE = 64;
+
+    private File dir;
+    private SerializationService serializationService;
+    private MappedSegmentStore store;
+
+    @Before
+    public void setUp() {
+        dir = new File(System.getProperty("java.io.tmpdir"), randomName());
+        serializationService = new DefaultSerializationServiceBuilder().build();
+        store = new MappedSegmentStore(dir, SEGMENT_SIZE);
+    }
+
+    @After
+    public void tearDown() {
+        store.destroy();
+        IOUtil.delete(dir);
+    }
+
+    @Test
+    public void testRead() {
+        Data value = serializationService.toData("value");
+        SpilledData spilled = store.write(value);
+
+        assertEquals(value, spilled);
+        assertEquals("value", serializationService.toObject(spilled));
+    }
+
+    @Test
+    public void testRelease_closesSealedSegment() {
+        SpilledData first = store.write(serializationService.toData(randomString()));
+        File firstSegment = new File(dir, "0.segment");
+        assertTrue(firstSegment.exists());
+
+        // fills the first segment, so the second value starts a new one
+        store.write(serializationService.toData(randomString()));
+        store.release(first);
+
+        assertFalse(firstSegment.exists());
+        assertTrue(new File(dir, "1.segment").exists());
+    }
+
+    @Test
+    public void testRead_afterSegmentClosed_usesDetachedPayload() {
+        Data value = serializationService.toData(randomString());
+        SpilledData first = store.write(value);
+        store.write(serializationService.toData(randomString()));
+        store.release(first);
+
+        assertEquals(value, first);
+        assertEquals(serializationService.toObject(value), serializationService.toObject(first));
+    }
+
+    @Test
+    public void testWrite_keepsCompressedForm() {
+        String object = randomString() + new String(new char[1000]);
+        Data value = CompressedData.compress(serializationService.toData(object), null);
+        assertTrue(value instanceof CompressedData);
+
+        SpilledData spilled = store.write(value);
+        assertEquals(value, spilled);
+        assertEquals(object, serializationService.toObject(spilled));
+
+        Data heapData = spilled.toHeapData();
+        assertTrue(heapData instanceof CompressedData);
+        assertEquals(((CompressedData) value).compressedSize(), ((CompressedData) heapData).compressedSize());
+        assertEquals(value, heapData);
+    }
+
+    @Test
+    public void testRead_afterRelease_ofCompressedValue() {
+        Data value = CompressedData.compress(serializationService.toData(new String(new char[1000])), null);
+        SpilledData first = store.write(value);
+        store.write(serializationService.toData(randomString()));
+        store.release(first);
+
+        assertEquals(value, first);
+        assertTrue(first.toHeapData() instanceof CompressedData);
+    }
+
+    @Test(expected = HazelcastException.class)
+    public void testDetach_afterDestroy_leavesValueUndetached() {
+        SpilledData spilled = store.write(serializationService.toData("value"));
+        store.destroy();
+        spilled.detach();
+
+        spilled.toByteArray();
+    }
+
+    @Test(expected = HazelcastException.class)
+    public void testRead_afterDestroy_withoutRelease() {
+        SpilledData spilled = store.write(serializationService.toData("value"));
+        store.destroy();
+
+        spilled.toByteArray();
+    }
+}
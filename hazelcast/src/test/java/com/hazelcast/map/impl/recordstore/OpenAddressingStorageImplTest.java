@@ -0,0 +1,240 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.map.impl.recordstore;
+
+import com.hazelcast.config.InMemoryFormat;
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.map.impl.record.DataRecordFactory;
+import com.hazelcast.map.impl.record.Record;
+import com.hazelcast.map.impl.record.RecordFactory;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.partition.strategy.DefaultPartitioningStrategy;
+import com.hazelcast.test.HazelcastSerialClassRunner;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastSerialClassRunner.class)
+@Category(QuickTest.class)
+public class OpenAddressingStorageImplTest {
+
+    private SerializationService serializationService;
+    private RecordFactory recordFactory;
+    private OpenAddressingStorageImpl<Record> storage;
+
+    @Before
+    public void setUp() {
+        serializationService = new DefaultSerializationServiceBuilder().build();
+        recordFactory = new DataRecordFactory(new MapConfig(), serializationService, new DefaultPartitioningStrategy());
+        storage = new OpenAddressingStorageImpl<Record>(recordFactory, InMemoryFormat.BINARY);
+    }
+
+    @Test
+    public void testPutAndGet() {
+        Record record = put(1);
+
+        assertSame(record, storage.get(toData(1)));
+        assertTrue(storage.containsKey(toData(1)));
+        assertNull(storage.get(toData(2)));
+        assertEquals(1, storage.size());
+    }
+
+    @Test
+    public void testPut_replacesExistingRecord() {
+        put(1);
+        Record record = put(1);
+
+        assertSame(record, storage.get(toData(1)));
+        assertEquals(1, storage.size());
+    }
+
+    @Test
+    public void testRemoveRecord() {
+        Record record = put(1);
+        put(2);
+
+        storage.removeRecord(record);
+
+        assertNull(storage.get(toData(1)));
+        assertEquals(1, storage.size());
+        assertFalse(storage.containsKey(toData(1)));
+        assertTrue(storage.containsKey(toData(2)));
+    }
+
+    @Test
+    public void testGrowsBeyondInitialCapacity() {
+        int count = OpenAddressingStorageImpl.DEFAULT_INITIAL_CAPACITY * 10;
+        for (int i = 0; i < count; i++) {
+            put(i);
+        }
+
+        assertEquals(count, storage.size());
+        assertTrue(storage.capacity() * OpenAddressingStorageImpl.LOAD_FACTOR >= count);
+        for (int i = 0; i < count; i++) {
+            assertEquals(toData(i), storage.get(toData(i)).getKey());
+        }
+    }
+
+    @Test
+    public void testPutRemoveCycles_reuseCapacity() {
+        for (int i = 0; i < OpenAddressingStorageImpl.DEFAULT_INITIAL_CAPACITY * 100; i++) {
+            Record record = put(i);
+            storage.removeRecord(record);
+        }
+
+        assertEquals(0, storage.size());
+        assertEquals(OpenAddressingStorageImpl.DEFAULT_INITIAL_CAPACITY, storage.capacity());
+    }
+
+    @Test
+    public void testValues_iteratesAllRecords() {
+        Set<Data> keys = new HashSet<Data>();
+        for (int i = 0; i < 1000; i++) {
+            keys.add(put(i).getKey());
+        }
+
+        Set<Data> iterated = new HashSet<Data>();
+        for (Record record : storage.values()) {
+            iterated.add(record.getKey());
+        }
+
+        assertEquals(keys, iterated);
+        assertEquals(1000, storage.values().size());
+    }
+
+    @Test
+    public void testValues_removeWhileIterating() {
+        for (int i = 0; i < 1000; i++) {
+            put(i);
+        }
+
+        int iterated = 0;
+        Iterator<Record> iterator = storage.values().iterator();
+        while (iterator.hasNext()) {
+            Record record = iterator.next();
+            if (iterated++ % 2 == 0) {
+                storage.removeRecord(record);
+            }
+            iterator.remove();
+        }
+
+        assertEquals(1000, iterated);
+        assertEquals(0, storage.size());
+        assertFalse(storage.values().iterator().hasNext());
+    }
+
+    @Test
+    public void testValues_iteratorSeesExistingRecordsWhileResizing() {
+        Set<Data> keys = new HashSet<Data>();
+        for (int i = 0; i < 100; i++) {
+            keys.add(put(i).getKey());
+        }
+
+        Set<Data> iterated = new HashSet<Data>();
+        int nextKey = 100;
+        for (Record record : storage.values()) {
+            iterated.add(record.getKey());
+            for (int i = 0; i < 10; i++) {
+                put(nextKey++);
+            }
+        }
+
+        assertTrue(iterated.containsAll(keys));
+        assertEquals(nextKey, storage.size());
+    }
+
+    @Test
+    public void testGetRandomSamples() {
+        for (int i = 0; i < 1000; i++) {
+            put(i);
+        }
+
+        Set<Record> samples = new HashSet<Record>();
+        for (Record record : storage.getRandomSamples(15)) {
+            assertSame(record, storage.get(record.getKey()));
+            samples.add(record);
+        }
+
+        assertEquals(15, samples.size());
+    }
+
+    @Test
+    public void testGetRandomSamples_fewerRecordsThanSampleCount() {
+        Record record = put(1);
+        storage.removeRecord(put(2));
+
+        Iterator<Record> samples = storage.getRandomSamples(15).iterator();
+
+        assertSame(record, samples.next());
+        assertFalse(samples.hasNext());
+    }
+
+    @Test
+    public void testClear() {
+        for (int i = 0; i < 1000; i++) {
+            put(i);
+        }
+
+        storage.clear();
+
+        assertEquals(0, storage.size());
+        assertTrue(storage.isEmpty());
+        assertNull(storage.get(toData(1)));
+        assertEquals(0, storage.getSizeEstimator().getSize());
+    }
+
+    @Test
+    public void testSizeEstimator_backToZeroAfterRemovals() {
+        Record[] records = new Record[100];
+        for (int i = 0; i < records.length; i++) {
+            records[i] = put(i);
+        }
+        storage.updateRecordValue(records[0].getKey(), records[0], "a longer value than the original one");
+        assertTrue(storage.getSizeEstimator().getSize() > 0);
+
+        for (Record record : records) {
+            storage.removeRecord(record);
+        }
+
+        assertEquals(0, storage.getSizeEstimator().getSize());
+    }
+
+    private Record put(int key) {
+        Record record = recordFactory.newRecord(key);
+        storage.put(toData(key), record);
+        return record;
+    }
+
+    private Data toData(int key) {
+        return serializationService.toData(key);
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.map.impl.recordstore;
+
+import com.hazelcast.config.InMemoryFormat;
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.map.impl.record.DataRecordFactory;
+import com.hazelcast.map.impl.record.Record;
+import com.hazelcast.map.impl.record.RecordFactory;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.partition.strategy.DefaultPartitioningStrategy;
+
+import java.util.Random;
+
+/**
+ * Compares {@link StorageImpl} with {@link OpenAddressingStorageImpl}: the heap used per entry, extrapolated to
+ * entries per GB, and the single-threaded get/put throughput as seen by a partition thread.
+ * <p/>
+ * Run with a fixed heap, for example {@code -Xms2g -Xmx2g}. Arguments: {@code c<entryCount> r<rounds>}.
+ */
+public final class StorageBenchmark {
+
+    private static final long GB = 1L << 30;
+
+    private final SerializationService serializationService = new DefaultSerializationServiceBuilder().build();
+    private final RecordFactory recordFactory
+            = new DataRecordFactory(new MapConfig(), serializationService, new DefaultPartitioningStrategy());
+
+    private final int entryCount;
+    private final int rounds;
+    private final Data[] keys;
+
+    private StorageBenchmark(int entryCount, int rounds) {
+        this.entryCount = entryCount;
+        this.rounds = rounds;
+        this.keys = new Data[entryCount];
+        for (int i = 0; i < entryCount; i++) {
+            keys[i] = serializationService.toData(i);
+        }
+    }
+
+    public static void main(String[] input) {
+        int entryCount = 1000 * 1000;
+        int rounds = 5;
+        if (input != null) {
+            for (String arg : input) {
+                arg = arg.trim();
+                if (arg.startsWith("c")) {
+                    entryCount = Integer.parseInt(arg.substring(1));
+                } else if (arg.startsWith("r")) {
+                    rounds = Integer.parseInt(arg.substring(1));
+                }
+            }
+        }
+
+        StorageBenchmark benchmark = new StorageBenchmark(entryCount, rounds);
+        for (int round = 0; round < rounds; round++) {
+            System.out.println("Round " + round);
+            benchmark.run("StorageImpl", new StorageImpl<Record>(benchmark.recordFactory, InMemoryFormat.BINARY));
+            benchmark.run("OpenAddressingStorageImpl",
+                    new OpenAddressingStorageImpl<Record>(benchmark.recordFactory, InMemoryFormat.BINARY));
+        }
+    }
+
+    private void run(String name, Storage<Data, Record> storage) {
+        Record[] records = newRecords();
+        long usedBefore = usedHeap();
+        long start = System.nanoTime();
+        for (int i = 0; i < entryCount; i++) {
+            storage.put(keys[i], records[i]);
+        }
+        long putNanos = System.nanoTime() - start;
+        long storageBytes = usedHeap() - usedBefore;
+
+        Random random = new Random(0);
+        int gets = entryCount * 10;
+        int hits = 0;
+        start = System.nanoTime();
+        for (int i = 0; i < gets; i++) {
+            if (storage.get(keys[random.nextInt(entryCount)]) != null) {
+                hits++;
+            }
+        }
+        long getNanos = System.nanoTime() - start;
+
+        long bytesPerEntry = storageBytes / entryCount;
+        System.out.println(name + ": storage bytes/entry=" + bytesPerEntry
+                + ", entries/GB=" + (bytesPerEntry > 0 ? GB / bytesPerEntry : 0)
+                + ", puts/s=" + perSecond(entryCount, putNanos)
+                + ", gets/s=" + perSecond(gets, getNanos)
+                + ", hits=" + hits);
+        storage.clear();
+    }
+
+    // keys and records are allocated up front, so only the storage structure itself is measured.
+    private Record[] newRecords() {
+        Record[] records = new Record[entryCount];
+        for (int i = 0; i < entryCount; i++) {
+            records[i] = recordFactory.newRecord(keys[i]);
+        }
+        return records;
+    }
+
+    private static long perSecond(long operations, long nanos) {
+        return nanos == 0 ? 0 : operations * 1000L * 1000L * 1000L / nanos;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
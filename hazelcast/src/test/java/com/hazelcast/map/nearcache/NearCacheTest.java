@@ -752,6 +752,26 @@ public class NearCacheTest extends HazelcastTestSupport {
         });
     }
 
+    @Test
+    public void testNearCacheInvalidation_WithTinyLFU_whenMaxSizeExceeded() throws Exception {
+        int mapSize = 2000;
+        final int maxSize = 1000;
+        final IMap map = getMapConfiguredWithMaxSizeAndPolicy("TINY_LFU", maxSize);
+
+        populateMap(map, mapSize);
+        pullEntriesToNearCache(map, mapSize);
+
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() throws Exception {
+                NearCacheStats stats = map.getLocalMapStats().getNearCacheStats();
+                long ownedEntryCount = stats.getOwnedEntryCount();
+                triggerNearCacheEviction(map);
+                assertTrue("owned entry count " + ownedEntryCount, maxSize > ownedEntryCount);
+            }
+        });
+    }
+
     @Test
     public void testNearCacheInvalidation_WithLRU_whenMaxSizeExceeded() throws Exception {
         int mapSize = 2000;
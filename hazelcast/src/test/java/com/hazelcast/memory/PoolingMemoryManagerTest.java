@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.memory;
+
+import com.hazelcast.internal.serialization.impl.HeapData;
+import com.hazelcast.internal.serialization.impl.NativeMemoryData;
+import com.hazelcast.test.HazelcastSerialClassRunner;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastSerialClassRunner.class)
+@Category(QuickTest.class)
+public class PoolingMemoryManagerTest {
+
+    private static final int MIN_BLOCK_SIZE = 16;
+    private static final int PAGE_SIZE = 1 << 12;
+    private static final long CAPACITY = 4 * PAGE_SIZE;
+
+    private PoolingMemoryManager memoryManager;
+
+    @Before
+    public void setUp() {
+        memoryManager = new PoolingMemoryManager(CAPACITY, MIN_BLOCK_SIZE, PAGE_SIZE);
+    }
+
+    @After
+    public void tearDown() {
+        memoryManager.dispose();
+    }
+
+    @Test
+    public void testAllocate_roundsUpToSizeClass() {
+        memoryManager.allocate(17);
+
+        MemoryStats stats = memoryManager.getMemoryStats();
+        assertEquals(32, stats.getUsedNativeMemory());
+        assertEquals(PAGE_SIZE, stats.getCommittedNativeMemory());
+        assertEquals(32, memoryManager.getAllocatedSize(17));
+        assertEquals(MIN_BLOCK_SIZE, memoryManager.getAllocatedSize(1));
+    }
+
+    @Test
+    public void testFree_blockIsReused() {
+        long address = memoryManager.allocate(100);
+        memoryManager.free(address, 100);
+
+        assertEquals(0, memoryManager.getMemoryStats().getUsedNativeMemory());
+        assertEquals(address, memoryManager.allocate(120));
+        assertEquals(PAGE_SIZE, memoryManager.getMemoryStats().getCommittedNativeMemory());
+    }
+
+    @Test
+    public void testAllocate_differentSizeClassesUseDifferentPages() {
+        memoryManager.allocate(16);
+        memoryManager.allocate(64);
+
+        assertEquals(2 * PAGE_SIZE, memoryManager.getMemoryStats().getCommittedNativeMemory());
+    }
+
+    @Test
+    public void testAllocate_largeBlock() {
+        long size = PAGE_SIZE + 1;
+        long address = memoryManager.allocate(size);
+
+        assertEquals(size, memoryManager.getMemoryStats().getUsedNativeMemory());
+        memoryManager.free(address, size);
+        assertEquals(0, memoryManager.getMemoryStats().getUsedNativeMemory());
+        assertEquals(0, memoryManager.getMemoryStats().getCommittedNativeMemory());
+    }
+
+    @Test(expected = NativeOutOfMemoryError.class)
+    public void testAllocate_whenLimitExceeded() {
+        for (int i = 0; i <= CAPACITY / PAGE_SIZE; i++) {
+            memoryManager.allocate(PAGE_SIZE);
+        }
+    }
+
+    @Test
+    public void testAllocate_afterLimitExceeded_freedMemoryIsReusable() {
+        long address = memoryManager.allocate(CAPACITY);
+        try {
+            memoryManager.allocate(1);
+        } catch (NativeOutOfMemoryError expected) {
+            memoryManager.free(address, CAPACITY);
+        }
+        assertTrue(memoryManager.allocate(1) != MemoryAllocator.NULL_ADDRESS);
+    }
+
+    @Test
+    public void testReallocate_keepsContent() {
+        HeapData heapData = newHeapData(24);
+        NativeMemoryData nativeData = NativeMemoryData.copyOf(heapData, memoryManager);
+
+        long address = memoryManager.reallocate(nativeData.address(), nativeData.totalSize(), 200);
+        NativeMemoryData moved = new NativeMemoryData(address, nativeData.totalSize());
+
+        assertNotEquals(nativeData.address(), address);
+        assertArrayEquals(heapData.toByteArray(), moved.toByteArray());
+    }
+
+    @Test
+    public void testNativeMemoryData_compatibleWithHeapData() {
+        HeapData heapData = newHeapData(40);
+        NativeMemoryData nativeData = NativeMemoryData.copyOf(heapData, memoryManager);
+
+        assertEquals(heapData.hashCode(), nativeData.hashCode());
+        assertEquals(heapData.hash64(), nativeData.hash64());
+        assertEquals(heapData.getType(), nativeData.getType());
+        assertEquals(heapData.getPartitionHash(), nativeData.getPartitionHash());
+        assertEquals(heapData, nativeData);
+        assertEquals(nativeData, heapData);
+        assertEquals(heapData, nativeData.toHeapData());
+        assertNotEquals(newHeapData(41), nativeData);
+    }
+
+    @Test
+    public void testDispose_resetsStats() {
+        memoryManager.allocate(PAGE_SIZE + 1);
+        memoryManager.allocate(MIN_BLOCK_SIZE);
+
+        memoryManager.dispose();
+
+        assertEquals(0, memoryManager.getMemoryStats().getUsedNativeMemory());
+        assertEquals(0, memoryManager.getMemoryStats().getCommittedNativeMemory());
+    }
+
+    @Test(timeout = 60000)
+    public void testDispose_doesNotDeadlockWithAllocatingThread() throws Exception {
+        final PoolingMemoryManager manager = new PoolingMemoryManager(1L << 30, MIN_BLOCK_SIZE, PAGE_SIZE);
+        Thread allocator = new Thread() {
+            @Override
+            public void run() {
+                // every allocation of a whole page slices a new page
+                for (int i = 0; i < 20000; i++) {
+                    manager.allocate(PAGE_SIZE);
+                }
+            }
+        };
+        allocator.start();
+        while (allocator.isAlive()) {
+            manager.dispose();
+        }
+        allocator.join();
+        manager.dispose();
+    }
+
+    private static HeapData newHeapData(int size) {
+        byte[] bytes = new byte[size];
+        // partition hash (4 bytes) and type (4 bytes) in big endian
+        bytes[3] = 7;
+        bytes[7] = -2;
+        for (int i = HeapData.DATA_OFFSET; i < size; i++) {
+            bytes[i] = (byte) (i * 31);
+        }
+        return new HeapData(bytes);
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.partition.impl;
+
+import com.hazelcast.partition.InternalPartition;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class PartitionReplicaVersionsTest {
+
+    private final PartitionReplicaVersions replicaVersions = new PartitionReplicaVersions(0);
+
+    @Test
+    public void notDirty_whenBackupsAreInOrder() {
+        assertTrue(replicaVersions.update(new long[]{1, 0, 0, 0, 0, 0}, 1));
+        assertTrue(replicaVersions.update(new long[]{2, 0, 0, 0, 0, 0}, 1));
+
+        assertFalse(replicaVersions.isDirty(1));
+    }
+
+    @Test
+    public void dirty_whenBackupIsMissed() {
+        assertTrue(replicaVersions.update(new long[]{1, 0, 0, 0, 0, 0}, 1));
+        assertFalse(replicaVersions.update(new long[]{3, 0, 0, 0, 0, 0}, 1));
+
+        assertTrue(replicaVersions.isDirty(1));
+        assertFalse(replicaVersions.isDirty(0));
+    }
+
+    @Test
+    public void notDirty_afterReplicaSync() {
+        replicaVersions.update(new long[]{3, 0, 0, 0, 0, 0}, 1);
+
+        replicaVersions.clear();
+        replicaVersions.set(new long[]{3, 0, 0, 0, 0, 0}, 1);
+
+        assertFalse(replicaVersions.isDirty(1));
+    }
+
+    @Test
+    public void dirty_whenWaitingForSync() {
+        replicaVersions.set(new long[]{InternalPartition.SYNC_WAITING, 0, 0, 0, 0, 0}, 1);
+
+        assertTrue(replicaVersions.isDirty(1));
+    }
+}
@@ -0,0 +1,252 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.config.MapIndexConfig;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.Predicates;
+import com.hazelcast.query.SqlPredicate;
+import com.hazelcast.query.impl.getters.Extractors;
+import com.hazelcast.query.impl.predicates.RuleBasedQueryOptimizer;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.hamcrest.Matchers.instanceOf;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class BitmapIndexTest extends HazelcastTestSupport {
+
+    private static final String[] REGIONS = {"EU", "US", "APAC", null};
+
+    private SerializationService ss;
+    private Indexes indexes;
+    private Map<Data, QueryableEntry> entries;
+    private RuleBasedQueryOptimizer optimizer;
+
+    @Before
+    public void setUp() {
+        ss = new DefaultSerializationServiceBuilder().build();
+        indexes = new Indexes(ss, Extractors.empty());
+        indexes.addOrGetIndex("active", false, true);
+        indexes.addOrGetIndex("region", false, true);
+        indexes.addOrGetIndex("tier", false, false);
+        entries = new HashMap<Data, QueryableEntry>();
+        optimizer = new RuleBasedQueryOptimizer();
+        for (int i = 0; i < 1000; i++) {
+            put(i, new Customer(i % 3 == 0, REGIONS[i % REGIONS.length], i % 7));
+        }
+    }
+
+    @Test
+    public void equal() {
+        assertQuery(Predicates.equal("active", true));
+        assertQuery(Predicates.equal("region", "EU"));
+        assertQuery(Predicates.equal("region", null));
+        assertQuery(Predicates.equal("region", "NONE"));
+    }
+
+    @Test
+    public void and() {
+        assertQuery(new SqlPredicate("active = true and region = 'EU'"));
+        assertQuery(new SqlPredicate("active = false and region = 'US' and region = 'EU'"));
+    }
+
+    @Test
+    public void or_isEvaluatedBitwise() {
+        Predicate predicate = new SqlPredicate("active = true or region = 'US'");
+
+        Set<QueryableEntry> result = indexes.query(optimizer.optimize(predicate, indexes));
+
+        assertThat(result, instanceOf(BitmapResultSet.class));
+        assertQuery(predicate);
+    }
+
+    @Test
+    public void not() {
+        assertQuery(new SqlPredicate("not (region = 'EU')"));
+        assertQuery(new SqlPredicate("region != 'EU' and active = false"));
+        assertQuery(new SqlPredicate("not (active = true and region = 'US')"));
+    }
+
+    @Test
+    public void in() {
+        assertQuery(new SqlPredicate("region in ('EU', 'APAC') and active = true"));
+    }
+
+    @Test
+    public void range() {
+        assertQuery(new SqlPredicate("region > 'EU'"));
+        assertQuery(new SqlPredicate("region between 'APAC' and 'EU'"));
+    }
+
+    @Test
+    public void mixedWithRegularIndexAndUnindexedPredicates() {
+        assertQuery(new SqlPredicate("active = true and region = 'EU' and tier = 3"));
+        assertQuery(new SqlPredicate("(active = true or region = 'US') and tier > 4"));
+        assertQuery(Predicates.and(Predicates.equal("region", "APAC"), Predicates.like("name", "customer-1%")));
+    }
+
+    @Test
+    public void updateAndRemove_reuseOrdinals() {
+        for (int i = 0; i < 1000; i += 2) {
+            remove(i);
+        }
+        for (int i = 1; i < 1000; i += 2) {
+            put(i, new Customer(true, "EU", 1));
+        }
+        for (int i = 1000; i < 1500; i++) {
+            put(i, new Customer(false, "US", 2));
+        }
+
+        assertQuery(new SqlPredicate("active = true and region = 'EU'"));
+        assertQuery(new SqlPredicate("active = false or region = 'US'"));
+        assertQuery(new SqlPredicate("region != 'US'"));
+    }
+
+    @Test
+    public void result_skipsOrdinalsReusedAfterLookup() {
+        Set<QueryableEntry> result = indexes.query(optimizer.optimize(Predicates.equal("region", "EU"), indexes));
+
+        // the new key takes the ordinal released by the removed one
+        remove(0);
+        put(1000, new Customer(false, "US", 1));
+
+        Set<Data> actual = new HashSet<Data>();
+        for (QueryableEntry entry : result) {
+            actual.add(entry.getKeyData());
+        }
+        Set<Data> expected = new HashSet<Data>();
+        for (int i = 4; i < 1000; i += 4) {
+            expected.add(ss.toData(i));
+        }
+        assertEquals(expected, actual);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void orderedBitmapIndex_isRejected() {
+        indexes.addOrGetIndex("name", true, true);
+    }
+
+    @Test
+    public void bitmapIndex_configuredThroughMapIndexConfig() {
+        Config config = new Config();
+        config.addMapConfig(new MapConfig("customers")
+                .addMapIndexConfig(new MapIndexConfig("active", false).setBitmap(true))
+                .addMapIndexConfig(new MapIndexConfig("region", false).setBitmap(true)));
+        HazelcastInstance instance = createHazelcastInstance(config);
+        IMap<Integer, Customer> map = instance.getMap("customers");
+        for (int i = 0; i < 100; i++) {
+            map.put(i, new Customer(i % 2 == 0, REGIONS[i % REGIONS.length], i));
+        }
+        map.remove(0);
+
+        Set<Integer> keys = map.keySet(new SqlPredicate("active = true and region = 'EU'"));
+
+        Set<Integer> expected = new HashSet<Integer>();
+        for (int i = 4; i < 100; i += 4) {
+            expected.add(i);
+        }
+        assertEquals(expected, keys);
+    }
+
+    private void put(int key, Customer customer) {
+        Data keyData = ss.toData(key);
+        QueryableEntry old = entries.get(keyData);
+        QueryEntry entry = new QueryEntry(ss, keyData, customer, Extractors.empty());
+        indexes.saveEntryIndex(entry, old == null ? null : old.getValue());
+        entries.put(keyData, entry);
+    }
+
+    private void remove(int key) {
+        Data keyData = ss.toData(key);
+        QueryableEntry old = entries.remove(keyData);
+        indexes.removeEntryIndex(keyData, old.getValue());
+    }
+
+    private void assertQuery(Predicate predicate) {
+        Predicate optimized = optimizer.optimize(predicate, indexes);
+        Set<QueryableEntry> result = indexes.query(optimized);
+        assertNotNull("Expected an indexed query for " + optimized, result);
+
+        Set<Data> actual = new HashSet<Data>();
+        for (QueryableEntry entry : result) {
+            assertTrue(actual.add(entry.getKeyData()));
+        }
+        Set<Data> expected = new HashSet<Data>();
+        for (QueryableEntry entry : entries.values()) {
+            if (predicate.apply(entry)) {
+                expected.add(entry.getKeyData());
+            }
+        }
+        assertEquals(predicate.toString(), expected, actual);
+    }
+
+    public static class Customer implements Serializable {
+
+        private final boolean active;
+        private final String region;
+        private final int tier;
+        private final String name;
+
+        public Customer(boolean active, String region, int tier) {
+            this.active = active;
+            this.region = region;
+            this.tier = tier;
+            this.name = "customer-" + tier;
+        }
+
+        public boolean isActive() {
+            return active;
+        }
+
+        public String getRegion() {
+            return region;
+        }
+
+        public int getTier() {
+            return tier;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl;
+
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.query.IndexAwarePredicate;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.Predicates;
+import com.hazelcast.query.impl.getters.Extractors;
+import com.hazelcast.query.impl.predicates.CompositeIndexPredicate;
+import com.hazelcast.query.impl.predicates.RuleBasedQueryOptimizer;
+
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Compares a query over three single attribute indexes with the same query over a composite index on
+ * (tenantId, status, createdAt): the number of candidate entries the index lookup materialises before the
+ * remaining predicates are applied, and the time per query.
+ * <p/>
+ * With single attribute indexes the AndPredicate iterates the smallest indexed result and probes the others;
+ * the composite index returns the matching entries only. Arguments: {@code c<entryCount> q<queryCount>}.
+ */
+public final class CompositeIndexBenchmark {
+
+    private static final String[] STATUSES = {"NEW", "OPEN", "CLOSED", "ARCHIVED"};
+    private static final int TENANTS = 100;
+    private static final int TIMESTAMPS = 10000;
+
+    private final SerializationService ss = new DefaultSerializationServiceBuilder().build();
+    private final RuleBasedQueryOptimizer optimizer = new RuleBasedQueryOptimizer();
+    private final Indexes singleIndexes = new Indexes(ss, Extractors.empty());
+    private final Indexes compositeIndexes = new Indexes(ss, Extractors.empty());
+
+    private CompositeIndexBenchmark(int entryCount) {
+        singleIndexes.addOrGetIndex("tenantId", false);
+        singleIndexes.addOrGetIndex("status", false);
+        singleIndexes.addOrGetIndex("createdAt", true);
+        compositeIndexes.addOrGetIndex("tenantId,status,createdAt", true);
+
+        Random random = new Random(0);
+        for (int i = 0; i < entryCount; i++) {
+            CompositeIndexTest.Order order = new CompositeIndexTest.Order(random.nextInt(TENANTS),
+                    STATUSES[random.nextInt(STATUSES.length)], random.nextInt(TIMESTAMPS));
+            QueryEntry entry = new QueryEntry(ss, ss.toData(i), order, Extractors.empty());
+            singleIndexes.saveEntryIndex(entry, null);
+            compositeIndexes.saveEntryIndex(entry, null);
+        }
+    }
+
+    public static void main(String[] input) {
+        int entryCount = 1000 * 1000;
+        int queryCount = 1000;
+        if (input != null) {
+            for (String arg : input) {
+                arg = arg.trim();
+                if (arg.startsWith("c")) {
+                    entryCount = Integer.parseInt(arg.substring(1));
+                } else if (arg.startsWith("q")) {
+                    queryCount = Integer.parseInt(arg.substring(1));
+                }
+            }
+        }
+
+        CompositeIndexBenchmark benchmark = new CompositeIndexBenchmark(entryCount);
+        Predicate[] conjuncts = {
+                Predicates.equal("tenantId", 7),
+                Predicates.equal("status", "OPEN"),
+                Predicates.greaterEqual("createdAt", TIMESTAMPS * 9 / 10),
+        };
+        for (int round = 0; round < 3; round++) {
+            System.out.println("Round " + round);
+            benchmark.run("single attribute indexes", benchmark.singleIndexes, conjuncts, queryCount);
+            benchmark.run("composite index", benchmark.compositeIndexes, conjuncts, queryCount);
+        }
+    }
+
+    private void run(String name, Indexes indexes, Predicate[] conjuncts, int queryCount) {
+        Predicate optimized = optimizer.optimize(Predicates.and(conjuncts), indexes);
+        long candidates = candidates(optimized, conjuncts, indexes);
+
+        int matches = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < queryCount; i++) {
+            matches = 0;
+            for (QueryableEntry entry : indexes.query(optimized)) {
+                if (optimized.apply(entry)) {
+                    matches++;
+                }
+            }
+        }
+        long micros = (System.nanoTime() - start) / 1000 / queryCount;
+        System.out.println(name + ": plan=" + optimized + ", candidates=" + candidates
+                + ", matches=" + matches + ", avg query=" + micros + " us");
+    }
+
+    // the size of the smallest indexed result, which is the set the AndPredicate iterates
+    private static long candidates(Predicate optimized, Predicate[] conjuncts, Indexes indexes) {
+        QueryContext queryContext = new QueryContext(indexes);
+        Predicate[] lookups = optimized instanceof CompositeIndexPredicate ? new Predicate[]{optimized} : conjuncts;
+        long smallest = Long.MAX_VALUE;
+        for (Predicate lookup : lookups) {
+            IndexAwarePredicate indexAware = (IndexAwarePredicate) lookup;
+            if (indexAware.isIndexed(queryContext)) {
+                Set<QueryableEntry> result = indexAware.filter(queryContext);
+                smallest = Math.min(smallest, result.size());
+            }
+        }
+        return smallest;
+    }
+}
@@ -0,0 +1,230 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.config.MapIndexConfig;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.query.IndexAwarePredicate;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.Predicates;
+import com.hazelcast.query.SqlPredicate;
+import com.hazelcast.query.impl.getters.Extractors;
+import com.hazelcast.query.impl.predicates.CompositeIndexPredicate;
+import com.hazelcast.query.impl.predicates.RuleBasedQueryOptimizer;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class CompositeIndexTest extends HazelcastTestSupport {
+
+    private static final String INDEX_NAME = "tenantId,status,createdAt";
+    private static final String[] STATUSES = {"NEW", "OPEN", "CLOSED", null};
+
+    private SerializationService ss;
+    private Indexes indexes;
+    private Map<Data, QueryableEntry> entries;
+    private RuleBasedQueryOptimizer optimizer;
+
+    @Before
+    public void setUp() {
+        ss = new DefaultSerializationServiceBuilder().build();
+        indexes = new Indexes(ss, Extractors.empty());
+        indexes.addOrGetIndex(INDEX_NAME, false);
+        entries = new HashMap<Data, QueryableEntry>();
+        optimizer = new RuleBasedQueryOptimizer();
+        for (int i = 0; i < 500; i++) {
+            Order order = new Order(i % 5, STATUSES[i % STATUSES.length], i % 50);
+            QueryEntry entry = new QueryEntry(ss, ss.toData(i), order, Extractors.empty());
+            indexes.saveEntryIndex(entry, null);
+            entries.put(entry.getKeyData(), entry);
+        }
+    }
+
+    @Test
+    public void compositeValue_ordersByComponentsThenSentinels() {
+        CompositeValue value = new CompositeValue(new Comparable[]{1, "OPEN"});
+        CompositeValue lower = new CompositeValue(new Comparable[]{1, CompositeValue.NEGATIVE_INFINITY});
+        CompositeValue upper = new CompositeValue(new Comparable[]{1, CompositeValue.POSITIVE_INFINITY});
+        CompositeValue withNull = new CompositeValue(new Comparable[]{1, IndexImpl.NULL});
+
+        assertTrue(lower.compareTo(withNull) < 0);
+        assertTrue(withNull.compareTo(value) < 0);
+        assertTrue(value.compareTo(upper) < 0);
+        assertTrue(new CompositeValue(new Comparable[]{1, "OPEN", CompositeValue.NEGATIVE_INFINITY}).compareTo(value) < 0);
+        assertTrue(new CompositeValue(new Comparable[]{1, "OPEN", CompositeValue.POSITIVE_INFINITY}).compareTo(value) > 0);
+        assertEquals(0, value.compareTo(new CompositeValue(new Comparable[]{1, "OPEN"})));
+    }
+
+    @Test
+    public void fullTupleEquality() {
+        assertIndexedQuery(new SqlPredicate("tenantId = 1 and status = 'OPEN' and createdAt = 21"));
+    }
+
+    @Test
+    public void prefixEquality() {
+        assertIndexedQuery(new SqlPredicate("tenantId = 2 and status = 'NEW'"));
+    }
+
+    @Test
+    public void prefixEquality_withNullComponent() {
+        assertIndexedQuery(Predicates.and(Predicates.equal("tenantId", 3), Predicates.equal("status", null)));
+    }
+
+    @Test
+    public void rangeOnLastColumn() {
+        assertIndexedQuery(new SqlPredicate("tenantId = 1 and status = 'OPEN' and createdAt > 20"));
+        assertIndexedQuery(new SqlPredicate("tenantId = 1 and status = 'OPEN' and createdAt >= 21"));
+        assertIndexedQuery(new SqlPredicate("tenantId = 1 and status = 'OPEN' and createdAt < 21"));
+        assertIndexedQuery(new SqlPredicate("tenantId = 1 and status = 'OPEN' and createdAt <= 21"));
+    }
+
+    @Test
+    public void betweenOnLastColumn() {
+        assertIndexedQuery(new SqlPredicate("tenantId = 1 and status = 'OPEN' and createdAt between 5 and 25"));
+        assertIndexedQuery(new SqlPredicate("tenantId = 1 and status = 'OPEN' and createdAt >= 5 and createdAt <= 25"));
+    }
+
+    @Test
+    public void rangeAfterShortPrefix() {
+        assertIndexedQuery(new SqlPredicate("tenantId = 4 and status > 'NEW'"));
+        assertIndexedQuery(new SqlPredicate("tenantId = 4 and status < 'OPEN'"));
+    }
+
+    @Test
+    public void additionalPredicatesAreStillApplied() {
+        assertIndexedQuery(new SqlPredicate("tenantId = 1 and status = 'OPEN' and createdAt > 5 and createdAt != 41"));
+    }
+
+    @Test
+    public void singleAttributeMatch_isNotRewritten() {
+        Predicate optimized = optimizer.optimize(new SqlPredicate("tenantId = 1 and createdAt > 5"), indexes);
+        assertFalse(optimized.toString().contains(INDEX_NAME));
+    }
+
+    @Test
+    public void updateAndRemove_areReflectedInTheIndex() {
+        Data key = ss.toData(1);
+        QueryableEntry entry = entries.get(key);
+        Order oldOrder = (Order) entry.getValue();
+        Order newOrder = new Order(oldOrder.tenantId, "ARCHIVED", oldOrder.createdAt);
+        QueryEntry updated = new QueryEntry(ss, key, newOrder, Extractors.empty());
+        indexes.saveEntryIndex(updated, oldOrder);
+        entries.put(key, updated);
+        assertIndexedQuery(new SqlPredicate("tenantId = 1 and status = 'ARCHIVED'"));
+
+        indexes.removeEntryIndex(key, newOrder);
+        entries.remove(key);
+        assertIndexedQuery(new SqlPredicate("tenantId = 1 and status = 'ARCHIVED'"));
+    }
+
+    @Test
+    public void compositeIndex_configuredThroughMapIndexConfig() {
+        Config config = new Config();
+        config.addMapConfig(new MapConfig("orders").addMapIndexConfig(new MapIndexConfig(INDEX_NAME, true)));
+        HazelcastInstance instance = createHazelcastInstance(config);
+        IMap<Integer, Order> map = instance.getMap("orders");
+        for (int i = 0; i < 100; i++) {
+            map.put(i, new Order(i % 5, STATUSES[i % STATUSES.length], i));
+        }
+
+        Set<Integer> keys = map.keySet(new SqlPredicate("tenantId = 1 and status = 'OPEN' and createdAt >= 40"));
+
+        Set<Integer> expected = new HashSet<Integer>();
+        for (int i = 40; i < 100; i++) {
+            if (i % 5 == 1 && "OPEN".equals(STATUSES[i % STATUSES.length])) {
+                expected.add(i);
+            }
+        }
+        assertEquals(expected, keys);
+    }
+
+    private void assertIndexedQuery(Predicate predicate) {
+        Predicate optimized = optimizer.optimize(predicate, indexes);
+        assertTrue("Expected a composite index lookup in " + optimized, usesCompositeIndex(optimized));
+
+        Set<QueryableEntry> result = indexes.query(optimized);
+        assertNotNull(result);
+        Set<Data> actual = new HashSet<Data>();
+        for (QueryableEntry entry : result) {
+            if (optimized.apply(entry)) {
+                actual.add(entry.getKeyData());
+            }
+        }
+
+        Set<Data> expected = new HashSet<Data>();
+        for (QueryableEntry entry : entries.values()) {
+            if (predicate.apply(entry)) {
+                expected.add(entry.getKeyData());
+            }
+        }
+        assertEquals(expected, actual);
+    }
+
+    private static boolean usesCompositeIndex(Predicate predicate) {
+        return predicate instanceof CompositeIndexPredicate
+                || (predicate instanceof IndexAwarePredicate && predicate.toString().contains("INDEX(" + INDEX_NAME + ")"));
+    }
+
+    public static class Order implements Serializable {
+
+        private final int tenantId;
+        private final String status;
+        private final long createdAt;
+
+        public Order(int tenantId, String status, long createdAt) {
+            this.tenantId = tenantId;
+            this.status = status;
+            this.createdAt = createdAt;
+        }
+
+        public int getTenantId() {
+            return tenantId;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+
+        public long getCreatedAt() {
+            return createdAt;
+        }
+    }
+}
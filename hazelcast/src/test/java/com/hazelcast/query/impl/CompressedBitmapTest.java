@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl;
+
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class CompressedBitmapTest {
+
+    private final Random random = new Random(42);
+
+    @Test
+    public void addRemoveContains() {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        bitmap.add(1);
+        bitmap.add(70000);
+        bitmap.add(1);
+
+        assertTrue(bitmap.contains(1));
+        assertTrue(bitmap.contains(70000));
+        assertFalse(bitmap.contains(2));
+        assertEquals(2, bitmap.cardinality());
+
+        bitmap.remove(1);
+        bitmap.remove(70000);
+        assertTrue(bitmap.isEmpty());
+    }
+
+    @Test
+    public void denseChunk_switchesBetweenArrayAndBitmap() {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        TreeSet<Integer> expected = new TreeSet<Integer>();
+        for (int i = 0; i < 2 * CompressedBitmap.ARRAY_CONTAINER_MAX_SIZE; i++) {
+            bitmap.add(i * 3);
+            expected.add(i * 3);
+        }
+        assertContent(expected, bitmap);
+
+        for (int i = 0; i < 2 * CompressedBitmap.ARRAY_CONTAINER_MAX_SIZE; i += 2) {
+            bitmap.remove(i * 3);
+            expected.remove(i * 3);
+        }
+        assertContent(expected, bitmap);
+    }
+
+    @Test
+    public void setOperations_matchTreeSet_sparse() {
+        assertSetOperations(200000, 3000);
+    }
+
+    @Test
+    public void setOperations_matchTreeSet_dense() {
+        assertSetOperations(200000, 150000);
+    }
+
+    @Test
+    public void setOperations_matchTreeSet_mixed() {
+        assertSetOperations(70000, 20000);
+    }
+
+    private void assertSetOperations(int range, int count) {
+        TreeSet<Integer> left = randomSet(range, count);
+        TreeSet<Integer> right = randomSet(range, count / 2);
+        CompressedBitmap leftBitmap = toBitmap(left);
+        CompressedBitmap rightBitmap = toBitmap(right);
+
+        TreeSet<Integer> and = new TreeSet<Integer>(left);
+        and.retainAll(right);
+        TreeSet<Integer> or = new TreeSet<Integer>(left);
+        or.addAll(right);
+        TreeSet<Integer> andNot = new TreeSet<Integer>(left);
+        andNot.removeAll(right);
+
+        assertContent(and, leftBitmap.and(rightBitmap));
+        assertContent(or, leftBitmap.or(rightBitmap));
+        assertContent(andNot, leftBitmap.andNot(rightBitmap));
+        assertContent(left, leftBitmap.copy());
+        // the operations don't change their operands
+        assertContent(left, leftBitmap);
+        assertContent(right, rightBitmap);
+    }
+
+    private TreeSet<Integer> randomSet(int range, int count) {
+        TreeSet<Integer> set = new TreeSet<Integer>();
+        while (set.size() < count) {
+            set.add(random.nextInt(range));
+        }
+        return set;
+    }
+
+    private static CompressedBitmap toBitmap(TreeSet<Integer> values) {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        for (int value : values) {
+            bitmap.add(value);
+        }
+        return bitmap;
+    }
+
+    private static void assertContent(TreeSet<Integer> expected, CompressedBitmap bitmap) {
+        List<Integer> actual = new ArrayList<Integer>();
+        for (CompressedBitmap.IntIterator it = bitmap.iterator(); it.hasNext(); ) {
+            actual.add(it.next());
+        }
+        assertEquals(new ArrayList<Integer>(expected), actual);
+        assertEquals(expected.size(), bitmap.cardinality());
+        for (int value : expected) {
+            assertTrue(bitmap.contains(value));
+        }
+    }
+}
@@ -0,0 +1,254 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.query.impl;
+
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.query.impl.getters.Extractors;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class IndexStatisticsTest {
+
+    private static final int ENTRY_COUNT = 10000;
+
+    private final SerializationService ss = new DefaultSerializationServiceBuilder().build();
+
+    @Test
+    public void emptyStatistics() {
+        IndexStatistics statistics = IndexStatistics.EMPTY;
+
+        assertEquals(0, statistics.getEntryCount());
+        assertEquals(0, statistics.getDistinctCount());
+        assertEquals(0, statistics.estimateEqual(), 0);
+        assertEquals(0, statistics.estimateRange(1, true, 2, true), 0);
+    }
+
+    @Test
+    public void builder_keepsCounts() {
+        IndexStatistics statistics = new IndexStatistics.Builder(300, 100, 20).build();
+
+        assertEquals(320, statistics.getEntryCount());
+        assertEquals(300, statistics.getValueCount());
+        assertEquals(100, statistics.getDistinctCount());
+        assertEquals(20, statistics.getNullCount());
+        assertEquals(3, statistics.estimateEqual(), 0);
+        assertEquals(0, statistics.getBucketCount());
+    }
+
+    @Test
+    public void builder_boundsTheHistogram() {
+        IndexStatistics.Builder builder = new IndexStatistics.Builder(ENTRY_COUNT, ENTRY_COUNT, 0);
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            builder.add(i, 1);
+        }
+        IndexStatistics statistics = builder.build();
+
+        assertTrue(statistics.getBucketCount() <= IndexStatistics.HISTOGRAM_CAPACITY);
+        assertTrue(statistics.getBucketCount() > IndexStatistics.HISTOGRAM_CAPACITY / 4);
+    }
+
+    @Test
+    public void builder_scalesTheHistogram_toTheCounts() {
+        // a histogram sampled from a tenth of the values
+        IndexStatistics.Builder builder = new IndexStatistics.Builder(ENTRY_COUNT, ENTRY_COUNT, 0);
+        for (int i = 0; i < ENTRY_COUNT; i += 10) {
+            builder.add(i, 1);
+        }
+        IndexStatistics statistics = builder.build();
+
+        assertEstimate(ENTRY_COUNT / 2, statistics.estimateRange(null, false, ENTRY_COUNT / 2, false));
+    }
+
+    @Test
+    public void sortedStore_estimatesRanges() {
+        assertRangeEstimates(new SortedIndexStore());
+    }
+
+    @Test
+    public void longStore_estimatesRanges() {
+        assertRangeEstimates(new LongSortedIndexStore());
+    }
+
+    @Test
+    public void doubleStore_estimatesRanges() {
+        IndexStore store = new DoubleSortedIndexStore();
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            double value = i - ENTRY_COUNT / 2 + 0.5;
+            store.newIndex(value, entry(i, value));
+        }
+        IndexStatistics statistics = store.getStatistics();
+
+        assertEstimate(ENTRY_COUNT / 2, statistics.estimateRange(-1e9, true, 0d, false));
+        assertEstimate(ENTRY_COUNT / 4, statistics.estimateRange(0d, true, ENTRY_COUNT / 4d, true));
+    }
+
+    private void assertRangeEstimates(IndexStore store) {
+        // skewed: 90 percent of the entries have values below 1000
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            long value = i < ENTRY_COUNT * 9 / 10 ? i % 1000 : 1000 + i;
+            store.newIndex(value, entry(i, value));
+        }
+        IndexStatistics statistics = store.getStatistics();
+
+        assertEquals(ENTRY_COUNT, statistics.getEntryCount());
+        assertEstimate(ENTRY_COUNT * 9 / 10, statistics.estimateRange(null, false, 1000L, false));
+        assertEstimate(ENTRY_COUNT / 10, statistics.estimateRange(1000L, true, null, false));
+        assertEstimate(ENTRY_COUNT * 9 / 20, statistics.estimateRange(0L, true, 500L, false));
+        assertEquals(0, statistics.estimateRange(-100L, true, -1L, true), 0);
+        assertEquals(0, statistics.estimateRange(100000L, true, null, false), 0);
+    }
+
+    @Test
+    public void unorderedStore_estimatesEquality_andDefaultsRanges() {
+        IndexStore store = new UnsortedIndexStore();
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            store.newIndex(i % 100, entry(i, i % 100));
+        }
+        IndexStatistics statistics = store.getStatistics();
+
+        assertEquals(100, statistics.getDistinctCount());
+        assertEquals(ENTRY_COUNT / 100, statistics.estimateEqual(), 0);
+        assertEstimate(ENTRY_COUNT * IndexStatistics.DEFAULT_RANGE_SELECTIVITY, statistics.estimateRange(0, true, 50, true));
+    }
+
+    @Test
+    public void bitmapStore_countsNulls() {
+        EntryOrdinals ordinals = new EntryOrdinals();
+        IndexStore store = new BitmapIndexStore(ordinals);
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            Comparable value = i % 10 == 0 ? IndexImpl.NULL : (Comparable) (i % 4);
+            QueryableEntry entry = entry(i, null);
+            ordinals.assign(entry);
+            store.newIndex(value, entry);
+        }
+        IndexStatistics statistics = store.getStatistics();
+
+        assertEquals(ENTRY_COUNT / 10, statistics.getNullCount());
+        assertEquals(4, statistics.getDistinctCount());
+    }
+
+    @Test
+    public void statistics_areReused_untilStale() {
+        IndexStore store = new SortedIndexStore();
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            store.newIndex(i, entry(i, i));
+        }
+        IndexStatistics statistics = store.getStatistics();
+        for (int i = 0; i < ENTRY_COUNT / 20; i++) {
+            store.removeIndex(i, ss.toData(i));
+        }
+        assertSame(statistics, store.getStatistics());
+
+        for (int i = ENTRY_COUNT / 20; i < ENTRY_COUNT / 5; i++) {
+            store.removeIndex(i, ss.toData(i));
+        }
+        IndexStatistics rebuilt = store.getStatistics();
+        assertNotSame(statistics, rebuilt);
+        assertEquals(ENTRY_COUNT * 4 / 5, rebuilt.getEntryCount());
+
+        store.clear();
+        assertEquals(0, store.getStatistics().getEntryCount());
+    }
+
+    @Test
+    public void longStore_countsEntries_asTheyChange() {
+        IndexStore store = new LongSortedIndexStore();
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            Comparable value = i % 10 == 0 ? IndexImpl.NULL : (Comparable) (long) (i % 100);
+            store.newIndex(value, entry(i, value));
+        }
+        // re-indexing an entry under the same value does not count it twice
+        store.newIndex(1L, entry(1, 1L));
+        // moves the entries of value 1 to value 2, so value 1 is not indexed anymore
+        for (int i = 1; i < ENTRY_COUNT; i += 100) {
+            store.updateIndex(1L, 2L, entry(i, 2L));
+        }
+        IndexStatistics statistics = store.getStatistics();
+
+        assertEquals(ENTRY_COUNT / 10, statistics.getNullCount());
+        assertEquals(ENTRY_COUNT * 9 / 10, statistics.getValueCount());
+        assertEquals(89, statistics.getDistinctCount());
+    }
+
+    @Test
+    public void statistics_areRebuilt_whileTheStoreIsLocked() throws Exception {
+        final SortedIndexStore store = new SortedIndexStore();
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            store.newIndex(i, entry(i, i));
+        }
+        IndexStatistics statistics = store.getStatistics();
+        for (int i = 0; i < ENTRY_COUNT / 5; i++) {
+            store.removeIndex(i, ss.toData(i));
+        }
+
+        final CountDownLatch locked = new CountDownLatch(1);
+        final CountDownLatch unlock = new CountDownLatch(1);
+        Thread holder = new Thread() {
+            @Override
+            public void run() {
+                store.takeWriteLock();
+                try {
+                    locked.countDown();
+                    unlock.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    store.releaseWriteLock();
+                }
+            }
+        };
+        holder.start();
+        locked.await();
+        IndexStatistics rebuilt = store.getStatistics();
+        assertNotSame(statistics, rebuilt);
+        assertEquals(ENTRY_COUNT * 4 / 5, rebuilt.getEntryCount());
+        assertEquals(ENTRY_COUNT * 4 / 5, rebuilt.estimateRange(null, false, null, false), 0);
+
+        unlock.countDown();
+        holder.join();
+    }
+
+    @Test
+    public void index_withoutEntries_hasEmptyStatistics() {
+        Index index = new IndexImpl("this", true, ss, Extractors.empty());
+
+        assertSame(IndexStatistics.EMPTY, index.getStatistics());
+    }
+
+    private static void assertEstimate(double expected, double actual) {
+        assertEquals(expected, actual, ENTRY_COUNT / 50d);
+    }
+
+    private QueryableEntry entry(int key, Object value) {
+        return new QueryEntry(ss, ss.toData(key), value, Extractors.empty());
+    }
+}
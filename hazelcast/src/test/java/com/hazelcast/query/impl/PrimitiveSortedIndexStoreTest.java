@@ -0,0 +1,214 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.query.impl;
+
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.query.QueryConstants;
+import com.hazelcast.query.impl.getters.Extractors;
+import com.hazelcast.query.impl.getters.MultiResult;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class PrimitiveSortedIndexStoreTest {
+
+    private final SerializationService ss = new DefaultSerializationServiceBuilder().build();
+    private final Random random = new Random(42);
+
+    @Test
+    public void sortedIndex_choosesStoreByAttributeType() {
+        assertStoreType(LongSortedIndexStore.class, 5L);
+        assertStoreType(LongSortedIndexStore.class, 5);
+        assertStoreType(DoubleSortedIndexStore.class, 5.0d);
+        assertStoreType(DoubleSortedIndexStore.class, 5.0f);
+        assertStoreType(SortedIndexStore.class, "5");
+        assertStoreType(SortedIndexStore.class, null);
+    }
+
+    private void assertStoreType(Class<? extends IndexStore> expected, Object value) {
+        IndexImpl index = new IndexImpl(QueryConstants.THIS_ATTRIBUTE_NAME.value(), true, ss, Extractors.empty());
+        index.saveEntryIndex(entry(1, value), null);
+        assertEquals(expected, index.getIndexStore().getClass());
+    }
+
+    @Test
+    public void longStore_matchesSortedIndexStore_underRandomUpdates() {
+        IndexStore expected = new SortedIndexStore();
+        IndexStore actual = new LongSortedIndexStore();
+        Long[] values = new Long[20000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (long) random.nextInt(5000) - 2500;
+            QueryableEntry entry = entry(i, values[i]);
+            expected.newIndex(values[i], entry);
+            actual.newIndex(values[i], entry);
+        }
+        for (int i = 0; i < values.length; i += 3) {
+            expected.removeIndex(values[i], toData(i));
+            actual.removeIndex(values[i], toData(i));
+        }
+        for (int i = 1; i < values.length; i += 3) {
+            Long newValue = (long) random.nextInt(5000);
+            QueryableEntry entry = entry(i, newValue);
+            expected.updateIndex(values[i], newValue, entry);
+            actual.updateIndex(values[i], newValue, entry);
+        }
+
+        for (int i = 0; i < 50; i++) {
+            long from = random.nextInt(6000) - 3000;
+            long to = from + random.nextInt(500);
+            assertSameKeys(expected.getSubRecordsBetween(from, to), actual.getSubRecordsBetween(from, to));
+            assertSameKeys(expected.getRecords(from), actual.getRecords(from));
+            for (ComparisonType type : ComparisonType.values()) {
+                assertSameKeys(expected.getSubRecords(type, from), actual.getSubRecords(type, from));
+            }
+        }
+    }
+
+    @Test
+    public void longStore_appendsMonotonicKeys() {
+        LongSortedIndexStore store = new LongSortedIndexStore();
+        int count = PrimitiveSortedIndexStore.MAX_BLOCK_SIZE * 4 + 1;
+        for (int i = 0; i < count; i++) {
+            store.newIndex((long) i, entry(i, (long) i));
+        }
+
+        assertEquals(count, store.keyCount());
+        assertEquals(count, store.getSubRecords(ComparisonType.GREATER_EQUAL, 0L).size());
+        assertEquals(10, store.getSubRecordsBetween(1000L, 1009L).size());
+        assertEquals(1, store.getRecords((long) count - 1).size());
+
+        for (int i = 0; i < count; i++) {
+            store.removeIndex((long) i, toData(i));
+        }
+        assertEquals(0, store.keyCount());
+        assertTrue(store.getSubRecords(ComparisonType.LESSER, Long.MAX_VALUE).isEmpty());
+    }
+
+    @Test
+    public void doubleStore_ordersLikeDouble() {
+        IndexStore expected = new SortedIndexStore();
+        IndexStore actual = new DoubleSortedIndexStore();
+        List<Double> values = new ArrayList<Double>(Arrays.asList(Double.NEGATIVE_INFINITY, -Double.MAX_VALUE, -1.5d,
+                -Double.MIN_VALUE, -0.0d, 0.0d, Double.MIN_VALUE, 1.5d, Double.MAX_VALUE, Double.POSITIVE_INFINITY,
+                Double.NaN));
+        for (int i = 0; i < 1000; i++) {
+            values.add(random.nextGaussian() * 1000);
+        }
+        for (int i = 0; i < values.size(); i++) {
+            QueryableEntry entry = entry(i, values.get(i));
+            expected.newIndex(values.get(i), entry);
+            actual.newIndex(values.get(i), entry);
+        }
+
+        for (Double value : values) {
+            assertSameKeys(expected.getRecords(value), actual.getRecords(value));
+            for (ComparisonType type : ComparisonType.values()) {
+                assertSameKeys(expected.getSubRecords(type, value), actual.getSubRecords(type, value));
+            }
+        }
+        assertSameKeys(expected.getSubRecordsBetween(-1.5d, 1.5d), actual.getSubRecordsBetween(-1.5d, 1.5d));
+    }
+
+    @Test
+    public void postingList_growsIntoMapAndShrinksBack() {
+        LongSortedIndexStore store = new LongSortedIndexStore();
+        int count = PostingList.MAX_ARRAY_SIZE * 2;
+        for (int i = 0; i < count; i++) {
+            store.newIndex(7L, entry(i, 7L));
+            assertEquals(i + 1, store.getRecords(7L).size());
+        }
+        assertTrue(store.getRecords(7L).contains(entry(count - 1, 7L)));
+        assertEquals(count, store.getRecordMap(7L).size());
+
+        for (int i = 0; i < count; i++) {
+            store.removeIndex(7L, toData(i));
+            assertEquals(count - i - 1, store.getRecords(7L).size());
+        }
+        assertNull(store.getRecordMap(7L));
+    }
+
+    @Test
+    public void resultsStayValid_afterStoreChanges() {
+        LongSortedIndexStore store = new LongSortedIndexStore();
+        store.newIndex(1L, entry(1, 1L));
+        store.newIndex(1L, entry(2, 1L));
+        Set<QueryableEntry> result = store.getRecords(1L);
+
+        store.removeIndex(1L, toData(1));
+        store.clear();
+
+        assertEquals(2, result.size());
+        assertTrue(result.contains(entry(1, 1L)));
+    }
+
+    @Test
+    public void nullsAndMultiValues() {
+        LongSortedIndexStore store = new LongSortedIndexStore();
+        store.newIndex(null, entry(1, null));
+        store.newIndex(new MultiResult<Long>(Arrays.asList(3L, 4L, 5L)), entry(2, null));
+        store.newIndex(4L, entry(3, 4L));
+
+        assertEquals(1, store.getRecords(IndexImpl.NULL).size());
+        assertEquals(2, store.getSubRecordsBetween(3L, 5L).size());
+        assertEquals(2, store.getSubRecords(ComparisonType.GREATER, 2L).size());
+        assertFalse(store.getSubRecords(ComparisonType.GREATER, 2L).contains(entry(1, null)));
+    }
+
+    private void assertSameKeys(Set<QueryableEntry> expected, Set<QueryableEntry> actual) {
+        assertEquals(keys(expected), keys(actual));
+        assertEquals(expected.size(), actual.size());
+        for (QueryableEntry entry : expected) {
+            assertTrue(actual.contains(entry));
+        }
+    }
+
+    private static Set<Data> keys(Set<QueryableEntry> entries) {
+        Set<Data> keys = new HashSet<Data>();
+        for (QueryableEntry entry : entries) {
+            keys.add(entry.getKeyData());
+        }
+        return keys;
+    }
+
+    private QueryableEntry entry(int key, Object value) {
+        return new QueryEntry(ss, toData(key), value, Extractors.empty());
+    }
+
+    private Data toData(int key) {
+        return ss.toData(key);
+    }
+}
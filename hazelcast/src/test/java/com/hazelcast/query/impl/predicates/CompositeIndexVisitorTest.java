@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl.predicates;
+
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.impl.CompositeIndex;
+import com.hazelcast.query.impl.Index;
+import com.hazelcast.query.impl.Indexes;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import static com.hazelcast.query.Predicates.and;
+import static com.hazelcast.query.Predicates.equal;
+import static com.hazelcast.query.Predicates.greaterThan;
+import static com.hazelcast.query.Predicates.notEqual;
+import static org.hamcrest.Matchers.hasItemInArray;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class CompositeIndexVisitorTest {
+
+    private CompositeIndexVisitor visitor;
+    private Indexes mockIndexes;
+
+    @Before
+    public void setUp() {
+        mockIndexes = mock(Indexes.class);
+        when(mockIndexes.hasIndex()).thenReturn(true);
+        when(mockIndexes.getIndexes()).thenReturn(new Index[]{
+                new CompositeIndex("a,b", true, null, null),
+                new CompositeIndex("a,b,c", true, null, null),
+        });
+        visitor = new CompositeIndexVisitor();
+    }
+
+    @Test
+    public void whenAllPredicatesAreCovered_thenReturnCompositePredicate() {
+        Predicate and = and(equal("a", 1), equal("b", 2), greaterThan("c", 3));
+
+        Predicate result = visitor.visit((AndPredicate) and, mockIndexes);
+
+        assertThat(result, instanceOf(CompositeIndexPredicate.class));
+        assertEquals("a,b,c", ((CompositeIndexPredicate) result).getIndexName());
+    }
+
+    @Test
+    public void whenSomePredicatesAreNotCovered_thenKeepThemInAndPredicate() {
+        Predicate other = equal("d", 4);
+        Predicate and = and(equal("a", 1), other, equal("b", 2));
+
+        AndPredicate result = (AndPredicate) visitor.visit((AndPredicate) and, mockIndexes);
+
+        assertEquals(2, result.predicates.length);
+        assertThat(result.predicates[0], instanceOf(CompositeIndexPredicate.class));
+        assertEquals("a,b", ((CompositeIndexPredicate) result.predicates[0]).getIndexName());
+        assertThat(result.predicates, hasItemInArray(other));
+    }
+
+    @Test
+    public void whenPrefixIsNotMatched_thenReturnOriginal() {
+        Predicate and = and(equal("b", 2), greaterThan("c", 3));
+
+        Predicate result = visitor.visit((AndPredicate) and, mockIndexes);
+
+        assertSame(and, result);
+    }
+
+    @Test
+    public void whenOnlyFirstAttributeIsMatched_thenReturnOriginal() {
+        Predicate and = and(equal("a", 1), greaterThan("c", 3));
+
+        Predicate result = visitor.visit((AndPredicate) and, mockIndexes);
+
+        assertSame(and, result);
+    }
+
+    @Test
+    public void whenNotEqualOnAttribute_thenItIsNotUsedAsPrefix() {
+        Predicate and = and(equal("a", 1), notEqual("b", 2));
+
+        Predicate result = visitor.visit((AndPredicate) and, mockIndexes);
+
+        assertSame(and, result);
+    }
+}
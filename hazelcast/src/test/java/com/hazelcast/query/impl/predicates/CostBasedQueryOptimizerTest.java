@@ -0,0 +1,197 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.query.impl.predicates;
+
+import com.hazelcast.instance.GroupProperties;
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.SampleObjects.Employee;
+import com.hazelcast.query.impl.Indexes;
+import com.hazelcast.query.impl.QueryEntry;
+import com.hazelcast.query.impl.QueryableEntry;
+import com.hazelcast.query.impl.getters.Extractors;
+import com.hazelcast.query.impl.predicates.QueryPlan.Access;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static com.hazelcast.instance.GroupProperty.QUERY_OPTIMIZER_TYPE;
+import static com.hazelcast.query.Predicates.and;
+import static com.hazelcast.query.Predicates.equal;
+import static com.hazelcast.query.Predicates.greaterEqual;
+import static com.hazelcast.query.Predicates.lessThan;
+import static com.hazelcast.query.Predicates.notEqual;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class CostBasedQueryOptimizerTest {
+
+    private static final int ENTRY_COUNT = 20000;
+
+    private final SerializationService ss = new DefaultSerializationServiceBuilder().build();
+    private final CostBasedQueryOptimizer optimizer = new CostBasedQueryOptimizer();
+    private final List<QueryableEntry> entries = new ArrayList<QueryableEntry>(ENTRY_COUNT);
+    private Indexes indexes;
+
+    @Before
+    public void setUp() {
+        indexes = new Indexes(ss, Extractors.empty());
+        indexes.addOrGetIndex("name", false);
+        indexes.addOrGetIndex("age", true);
+        indexes.addOrGetIndex("salary", true);
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            Employee employee = new Employee(i + "Name", i % 80, i % 2 == 0, 100 + (i % 1000));
+            QueryableEntry entry = new QueryEntry(ss, ss.toData(i), employee, Extractors.empty());
+            indexes.saveEntryIndex(entry, null);
+            entries.add(entry);
+        }
+    }
+
+    @Test
+    public void whenSingleIndexedPredicate_thenIndexLookup() {
+        Predicate predicate = equal("age", 5);
+
+        QueryPlan plan = optimizer.explain(predicate, indexes);
+
+        assertEquals(QueryPlan.Type.INDEX_LOOKUP, plan.getType());
+        assertSame(predicate, plan.getPredicate());
+        assertEquals(ENTRY_COUNT / 80, plan.getEstimatedRows(), 0);
+    }
+
+    @Test
+    public void whenNotIndexed_thenFullScan_withUnchangedPredicate() {
+        Predicate predicate = equal("active", true);
+
+        QueryPlan plan = optimizer.explain(predicate, indexes);
+
+        assertEquals(QueryPlan.Type.FULL_SCAN, plan.getType());
+        assertSame(predicate, plan.getPredicate());
+    }
+
+    @Test
+    public void whenOtherTermIsNotSelective_thenFilterInsteadOfIntersect() {
+        Predicate predicate = and(greaterEqual("salary", 150), equal("age", 5));
+
+        QueryPlan plan = optimizer.explain(predicate, indexes);
+
+        assertEquals(QueryPlan.Type.INDEX_LOOKUP, plan.getType());
+        assertStep(plan.getSteps().get(0), Access.LOOKUP, "age");
+        assertStep(plan.getSteps().get(1), Access.FILTER, "salary");
+        AndPredicate optimized = (AndPredicate) plan.getPredicate();
+        assertThat(optimized.predicates[1], instanceOf(UnindexedPredicate.class));
+        assertSameResult(predicate, plan.getPredicate());
+    }
+
+    @Test
+    public void whenOtherTermIsEqualityLookup_thenIntersect() {
+        Predicate predicate = and(equal("age", 5), lessThan("salary", 110));
+
+        QueryPlan plan = optimizer.explain(predicate, indexes);
+
+        assertEquals(QueryPlan.Type.INDEX_INTERSECTION, plan.getType());
+        assertStep(plan.getSteps().get(0), Access.LOOKUP, "salary");
+        assertStep(plan.getSteps().get(1), Access.INTERSECT, "age");
+        assertSameResult(predicate, plan.getPredicate());
+    }
+
+    @Test
+    public void whenValuesAreSerialized_thenIntersectInsteadOfFilter() {
+        Predicate predicate = and(greaterEqual("salary", 1000), equal("age", 5));
+
+        QueryPlan objectPlan = optimizer.explain(predicate, indexes, false);
+        QueryPlan serializedPlan = optimizer.explain(predicate, indexes, true);
+
+        assertStep(objectPlan.getSteps().get(1), Access.FILTER, "salary");
+        assertFalse(objectPlan.isIndexOnly());
+        assertTrue(serializedPlan.isIndexOnly());
+        assertEquals(QueryPlan.Type.INDEX_INTERSECTION, serializedPlan.getType());
+        assertStep(serializedPlan.getSteps().get(1), Access.INTERSECT, "salary");
+        assertSameResult(predicate, serializedPlan.getPredicate());
+    }
+
+    @Test
+    public void whenNothingIsSelective_thenFullScan_withSelectiveTermsFirst_andUnknownTermsLast() {
+        Predicate active = equal("active", true);
+        Predicate predicate = and(notEqual("name", "foo"), greaterEqual("age", 1), active, greaterEqual("salary", 101));
+
+        QueryPlan plan = optimizer.explain(predicate, indexes);
+
+        assertEquals(QueryPlan.Type.FULL_SCAN, plan.getType());
+        assertThat(plan.getPredicate(), instanceOf(UnindexedPredicate.class));
+        assertNull(indexes.query(plan.getPredicate()));
+        assertStep(plan.getSteps().get(0), Access.SCAN, "age");
+        assertSame(active, plan.getSteps().get(3).getPredicate());
+        assertEquals(ENTRY_COUNT, plan.getCost(), 0);
+    }
+
+    @Test
+    public void explain_describesTheSteps() {
+        QueryPlan plan = optimizer.explain(and(greaterEqual("salary", 150), equal("age", 5)), indexes);
+
+        String explained = plan.toString();
+
+        assertThat(explained, containsString("INDEX_LOOKUP"));
+        assertThat(explained, containsString("LOOKUP age=5"));
+        assertThat(explained, containsString("FILTER salary>=150"));
+    }
+
+    @Test
+    public void newOptimizer_whenPropertyContainsCost_thenCreateCostBasedOptimizer() {
+        GroupProperties properties = mock(GroupProperties.class);
+        when(properties.getString(QUERY_OPTIMIZER_TYPE)).thenReturn("COST");
+
+        assertThat(QueryOptimizerFactory.newOptimizer(properties), instanceOf(CostBasedQueryOptimizer.class));
+    }
+
+    private static void assertStep(QueryPlan.Step step, Access access, String attribute) {
+        assertEquals(access, step.getAccess());
+        assertEquals(attribute, ((AbstractPredicate) step.getPredicate()).attributeName);
+    }
+
+    private void assertSameResult(Predicate original, Predicate optimized) {
+        Set<QueryableEntry> expected = new HashSet<QueryableEntry>();
+        for (QueryableEntry entry : entries) {
+            if (original.apply(entry)) {
+                expected.add(entry);
+            }
+        }
+        // the size of an and-result is an estimate, the entries are filtered while iterating
+        Set<QueryableEntry> actual = new HashSet<QueryableEntry>(indexes.query(optimized));
+        assertEquals(expected, actual);
+    }
+}
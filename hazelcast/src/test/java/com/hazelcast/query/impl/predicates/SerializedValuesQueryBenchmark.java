@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.query.impl.predicates;
+
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.SampleObjects.Employee;
+import com.hazelcast.query.impl.Indexes;
+import com.hazelcast.query.impl.QueryEntry;
+import com.hazelcast.query.impl.QueryableEntry;
+import com.hazelcast.query.impl.getters.Extractors;
+
+import java.util.Random;
+import java.util.Set;
+
+import static com.hazelcast.query.Predicates.and;
+import static com.hazelcast.query.Predicates.equal;
+import static com.hazelcast.query.Predicates.greaterEqual;
+import static com.hazelcast.query.Predicates.lessThan;
+
+/**
+ * Measures key queries on entries that keep their values serialized, like a map with the {@code BINARY} in-memory
+ * format which never caches deserialized values. Every query is planned by the {@link CostBasedQueryOptimizer} once
+ * with the costs of deserialized values, which was the only plan before, and once with the costs of serialized
+ * values, then the keys of the matching entries are collected the way the map query engine does. Reports the average
+ * time per query and both plans.
+ * <p/>
+ * Arguments: {@code c<entryCount> q<queryCount>}.
+ */
+public final class SerializedValuesQueryBenchmark {
+
+    private static final int AGE_COUNT = 100;
+    private static final int SALARY_COUNT = 100000;
+
+    private final SerializationService ss = new DefaultSerializationServiceBuilder().build();
+    private final Indexes indexes = new Indexes(ss, Extractors.empty());
+    private final CostBasedQueryOptimizer optimizer = new CostBasedQueryOptimizer();
+
+    private SerializedValuesQueryBenchmark(int entryCount) {
+        indexes.addOrGetIndex("age", false);
+        indexes.addOrGetIndex("salary", true);
+        Random random = new Random(0);
+        for (int i = 0; i < entryCount; i++) {
+            Employee employee = new Employee(i + "Name", random.nextInt(AGE_COUNT), random.nextBoolean(),
+                    random.nextInt(SALARY_COUNT));
+            indexes.saveEntryIndex(new QueryEntry(ss, ss.toData(i), ss.toData(employee), Extractors.empty()), null);
+        }
+    }
+
+    public static void main(String[] input) {
+        int entryCount = 200 * 1000;
+        int queryCount = 20;
+        if (input != null) {
+            for (String arg : input) {
+                arg = arg.trim();
+                if (arg.startsWith("c")) {
+                    entryCount = Integer.parseInt(arg.substring(1));
+                } else if (arg.startsWith("q")) {
+                    queryCount = Integer.parseInt(arg.substring(1));
+                }
+            }
+        }
+
+        SerializedValuesQueryBenchmark benchmark = new SerializedValuesQueryBenchmark(entryCount);
+        Predicate[] queries = {
+                and(equal("age", 5), lessThan("salary", SALARY_COUNT / 10)),
+                and(equal("age", 5), lessThan("salary", SALARY_COUNT / 2)),
+                and(equal("age", 5), greaterEqual("salary", SALARY_COUNT / 10)),
+        };
+        for (int round = 0; round < 3; round++) {
+            System.out.println("Round " + round);
+            for (Predicate query : queries) {
+                System.out.println(query);
+                benchmark.run("  deserialized costs", query, false, queryCount);
+                benchmark.run("  serialized costs  ", query, true, queryCount);
+                if (round == 0) {
+                    System.out.println("  " + benchmark.explain(query, false));
+                    System.out.println("  " + benchmark.explain(query, true));
+                }
+            }
+        }
+    }
+
+    private String explain(Predicate query, boolean serializedValues) {
+        return optimizer.explain(query, indexes, serializedValues).toString().replace("\n", "\n  ");
+    }
+
+    private void run(String name, Predicate query, boolean serializedValues, int queryCount) {
+        int matches = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < queryCount; i++) {
+            Predicate predicate = optimizer.explain(query, indexes, serializedValues).getPredicate();
+            Set<QueryableEntry> result = indexes.query(predicate);
+            for (QueryableEntry entry : result) {
+                Data key = entry.getKeyData();
+                if (key != null) {
+                    matches++;
+                }
+            }
+        }
+        long micros = (System.nanoTime() - start) / 1000 / queryCount;
+        System.out.println(name + ": " + micros + " us/query, matches=" + matches / queryCount);
+    }
+}
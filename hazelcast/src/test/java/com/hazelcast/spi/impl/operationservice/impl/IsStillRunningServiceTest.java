@@ -12,6 +12,7 @@ import com.hazelcast.nio.ObjectDataOutput;
 import com.hazelcast.spi.AbstractOperation;
 import com.hazelcast.spi.InternalCompletableFuture;
 import com.hazelcast.spi.Operation;
+import com.hazelcast.spi.OperationAccessor;
 import com.hazelcast.spi.impl.operationexecutor.OperationExecutor;
 import com.hazelcast.spi.impl.operationservice.InternalOperationService;
 import com.hazelcast.spi.impl.operationservice.impl.operations.IsStillExecutingOperation;
@@ -165,6 +166,27 @@ public class IsStillRunningServiceTest extends HazelcastTestSupport {
         });
     }
 
+    @Test
+    public void isOperationExecuting_whenAsyncOperation() {
+        HazelcastInstance hz = createHazelcastInstance();
+        OperationServiceImpl operationService = (OperationServiceImpl) getOperationService(hz);
+        IsStillRunningService isStillRunningService = operationService.getIsStillRunningService();
+        Address thisAddress = getAddress(hz);
+
+        Operation operation = new DummyOperation(0);
+        operation.setPartitionId(0);
+        OperationAccessor.setCallerAddress(operation, thisAddress);
+        OperationAccessor.setCallId(operation, 123);
+        assertFalse(isStillRunningService.isOperationExecuting(thisAddress, 0, 123));
+
+        operationService.onStartAsyncOperation(operation);
+        assertTrue(isStillRunningService.isOperationExecuting(thisAddress, 0, 123));
+        assertFalse(isStillRunningService.isOperationExecuting(thisAddress, 0, 124));
+
+        operationService.onCompletionAsyncOperation(operation);
+        assertFalse(isStillRunningService.isOperationExecuting(thisAddress, 0, 123));
+    }
+
     @Test
     public void testTimeoutInvocationIfRemoteInvocationIsRunning() throws Exception {
         int callTimeoutMillis = 500;